@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -61,15 +62,15 @@ public class FileRpc implements Rpc {
     /**
      * 数据包数量
      */
-    private long dataPacketNum;
+    private final AtomicLong dataPacketNum;
     /**
      * 负载字节长度
      */
-    private long payloadByteLength;
+    private final AtomicLong payloadByteLength;
     /**
      * 发送字节长度
      */
-    private long sendByteLength;
+    private final AtomicLong sendByteLength;
 
     /**
      * 构建文件RPC。
@@ -87,9 +88,9 @@ public class FileRpc implements Rpc {
         // 按照参与方索引值，将参与方信息插入到ID映射中
         partyIdHashMap = new HashMap<>();
         partySet.forEach(partySpec -> partyIdHashMap.put(partySpec.getPartyId(), partySpec));
-        dataPacketNum = 0;
-        payloadByteLength = 0;
-        sendByteLength = 0;
+        dataPacketNum = new AtomicLong();
+        payloadByteLength = new AtomicLong();
+        sendByteLength = new AtomicLong();
     }
 
     @Override
@@ -153,13 +154,13 @@ public class FileRpc implements Rpc {
             FileWriter payloadFileWriter = new FileWriter(payloadFile);
             PrintWriter payloadPrintWriter = new PrintWriter(payloadFileWriter, true);
             for (byte[] byteArray : payload) {
-                payloadByteLength += byteArray.length;
+                payloadByteLength.addAndGet(byteArray.length);
                 String payloadString = Base64.getEncoder().encodeToString(byteArray);
-                sendByteLength += payloadString.getBytes(StandardCharsets.UTF_8).length;
+                sendByteLength.addAndGet(payloadString.getBytes(StandardCharsets.UTF_8).length);
                 payloadPrintWriter.println(payloadString);
             }
             payloadPrintWriter.close();
-            dataPacketNum++;
+            dataPacketNum.incrementAndGet();
             FileWriter statusFileWriter = new FileWriter(statusFile);
             PrintWriter statusPrintWriter = new PrintWriter(statusFileWriter, true);
             statusPrintWriter.println(FILE_STATUS_SUFFIX);
@@ -241,24 +242,24 @@ public class FileRpc implements Rpc {
 
     @Override
     public long getPayloadByteLength() {
-        return payloadByteLength;
+        return payloadByteLength.get();
     }
 
     @Override
     public long getSendByteLength() {
-        return sendByteLength;
+        return sendByteLength.get();
     }
 
     @Override
     public long getSendDataPacketNum() {
-        return dataPacketNum;
+        return dataPacketNum.get();
     }
 
     @Override
     public void reset() {
-        payloadByteLength = 0;
-        sendByteLength = 0;
-        dataPacketNum = 0;
+        payloadByteLength.set(0);
+        sendByteLength.set(0);
+        dataPacketNum.set(0);
     }
 
     @Override
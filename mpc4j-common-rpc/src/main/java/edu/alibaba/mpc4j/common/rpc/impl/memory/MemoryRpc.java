@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -41,15 +42,15 @@ public class MemoryRpc implements Rpc {
     /**
      * 数据包数量
      */
-    private long dataPacketNum;
+    private final AtomicLong dataPacketNum;
     /**
      * 负载字节长度
      */
-    private long payloadByteLength;
+    private final AtomicLong payloadByteLength;
     /**
      * 发送字节长度
      */
-    private long sendByteLength;
+    private final AtomicLong sendByteLength;
 
     /**
      * 构建内存RPC。
@@ -70,9 +71,9 @@ public class MemoryRpc implements Rpc {
         partyIdHashMap = new HashMap<>();
         partySet.forEach(partySpec -> partyIdHashMap.put(partySpec.getPartyId(), partySpec));
         this.dataPacketBuffer = dataPacketBuffer;
-        dataPacketNum = 0;
-        payloadByteLength = 0;
-        sendByteLength = 0;
+        dataPacketNum = new AtomicLong();
+        payloadByteLength = new AtomicLong();
+        sendByteLength = new AtomicLong();
     }
 
     @Override
@@ -119,7 +120,7 @@ public class MemoryRpc implements Rpc {
         List<byte[]> copyPayload = payload.stream().map(each -> Arrays.copyOf(each, each.length)).collect(Collectors.toList());
         DataPacket copyDataPacket = DataPacket.fromByteArrayList(dataPacket.getHeader(), copyPayload);
         // 先统计数据包大小，再发送数据包，否则可能会出现统计的时候数据包被其他线程修改，抛出并发异常
-        dataPacketNum++;
+        dataPacketNum.incrementAndGet();
         int byteLength;
         switch (dataPacket.getPayloadType()) {
             case EMPTY:
@@ -133,8 +134,8 @@ public class MemoryRpc implements Rpc {
             default:
                 throw new IllegalStateException("Invalid " + PayloadType.class.getSimpleName() + ": " + dataPacket.getPayloadType());
         }
-        payloadByteLength += byteLength;
-        sendByteLength += byteLength;
+        payloadByteLength.addAndGet(byteLength);
+        sendByteLength.addAndGet(byteLength);
         // 往dataPacketBuffer中放置数据包
         dataPacketBuffer.put(copyDataPacket);
     }
@@ -166,24 +167,24 @@ public class MemoryRpc implements Rpc {
 
     @Override
     public long getPayloadByteLength() {
-        return payloadByteLength;
+        return payloadByteLength.get();
     }
 
     @Override
     public long getSendByteLength() {
-        return sendByteLength;
+        return sendByteLength.get();
     }
 
     @Override
     public long getSendDataPacketNum() {
-        return dataPacketNum;
+        return dataPacketNum.get();
     }
 
     @Override
     public void reset() {
-        payloadByteLength = 0;
-        sendByteLength = 0;
-        dataPacketNum = 0;
+        payloadByteLength.set(0);
+        sendByteLength.set(0);
+        dataPacketNum.set(0);
     }
 
     @Override
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -67,15 +68,15 @@ public class NettyRpc implements Rpc {
     /**
      * 数据包数量
      */
-    private long dataPacketNum;
+    private final AtomicLong dataPacketNum;
     /**
      * 负载字节长度
      */
-    private long payloadByteLength;
+    private final AtomicLong payloadByteLength;
     /**
      * 发送字节长度
      */
-    private long sendByteLength;
+    private final AtomicLong sendByteLength;
 
     /**
      * 构建NettyRPC。
@@ -94,9 +95,9 @@ public class NettyRpc implements Rpc {
         // 按照参与方索引值，将参与方信息插入到ID映射中
         partyIdHashMap = new HashMap<>();
         partySet.forEach(party -> partyIdHashMap.put(party.getPartyId(), party));
-        dataPacketNum = 0;
-        payloadByteLength = 0;
-        sendByteLength = 0;
+        dataPacketNum = new AtomicLong();
+        payloadByteLength = new AtomicLong();
+        sendByteLength = new AtomicLong();
         dataReceiveThread = null;
         // 用于父线程和server子线程的同步，parties设置成2
         cyclicBarrier = new CyclicBarrier(2);
@@ -290,9 +291,9 @@ public class NettyRpc implements Rpc {
             .setTypeProto(typeProto)
             .setPayloadProto(payloadProto)
             .build();
-        payloadByteLength += dataPacket.getPayload().stream().mapToLong(data -> data.length).sum();
-        sendByteLength += dataPacketProto.getSerializedSize();
-        dataPacketNum++;
+        payloadByteLength.addAndGet(dataPacket.getPayload().stream().mapToLong(data -> data.length).sum());
+        sendByteLength.addAndGet(dataPacketProto.getSerializedSize());
+        dataPacketNum.incrementAndGet();
         dataSendManager.sendData(partyIdHashMap.get(header.getReceiverId()), dataPacketProto);
     }
 
@@ -325,24 +326,24 @@ public class NettyRpc implements Rpc {
 
     @Override
     public long getPayloadByteLength() {
-        return payloadByteLength;
+        return payloadByteLength.get();
     }
 
     @Override
     public long getSendByteLength() {
-        return sendByteLength;
+        return sendByteLength.get();
     }
 
     @Override
     public long getSendDataPacketNum() {
-        return dataPacketNum;
+        return dataPacketNum.get();
     }
 
     @Override
     public void reset() {
-        payloadByteLength = 0;
-        sendByteLength = 0;
-        dataPacketNum = 0;
+        payloadByteLength.set(0);
+        sendByteLength.set(0);
+        dataPacketNum.set(0);
     }
 
     @Override
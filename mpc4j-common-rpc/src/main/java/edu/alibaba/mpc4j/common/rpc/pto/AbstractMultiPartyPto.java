@@ -160,6 +160,25 @@ public abstract class AbstractMultiPartyPto implements MultiPartyPto {
         }
         int subPtoIndex = subPtos.size();
         subPtos.add(subPto);
+        attachSubPto(subPtoIndex, subPto);
+    }
+
+    /**
+     * Replaces a sub-protocol with a new instance of the same protocol. Since a protocol can only be initialized once,
+     * this is the way to renew an initialized sub-protocol. The new sub-protocol takes the position of the old one, so
+     * that both parties still derive the same encoded task ID. The old sub-protocol is not destroyed.
+     *
+     * @param oldSubPto old sub-protocol.
+     * @param newSubPto new sub-protocol.
+     */
+    protected void replaceSubPto(MultiPartyPto oldSubPto, MultiPartyPto newSubPto) {
+        int subPtoIndex = subPtos.indexOf(oldSubPto);
+        MathPreconditions.checkNonNegative("subPtoIndex", subPtoIndex);
+        subPtos.set(subPtoIndex, newSubPto);
+        attachSubPto(subPtoIndex, newSubPto);
+    }
+
+    private void attachSubPto(int subPtoIndex, MultiPartyPto subPto) {
         int ptoPathLength = ptoPath.length;
         int[] subPtoPath = new int[ptoPathLength + 1];
         System.arraycopy(ptoPath, 0, subPtoPath, 0, ptoPathLength);
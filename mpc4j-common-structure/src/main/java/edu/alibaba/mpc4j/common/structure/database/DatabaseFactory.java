@@ -41,6 +41,10 @@ public class DatabaseFactory {
          * Zl database
          */
         ZL,
+        /**
+         * memory-mapped database
+         */
+        MMAP,
     }
 
     /**
@@ -57,7 +61,7 @@ public class DatabaseFactory {
             case ZL64 -> {
                 return LongUtils.MAX_L_FOR_MODULE_N;
             }
-            case ZL, NAIVE -> {
+            case ZL, NAIVE, MMAP -> {
                 return Integer.MAX_VALUE;
             }
             default ->
@@ -87,6 +91,9 @@ public class DatabaseFactory {
             case NAIVE -> {
                 return NaiveDatabase.create(l, data);
             }
+            case MMAP -> {
+                return MmapDatabase.create(l, data);
+            }
             default ->
                 throw new IllegalArgumentException("Invalid " + type.getClass().getSimpleName() + ": " + type.name());
         }
@@ -115,6 +122,9 @@ public class DatabaseFactory {
             case NAIVE -> {
                 return NaiveDatabase.createRandom(l, rows, secureRandom);
             }
+            case MMAP -> {
+                return MmapDatabase.createRandom(l, rows, secureRandom);
+            }
             default ->
                 throw new IllegalArgumentException("Invalid " + type.getClass().getSimpleName() + ": " + type.name());
         }
@@ -141,6 +151,9 @@ public class DatabaseFactory {
             case NAIVE -> {
                 return NaiveDatabase.createEmpty(l);
             }
+            case MMAP -> {
+                return MmapDatabase.createEmpty(l);
+            }
             default ->
                 throw new IllegalArgumentException("Invalid " + type.getClass().getSimpleName() + ": " + type.name());
         }
@@ -169,6 +182,9 @@ public class DatabaseFactory {
             case NAIVE -> {
                 return NaiveDatabase.create(envType, parallel, bitVectors);
             }
+            case MMAP -> {
+                return MmapDatabase.create(envType, parallel, bitVectors);
+            }
             default ->
                 throw new IllegalArgumentException("Invalid " + type.getClass().getSimpleName() + ": " + type.name());
         }
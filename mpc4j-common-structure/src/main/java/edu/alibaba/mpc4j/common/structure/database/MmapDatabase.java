@@ -0,0 +1,611 @@
+package edu.alibaba.mpc4j.common.structure.database;
+
+import com.google.common.base.Preconditions;
+import edu.alibaba.mpc4j.common.structure.StructureUtils;
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.bitmatrix.trans.TransBitMatrix;
+import edu.alibaba.mpc4j.common.tool.bitmatrix.trans.TransBitMatrixFactory;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVectorFactory;
+import edu.alibaba.mpc4j.common.tool.utils.BigIntegerUtils;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * memory-mapped database. Rows are stored in a file with fixed width byteL, so that the i-th row starts at the offset
+ * i * byteL. The file is mapped into memory in segments, each of which is at most 2^31 - 1 bytes. Rows are read from
+ * and written to the page cache directly, so that opening an existing database file does not load the data into heap,
+ * and processes mapping the same file share the page cache.
+ * <p>
+ * A database is a view of consecutive rows in the mapped file. Splitting and reducing the database only changes the
+ * view, and merging a database that follows the view in the same file only extends the view. Otherwise, merging writes
+ * both databases into a new file.
+ * </p>
+ * <p>
+ * Temporary files are owned by the views of the file and are deleted when the last view is closed. Files given by the
+ * caller are never deleted. Use {@link #getRow(int)} to read rows without copying them into heap.
+ * </p>
+ *
+ * @author Weiran Liu
+ * @date 2025/1/16
+ */
+public class MmapDatabase implements Database, AutoCloseable {
+    /**
+     * max number of bytes in one mapped segment
+     */
+    private static final int MAX_SEGMENT_BYTE_LENGTH = Integer.MAX_VALUE;
+    /**
+     * temporary file prefix
+     */
+    private static final String TEMP_FILE_PREFIX = "mpc4j_mmap_database_";
+    /**
+     * temporary file suffix
+     */
+    private static final String TEMP_FILE_SUFFIX = ".bin";
+    /**
+     * element bit length
+     */
+    private final int l;
+    /**
+     * element byte length
+     */
+    private final int byteL;
+    /**
+     * number of rows in one segment
+     */
+    private final int segmentRows;
+    /**
+     * the mapped file, null if the database is empty or closed
+     */
+    private MappedFile file;
+    /**
+     * index of the first row of the view in the mapped file
+     */
+    private long offset;
+    /**
+     * number of rows
+     */
+    private int rows;
+
+    /**
+     * Creates a database backed by a temporary file. The file is deleted when the database is closed.
+     *
+     * @param l    element bit length.
+     * @param data data.
+     * @return a database.
+     */
+    public static MmapDatabase create(int l, byte[][] data) {
+        MmapDatabase database = new MmapDatabase(l);
+        database.checkData(data);
+        database.mapTempFile(data.length);
+        database.innerSetBytesData(data);
+        return database;
+    }
+
+    /**
+     * Creates a database backed by the given file. The file is created or truncated, and can be opened later by
+     * {@link #open(Path, int)}. The file is not deleted when the database is closed.
+     *
+     * @param path the file.
+     * @param l    element bit length.
+     * @param data data.
+     * @return a database.
+     */
+    public static MmapDatabase create(Path path, int l, byte[][] data) {
+        MmapDatabase database = new MmapDatabase(l);
+        database.checkData(data);
+        database.map(path, false, data.length, true);
+        database.innerSetBytesData(data);
+        database.force();
+        return database;
+    }
+
+    private void checkData(byte[][] data) {
+        MathPreconditions.checkPositive("rows", data.length);
+        Arrays.stream(data).parallel().forEach(rowData ->
+            Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(rowData, byteL, l))
+        );
+    }
+
+    private void innerSetBytesData(byte[][] data) {
+        IntStream.range(0, data.length).parallel().forEach(index -> innerSetBytesData(index, data[index]));
+    }
+
+    /**
+     * Opens a database file in read-only mode. The rows in the file are not checked, so that opening is independent
+     * of the file size. The caller should make sure that the file was created with the same element bit length.
+     *
+     * @param path the file.
+     * @param l    element bit length.
+     * @return a database.
+     */
+    public static MmapDatabase open(Path path, int l) {
+        MmapDatabase database = new MmapDatabase(l);
+        long byteLength;
+        try {
+            byteLength = Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the size of " + path, e);
+        }
+        MathPreconditions.checkEqual("file byte length % byteL", "0", byteLength % database.byteL, 0);
+        long rows = byteLength / database.byteL;
+        MathPreconditions.checkPositiveInRangeClosed("rows", rows, Integer.MAX_VALUE);
+        database.map(path, false, (int) rows, false);
+        return database;
+    }
+
+    /**
+     * Creates a random database backed by a temporary file. The file is deleted when the database is closed.
+     *
+     * @param l            element bit length.
+     * @param rows         number of rows.
+     * @param secureRandom the random state.
+     * @return a database.
+     */
+    public static MmapDatabase createRandom(int l, int rows, SecureRandom secureRandom) {
+        MmapDatabase database = new MmapDatabase(l);
+        MathPreconditions.checkPositive("rows", rows);
+        database.mapTempFile(rows);
+        for (int index = 0; index < rows; index++) {
+            database.innerSetBytesData(index, BytesUtils.randomByteArray(database.byteL, l, secureRandom));
+        }
+        return database;
+    }
+
+    /**
+     * Creates a database by combining bit vectors.
+     *
+     * @param envType    the environment.
+     * @param parallel   parallel combination.
+     * @param bitVectors the combining bit vectors.
+     * @return a database.
+     */
+    public static MmapDatabase create(EnvType envType, boolean parallel, BitVector... bitVectors) {
+        MathPreconditions.checkPositive("BitVectors.length", bitVectors.length);
+        int l = bitVectors.length;
+        int rows = bitVectors[0].bitNum();
+        // check all bit vectors has the same bit num
+        Arrays.stream(bitVectors).forEach(bitVector ->
+            MathPreconditions.checkEqual("rows", "BitVector.bitNum", rows, bitVector.bitNum())
+        );
+        TransBitMatrix bitMatrix = TransBitMatrixFactory.createInstance(envType, rows, l, parallel);
+        for (int columnIndex = 0; columnIndex < l; columnIndex++) {
+            bitMatrix.setColumn(columnIndex, bitVectors[columnIndex].getBytes());
+        }
+        TransBitMatrix transBitMatrix = bitMatrix.transpose();
+        MmapDatabase database = new MmapDatabase(l);
+        database.mapTempFile(rows);
+        IntStream rowIndexIntStream = parallel ? IntStream.range(0, rows).parallel() : IntStream.range(0, rows);
+        rowIndexIntStream.forEach(index -> database.innerSetBytesData(index, transBitMatrix.getColumn(index)));
+        return database;
+    }
+
+    /**
+     * Creates an empty database.
+     *
+     * @param l element bit length.
+     * @return a database.
+     */
+    public static MmapDatabase createEmpty(int l) {
+        MmapDatabase database = new MmapDatabase(l);
+        database.file = null;
+        database.offset = 0;
+        database.rows = 0;
+        return database;
+    }
+
+    private MmapDatabase(int l) {
+        MathPreconditions.checkPositive("l", l);
+        this.l = l;
+        byteL = CommonUtils.getByteLength(l);
+        segmentRows = MAX_SEGMENT_BYTE_LENGTH / byteL;
+        MathPreconditions.checkPositive("segment rows", segmentRows);
+    }
+
+    /**
+     * Maps a new temporary file with the given number of rows in read-write mode.
+     *
+     * @param rows number of rows.
+     */
+    private void mapTempFile(int rows) {
+        Path path;
+        try {
+            path = Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create a temporary file for " + MmapDatabase.class.getSimpleName(), e);
+        }
+        try {
+            map(path, true, rows, true);
+        } catch (RuntimeException e) {
+            deleteFile(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the file with the given number of rows. In read-write mode, the file is created or truncated.
+     *
+     * @param path      the file.
+     * @param temporary whether the file is temporary, i.e., deleted when the last view is closed.
+     * @param rows      number of rows.
+     * @param writable  read-write mode.
+     */
+    private void map(Path path, boolean temporary, int rows, boolean writable) {
+        // rows + segmentRows may overflow
+        int segmentNum = (int) (((long) rows + segmentRows - 1) / segmentRows);
+        MappedByteBuffer[] segments = new MappedByteBuffer[segmentNum];
+        StandardOpenOption[] options = writable
+            ? new StandardOpenOption[]{
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE,
+            }
+            : new StandardOpenOption[]{StandardOpenOption.READ};
+        MapMode mapMode = writable ? MapMode.READ_WRITE : MapMode.READ_ONLY;
+        try (FileChannel fileChannel = FileChannel.open(path, options)) {
+            for (int segmentIndex = 0; segmentIndex < segmentNum; segmentIndex++) {
+                long segmentOffset = (long) segmentIndex * segmentRows * byteL;
+                int rowNum = Math.min(segmentRows, rows - segmentIndex * segmentRows);
+                segments[segmentIndex] = fileChannel.map(mapMode, segmentOffset, (long) rowNum * byteL);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map " + path, e);
+        }
+        // the mapping is valid after the channel is closed
+        this.file = new MappedFile(path, temporary, writable, segments);
+        this.offset = 0;
+        this.rows = rows;
+    }
+
+    private static void deleteFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // some platforms cannot delete a file that is still mapped, delete it when the virtual machine exits
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Forces the modified rows to be written to the file.
+     */
+    public void force() {
+        if (file != null && file.writable) {
+            Arrays.stream(file.segments).forEach(MappedByteBuffer::force);
+        }
+    }
+
+    /**
+     * Gets the mapped file.
+     *
+     * @return the mapped file, null if the database is empty or closed.
+     */
+    public Path getPath() {
+        return file == null ? null : file.path;
+    }
+
+    /**
+     * Closes the database. The database becomes empty. If this is the last view of a temporary file, the file is
+     * deleted. Other views of the same file are still valid.
+     */
+    @Override
+    public void close() {
+        if (file != null) {
+            file.release();
+            file = null;
+        }
+        offset = 0;
+        rows = 0;
+    }
+
+    @Override
+    public DatabaseFactory.DatabaseType getType() {
+        return DatabaseFactory.DatabaseType.MMAP;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int getL() {
+        return l;
+    }
+
+    @Override
+    public int getByteL() {
+        return byteL;
+    }
+
+    @Override
+    public BitVector[] bitPartition(EnvType envType, boolean parallel) {
+        TransBitMatrix bitMatrix = TransBitMatrixFactory.createInstance(envType, l, rows, parallel);
+        // each column of the matrix is a row, rows are read one by one so that the database is not copied into heap
+        for (int index = 0; index < rows; index++) {
+            bitMatrix.setColumn(index, getBytesData(index));
+        }
+        TransBitMatrix transBitMatrix = bitMatrix.transpose();
+        return IntStream.range(0, l)
+            .mapToObj(index -> BitVectorFactory.create(rows, transBitMatrix.getColumn(index)))
+            .toArray(BitVector[]::new);
+    }
+
+    /**
+     * Partitions the database by columns into databases with the given byte length. Each row is padded in front with
+     * zeros to byte length subByteL * partitionNum, and the p-th partition contains bytes [p * subByteL,
+     * (p + 1) * subByteL) of the padded row. Each partition is written into its own temporary file, and bytes are
+     * copied between the mappings without going through heap. The caller should close the partitions.
+     *
+     * @param subByteL byte length of each partition.
+     * @param parallel parallel partition.
+     * @return the partition result.
+     */
+    public MmapDatabase[] bytePartition(int subByteL, boolean parallel) {
+        MathPreconditions.checkPositive("subByteL", subByteL);
+        MathPreconditions.checkPositive("rows", rows);
+        int partitionNum = CommonUtils.getUnitNum(byteL, subByteL);
+        int paddingByteL = subByteL * partitionNum;
+        MmapDatabase[] partitionDatabases = IntStream.range(0, partitionNum)
+            .mapToObj(p -> {
+                MmapDatabase partitionDatabase = new MmapDatabase(subByteL * Byte.SIZE);
+                partitionDatabase.mapTempFile(rows);
+                return partitionDatabase;
+            })
+            .toArray(MmapDatabase[]::new);
+        // the padded row has paddingByteL - byteL leading zeros, and new files are filled with zeros
+        int paddingZeroByteL = paddingByteL - byteL;
+        IntStream rowIndexIntStream = parallel ? IntStream.range(0, rows).parallel() : IntStream.range(0, rows);
+        rowIndexIntStream.forEach(index -> {
+            for (int p = 0; p < partitionNum; p++) {
+                int from = Math.max(p * subByteL, paddingZeroByteL);
+                int to = (p + 1) * subByteL;
+                if (from < to) {
+                    partitionDatabases[p].innerCopyBytes(
+                        index, from - p * subByteL, this, index, from - paddingZeroByteL, to - from
+                    );
+                }
+            }
+        });
+        return partitionDatabases;
+    }
+
+    @Override
+    public MmapDatabase split(int splitRows) {
+        MathPreconditions.checkPositiveInRangeClosed("split rows", splitRows, rows);
+        // the split database is a view of the last splitRows rows
+        MmapDatabase splitDatabase = new MmapDatabase(l);
+        file.retain();
+        splitDatabase.file = file;
+        splitDatabase.offset = offset + rows - splitRows;
+        splitDatabase.rows = splitRows;
+        rows = rows - splitRows;
+        return splitDatabase;
+    }
+
+    @Override
+    public void reduce(int reduceRows) {
+        MathPreconditions.checkPositiveInRangeClosed("reduce rows", reduceRows, rows);
+        rows = reduceRows;
+    }
+
+    @Override
+    public void merge(Database other) {
+        MmapDatabase that = (MmapDatabase) other;
+        MathPreconditions.checkEqual("this.l", "that.l", this.l, that.l);
+        if (that.rows == 0) {
+            return;
+        }
+        if (this.rows == 0) {
+            that.file.retain();
+            if (this.file != null) {
+                this.file.release();
+            }
+            this.file = that.file;
+            this.offset = that.offset;
+            this.rows = that.rows;
+            return;
+        }
+        if (this.file == that.file && this.offset + this.rows == that.offset) {
+            // that database directly follows this database in the same mapping, extend the view
+            this.rows += that.rows;
+            return;
+        }
+        MathPreconditions.checkLessOrEqual("merge rows", (long) this.rows + that.rows, Integer.MAX_VALUE);
+        MmapDatabase mergeDatabase = new MmapDatabase(l);
+        mergeDatabase.mapTempFile(this.rows + that.rows);
+        IntStream.range(0, this.rows).parallel().forEach(index ->
+            mergeDatabase.innerCopyBytes(index, 0, this, index, 0, byteL)
+        );
+        IntStream.range(0, that.rows).parallel().forEach(index ->
+            mergeDatabase.innerCopyBytes(this.rows + index, 0, that, index, 0, byteL)
+        );
+        // this view moves to the merged file
+        this.file.release();
+        this.file = mergeDatabase.file;
+        this.offset = mergeDatabase.offset;
+        this.rows = mergeDatabase.rows;
+    }
+
+    /**
+     * Gets all rows. This copies the whole database into heap, use {@link #getRow(int)} to read rows without copying.
+     *
+     * @return all rows.
+     */
+    @Override
+    public byte[][] getBytesData() {
+        return IntStream.range(0, rows)
+            .mapToObj(this::getBytesData)
+            .toArray(byte[][]::new);
+    }
+
+    /**
+     * Sets data. The database must be writable.
+     *
+     * @param index index.
+     * @param entry data.
+     */
+    public void setBytesData(int index, byte[] entry) {
+        Preconditions.checkState(
+            file != null && file.writable, "%s is read-only: %s", MmapDatabase.class.getSimpleName(), getPath()
+        );
+        MathPreconditions.checkNonNegativeInRange("index", index, rows);
+        Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(entry, byteL, l));
+        innerSetBytesData(index, entry);
+    }
+
+    private void innerSetBytesData(int index, byte[] entry) {
+        long fileIndex = offset + index;
+        // absolute put does not change the position, so that different rows can be written concurrently
+        file.segments[(int) (fileIndex / segmentRows)].put((int) (fileIndex % segmentRows) * byteL, entry);
+    }
+
+    /**
+     * Copies bytes of a row in another database into a row of this database, without going through heap.
+     *
+     * @param index        row index in this database.
+     * @param position     byte position in the row of this database.
+     * @param that         the other database.
+     * @param thatIndex    row index in the other database.
+     * @param thatPosition byte position in the row of the other database.
+     * @param length       number of bytes.
+     */
+    private void innerCopyBytes(int index, int position, MmapDatabase that, int thatIndex, int thatPosition, int length) {
+        long fileIndex = offset + index;
+        long thatFileIndex = that.offset + thatIndex;
+        // absolute bulk put does not change positions of both buffers
+        file.segments[(int) (fileIndex / segmentRows)].put(
+            (int) (fileIndex % segmentRows) * byteL + position,
+            that.file.segments[(int) (thatFileIndex / that.segmentRows)],
+            (int) (thatFileIndex % that.segmentRows) * that.byteL + thatPosition,
+            length
+        );
+    }
+
+    @Override
+    public byte[] getBytesData(int index) {
+        MathPreconditions.checkNonNegativeInRange("index", index, rows);
+        long fileIndex = offset + index;
+        byte[] entry = new byte[byteL];
+        // absolute get does not change the position, so that different rows can be read concurrently
+        file.segments[(int) (fileIndex / segmentRows)].get((int) (fileIndex % segmentRows) * byteL, entry);
+        return entry;
+    }
+
+    /**
+     * Gets the row without copying. The returned buffer is a read-only view of the mapped file with byteL bytes.
+     *
+     * @param index the index.
+     * @return the row.
+     */
+    public ByteBuffer getRow(int index) {
+        MathPreconditions.checkNonNegativeInRange("index", index, rows);
+        long fileIndex = offset + index;
+        return file.segments[(int) (fileIndex / segmentRows)]
+            .slice((int) (fileIndex % segmentRows) * byteL, byteL)
+            .asReadOnlyBuffer();
+    }
+
+    @Override
+    public BigInteger[] getBigIntegerData() {
+        return IntStream.range(0, rows)
+            .mapToObj(this::getBigIntegerData)
+            .toArray(BigInteger[]::new);
+    }
+
+    @Override
+    public BigInteger getBigIntegerData(int index) {
+        return BigIntegerUtils.byteArrayToNonNegBigInteger(getBytesData(index));
+    }
+
+    @Override
+    public int hashCode() {
+        HashCodeBuilder hashCodeBuilder = new HashCodeBuilder().append(l).append(rows);
+        IntStream.range(0, rows).forEach(index -> hashCodeBuilder.append(getRow(index)));
+        return hashCodeBuilder.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof MmapDatabase that) {
+            if (this.l != that.l || this.rows != that.rows) {
+                return false;
+            }
+            return IntStream.range(0, rows).allMatch(index -> this.getRow(index).equals(that.getRow(index)));
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        String[] stringData = IntStream.range(0, Math.min(rows, StructureUtils.DISPLAY_NUM))
+            .mapToObj(index -> BitVectorFactory.create(l, getBytesData(index)))
+            .map(Object::toString)
+            .map(element -> element.toUpperCase(Locale.ROOT))
+            .toArray(String[]::new);
+        return this.getClass().getSimpleName() + " (l = " + l + "): " + Arrays.toString(stringData);
+    }
+
+    /**
+     * A mapped file shared by all views of the file. A temporary file is deleted when the last view is closed.
+     */
+    private static class MappedFile {
+        /**
+         * the file
+         */
+        private final Path path;
+        /**
+         * whether the file is temporary
+         */
+        private final boolean temporary;
+        /**
+         * whether the file is writable
+         */
+        private final boolean writable;
+        /**
+         * mapped segments
+         */
+        private final MappedByteBuffer[] segments;
+        /**
+         * number of views of the file
+         */
+        private final AtomicInteger viewNum;
+
+        private MappedFile(Path path, boolean temporary, boolean writable, MappedByteBuffer[] segments) {
+            this.path = path;
+            this.temporary = temporary;
+            this.writable = writable;
+            this.segments = segments;
+            viewNum = new AtomicInteger(1);
+        }
+
+        private void retain() {
+            viewNum.incrementAndGet();
+        }
+
+        private void release() {
+            if (viewNum.decrementAndGet() == 0 && temporary) {
+                deleteFile(path);
+            }
+        }
+    }
+}
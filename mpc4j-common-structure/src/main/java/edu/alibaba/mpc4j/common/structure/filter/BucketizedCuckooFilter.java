@@ -0,0 +1,331 @@
+package edu.alibaba.mpc4j.common.structure.filter;
+
+import edu.alibaba.mpc4j.common.structure.filter.FilterFactory.FilterType;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
+import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bucketized Cuckoo Filter backed by {@code long[]}. The parameters are the same as the Naive Cuckoo Filter, i.e.,
+ * b = 4 entries per bucket, v = 48-bit tags, and load factor = 0.955 to reach an FPP of ε_{max} = 2^{-45}. Each tag
+ * is stored in one {@code long} so that the 4 entries of a bucket are consecutive 32 bytes in memory, and each lookup
+ * touches at most two buckets.
+ * <p></p>
+ * The alternative bucket is computed as i_2 = (H(tag) - i_1) mod m, which is an involution for any number of buckets m,
+ * so that m does not need to be a power of 2. The bucket is chosen by the high part of the fingerprint, and the tag is
+ * derived from the low part. Entries are updated by atomic compare-and-set, so that elements can be
+ * concurrently inserted.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/19
+ */
+public class BucketizedCuckooFilter<T> implements FingerprintFilter<T> {
+    /**
+     * filter type
+     */
+    private static final FilterType FILTER_TYPE = FilterType.BUCKETIZED_CUCKOO_FILTER;
+    /**
+     * one hash key
+     */
+    static final int HASH_KEY_NUM = 1;
+    /**
+     * number of entries in each bucket
+     */
+    private static final int ENTRIES_PER_BUCKET = 4;
+    /**
+     * tag bit length
+     */
+    private static final int TAG_BIT_LENGTH = 48;
+    /**
+     * tag byte length
+     */
+    private static final int TAG_BYTE_LENGTH = TAG_BIT_LENGTH / Byte.SIZE;
+    /**
+     * load factor
+     */
+    private static final double LOAD_FACTOR = 0.955;
+    /**
+     * max number of kicks, the same as the Naive Cuckoo Filter
+     */
+    private static final int MAX_NUM_KICKS = 1 << 10;
+    /**
+     * empty entry
+     */
+    private static final long EMPTY_TAG = 0L;
+    /**
+     * var handle for atomically accessing the storage
+     */
+    private static final VarHandle STORAGE_HANDLE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Gets the number of buckets for the given max size. The load factor is only reachable for large sizes, we add
+     * 2 * log(n) buckets so that insertions for small sizes do not fail.
+     *
+     * @param maxSize max number of elements.
+     * @return number of buckets.
+     */
+    static int bucketNum(int maxSize) {
+        MathPreconditions.checkPositive("maxSize", maxSize);
+        return (int) Math.ceil(maxSize / LOAD_FACTOR / ENTRIES_PER_BUCKET) + 2 * LongUtils.ceilLog2(maxSize + 1);
+    }
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param envType environment.
+     * @param maxSize max number of inserted elements.
+     * @param key     hash key.
+     * @return an empty filter.
+     */
+    static <X> BucketizedCuckooFilter<X> create(EnvType envType, int maxSize, byte[] key) {
+        long[] storage = new long[bucketNum(maxSize) * ENTRIES_PER_BUCKET];
+        return new BucketizedCuckooFilter<>(envType, maxSize, key, 0, storage);
+    }
+
+    /**
+     * Creates the filter based on {@code List<byte[]>}.
+     *
+     * @param envType       environment.
+     * @param byteArrayList the filter represented by {@code List<byte[]>}.
+     * @param <X>           the type.
+     * @return the filter.
+     */
+    static <X> BucketizedCuckooFilter<X> load(EnvType envType, List<byte[]> byteArrayList) {
+        MathPreconditions.checkEqual("actual list size", "expect list size", byteArrayList.size(), 3);
+        // read type
+        int typeOrdinal = IntUtils.byteArrayToInt(byteArrayList.remove(0));
+        MathPreconditions.checkEqual("expect filter type", "actual filter type", typeOrdinal, FILTER_TYPE.ordinal());
+        // read header
+        ByteBuffer headerByteBuffer = ByteBuffer.wrap(byteArrayList.remove(0));
+        // max size
+        int maxSize = headerByteBuffer.getInt();
+        // size
+        int size = headerByteBuffer.getInt();
+        // key
+        byte[] key = BlockUtils.zeroBlock();
+        headerByteBuffer.get(key);
+        // read tags, each of which is stored in TAG_BYTE_LENGTH bytes
+        long[] storage = new long[bucketNum(maxSize) * ENTRIES_PER_BUCKET];
+        byte[] compressed = byteArrayList.remove(0);
+        MathPreconditions.checkEqual(
+            "expected length", "actual length", storage.length * TAG_BYTE_LENGTH, compressed.length
+        );
+        ByteBuffer storageByteBuffer = ByteBuffer.wrap(compressed);
+        for (int i = 0; i < storage.length; i++) {
+            long high = Short.toUnsignedLong(storageByteBuffer.getShort());
+            long low = Integer.toUnsignedLong(storageByteBuffer.getInt());
+            storage[i] = (high << Integer.SIZE) | low;
+        }
+
+        return new BucketizedCuckooFilter<>(envType, maxSize, key, size, storage);
+    }
+
+    /**
+     * max number of elements
+     */
+    private final int maxSize;
+    /**
+     * number of buckets
+     */
+    private final int bucketNum;
+    /**
+     * storage, the j-th entry of the i-th bucket is storage[i * ENTRIES_PER_BUCKET + j]
+     */
+    private final long[] storage;
+    /**
+     * number of inserted elements
+     */
+    private final AtomicInteger size;
+    /**
+     * fingerprint hash
+     */
+    private final Prf hash;
+    /**
+     * seed for computing buckets
+     */
+    private final long bucketSeed;
+    /**
+     * seed for computing tags
+     */
+    private final long tagSeed;
+
+    private BucketizedCuckooFilter(EnvType envType, int maxSize, byte[] key, int size, long[] storage) {
+        MathPreconditions.checkPositive("maxSize", maxSize);
+        this.maxSize = maxSize;
+        bucketNum = bucketNum(maxSize);
+        MathPreconditions.checkEqual("key.length", "λ in bytes", key.length, CommonConstants.BLOCK_BYTE_LENGTH);
+        hash = PrfFactory.createInstance(envType, FINGERPRINT_BYTE_LENGTH);
+        hash.setKey(key);
+        bucketSeed = FingerprintFilterUtils.seed(key, 0);
+        tagSeed = FingerprintFilterUtils.seed(key, 1);
+        MathPreconditions.checkNonNegative("size", size);
+        this.size = new AtomicInteger(size);
+        this.storage = storage;
+    }
+
+    @Override
+    public FilterType getFilterType() {
+        return FILTER_TYPE;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long[] fingerprint(T data) {
+        return LongUtils.byteArrayToLongArray(hash.getBytes(ObjectUtils.objectToByteArray(data)));
+    }
+
+    private long tag(long low) {
+        long tag = FingerprintFilterUtils.mix(low, tagSeed) >>> (Long.SIZE - TAG_BIT_LENGTH);
+        // 0 represents the empty entry
+        return tag == EMPTY_TAG ? 1L : tag;
+    }
+
+    private int bucketIndex(long high) {
+        return FingerprintFilterUtils.reduce(FingerprintFilterUtils.mix(high, bucketSeed), bucketNum);
+    }
+
+    private int alternativeBucketIndex(int bucketIndex, long tag) {
+        int tagHash = FingerprintFilterUtils.reduce(FingerprintFilterUtils.mix(tag, bucketSeed), bucketNum);
+        return Math.floorMod(tagHash - bucketIndex, bucketNum);
+    }
+
+    private boolean bucketContains(int bucketIndex, long tag) {
+        int offset = bucketIndex * ENTRIES_PER_BUCKET;
+        for (int j = 0; j < ENTRIES_PER_BUCKET; j++) {
+            if (storage[offset + j] == tag) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryInsert(int bucketIndex, long tag) {
+        int offset = bucketIndex * ENTRIES_PER_BUCKET;
+        for (int j = 0; j < ENTRIES_PER_BUCKET; j++) {
+            if ((long) STORAGE_HANDLE.getVolatile(storage, offset + j) == EMPTY_TAG
+                && STORAGE_HANDLE.compareAndSet(storage, offset + j, EMPTY_TAG, tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean mightContainFingerprint(long high, long low) {
+        long tag = tag(low);
+        int bucketIndex1 = bucketIndex(high);
+        int bucketIndex2 = alternativeBucketIndex(bucketIndex1, tag);
+        return bucketContains(bucketIndex1, tag) || bucketContains(bucketIndex2, tag);
+    }
+
+    @Override
+    public void putFingerprint(long high, long low) {
+        if (size.getAndIncrement() >= maxSize) {
+            size.decrementAndGet();
+            throw new IllegalArgumentException("size must be less than maxSize = " + maxSize);
+        }
+        if (mightContainFingerprint(high, low)) {
+            size.decrementAndGet();
+            throw new IllegalArgumentException("Insert might duplicate item: (" + high + ", " + low + ")");
+        }
+        long tag = tag(low);
+        int bucketIndex1 = bucketIndex(high);
+        int bucketIndex2 = alternativeBucketIndex(bucketIndex1, tag);
+        // if bucket[i_1] or bucket[i_2] has an empty entry, then add the tag to that bucket
+        if (tryInsert(bucketIndex1, tag) || tryInsert(bucketIndex2, tag)) {
+            return;
+        }
+        // randomly pick i_1 or i_2, and iteratively eject tags. Each swap is atomic, so that no tag is lost
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int choiceIndex = random.nextBoolean() ? bucketIndex1 : bucketIndex2;
+        long addTag = tag;
+        for (int count = 0; count < MAX_NUM_KICKS; count++) {
+            int entryIndex = choiceIndex * ENTRIES_PER_BUCKET + random.nextInt(ENTRIES_PER_BUCKET);
+            addTag = (long) STORAGE_HANDLE.getAndSet(storage, entryIndex, addTag);
+            choiceIndex = alternativeBucketIndex(choiceIndex, addTag);
+            if (tryInsert(choiceIndex, addTag)) {
+                return;
+            }
+        }
+        // reaching here means we cannot successfully add the tag
+        throw new IllegalArgumentException("Cannot add item, exceeding max tries: (" + high + ", " + low + ")");
+    }
+
+    @Override
+    public List<byte[]> save() {
+        List<byte[]> byteArrayList = new LinkedList<>();
+        // write type
+        byteArrayList.add(IntUtils.intToByteArray(FILTER_TYPE.ordinal()));
+        // write header
+        ByteBuffer headerByteBuffer = ByteBuffer.allocate(Integer.BYTES * 2 + CommonConstants.BLOCK_BYTE_LENGTH);
+        // max size
+        headerByteBuffer.putInt(maxSize);
+        // size
+        headerByteBuffer.putInt(size());
+        // key
+        headerByteBuffer.put(hash.getKey());
+        byteArrayList.add(headerByteBuffer.array());
+        // write tags, each of which is stored in TAG_BYTE_LENGTH bytes
+        ByteBuffer storageByteBuffer = ByteBuffer.allocate(storage.length * TAG_BYTE_LENGTH);
+        for (long tag : storage) {
+            storageByteBuffer.putShort((short) (tag >>> Integer.SIZE));
+            storageByteBuffer.putInt((int) tag);
+        }
+        byteArrayList.add(storageByteBuffer.array());
+
+        return byteArrayList;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof BucketizedCuckooFilter<?> that)) {
+            return false;
+        }
+        if (this == obj) {
+            return true;
+        }
+        return new EqualsBuilder()
+            .append(this.maxSize, that.maxSize)
+            .append(this.size(), that.size())
+            .append(this.storage, that.storage)
+            .append(this.hash.getPrfType(), that.hash.getPrfType())
+            .append(this.hash.getKey(), that.hash.getKey())
+            .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+            .append(maxSize)
+            .append(size())
+            .append(storage)
+            .append(hash.getPrfType())
+            .append(hash.getKey())
+            .toHashCode();
+    }
+}
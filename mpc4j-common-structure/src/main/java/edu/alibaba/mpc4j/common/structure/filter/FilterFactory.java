@@ -59,6 +59,14 @@ public class FilterFactory {
          * Mobile Vacuum Filter
          */
         MOBILE_VACUUM_FILTER,
+        /**
+         * Blocked Bloom Filter
+         */
+        BLOCKED_BLOOM_FILTER,
+        /**
+         * Bucketized Cuckoo Filter
+         */
+        BUCKETIZED_CUCKOO_FILTER,
     }
 
     /**
@@ -72,6 +80,21 @@ public class FilterFactory {
             case SET_FILTER -> SetFilter.HASH_KEY_NUM;
             case NAIVE_RANDOM_BLOOM_FILTER, SPARSE_RANDOM_BLOOM_FILTER, DISTINCT_BLOOM_FILTER -> BloomFilter.getHashKeyNum();
             case NAIVE_CUCKOO_FILTER, MOBILE_CUCKOO_FILTER, NAIVE_VACUUM_FILTER, MOBILE_VACUUM_FILTER -> CuckooFilter.getHashKeyNum();
+            case BLOCKED_BLOOM_FILTER -> BlockedBloomFilter.HASH_KEY_NUM;
+            case BUCKETIZED_CUCKOO_FILTER -> BucketizedCuckooFilter.HASH_KEY_NUM;
+        };
+    }
+
+    /**
+     * Returns if the filter is a fingerprint filter, see {@link FingerprintFilter}.
+     *
+     * @param type filter type.
+     * @return true if the filter is a fingerprint filter.
+     */
+    public static boolean isFingerprintFilter(FilterType type) {
+        return switch (type) {
+            case BLOCKED_BLOOM_FILTER, BUCKETIZED_CUCKOO_FILTER -> true;
+            default -> false;
         };
     }
 
@@ -95,6 +118,8 @@ public class FilterFactory {
             case MOBILE_CUCKOO_FILTER -> MobileCuckooFilter.create(envType, maxSize, keys);
             case NAIVE_VACUUM_FILTER -> NaiveVacuumFilter.create(envType, maxSize, keys);
             case MOBILE_VACUUM_FILTER -> MobileVacuumFilter.create(envType, maxSize, keys);
+            case BLOCKED_BLOOM_FILTER -> BlockedBloomFilter.create(envType, maxSize, keys[0]);
+            case BUCKETIZED_CUCKOO_FILTER -> BucketizedCuckooFilter.create(envType, maxSize, keys[0]);
         };
     }
 
@@ -134,6 +159,8 @@ public class FilterFactory {
             case MOBILE_CUCKOO_FILTER -> MobileCuckooFilter.load(envType, byteArrayList);
             case NAIVE_VACUUM_FILTER -> NaiveVacuumFilter.load(envType, byteArrayList);
             case MOBILE_VACUUM_FILTER -> MobileVacuumFilter.load(envType, byteArrayList);
+            case BLOCKED_BLOOM_FILTER -> BlockedBloomFilter.load(envType, byteArrayList);
+            case BUCKETIZED_CUCKOO_FILTER -> BucketizedCuckooFilter.load(envType, byteArrayList);
         };
     }
 }
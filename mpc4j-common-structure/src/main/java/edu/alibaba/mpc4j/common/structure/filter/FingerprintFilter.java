@@ -0,0 +1,110 @@
+package edu.alibaba.mpc4j.common.structure.filter;
+
+import java.util.stream.IntStream;
+
+/**
+ * Fingerprint filter. Each element is first mapped to a 128-bit fingerprint, represented by two longs (high, low), and
+ * the filter then only works on fingerprints. The high part decides where the fingerprint is located (the block or the
+ * bucket), and the low part decides what is stored (the probes or the tag), so that a false positive needs more than a
+ * 64-bit collision. Fingerprint filters are backed by {@code long[]} and support concurrent insertions, so that they
+ * can be constructed from parallel streams. Lookups may miss elements that are being inserted concurrently, i.e.,
+ * lookups should be done after all insertions finish.
+ * <p></p>
+ * If elements are already pseudo-random (e.g., PRF outputs), callers can directly use any 128 bits of the element as
+ * the fingerprint and skip the keyed hash in {@link #fingerprint(Object)}, as long as both sides use the same way.
+ * Fingerprints in batch methods are flattened, i.e., the i-th fingerprint is (fingerprints[2i], fingerprints[2i + 1]).
+ *
+ * @author Weiran Liu
+ * @date 2025/2/19
+ */
+public interface FingerprintFilter<T> extends Filter<T> {
+    /**
+     * number of longs in a fingerprint
+     */
+    int FINGERPRINT_LONG_NUM = 2;
+    /**
+     * fingerprint byte length
+     */
+    int FINGERPRINT_BYTE_LENGTH = FINGERPRINT_LONG_NUM * Long.BYTES;
+
+    /**
+     * Computes the 128-bit fingerprint of the data using the keyed hash of the filter.
+     *
+     * @param data data.
+     * @return fingerprint (high, low).
+     */
+    long[] fingerprint(T data);
+
+    /**
+     * Tests if the filter might contain the fingerprint.
+     *
+     * @param high high 64 bits of the fingerprint.
+     * @param low  low 64 bits of the fingerprint.
+     * @return true if the filter might contain the fingerprint, false if the filter definitely does not contain it.
+     */
+    boolean mightContainFingerprint(long high, long low);
+
+    /**
+     * Inserts the fingerprint into the filter. This method is thread-safe.
+     *
+     * @param high high 64 bits of the fingerprint.
+     * @param low  low 64 bits of the fingerprint.
+     * @throws IllegalArgumentException if the fingerprint might be duplicated, or the filter is full.
+     */
+    void putFingerprint(long high, long low);
+
+    @Override
+    default boolean mightContain(T data) {
+        long[] fingerprint = fingerprint(data);
+        return mightContainFingerprint(fingerprint[0], fingerprint[1]);
+    }
+
+    @Override
+    default void put(T data) {
+        long[] fingerprint = fingerprint(data);
+        putFingerprint(fingerprint[0], fingerprint[1]);
+    }
+
+    /**
+     * Inserts fingerprints into the filter.
+     *
+     * @param fingerprints flattened fingerprints.
+     * @param parallel     whether to insert in parallel.
+     */
+    default void putFingerprints(long[] fingerprints, boolean parallel) {
+        assert fingerprints.length % FINGERPRINT_LONG_NUM == 0;
+        IntStream indexIntStream = IntStream.range(0, fingerprints.length / FINGERPRINT_LONG_NUM);
+        indexIntStream = parallel ? indexIntStream.parallel() : indexIntStream;
+        indexIntStream.forEach(index -> putFingerprint(
+            fingerprints[index * FINGERPRINT_LONG_NUM], fingerprints[index * FINGERPRINT_LONG_NUM + 1]
+        ));
+    }
+
+    /**
+     * Tests if the filter might contain each of the fingerprints.
+     *
+     * @param fingerprints flattened fingerprints.
+     * @param parallel     whether to test in parallel.
+     * @return test results.
+     */
+    default boolean[] mightContain(long[] fingerprints, boolean parallel) {
+        assert fingerprints.length % FINGERPRINT_LONG_NUM == 0;
+        boolean[] contains = new boolean[fingerprints.length / FINGERPRINT_LONG_NUM];
+        IntStream indexIntStream = IntStream.range(0, contains.length);
+        indexIntStream = parallel ? indexIntStream.parallel() : indexIntStream;
+        indexIntStream.forEach(index -> contains[index] = mightContainFingerprint(
+            fingerprints[index * FINGERPRINT_LONG_NUM], fingerprints[index * FINGERPRINT_LONG_NUM + 1]
+        ));
+        return contains;
+    }
+
+    /**
+     * Tests if the filter might contain each of the fingerprints.
+     *
+     * @param fingerprints flattened fingerprints.
+     * @return test results.
+     */
+    default boolean[] mightContain(long[] fingerprints) {
+        return mightContain(fingerprints, false);
+    }
+}
@@ -0,0 +1,60 @@
+package edu.alibaba.mpc4j.common.structure.filter;
+
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+
+import java.util.Arrays;
+
+/**
+ * fingerprint filter utilities.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/19
+ */
+class FingerprintFilterUtils {
+    /**
+     * private constructor.
+     */
+    private FingerprintFilterUtils() {
+        // empty
+    }
+
+    /**
+     * Mixes the 64-bit value with the seed, using the finalizer of MurmurHash3.
+     *
+     * @param value value.
+     * @param seed  seed.
+     * @return mixed value.
+     */
+    static long mix(long value, long seed) {
+        long h = value ^ seed;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Maps the high 32 bits of the 64-bit value into [0, bound) without division.
+     *
+     * @param value value.
+     * @param bound bound.
+     * @return reduced value.
+     */
+    static int reduce(long value, int bound) {
+        return (int) (((value >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Derives the seed from the key.
+     *
+     * @param key   key.
+     * @param index seed index, must be 0 or 1.
+     * @return seed.
+     */
+    static long seed(byte[] key, int index) {
+        assert index == 0 || index == 1;
+        return LongUtils.byteArrayToLong(Arrays.copyOfRange(key, index * Long.BYTES, (index + 1) * Long.BYTES));
+    }
+}
@@ -0,0 +1,458 @@
+package edu.alibaba.mpc4j.common.structure.matrix;
+
+import edu.alibaba.mpc4j.common.structure.vector.IntVector;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * dense int matrix over Z_{2^32}. Elements are packed in one row-major int[], and matrix-vector / matrix-matrix
+ * multiplications are computed by Vector API kernels with cache blocking:
+ * <ul>
+ * <li>rows are processed in tiles, and tiles are processed in parallel if parallel is set.</li>
+ * <li>columns are processed in blocks, so that the block of the input vector(s) stays in cache while a row tile is
+ * streamed through it.</li>
+ * <li>multiplications with a batch of vectors read each block of the matrix once for all vectors.</li>
+ * </ul>
+ * This is designed for LWE-based PIR servers, whose online cost is matrix-vector multiplications bounded by the memory
+ * bandwidth.
+ *
+ * @author Weiran Liu
+ * @date 2025/1/17
+ */
+public class DenseIntMatrix implements Matrix {
+    /**
+     * species
+     */
+    private static final VectorSpecies<Integer> SPECIES = jdk.incubator.vector.IntVector.SPECIES_PREFERRED;
+    /**
+     * number of rows in a tile
+     */
+    private static final int ROW_TILE = 64;
+    /**
+     * number of columns in a block, 4096 ints (16KB) fit in L1 cache
+     */
+    private static final int COLUMN_BLOCK = 1 << 12;
+    /**
+     * side length of a tile in transposition
+     */
+    private static final int TRANSPOSE_TILE = 32;
+
+    /**
+     * Creates a matrix.
+     *
+     * @param rows     rows.
+     * @param columns  columns.
+     * @param elements row-major elements.
+     * @return a matrix.
+     */
+    public static DenseIntMatrix create(int rows, int columns, int[] elements) {
+        MathPreconditions.checkPositive("rows", rows);
+        MathPreconditions.checkPositive("columns", columns);
+        MathPreconditions.checkEqual("rows * columns", "elements.length", (long) rows * columns, elements.length);
+        return new DenseIntMatrix(rows, columns, elements);
+    }
+
+    /**
+     * Creates a matrix.
+     *
+     * @param matrix int matrix.
+     * @return a matrix.
+     */
+    public static DenseIntMatrix create(IntMatrix matrix) {
+        int rows = matrix.getRows();
+        int columns = matrix.getColumns();
+        DenseIntMatrix denseMatrix = createZeros(rows, columns);
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(matrix.getRow(i).getElements(), 0, denseMatrix.elements, i * columns, columns);
+        }
+        return denseMatrix;
+    }
+
+    /**
+     * Creates a random matrix. The elements are the same as {@link IntMatrix#createRandom(int, int, SecureRandom)}.
+     *
+     * @param rows         rows.
+     * @param columns      columns.
+     * @param secureRandom random state.
+     * @return a matrix.
+     */
+    public static DenseIntMatrix createRandom(int rows, int columns, SecureRandom secureRandom) {
+        DenseIntMatrix matrix = createZeros(rows, columns);
+        for (int index = 0; index < matrix.elements.length; index++) {
+            matrix.elements[index] = secureRandom.nextInt();
+        }
+        return matrix;
+    }
+
+    /**
+     * Creates a random matrix. The elements are the same as {@link IntMatrix#createRandom(int, int, byte[])}.
+     *
+     * @param rows    rows.
+     * @param columns columns.
+     * @param seed    seed.
+     * @return a matrix.
+     */
+    public static DenseIntMatrix createRandom(int rows, int columns, byte[] seed) {
+        SecureRandom secureRandom = CommonUtils.createSeedSecureRandom();
+        secureRandom.setSeed(seed);
+        return createRandom(rows, columns, secureRandom);
+    }
+
+    /**
+     * Creates an all-zero matrix.
+     *
+     * @param rows    rows.
+     * @param columns columns.
+     * @return a matrix.
+     */
+    public static DenseIntMatrix createZeros(int rows, int columns) {
+        MathPreconditions.checkPositive("rows", rows);
+        MathPreconditions.checkPositive("columns", columns);
+        MathPreconditions.checkLessOrEqual("rows * columns", (long) rows * columns, Integer.MAX_VALUE);
+        return new DenseIntMatrix(rows, columns, new int[rows * columns]);
+    }
+
+    /**
+     * rows
+     */
+    private final int rows;
+    /**
+     * columns
+     */
+    private final int columns;
+    /**
+     * row-major elements
+     */
+    private final int[] elements;
+    /**
+     * parallel computation
+     */
+    private boolean parallel;
+
+    private DenseIntMatrix(int rows, int columns, int[] elements) {
+        this.rows = rows;
+        this.columns = columns;
+        this.elements = elements;
+        parallel = false;
+    }
+
+    /**
+     * Sets parallel computation. Matrices derived from this matrix inherit the setting.
+     *
+     * @param parallel parallel computation.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Gets whether parallel computation is set.
+     *
+     * @return parallel computation.
+     */
+    public boolean getParallel() {
+        return parallel;
+    }
+
+    @Override
+    public DenseIntMatrix copy() {
+        DenseIntMatrix copy = new DenseIntMatrix(rows, columns, Arrays.copyOf(elements, elements.length));
+        copy.parallel = parallel;
+        return copy;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets element.
+     *
+     * @param i row index.
+     * @param j column index.
+     * @return element.
+     */
+    public int get(int i, int j) {
+        return elements[i * columns + j];
+    }
+
+    /**
+     * Sets element.
+     *
+     * @param i       row index.
+     * @param j       column index.
+     * @param element element.
+     */
+    public void set(int i, int j, int element) {
+        elements[i * columns + j] = element;
+    }
+
+    /**
+     * Gets a copy of the row.
+     *
+     * @param i row index.
+     * @return row.
+     */
+    public int[] getRow(int i) {
+        return Arrays.copyOfRange(elements, i * columns, (i + 1) * columns);
+    }
+
+    /**
+     * Converts to an int matrix.
+     *
+     * @return an int matrix.
+     */
+    public IntMatrix toIntMatrix() {
+        IntVector[] rowVectors = IntStream.range(0, rows)
+            .mapToObj(i -> IntVector.create(getRow(i)))
+            .toArray(IntVector[]::new);
+        return IntMatrix.create(rowVectors);
+    }
+
+    private IntStream rowTileIntStream() {
+        int rowTileNum = CommonUtils.getUnitNum(rows, ROW_TILE);
+        IntStream rowTileIntStream = IntStream.range(0, rowTileNum);
+        return parallel ? rowTileIntStream.parallel() : rowTileIntStream;
+    }
+
+    /**
+     * Right vector multiplication, i.e., computes M · v.
+     *
+     * @param vector vector with columns elements.
+     * @return result with rows elements.
+     */
+    public IntVector rightMul(IntVector vector) {
+        return rightMul(new IntVector[]{vector})[0];
+    }
+
+    /**
+     * Right vector multiplication for a batch of vectors, i.e., computes M · v for each v. Each block of the matrix is
+     * read once for all vectors.
+     *
+     * @param vectors vectors, each of which has columns elements.
+     * @return results, each of which has rows elements.
+     */
+    public IntVector[] rightMul(IntVector[] vectors) {
+        MathPreconditions.checkPositive("vectors.length", vectors.length);
+        for (IntVector vector : vectors) {
+            MathPreconditions.checkEqual("this.columns", "vector.length", columns, vector.getNum());
+        }
+        int num = vectors.length;
+        int[][] inputs = Arrays.stream(vectors).map(IntVector::getElements).toArray(int[][]::new);
+        int rowTileNum = CommonUtils.getUnitNum(rows, ROW_TILE);
+        int columnBlockNum = CommonUtils.getUnitNum(columns, COLUMN_BLOCK);
+        // when there are few row tiles (e.g., the transposed database in FrodoPIR), we also split columns into chunks,
+        // each of which has its own partial outputs, so that all threads can be used.
+        int columnChunkNum = parallel
+            ? Math.max(1, Math.min(columnBlockNum, ForkJoinPool.getCommonPoolParallelism() / rowTileNum)) : 1;
+        int chunkBlockNum = CommonUtils.getUnitNum(columnBlockNum, columnChunkNum);
+        int[][][] partialOutputs = new int[columnChunkNum][num][rows];
+        IntStream taskIntStream = IntStream.range(0, rowTileNum * columnChunkNum);
+        taskIntStream = parallel ? taskIntStream.parallel() : taskIntStream;
+        taskIntStream.forEach(taskIndex -> {
+            int rowTileIndex = taskIndex / columnChunkNum;
+            int columnChunkIndex = taskIndex % columnChunkNum;
+            int[][] outputs = partialOutputs[columnChunkIndex];
+            int fromRow = rowTileIndex * ROW_TILE;
+            int toRow = Math.min(fromRow + ROW_TILE, rows);
+            int fromBlock = columnChunkIndex * chunkBlockNum;
+            int toBlock = Math.min(fromBlock + chunkBlockNum, columnBlockNum);
+            for (int block = fromBlock; block < toBlock; block++) {
+                int fromColumn = block * COLUMN_BLOCK;
+                int length = Math.min(COLUMN_BLOCK, columns - fromColumn);
+                for (int i = fromRow; i < toRow; i++) {
+                    int rowOffset = i * columns + fromColumn;
+                    for (int k = 0; k < num; k++) {
+                        outputs[k][i] += dot(elements, rowOffset, inputs[k], fromColumn, length);
+                    }
+                }
+            }
+        });
+        int[][] outputs = partialOutputs[0];
+        for (int columnChunkIndex = 1; columnChunkIndex < columnChunkNum; columnChunkIndex++) {
+            for (int k = 0; k < num; k++) {
+                for (int i = 0; i < rows; i++) {
+                    outputs[k][i] += partialOutputs[columnChunkIndex][k][i];
+                }
+            }
+        }
+        return Arrays.stream(outputs).map(IntVector::create).toArray(IntVector[]::new);
+    }
+
+    /**
+     * Left vector multiplication, i.e., computes v^T · M.
+     *
+     * @param vector vector with rows elements.
+     * @return result with columns elements.
+     */
+    public IntVector leftMul(IntVector vector) {
+        return leftMul(new IntVector[]{vector})[0];
+    }
+
+    /**
+     * Left vector multiplication for a batch of vectors, i.e., computes v^T · M for each v. Each block of the matrix is
+     * read once for all vectors.
+     *
+     * @param vectors vectors, each of which has rows elements.
+     * @return results, each of which has columns elements.
+     */
+    public IntVector[] leftMul(IntVector[] vectors) {
+        MathPreconditions.checkPositive("vectors.length", vectors.length);
+        for (IntVector vector : vectors) {
+            MathPreconditions.checkEqual("this.rows", "vector.length", rows, vector.getNum());
+        }
+        int num = vectors.length;
+        int[][] inputs = Arrays.stream(vectors).map(IntVector::getElements).toArray(int[][]::new);
+        int[][] outputs = new int[num][columns];
+        // each task owns a column block of the outputs, so that tasks do not write the same element
+        int columnBlockNum = CommonUtils.getUnitNum(columns, COLUMN_BLOCK);
+        IntStream columnBlockIntStream = parallel
+            ? IntStream.range(0, columnBlockNum).parallel() : IntStream.range(0, columnBlockNum);
+        columnBlockIntStream.forEach(columnBlockIndex -> {
+            int fromColumn = columnBlockIndex * COLUMN_BLOCK;
+            int length = Math.min(COLUMN_BLOCK, columns - fromColumn);
+            for (int i = 0; i < rows; i++) {
+                int rowOffset = i * columns + fromColumn;
+                for (int k = 0; k < num; k++) {
+                    axpy(inputs[k][i], elements, rowOffset, outputs[k], fromColumn, length);
+                }
+            }
+        });
+        return Arrays.stream(outputs).map(IntVector::create).toArray(IntVector[]::new);
+    }
+
+    /**
+     * Matrix multiplication with the transposition of that matrix, i.e., computes this · that^T. Each element of the
+     * result is an inner product of two rows, so that both matrices are read sequentially.
+     *
+     * @param that that matrix.
+     * @return result with this.rows rows and that.rows columns.
+     */
+    public DenseIntMatrix mulTranspose(DenseIntMatrix that) {
+        MathPreconditions.checkEqual("this.columns", "that.columns", this.columns, that.columns);
+        DenseIntMatrix result = createZeros(this.rows, that.rows);
+        result.parallel = parallel;
+        rowTileIntStream().forEach(rowTileIndex -> {
+            int fromRow = rowTileIndex * ROW_TILE;
+            int toRow = Math.min(fromRow + ROW_TILE, rows);
+            for (int fromColumn = 0; fromColumn < columns; fromColumn += COLUMN_BLOCK) {
+                int length = Math.min(COLUMN_BLOCK, columns - fromColumn);
+                // the block of that row stays in cache while it is multiplied with the rows in the tile
+                for (int j = 0; j < that.rows; j++) {
+                    int thatOffset = j * that.columns + fromColumn;
+                    for (int i = fromRow; i < toRow; i++) {
+                        result.elements[i * result.columns + j]
+                            += dot(this.elements, i * columns + fromColumn, that.elements, thatOffset, length);
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Matrix multiplication, i.e., computes this · that.
+     *
+     * @param that that matrix.
+     * @return result.
+     */
+    public DenseIntMatrix mul(DenseIntMatrix that) {
+        MathPreconditions.checkEqual("this.columns", "that.rows", this.columns, that.rows);
+        DenseIntMatrix transposeThat = that.transpose();
+        return mulTranspose(transposeThat);
+    }
+
+    /**
+     * Matrix transposition.
+     *
+     * @return result.
+     */
+    public DenseIntMatrix transpose() {
+        DenseIntMatrix result = createZeros(columns, rows);
+        result.parallel = parallel;
+        int rowTileNum = CommonUtils.getUnitNum(rows, TRANSPOSE_TILE);
+        IntStream rowTileIntStream = parallel
+            ? IntStream.range(0, rowTileNum).parallel() : IntStream.range(0, rowTileNum);
+        rowTileIntStream.forEach(rowTileIndex -> {
+            int fromRow = rowTileIndex * TRANSPOSE_TILE;
+            int toRow = Math.min(fromRow + TRANSPOSE_TILE, rows);
+            for (int fromColumn = 0; fromColumn < columns; fromColumn += TRANSPOSE_TILE) {
+                int toColumn = Math.min(fromColumn + TRANSPOSE_TILE, columns);
+                for (int i = fromRow; i < toRow; i++) {
+                    for (int j = fromColumn; j < toColumn; j++) {
+                        result.elements[j * rows + i] = elements[i * columns + j];
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Computes the inner product of x[xOffset, xOffset + length) and y[yOffset, yOffset + length) in Z_{2^32}.
+     */
+    private static int dot(int[] x, int xOffset, int[] y, int yOffset, int length) {
+        int upperBound = SPECIES.loopBound(length);
+        jdk.incubator.vector.IntVector sum = jdk.incubator.vector.IntVector.zero(SPECIES);
+        int index = 0;
+        for (; index < upperBound; index += SPECIES.length()) {
+            jdk.incubator.vector.IntVector xVector = jdk.incubator.vector.IntVector.fromArray(SPECIES, x, xOffset + index);
+            jdk.incubator.vector.IntVector yVector = jdk.incubator.vector.IntVector.fromArray(SPECIES, y, yOffset + index);
+            sum = sum.add(xVector.mul(yVector));
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (; index < length; index++) {
+            result += x[xOffset + index] * y[yOffset + index];
+        }
+        return result;
+    }
+
+    /**
+     * Computes y[yOffset, yOffset + length) += a · x[xOffset, xOffset + length) in Z_{2^32}.
+     */
+    private static void axpy(int a, int[] x, int xOffset, int[] y, int yOffset, int length) {
+        if (a == 0) {
+            return;
+        }
+        int upperBound = SPECIES.loopBound(length);
+        int index = 0;
+        for (; index < upperBound; index += SPECIES.length()) {
+            jdk.incubator.vector.IntVector xVector = jdk.incubator.vector.IntVector.fromArray(SPECIES, x, xOffset + index);
+            jdk.incubator.vector.IntVector yVector = jdk.incubator.vector.IntVector.fromArray(SPECIES, y, yOffset + index);
+            xVector.mul(a).add(yVector).intoArray(y, yOffset + index);
+        }
+        for (; index < length; index++) {
+            y[yOffset + index] += a * x[xOffset + index];
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(rows).append(columns).append(elements).hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof DenseIntMatrix that) {
+            return this.rows == that.rows && this.columns == that.columns && Arrays.equals(this.elements, that.elements);
+        }
+        return false;
+    }
+}
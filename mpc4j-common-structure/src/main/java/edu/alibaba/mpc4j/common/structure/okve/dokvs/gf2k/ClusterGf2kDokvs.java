@@ -0,0 +1,46 @@
+package edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k;
+
+import java.util.Map;
+
+/**
+ * cluster GF2K-DOKVS. Keys are hashed into bins, each bin is an independent DOKVS, and the encoded storage is the
+ * concatenation of bin storages with the same size. This allows encoding and transmitting the storage bin by bin.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public interface ClusterGf2kDokvs<T> extends Gf2kDokvs<T> {
+    /**
+     * Gets the number of bins.
+     *
+     * @return the number of bins.
+     */
+    int getBinNum();
+
+    /**
+     * Gets the size of the encoded storage for each bin. The storage of the i-th bin is in range
+     * [i · binM, (i + 1) · binM) of the encoded storage.
+     *
+     * @return the size of the encoded storage for each bin.
+     */
+    int getBinM();
+
+    /**
+     * Gets the bin index of the key.
+     *
+     * @param key key.
+     * @return the bin index.
+     */
+    int binIndex(T key);
+
+    /**
+     * Encodes the key-value map of a bin. All keys must belong to the bin.
+     *
+     * @param binIndex     bin index.
+     * @param keyValueMap  key-value map of the bin.
+     * @param doublyEncode encode with doubly obliviousness.
+     * @return encoded storage of the bin.
+     * @throws ArithmeticException if we cannot finish encoding.
+     */
+    byte[][] encodeBin(int binIndex, Map<T, byte[]> keyValueMap, boolean doublyEncode) throws ArithmeticException;
+}
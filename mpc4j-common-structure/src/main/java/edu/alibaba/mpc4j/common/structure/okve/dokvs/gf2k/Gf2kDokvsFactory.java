@@ -100,6 +100,29 @@ public class Gf2kDokvsFactory {
         }
     }
 
+    /**
+     * Returns whether the instance of the given type is a {@link ClusterGf2kDokvs}, i.e., supports bin-wise encoding.
+     *
+     * @param type type.
+     * @return whether the instance of the given type is a {@link ClusterGf2kDokvs}.
+     */
+    public static boolean isCluster(Gf2kDokvsType type) {
+        switch (type) {
+            case H3_CLUSTER_FIELD_BLAZE_GCT:
+                return true;
+            case H2_BINARY_SINGLETON_GCT:
+            case H2_BINARY_BLAZE_GCT:
+            case H3_BINARY_SINGLETON_GCT:
+            case H3_BINARY_BLAZE_GCT:
+            case H3_CLUSTER_BINARY_BLAZE_GCT:
+            case H3_FIELD_BLAZE_GCT:
+            case MEGA_BIN:
+                return false;
+            default:
+                throw new IllegalArgumentException("Invalid " + Gf2kDokvsType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
     /**
      * Gets number of required hash keys.
      *
@@ -27,7 +27,7 @@ import java.util.stream.Stream;
  * @author Weiran Liu
  * @date 2023/7/11
  */
-class H3ClusterFieldBlazeGctGf2kDokvs<T> extends AbstractGf2kDokvs<T> implements Gf2kDokvs<T> {
+class H3ClusterFieldBlazeGctGf2kDokvs<T> extends AbstractGf2kDokvs<T> implements ClusterGf2kDokvs<T> {
     /**
      * number of hash keys, one more key for bin
      */
@@ -129,11 +129,9 @@ class H3ClusterFieldBlazeGctGf2kDokvs<T> extends AbstractGf2kDokvs<T> implements
             .collect(Collectors.toCollection(ArrayList::new));
         Stream<Map.Entry<T, byte[]>> keyValueStream = keyValueMap.entrySet().stream();
         keyValueStream = parallelEncode ? keyValueStream.parallel() : keyValueStream;
-        keyValueStream.forEach(entry -> {
-            byte[] keyByte = ObjectUtils.objectToByteArray(entry.getKey());
-            int binIndex = binHash.getInteger(keyByte, binNum);
-            keyValueMaps.get(binIndex).put(entry.getKey(), entry.getValue());
-        });
+        keyValueStream.forEach(entry ->
+            keyValueMaps.get(binIndex(entry.getKey())).put(entry.getKey(), entry.getValue())
+        );
         // encode
         IntStream binIndexIntStream = IntStream.range(0, binNum);
         binIndexIntStream = parallelEncode ? binIndexIntStream.parallel() : binIndexIntStream;
@@ -143,12 +141,33 @@ class H3ClusterFieldBlazeGctGf2kDokvs<T> extends AbstractGf2kDokvs<T> implements
             .toArray(byte[][]::new);
     }
 
+    @Override
+    public int getBinNum() {
+        return binNum;
+    }
+
+    @Override
+    public int getBinM() {
+        return binM;
+    }
+
+    @Override
+    public int binIndex(T key) {
+        return binHash.getInteger(ObjectUtils.objectToByteArray(key), binNum);
+    }
+
+    @Override
+    public byte[][] encodeBin(int binIndex, Map<T, byte[]> keyValueMap, boolean doublyEncode)
+        throws ArithmeticException {
+        MathPreconditions.checkNonNegativeInRange("binIndex", binIndex, binNum);
+        return bins.get(binIndex).encode(keyValueMap, doublyEncode);
+    }
+
     @Override
     public byte[] decode(byte[][] storage, T key) {
         // here we do not verify bit length for each storage, otherwise decode would require O(n) computation.
         MathPreconditions.checkEqual("storage.length", "m", storage.length, m);
-        byte[] keyBytes = ObjectUtils.objectToByteArray(key);
-        int binIndex = binHash.getInteger(keyBytes, binNum);
+        int binIndex = binIndex(key);
         int[] binSparsePositions = bins.get(binIndex).sparsePositions(key);
         byte[][] binDenseFields = bins.get(binIndex).denseFields(key);
         byte[] value = gf2k.createZero();
@@ -0,0 +1,169 @@
+package edu.alibaba.mpc4j.common.structure.database;
+
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * memory-mapped database test.
+ *
+ * @author Weiran Liu
+ * @date 2025/1/16
+ */
+public class MmapDatabaseTest {
+    /**
+     * default rows
+     */
+    private static final int DEFAULT_ROWS = 1 << 12;
+    /**
+     * l array
+     */
+    private static final int[] L_ARRAY = new int[]{
+        1, 5, 7, 9, 15, 16, 17, LongUtils.MAX_L_FOR_MODULE_N - 1, LongUtils.MAX_L_FOR_MODULE_N, Long.SIZE, CommonConstants.BLOCK_BIT_LENGTH,
+    };
+    /**
+     * the random state
+     */
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    @Test
+    public void testOpen() throws IOException {
+        for (int l : L_ARRAY) {
+            testOpen(l);
+        }
+    }
+
+    private void testOpen(int l) throws IOException {
+        int byteL = CommonUtils.getByteLength(l);
+        byte[][] data = IntStream.range(0, DEFAULT_ROWS)
+            .mapToObj(index -> BytesUtils.randomByteArray(byteL, l, SECURE_RANDOM))
+            .toArray(byte[][]::new);
+        Path path = Files.createTempFile(MmapDatabaseTest.class.getSimpleName(), ".bin");
+        try {
+            MmapDatabase database = MmapDatabase.create(path, l, data);
+            Assert.assertEquals((long) DEFAULT_ROWS * byteL, Files.size(path));
+            MmapDatabase openDatabase = MmapDatabase.open(path, l);
+            Assert.assertEquals(database, openDatabase);
+            Assert.assertArrayEquals(data, openDatabase.getBytesData());
+            // opened database is read-only
+            Assert.assertThrows(IllegalStateException.class, () -> openDatabase.setBytesData(0, data[0]));
+            // writes are visible to the other mapping of the same file
+            byte[] entry = BytesUtils.randomByteArray(byteL, l, SECURE_RANDOM);
+            database.setBytesData(0, entry);
+            Assert.assertArrayEquals(entry, openDatabase.getBytesData(0));
+            // the given file is not deleted when the database is closed
+            database.close();
+            openDatabase.close();
+            Assert.assertTrue(Files.exists(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testGetRow() {
+        for (int l : L_ARRAY) {
+            try (MmapDatabase database = MmapDatabase.createRandom(l, DEFAULT_ROWS, SECURE_RANDOM)) {
+                IntStream.range(0, DEFAULT_ROWS).forEach(index -> {
+                    ByteBuffer row = database.getRow(index);
+                    Assert.assertTrue(row.isReadOnly());
+                    Assert.assertEquals(ByteBuffer.wrap(database.getBytesData(index)), row);
+                });
+            }
+        }
+    }
+
+    @Test
+    public void testClose() {
+        int l = Long.SIZE;
+        MmapDatabase database = MmapDatabase.createRandom(l, DEFAULT_ROWS, SECURE_RANDOM);
+        Path path = database.getPath();
+        Assert.assertTrue(Files.exists(path));
+        // the split view shares the temporary file, the file is deleted when the last view is closed
+        MmapDatabase splitDatabase = database.split(DEFAULT_ROWS / 2);
+        byte[][] splitData = splitDatabase.getBytesData();
+        database.close();
+        Assert.assertEquals(0, database.rows());
+        Assert.assertNull(database.getPath());
+        Assert.assertTrue(Files.exists(path));
+        Assert.assertArrayEquals(splitData, splitDatabase.getBytesData());
+        splitDatabase.close();
+        Assert.assertFalse(Files.exists(path));
+        // closing twice is allowed
+        splitDatabase.close();
+        // merging into another file releases the old file
+        MmapDatabase thisDatabase = MmapDatabase.createRandom(l, DEFAULT_ROWS, SECURE_RANDOM);
+        MmapDatabase thatDatabase = MmapDatabase.createRandom(l, DEFAULT_ROWS, SECURE_RANDOM);
+        Path thisPath = thisDatabase.getPath();
+        Path thatPath = thatDatabase.getPath();
+        thisDatabase.merge(thatDatabase);
+        Assert.assertFalse(Files.exists(thisPath));
+        Assert.assertTrue(Files.exists(thatPath));
+        thatDatabase.close();
+        Assert.assertFalse(Files.exists(thatPath));
+        Path mergePath = thisDatabase.getPath();
+        thisDatabase.close();
+        Assert.assertFalse(Files.exists(mergePath));
+    }
+
+    @Test
+    public void testSplitMerge() {
+        for (int l : L_ARRAY) {
+            MmapDatabase database = MmapDatabase.createRandom(l, DEFAULT_ROWS, SECURE_RANDOM);
+            byte[][] data = database.getBytesData();
+            // split and merge back in the same mapping
+            MmapDatabase splitDatabase = database.split(DEFAULT_ROWS / 3);
+            Assert.assertArrayEquals(
+                Arrays.copyOfRange(data, DEFAULT_ROWS - DEFAULT_ROWS / 3, DEFAULT_ROWS), splitDatabase.getBytesData()
+            );
+            database.merge(splitDatabase);
+            Assert.assertArrayEquals(data, database.getBytesData());
+            // merge a database in another mapping
+            MmapDatabase otherDatabase = MmapDatabase.createRandom(l, DEFAULT_ROWS, SECURE_RANDOM);
+            byte[][] otherData = otherDatabase.getBytesData();
+            database.merge(otherDatabase);
+            Assert.assertEquals(DEFAULT_ROWS * 2, database.rows());
+            Assert.assertArrayEquals(data, Arrays.copyOfRange(database.getBytesData(), 0, DEFAULT_ROWS));
+            Assert.assertArrayEquals(otherData, Arrays.copyOfRange(database.getBytesData(), DEFAULT_ROWS, DEFAULT_ROWS * 2));
+        }
+    }
+
+    @Test
+    public void testBytePartition() {
+        for (int l : L_ARRAY) {
+            for (int subByteL = 1; subByteL <= CommonConstants.BLOCK_BYTE_LENGTH + 1; subByteL++) {
+                testBytePartition(l, subByteL);
+            }
+        }
+    }
+
+    private void testBytePartition(int l, int subByteL) {
+        MmapDatabase database = MmapDatabase.createRandom(l, DEFAULT_ROWS, SECURE_RANDOM);
+        int partitionNum = CommonUtils.getUnitNum(database.getByteL(), subByteL);
+        MmapDatabase[] partitionDatabases = database.bytePartition(subByteL, true);
+        Assert.assertEquals(partitionNum, partitionDatabases.length);
+        for (int index = 0; index < DEFAULT_ROWS; index++) {
+            byte[] paddingElement = BytesUtils.paddingByteArray(database.getBytesData(index), subByteL * partitionNum);
+            for (int p = 0; p < partitionNum; p++) {
+                Assert.assertEquals(subByteL, partitionDatabases[p].getByteL());
+                Assert.assertArrayEquals(
+                    Arrays.copyOfRange(paddingElement, p * subByteL, (p + 1) * subByteL),
+                    partitionDatabases[p].getBytesData(index)
+                );
+            }
+        }
+        database.close();
+        Arrays.stream(partitionDatabases).forEach(MmapDatabase::close);
+    }
+}
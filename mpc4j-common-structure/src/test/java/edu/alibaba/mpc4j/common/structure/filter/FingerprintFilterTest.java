@@ -0,0 +1,161 @@
+package edu.alibaba.mpc4j.common.structure.filter;
+
+import com.google.common.base.Preconditions;
+import edu.alibaba.mpc4j.common.structure.filter.FilterFactory.FilterType;
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * fingerprint filter test.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/19
+ */
+@RunWith(Parameterized.class)
+public class FingerprintFilterTest {
+    /**
+     * default size
+     */
+    private static final int DEFAULT_SIZE = 1 << 12;
+    /**
+     * large size
+     */
+    private static final int LARGE_SIZE = 1 << 18;
+    /**
+     * the random state
+     */
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        for (FilterType filterType : FilterType.values()) {
+            if (FilterFactory.isFingerprintFilter(filterType)) {
+                configurations.add(new Object[]{filterType.name(), filterType,});
+            }
+        }
+
+        return configurations;
+    }
+
+    private final FilterType type;
+
+    public FingerprintFilterTest(String name, FilterType type) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(name));
+        this.type = type;
+    }
+
+    @Test
+    public void testType() {
+        Filter<byte[]> filter = createFilter(DEFAULT_SIZE);
+        Assert.assertTrue(filter instanceof FingerprintFilter);
+        Assert.assertEquals(type, filter.getFilterType());
+    }
+
+    @Test
+    public void testIllegalInputs() {
+        FingerprintFilter<byte[]> filter = createFilter(1);
+        filter.putFingerprint(0L, 0L);
+        // insert duplicated fingerprint
+        Assert.assertThrows(IllegalArgumentException.class, () -> filter.putFingerprint(0L, 0L));
+        // insert more fingerprints
+        Assert.assertThrows(IllegalArgumentException.class, () -> filter.putFingerprint(0L, 1L));
+        Assert.assertEquals(1, filter.size());
+    }
+
+    @Test
+    public void testDefault() {
+        testFingerprintFilter(DEFAULT_SIZE, false);
+    }
+
+    @Test
+    public void testParallelDefault() {
+        testFingerprintFilter(DEFAULT_SIZE, true);
+    }
+
+    @Test
+    public void testLarge() {
+        testFingerprintFilter(LARGE_SIZE, false);
+    }
+
+    @Test
+    public void testParallelLarge() {
+        testFingerprintFilter(LARGE_SIZE, true);
+    }
+
+    private void testFingerprintFilter(int maxSize, boolean parallel) {
+        FingerprintFilter<byte[]> filter = createFilter(maxSize);
+        long[] fingerprints = SECURE_RANDOM.longs((long) maxSize * FingerprintFilter.FINGERPRINT_LONG_NUM).toArray();
+        filter.putFingerprints(fingerprints, parallel);
+        Assert.assertEquals(maxSize, filter.size());
+        // verify all fingerprints are in the filter
+        boolean[] contains = filter.mightContain(fingerprints, parallel);
+        for (boolean contain : contains) {
+            Assert.assertTrue(contain);
+        }
+        // verify other fingerprints are not in the filter
+        long[] randomFingerprints = SECURE_RANDOM.longs((long) maxSize * FingerprintFilter.FINGERPRINT_LONG_NUM).toArray();
+        contains = filter.mightContain(randomFingerprints, parallel);
+        for (boolean contain : contains) {
+            Assert.assertFalse(contain);
+        }
+        // verify serialization
+        List<byte[]> byteArrayList = filter.save();
+        Filter<byte[]> recoveredFilter = FilterFactory.loadFilter(EnvType.STANDARD, byteArrayList);
+        Assert.assertEquals(filter, recoveredFilter);
+        boolean[] recoveredContains = ((FingerprintFilter<byte[]>) recoveredFilter).mightContain(fingerprints);
+        Assert.assertArrayEquals(filter.mightContain(fingerprints), recoveredContains);
+    }
+
+    @Test
+    public void testHighCollision() {
+        // fingerprints that only collide in the high 64 bits must not be treated as the same fingerprint
+        FingerprintFilter<byte[]> filter = createFilter(DEFAULT_SIZE);
+        long[] fingerprints = SECURE_RANDOM.longs((long) DEFAULT_SIZE * FingerprintFilter.FINGERPRINT_LONG_NUM).toArray();
+        filter.putFingerprints(fingerprints, false);
+        long[] highCollisions = Arrays.copyOf(fingerprints, fingerprints.length);
+        for (int i = 1; i < highCollisions.length; i += FingerprintFilter.FINGERPRINT_LONG_NUM) {
+            highCollisions[i] = SECURE_RANDOM.nextLong();
+        }
+        for (boolean contain : filter.mightContain(highCollisions)) {
+            Assert.assertFalse(contain);
+        }
+    }
+
+    @Test
+    public void testParallelEqualsSequential() {
+        // the Bloom filter layout does not depend on the insertion order
+        if (type != FilterType.BLOCKED_BLOOM_FILTER) {
+            return;
+        }
+        byte[][] keys = BlockUtils.randomBlocks(FilterFactory.getHashKeyNum(type), SECURE_RANDOM);
+        FingerprintFilter<byte[]> sequentialFilter = (FingerprintFilter<byte[]>) FilterFactory.<byte[]>createFilter(
+            EnvType.STANDARD, type, DEFAULT_SIZE, keys
+        );
+        FingerprintFilter<byte[]> parallelFilter = (FingerprintFilter<byte[]>) FilterFactory.<byte[]>createFilter(
+            EnvType.STANDARD, type, DEFAULT_SIZE, keys
+        );
+        long[] fingerprints = SECURE_RANDOM.longs((long) DEFAULT_SIZE * FingerprintFilter.FINGERPRINT_LONG_NUM).toArray();
+        sequentialFilter.putFingerprints(fingerprints, false);
+        parallelFilter.putFingerprints(Arrays.copyOf(fingerprints, fingerprints.length), true);
+        Assert.assertEquals(sequentialFilter, parallelFilter);
+    }
+
+    private FingerprintFilter<byte[]> createFilter(int maxSize) {
+        return (FingerprintFilter<byte[]>) FilterFactory.<byte[]>createFilter(
+            EnvType.STANDARD, type, maxSize, SECURE_RANDOM
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package edu.alibaba.mpc4j.common.structure.matrix;
+
+import edu.alibaba.mpc4j.common.structure.vector.IntVector;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.security.SecureRandom;
+import java.util.stream.IntStream;
+
+/**
+ * dense int matrix test.
+ *
+ * @author Weiran Liu
+ * @date 2025/1/17
+ */
+public class DenseIntMatrixTest {
+    /**
+     * (rows, columns) pairs, covering sizes that are not multiples of tiles, blocks and vector lengths.
+     */
+    private static final int[][] SIZES = new int[][]{
+        {1, 1}, {1, 65}, {63, 1}, {63, 65}, {130, (1 << 12) + 37}, {(1 << 12) + 37, 130},
+    };
+    /**
+     * number of vectors in a batch
+     */
+    private static final int BATCH_NUM = 3;
+    /**
+     * random state
+     */
+    private final SecureRandom secureRandom;
+
+    public DenseIntMatrixTest() {
+        secureRandom = new SecureRandom();
+    }
+
+    @Test
+    public void testCreateRandomWithSeed() {
+        for (int[] size : SIZES) {
+            byte[] seed = BlockUtils.randomBlock(secureRandom);
+            IntMatrix expect = IntMatrix.createRandom(size[0], size[1], seed);
+            DenseIntMatrix actual = DenseIntMatrix.createRandom(size[0], size[1], seed);
+            Assert.assertEquals(expect, actual.toIntMatrix());
+            Assert.assertEquals(DenseIntMatrix.create(expect), actual);
+        }
+    }
+
+    @Test
+    public void testTranspose() {
+        for (int[] size : SIZES) {
+            testTranspose(size[0], size[1], false);
+            testTranspose(size[0], size[1], true);
+        }
+    }
+
+    private void testTranspose(int rows, int columns, boolean parallel) {
+        IntMatrix matrix = IntMatrix.createRandom(rows, columns, secureRandom);
+        DenseIntMatrix denseMatrix = DenseIntMatrix.create(matrix);
+        denseMatrix.setParallel(parallel);
+        Assert.assertEquals(matrix.transpose(), denseMatrix.transpose().toIntMatrix());
+    }
+
+    @Test
+    public void testVectorMul() {
+        for (int[] size : SIZES) {
+            testVectorMul(size[0], size[1], false);
+            testVectorMul(size[0], size[1], true);
+        }
+    }
+
+    private void testVectorMul(int rows, int columns, boolean parallel) {
+        IntMatrix matrix = IntMatrix.createRandom(rows, columns, secureRandom);
+        IntMatrix transposeMatrix = matrix.transpose();
+        DenseIntMatrix denseMatrix = DenseIntMatrix.create(matrix);
+        denseMatrix.setParallel(parallel);
+        // left multiplication
+        IntVector[] leftVectors = IntStream.range(0, BATCH_NUM)
+            .mapToObj(k -> IntVector.createRandom(rows, secureRandom))
+            .toArray(IntVector[]::new);
+        IntVector[] leftResults = denseMatrix.leftMul(leftVectors);
+        for (int k = 0; k < BATCH_NUM; k++) {
+            Assert.assertEquals(matrix.leftMul(leftVectors[k]), leftResults[k]);
+            Assert.assertEquals(matrix.leftMul(leftVectors[k]), denseMatrix.leftMul(leftVectors[k]));
+        }
+        // right multiplication
+        IntVector[] rightVectors = IntStream.range(0, BATCH_NUM)
+            .mapToObj(k -> IntVector.createRandom(columns, secureRandom))
+            .toArray(IntVector[]::new);
+        IntVector[] rightResults = denseMatrix.rightMul(rightVectors);
+        for (int k = 0; k < BATCH_NUM; k++) {
+            Assert.assertEquals(transposeMatrix.leftMul(rightVectors[k]), rightResults[k]);
+            Assert.assertEquals(transposeMatrix.leftMul(rightVectors[k]), denseMatrix.rightMul(rightVectors[k]));
+        }
+        // invalid length
+        Assert.assertThrows(IllegalArgumentException.class, () ->
+            denseMatrix.leftMul(IntVector.createRandom(rows + 1, secureRandom))
+        );
+        Assert.assertThrows(IllegalArgumentException.class, () ->
+            denseMatrix.rightMul(IntVector.createRandom(columns + 1, secureRandom))
+        );
+    }
+
+    @Test
+    public void testMatrixMul() {
+        testMatrixMul(1, 1, 1);
+        testMatrixMul(63, 65, 17);
+        testMatrixMul(130, (1 << 12) + 37, 33);
+    }
+
+    private void testMatrixMul(int rows, int middle, int columns) {
+        IntMatrix matrix1 = IntMatrix.createRandom(rows, middle, secureRandom);
+        IntMatrix matrix2 = IntMatrix.createRandom(middle, columns, secureRandom);
+        IntMatrix expect = matrix1.mul(matrix2);
+        for (boolean parallel : new boolean[]{false, true}) {
+            DenseIntMatrix denseMatrix1 = DenseIntMatrix.create(matrix1);
+            denseMatrix1.setParallel(parallel);
+            DenseIntMatrix denseMatrix2 = DenseIntMatrix.create(matrix2);
+            Assert.assertEquals(expect, denseMatrix1.mul(denseMatrix2).toIntMatrix());
+            Assert.assertEquals(expect, denseMatrix1.mulTranspose(denseMatrix2.transpose()).toIntMatrix());
+        }
+    }
+}
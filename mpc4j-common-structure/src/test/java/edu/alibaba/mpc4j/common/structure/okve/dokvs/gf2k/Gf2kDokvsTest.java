@@ -176,6 +176,38 @@ public class Gf2kDokvsTest {
         testDokvs(1 << 14, true);
     }
 
+    @Test
+    public void testClusterEncode() {
+        byte[][] keys = BlockUtils.randomBlocks(hashNum, SECURE_RANDOM);
+        // n is large enough so that there are more than one bin
+        int n = 1 << 15;
+        Gf2kDokvs<ByteBuffer> dokvs = Gf2kDokvsFactory.createInstance(EnvType.STANDARD, type, n, keys);
+        if (!(dokvs instanceof ClusterGf2kDokvs<ByteBuffer> clusterDokvs)) {
+            return;
+        }
+        int binNum = clusterDokvs.getBinNum();
+        int binM = clusterDokvs.getBinM();
+        Assert.assertTrue(binNum > 1);
+        Assert.assertEquals(clusterDokvs.getM(), binNum * binM);
+        Map<ByteBuffer, byte[]> keyValueMap = randomKeyValueMap(n);
+        List<Map<ByteBuffer, byte[]>> binKeyValueMaps = IntStream.range(0, binNum)
+            .mapToObj(binIndex -> new HashMap<ByteBuffer, byte[]>())
+            .collect(Collectors.toList());
+        keyValueMap.forEach((key, value) -> binKeyValueMaps.get(clusterDokvs.binIndex(key)).put(key, value));
+        // encode bins in reverse order, the storage is still the concatenation of bin storages
+        byte[][] storage = new byte[binNum * binM][];
+        for (int binIndex = binNum - 1; binIndex >= 0; binIndex--) {
+            byte[][] binStorage = clusterDokvs.encodeBin(binIndex, binKeyValueMaps.get(binIndex), true);
+            Assert.assertEquals(binM, binStorage.length);
+            System.arraycopy(binStorage, 0, storage, binIndex * binM, binM);
+        }
+        keyValueMap.keySet().stream().parallel().forEach(key -> {
+            byte[] value = keyValueMap.get(key);
+            byte[] decodeValue = clusterDokvs.decode(storage, key);
+            Assert.assertArrayEquals(value, decodeValue);
+        });
+    }
+
     private void testDokvs(int n) {
         testDokvs(n, false);
     }
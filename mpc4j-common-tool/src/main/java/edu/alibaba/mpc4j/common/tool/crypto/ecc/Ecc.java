@@ -6,6 +6,7 @@ import org.bouncycastle.math.ec.ECPoint;
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
+import java.util.Arrays;
 
 /**
  * ECC interface.
@@ -104,6 +105,21 @@ public interface Ecc {
         return p.getEncoded(compressed);
     }
 
+    /**
+     * Encodes EC points in batch. The points are first normalized together, which costs one field inversion for all
+     * points instead of one for each point. This only helps points in projective coordinates, e.g., results of the BC
+     * backend. Native backends already return affine points from multiply, so normalization does nothing for them.
+     * Note that points in ps are replaced by their normalized forms.
+     *
+     * @param ps         the EC points.
+     * @param compressed compress encoding or not.
+     * @return the encoded points.
+     */
+    default byte[][] encode(ECPoint[] ps, boolean compressed) {
+        getEcDomainParameters().getCurve().normalizeAll(ps);
+        return Arrays.stream(ps).map(p -> encode(p, compressed)).toArray(byte[][]::new);
+    }
+
     /**
      * Decodes the EC point.
      *
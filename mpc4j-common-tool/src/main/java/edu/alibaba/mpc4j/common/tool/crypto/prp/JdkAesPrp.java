@@ -67,6 +67,18 @@ class JdkAesPrp implements Prp {
         }
     }
 
+    @Override
+    public byte[] batchPrp(byte[] plaintexts) {
+        assert encryptCipher != null;
+        assert plaintexts.length % CommonConstants.BLOCK_BYTE_LENGTH == 0;
+        try {
+            // ECB mode encrypts all blocks in one call, so that JDK can pipeline AES-NI instructions over blocks
+            return this.encryptCipher.doFinal(plaintexts);
+        } catch (IllegalBlockSizeException | BadPaddingException e) {
+            throw new IllegalStateException(String.format("Invalid plaintexts length: %s bytes", plaintexts.length));
+        }
+    }
+
     @Override
     public byte[] invPrp(byte[] ciphertext) {
         assert decryptCipher != null;
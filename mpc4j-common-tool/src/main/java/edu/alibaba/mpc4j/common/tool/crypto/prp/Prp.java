@@ -1,5 +1,6 @@
 package edu.alibaba.mpc4j.common.tool.crypto.prp;
 
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
 import edu.alibaba.mpc4j.common.tool.crypto.prp.PrpFactory.PrpType;
 
 /**
@@ -24,6 +25,24 @@ public interface Prp {
      */
     byte[] prp(byte[] plaintext);
 
+    /**
+     * Computes random permutations of consecutive κ-bit blocks in batch.
+     *
+     * @param plaintexts consecutive κ-bit plaintexts.
+     * @return consecutive κ-bit ciphertexts.
+     */
+    default byte[] batchPrp(byte[] plaintexts) {
+        assert plaintexts.length % CommonConstants.BLOCK_BYTE_LENGTH == 0;
+        byte[] ciphertexts = new byte[plaintexts.length];
+        byte[] plaintext = new byte[CommonConstants.BLOCK_BYTE_LENGTH];
+        for (int offset = 0; offset < plaintexts.length; offset += CommonConstants.BLOCK_BYTE_LENGTH) {
+            System.arraycopy(plaintexts, offset, plaintext, 0, CommonConstants.BLOCK_BYTE_LENGTH);
+            byte[] ciphertext = prp(plaintext);
+            System.arraycopy(ciphertext, 0, ciphertexts, offset, CommonConstants.BLOCK_BYTE_LENGTH);
+        }
+        return ciphertexts;
+    }
+
     /**
      * 对密文逆伪随机置换。
      *
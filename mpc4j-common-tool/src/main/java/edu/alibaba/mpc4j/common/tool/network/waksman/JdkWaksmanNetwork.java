@@ -6,6 +6,7 @@ import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
 
 import java.util.Arrays;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.IntStream;
 
 /**
@@ -16,13 +17,33 @@ import java.util.stream.IntStream;
  */
 @SuppressWarnings({"AlibabaUndefineMagicConstant", "AlibabaAvoidNegationOperator", "AlibabaMethodTooLong"})
 class JdkWaksmanNetwork<T> extends AbstractWaksmanNetwork<T> {
+    /**
+     * min size of a sub-network whose top and bottom sub-networks are routed in parallel
+     */
+    private static final int PARALLEL_MIN_SUB_N = 1 << 14;
+    /**
+     * parallel routing
+     */
+    private final boolean parallel;
+
     /**
      * Creates a network.
      *
      * @param permutationMap permutation map.
      */
     JdkWaksmanNetwork(final int[] permutationMap) {
+        this(permutationMap, false);
+    }
+
+    /**
+     * Creates a network.
+     *
+     * @param permutationMap permutation map.
+     * @param parallel       route top and bottom sub-networks in parallel.
+     */
+    JdkWaksmanNetwork(final int[] permutationMap, boolean parallel) {
         super(permutationMap);
+        this.parallel = parallel;
         // iteratively create the Benes network
         genWaksmanRoute(permutationMap);
         // update widths
@@ -37,6 +58,7 @@ class JdkWaksmanNetwork<T> extends AbstractWaksmanNetwork<T> {
      */
     JdkWaksmanNetwork(final int n, final byte[][] network) {
         super(n, network);
+        parallel = false;
     }
 
     private void genWaksmanRoute(final int[] permutationMap) {
@@ -120,10 +142,18 @@ class JdkWaksmanNetwork<T> extends AbstractWaksmanNetwork<T> {
                 // remove one switch for the even case.
                 network[levelIndex + subLevel - 1][permIndex + subN / 2 - 1] = 2;
             }
-            // create top subnetwork, with (log(N) - 1) levels
-            genWaksmanRoute(subLogN - 1, levelIndex + 1, permIndex, subTopDests);
-            // create bottom subnetwork with (log(N) - 1) levels.
-            genWaksmanRoute(subLogN - 1, levelIndex + 1, permIndex + subN / 4, subBottomDests);
+            if (parallel && subN >= PARALLEL_MIN_SUB_N) {
+                // top and bottom subnetworks write disjoint switches, so that they can be routed in parallel
+                ForkJoinTask.invokeAll(
+                    ForkJoinTask.adapt(() -> genWaksmanRoute(subLogN - 1, levelIndex + 1, permIndex, subTopDests)),
+                    ForkJoinTask.adapt(() -> genWaksmanRoute(subLogN - 1, levelIndex + 1, permIndex + subN / 4, subBottomDests))
+                );
+            } else {
+                // create top subnetwork, with (log(N) - 1) levels
+                genWaksmanRoute(subLogN - 1, levelIndex + 1, permIndex, subTopDests);
+                // create bottom subnetwork with (log(N) - 1) levels.
+                genWaksmanRoute(subLogN - 1, levelIndex + 1, permIndex + subN / 4, subBottomDests);
+            }
         }
     }
 
@@ -200,7 +230,7 @@ class JdkWaksmanNetwork<T> extends AbstractWaksmanNetwork<T> {
         network[levelIndex + 4][permIndex + 1] = 2;
     }
 
-    private byte[] genQuadrupleSwitches(int[] subDests) {
+    static byte[] genQuadrupleSwitches(int[] subDests) {
         assert subDests.length == 4;
         if (subDests[0] == 0) {
             // [0, 1, 2, 3] -> [0, ?, ?, ?]
@@ -0,0 +1,739 @@
+package edu.alibaba.mpc4j.common.tool.network.waksman;
+
+import com.google.common.base.Preconditions;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.network.PermutationNetworkUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Layer-by-layer programmer for Waksman networks. The layer switch indexes, the fixed layer permutations and the empty
+ * switches only depend on the number of inputs, not on the permutation. This programmer generates them one layer at a
+ * time, in the same form as {@link WaksmanNetwork#getLayerSwitchIndexes()} and
+ * {@link WaksmanNetwork#getFixedLayerPermutations()}, so that a layer-streaming evaluation only keeps O(n) memory
+ * instead of O(n log(n)) memory for all layers.
+ * <p>
+ * All sub-networks in the same depth have the same log(n), so the left layer and the right layer of a sub-network in
+ * depth d are the d-th and the (level - 1 - d)-th layer. We keep the frontier of sub-networks when going through the
+ * left half, and remember the (tiny) description of each sub-network to generate the right half. Sub-networks with at
+ * most 4 inputs are programmed directly, and cover layers from d to level - 1 - d.
+ * </p>
+ * <p>
+ * If the permutation is given, the programmer also routes the gates layer by layer. Routing a sub-network in depth d
+ * fixes the gates of its left layer and its right layer, and the permutations of its two sub-networks in depth d + 1.
+ * We keep permutations of the current depth in O(n) ints, and keep gates of the right layers as bits until they are
+ * reached, i.e., at most n / 2 bits per layer for the right half. Gates of the current layer are the same as
+ * {@link WaksmanNetwork#getGates(int)}.
+ * </p>
+ * <p>
+ * Returned arrays are reused between layers. Callers must copy them if they need the arrays after the next layer.
+ * </p>
+ *
+ * @author Weiran Liu
+ * @date 2024/6/30
+ */
+public class WaksmanLayerProgrammer {
+    /**
+     * single gate (█), with 1 level
+     */
+    private static final int SINGLE = 0;
+    /**
+     * padded single gate (□ █ □), with 3 levels
+     */
+    private static final int PAD_SINGLE = 1;
+    /**
+     * triple gates (█ □ █ / □ █ □), with 3 levels
+     */
+    private static final int TRIPLE = 2;
+    /**
+     * quadruple gates (█ █ █ / █ █ □), with 3 levels
+     */
+    private static final int QUADRUPLE = 3;
+    /**
+     * padded quadruple gates (█ □ █ □ █ / █ □ █ □ □), with 5 levels
+     */
+    private static final int PAD_QUADRUPLE = 4;
+    /**
+     * empty gate
+     */
+    private static final byte EMPTY_GATE = 2;
+    /**
+     * the number of ints to describe a sub-network, (targetIndex, switchIndex, subN)
+     */
+    private static final int NODE_INTS = 3;
+    /**
+     * the number of ints to describe a small sub-network, (type, start level, targetIndex, switchIndex)
+     */
+    private static final int SMALL_NODE_INTS = 4;
+    /**
+     * number of inputs
+     */
+    private final int n;
+    /**
+     * log(n)
+     */
+    private final int logN;
+    /**
+     * level
+     */
+    private final int level;
+    /**
+     * max width
+     */
+    private final int maxWidth;
+    /**
+     * recursive sub-networks in each depth, each is described by (targetIndex, switchIndex, subN)
+     */
+    private final int[][] depthNodes;
+    /**
+     * the number of recursive sub-networks in each depth
+     */
+    private final int[] depthNodeNums;
+    /**
+     * frontier sub-networks in the current depth
+     */
+    private int[] frontier;
+    /**
+     * the number of frontier sub-networks
+     */
+    private int frontierNum;
+    /**
+     * small sub-networks, each is described by (type, start level, targetIndex, switchIndex)
+     */
+    private int[] smallNodes;
+    /**
+     * the number of small sub-networks
+     */
+    private int smallNodeNum;
+    /**
+     * current level index
+     */
+    private int levelIndex;
+    /**
+     * layer switch indexes of the current level
+     */
+    private final int[] layerSwitchIndexes;
+    /**
+     * fixed layer permutation of the current level
+     */
+    private int[] fixedLayerPermutation;
+    /**
+     * fixed layer permutation of the next level, only used in the left half
+     */
+    private int[] nextFixedLayerPermutation;
+    /**
+     * empty switches of the current level
+     */
+    private final boolean[] emptySwitches;
+    /**
+     * width of the current level
+     */
+    private int width;
+    /**
+     * parallel routing
+     */
+    private final boolean parallel;
+    /**
+     * permutations of sub-networks in the current depth, the permutation of the sub-network starting at targetIndex is
+     * stored in [targetIndex, targetIndex + subN). null if the programmer does not route gates
+     */
+    private int[] subPerms;
+    /**
+     * permutations of sub-networks in the next depth
+     */
+    private int[] nextSubPerms;
+    /**
+     * inverse permutations of sub-networks in the current depth
+     */
+    private int[] invSubPerms;
+    /**
+     * paths of sub-networks in the current depth
+     */
+    private int[] paths;
+    /**
+     * left gates of sub-networks in the current depth
+     */
+    private byte[] leftGateBuffer;
+    /**
+     * right gates of sub-networks in the current depth
+     */
+    private byte[] rightGateBuffer;
+    /**
+     * gates of the current level and the remaining levels, each level is packed into longs, 1 for swapping switches
+     */
+    private final long[][] gateBits;
+    /**
+     * gates of the current level
+     */
+    private final byte[] gates;
+
+    /**
+     * Creates a layer programmer.
+     *
+     * @param n number of inputs.
+     */
+    public WaksmanLayerProgrammer(int n) {
+        this(n, null, false);
+    }
+
+    /**
+     * Creates a layer programmer that also routes gates for the permutation.
+     *
+     * @param permutationMap permutation map.
+     * @param parallel       route sub-networks in the same depth in parallel.
+     */
+    public WaksmanLayerProgrammer(int[] permutationMap, boolean parallel) {
+        this(permutationMap.length, permutationMap, parallel);
+    }
+
+    private WaksmanLayerProgrammer(int n, int[] permutationMap, boolean parallel) {
+        MathPreconditions.checkGreater("n", n, 1);
+        this.n = n;
+        this.parallel = parallel;
+        logN = LongUtils.ceilLog2(n);
+        level = PermutationNetworkUtils.getLevel(n);
+        maxWidth = PermutationNetworkUtils.getMaxWidth(n);
+        depthNodes = new int[logN][];
+        depthNodeNums = new int[logN];
+        frontier = new int[]{0, 0, n};
+        frontierNum = 1;
+        smallNodes = new int[SMALL_NODE_INTS * 16];
+        smallNodeNum = 0;
+        levelIndex = -1;
+        layerSwitchIndexes = new int[n];
+        // the 0-th connection is the identity permutation
+        fixedLayerPermutation = new int[n];
+        Arrays.setAll(fixedLayerPermutation, i -> i);
+        nextFixedLayerPermutation = new int[n];
+        emptySwitches = new boolean[maxWidth];
+        if (permutationMap == null) {
+            gateBits = null;
+            gates = null;
+        } else {
+            assert PermutationNetworkUtils.validPermutation(permutationMap);
+            subPerms = Arrays.copyOf(permutationMap, n);
+            nextSubPerms = new int[n];
+            invSubPerms = new int[n];
+            paths = new int[n];
+            leftGateBuffer = new byte[maxWidth];
+            rightGateBuffer = new byte[maxWidth];
+            gateBits = new long[level][];
+            gates = new byte[maxWidth];
+        }
+    }
+
+    /**
+     * Gets the number of inputs.
+     *
+     * @return the number of inputs.
+     */
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * Gets the number of levels.
+     *
+     * @return the number of levels.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the max width.
+     *
+     * @return the max width.
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Returns if there are more levels to program.
+     *
+     * @return true if there are more levels to program.
+     */
+    public boolean hasNextLevel() {
+        return levelIndex < level - 1;
+    }
+
+    /**
+     * Programs the next level.
+     */
+    public void nextLevel() {
+        MathPreconditions.checkLess("levelIndex", levelIndex, level - 1);
+        if (gateBits != null && levelIndex >= 0) {
+            // release gates that are not needed anymore
+            gateBits[levelIndex] = null;
+        }
+        levelIndex++;
+        Arrays.fill(emptySwitches, true);
+        width = 0;
+        int halfLevel = (level + 1) / 2;
+        if (levelIndex < halfLevel) {
+            programLeftLevel();
+        } else {
+            programRightLevel();
+        }
+        // small sub-networks registered in previous levels
+        for (int smallIndex = 0; smallIndex < smallNodeNum; smallIndex++) {
+            int offset = smallIndex * SMALL_NODE_INTS;
+            int startLevel = smallNodes[offset + 1];
+            if (startLevel < levelIndex && levelIndex <= level - 1 - startLevel) {
+                programSmallNode(
+                    smallNodes[offset], levelIndex - startLevel, smallNodes[offset + 2], smallNodes[offset + 3]
+                );
+            }
+        }
+        if (gateBits != null) {
+            long[] levelGateBits = gateBits[levelIndex];
+            for (int widthIndex = 0; widthIndex < maxWidth; widthIndex++) {
+                if (emptySwitches[widthIndex]) {
+                    gates[widthIndex] = EMPTY_GATE;
+                } else {
+                    boolean swap = levelGateBits != null
+                        && (levelGateBits[widthIndex / Long.SIZE] & (1L << (widthIndex % Long.SIZE))) != 0;
+                    gates[widthIndex] = swap ? (byte) 1 : (byte) 0;
+                }
+            }
+        }
+    }
+
+    private void programLeftLevel() {
+        // input indexes of the frontier are prepared in the previous level
+        if (levelIndex > 0) {
+            int[] temp = fixedLayerPermutation;
+            fixedLayerPermutation = nextFixedLayerPermutation;
+            nextFixedLayerPermutation = temp;
+        }
+        int depth = levelIndex;
+        int subLogN = logN - depth;
+        int[] nextFrontier = new int[frontierNum * 2 * NODE_INTS];
+        int nextFrontierNum = 0;
+        int[] nodes = new int[frontierNum * NODE_INTS];
+        int nodeNum = 0;
+        for (int nodeIndex = 0; nodeIndex < frontierNum; nodeIndex++) {
+            int targetIndex = frontier[nodeIndex * NODE_INTS];
+            int switchIndex = frontier[nodeIndex * NODE_INTS + 1];
+            int subN = frontier[nodeIndex * NODE_INTS + 2];
+            if (subN <= 4) {
+                int type = getSmallType(subN, subLogN);
+                addSmallNode(type, targetIndex, switchIndex);
+                programSmallNode(type, 0, targetIndex, switchIndex);
+                if (subPerms != null) {
+                    routeSmallNode(type, targetIndex, switchIndex);
+                }
+                continue;
+            }
+            System.arraycopy(frontier, nodeIndex * NODE_INTS, nodes, nodeNum * NODE_INTS, NODE_INTS);
+            nodeNum++;
+            programNodeSwitches(targetIndex, switchIndex, subN, false);
+            // the input indexes of sub-networks are odd / even indexes in the current level
+            int subTopN = subN / 2;
+            int subBottomN = subN - subTopN;
+            for (int i = 0; i < subTopN; i++) {
+                nextFixedLayerPermutation[targetIndex + i] = targetIndex + 2 * i;
+                nextFixedLayerPermutation[targetIndex + subTopN + i] = targetIndex + 2 * i + 1;
+            }
+            if (subN % 2 == 1) {
+                nextFixedLayerPermutation[targetIndex + subN - 1] = targetIndex + subN - 1;
+            }
+            int nextOffset = nextFrontierNum * NODE_INTS;
+            nextFrontier[nextOffset] = targetIndex;
+            nextFrontier[nextOffset + 1] = switchIndex;
+            nextFrontier[nextOffset + 2] = subTopN;
+            nextFrontier[nextOffset + 3] = targetIndex + subTopN;
+            nextFrontier[nextOffset + 4] = switchIndex + subN / 4;
+            nextFrontier[nextOffset + 5] = subBottomN;
+            nextFrontierNum += 2;
+        }
+        depthNodes[depth] = nodes;
+        depthNodeNums[depth] = nodeNum;
+        frontier = nextFrontier;
+        frontierNum = nextFrontierNum;
+        if (subPerms != null) {
+            routeNodes(nodes, nodeNum, level - 1 - depth);
+            if (frontierNum == 0) {
+                // all sub-networks are routed, release buffers
+                subPerms = null;
+                nextSubPerms = null;
+                invSubPerms = null;
+                paths = null;
+                leftGateBuffer = null;
+                rightGateBuffer = null;
+            } else {
+                int[] temp = subPerms;
+                subPerms = nextSubPerms;
+                nextSubPerms = temp;
+            }
+        }
+    }
+
+    private void routeNodes(int[] nodes, int nodeNum, int rightLevelIndex) {
+        // sub-networks in the same depth use disjoint positions and switches, so that they can be routed in parallel
+        IntStream nodeIntStream = IntStream.range(0, nodeNum);
+        nodeIntStream = parallel ? nodeIntStream.parallel() : nodeIntStream;
+        nodeIntStream.forEach(nodeIndex -> routeNode(
+            nodes[nodeIndex * NODE_INTS], nodes[nodeIndex * NODE_INTS + 1], nodes[nodeIndex * NODE_INTS + 2]
+        ));
+        // pack gates into bits
+        for (int nodeIndex = 0; nodeIndex < nodeNum; nodeIndex++) {
+            int switchIndex = nodes[nodeIndex * NODE_INTS + 1];
+            int subN = nodes[nodeIndex * NODE_INTS + 2];
+            for (int i = switchIndex; i < switchIndex + subN / 2; i++) {
+                setGate(levelIndex, i, leftGateBuffer[i]);
+                setGate(rightLevelIndex, i, rightGateBuffer[i]);
+            }
+        }
+    }
+
+    /**
+     * Routes a sub-network in the same way as JdkWaksmanNetwork, where the permutation is stored in subPerms.
+     *
+     * @param t    target index.
+     * @param s    switch index.
+     * @param subN number of inputs.
+     */
+    private void routeNode(int t, int s, int subN) {
+        for (int i = 0; i < subN; i++) {
+            invSubPerms[t + subPerms[t + i]] = i;
+            paths[t + i] = -1;
+        }
+        if (subN % 2 == 1) {
+            // handling odd n, the last node directly links to the bottom subnetwork.
+            paths[t + subN - 1] = 1;
+            paths[t + subPerms[t + subN - 1]] = 1;
+            if (subPerms[t + subN - 1] != subN - 1) {
+                depthFirstSearch(t, subPerms[t + subN - 1] ^ 1);
+            }
+        } else {
+            int index = subPerms[t + subN - 1];
+            paths[t + index] = 1;
+            depthFirstSearch(t, index ^ 1);
+        }
+        for (int i = 0; i < subN; i++) {
+            if (paths[t + i] < 0) {
+                depthFirstSearch(t, i);
+            }
+        }
+        // the top sub-network starts at t, the bottom sub-network starts at t + subTopN
+        int subTopN = subN / 2;
+        for (int i = 0, partSrcIndex = 0; i < subN - 1; partSrcIndex++) {
+            leftGateBuffer[s + partSrcIndex] = (byte) paths[t + i];
+            int rightFromTop = paths[t + subPerms[t + i]];
+            rightGateBuffer[s + partSrcIndex] = (byte) rightFromTop;
+            if (rightFromTop == 0) {
+                nextSubPerms[t + partSrcIndex] = subPerms[t + i++] >> 1;
+                nextSubPerms[t + subTopN + partSrcIndex] = subPerms[t + i++] >> 1;
+            } else {
+                nextSubPerms[t + subTopN + partSrcIndex] = subPerms[t + i++] >> 1;
+                nextSubPerms[t + partSrcIndex] = subPerms[t + i++] >> 1;
+            }
+        }
+        if (subN % 2 == 1) {
+            // add one more switch for the odd case.
+            nextSubPerms[t + subTopN + subN / 2] = subPerms[t + subN - 1] >> 1;
+        }
+    }
+
+    private void depthFirstSearch(int t, int idx) {
+        // stack of (index, path) pairs
+        int[] stack = new int[16];
+        int stackSize = 0;
+        stack[stackSize++] = idx;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int value = stack[--stackSize];
+            int index = stack[--stackSize];
+            paths[t + index] = value;
+            if (stackSize + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            // the next item is always assigned the opposite of this item, unless it was part of previous paths
+            if (paths[t + (index ^ 1)] < 0) {
+                stack[stackSize++] = index ^ 1;
+                stack[stackSize++] = value ^ 1;
+            }
+            int nextIndex = subPerms[t + (invSubPerms[t + index] ^ 1)];
+            if (paths[t + nextIndex] < 0) {
+                stack[stackSize++] = nextIndex;
+                stack[stackSize++] = value ^ 1;
+            }
+        }
+    }
+
+    /**
+     * Routes a small sub-network in all its levels, where the permutation is stored in subPerms.
+     *
+     * @param type type.
+     * @param t    target index.
+     * @param s    switch index.
+     */
+    private void routeSmallNode(int type, int t, int s) {
+        switch (type) {
+            case SINGLE:
+                setGate(levelIndex, s, subPerms[t] == 0 ? 0 : 1);
+                break;
+            case PAD_SINGLE:
+                setGate(levelIndex + 1, s, subPerms[t] == 0 ? 0 : 1);
+                break;
+            case TRIPLE:
+                if (subPerms[t] == 0) {
+                    setGate(levelIndex + 1, s, subPerms[t + 1] == 1 ? 0 : 1);
+                } else if (subPerms[t + 1] == 0) {
+                    setGate(levelIndex + 1, s, subPerms[t] == 1 ? 0 : 1);
+                    setGate(levelIndex + 2, s, 1);
+                } else {
+                    setGate(levelIndex, s, 1);
+                    setGate(levelIndex + 1, s, 1);
+                    setGate(levelIndex + 2, s, subPerms[t] == 1 ? 0 : 1);
+                }
+                break;
+            case QUADRUPLE:
+            case PAD_QUADRUPLE:
+                // PAD_QUADRUPLE has empty levels between (█ □ █ □ █), so that the level step is 2
+                int step = type == QUADRUPLE ? 1 : 2;
+                byte[] switches = JdkWaksmanNetwork.genQuadrupleSwitches(Arrays.copyOfRange(subPerms, t, t + 4));
+                setGate(levelIndex, s, switches[0]);
+                setGate(levelIndex, s + 1, switches[1]);
+                setGate(levelIndex + step, s, switches[2]);
+                setGate(levelIndex + step, s + 1, switches[3]);
+                setGate(levelIndex + 2 * step, s, switches[4]);
+                break;
+            default:
+                throw new IllegalStateException("Invalid small sub-network type: " + type);
+        }
+    }
+
+    private void setGate(int gateLevelIndex, int widthIndex, int gate) {
+        if (gate == 1) {
+            if (gateBits[gateLevelIndex] == null) {
+                gateBits[gateLevelIndex] = new long[CommonUtils.getLongLength(maxWidth)];
+            }
+            gateBits[gateLevelIndex][widthIndex / Long.SIZE] |= 1L << (widthIndex % Long.SIZE);
+        }
+    }
+
+    private void programRightLevel() {
+        // all positions are covered by sub-networks in the right half, so that we directly overwrite the buffer
+        int depth = level - 1 - levelIndex;
+        int[] nodes = depthNodes[depth];
+        for (int nodeIndex = 0; nodeIndex < depthNodeNums[depth]; nodeIndex++) {
+            int targetIndex = nodes[nodeIndex * NODE_INTS];
+            int switchIndex = nodes[nodeIndex * NODE_INTS + 1];
+            int subN = nodes[nodeIndex * NODE_INTS + 2];
+            programNodeSwitches(targetIndex, switchIndex, subN, true);
+            int subTopN = subN / 2;
+            for (int i = 0; i < subTopN; i++) {
+                fixedLayerPermutation[targetIndex + 2 * i] = targetIndex + i;
+                fixedLayerPermutation[targetIndex + 2 * i + 1] = targetIndex + i + subTopN;
+            }
+            if (subN % 2 == 1) {
+                fixedLayerPermutation[targetIndex + subN - 1] = targetIndex + subN - 1;
+            }
+        }
+        // release sub-networks that are not needed anymore
+        depthNodes[depth] = null;
+    }
+
+    private void programNodeSwitches(int targetIndex, int switchIndex, int subN, boolean right) {
+        int subTopN = subN / 2;
+        for (int i = 0; i < subTopN; i++) {
+            layerSwitchIndexes[targetIndex + 2 * i] = switchIndex + i;
+            layerSwitchIndexes[targetIndex + 2 * i + 1] = switchIndex + i;
+            setNonEmptySwitch(switchIndex + i);
+        }
+        if (subN % 2 == 1) {
+            layerSwitchIndexes[targetIndex + subN - 1] = -1;
+        } else if (right) {
+            // the last switch on the right is removed for the even case
+            emptySwitches[switchIndex + subTopN - 1] = true;
+            width--;
+        }
+    }
+
+    /**
+     * Programs a small sub-network in the relative level, the input indexes of the 0-th relative level is already in
+     * the fixed layer permutation.
+     *
+     * @param type          type.
+     * @param relativeLevel relative level.
+     * @param t             target index.
+     * @param s             switch index.
+     */
+    private void programSmallNode(int type, int relativeLevel, int t, int s) {
+        int[] fixed = fixedLayerPermutation;
+        int[] switches = layerSwitchIndexes;
+        switch (type) {
+            case SINGLE:
+                switches[t] = s;
+                switches[t + 1] = s;
+                setNonEmptySwitch(s);
+                break;
+            case PAD_SINGLE:
+                if (relativeLevel > 0) {
+                    fixed[t] = t;
+                    fixed[t + 1] = t + 1;
+                }
+                switches[t] = s;
+                switches[t + 1] = s;
+                if (relativeLevel == 1) {
+                    setNonEmptySwitch(s);
+                }
+                break;
+            case TRIPLE:
+                if (relativeLevel > 0) {
+                    fixed[t] = t;
+                    fixed[t + 1] = t + 1;
+                    fixed[t + 2] = t + 2;
+                }
+                if (relativeLevel == 1) {
+                    switches[t] = -1;
+                    switches[t + 1] = s;
+                    switches[t + 2] = s;
+                } else {
+                    switches[t] = s;
+                    switches[t + 1] = s;
+                    switches[t + 2] = -1;
+                }
+                setNonEmptySwitch(s);
+                break;
+            case QUADRUPLE:
+                if (relativeLevel > 0) {
+                    setCrossPermutation(fixed, t);
+                }
+                setQuadrupleSwitches(switches, t, s);
+                setNonEmptySwitch(s);
+                if (relativeLevel < 2) {
+                    setNonEmptySwitch(s + 1);
+                }
+                break;
+            case PAD_QUADRUPLE:
+                if (relativeLevel == 1 || relativeLevel == 3) {
+                    for (int i = t; i < t + 4; i++) {
+                        fixed[i] = i;
+                    }
+                } else if (relativeLevel == 2 || relativeLevel == 4) {
+                    setCrossPermutation(fixed, t);
+                }
+                setQuadrupleSwitches(switches, t, s);
+                if (relativeLevel % 2 == 0) {
+                    setNonEmptySwitch(s);
+                    if (relativeLevel < 4) {
+                        setNonEmptySwitch(s + 1);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Invalid small sub-network type: " + type);
+        }
+    }
+
+    private void setCrossPermutation(int[] fixed, int t) {
+        fixed[t] = t;
+        fixed[t + 1] = t + 2;
+        fixed[t + 2] = t + 1;
+        fixed[t + 3] = t + 3;
+    }
+
+    private void setQuadrupleSwitches(int[] switches, int t, int s) {
+        switches[t] = s;
+        switches[t + 1] = s;
+        switches[t + 2] = s + 1;
+        switches[t + 3] = s + 1;
+    }
+
+    private void setNonEmptySwitch(int widthIndex) {
+        if (emptySwitches[widthIndex]) {
+            emptySwitches[widthIndex] = false;
+            width++;
+        }
+    }
+
+    private int getSmallType(int subN, int subLogN) {
+        switch (subN) {
+            case 2:
+                return subLogN == 1 ? SINGLE : PAD_SINGLE;
+            case 3:
+                return TRIPLE;
+            case 4:
+                return subLogN == 2 ? QUADRUPLE : PAD_QUADRUPLE;
+            default:
+                throw new IllegalStateException("Invalid small sub-network size: " + subN);
+        }
+    }
+
+    private void addSmallNode(int type, int targetIndex, int switchIndex) {
+        if ((smallNodeNum + 1) * SMALL_NODE_INTS > smallNodes.length) {
+            smallNodes = Arrays.copyOf(smallNodes, smallNodes.length * 2);
+        }
+        int offset = smallNodeNum * SMALL_NODE_INTS;
+        smallNodes[offset] = type;
+        smallNodes[offset + 1] = levelIndex;
+        smallNodes[offset + 2] = targetIndex;
+        smallNodes[offset + 3] = switchIndex;
+        smallNodeNum++;
+    }
+
+    /**
+     * Gets the current level index.
+     *
+     * @return the current level index.
+     */
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    /**
+     * Gets layer switch indexes of the current level. See {@link WaksmanNetwork#getLayerSwitchIndexes()}.
+     *
+     * @return layer switch indexes of the current level.
+     */
+    public int[] getLayerSwitchIndexes() {
+        return layerSwitchIndexes;
+    }
+
+    /**
+     * Gets the fixed permutation from the previous level to the current level. See
+     * {@link WaksmanNetwork#getFixedLayerPermutations()}.
+     *
+     * @return the fixed permutation of the current level.
+     */
+    public int[] getFixedLayerPermutation() {
+        return fixedLayerPermutation;
+    }
+
+    /**
+     * Returns if the switch in the current level is empty, i.e., the gate is 2 in {@link WaksmanNetwork#getGates(int)}.
+     *
+     * @param widthIndex width index.
+     * @return true if the switch is empty.
+     */
+    public boolean isEmptySwitch(int widthIndex) {
+        return emptySwitches[widthIndex];
+    }
+
+    /**
+     * Gets gates of the current level, in the same form as {@link WaksmanNetwork#getGates(int)}. The programmer must
+     * be created with the permutation map.
+     *
+     * @return gates of the current level.
+     */
+    public byte[] getGates() {
+        Preconditions.checkState(gates != null, "The programmer is not created with the permutation map");
+        return gates;
+    }
+
+    /**
+     * Gets the width, i.e., the number of non-empty switches, of the current level.
+     *
+     * @return the width of the current level.
+     */
+    public int getWidth() {
+        return width;
+    }
+}
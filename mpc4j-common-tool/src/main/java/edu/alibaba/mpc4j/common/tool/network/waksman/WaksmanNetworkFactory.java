@@ -79,12 +79,25 @@ public class WaksmanNetworkFactory {
      * @return a network.
      */
     public static <X> WaksmanNetwork<X> createInstance(EnvType envType, int[] permutationMap) {
+        return createInstance(envType, permutationMap, false);
+    }
+
+    /**
+     * Creates a network.
+     *
+     * @param envType        environment.
+     * @param permutationMap permutation map.
+     * @param parallel       parallel routing.
+     * @param <X>            input type.
+     * @return a network.
+     */
+    public static <X> WaksmanNetwork<X> createInstance(EnvType envType, int[] permutationMap, boolean parallel) {
         switch (envType) {
             case STANDARD_JDK:
             case INLAND_JDK:
             case STANDARD:
             case INLAND:
-                return new JdkWaksmanNetwork<>(permutationMap);
+                return new JdkWaksmanNetwork<>(permutationMap, parallel);
             default:
                 throw new IllegalArgumentException("Invalid " + EnvType.class.getSimpleName() + ": " + envType.name());
         }
@@ -250,6 +250,26 @@ public class EccTest {
             .forEach(h -> Assert.assertTrue(h.isValid()));
     }
 
+    @Test
+    public void testBatchEncode() {
+        testBatchEncode(1);
+        testBatchEncode(MAX_ARRAY_LENGTH);
+    }
+
+    private void testBatchEncode(int num) {
+        Ecc ecc = EccFactory.createInstance(eccType);
+        ECPoint[] hs = IntStream.range(0, num)
+            .mapToObj(index -> ecc.getG())
+            .map(g -> g.multiply(ecc.randomZn(SECURE_RANDOM)))
+            .toArray(ECPoint[]::new);
+        for (boolean compressed : new boolean[]{false, true}) {
+            byte[][] expectEncodes = Arrays.stream(hs)
+                .map(h -> ecc.encode(h, compressed))
+                .toArray(byte[][]::new);
+            byte[][] actualEncodes = ecc.encode(Arrays.copyOf(hs, num), compressed);
+            Assert.assertArrayEquals(expectEncodes, actualEncodes);
+        }
+    }
 
     @Test
     public void testInnerProduct() {
@@ -13,6 +13,7 @@ import org.junit.runners.Parameterized;
 import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -249,6 +250,24 @@ public class PrpTest {
         Assert.assertEquals(MAX_RANDOM_ROUND, randomCiphertextInvPrpSet.size());
     }
 
+    @Test
+    public void testBatchPrp() {
+        Prp prp = PrpFactory.createInstance(type);
+        prp.setKey(BlockUtils.randomBlock(SECURE_RANDOM));
+        // 批量置换的结果应与逐个置换的结果相同
+        byte[] plaintexts = new byte[MAX_RANDOM_ROUND * CommonConstants.BLOCK_BYTE_LENGTH];
+        SECURE_RANDOM.nextBytes(plaintexts);
+        byte[] ciphertexts = prp.batchPrp(plaintexts);
+        Assert.assertEquals(plaintexts.length, ciphertexts.length);
+        for (int round = 0; round < MAX_RANDOM_ROUND; round++) {
+            int from = round * CommonConstants.BLOCK_BYTE_LENGTH;
+            int to = from + CommonConstants.BLOCK_BYTE_LENGTH;
+            Assert.assertArrayEquals(
+                prp.prp(Arrays.copyOfRange(plaintexts, from, to)), Arrays.copyOfRange(ciphertexts, from, to)
+            );
+        }
+    }
+
     @Test
     public void testParallelPrp() {
         Prp prp = PrpFactory.createInstance(type);
@@ -0,0 +1,85 @@
+package edu.alibaba.mpc4j.common.tool.network.waksman;
+
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.network.PermutationNetworkUtils;
+import edu.alibaba.mpc4j.common.tool.network.waksman.WaksmanNetworkFactory.WaksmanNetworkType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.security.SecureRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Waksman layer programmer test.
+ *
+ * @author Weiran Liu
+ * @date 2024/6/30
+ */
+public class WaksmanLayerProgrammerTest {
+    /**
+     * random state
+     */
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    @Test
+    public void testSmallN() {
+        for (int n = 2; n <= 300; n++) {
+            testProgrammer(n);
+        }
+    }
+
+    @Test
+    public void testLargeN() {
+        testProgrammer(1 << 12);
+        testProgrammer((1 << 12) + 1);
+        testProgrammer((1 << 12) - 1);
+        testProgrammer(12345);
+    }
+
+    private void testProgrammer(int n) {
+        int[] pi = PermutationNetworkUtils.randomPermutation(n, SECURE_RANDOM);
+        WaksmanNetwork<Integer> network = WaksmanNetworkFactory.createInstance(WaksmanNetworkType.JDK, pi);
+        int[][] expectSwitchIndexes = network.getLayerSwitchIndexes();
+        int[][] expectFixedPermutations = network.getFixedLayerPermutations();
+        WaksmanLayerProgrammer programmer = new WaksmanLayerProgrammer(n);
+        WaksmanLayerProgrammer router = new WaksmanLayerProgrammer(pi, false);
+        Assert.assertEquals(network.getLevel(), programmer.getLevel());
+        Assert.assertEquals(network.getMaxWidth(), programmer.getMaxWidth());
+        for (int levelIndex = 0; levelIndex < network.getLevel(); levelIndex++) {
+            Assert.assertTrue(programmer.hasNextLevel());
+            programmer.nextLevel();
+            Assert.assertEquals(levelIndex, programmer.getLevelIndex());
+            Assert.assertArrayEquals(expectSwitchIndexes[levelIndex], programmer.getLayerSwitchIndexes());
+            Assert.assertArrayEquals(expectFixedPermutations[levelIndex], programmer.getFixedLayerPermutation());
+            Assert.assertEquals(network.getWidth(levelIndex), programmer.getWidth());
+            byte[] gates = network.getGates(levelIndex);
+            for (int widthIndex = 0; widthIndex < network.getMaxWidth(); widthIndex++) {
+                Assert.assertEquals(gates[widthIndex] == 2, programmer.isEmptySwitch(widthIndex));
+            }
+            // routed gates
+            router.nextLevel();
+            Assert.assertArrayEquals(gates, router.getGates());
+            Assert.assertEquals(network.getWidth(levelIndex), router.getWidth());
+        }
+        Assert.assertFalse(programmer.hasNextLevel());
+        Assert.assertFalse(router.hasNextLevel());
+    }
+
+    @Test
+    public void testParallelRouting() {
+        for (int n : new int[]{(1 << 16) - 1, 1 << 16, (1 << 16) + 1}) {
+            int[] pi = PermutationNetworkUtils.randomPermutation(n, SECURE_RANDOM);
+            WaksmanNetwork<Integer> expect = WaksmanNetworkFactory.createInstance(EnvType.STANDARD_JDK, pi, false);
+            WaksmanNetwork<Integer> actual = WaksmanNetworkFactory.createInstance(EnvType.STANDARD_JDK, pi, true);
+            Assert.assertEquals(expect.getLevel(), actual.getLevel());
+            IntStream.range(0, expect.getLevel()).forEach(levelIndex ->
+                Assert.assertArrayEquals(expect.getGates(levelIndex), actual.getGates(levelIndex))
+            );
+            WaksmanLayerProgrammer router = new WaksmanLayerProgrammer(pi, true);
+            for (int levelIndex = 0; levelIndex < expect.getLevel(); levelIndex++) {
+                router.nextLevel();
+                Assert.assertArrayEquals(expect.getGates(levelIndex), router.getGates());
+            }
+        }
+    }
+}
@@ -5,6 +5,9 @@ import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
 import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.diag.S2pcDiagEditDistConfig;
 import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.diag.S2pcDiagEditDistReceiver;
 import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.diag.S2pcDiagEditDistSender;
+import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave.S2pcWaveEditDistConfig;
+import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave.S2pcWaveEditDistReceiver;
+import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave.S2pcWaveEditDistSender;
 
 /**
  * Edit distance factory.
@@ -19,6 +22,10 @@ public class EditDistFactory {
          * secure 2-party edit distance in diagnose style
          */
         S2PC_DIAG_EDIT_DISTANCE,
+        /**
+         * secure 2-party edit distance in wavefront style
+         */
+        S2PC_WAVE_EDIT_DISTANCE,
     }
 
     /**
@@ -31,10 +38,11 @@ public class EditDistFactory {
      */
     public static DistCmpReceiver createReceiver(Z2cParty z2cReceiver, Party senderParty, DistCmpConfig config) {
         EditDistType type = config.getEditDistType();
-        //noinspection SwitchStatementWithTooFewBranches
         switch (type) {
             case S2PC_DIAG_EDIT_DISTANCE:
                 return new S2pcDiagEditDistReceiver(z2cReceiver, senderParty, (S2pcDiagEditDistConfig) config);
+            case S2PC_WAVE_EDIT_DISTANCE:
+                return new S2pcWaveEditDistReceiver(z2cReceiver, senderParty, (S2pcWaveEditDistConfig) config);
             default:
                 throw new IllegalArgumentException("Invalid " + EditDistType.class.getSimpleName() + ": " + type.name());
         }
@@ -50,10 +58,11 @@ public class EditDistFactory {
      */
     public static DistCmpSender createSender(Z2cParty z2cSender, Party receiverParty, DistCmpConfig config) {
         EditDistType type = config.getEditDistType();
-        //noinspection SwitchStatementWithTooFewBranches
         switch (type) {
             case S2PC_DIAG_EDIT_DISTANCE:
                 return new S2pcDiagEditDistSender(z2cSender, receiverParty, (S2pcDiagEditDistConfig) config);
+            case S2PC_WAVE_EDIT_DISTANCE:
+                return new S2pcWaveEditDistSender(z2cSender, receiverParty, (S2pcWaveEditDistConfig) config);
             default:
                 throw new IllegalArgumentException("Invalid " + EditDistType.class.getSimpleName() + ": " + type.name());
         }
@@ -59,6 +59,16 @@ public class EditUtils {
         return res;
     }
 
+    /**
+     * Get bytes of chars in the string, in lower case and with non-breaking spaces replaced by spaces.
+     *
+     * @param data string.
+     * @return bytes of chars.
+     */
+    public static byte[] getCharBytes(String data) {
+        return data.toLowerCase().replace("\u00A0", " ").getBytes();
+    }
+
     /**
      * Get the index and number of chars.
      *
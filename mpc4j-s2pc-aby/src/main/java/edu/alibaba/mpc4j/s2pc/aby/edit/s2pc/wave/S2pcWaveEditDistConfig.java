@@ -0,0 +1,157 @@
+package edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave;
+
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cConfig;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl.ZlcConfig;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl.ZlcFactory;
+import edu.alibaba.mpc4j.s2pc.aby.edit.DistCmpConfig;
+import edu.alibaba.mpc4j.s2pc.aby.edit.EditDistFactory.EditDistType;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.min2.zl.ZlMin2Config;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.min2.zl.ZlMin2Factory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.PeqtConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.PeqtFactory;
+
+/**
+ * Wavefront edit distance config. String pairs are grouped into waves of pairs in the same length class, and all
+ * anti-diagonal cells of a wave are evaluated by a single min / mux vector per step.
+ *
+ * @author Li Peng
+ * @date 2024/6/20
+ */
+public class S2pcWaveEditDistConfig extends AbstractMultiPartyPtoConfig implements DistCmpConfig {
+    /**
+     * Z2 circuit config.
+     */
+    private final Z2cConfig z2cConfig;
+    /**
+     * Zl circuit config.
+     */
+    private final ZlcConfig zlcConfig;
+    /**
+     * Private equality test config.
+     */
+    private final PeqtConfig peqtConfig;
+    /**
+     * Zl min2 config.
+     */
+    private final ZlMin2Config zlMin2Config;
+    /**
+     * Zl mux config.
+     */
+    private final ZlMuxConfig zlMuxConfig;
+    /**
+     * Max batch size, i.e., the max number of cells evaluated in one step.
+     */
+    private final int maxBatchSize;
+    /**
+     * need to prune unneeded cells.
+     */
+    private final boolean needPrune;
+
+    private S2pcWaveEditDistConfig(Builder builder) {
+        super(SecurityModel.SEMI_HONEST, builder.z2cConfig, builder.zlcConfig,
+            builder.peqtConfig, builder.zlMin2Config, builder.zlMuxConfig);
+        this.maxBatchSize = builder.maxBatchSize;
+        this.z2cConfig = builder.z2cConfig;
+        this.zlcConfig = builder.zlcConfig;
+        this.peqtConfig = builder.peqtConfig;
+        this.zlMin2Config = builder.zlMin2Config;
+        this.zlMuxConfig = builder.zlMuxConfig;
+        this.needPrune = builder.needPrune;
+    }
+
+    @Override
+    public EditDistType getEditDistType() {
+        return EditDistType.S2PC_WAVE_EDIT_DISTANCE;
+    }
+
+    public Z2cConfig getZ2cConfig() {
+        return z2cConfig;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public PeqtConfig getPeqtConfig() {
+        return peqtConfig;
+    }
+
+    public ZlMin2Config getZlMin2Config() {
+        return zlMin2Config;
+    }
+
+    public ZlMuxConfig getZlMuxConfig() {
+        return zlMuxConfig;
+    }
+
+    public ZlcConfig getZlcConfig() {
+        return zlcConfig;
+    }
+
+    public boolean isNeedPrune() {
+        return needPrune;
+    }
+
+    public static class Builder implements org.apache.commons.lang3.builder.Builder<S2pcWaveEditDistConfig> {
+        /**
+         * Z2 circuit config.
+         */
+        private final Z2cConfig z2cConfig;
+        /**
+         * Zl circuit config.
+         */
+        private final ZlcConfig zlcConfig;
+        /**
+         * Private equality test config.
+         */
+        private final PeqtConfig peqtConfig;
+        /**
+         * Zl min2 config.
+         */
+        private final ZlMin2Config zlMin2Config;
+        /**
+         * Zl mux config.
+         */
+        private final ZlMuxConfig zlMuxConfig;
+        /**
+         * Max batch size, i.e., the max number of cells evaluated in one step.
+         */
+        private int maxBatchSize;
+        /**
+         * need to prune unneeded cells.
+         */
+        private boolean needPrune;
+
+        public Builder(boolean silent) {
+            z2cConfig = Z2cFactory.createDefaultConfig(SecurityModel.SEMI_HONEST, silent);
+            zlcConfig = ZlcFactory.createDefaultConfig(SecurityModel.SEMI_HONEST, silent);
+            peqtConfig = PeqtFactory.createDefaultConfig(SecurityModel.SEMI_HONEST, silent);
+            zlMin2Config = ZlMin2Factory.createDefaultConfig(SecurityModel.SEMI_HONEST, silent);
+            zlMuxConfig = ZlMuxFactory.createDefaultConfig(SecurityModel.SEMI_HONEST, silent);
+            maxBatchSize = 100000;
+            needPrune = false;
+        }
+
+        public Builder setMaxBatchSize(int maxBatchSize) {
+            MathPreconditions.checkPositive("maxBatchSize", maxBatchSize);
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder setNeedPrune(boolean needPrune) {
+            this.needPrune = needPrune;
+            return this;
+        }
+
+        @Override
+        public S2pcWaveEditDistConfig build() {
+            return new S2pcWaveEditDistConfig(this);
+        }
+    }
+}
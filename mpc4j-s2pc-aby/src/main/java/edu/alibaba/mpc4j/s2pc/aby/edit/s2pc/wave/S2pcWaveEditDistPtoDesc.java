@@ -0,0 +1,65 @@
+package edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave;
+
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDescManager;
+
+/**
+ * Wavefront edit distance protocol description.
+ *
+ * @author Li Peng
+ * @date 2024/6/20
+ */
+public class S2pcWaveEditDistPtoDesc implements PtoDesc {
+    /**
+     * protocol ID
+     */
+    private static final int PTO_ID = Math.abs((int) 7125083165826011345L);
+    /**
+     * protocol name
+     */
+    private static final String PTO_NAME = "S2PC_WAVE_EDIT";
+
+    /**
+     * protocol step
+     */
+    enum PtoStep {
+        /**
+         * Send str length.
+         */
+        SEND_CHAR_LEN,
+        /**
+         * Send result.
+         */
+        SEND_RESULT,
+    }
+
+    /**
+     * singleton mode
+     */
+    private static final S2pcWaveEditDistPtoDesc INSTANCE = new S2pcWaveEditDistPtoDesc();
+
+    /**
+     * private constructor
+     */
+    private S2pcWaveEditDistPtoDesc() {
+        // empty
+    }
+
+    public static PtoDesc getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        PtoDescManager.registerPtoDesc(getInstance());
+    }
+
+    @Override
+    public int getPtoId() {
+        return PTO_ID;
+    }
+
+    @Override
+    public String getPtoName() {
+        return PTO_NAME;
+    }
+}
@@ -0,0 +1,357 @@
+package edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.PtoState;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVectorFactory;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl.Zl;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl.SquareZlVector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl.ZlcFactory;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl.ZlcParty;
+import edu.alibaba.mpc4j.s2pc.aby.edit.AbstractEditDistReceiver;
+import edu.alibaba.mpc4j.s2pc.aby.edit.EditUtils;
+import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave.S2pcWaveEditDistPtoDesc.PtoStep;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.min2.zl.ZlMin2Factory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.min2.zl.ZlMin2Party;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.PeqtFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.PeqtParty;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Wavefront edit distance receiver.
+ *
+ * @author Li Peng
+ * @date 2024/6/20
+ */
+public class S2pcWaveEditDistReceiver extends AbstractEditDistReceiver {
+    /**
+     * private equality test receiver
+     */
+    private final PeqtParty peqtReceiver;
+    /**
+     * zl min2 receiver
+     */
+    private final ZlMin2Party zlMin2Receiver;
+    /**
+     * zl mux receiver
+     */
+    private final ZlMuxParty zlMuxReceiver;
+    /**
+     * zl circuit receiver.
+     */
+    private final ZlcParty zlcReceiver;
+    /**
+     * z2 circuit receiver.
+     */
+    private final Z2cParty z2cReceiver;
+    /**
+     * max batch size.
+     */
+    private final int maxBatchSize;
+    /**
+     * need to prune unneeded cells.
+     */
+    private final boolean needPrune;
+    /**
+     * char bit length.
+     */
+    private final int CHAR_LEN = 8;
+    /**
+     * receiver string length.
+     */
+    private int[] receiverStrLen;
+    /**
+     * sender string length.
+     */
+    private int[] senderStrLen;
+
+    public S2pcWaveEditDistReceiver(Z2cParty z2cReceiver, Party otherParty, S2pcWaveEditDistConfig config) {
+        super(S2pcWaveEditDistPtoDesc.getInstance(), z2cReceiver.getRpc(), otherParty, config);
+        this.z2cReceiver = z2cReceiver;
+        addSubPto(z2cReceiver);
+        peqtReceiver = PeqtFactory.createReceiver(z2cReceiver.getRpc(), otherParty, config.getPeqtConfig());
+        addSubPto(peqtReceiver);
+        zlMin2Receiver = ZlMin2Factory.createReceiver(z2cReceiver, otherParty, config.getZlMin2Config());
+        addSubPto(zlMin2Receiver);
+        zlMuxReceiver = ZlMuxFactory.createReceiver(z2cReceiver.getRpc(), otherParty, config.getZlMuxConfig());
+        addSubPto(zlMuxReceiver);
+        zlcReceiver = ZlcFactory.createReceiver(z2cReceiver.getRpc(), otherParty, config.getZlcConfig());
+        addSubPto(zlcReceiver);
+        maxBatchSize = config.getMaxBatchSize();
+        needPrune = config.isNeedPrune();
+    }
+
+    @Override
+    public void init(int maxLength) throws MpcAbortException {
+        int maxL = (maxLength == 0 ? 1 : EditUtils.getBitRequired(2 * maxLength)) + 1;
+        logPhaseInfo(PtoState.INIT_BEGIN);
+        stopWatch.start();
+        z2cReceiver.init(maxBatchSize);
+        peqtReceiver.init(CHAR_LEN, maxBatchSize);
+        zlcReceiver.init(maxL, maxBatchSize);
+        zlMin2Receiver.init(maxL, maxBatchSize);
+        zlMuxReceiver.init(maxBatchSize);
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 1, initTime);
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    @Override
+    public void editDist(String[] input) throws MpcAbortException {
+        logPhaseInfo(PtoState.PTO_BEGIN);
+        stopWatch.start();
+        // 1. exchange data length
+        exchangeDataLength(input);
+        stopWatch.stop();
+        long exchangeTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 3, exchangeTime);
+
+        // 2. compute all waves
+        stopWatch.start();
+        S2pcWaveEditDistScheduler scheduler = new S2pcWaveEditDistScheduler(
+            receiverStrLen, senderStrLen, maxBatchSize, needPrune
+        );
+        byte[][] charBytes = Arrays.stream(input).map(EditUtils::getCharBytes).toArray(byte[][]::new);
+        // shares of empty pairs are the length of the other string for the receiver
+        BigInteger[] shares = IntStream.range(0, input.length)
+            .mapToObj(i -> BigInteger.valueOf(receiverStrLen[i] + senderStrLen[i]))
+            .toArray(BigInteger[]::new);
+        for (int waveIndex = 0; waveIndex < scheduler.getWaveNum(); waveIndex++) {
+            computeWave(scheduler, waveIndex, charBytes, shares);
+        }
+        stopWatch.stop();
+        long computeTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 3, computeTime, "waves: " + scheduler.getWaveNum());
+
+        stopWatch.start();
+        sendResult(shares);
+        stopWatch.stop();
+        long finalTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 3, 3, finalTime);
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    /**
+     * Exchange data length.
+     *
+     * @param input input data.
+     */
+    private void exchangeDataLength(String[] input) {
+        receiverStrLen = Arrays.stream(input).mapToInt(String::length).toArray();
+        List<byte[]> sendDataLen = Arrays.stream(receiverStrLen).mapToObj(IntUtils::intToByteArray).collect(Collectors.toList());
+        DataPacketHeader headerSendDataLen = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SEND_CHAR_LEN.ordinal(), extraInfo,
+            ownParty().getPartyId(), otherParty().getPartyId()
+        );
+        rpc.send(DataPacket.fromByteArrayList(headerSendDataLen, sendDataLen));
+        DataPacketHeader headerReceiveDataLen = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SEND_CHAR_LEN.ordinal(), extraInfo++,
+            otherParty().getPartyId(), ownParty().getPartyId()
+        );
+        senderStrLen = rpc.receive(headerReceiveDataLen).getPayload().stream().mapToInt(IntUtils::byteArrayToInt).toArray();
+    }
+
+    /**
+     * Computes all anti-diagonals in a wave, one min / mux vector per step (split into chunks of max batch size).
+     *
+     * @param scheduler the scheduler.
+     * @param waveIndex wave index.
+     * @param charBytes char bytes of all strings.
+     * @param shares    result shares.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    private void computeWave(S2pcWaveEditDistScheduler scheduler, int waveIndex, byte[][] charBytes,
+                             BigInteger[] shares) throws MpcAbortException {
+        int[] wave = scheduler.getWave(waveIndex);
+        Zl zl = scheduler.getWaveZl(waveIndex);
+        int[] cellOffsets = scheduler.getCellOffsets(waveIndex);
+        // peqt for all cells in the wave, receiver chars are ordered as aaabbbccc
+        int cellNum = cellOffsets[wave.length];
+        byte[][] eqInput = new byte[cellNum][];
+        pairStream(wave.length).forEach(i -> {
+            byte[] receiverBytes = charBytes[wave[i]];
+            int rowLen = receiverStrLen[wave[i]];
+            int columnLen = senderStrLen[wave[i]];
+            for (int y = 0; y < rowLen; y++) {
+                for (int x = 0; x < columnLen; x++) {
+                    eqInput[cellOffsets[i] + EditUtils.getOffsetFromCoordi(columnLen, y, x)] = new byte[]{receiverBytes[y]};
+                }
+            }
+        });
+        SquareZ2Vector[] eqs = peqt(eqInput);
+        BigInteger[][][] matrix = initMatrix(wave);
+        // diagonal computing
+        for (int step = 0; step < scheduler.getStepNum(waveIndex); step++) {
+            int[][][] coordi = scheduler.getCoordi(waveIndex, step, parallel);
+            int[] stepOffsets = S2pcWaveEditDistScheduler.getStepOffsets(coordi);
+            int num = stepOffsets[wave.length];
+            if (num == 0) {
+                continue;
+            }
+            BigInteger[] char1 = new BigInteger[num];
+            BigInteger[] char2 = new BigInteger[num];
+            BigInteger[] char3 = new BigInteger[num];
+            boolean[] eqBits = new boolean[num];
+            pairStream(wave.length).forEach(i -> {
+                int columnLen = senderStrLen[wave[i]];
+                for (int coordiIndex = 0; coordiIndex < coordi[i][0].length; coordiIndex++) {
+                    int y = coordi[i][0][coordiIndex];
+                    int x = coordi[i][1][coordiIndex];
+                    int pos = stepOffsets[i] + coordiIndex;
+                    // matrix[j-1][k-1], matrix[j-1][k], matrix[j][k-1]
+                    char1[pos] = matrix[i][y][x];
+                    char2[pos] = matrix[i][y][x + 1];
+                    char3[pos] = matrix[i][y + 1][x];
+                    int cellIndex = cellOffsets[i] + EditUtils.getOffsetFromCoordi(columnLen, y, x);
+                    eqBits[pos] = eqs[cellIndex / maxBatchSize].getBitVector().get(cellIndex % maxBatchSize);
+                }
+            });
+            BigInteger[] values = computeCells(zl, char1, char2, char3, eqBits);
+            pairStream(wave.length).forEach(i -> {
+                for (int coordiIndex = 0; coordiIndex < coordi[i][0].length; coordiIndex++) {
+                    matrix[i][coordi[i][0][coordiIndex] + 1][coordi[i][1][coordiIndex] + 1] = values[stepOffsets[i] + coordiIndex];
+                }
+            });
+        }
+        for (int i = 0; i < wave.length; i++) {
+            shares[wave[i]] = matrix[i][receiverStrLen[wave[i]]][senderStrLen[wave[i]]];
+        }
+    }
+
+    /**
+     * Computes cells in one step, in chunks of max batch size, so that an anti-diagonal longer than the max batch size
+     * is split into several min / mux invocations.
+     *
+     * @param zl     Zl.
+     * @param char1  shares of matrix[j-1][k-1].
+     * @param char2  shares of matrix[j-1][k].
+     * @param char3  shares of matrix[j][k-1].
+     * @param eqBits shares of equality bits.
+     * @return shares of computed cells.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    private BigInteger[] computeCells(Zl zl, BigInteger[] char1, BigInteger[] char2, BigInteger[] char3,
+                                      boolean[] eqBits) throws MpcAbortException {
+        int num = char1.length;
+        BigInteger[] values = new BigInteger[num];
+        for (int from = 0; from < num; from += maxBatchSize) {
+            int to = Math.min(from + maxBatchSize, num);
+            int chunkNum = to - from;
+            BitVector eqBitVector = BitVectorFactory.createZeros(chunkNum);
+            for (int pos = from; pos < to; pos++) {
+                if (eqBits[pos]) {
+                    eqBitVector.set(pos - from, true);
+                }
+            }
+            SquareZ2Vector eq = SquareZ2Vector.create(eqBitVector, false);
+            SquareZlVector char1Vector = SquareZlVector.create(zl, Arrays.copyOfRange(char1, from, to), false);
+            SquareZlVector char2Vector = SquareZlVector.create(zl, Arrays.copyOfRange(char2, from, to), false);
+            SquareZlVector char3Vector = SquareZlVector.create(zl, Arrays.copyOfRange(char3, from, to), false);
+            SquareZlVector one = SquareZlVector.createOnes(zl, chunkNum);
+            SquareZlVector t1 = zlMin2Receiver.min2(char1Vector, zlMin2Receiver.min2(char2Vector, char3Vector));
+            SquareZlVector minPlusOne = zlcReceiver.add(t1, one);
+            // matrix[j][k] = minPlusOne + eq * (matrix[j-1][k-1] - minPlusOne), using a single mux
+            SquareZlVector result = zlcReceiver.add(minPlusOne, zlMuxReceiver.mux(eq, zlcReceiver.sub(char1Vector, minPlusOne)));
+            System.arraycopy(result.getZlVector().getElements(), 0, values, from, chunkNum);
+        }
+        return values;
+    }
+
+    /**
+     * Runs private equality tests in chunks of max batch size.
+     *
+     * @param eqInput inputs.
+     * @return chunks of equality-test results.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    private SquareZ2Vector[] peqt(byte[][] eqInput) throws MpcAbortException {
+        int chunkNum = (eqInput.length + maxBatchSize - 1) / maxBatchSize;
+        SquareZ2Vector[] eqs = new SquareZ2Vector[chunkNum];
+        for (int chunkIndex = 0; chunkIndex < chunkNum; chunkIndex++) {
+            int from = chunkIndex * maxBatchSize;
+            int to = Math.min(from + maxBatchSize, eqInput.length);
+            eqs[chunkIndex] = peqtReceiver.peqt(CHAR_LEN, Arrays.copyOfRange(eqInput, from, to));
+        }
+        return eqs;
+    }
+
+    /**
+     * Initiate edit distance matrices of the wave.
+     *
+     * @param wave pair indexes in the wave.
+     * @return matrices.
+     */
+    private BigInteger[][][] initMatrix(int[] wave) {
+        BigInteger[][][] matrix = new BigInteger[wave.length][][];
+        pairStream(wave.length).forEach(i -> {
+            int rowNum = receiverStrLen[wave[i]] + 1;
+            int columnNum = senderStrLen[wave[i]] + 1;
+            matrix[i] = new BigInteger[rowNum][columnNum];
+            // first row and first column are shared by the receiver
+            for (int y = 0; y < rowNum; y++) {
+                matrix[i][y][0] = BigInteger.valueOf(y);
+            }
+            for (int x = 0; x < columnNum; x++) {
+                matrix[i][0][x] = BigInteger.valueOf(x);
+            }
+            if (needPrune) {
+                for (int y = 1; y < rowNum; y++) {
+                    for (int x = 1; x < columnNum; x++) {
+                        if (EditUtils.isPrunedIndex(y, x, rowNum, columnNum)) {
+                            // initialize to the max value in current cell
+                            matrix[i][y][x] = BigInteger.valueOf(y + x - 1);
+                        }
+                    }
+                }
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Gets the stream of pair indexes in a wave.
+     *
+     * @param pairNum the number of pairs.
+     * @return the stream.
+     */
+    private IntStream pairStream(int pairNum) {
+        IntStream pairStream = IntStream.range(0, pairNum);
+        return parallel ? pairStream.parallel() : pairStream;
+    }
+
+    /**
+     * Send result shares.
+     *
+     * @param shares own shares.
+     */
+    private void sendResult(BigInteger[] shares) {
+        List<byte[]> sendResult = Arrays.stream(shares)
+            .map(share -> LongUtils.longToByteArray(share.longValue()))
+            .collect(Collectors.toList());
+        DataPacketHeader headerSendResult = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SEND_RESULT.ordinal(), extraInfo++,
+            ownParty().getPartyId(), otherParty().getPartyId()
+        );
+        rpc.send(DataPacket.fromByteArrayList(headerSendResult, sendResult));
+    }
+}
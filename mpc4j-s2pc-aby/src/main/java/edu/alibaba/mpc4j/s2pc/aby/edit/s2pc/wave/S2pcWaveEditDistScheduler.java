@@ -0,0 +1,190 @@
+package edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave;
+
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl.Zl;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl.ZlFactory;
+import edu.alibaba.mpc4j.s2pc.aby.edit.EditUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Wavefront scheduler for batched edit distance. Both parties build the same schedule from the exchanged string
+ * lengths.
+ * <p>
+ * Non-empty string pairs are sorted by their number of anti-diagonals and grouped into waves. A wave only contains
+ * pairs in the same length class (the bit length needed to represent the distance), so that each wave uses the
+ * smallest possible Zl, and pairs inside a wave have similar number of anti-diagonals, so that few cells are wasted
+ * on padding. A wave is extended while the sum of the max anti-diagonal lengths is at most the max batch size, i.e.,
+ * one step of a wave is evaluated by a single min / mux invocation. A pair whose anti-diagonals are longer than the max
+ * batch size forms a wave on its own, and each step of it is split into chunks of at most the max batch size.
+ * </p>
+ *
+ * @author Li Peng
+ * @date 2024/6/20
+ */
+class S2pcWaveEditDistScheduler {
+    /**
+     * row (receiver) string lengths
+     */
+    private final int[] rowLens;
+    /**
+     * column (sender) string lengths
+     */
+    private final int[] columnLens;
+    /**
+     * need to prune unneeded cells
+     */
+    private final boolean needPrune;
+    /**
+     * pair indexes in each wave
+     */
+    private final int[][] waves;
+    /**
+     * Zl used in each wave
+     */
+    private final Zl[] waveZls;
+
+    S2pcWaveEditDistScheduler(int[] rowLens, int[] columnLens, int maxBatchSize, boolean needPrune) {
+        MathPreconditions.checkEqual("rowLens.length", "columnLens.length", rowLens.length, columnLens.length);
+        MathPreconditions.checkPositive("maxBatchSize", maxBatchSize);
+        this.rowLens = rowLens;
+        this.columnLens = columnLens;
+        this.needPrune = needPrune;
+        // sort non-empty pairs by the number of anti-diagonals in descending order
+        int[] sortedIndexes = IntStream.range(0, rowLens.length)
+            .filter(i -> rowLens[i] > 0 && columnLens[i] > 0)
+            .boxed()
+            .sorted(Comparator.comparingInt((Integer i) -> rowLens[i] + columnLens[i]).reversed()
+                .thenComparingInt(i -> i))
+            .mapToInt(i -> i)
+            .toArray();
+        List<int[]> waveList = new ArrayList<>();
+        List<Zl> zlList = new ArrayList<>();
+        int waveStart = 0;
+        while (waveStart < sortedIndexes.length) {
+            int first = sortedIndexes[waveStart];
+            int lengthClass = getLengthClass(first);
+            int width = Math.min(rowLens[first], columnLens[first]);
+            int waveEnd = waveStart + 1;
+            while (waveEnd < sortedIndexes.length) {
+                int pairIndex = sortedIndexes[waveEnd];
+                int pairWidth = Math.min(rowLens[pairIndex], columnLens[pairIndex]);
+                if (getLengthClass(pairIndex) != lengthClass || width + pairWidth > maxBatchSize) {
+                    break;
+                }
+                width += pairWidth;
+                waveEnd++;
+            }
+            waveList.add(Arrays.copyOfRange(sortedIndexes, waveStart, waveEnd));
+            // one more bit so that differences compared in min2 never overflow, even with pruned cells
+            zlList.add(ZlFactory.createInstance(EnvType.INLAND_JDK, lengthClass + 1));
+            waveStart = waveEnd;
+        }
+        waves = waveList.toArray(new int[0][]);
+        waveZls = zlList.toArray(new Zl[0]);
+    }
+
+    /**
+     * Gets the length class of the pair, i.e., the bit length required to represent values in the pair's matrix.
+     *
+     * @param pairIndex pair index.
+     * @return length class.
+     */
+    int getLengthClass(int pairIndex) {
+        return EditUtils.getBitRequired(rowLens[pairIndex] + columnLens[pairIndex]);
+    }
+
+    /**
+     * Gets the number of waves.
+     *
+     * @return the number of waves.
+     */
+    int getWaveNum() {
+        return waves.length;
+    }
+
+    /**
+     * Gets pair indexes in the wave.
+     *
+     * @param waveIndex wave index.
+     * @return pair indexes.
+     */
+    int[] getWave(int waveIndex) {
+        return waves[waveIndex];
+    }
+
+    /**
+     * Gets the Zl used in the wave.
+     *
+     * @param waveIndex wave index.
+     * @return Zl.
+     */
+    Zl getWaveZl(int waveIndex) {
+        return waveZls[waveIndex];
+    }
+
+    /**
+     * Gets the number of steps (anti-diagonals) in the wave. Pairs are sorted, so the first pair is the longest one.
+     *
+     * @param waveIndex wave index.
+     * @return the number of steps.
+     */
+    int getStepNum(int waveIndex) {
+        int first = waves[waveIndex][0];
+        return rowLens[first] + columnLens[first] - 1;
+    }
+
+    /**
+     * Gets the offsets of the first cell of each pair in the wave, with the total number of cells at the end.
+     *
+     * @param waveIndex wave index.
+     * @return cell offsets.
+     */
+    int[] getCellOffsets(int waveIndex) {
+        int[] wave = waves[waveIndex];
+        int[] offsets = new int[wave.length + 1];
+        for (int i = 0; i < wave.length; i++) {
+            offsets[i + 1] = offsets[i] + rowLens[wave[i]] * columnLens[wave[i]];
+        }
+        return offsets;
+    }
+
+    /**
+     * Gets the coordinates of all pairs in the wave that are evaluated in the given step.
+     *
+     * @param waveIndex wave index.
+     * @param step      step.
+     * @param parallel  parallel computing.
+     * @return coordinates, each represented in two arrays (y, x).
+     */
+    int[][][] getCoordi(int waveIndex, int step, boolean parallel) {
+        int[] wave = waves[waveIndex];
+        IntStream pairStream = IntStream.range(0, wave.length);
+        pairStream = parallel ? pairStream.parallel() : pairStream;
+        return pairStream
+            .mapToObj(i -> {
+                int[][] coordi = EditUtils.getCoordi(step, rowLens[wave[i]], columnLens[wave[i]], needPrune);
+                return coordi[0] == null ? new int[][]{new int[0], new int[0]} : coordi;
+            })
+            .toArray(int[][][]::new);
+    }
+
+    /**
+     * Gets the offsets of each pair in the vector evaluated in one step, with the vector length at the end.
+     *
+     * @param coordi coordinates.
+     * @return offsets.
+     */
+    static int[] getStepOffsets(int[][][] coordi) {
+        int[] offsets = new int[coordi.length + 1];
+        for (int i = 0; i < coordi.length; i++) {
+            offsets[i + 1] = offsets[i] + coordi[i][0].length;
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,60 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyPto;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl64.Zl64;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.SquareZl64Vector;
+
+/**
+ * Abstract fixed-point arithmetic party.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public abstract class AbstractFixedPointParty extends AbstractTwoPartyPto implements FixedPointParty {
+    /**
+     * the number of fractional bits
+     */
+    protected final int f;
+    /**
+     * max l
+     */
+    protected int maxL;
+    /**
+     * max num
+     */
+    protected int maxNum;
+    /**
+     * Zl64 instance of the current input
+     */
+    protected Zl64 zl64;
+
+    protected AbstractFixedPointParty(PtoDesc ptoDesc, Rpc ownRpc, Party otherParty, FixedPointConfig config) {
+        super(ptoDesc, ownRpc, otherParty, config);
+        f = config.getF();
+    }
+
+    protected void setInitInput(int maxL, int maxNum) {
+        // we need at least one integer bit and one sign bit, and elements must fit in non-negative longs
+        MathPreconditions.checkInRangeClosed("maxL", maxL, f + 2, Long.SIZE - 1);
+        MathPreconditions.checkPositive("maxNum", maxNum);
+        this.maxL = maxL;
+        this.maxNum = maxNum;
+        initState();
+    }
+
+    protected void setPtoInput(SquareZl64Vector xi, int batchNum) {
+        checkInitialized();
+        MathPreconditions.checkInRangeClosed("l", xi.getZl64().getL(), f + 2, maxL);
+        MathPreconditions.checkPositiveInRangeClosed("batch num", batchNum, maxNum);
+        zl64 = xi.getZl64();
+    }
+
+    protected void setPtoInput(SquareZl64Vector xi, SquareZl64Vector yi, int batchNum) {
+        setPtoInput(xi, batchNum);
+        MathPreconditions.checkEqual("x.l", "y.l", xi.getZl64().getL(), yi.getZl64().getL());
+    }
+}
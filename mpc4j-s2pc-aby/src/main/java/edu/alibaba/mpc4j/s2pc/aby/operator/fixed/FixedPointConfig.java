@@ -0,0 +1,25 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed;
+
+import edu.alibaba.mpc4j.common.rpc.pto.MultiPartyPtoConfig;
+
+/**
+ * Fixed-point arithmetic config.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public interface FixedPointConfig extends MultiPartyPtoConfig {
+    /**
+     * Gets the protocol type.
+     *
+     * @return the protocol type.
+     */
+    FixedPointFactory.FixedPointType getPtoType();
+
+    /**
+     * Gets the number of fractional bits.
+     *
+     * @return the number of fractional bits.
+     */
+    int getF();
+}
@@ -0,0 +1,83 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.PtoFactory;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise.PiecewiseFixedPointConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise.PiecewiseFixedPointReceiver;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise.PiecewiseFixedPointSender;
+
+/**
+ * Fixed-point arithmetic factory.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public class FixedPointFactory implements PtoFactory {
+    /**
+     * private constructor.
+     */
+    private FixedPointFactory() {
+        // empty
+    }
+
+    /**
+     * the type.
+     */
+    public enum FixedPointType {
+        /**
+         * piecewise polynomial approximation
+         */
+        PIECEWISE,
+    }
+
+    /**
+     * Creates a sender.
+     *
+     * @param z2cSender     z2 circuit sender.
+     * @param receiverParty the receiver party.
+     * @param config        the config.
+     * @return a sender.
+     */
+    public static FixedPointParty createSender(Z2cParty z2cSender, Party receiverParty, FixedPointConfig config) {
+        FixedPointType type = config.getPtoType();
+        //noinspection SwitchStatementWithTooFewBranches
+        switch (type) {
+            case PIECEWISE:
+                return new PiecewiseFixedPointSender(z2cSender, receiverParty, (PiecewiseFixedPointConfig) config);
+            default:
+                throw new IllegalArgumentException("Invalid " + FixedPointType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
+    /**
+     * Creates a receiver.
+     *
+     * @param z2cReceiver z2 circuit receiver.
+     * @param senderParty the sender party.
+     * @param config      the config.
+     * @return a receiver.
+     */
+    public static FixedPointParty createReceiver(Z2cParty z2cReceiver, Party senderParty, FixedPointConfig config) {
+        FixedPointType type = config.getPtoType();
+        //noinspection SwitchStatementWithTooFewBranches
+        switch (type) {
+            case PIECEWISE:
+                return new PiecewiseFixedPointReceiver(z2cReceiver, senderParty, (PiecewiseFixedPointConfig) config);
+            default:
+                throw new IllegalArgumentException("Invalid " + FixedPointType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
+    /**
+     * Creates a default config.
+     *
+     * @param securityModel the security model.
+     * @param silent        if using a silent protocol.
+     * @return a default config.
+     */
+    public static FixedPointConfig createDefaultConfig(SecurityModel securityModel, boolean silent) {
+        return new PiecewiseFixedPointConfig.Builder(securityModel, silent).build();
+    }
+}
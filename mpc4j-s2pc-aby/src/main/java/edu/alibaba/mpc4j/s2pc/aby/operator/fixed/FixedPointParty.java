@@ -0,0 +1,110 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.pto.TwoPartyPto;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.SquareZl64Vector;
+
+/**
+ * Fixed-point arithmetic party. Values are signed fixed-point numbers in Z_{2^l} with f fractional bits (see
+ * {@link FixedPointUtils}). All operations are vectorized: each operation evaluates the whole input with a constant
+ * number of sub-protocol invocations, independent of the number of elements.
+ * <p>
+ * The number of elements processed by one batched sub-protocol invocation must be at most maxNum, i.e.:
+ * <ul>
+ * <li>mul: num;</li>
+ * <li>matMul: rows * inner * columns;</li>
+ * <li>evaluate: (segment num + 2) * num;</li>
+ * <li>argmax: rows * columns.</li>
+ * </ul>
+ * The Z2 circuit party used to create the fixed-point party must be initialized by the caller.
+ * </p>
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public interface FixedPointParty extends TwoPartyPto {
+    /**
+     * Inits the protocol.
+     *
+     * @param maxL   max l.
+     * @param maxNum max number of elements in one batched invocation.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    void init(int maxL, int maxNum) throws MpcAbortException;
+
+    /**
+     * Computes the element-wise fixed-point product x * y.
+     *
+     * @param xi the arithmetic share xi.
+     * @param yi the arithmetic share yi.
+     * @return the party's output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    SquareZl64Vector mul(SquareZl64Vector xi, SquareZl64Vector yi) throws MpcAbortException;
+
+    /**
+     * Computes the fixed-point matrix product X * Y, where X is a (rows * inner) matrix and Y is an (inner * columns)
+     * matrix, both in row-major order. Either X or Y can be plain, e.g., public model weights.
+     *
+     * @param xi      the arithmetic share of X.
+     * @param yi      the arithmetic share of Y.
+     * @param rows    the number of rows in X.
+     * @param inner   the number of columns in X, i.e., the number of rows in Y.
+     * @param columns the number of columns in Y.
+     * @return the party's output, a (rows * columns) matrix in row-major order.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    SquareZl64Vector matMul(SquareZl64Vector xi, SquareZl64Vector yi, int rows, int inner, int columns)
+        throws MpcAbortException;
+
+    /**
+     * Evaluates the piecewise polynomial on each element.
+     *
+     * @param xi         the arithmetic share xi.
+     * @param polynomial the piecewise polynomial.
+     * @return the party's output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    SquareZl64Vector evaluate(SquareZl64Vector xi, PiecewisePolynomial polynomial) throws MpcAbortException;
+
+    /**
+     * Computes the sigmoid function 1 / (1 + e^{-x}) on each element.
+     *
+     * @param xi the arithmetic share xi.
+     * @return the party's output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    SquareZl64Vector sigmoid(SquareZl64Vector xi) throws MpcAbortException;
+
+    /**
+     * Computes e^x on each element. The input should be non-positive (e.g., after subtracting the max in softmax),
+     * positive inputs are clamped to 0.
+     *
+     * @param xi the arithmetic share xi.
+     * @return the party's output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    SquareZl64Vector exp(SquareZl64Vector xi) throws MpcAbortException;
+
+    /**
+     * Computes 1 / x on each element. The input should be positive, and inputs out of the approximated domain are
+     * clamped to the domain bound.
+     *
+     * @param xi the arithmetic share xi.
+     * @return the party's output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    SquareZl64Vector reciprocal(SquareZl64Vector xi) throws MpcAbortException;
+
+    /**
+     * Computes the index of the max element in each row of a (rows * columns) matrix in row-major order. If there are
+     * multiple max elements, the first one is returned. The output indexes are integers, not fixed-point numbers.
+     *
+     * @param xi      the arithmetic share xi.
+     * @param rows    the number of rows.
+     * @param columns the number of columns.
+     * @return the party's output, the arithmetic share of the index in each row.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    SquareZl64Vector argmax(SquareZl64Vector xi, int rows, int columns) throws MpcAbortException;
+}
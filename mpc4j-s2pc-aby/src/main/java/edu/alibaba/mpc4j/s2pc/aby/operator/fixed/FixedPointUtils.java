@@ -0,0 +1,90 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed;
+
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl64.Zl64;
+
+/**
+ * Fixed-point utilities. A real number x is encoded as round(x * 2^f) mod 2^l, and decoded by interpreting the
+ * element as a signed integer in [-2^{l-1}, 2^{l-1}) and dividing it by 2^f.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public class FixedPointUtils {
+    /**
+     * private constructor.
+     */
+    private FixedPointUtils() {
+        // empty
+    }
+
+    /**
+     * Encodes a real number.
+     *
+     * @param zl64 Zl64 instance.
+     * @param f    the number of fractional bits.
+     * @param x    the real number.
+     * @return the encoded element.
+     */
+    public static long encode(Zl64 zl64, int f, double x) {
+        MathPreconditions.checkNonNegativeInRange("f", f, zl64.getL());
+        return Math.round(x * (1L << f)) & zl64.getMask();
+    }
+
+    /**
+     * Encodes real numbers.
+     *
+     * @param zl64 Zl64 instance.
+     * @param f    the number of fractional bits.
+     * @param xs   the real numbers.
+     * @return the encoded elements.
+     */
+    public static long[] encode(Zl64 zl64, int f, double[] xs) {
+        long[] elements = new long[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            elements[i] = encode(zl64, f, xs[i]);
+        }
+        return elements;
+    }
+
+    /**
+     * Decodes an element.
+     *
+     * @param zl64    Zl64 instance.
+     * @param f       the number of fractional bits.
+     * @param element the element.
+     * @return the real number.
+     */
+    public static double decode(Zl64 zl64, int f, long element) {
+        MathPreconditions.checkNonNegativeInRange("f", f, zl64.getL());
+        return (double) toSigned(zl64, element) / (1L << f);
+    }
+
+    /**
+     * Decodes elements.
+     *
+     * @param zl64     Zl64 instance.
+     * @param f        the number of fractional bits.
+     * @param elements the elements.
+     * @return the real numbers.
+     */
+    public static double[] decode(Zl64 zl64, int f, long[] elements) {
+        double[] xs = new double[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            xs[i] = decode(zl64, f, elements[i]);
+        }
+        return xs;
+    }
+
+    /**
+     * Interprets an element as a signed integer in [-2^{l-1}, 2^{l-1}).
+     *
+     * @param zl64    Zl64 instance.
+     * @param element the element.
+     * @return the signed integer.
+     */
+    public static long toSigned(Zl64 zl64, long element) {
+        int shift = Long.SIZE - zl64.getL();
+        return (element << shift) >> shift;
+    }
+}
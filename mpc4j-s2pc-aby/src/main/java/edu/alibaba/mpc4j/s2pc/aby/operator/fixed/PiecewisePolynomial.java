@@ -0,0 +1,250 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed;
+
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import org.apache.commons.math3.fitting.PolynomialCurveFitter;
+import org.apache.commons.math3.fitting.WeightedObservedPoints;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Piecewise polynomial approximation of a real function. The domain [b_0, b_k) is split by breakpoints
+ * b_0 < b_1 < ... < b_k into k segments. In the i-th segment, the function is approximated by a polynomial in the
+ * centered variable (x - m_i), where m_i = (b_i + b_{i + 1}) / 2, so that the fixed-point encoding of the coefficients
+ * does not lose precision when x is large. Inputs out of the domain are clamped to the left / right values.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public class PiecewisePolynomial {
+    /**
+     * number of sample points in each segment used for fitting
+     */
+    private static final int SAMPLE_NUM = 64;
+    /**
+     * breakpoints b_0, ..., b_k
+     */
+    private final double[] breakpoints;
+    /**
+     * segment centers m_0, ..., m_{k - 1}
+     */
+    private final double[] centers;
+    /**
+     * coefficients of each segment, from the constant term to the highest degree term
+     */
+    private final double[][] coefficients;
+    /**
+     * value for x < b_0
+     */
+    private final double leftValue;
+    /**
+     * value for x >= b_k
+     */
+    private final double rightValue;
+    /**
+     * degree
+     */
+    private final int degree;
+
+    /**
+     * Fits a piecewise polynomial by least squares in each segment.
+     *
+     * @param function    the function.
+     * @param breakpoints the breakpoints b_0 < b_1 < ... < b_k.
+     * @param degree      the degree of each polynomial.
+     * @param leftValue   value for x < b_0.
+     * @param rightValue  value for x >= b_k.
+     * @return the piecewise polynomial.
+     */
+    public static PiecewisePolynomial fit(DoubleUnaryOperator function, double[] breakpoints, int degree,
+                                          double leftValue, double rightValue) {
+        MathPreconditions.checkGreaterOrEqual("breakpoints.length", breakpoints.length, 2);
+        MathPreconditions.checkNonNegative("degree", degree);
+        int segmentNum = breakpoints.length - 1;
+        double[][] coefficients = new double[segmentNum][];
+        PolynomialCurveFitter fitter = PolynomialCurveFitter.create(degree);
+        for (int i = 0; i < segmentNum; i++) {
+            MathPreconditions.checkLess("b_" + i, breakpoints[i], breakpoints[i + 1]);
+            double center = (breakpoints[i] + breakpoints[i + 1]) / 2;
+            double step = (breakpoints[i + 1] - breakpoints[i]) / (SAMPLE_NUM - 1);
+            WeightedObservedPoints points = new WeightedObservedPoints();
+            for (int j = 0; j < SAMPLE_NUM; j++) {
+                double x = breakpoints[i] + step * j;
+                points.add(x - center, function.applyAsDouble(x));
+            }
+            coefficients[i] = fitter.fit(points.toList());
+        }
+        return new PiecewisePolynomial(breakpoints, coefficients, leftValue, rightValue);
+    }
+
+    /**
+     * Creates the sigmoid approximation on [-8, 8) with 16 quadratic segments.
+     *
+     * @return the sigmoid approximation.
+     */
+    public static PiecewisePolynomial createSigmoid() {
+        return fit(x -> 1.0 / (1.0 + Math.exp(-x)), uniformBreakpoints(-8, 8, 16), 2, 0, 1);
+    }
+
+    /**
+     * Creates the exponential approximation on [-16, 0) with 16 quadratic segments.
+     *
+     * @return the exponential approximation.
+     */
+    public static PiecewisePolynomial createExp() {
+        return fit(Math::exp, uniformBreakpoints(-16, 0, 16), 2, 0, 1);
+    }
+
+    /**
+     * Creates the reciprocal approximation on [1/8, 64) with 2 quadratic segments in each octave.
+     *
+     * @return the reciprocal approximation.
+     */
+    public static PiecewisePolynomial createReciprocal() {
+        return fit(x -> 1.0 / x, geometricBreakpoints(1.0 / 8, 64, 18), 2, 8, 1.0 / 64);
+    }
+
+    /**
+     * Creates uniform breakpoints.
+     *
+     * @param lower      the lower bound.
+     * @param upper      the upper bound.
+     * @param segmentNum the number of segments.
+     * @return breakpoints.
+     */
+    public static double[] uniformBreakpoints(double lower, double upper, int segmentNum) {
+        MathPreconditions.checkLess("lower", lower, upper);
+        MathPreconditions.checkPositive("segmentNum", segmentNum);
+        double[] breakpoints = new double[segmentNum + 1];
+        for (int i = 0; i <= segmentNum; i++) {
+            breakpoints[i] = lower + (upper - lower) * i / segmentNum;
+        }
+        return breakpoints;
+    }
+
+    /**
+     * Creates geometric breakpoints, suitable for functions whose derivatives decrease as x increases.
+     *
+     * @param lower      the lower bound, must be positive.
+     * @param upper      the upper bound.
+     * @param segmentNum the number of segments.
+     * @return breakpoints.
+     */
+    public static double[] geometricBreakpoints(double lower, double upper, int segmentNum) {
+        MathPreconditions.checkPositive("lower", lower);
+        MathPreconditions.checkLess("lower", lower, upper);
+        MathPreconditions.checkPositive("segmentNum", segmentNum);
+        double[] breakpoints = new double[segmentNum + 1];
+        double ratio = Math.pow(upper / lower, 1.0 / segmentNum);
+        for (int i = 0; i <= segmentNum; i++) {
+            breakpoints[i] = lower * Math.pow(ratio, i);
+        }
+        breakpoints[segmentNum] = upper;
+        return breakpoints;
+    }
+
+    private PiecewisePolynomial(double[] breakpoints, double[][] coefficients, double leftValue, double rightValue) {
+        this.breakpoints = Arrays.copyOf(breakpoints, breakpoints.length);
+        this.coefficients = coefficients;
+        this.leftValue = leftValue;
+        this.rightValue = rightValue;
+        int segmentNum = coefficients.length;
+        centers = new double[segmentNum];
+        for (int i = 0; i < segmentNum; i++) {
+            centers[i] = (breakpoints[i] + breakpoints[i + 1]) / 2;
+        }
+        degree = Arrays.stream(coefficients).mapToInt(c -> c.length - 1).max().orElse(0);
+    }
+
+    /**
+     * Evaluates the piecewise polynomial in plaintext.
+     *
+     * @param x x.
+     * @return the value.
+     */
+    public double evaluate(double x) {
+        if (x < breakpoints[0]) {
+            return leftValue;
+        }
+        int segmentNum = coefficients.length;
+        if (x >= breakpoints[segmentNum]) {
+            return rightValue;
+        }
+        int i = 0;
+        while (x >= breakpoints[i + 1]) {
+            i++;
+        }
+        double t = x - centers[i];
+        double value = 0;
+        for (int j = coefficients[i].length - 1; j >= 0; j--) {
+            value = value * t + coefficients[i][j];
+        }
+        return value;
+    }
+
+    /**
+     * Gets the number of segments in the domain.
+     *
+     * @return the number of segments.
+     */
+    public int getSegmentNum() {
+        return coefficients.length;
+    }
+
+    /**
+     * Gets the number of pieces, including the two clamped pieces out of the domain.
+     *
+     * @return the number of pieces.
+     */
+    public int getPieceNum() {
+        return coefficients.length + 2;
+    }
+
+    /**
+     * Gets the max degree of the polynomials.
+     *
+     * @return the max degree.
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Gets the breakpoint b_i.
+     *
+     * @param i index.
+     * @return b_i.
+     */
+    public double getBreakpoint(int i) {
+        return breakpoints[i];
+    }
+
+    /**
+     * Gets the center of the i-th segment.
+     *
+     * @param i segment index.
+     * @return m_i.
+     */
+    public double getCenter(int i) {
+        return centers[i];
+    }
+
+    /**
+     * Gets the j-th degree coefficient of the i-th segment.
+     *
+     * @param i segment index.
+     * @param j degree.
+     * @return the coefficient.
+     */
+    public double getCoefficient(int i, int j) {
+        return j < coefficients[i].length ? coefficients[i][j] : 0;
+    }
+
+    public double getLeftValue() {
+        return leftValue;
+    }
+
+    public double getRightValue() {
+        return rightValue;
+    }
+}
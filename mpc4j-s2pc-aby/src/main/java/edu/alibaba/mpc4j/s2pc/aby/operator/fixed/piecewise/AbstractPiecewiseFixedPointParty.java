@@ -0,0 +1,592 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.PtoState;
+import edu.alibaba.mpc4j.common.structure.vector.Zl64Vector;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl.Zl;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl.ZlFactory;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl.SquareZlVector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.SquareZl64Vector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.Zl64cParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.AbstractFixedPointParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.FixedPointUtils;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.PiecewisePolynomial;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise.PiecewiseFixedPointPtoDesc.PtoStep;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.drelu.zl.ZlDreluParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.trunc.zl.ZlTruncParty;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Abstract piecewise polynomial fixed-point arithmetic party. The sender and the receiver only differ in how the
+ * sub-protocols are created, so all computations are implemented here.
+ * <p>
+ * Products are computed in Z_{2^l} by Beaver triples and truncated by f bits. Matrix products use one matrix Beaver
+ * triple (A, B, C = A * B), so that X - A and Y - B are opened once per element, and are truncated once after local
+ * accumulation. The caller must guarantee that the absolute values of all intermediate products (with 2f fractional
+ * bits) are less than 2^l / 3.
+ * </p>
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public abstract class AbstractPiecewiseFixedPointParty extends AbstractFixedPointParty {
+    /**
+     * z2 circuit party
+     */
+    private final Z2cParty z2cParty;
+    /**
+     * zl64 circuit party
+     */
+    private final Zl64cParty zl64cParty;
+    /**
+     * zl truncation party
+     */
+    private final ZlTruncParty zlTruncParty;
+    /**
+     * zl DReLU party
+     */
+    private final ZlDreluParty zlDreluParty;
+    /**
+     * zl mux party
+     */
+    private final ZlMuxParty zlMuxParty;
+    /**
+     * sigmoid approximation
+     */
+    private final PiecewisePolynomial sigmoid;
+    /**
+     * exponential approximation
+     */
+    private final PiecewisePolynomial exp;
+    /**
+     * reciprocal approximation
+     */
+    private final PiecewisePolynomial reciprocal;
+    /**
+     * whether the party is the sender
+     */
+    private final boolean isSender;
+    /**
+     * Zl instance of the current input
+     */
+    private Zl zl;
+
+    protected AbstractPiecewiseFixedPointParty(Z2cParty z2cParty, Party otherParty, PiecewiseFixedPointConfig config,
+                                               boolean isSender, Zl64cParty zl64cParty, ZlTruncParty zlTruncParty,
+                                               ZlDreluParty zlDreluParty, ZlMuxParty zlMuxParty) {
+        super(PiecewiseFixedPointPtoDesc.getInstance(), z2cParty.getRpc(), otherParty, config);
+        this.z2cParty = z2cParty;
+        this.isSender = isSender;
+        this.zl64cParty = zl64cParty;
+        addSubPto(zl64cParty);
+        this.zlTruncParty = zlTruncParty;
+        addSubPto(zlTruncParty);
+        this.zlDreluParty = zlDreluParty;
+        addSubPto(zlDreluParty);
+        this.zlMuxParty = zlMuxParty;
+        addSubPto(zlMuxParty);
+        sigmoid = PiecewisePolynomial.createSigmoid();
+        exp = PiecewisePolynomial.createExp();
+        reciprocal = PiecewisePolynomial.createReciprocal();
+    }
+
+    @Override
+    public void init(int maxL, int maxNum) throws MpcAbortException {
+        setInitInput(maxL, maxNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        zl64cParty.init(maxL, maxNum);
+        zlTruncParty.init(maxL, maxNum);
+        zlDreluParty.init(maxL, maxNum);
+        zlMuxParty.init(maxNum);
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 1, initTime);
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    @Override
+    protected void setPtoInput(SquareZl64Vector xi, int batchNum) {
+        super.setPtoInput(xi, batchNum);
+        if (zl == null || zl.getL() != zl64.getL()) {
+            zl = ZlFactory.createInstance(envType, zl64.getL());
+        }
+    }
+
+    @Override
+    public SquareZl64Vector mul(SquareZl64Vector xi, SquareZl64Vector yi) throws MpcAbortException {
+        setPtoInput(xi, yi, xi.getNum());
+        MathPreconditions.checkEqual("x.num", "y.num", xi.getNum(), yi.getNum());
+        logPhaseInfo(PtoState.PTO_BEGIN, "mul");
+
+        stopWatch.start();
+        SquareZl64Vector zi = truncate(zl64cParty.mul(xi, yi));
+        stopWatch.stop();
+        long mulTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 1, mulTime, "mul and truncate");
+
+        logPhaseInfo(PtoState.PTO_END, "mul");
+        return zi;
+    }
+
+    @Override
+    public SquareZl64Vector matMul(SquareZl64Vector xi, SquareZl64Vector yi, int rows, int inner, int columns)
+        throws MpcAbortException {
+        MathPreconditions.checkPositive("rows", rows);
+        MathPreconditions.checkPositive("inner", inner);
+        MathPreconditions.checkPositive("columns", columns);
+        MathPreconditions.checkEqual("x.num", "rows * inner", xi.getNum(), rows * inner);
+        MathPreconditions.checkEqual("y.num", "inner * columns", yi.getNum(), inner * columns);
+        setPtoInput(xi, yi, rows * inner * columns);
+        long[] xElements = xi.getZl64Vector().getElements();
+        long[] yElements = yi.getZl64Vector().getElements();
+        if (xi.isPlain() || yi.isPlain()) {
+            // X or Y is plain, each party locally multiplies its share
+            logPhaseInfo(PtoState.PTO_BEGIN, "matMul");
+
+            stopWatch.start();
+            long[] products = localMatMul(xElements, yElements, rows, inner, columns);
+            SquareZl64Vector zi = truncate(
+                SquareZl64Vector.create(zl64, products, xi.isPlain() && yi.isPlain())
+            );
+            stopWatch.stop();
+            long mulTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(PtoState.PTO_STEP, 1, 1, mulTime, "local mul and truncate");
+
+            logPhaseInfo(PtoState.PTO_END, "matMul");
+            return zi;
+        }
+        logPhaseInfo(PtoState.PTO_BEGIN, "matMul");
+
+        stopWatch.start();
+        // matrix Beaver triple (A, B, C = A * B), the only step with rows * inner * columns element products
+        long[] a = Zl64Vector.createRandom(zl64, rows * inner, secureRandom).getElements();
+        long[] b = Zl64Vector.createRandom(zl64, inner * columns, secureRandom).getElements();
+        long[] c = matrixTriple(a, b, rows, inner, columns);
+        stopWatch.stop();
+        long tripleTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 3, tripleTime, "gen. matrix triple");
+
+        stopWatch.start();
+        // open E = X - A and F = Y - B once, with rows * inner + inner * columns elements
+        int byteL = zl64.getByteL();
+        long[] eElements = IntStream.range(0, rows * inner)
+            .mapToLong(index -> zl64.sub(xElements[index], a[index]))
+            .toArray();
+        long[] fElements = IntStream.range(0, inner * columns)
+            .mapToLong(index -> zl64.sub(yElements[index], b[index]))
+            .toArray();
+        List<byte[]> efPayload = LongStream.concat(Arrays.stream(eElements), Arrays.stream(fElements))
+            .mapToObj(element -> LongUtils.longToFixedByteArray(element, byteL))
+            .collect(Collectors.toList());
+        int sendStep = isSender ? PtoStep.SENDER_SEND_E0_F0.ordinal() : PtoStep.RECEIVER_SEND_E1_F1.ordinal();
+        int receiveStep = isSender ? PtoStep.RECEIVER_SEND_E1_F1.ordinal() : PtoStep.SENDER_SEND_E0_F0.ordinal();
+        sendOtherPartyEqualSizePayload(sendStep, efPayload);
+        List<byte[]> otherEfPayload = receiveOtherPartyEqualSizePayload(
+            receiveStep, rows * inner + inner * columns, byteL
+        );
+        long[] otherEf = otherEfPayload.stream().mapToLong(LongUtils::fixedByteArrayToLong).toArray();
+        for (int index = 0; index < rows * inner; index++) {
+            eElements[index] = zl64.add(eElements[index], otherEf[index]);
+        }
+        for (int index = 0; index < inner * columns; index++) {
+            fElements[index] = zl64.add(fElements[index], otherEf[rows * inner + index]);
+        }
+        stopWatch.stop();
+        long openTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 3, openTime, "open masked matrices");
+
+        stopWatch.start();
+        // Z = C + E * B + A * F, and the sender additionally adds the public E * F
+        long[] eb = localMatMul(eElements, b, rows, inner, columns);
+        long[] af = localMatMul(a, fElements, rows, inner, columns);
+        long[] ef = isSender ? localMatMul(eElements, fElements, rows, inner, columns) : null;
+        long[] products = new long[rows * columns];
+        for (int cell = 0; cell < rows * columns; cell++) {
+            long product = c[cell] + eb[cell] + af[cell];
+            if (isSender) {
+                product += ef[cell];
+            }
+            products[cell] = zl64.module(product);
+        }
+        // delayed truncation: truncate once after accumulation instead of once per product
+        SquareZl64Vector zi = truncate(SquareZl64Vector.create(zl64, products, false));
+        stopWatch.stop();
+        long mulTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 3, 3, mulTime, "mul and truncate");
+
+        logPhaseInfo(PtoState.PTO_END, "matMul");
+        return zi;
+    }
+
+    /**
+     * Generates C = A * B for the matrix Beaver triple, where A and B are the party's random shares. All element
+     * products are computed in one batched element-wise multiplication, independent of the inputs.
+     *
+     * @param a       the party's share of A.
+     * @param b       the party's share of B.
+     * @param rows    the number of rows in A.
+     * @param inner   the number of columns in A.
+     * @param columns the number of columns in B.
+     * @return the party's share of C.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    private long[] matrixTriple(long[] a, long[] b, int rows, int inner, int columns) throws MpcAbortException {
+        // expand all products, indexed by ((row * columns + column) * inner + k)
+        int productNum = rows * inner * columns;
+        long[] expandA = new long[productNum];
+        long[] expandB = new long[productNum];
+        IntStream cellStream = IntStream.range(0, rows * columns);
+        cellStream = parallel ? cellStream.parallel() : cellStream;
+        cellStream.forEach(cell -> {
+            int row = cell / columns;
+            int column = cell % columns;
+            for (int k = 0; k < inner; k++) {
+                expandA[cell * inner + k] = a[row * inner + k];
+                expandB[cell * inner + k] = b[k * columns + column];
+            }
+        });
+        long[] productElements = zl64cParty.mul(
+            SquareZl64Vector.create(zl64, expandA, false), SquareZl64Vector.create(zl64, expandB, false)
+        ).getZl64Vector().getElements();
+        long[] c = new long[rows * columns];
+        IntStream sumStream = IntStream.range(0, rows * columns);
+        sumStream = parallel ? sumStream.parallel() : sumStream;
+        sumStream.forEach(cell -> {
+            long sum = 0L;
+            for (int k = 0; k < inner; k++) {
+                sum += productElements[cell * inner + k];
+            }
+            c[cell] = zl64.module(sum);
+        });
+        return c;
+    }
+
+    /**
+     * Locally computes X * Y in Z_{2^l}.
+     *
+     * @param x       X in row-major order.
+     * @param y       Y in row-major order.
+     * @param rows    the number of rows in X.
+     * @param inner   the number of columns in X.
+     * @param columns the number of columns in Y.
+     * @return X * Y in row-major order.
+     */
+    private long[] localMatMul(long[] x, long[] y, int rows, int inner, int columns) {
+        long[] z = new long[rows * columns];
+        IntStream rowStream = IntStream.range(0, rows);
+        rowStream = parallel ? rowStream.parallel() : rowStream;
+        rowStream.forEach(row -> {
+            // products wrap around modulo 2^64, which is a multiple of 2^l
+            for (int k = 0; k < inner; k++) {
+                long xElement = x[row * inner + k];
+                for (int column = 0; column < columns; column++) {
+                    z[row * columns + column] += xElement * y[k * columns + column];
+                }
+            }
+            for (int column = 0; column < columns; column++) {
+                z[row * columns + column] = zl64.module(z[row * columns + column]);
+            }
+        });
+        return z;
+    }
+
+    @Override
+    public SquareZl64Vector sigmoid(SquareZl64Vector xi) throws MpcAbortException {
+        return evaluate(xi, sigmoid);
+    }
+
+    @Override
+    public SquareZl64Vector exp(SquareZl64Vector xi) throws MpcAbortException {
+        return evaluate(xi, exp);
+    }
+
+    @Override
+    public SquareZl64Vector reciprocal(SquareZl64Vector xi) throws MpcAbortException {
+        return evaluate(xi, reciprocal);
+    }
+
+    @Override
+    public SquareZl64Vector evaluate(SquareZl64Vector xi, PiecewisePolynomial polynomial) throws MpcAbortException {
+        int num = xi.getNum();
+        int segmentNum = polynomial.getSegmentNum();
+        int pieceNum = polynomial.getPieceNum();
+        setPtoInput(xi, pieceNum * num);
+        if (xi.isPlain()) {
+            long[] elements = Arrays.stream(xi.getZl64Vector().getElements())
+                .mapToDouble(element -> FixedPointUtils.decode(zl64, f, element))
+                .map(polynomial::evaluate)
+                .mapToLong(x -> FixedPointUtils.encode(zl64, f, x))
+                .toArray();
+            return SquareZl64Vector.create(zl64, elements, true);
+        }
+        logPhaseInfo(PtoState.PTO_BEGIN, "evaluate");
+
+        stopWatch.start();
+        // compare x with all breakpoints in one batched DReLU, ge_i = (x >= b_i)
+        long[] breakpoints = new long[(segmentNum + 1) * num];
+        for (int i = 0; i <= segmentNum; i++) {
+            Arrays.fill(breakpoints, i * num, (i + 1) * num, encode(polynomial.getBreakpoint(i), f));
+        }
+        SquareZl64Vector diffs = zl64cParty.sub(
+            repeat(xi, segmentNum + 1), SquareZl64Vector.create(zl64, breakpoints, true)
+        );
+        int[] nums = new int[segmentNum + 1];
+        Arrays.fill(nums, num);
+        SquareZ2Vector[] ges = Arrays.stream(z2cParty.split(zlDreluParty.drelu(toZl(diffs)), nums))
+            .map(vector -> (SquareZ2Vector) vector)
+            .toArray(SquareZ2Vector[]::new);
+        // piece indicators: x < b_0, b_i <= x < b_{i + 1}, x >= b_k
+        SquareZ2Vector[] indicators = new SquareZ2Vector[pieceNum];
+        indicators[0] = z2cParty.not(ges[0]);
+        for (int i = 0; i < segmentNum; i++) {
+            indicators[i + 1] = z2cParty.xor(ges[i], ges[i + 1]);
+        }
+        indicators[pieceNum - 1] = ges[segmentNum];
+        SquareZ2Vector indicator = (SquareZ2Vector) z2cParty.merge(indicators);
+        stopWatch.stop();
+        long compareTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 3, compareTime, "compare with breakpoints");
+
+        stopWatch.start();
+        // evaluate polynomials of all segments with 2f fractional bits, in the centered variable t_i = x - m_i
+        long[] centers = new long[segmentNum * num];
+        for (int i = 0; i < segmentNum; i++) {
+            Arrays.fill(centers, i * num, (i + 1) * num, encode(polynomial.getCenter(i), f));
+        }
+        SquareZl64Vector ts = zl64cParty.sub(repeat(xi, segmentNum), SquareZl64Vector.create(zl64, centers, true));
+        SquareZl64Vector values = secret(
+            SquareZl64Vector.create(zl64, coefficients(polynomial, num, 0, 2 * f), true)
+        );
+        SquareZl64Vector power = ts;
+        for (int j = 1; j <= polynomial.getDegree(); j++) {
+            if (j > 1) {
+                power = truncate(zl64cParty.mul(power, ts));
+            }
+            values = zl64cParty.add(
+                values, zl64cParty.mul(power, SquareZl64Vector.create(zl64, coefficients(polynomial, num, j, f), true))
+            );
+        }
+        // pieces out of the domain are constants
+        long[] pieceValues = new long[pieceNum * num];
+        System.arraycopy(values.getZl64Vector().getElements(), 0, pieceValues, num, segmentNum * num);
+        long[] clampValues = new long[pieceNum * num];
+        Arrays.fill(clampValues, 0, num, encode(polynomial.getLeftValue(), 2 * f));
+        Arrays.fill(clampValues, (pieceNum - 1) * num, pieceNum * num, encode(polynomial.getRightValue(), 2 * f));
+        SquareZl64Vector pieces = zl64cParty.add(
+            SquareZl64Vector.create(zl64, pieceValues, false), SquareZl64Vector.create(zl64, clampValues, true)
+        );
+        stopWatch.stop();
+        long polyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 3, polyTime, "evaluate polynomials");
+
+        stopWatch.start();
+        // select the piece of each input in one batched mux, then sum up and truncate once
+        long[] selected = toZl64(zlMuxParty.mux(indicator, toZl(pieces))).getZl64Vector().getElements();
+        long[] sums = new long[num];
+        IntStream sumStream = IntStream.range(0, num);
+        sumStream = parallel ? sumStream.parallel() : sumStream;
+        sumStream.forEach(index -> {
+            long sum = 0L;
+            for (int p = 0; p < pieceNum; p++) {
+                sum += selected[p * num + index];
+            }
+            sums[index] = zl64.module(sum);
+        });
+        SquareZl64Vector zi = truncate(SquareZl64Vector.create(zl64, sums, false));
+        stopWatch.stop();
+        long selectTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 3, 3, selectTime, "select pieces");
+
+        logPhaseInfo(PtoState.PTO_END, "evaluate");
+        return zi;
+    }
+
+    @Override
+    public SquareZl64Vector argmax(SquareZl64Vector xi, int rows, int columns) throws MpcAbortException {
+        MathPreconditions.checkPositive("rows", rows);
+        MathPreconditions.checkPositive("columns", columns);
+        MathPreconditions.checkEqual("x.num", "rows * columns", xi.getNum(), rows * columns);
+        setPtoInput(xi, rows * columns);
+        logPhaseInfo(PtoState.PTO_BEGIN, "argmax");
+
+        stopWatch.start();
+        long[] values = secret(xi).getZl64Vector().getElements();
+        long[] plainIndexes = new long[rows * columns];
+        for (int index = 0; index < rows * columns; index++) {
+            plainIndexes[index] = index % columns;
+        }
+        long[] indexes = zl64cParty.add(
+            SquareZl64Vector.create(zl64, new long[rows * columns], false),
+            SquareZl64Vector.create(zl64, plainIndexes, true)
+        ).getZl64Vector().getElements();
+        int width = columns;
+        int level = 0;
+        // each level of the tournament compares all pairs of all rows in one batched DReLU and one batched mux
+        while (width > 1) {
+            int pairNum = width / 2;
+            int nextWidth = width - pairNum;
+            int batchNum = rows * pairNum;
+            long[] leftValues = new long[batchNum];
+            long[] rightValues = new long[batchNum];
+            long[] leftIndexes = new long[batchNum];
+            long[] rightIndexes = new long[batchNum];
+            for (int row = 0; row < rows; row++) {
+                for (int pair = 0; pair < pairNum; pair++) {
+                    leftValues[row * pairNum + pair] = values[row * width + 2 * pair];
+                    rightValues[row * pairNum + pair] = values[row * width + 2 * pair + 1];
+                    leftIndexes[row * pairNum + pair] = indexes[row * width + 2 * pair];
+                    rightIndexes[row * pairNum + pair] = indexes[row * width + 2 * pair + 1];
+                }
+            }
+            SquareZl64Vector right = SquareZl64Vector.create(zl64, rightValues, false);
+            SquareZl64Vector valueDiffs = zl64cParty.sub(SquareZl64Vector.create(zl64, leftValues, false), right);
+            SquareZl64Vector rightIndex = SquareZl64Vector.create(zl64, rightIndexes, false);
+            SquareZl64Vector indexDiffs = zl64cParty.sub(SquareZl64Vector.create(zl64, leftIndexes, false), rightIndex);
+            // left >= right, so that the first max element is chosen on ties
+            SquareZ2Vector ge = zlDreluParty.drelu(toZl(valueDiffs));
+            SquareZ2Vector doubleGe = (SquareZ2Vector) z2cParty.merge(new SquareZ2Vector[]{ge, ge});
+            long[] diffs = new long[2 * batchNum];
+            System.arraycopy(valueDiffs.getZl64Vector().getElements(), 0, diffs, 0, batchNum);
+            System.arraycopy(indexDiffs.getZl64Vector().getElements(), 0, diffs, batchNum, batchNum);
+            long[] muxes = toZl64(zlMuxParty.mux(doubleGe, toZl(SquareZl64Vector.create(zl64, diffs, false))))
+                .getZl64Vector().getElements();
+            long[] maxValues = zl64cParty.add(
+                SquareZl64Vector.create(zl64, Arrays.copyOfRange(muxes, 0, batchNum), false), right
+            ).getZl64Vector().getElements();
+            long[] maxIndexes = zl64cParty.add(
+                SquareZl64Vector.create(zl64, Arrays.copyOfRange(muxes, batchNum, 2 * batchNum), false), rightIndex
+            ).getZl64Vector().getElements();
+            long[] nextValues = new long[rows * nextWidth];
+            long[] nextIndexes = new long[rows * nextWidth];
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(maxValues, row * pairNum, nextValues, row * nextWidth, pairNum);
+                System.arraycopy(maxIndexes, row * pairNum, nextIndexes, row * nextWidth, pairNum);
+                if (width % 2 == 1) {
+                    nextValues[row * nextWidth + pairNum] = values[row * width + width - 1];
+                    nextIndexes[row * nextWidth + pairNum] = indexes[row * width + width - 1];
+                }
+            }
+            values = nextValues;
+            indexes = nextIndexes;
+            width = nextWidth;
+            level++;
+        }
+        SquareZl64Vector zi = SquareZl64Vector.create(zl64, indexes, false);
+        stopWatch.stop();
+        long argmaxTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 1, argmaxTime, "tournament with " + level + " levels");
+
+        logPhaseInfo(PtoState.PTO_END, "argmax");
+        return zi;
+    }
+
+    /**
+     * Truncates f fractional bits.
+     *
+     * @param xi the arithmetic share xi.
+     * @return the truncated share.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    private SquareZl64Vector truncate(SquareZl64Vector xi) throws MpcAbortException {
+        if (xi.isPlain()) {
+            long[] elements = Arrays.stream(xi.getZl64Vector().getElements())
+                .map(element -> (FixedPointUtils.toSigned(zl64, element) >> f) & zl64.getMask())
+                .toArray();
+            return SquareZl64Vector.create(zl64, elements, true);
+        }
+        return toZl64(zlTruncParty.trunc(toZl(xi), f));
+    }
+
+    /**
+     * Converts a plain vector into a secret vector, where the sender holds the plain value and the receiver holds 0.
+     *
+     * @param xi the arithmetic share xi.
+     * @return the secret share.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    private SquareZl64Vector secret(SquareZl64Vector xi) throws MpcAbortException {
+        if (!xi.isPlain()) {
+            return xi;
+        }
+        return zl64cParty.add(SquareZl64Vector.create(zl64, new long[xi.getNum()], false), xi);
+    }
+
+    /**
+     * Repeats a vector.
+     *
+     * @param xi    the arithmetic share xi.
+     * @param times repeat times.
+     * @return the repeated vector.
+     */
+    private SquareZl64Vector repeat(SquareZl64Vector xi, int times) {
+        int num = xi.getNum();
+        long[] elements = xi.getZl64Vector().getElements();
+        long[] repeated = new long[num * times];
+        for (int i = 0; i < times; i++) {
+            System.arraycopy(elements, 0, repeated, i * num, num);
+        }
+        return SquareZl64Vector.create(zl64, repeated, xi.isPlain());
+    }
+
+    /**
+     * Creates the plain vector of the j-th coefficients of all segments.
+     *
+     * @param polynomial the piecewise polynomial.
+     * @param num        the number of inputs.
+     * @param j          degree.
+     * @param scale      the number of fractional bits.
+     * @return the coefficients.
+     */
+    private long[] coefficients(PiecewisePolynomial polynomial, int num, int j, int scale) {
+        int segmentNum = polynomial.getSegmentNum();
+        long[] coefficients = new long[segmentNum * num];
+        for (int i = 0; i < segmentNum; i++) {
+            Arrays.fill(coefficients, i * num, (i + 1) * num, encode(polynomial.getCoefficient(i, j), scale));
+        }
+        return coefficients;
+    }
+
+    private long encode(double x, int scale) {
+        return FixedPointUtils.encode(zl64, scale, x);
+    }
+
+    private SquareZlVector toZl(SquareZl64Vector xi) {
+        BigInteger[] elements = Arrays.stream(xi.getZl64Vector().getElements())
+            .mapToObj(BigInteger::valueOf)
+            .toArray(BigInteger[]::new);
+        return SquareZlVector.create(zl, elements, xi.isPlain());
+    }
+
+    private SquareZl64Vector toZl64(SquareZlVector xi) {
+        long[] elements = Arrays.stream(xi.getZlVector().getElements())
+            .mapToLong(BigInteger::longValue)
+            .toArray();
+        return SquareZl64Vector.create(zl64, elements, xi.isPlain());
+    }
+}
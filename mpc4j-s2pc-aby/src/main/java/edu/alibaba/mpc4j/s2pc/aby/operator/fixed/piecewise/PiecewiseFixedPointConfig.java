@@ -0,0 +1,122 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise;
+
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.Zl64cConfig;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.Zl64cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.FixedPointConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.FixedPointFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.drelu.zl.ZlDreluConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.drelu.zl.ZlDreluFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.trunc.zl.ZlTruncConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.trunc.zl.ZlTruncFactory;
+
+/**
+ * Piecewise polynomial fixed-point arithmetic config.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public class PiecewiseFixedPointConfig extends AbstractMultiPartyPtoConfig implements FixedPointConfig {
+    /**
+     * Zl64 circuit config.
+     */
+    private final Zl64cConfig zl64cConfig;
+    /**
+     * Zl truncation config.
+     */
+    private final ZlTruncConfig zlTruncConfig;
+    /**
+     * Zl DReLU config.
+     */
+    private final ZlDreluConfig zlDreluConfig;
+    /**
+     * Zl mux config.
+     */
+    private final ZlMuxConfig zlMuxConfig;
+    /**
+     * the number of fractional bits.
+     */
+    private final int f;
+
+    private PiecewiseFixedPointConfig(Builder builder) {
+        super(SecurityModel.SEMI_HONEST, builder.zl64cConfig, builder.zlTruncConfig,
+            builder.zlDreluConfig, builder.zlMuxConfig);
+        zl64cConfig = builder.zl64cConfig;
+        zlTruncConfig = builder.zlTruncConfig;
+        zlDreluConfig = builder.zlDreluConfig;
+        zlMuxConfig = builder.zlMuxConfig;
+        f = builder.f;
+    }
+
+    @Override
+    public FixedPointFactory.FixedPointType getPtoType() {
+        return FixedPointFactory.FixedPointType.PIECEWISE;
+    }
+
+    @Override
+    public int getF() {
+        return f;
+    }
+
+    public Zl64cConfig getZl64cConfig() {
+        return zl64cConfig;
+    }
+
+    public ZlTruncConfig getZlTruncConfig() {
+        return zlTruncConfig;
+    }
+
+    public ZlDreluConfig getZlDreluConfig() {
+        return zlDreluConfig;
+    }
+
+    public ZlMuxConfig getZlMuxConfig() {
+        return zlMuxConfig;
+    }
+
+    public static class Builder implements org.apache.commons.lang3.builder.Builder<PiecewiseFixedPointConfig> {
+        /**
+         * Zl64 circuit config.
+         */
+        private final Zl64cConfig zl64cConfig;
+        /**
+         * Zl truncation config.
+         */
+        private final ZlTruncConfig zlTruncConfig;
+        /**
+         * Zl DReLU config.
+         */
+        private final ZlDreluConfig zlDreluConfig;
+        /**
+         * Zl mux config.
+         */
+        private final ZlMuxConfig zlMuxConfig;
+        /**
+         * the number of fractional bits.
+         */
+        private int f;
+
+        public Builder(SecurityModel securityModel, boolean silent) {
+            zl64cConfig = Zl64cFactory.createDefaultConfig(securityModel, silent);
+            zlTruncConfig = ZlTruncFactory.createDefaultConfig(securityModel, silent);
+            zlDreluConfig = ZlDreluFactory.createDefaultConfig(securityModel, silent);
+            zlMuxConfig = ZlMuxFactory.createDefaultConfig(securityModel, silent);
+            f = 16;
+        }
+
+        public Builder setF(int f) {
+            MathPreconditions.checkPositive("f", f);
+            this.f = f;
+            return this;
+        }
+
+        @Override
+        public PiecewiseFixedPointConfig build() {
+            return new PiecewiseFixedPointConfig(this);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise;
+
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDescManager;
+
+/**
+ * Piecewise polynomial fixed-point arithmetic protocol description. Non-linear functions are approximated by
+ * piecewise polynomials, where the segment of each input is selected by comparisons with all breakpoints in one
+ * batched DReLU invocation, and the polynomial value is selected by one batched mux invocation.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public class PiecewiseFixedPointPtoDesc implements PtoDesc {
+    /**
+     * protocol ID
+     */
+    private static final int PTO_ID = Math.abs((int) 4718550267736904383L);
+    /**
+     * protocol name
+     */
+    private static final String PTO_NAME = "PIECEWISE_FIXED_POINT";
+
+    /**
+     * protocol step
+     */
+    enum PtoStep {
+        /**
+         * sender sends e0 = x0 - a0 and f0 = y0 - b0 for the matrix Beaver triple
+         */
+        SENDER_SEND_E0_F0,
+        /**
+         * receiver sends e1 = x1 - a1 and f1 = y1 - b1 for the matrix Beaver triple
+         */
+        RECEIVER_SEND_E1_F1,
+    }
+
+    /**
+     * singleton mode
+     */
+    private static final PiecewiseFixedPointPtoDesc INSTANCE = new PiecewiseFixedPointPtoDesc();
+
+    /**
+     * private constructor.
+     */
+    private PiecewiseFixedPointPtoDesc() {
+        // empty
+    }
+
+    public static PtoDesc getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        PtoDescManager.registerPtoDesc(getInstance());
+    }
+
+    @Override
+    public int getPtoId() {
+        return PTO_ID;
+    }
+
+    @Override
+    public String getPtoName() {
+        return PTO_NAME;
+    }
+}
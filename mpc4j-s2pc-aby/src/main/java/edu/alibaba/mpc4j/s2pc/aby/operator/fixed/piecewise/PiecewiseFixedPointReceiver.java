@@ -0,0 +1,26 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.Zl64cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.drelu.zl.ZlDreluFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.trunc.zl.ZlTruncFactory;
+
+/**
+ * Piecewise polynomial fixed-point arithmetic receiver.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public class PiecewiseFixedPointReceiver extends AbstractPiecewiseFixedPointParty {
+
+    public PiecewiseFixedPointReceiver(Z2cParty z2cReceiver, Party senderParty, PiecewiseFixedPointConfig config) {
+        super(z2cReceiver, senderParty, config, false,
+            Zl64cFactory.createReceiver(z2cReceiver.getRpc(), senderParty, config.getZl64cConfig()),
+            ZlTruncFactory.createReceiver(z2cReceiver, senderParty, config.getZlTruncConfig()),
+            ZlDreluFactory.createReceiver(z2cReceiver, senderParty, config.getZlDreluConfig()),
+            ZlMuxFactory.createReceiver(z2cReceiver.getRpc(), senderParty, config.getZlMuxConfig())
+        );
+    }
+}
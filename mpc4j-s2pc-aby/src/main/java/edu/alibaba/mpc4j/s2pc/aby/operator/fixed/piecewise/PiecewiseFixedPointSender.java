@@ -0,0 +1,26 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.Zl64cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.drelu.zl.ZlDreluFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.mux.zl.ZlMuxFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.trunc.zl.ZlTruncFactory;
+
+/**
+ * Piecewise polynomial fixed-point arithmetic sender.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+public class PiecewiseFixedPointSender extends AbstractPiecewiseFixedPointParty {
+
+    public PiecewiseFixedPointSender(Z2cParty z2cSender, Party receiverParty, PiecewiseFixedPointConfig config) {
+        super(z2cSender, receiverParty, config, true,
+            Zl64cFactory.createSender(z2cSender.getRpc(), receiverParty, config.getZl64cConfig()),
+            ZlTruncFactory.createSender(z2cSender, receiverParty, config.getZlTruncConfig()),
+            ZlDreluFactory.createSender(z2cSender, receiverParty, config.getZlDreluConfig()),
+            ZlMuxFactory.createSender(z2cSender.getRpc(), receiverParty, config.getZlMuxConfig())
+        );
+    }
+}
@@ -4,6 +4,9 @@ import edu.alibaba.mpc4j.common.rpc.Party;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
 import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
 import edu.alibaba.mpc4j.common.rpc.pto.PtoFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch.BatchPeqtConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch.BatchPeqtReceiver;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch.BatchPeqtSender;
 import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.cgs22.Cgs22PeqtConfig;
 import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.cgs22.Cgs22PeqtReceiver;
 import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.cgs22.Cgs22PeqtSender;
@@ -37,6 +40,10 @@ public class PeqtFactory implements PtoFactory {
          * CGS22
          */
         CGS22,
+        /**
+         * batched CGS22, evaluating groups with different bit lengths in one invocation.
+         */
+        BATCH,
     }
 
     /**
@@ -54,6 +61,8 @@ public class PeqtFactory implements PtoFactory {
                 return new NaivePeqtSender(senderRpc, receiverParty, (NaivePeqtConfig) config);
             case CGS22:
                 return new Cgs22PeqtSender(senderRpc, receiverParty, (Cgs22PeqtConfig) config);
+            case BATCH:
+                return new BatchPeqtSender(senderRpc, receiverParty, (BatchPeqtConfig) config);
             default:
                 throw new IllegalArgumentException("Invalid " + PeqtType.class.getSimpleName() + ": " + type.name());
         }
@@ -74,6 +83,8 @@ public class PeqtFactory implements PtoFactory {
                 return new NaivePeqtReceiver(receiverRpc, senderParty, (NaivePeqtConfig) config);
             case CGS22:
                 return new Cgs22PeqtReceiver(receiverRpc, senderParty, (Cgs22PeqtConfig) config);
+            case BATCH:
+                return new BatchPeqtReceiver(receiverRpc, senderParty, (BatchPeqtConfig) config);
             default:
                 throw new IllegalArgumentException("Invalid " + PeqtType.class.getSimpleName() + ": " + type.name());
         }
@@ -2,6 +2,7 @@ package edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt;
 
 import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
 import edu.alibaba.mpc4j.common.rpc.pto.TwoPartyPto;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
 
 /**
@@ -29,4 +30,23 @@ public interface PeqtParty extends TwoPartyPto {
      * @throws MpcAbortException the protocol failure aborts.
      */
     SquareZ2Vector peqt(int l, byte[][] inputs) throws MpcAbortException;
+
+    /**
+     * Executes the protocol on independent groups, where inputs in each group have their own bit length. The total
+     * number of inputs must be at most maxNum, and each bit length must be at most maxL. By default, groups are
+     * evaluated one by one.
+     *
+     * @param ls     input bit length of each group.
+     * @param inputs the party's inputs of each group.
+     * @return the party's output of each group.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    default SquareZ2Vector[] peqt(int[] ls, byte[][][] inputs) throws MpcAbortException {
+        MathPreconditions.checkEqual("ls.length", "inputs.length", ls.length, inputs.length);
+        SquareZ2Vector[] outputs = new SquareZ2Vector[ls.length];
+        for (int i = 0; i < ls.length; i++) {
+            outputs[i] = peqt(ls[i], inputs[i]);
+        }
+        return outputs;
+    }
 }
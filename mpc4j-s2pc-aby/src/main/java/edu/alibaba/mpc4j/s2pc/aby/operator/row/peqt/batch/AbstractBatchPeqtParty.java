@@ -0,0 +1,209 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch;
+
+import com.google.common.base.Preconditions;
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.AbstractPeqtParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.cgs22.Cgs22PeqtUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * abstract batched private equality test party.
+ *
+ * @author Li Peng
+ * @date 2024/6/26
+ */
+abstract class AbstractBatchPeqtParty extends AbstractPeqtParty {
+    /**
+     * Z2 circuit party
+     */
+    protected final Z2cParty z2cParty;
+    /**
+     * min bit length of split block
+     */
+    protected final int minM;
+    /**
+     * max bit length of split block, which is also the LNOT bit length
+     */
+    protected final int maxM;
+    /**
+     * cost of one round, measured in bits
+     */
+    private final long roundBitCost;
+    /**
+     * bit length of each group
+     */
+    protected int[] ls;
+    /**
+     * inputs of each group
+     */
+    protected byte[][][] groupInputs;
+    /**
+     * num of each group
+     */
+    protected int[] nums;
+    /**
+     * bit length of split block in this invocation
+     */
+    protected int m;
+    /**
+     * (group, block) of all blocks
+     */
+    protected int[][] blocks;
+    /**
+     * offset of each block in the LNOT invocation
+     */
+    protected int[] blockOffsets;
+    /**
+     * total number of LNOT
+     */
+    protected int lnotNum;
+
+    AbstractBatchPeqtParty(Rpc ownRpc, Party otherParty, BatchPeqtConfig config, Z2cParty z2cParty) {
+        super(BatchPeqtPtoDesc.getInstance(), ownRpc, otherParty, config);
+        this.z2cParty = z2cParty;
+        addSubPto(z2cParty);
+        minM = config.getMinM();
+        maxM = config.getMaxM();
+        MathPreconditions.checkPositiveInRangeClosed("maxM", maxM, Byte.SIZE);
+        MathPreconditions.checkPositiveInRangeClosed("minM", minM, maxM);
+        roundBitCost = config.getRoundBitCost();
+    }
+
+    /**
+     * Gets the max number of blocks of one input.
+     *
+     * @return the max number of blocks.
+     */
+    protected int getMaxQ() {
+        return CommonUtils.getUnitNum(maxL, minM);
+    }
+
+    @Override
+    public SquareZ2Vector peqt(int l, byte[][] inputs) throws MpcAbortException {
+        return peqt(new int[]{l}, new byte[][][]{inputs})[0];
+    }
+
+    protected void setPtoInput(int[] ls, byte[][][] inputs) {
+        checkInitialized();
+        MathPreconditions.checkEqual("ls.length", "inputs.length", ls.length, inputs.length);
+        MathPreconditions.checkPositive("group num", ls.length);
+        int groupNum = ls.length;
+        this.ls = Arrays.copyOf(ls, groupNum);
+        nums = new int[groupNum];
+        groupInputs = new byte[groupNum][][];
+        for (int group = 0; group < groupNum; group++) {
+            int l = ls[group];
+            MathPreconditions.checkPositiveInRangeClosed("l", l, maxL);
+            MathPreconditions.checkPositive("inputs.num", inputs[group].length);
+            int byteL = CommonUtils.getByteLength(l);
+            nums[group] = inputs[group].length;
+            groupInputs[group] = Arrays.stream(inputs[group])
+                .peek(input -> Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(input, byteL, l)))
+                .toArray(byte[][]::new);
+        }
+        MathPreconditions.checkPositiveInRangeClosed("total num", Arrays.stream(nums).sum(), maxNum);
+        // choose the tree arity based on the cost model
+        m = BatchPeqtCostModel.chooseM(ls, nums, minM, maxM, roundBitCost);
+        List<int[]> blockList = new ArrayList<>();
+        for (int group = 0; group < groupNum; group++) {
+            int q = CommonUtils.getUnitNum(ls[group], m);
+            for (int j = 0; j < q; j++) {
+                blockList.add(new int[]{group, j});
+            }
+        }
+        blocks = blockList.toArray(new int[0][]);
+        blockOffsets = new int[blocks.length + 1];
+        for (int block = 0; block < blocks.length; block++) {
+            blockOffsets[block + 1] = blockOffsets[block] + nums[blocks[block][0]];
+        }
+        lnotNum = blockOffsets[blocks.length];
+    }
+
+    /**
+     * Gets the bit length of the block.
+     *
+     * @param block block index.
+     * @return bit length of the block.
+     */
+    protected int getBlockBitLength(int block) {
+        return BatchPeqtCostModel.getBlockBitLength(ls[blocks[block][0]], m, blocks[block][1]);
+    }
+
+    /**
+     * Partitions inputs of all groups into blocks, in the order of the blocks.
+     *
+     * @return block values of all blocks.
+     */
+    protected int[] partition() {
+        int[] values = new int[lnotNum];
+        IntStream groupStream = IntStream.range(0, ls.length);
+        groupStream = parallel ? groupStream.parallel() : groupStream;
+        int[][][] groupBlocks = groupStream
+            .mapToObj(group -> Cgs22PeqtUtils.partitionInputArray(groupInputs[group], m, CommonUtils.getUnitNum(ls[group], m)))
+            .toArray(int[][][]::new);
+        for (int block = 0; block < blocks.length; block++) {
+            int[] blockValues = groupBlocks[blocks[block][0]][blocks[block][1]];
+            System.arraycopy(blockValues, 0, values, blockOffsets[block], blockValues.length);
+        }
+        return values;
+    }
+
+    /**
+     * Combines block equalities of each group by AND trees. Trees of all groups are evaluated level by level.
+     *
+     * @param eqs equality shares of all blocks.
+     * @return equality shares of each group.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    protected SquareZ2Vector[] combine(BitVector[] eqs) throws MpcAbortException {
+        int groupNum = ls.length;
+        List<List<SquareZ2Vector>> nodes = new ArrayList<>(groupNum);
+        for (int group = 0; group < groupNum; group++) {
+            nodes.add(new ArrayList<>());
+        }
+        for (int block = 0; block < blocks.length; block++) {
+            nodes.get(blocks[block][0]).add(SquareZ2Vector.create(eqs[block], false));
+        }
+        boolean hasPair = nodes.stream().anyMatch(list -> list.size() > 1);
+        while (hasPair) {
+            // P_i invokes F_AND with inputs <eq_{t-1,2j}>_i and <eq_{t-1,2j+1}>_i of all groups
+            List<SquareZ2Vector> xs = new ArrayList<>();
+            List<SquareZ2Vector> ys = new ArrayList<>();
+            for (List<SquareZ2Vector> list : nodes) {
+                for (int i = 0; i + 1 < list.size(); i += 2) {
+                    xs.add(list.get(i));
+                    ys.add(list.get(i + 1));
+                }
+            }
+            SquareZ2Vector[] zs = z2cParty.and(xs.toArray(new SquareZ2Vector[0]), ys.toArray(new SquareZ2Vector[0]));
+            int index = 0;
+            hasPair = false;
+            for (int group = 0; group < groupNum; group++) {
+                List<SquareZ2Vector> list = nodes.get(group);
+                List<SquareZ2Vector> next = new ArrayList<>((list.size() + 1) / 2);
+                for (int i = 0; i + 1 < list.size(); i += 2) {
+                    next.add(zs[index]);
+                    index++;
+                }
+                if (list.size() % 2 == 1) {
+                    next.add(list.get(list.size() - 1));
+                }
+                nodes.set(group, next);
+                hasPair = hasPair || next.size() > 1;
+            }
+        }
+        return nodes.stream().map(list -> list.get(0)).toArray(SquareZ2Vector[]::new);
+    }
+}
@@ -0,0 +1,139 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch;
+
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cConfig;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.PeqtConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.PeqtFactory;
+import edu.alibaba.mpc4j.s2pc.pcg.ot.lnot.LnotConfig;
+import edu.alibaba.mpc4j.s2pc.pcg.ot.lnot.LnotFactory;
+
+/**
+ * batched private equality test config.
+ *
+ * @author Li Peng
+ * @date 2024/6/26
+ */
+public class BatchPeqtConfig extends AbstractMultiPartyPtoConfig implements PeqtConfig {
+    /**
+     * Z2 circuit config
+     */
+    private final Z2cConfig z2cConfig;
+    /**
+     * LNOT config
+     */
+    private final LnotConfig lnotConfig;
+    /**
+     * min bit length of split block
+     */
+    private final int minM;
+    /**
+     * max bit length of split block, which is also the LNOT bit length
+     */
+    private final int maxM;
+    /**
+     * cost of one round, measured in bits
+     */
+    private final long roundBitCost;
+
+    private BatchPeqtConfig(Builder builder) {
+        super(SecurityModel.SEMI_HONEST, builder.z2cConfig, builder.lnotConfig);
+        z2cConfig = builder.z2cConfig;
+        lnotConfig = builder.lnotConfig;
+        minM = builder.minM;
+        maxM = builder.maxM;
+        roundBitCost = builder.roundBitCost;
+    }
+
+    public Z2cConfig getZ2cConfig() {
+        return z2cConfig;
+    }
+
+    public LnotConfig getLnotConfig() {
+        return lnotConfig;
+    }
+
+    public int getMinM() {
+        return minM;
+    }
+
+    public int getMaxM() {
+        return maxM;
+    }
+
+    public long getRoundBitCost() {
+        return roundBitCost;
+    }
+
+    @Override
+    public PeqtFactory.PeqtType getPtoType() {
+        return PeqtFactory.PeqtType.BATCH;
+    }
+
+    public static class Builder implements org.apache.commons.lang3.builder.Builder<BatchPeqtConfig> {
+        /**
+         * Z2 circuit config
+         */
+        private final Z2cConfig z2cConfig;
+        /**
+         * LNOT config
+         */
+        private final LnotConfig lnotConfig;
+        /**
+         * min bit length of split block
+         */
+        private int minM;
+        /**
+         * max bit length of split block
+         */
+        private int maxM;
+        /**
+         * cost of one round, measured in bits
+         */
+        private long roundBitCost;
+
+        public Builder(SecurityModel securityModel, boolean silent) {
+            z2cConfig = Z2cFactory.createDefaultConfig(securityModel, silent);
+            lnotConfig = LnotFactory.createDefaultConfig(securityModel, silent);
+            // radix-4, radix-8 and radix-16 trees
+            minM = 2;
+            maxM = 4;
+            // 100 Mbps with 10ms round-trip time
+            roundBitCost = 1L << 20;
+        }
+
+        /**
+         * Sets the range of block bit length. The block bit length is chosen in [minM, maxM] in each invocation.
+         *
+         * @param minM min bit length of split block.
+         * @param maxM max bit length of split block.
+         * @return the builder.
+         */
+        public Builder setM(int minM, int maxM) {
+            MathPreconditions.checkPositiveInRangeClosed("maxM", maxM, Byte.SIZE);
+            MathPreconditions.checkPositiveInRangeClosed("minM", minM, maxM);
+            this.minM = minM;
+            this.maxM = maxM;
+            return this;
+        }
+
+        /**
+         * Sets the cost of one round, measured in bits, i.e., the bandwidth-delay product of the network.
+         *
+         * @param roundBitCost cost of one round.
+         * @return the builder.
+         */
+        public Builder setRoundBitCost(long roundBitCost) {
+            MathPreconditions.checkNonNegative("roundBitCost", roundBitCost);
+            this.roundBitCost = roundBitCost;
+            return this;
+        }
+
+        @Override
+        public BatchPeqtConfig build() {
+            return new BatchPeqtConfig(this);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch;
+
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+
+/**
+ * Cost model of the batched private equality test, used to choose the block bit length m (i.e., the tree arity 2^m)
+ * in each invocation. Both parties choose the same m since the model only depends on public bit lengths and nums.
+ * <p>
+ * A larger m means fewer blocks and a lower AND tree, but exponentially more equality payloads per block. The cost is
+ * the communication in bits plus the number of rounds multiplied by the cost of one round.
+ * </p>
+ *
+ * @author Li Peng
+ * @date 2024/6/26
+ */
+public class BatchPeqtCostModel {
+    /**
+     * private constructor.
+     */
+    private BatchPeqtCostModel() {
+        // empty
+    }
+
+    /**
+     * communication bits of one AND gate (opening two bits by both parties with Beaver triples)
+     */
+    private static final int AND_BIT_COST = 4;
+    /**
+     * rounds for the LNOT and the equality payloads
+     */
+    private static final int LNOT_ROUND = 2;
+
+    /**
+     * Chooses the block bit length.
+     *
+     * @param ls           bit length of each group.
+     * @param nums         num of each group.
+     * @param minM         min bit length of split block.
+     * @param maxM         max bit length of split block, which is also the LNOT bit length.
+     * @param roundBitCost cost of one round, measured in bits.
+     * @return the block bit length.
+     */
+    public static int chooseM(int[] ls, int[] nums, int minM, int maxM, long roundBitCost) {
+        MathPreconditions.checkPositiveInRangeClosed("minM", minM, maxM);
+        int bestM = maxM;
+        double bestCost = cost(ls, nums, maxM, maxM, roundBitCost);
+        // prefer a larger m on ties, since it has fewer rounds
+        for (int m = maxM - 1; m >= minM; m--) {
+            double cost = cost(ls, nums, m, maxM, roundBitCost);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestM = m;
+            }
+        }
+        return bestM;
+    }
+
+    /**
+     * Computes the cost.
+     *
+     * @param ls           bit length of each group.
+     * @param nums         num of each group.
+     * @param m            bit length of split block.
+     * @param maxM         max bit length of split block, which is also the LNOT bit length.
+     * @param roundBitCost cost of one round, measured in bits.
+     * @return the cost.
+     */
+    public static double cost(int[] ls, int[] nums, int m, int maxM, long roundBitCost) {
+        double bitCost = 0;
+        int maxLevel = 0;
+        for (int group = 0; group < ls.length; group++) {
+            int q = CommonUtils.getUnitNum(ls[group], m);
+            long blockBitCost = 0;
+            for (int j = 0; j < q; j++) {
+                // LNOT choice correction and equality payloads
+                blockBitCost += maxM + (1L << getBlockBitLength(ls[group], m, j));
+            }
+            bitCost += (double) nums[group] * (blockBitCost + (long) (q - 1) * AND_BIT_COST);
+            maxLevel = Math.max(maxLevel, LongUtils.ceilLog2(q));
+        }
+        return bitCost + (double) (LNOT_ROUND + maxLevel) * roundBitCost;
+    }
+
+    /**
+     * Gets the bit length of the j-th block, the last block may have fewer than m bits.
+     *
+     * @param l bit length.
+     * @param m bit length of split block.
+     * @param j block index.
+     * @return bit length of the block.
+     */
+    static int getBlockBitLength(int l, int m, int j) {
+        return Math.min(m, l - j * m);
+    }
+}
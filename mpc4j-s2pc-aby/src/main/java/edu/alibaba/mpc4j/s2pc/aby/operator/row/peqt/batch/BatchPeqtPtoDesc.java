@@ -0,0 +1,70 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch;
+
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDescManager;
+
+/**
+ * batched private equality test protocol description. The protocol extends the CGS22 private equality test described
+ * in Fig. 6 of the following paper:
+ * <p>
+ * Chandran, Nishanth, Divya Gupta, and Akash Shah. Circuit-PSI With Linear Complexity via Relaxed Batch OPPRF.
+ * PETS 2022, pp. 353-372.
+ * </p>
+ * Blocks of all groups are evaluated with one LNOT invocation and one equality payload, and the AND trees of all groups
+ * are evaluated level by level, so that the number of rounds does not depend on the number of groups. The LNOT has
+ * max block bit length, and blocks with fewer bits only use the first choices, so that one LNOT session is shared by
+ * all block bit lengths.
+ *
+ * @author Li Peng
+ * @date 2024/6/26
+ */
+class BatchPeqtPtoDesc implements PtoDesc {
+    /**
+     * protocol ID
+     */
+    private static final int PTO_ID = Math.abs((int) 3355402974413829731L);
+    /**
+     * protocol name
+     */
+    private static final String PTO_NAME = "BATCH_PEQT";
+
+    /**
+     * protocol step
+     */
+    enum PtoStep {
+        /**
+         * the sender sends equality payloads
+         */
+        SENDER_SEND_EVS,
+    }
+
+    /**
+     * singleton mode
+     */
+    private static final BatchPeqtPtoDesc INSTANCE = new BatchPeqtPtoDesc();
+
+    /**
+     * private constructor.
+     */
+    private BatchPeqtPtoDesc() {
+        // empty
+    }
+
+    public static PtoDesc getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        PtoDescManager.registerPtoDesc(getInstance());
+    }
+
+    @Override
+    public int getPtoId() {
+        return PTO_ID;
+    }
+
+    @Override
+    public String getPtoName() {
+        return PTO_NAME;
+    }
+}
@@ -0,0 +1,118 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.MpcAbortPreconditions;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.PtoState;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVectorFactory;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch.BatchPeqtPtoDesc.PtoStep;
+import edu.alibaba.mpc4j.s2pc.pcg.ot.lnot.LnotFactory;
+import edu.alibaba.mpc4j.s2pc.pcg.ot.lnot.LnotReceiver;
+import edu.alibaba.mpc4j.s2pc.pcg.ot.lnot.LnotReceiverOutput;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * batched private equality test receiver.
+ *
+ * @author Li Peng
+ * @date 2024/6/26
+ */
+public class BatchPeqtReceiver extends AbstractBatchPeqtParty {
+    /**
+     * LNOT receiver
+     */
+    private final LnotReceiver lnotReceiver;
+
+    public BatchPeqtReceiver(Rpc receiverRpc, Party senderParty, BatchPeqtConfig config) {
+        super(receiverRpc, senderParty, config, Z2cFactory.createReceiver(receiverRpc, senderParty, config.getZ2cConfig()));
+        lnotReceiver = LnotFactory.createReceiver(receiverRpc, senderParty, config.getLnotConfig());
+        addSubPto(lnotReceiver);
+    }
+
+    @Override
+    public void init(int maxL, int maxNum) throws MpcAbortException {
+        setInitInput(maxL, maxNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        int maxQ = getMaxQ();
+        z2cParty.init(maxNum * maxQ);
+        // one LNOT session with the max block bit length is shared by all invocations
+        lnotReceiver.init(maxM, maxNum * maxQ);
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 1, initTime);
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    @Override
+    public SquareZ2Vector[] peqt(int[] ls, byte[][][] ys) throws MpcAbortException {
+        setPtoInput(ls, ys);
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        int[] values = partition();
+        int[] payloadOffsets = new int[blocks.length + 1];
+        for (int block = 0; block < blocks.length; block++) {
+            payloadOffsets[block + 1] = payloadOffsets[block] + (1 << getBlockBitLength(block));
+        }
+        stopWatch.stop();
+        long prepareTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 3, prepareTime, "m = " + m + ", blocks = " + blocks.length);
+
+        stopWatch.start();
+        // P0 & P1 invoke 1-out-of-2^maxM OT for all blocks with P1 as receiver.
+        LnotReceiverOutput lnotReceiverOutput = lnotReceiver.receive(values);
+        DataPacketHeader evsHeader = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SENDER_SEND_EVS.ordinal(), extraInfo,
+            otherParty().getPartyId(), ownParty().getPartyId()
+        );
+        // for v ∈ [2^w], P1 receives e_{j,v} for all blocks
+        List<byte[]> evsPayload = rpc.receive(evsHeader).getPayload();
+        extraInfo++;
+        MpcAbortPreconditions.checkArgument(evsPayload.size() == payloadOffsets[blocks.length]);
+        IntStream blockStream = IntStream.range(0, blocks.length);
+        blockStream = parallel ? blockStream.parallel() : blockStream;
+        BitVector[] eqs = blockStream
+            .mapToObj(block -> {
+                int num = nums[blocks[block][0]];
+                int offset = blockOffsets[block];
+                BitVector[] evs = IntStream.range(payloadOffsets[block], payloadOffsets[block + 1])
+                    .mapToObj(i -> BitVectorFactory.create(num, evsPayload.get(i)))
+                    .toArray(BitVector[]::new);
+                BitVector eq = BitVectorFactory.createZeros(num);
+                for (int index = 0; index < num; index++) {
+                    int v = lnotReceiverOutput.getChoice(offset + index);
+                    byte[] rv = lnotReceiverOutput.getRb(offset + index);
+                    eq.set(index, evs[v].get(index) ^ ((rv[0] % 2) != 0));
+                }
+                return eq;
+            })
+            .toArray(BitVector[]::new);
+        stopWatch.stop();
+        long lnotTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 3, lnotTime);
+
+        stopWatch.start();
+        SquareZ2Vector[] z1s = combine(eqs);
+        stopWatch.stop();
+        long bitwiseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 3, 3, bitwiseTime);
+
+        logPhaseInfo(PtoState.PTO_END);
+        return z1s;
+    }
+}
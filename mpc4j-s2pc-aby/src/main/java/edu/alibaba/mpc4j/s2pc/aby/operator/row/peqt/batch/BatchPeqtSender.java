@@ -0,0 +1,119 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.PtoState;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVectorFactory;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch.BatchPeqtPtoDesc.PtoStep;
+import edu.alibaba.mpc4j.s2pc.pcg.ot.lnot.LnotFactory;
+import edu.alibaba.mpc4j.s2pc.pcg.ot.lnot.LnotSender;
+import edu.alibaba.mpc4j.s2pc.pcg.ot.lnot.LnotSenderOutput;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * batched private equality test sender.
+ *
+ * @author Li Peng
+ * @date 2024/6/26
+ */
+public class BatchPeqtSender extends AbstractBatchPeqtParty {
+    /**
+     * LNOT sender
+     */
+    private final LnotSender lnotSender;
+
+    public BatchPeqtSender(Rpc senderRpc, Party receiverParty, BatchPeqtConfig config) {
+        super(senderRpc, receiverParty, config, Z2cFactory.createSender(senderRpc, receiverParty, config.getZ2cConfig()));
+        lnotSender = LnotFactory.createSender(senderRpc, receiverParty, config.getLnotConfig());
+        addSubPto(lnotSender);
+    }
+
+    @Override
+    public void init(int maxL, int maxNum) throws MpcAbortException {
+        setInitInput(maxL, maxNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        int maxQ = getMaxQ();
+        z2cParty.init(maxNum * maxQ);
+        // one LNOT session with the max block bit length is shared by all invocations
+        lnotSender.init(maxM, maxNum * maxQ);
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 1, initTime);
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    @Override
+    public SquareZ2Vector[] peqt(int[] ls, byte[][][] xs) throws MpcAbortException {
+        setPtoInput(ls, xs);
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        int[] values = partition();
+        stopWatch.stop();
+        long prepareTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 3, prepareTime, "m = " + m + ", blocks = " + blocks.length);
+
+        stopWatch.start();
+        // P0 samples eq_{0,j} for all blocks of all groups
+        BitVector[] eqs = IntStream.range(0, blocks.length)
+            .mapToObj(block -> BitVectorFactory.createRandom(nums[blocks[block][0]], secureRandom))
+            .toArray(BitVector[]::new);
+        // P0 & P1 invoke 1-out-of-2^maxM OT for all blocks with P0 as sender.
+        LnotSenderOutput lnotSenderOutput = lnotSender.send(lnotNum);
+        // for v ∈ [2^w], P0 sets e_{j,v} ← <eq_{0,j}>_0 ⊕ 1{x_j = v}, where w is the bit length of the block
+        IntStream blockStream = IntStream.range(0, blocks.length);
+        blockStream = parallel ? blockStream.parallel() : blockStream;
+        List<byte[]> evsPayload = blockStream
+            .mapToObj(block -> {
+                int num = nums[blocks[block][0]];
+                int offset = blockOffsets[block];
+                return IntStream.range(0, 1 << getBlockBitLength(block))
+                    .mapToObj(v -> {
+                        BitVector ev = BitVectorFactory.createZeros(num);
+                        for (int index = 0; index < num; index++) {
+                            byte[] ri = lnotSenderOutput.getRb(offset + index, v);
+                            ev.set(index, ((ri[0] % 2) != 0) ^ (v == values[offset + index]));
+                        }
+                        ev.xori(eqs[block]);
+                        return ev.getBytes();
+                    });
+            })
+            .flatMap(stream -> stream)
+            .collect(Collectors.toList());
+        DataPacketHeader evsHeader = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SENDER_SEND_EVS.ordinal(), extraInfo,
+            ownParty().getPartyId(), otherParty().getPartyId()
+        );
+        extraInfo++;
+        rpc.send(DataPacket.fromByteArrayList(evsHeader, evsPayload));
+        stopWatch.stop();
+        long lnotTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 3, lnotTime);
+
+        stopWatch.start();
+        SquareZ2Vector[] z0s = combine(eqs);
+        stopWatch.stop();
+        long bitwiseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 3, 3, bitwiseTime);
+
+        logPhaseInfo(PtoState.PTO_END);
+        return z0s;
+    }
+}
@@ -0,0 +1,235 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.shard;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.pto.TwoPartyPto;
+import edu.alibaba.mpc4j.common.structure.vector.Vector;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Shard executor. A large operator invocation is split into K shards, each evaluated by an independent party instance
+ * on its own thread. All shard parties share the same Rpc, and are separated by distinct task IDs, so that shards run
+ * concurrently and their messages never mix.
+ * <p>
+ * Both parties must create the executor with the same number of shards and the same base task ID, and the shard
+ * parties must not share sub-protocols. Inputs are split into contiguous ranges whose sizes differ by at most one,
+ * and each shard party is initialized with the max shard size, so that preprocessing is also balanced among shards.
+ * Outputs are returned in shard order, i.e., merging them keeps the original input order.
+ * </p>
+ * <p>
+ * Each shard is executed on a dedicated thread instead of a shared pool. The shard i of one party blocks until the
+ * shard i of the other party responds, so that executing shards in different orders on a smaller pool may deadlock.
+ * </p>
+ *
+ * @author Li Peng
+ * @date 2024/6/28
+ */
+public class ShardExecutor<T extends TwoPartyPto> {
+    /**
+     * shard parties
+     */
+    private final List<T> parties;
+    /**
+     * thread pool, one thread per shard
+     */
+    private final ExecutorService executorService;
+    /**
+     * max num
+     */
+    private int maxNum;
+
+    /**
+     * Creates a shard executor.
+     *
+     * @param parties    shard parties.
+     * @param baseTaskId base task ID, the task ID of the i-th shard party is set to baseTaskId + i.
+     */
+    public ShardExecutor(List<T> parties, int baseTaskId) {
+        MathPreconditions.checkPositive("shardNum", parties.size());
+        MathPreconditions.checkNonNegative("baseTaskId", baseTaskId);
+        MathPreconditions.checkNonNegative("maxTaskId", baseTaskId + parties.size() - 1);
+        // all shard parties must be distinct instances on the same rpc
+        long distinctNum = parties.stream().distinct().count();
+        MathPreconditions.checkEqual("distinct shard party num", "shardNum", distinctNum, parties.size());
+        for (T party : parties) {
+            if (party.getRpc() != parties.get(0).getRpc()) {
+                throw new IllegalArgumentException("All shard parties must use the same Rpc");
+            }
+        }
+        this.parties = parties;
+        for (int shardIndex = 0; shardIndex < parties.size(); shardIndex++) {
+            parties.get(shardIndex).setTaskId(baseTaskId + shardIndex);
+        }
+        executorService = Executors.newFixedThreadPool(parties.size());
+        maxNum = 0;
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return the number of shards.
+     */
+    public int getShardNum() {
+        return parties.size();
+    }
+
+    /**
+     * Gets the shard party.
+     *
+     * @param shardIndex shard index.
+     * @return the shard party.
+     */
+    public T getParty(int shardIndex) {
+        return parties.get(shardIndex);
+    }
+
+    /**
+     * Sets parallel computing for all shard parties.
+     *
+     * @param parallel parallel computing.
+     */
+    public void setParallel(boolean parallel) {
+        parties.forEach(party -> party.setParallel(parallel));
+    }
+
+    /**
+     * Inits all shard parties concurrently. Each shard party is initialized to support ceil(maxNum / K) inputs.
+     *
+     * @param maxNum   max num of the whole invocation.
+     * @param initTask init task.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public void init(int maxNum, ShardInitTask<T> initTask) throws MpcAbortException {
+        MathPreconditions.checkPositive("maxNum", maxNum);
+        this.maxNum = maxNum;
+        int shardMaxNum = CommonUtils.getUnitNum(maxNum, parties.size());
+        List<Future<Void>> futures = new ArrayList<>(parties.size());
+        for (T party : parties) {
+            futures.add(executorService.submit(() -> {
+                initTask.apply(party, shardMaxNum);
+                return null;
+            }));
+        }
+        join(futures);
+    }
+
+    /**
+     * Executes the task on all shards concurrently. Inputs are split into min(num, K) contiguous ranges.
+     *
+     * @param num  num of the whole invocation.
+     * @param task shard task.
+     * @return outputs of shards, in shard order.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public <R> List<R> execute(int num, ShardTask<T, R> task) throws MpcAbortException {
+        MathPreconditions.checkPositiveInRangeClosed("num", num, maxNum);
+        int[] offsets = getShardOffsets(num, parties.size());
+        List<Future<R>> futures = new ArrayList<>(offsets.length - 1);
+        for (int shardIndex = 0; shardIndex < offsets.length - 1; shardIndex++) {
+            T party = parties.get(shardIndex);
+            int from = offsets[shardIndex];
+            int to = offsets[shardIndex + 1];
+            futures.add(executorService.submit(() -> task.apply(party, from, to)));
+        }
+        return join(futures);
+    }
+
+    private <R> List<R> join(List<Future<R>> futures) throws MpcAbortException {
+        List<R> outputs = new ArrayList<>(futures.size());
+        // wait for all shards even if some shard fails, so that no shard is left running on the rpc
+        Throwable failure = null;
+        for (Future<R> future : futures) {
+            try {
+                outputs.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MpcAbortException("Interrupted while waiting for shards", e);
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        if (failure instanceof MpcAbortException) {
+            throw (MpcAbortException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+        return outputs;
+    }
+
+    /**
+     * Destroys all shard parties and releases shard threads.
+     */
+    public void destroy() {
+        parties.forEach(TwoPartyPto::destroy);
+        executorService.shutdown();
+    }
+
+    /**
+     * Gets offsets of shards, with num at the end. The input is split into min(num, shardNum) contiguous ranges whose
+     * sizes differ by at most one.
+     *
+     * @param num      num.
+     * @param shardNum the number of shards.
+     * @return offsets of shards.
+     */
+    public static int[] getShardOffsets(int num, int shardNum) {
+        MathPreconditions.checkPositive("num", num);
+        MathPreconditions.checkPositive("shardNum", shardNum);
+        int activeShardNum = Math.min(num, shardNum);
+        int baseSize = num / activeShardNum;
+        int remainder = num % activeShardNum;
+        int[] offsets = new int[activeShardNum + 1];
+        for (int shardIndex = 0; shardIndex < activeShardNum; shardIndex++) {
+            offsets[shardIndex + 1] = offsets[shardIndex] + baseSize + (shardIndex < remainder ? 1 : 0);
+        }
+        return offsets;
+    }
+
+    /**
+     * Merges shard output vectors in order.
+     *
+     * @param vectors shard output vectors.
+     * @return the merged vector.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V extends Vector> V merge(List<V> vectors) {
+        MathPreconditions.checkPositive("vectors.size()", vectors.size());
+        V merged = (V) vectors.get(0).copy();
+        for (int shardIndex = 1; shardIndex < vectors.size(); shardIndex++) {
+            merged.merge(vectors.get(shardIndex));
+        }
+        return merged;
+    }
+
+    /**
+     * Merges shard output rows in order.
+     *
+     * @param rows shard output rows.
+     * @return the merged rows.
+     */
+    public static byte[][] mergeRows(List<byte[][]> rows) {
+        return rows.stream().flatMap(Arrays::stream).toArray(byte[][]::new);
+    }
+
+    /**
+     * Gets the rows of the shard.
+     *
+     * @param rows all rows.
+     * @param from the start index (inclusive).
+     * @param to   the end index (exclusive).
+     * @return the rows of the shard.
+     */
+    public static byte[][] splitRows(byte[][] rows, int from, int to) {
+        return Arrays.copyOfRange(rows, from, to);
+    }
+}
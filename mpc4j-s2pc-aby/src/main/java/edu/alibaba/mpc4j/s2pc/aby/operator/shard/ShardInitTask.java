@@ -0,0 +1,22 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.shard;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.pto.TwoPartyPto;
+
+/**
+ * Shard init task.
+ *
+ * @author Li Peng
+ * @date 2024/6/28
+ */
+@FunctionalInterface
+public interface ShardInitTask<T extends TwoPartyPto> {
+    /**
+     * Inits the shard party.
+     *
+     * @param party       the shard party.
+     * @param shardMaxNum max num that the shard party needs to support.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    void apply(T party, int shardMaxNum) throws MpcAbortException;
+}
@@ -0,0 +1,24 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.shard;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.pto.TwoPartyPto;
+
+/**
+ * Shard task, i.e., the part of an operator invocation that is evaluated by one shard.
+ *
+ * @author Li Peng
+ * @date 2024/6/28
+ */
+@FunctionalInterface
+public interface ShardTask<T extends TwoPartyPto, R> {
+    /**
+     * Evaluates inputs in range [from, to) using the shard party.
+     *
+     * @param party the shard party.
+     * @param from  the start index (inclusive).
+     * @param to    the end index (exclusive).
+     * @return the shard output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    R apply(T party, int from, int to) throws MpcAbortException;
+}
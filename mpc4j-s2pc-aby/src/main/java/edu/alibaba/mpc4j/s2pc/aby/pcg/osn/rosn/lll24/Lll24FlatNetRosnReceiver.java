@@ -7,17 +7,12 @@ import edu.alibaba.mpc4j.common.tool.crypto.crhf.CrhfFactory;
 import edu.alibaba.mpc4j.common.tool.crypto.crhf.CrhfFactory.CrhfType;
 import edu.alibaba.mpc4j.common.tool.crypto.prg.Prg;
 import edu.alibaba.mpc4j.common.tool.crypto.prg.PrgFactory;
-import edu.alibaba.mpc4j.common.tool.network.waksman.WaksmanNetwork;
-import edu.alibaba.mpc4j.common.tool.network.waksman.WaksmanNetworkFactory;
-import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.network.waksman.WaksmanLayerProgrammer;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.s2pc.aby.pcg.osn.rosn.AbstractNetRosnReceiver;
 import edu.alibaba.mpc4j.s2pc.aby.pcg.osn.rosn.RosnReceiverOutput;
 import edu.alibaba.mpc4j.s2pc.aby.pcg.osn.rosn.lll24.Lll24FlatNetRosnPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.pcg.ot.cot.CotReceiverOutput;
-import org.apache.commons.lang3.time.StopWatch;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -32,11 +27,10 @@ import java.util.stream.IntStream;
  * @date 2024/7/29
  */
 public class Lll24FlatNetRosnReceiver extends AbstractNetRosnReceiver {
-    private static final Logger LOGGER = LoggerFactory.getLogger(Lll24FlatNetRosnReceiver.class);
     /**
-     * Waksman network
+     * Waksman layer programmer
      */
-    protected WaksmanNetwork<byte[]> waksmanNetwork;
+    private WaksmanLayerProgrammer programmer;
     /**
      * level
      */
@@ -53,14 +47,6 @@ public class Lll24FlatNetRosnReceiver extends AbstractNetRosnReceiver {
      * switch wire masks in one specific layer
      */
     private byte[][] switchWireMask;
-    /**
-     * the index of switch, if the wire is directly linked, then the value is -1
-     */
-    private int[][] map2SwitchIndex;
-    /**
-     * the input index of each wire
-     */
-    private int[][] map2InputIndex;
     /**
      * Crhf
      */
@@ -96,22 +82,10 @@ public class Lll24FlatNetRosnReceiver extends AbstractNetRosnReceiver {
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
-        waksmanNetwork = WaksmanNetworkFactory.createInstance(envType, pi);
-        level = waksmanNetwork.getLevel();
-        maxWidth = waksmanNetwork.getMaxWidth();
-        CotReceiverOutput[] cotReceiverOutputs = new CotReceiverOutput[level];
-        for (int levelIndex = 0; levelIndex < level; levelIndex++) {
-            boolean[] choices = generateChoices(levelIndex);
-            cotReceiverOutputs[levelIndex] = cotReceiver.receive(choices);
-        }
-        map2SwitchIndex = waksmanNetwork.getLayerSwitchIndexes();
-        map2InputIndex = waksmanNetwork.getFixedLayerPermutations();
-        stopWatch.stop();
-        long cotTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-        stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 1, 2, cotTime, "Receiver runs COTs");
-
-        stopWatch.start();
+        // we route and program the network layer by layer instead of keeping all layers.
+        programmer = new WaksmanLayerProgrammer(pi, parallel);
+        level = programmer.getLevel();
+        maxWidth = programmer.getMaxWidth();
         if (byteLength <= CommonConstants.BLOCK_BYTE_LENGTH) {
             // we only need to use more efficient CRHF instead of PRG
             crhf = CrhfFactory.createInstance(envType, CrhfType.MMO);
@@ -120,46 +94,45 @@ public class Lll24FlatNetRosnReceiver extends AbstractNetRosnReceiver {
             prg = PrgFactory.createInstance(envType, byteLength);
         }
         receiverShareVector = new byte[num][byteLength];
+        stopWatch.stop();
+        long networkTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, networkTime, "Receiver generates the network");
 
+        long switchTime = 0L;
         for (int levelIndex = 0; levelIndex < level; levelIndex++) {
-            LOGGER.info("switching level: {}", levelIndex);
-            if(level >= 39 && levelIndex % 4 == 0){
+            stopWatch.start();
+            programmer.nextLevel();
+            // run COTs only for the current level, so that COTs for all levels are never kept at the same time
+            boolean[] choices = generateChoices();
+            CotReceiverOutput cotReceiverOutput = cotReceiver.receive(choices);
+            if (level >= 39 && levelIndex % 4 == 0) {
                 sendOtherPartyEqualSizePayload(PtoStep.SYNCHRONIZE_MSG.ordinal(), Collections.singletonList(new byte[]{0}));
             }
-
-            StopWatch stopWatch2 = new StopWatch();
-            stopWatch2.start();
-            List<byte[]> switchCorrectionPayload = receiveOtherPartyEqualSizePayload(PtoStep.SENDER_SEND_SWITCH_CORRECTIONS.ordinal(),
-                waksmanNetwork.getWidth(levelIndex), byteLength);
-
-            stopWatch2.stop();
-            long receiveTime = stopWatch2.getTime(TimeUnit.MILLISECONDS);
-            stopWatch2.reset();
-            stopWatch2.start();
-            handleCotReceiverOutputs(cotReceiverOutputs[levelIndex], levelIndex);
-            cotReceiverOutputs[levelIndex] = null;
-            handleSwitchCorrectionPayload(switchCorrectionPayload, levelIndex);
-            stopWatch2.stop();
-            long processTime = stopWatch2.getTime(TimeUnit.MILLISECONDS);
-            stopWatch2.reset();
-            LOGGER.info("receive time:{}, process time:{}, total time:{}", receiveTime, processTime, receiveTime + processTime);
+            List<byte[]> switchCorrectionPayload = receiveOtherPartyEqualSizePayload(
+                PtoStep.SENDER_SEND_SWITCH_CORRECTIONS.ordinal(), programmer.getWidth(), byteLength
+            );
+            handleCotReceiverOutputs(cotReceiverOutput);
+            handleSwitchCorrectionPayload(switchCorrectionPayload);
+            stopWatch.stop();
+            long levelTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            switchTime += levelTime;
+            logSubStepInfo(PtoState.PTO_STEP, 2, levelIndex + 1, level, levelTime);
         }
         RosnReceiverOutput receiverOutput = RosnReceiverOutput.create(pi, receiverShareVector);
         switchWireMask = null;
         receiverShareVector = null;
-        waksmanNetwork = null;
-        stopWatch.stop();
-        long inputCorrectionTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-        stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 2, 2, inputCorrectionTime, "Receiver computes input correlation");
+        programmer = null;
+        logStepInfo(PtoState.PTO_STEP, 2, 2, switchTime, "Receiver runs COTs and computes input correlation");
 
         logPhaseInfo(PtoState.PTO_END);
         return receiverOutput;
     }
 
-    private boolean[] generateChoices(int levelIndex) {
-        int width = waksmanNetwork.getWidth(levelIndex);
-        byte[] gates = waksmanNetwork.getGates(levelIndex);
+    private boolean[] generateChoices() {
+        int width = programmer.getWidth();
+        byte[] gates = programmer.getGates();
         boolean[] binaryGates = new boolean[width];
         int index = 0;
         for (int widthIndex = 0; widthIndex < maxWidth; widthIndex++) {
@@ -172,62 +145,54 @@ public class Lll24FlatNetRosnReceiver extends AbstractNetRosnReceiver {
         return binaryGates;
     }
 
-    private void handleCotReceiverOutputs(CotReceiverOutput cotReceiverOutputs, int levelIndex) {
-        switchWireMask = new byte[maxWidth][];
-        // padding to max width
-        boolean[] paddingChoices = new boolean[maxWidth];
-        byte[][] paddingRbArray = new byte[maxWidth][];
+    private void handleCotReceiverOutputs(CotReceiverOutput cotReceiverOutput) {
+        byte[] gates = programmer.getGates();
+        // locate the COT index of each non-empty switch
+        int[] cotIndexes = new int[maxWidth];
         int index = 0;
         for (int widthIndex = 0; widthIndex < maxWidth; widthIndex++) {
-            byte[] gates = waksmanNetwork.getGates(levelIndex);
-            if (gates[widthIndex] != 2) {
-                paddingRbArray[widthIndex] = cotReceiverOutputs.getRb(index);
-                paddingChoices[widthIndex] = cotReceiverOutputs.getChoice(index);
-                index++;
-            } else {
-                paddingRbArray[widthIndex] = BlockUtils.zeroBlock();
-                paddingChoices[widthIndex] = false;
-            }
+            cotIndexes[widthIndex] = gates[widthIndex] == 2 ? -1 : index++;
         }
-        assert index == cotReceiverOutputs.getNum();
-        CotReceiverOutput paddingCotReceiverOutputs = CotReceiverOutput.create(paddingChoices, paddingRbArray);
+        assert index == cotReceiverOutput.getNum();
+        switchWireMask = new byte[maxWidth][];
         // level = O(log(n)) but width = O(n), batch in width
         IntStream widthIndexIntStream = parallel ? IntStream.range(0, maxWidth).parallel() : IntStream.range(0, maxWidth);
         if (byteLength <= CommonConstants.BLOCK_BYTE_LENGTH) {
             widthIndexIntStream.forEach(widthIndex -> {
-                if (waksmanNetwork.getGates(levelIndex)[widthIndex] != 2) {
-                    byte[] tmpSwitchWireMask = paddingCotReceiverOutputs.getRb(widthIndex);
+                if (cotIndexes[widthIndex] >= 0) {
+                    byte[] tmpSwitchWireMask = cotReceiverOutput.getRb(cotIndexes[widthIndex]);
                     switchWireMask[widthIndex] = Arrays.copyOf(crhf.hash(tmpSwitchWireMask), byteLength);
                 }
             });
         } else {
             widthIndexIntStream.forEach(widthIndex -> {
-                if (waksmanNetwork.getGates(levelIndex)[widthIndex] != 2) {
-                    byte[] tmpSwitchWireMask = paddingCotReceiverOutputs.getRb(widthIndex);
+                if (cotIndexes[widthIndex] >= 0) {
+                    byte[] tmpSwitchWireMask = cotReceiverOutput.getRb(cotIndexes[widthIndex]);
                     switchWireMask[widthIndex] = prg.extendToBytes(tmpSwitchWireMask);
                 }
             });
         }
     }
 
-    private void handleSwitchCorrectionPayload(List<byte[]> switchCorrectionPayload, int levelIndex) throws MpcAbortException {
-        int width = waksmanNetwork.getWidth(levelIndex);
+    private void handleSwitchCorrectionPayload(List<byte[]> switchCorrectionPayload) throws MpcAbortException {
+        int width = programmer.getWidth();
         MpcAbortPreconditions.checkArgument(switchCorrectionPayload.size() == width);
-        byte[] gates = waksmanNetwork.getGates(levelIndex);
-        byte[][] corrections = new byte[maxWidth][byteLength];
-        byte[][] reducedCorrection = switchCorrectionPayload.toArray(new byte[0][]);
+        byte[] gates = programmer.getGates();
+        byte[][] corrections = new byte[maxWidth][];
         int index = 0;
         for (int widthIndex = 0; widthIndex < maxWidth; widthIndex++) {
             if (gates[widthIndex] != 2) {
-                corrections[widthIndex] = reducedCorrection[index];
+                corrections[widthIndex] = switchCorrectionPayload.get(index);
                 index++;
             }
         }
         assert index == width;
         // program
-        int[] currentMap2InputIndex = map2InputIndex[levelIndex];
-        int[] currentMap2WidthIndex = map2SwitchIndex[levelIndex];
-        byte[][] beforeShareVector = BytesUtils.clone(receiverShareVector);
+        int[] currentMap2InputIndex = programmer.getFixedLayerPermutation();
+        int[] currentMap2WidthIndex = programmer.getLayerSwitchIndexes();
+        // share arrays are never modified in place, so we only need to copy references
+        byte[][] beforeShareVector = receiverShareVector;
+        receiverShareVector = new byte[num][];
         IntStream intStream = parallel ? IntStream.range(0, num).parallel() : IntStream.range(0, num);
         intStream.forEach(i -> {
             if (currentMap2WidthIndex[i] == -1) {
@@ -237,7 +202,7 @@ public class Lll24FlatNetRosnReceiver extends AbstractNetRosnReceiver {
                 int widthIndex = currentMap2WidthIndex[i];
                 byte[] inputMask0 = beforeShareVector[currentMap2InputIndex[i - 1]];
                 byte[] inputMask1 = beforeShareVector[currentMap2InputIndex[i]];
-                byte flag = waksmanNetwork.getGates(levelIndex)[widthIndex];
+                byte flag = gates[widthIndex];
                 int leftS = flag == 1 ? 1 : 0;
                 if (flag != 2) {
                     // 计算输出导线遮蔽值，左侧Benes网络要交换输出导线的位置
@@ -254,7 +219,6 @@ public class Lll24FlatNetRosnReceiver extends AbstractNetRosnReceiver {
         });
     }
 
-
     private byte[][] getOutputMasks(int widthIndex, byte[][] corrections, byte flag) {
         byte[] choiceMessage = corrections[widthIndex];
         BytesUtils.xori(choiceMessage, switchWireMask[widthIndex]);
@@ -10,21 +10,18 @@ import edu.alibaba.mpc4j.common.tool.crypto.crhf.CrhfFactory;
 import edu.alibaba.mpc4j.common.tool.crypto.crhf.CrhfFactory.CrhfType;
 import edu.alibaba.mpc4j.common.tool.crypto.prg.Prg;
 import edu.alibaba.mpc4j.common.tool.crypto.prg.PrgFactory;
-import edu.alibaba.mpc4j.common.tool.network.waksman.WaksmanNetwork;
-import edu.alibaba.mpc4j.common.tool.network.waksman.WaksmanNetworkFactory;
+import edu.alibaba.mpc4j.common.tool.network.waksman.WaksmanLayerProgrammer;
 import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.s2pc.aby.pcg.osn.rosn.AbstractNetRosnSender;
 import edu.alibaba.mpc4j.s2pc.aby.pcg.osn.rosn.RosnSenderOutput;
 import edu.alibaba.mpc4j.s2pc.aby.pcg.osn.rosn.lll24.Lll24FlatNetRosnPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.pcg.ot.cot.CotSenderOutput;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -34,11 +31,10 @@ import java.util.stream.IntStream;
  * @date 2024/7/29
  */
 public class Lll24FlatNetRosnSender extends AbstractNetRosnSender {
-    private static final Logger LOGGER = LoggerFactory.getLogger(Lll24FlatNetRosnSender.class);
     /**
-     * Waksman network
+     * Waksman layer programmer
      */
-    private WaksmanNetwork<byte[]> waksmanNetwork;
+    private WaksmanLayerProgrammer programmer;
     /**
      * max width
      */
@@ -55,14 +51,6 @@ public class Lll24FlatNetRosnSender extends AbstractNetRosnSender {
      * switch wire masks corresponding to 1  in one specific level
      */
     private byte[][] switchWireMask1;
-    /**
-     * the index of switch, if the wire is directly linked, then the value is -1
-     */
-    private int[][] map2SwitchIndex;
-    /**
-     * the input index of each wire
-     */
-    private int[][] map2InputIndex;
     /**
      * Crhf
      */
@@ -99,25 +87,10 @@ public class Lll24FlatNetRosnSender extends AbstractNetRosnSender {
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
-        // create an empty Waksman network, used only for locating empty switches.
-        int[] pi = IntStream.range(0, num).toArray();
-        waksmanNetwork = WaksmanNetworkFactory.createInstance(envType, pi);
-        int level = waksmanNetwork.getLevel();
-        maxWidth = waksmanNetwork.getMaxWidth();
-        CotSenderOutput[] cotSenderOutputs = new CotSenderOutput[level];
-        for (int levelIndex = 0; levelIndex < level; levelIndex++) {
-//            LOGGER.info("cot level: {}", levelIndex);
-            int width = waksmanNetwork.getWidth(levelIndex);
-            cotSenderOutputs[levelIndex] = cotSender.send(width);
-        }
-        map2SwitchIndex = waksmanNetwork.getLayerSwitchIndexes();
-        map2InputIndex = waksmanNetwork.getFixedLayerPermutations();
-        stopWatch.stop();
-        long cotTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-        stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 1, 2, cotTime, "Sender runs COTs");
-
-        stopWatch.start();
+        // the sender only needs the network structure, which is programmed layer by layer.
+        programmer = new WaksmanLayerProgrammer(num);
+        int level = programmer.getLevel();
+        maxWidth = programmer.getMaxWidth();
         if (byteLength <= CommonConstants.BLOCK_BYTE_LENGTH) {
             // we only need to use more efficient CRHF instead of PRG
             crhf = CrhfFactory.createInstance(envType, CrhfType.MMO);
@@ -128,78 +101,82 @@ public class Lll24FlatNetRosnSender extends AbstractNetRosnSender {
         senderShareVector = BytesUtils.randomByteArrayVector(num, byteLength, secureRandom);
         // save the input vector
         byte[][] inputMask = BytesUtils.clone(senderShareVector);
-        for (int levelIndex = 0; levelIndex < level; levelIndex++) {
-            // extend ot result
-            LOGGER.info("switching level: {}", levelIndex);
-            handleCotSenderOutputsInLayer(cotSenderOutputs[levelIndex], levelIndex);
-            cotSenderOutputs[levelIndex] = null;
-            List<byte[]> switchCorrectionPayload = generateSwitchCorrectionPayload(levelIndex);
+        stopWatch.stop();
+        long prepareTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, prepareTime, "Sender prepares the network");
 
+        long switchTime = 0L;
+        for (int levelIndex = 0; levelIndex < level; levelIndex++) {
+            stopWatch.start();
+            programmer.nextLevel();
+            // run COTs only for the current level, so that COTs for all levels are never kept at the same time
+            CotSenderOutput cotSenderOutput = cotSender.send(programmer.getWidth());
+            handleCotSenderOutputsInLayer(cotSenderOutput);
+            List<byte[]> switchCorrectionPayload = generateSwitchCorrectionPayload();
             sendOtherPartyEqualSizePayload(PtoStep.SENDER_SEND_SWITCH_CORRECTIONS.ordinal(), switchCorrectionPayload);
             // add one msg received from receiver to avoid too much msg stacked in RPC
             if (level >= 39 && ((levelIndex + 1) % 4 == 0 || levelIndex == level - 1)) {
                 receiveOtherPartyPayload(PtoStep.SYNCHRONIZE_MSG.ordinal());
             }
+            stopWatch.stop();
+            long levelTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            switchTime += levelTime;
+            logSubStepInfo(PtoState.PTO_STEP, 2, levelIndex + 1, level, levelTime);
         }
         RosnSenderOutput senderOutput = RosnSenderOutput.create(inputMask, senderShareVector);
         senderShareVector = null;
-        stopWatch.stop();
-        long inputCorrectionTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-        stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 2, 2, inputCorrectionTime, "Sender switches correlations");
+        switchWireMask0 = null;
+        switchWireMask1 = null;
+        programmer = null;
+        logStepInfo(PtoState.PTO_STEP, 2, 2, switchTime, "Sender runs COTs and switches correlations");
 
         logPhaseInfo(PtoState.PTO_END);
         return senderOutput;
     }
 
-    private void handleCotSenderOutputsInLayer(CotSenderOutput cotSenderOutputs, int levelIndex) {
-        byte[] delta = cotSenderOutputs.getDelta();
-        byte[][] paddingR0Array = new byte[maxWidth][];
+    private void handleCotSenderOutputsInLayer(CotSenderOutput cotSenderOutput) {
+        // locate the COT index of each non-empty switch
+        int[] cotIndexes = new int[maxWidth];
         int index = 0;
         for (int widthIndex = 0; widthIndex < maxWidth; widthIndex++) {
-            byte[] gates = waksmanNetwork.getGates(levelIndex);
-            if (gates[widthIndex] != 2) {
-                paddingR0Array[widthIndex] = cotSenderOutputs.getR0(index);
-                index++;
-            } else {
-                paddingR0Array[widthIndex] = BlockUtils.zeroBlock();
-            }
+            cotIndexes[widthIndex] = programmer.isEmptySwitch(widthIndex) ? -1 : index++;
         }
-        assert index == cotSenderOutputs.getNum();
-        CotSenderOutput paddingCotSenderOutputs = CotSenderOutput.create(delta, paddingR0Array);
+        assert index == cotSenderOutput.getNum();
         switchWireMask0 = new byte[maxWidth][];
         switchWireMask1 = new byte[maxWidth][];
         // level = O(log(n)) but width = O(n), batch in width
-        byte[] switchFlag = waksmanNetwork.getGates(levelIndex);
         IntStream widthIndexIntStream = parallel ? IntStream.range(0, maxWidth).parallel() : IntStream.range(0, maxWidth);
         if (byteLength <= CommonConstants.BLOCK_BYTE_LENGTH) {
             widthIndexIntStream.forEach(widthIndex -> {
-                if (switchFlag[widthIndex] != 2) {
-                    byte[] otR0 = paddingCotSenderOutputs.getR0(widthIndex);
+                if (cotIndexes[widthIndex] >= 0) {
+                    byte[] otR0 = cotSenderOutput.getR0(cotIndexes[widthIndex]);
                     switchWireMask0[widthIndex] = Arrays.copyOf(crhf.hash(otR0), byteLength);
-                    byte[] otR1 = paddingCotSenderOutputs.getR1(widthIndex);
+                    byte[] otR1 = cotSenderOutput.getR1(cotIndexes[widthIndex]);
                     switchWireMask1[widthIndex] = Arrays.copyOf(crhf.hash(otR1), byteLength);
                 }
             });
         } else {
             widthIndexIntStream.forEach(widthIndex -> {
-                if (switchFlag[widthIndex] != 2) {
-                    byte[] otR0 = paddingCotSenderOutputs.getR0(widthIndex);
+                if (cotIndexes[widthIndex] >= 0) {
+                    byte[] otR0 = cotSenderOutput.getR0(cotIndexes[widthIndex]);
                     switchWireMask0[widthIndex] = prg.extendToBytes(otR0);
-                    byte[] otR1 = paddingCotSenderOutputs.getR1(widthIndex);
+                    byte[] otR1 = cotSenderOutput.getR1(cotIndexes[widthIndex]);
                     switchWireMask1[widthIndex] = prg.extendToBytes(otR1);
                 }
             });
         }
     }
 
-    private List<byte[]> generateSwitchCorrectionPayload(int levelIndex) {
+    private List<byte[]> generateSwitchCorrectionPayload() {
         // programming
-        int width = waksmanNetwork.getWidth(levelIndex);
-        byte[] gates = waksmanNetwork.getGates(levelIndex);
-        int[] currentMap2InputIndex = map2InputIndex[levelIndex];
-        int[] currentMap2WidthIndex = map2SwitchIndex[levelIndex];
-        byte[][] beforeShareVector = BytesUtils.clone(senderShareVector);
+        int width = programmer.getWidth();
+        int[] currentMap2InputIndex = programmer.getFixedLayerPermutation();
+        int[] currentMap2WidthIndex = programmer.getLayerSwitchIndexes();
+        // share arrays are never modified in place, so we only need to copy references
+        byte[][] beforeShareVector = senderShareVector;
+        senderShareVector = new byte[num][];
         IntStream intStream = parallel ? IntStream.range(0, num).parallel() : IntStream.range(0, num);
         intStream.forEach(i -> {
             if (currentMap2WidthIndex[i] == -1) {
@@ -209,7 +186,7 @@ public class Lll24FlatNetRosnSender extends AbstractNetRosnSender {
                 int widthIndex = currentMap2WidthIndex[i];
                 byte[] inputMask0 = beforeShareVector[currentMap2InputIndex[i - 1]];
                 byte[] inputMask1 = beforeShareVector[currentMap2InputIndex[i]];
-                if (waksmanNetwork.getGates(levelIndex)[widthIndex] != 2) {
+                if (!programmer.isEmptySwitch(widthIndex)) {
                     // M_(j, 0) = R_0
                     senderShareVector[i - 1] = BytesUtils.clone(switchWireMask0[widthIndex]);
                     // M_(j, 1) = R_0 ⊕ R_1
@@ -222,15 +199,14 @@ public class Lll24FlatNetRosnSender extends AbstractNetRosnSender {
             }
         });
         // reducing corrections
-        byte[][] reducedCorrections = new byte[width][];
-        int index = 0;
+        List<byte[]> reducedCorrections = new ArrayList<>(width);
         for (int widthIndex = 0; widthIndex < maxWidth; widthIndex++) {
-            if (gates[widthIndex] != 2) {
-                reducedCorrections[index++] = switchWireMask0[widthIndex];
+            if (!programmer.isEmptySwitch(widthIndex)) {
+                reducedCorrections.add(switchWireMask0[widthIndex]);
             }
         }
-        assert index == width;
-        return Arrays.stream(reducedCorrections).collect(Collectors.toList());
+        assert reducedCorrections.size() == width;
+        return reducedCorrections;
     }
 
     private void setCorrection(byte[] inputMask0, byte[] inputMask1, byte[] outputMask0, byte[] outputMask1, int widthIndex) {
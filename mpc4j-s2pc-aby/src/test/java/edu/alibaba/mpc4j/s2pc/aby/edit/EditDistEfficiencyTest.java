@@ -7,6 +7,8 @@ import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cFactory;
 import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
 import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.diag.S2pcDiagEditDistConfig;
 import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.diag.S2pcDiagEditDistPtoDesc;
+import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave.S2pcWaveEditDistConfig;
+import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave.S2pcWaveEditDistPtoDesc;
 import org.apache.commons.lang3.time.StopWatch;
 import org.junit.Assert;
 import org.junit.Test;
@@ -75,6 +77,10 @@ public class EditDistEfficiencyTest extends AbstractTwoPartyMemoryRpcPto {
             new S2pcDiagEditDistConfig.Builder(SILENT)
                 .setNeedExtend(NEED_EXTEND).setIncrement(INCREMENT).setNeedPrune(NEED_PRUNE).build()
         });
+        configurations.add(new Object[]{
+            S2pcWaveEditDistPtoDesc.getInstance().getPtoName(),
+            new S2pcWaveEditDistConfig.Builder(SILENT).setNeedPrune(NEED_PRUNE).build()
+        });
         return configurations;
     }
 
@@ -10,6 +10,8 @@ import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cFactory;
 import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
 import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.diag.S2pcDiagEditDistConfig;
 import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.diag.S2pcDiagEditDistPtoDesc;
+import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave.S2pcWaveEditDistConfig;
+import edu.alibaba.mpc4j.s2pc.aby.edit.s2pc.wave.S2pcWaveEditDistPtoDesc;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -56,6 +58,10 @@ public class EditDistTest extends AbstractTwoPartyMemoryRpcPto {
      * need to prune unneeded cells.
      */
     private static final boolean NEED_PRUNE = true;
+    /**
+     * small max batch size, so that long anti-diagonals are split into chunks.
+     */
+    private static final int SMALL_MAX_BATCH_SIZE = 8;
 
     @Parameterized.Parameters(name = "{0}")
     public static Collection<Object[]> configurations() {
@@ -66,6 +72,18 @@ public class EditDistTest extends AbstractTwoPartyMemoryRpcPto {
             new S2pcDiagEditDistConfig.Builder(SILENT)
                 .setNeedExtend(NEED_EXTEND).setIncrement(INCREMENT).setNeedPrune(NEED_PRUNE).build()
         });
+        configurations.add(new Object[]{
+            S2pcWaveEditDistPtoDesc.getInstance().getPtoName() + " (prune)",
+            new S2pcWaveEditDistConfig.Builder(SILENT).setNeedPrune(NEED_PRUNE).build()
+        });
+        configurations.add(new Object[]{
+            S2pcWaveEditDistPtoDesc.getInstance().getPtoName(),
+            new S2pcWaveEditDistConfig.Builder(SILENT).build()
+        });
+        configurations.add(new Object[]{
+            S2pcWaveEditDistPtoDesc.getInstance().getPtoName() + " (small batch)",
+            new S2pcWaveEditDistConfig.Builder(SILENT).setMaxBatchSize(SMALL_MAX_BATCH_SIZE).build()
+        });
 
         return configurations;
     }
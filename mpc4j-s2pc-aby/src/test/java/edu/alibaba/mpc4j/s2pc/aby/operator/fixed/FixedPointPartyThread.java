@@ -0,0 +1,140 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.SquareZl64Vector;
+
+/**
+ * Fixed-point arithmetic party thread.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+class FixedPointPartyThread extends Thread {
+    /**
+     * the party
+     */
+    private final FixedPointParty party;
+    /**
+     * z2c party
+     */
+    private final Z2cParty z2cParty;
+    /**
+     * x
+     */
+    private final SquareZl64Vector shareX;
+    /**
+     * y
+     */
+    private final SquareZl64Vector shareY;
+    /**
+     * matrix x
+     */
+    private final SquareZl64Vector shareMatrixX;
+    /**
+     * matrix y
+     */
+    private final SquareZl64Vector shareMatrixY;
+    /**
+     * secret matrix y
+     */
+    private final SquareZl64Vector shareSecretMatrixY;
+    /**
+     * matrix dimensions (rows, inner, columns)
+     */
+    private final int[] dimensions;
+    /**
+     * max num
+     */
+    private final int maxNum;
+    /**
+     * x * y
+     */
+    private SquareZl64Vector shareMul;
+    /**
+     * X * Y
+     */
+    private SquareZl64Vector shareMatMul;
+    /**
+     * X * Y with secret Y
+     */
+    private SquareZl64Vector shareSecretMatMul;
+    /**
+     * sigmoid(x)
+     */
+    private SquareZl64Vector shareSigmoid;
+    /**
+     * exp(y)
+     */
+    private SquareZl64Vector shareExp;
+    /**
+     * 1 / y
+     */
+    private SquareZl64Vector shareReciprocal;
+    /**
+     * argmax of each row in X
+     */
+    private SquareZl64Vector shareArgmax;
+
+    FixedPointPartyThread(FixedPointParty party, Z2cParty z2cParty, SquareZl64Vector shareX, SquareZl64Vector shareY,
+                          SquareZl64Vector shareMatrixX, SquareZl64Vector shareMatrixY,
+                          SquareZl64Vector shareSecretMatrixY, int[] dimensions, int maxNum) {
+        this.party = party;
+        this.z2cParty = z2cParty;
+        this.shareX = shareX;
+        this.shareY = shareY;
+        this.shareMatrixX = shareMatrixX;
+        this.shareMatrixY = shareMatrixY;
+        this.shareSecretMatrixY = shareSecretMatrixY;
+        this.dimensions = dimensions;
+        this.maxNum = maxNum;
+    }
+
+    SquareZl64Vector getShareMul() {
+        return shareMul;
+    }
+
+    SquareZl64Vector getShareMatMul() {
+        return shareMatMul;
+    }
+
+    SquareZl64Vector getShareSecretMatMul() {
+        return shareSecretMatMul;
+    }
+
+    SquareZl64Vector getShareSigmoid() {
+        return shareSigmoid;
+    }
+
+    SquareZl64Vector getShareExp() {
+        return shareExp;
+    }
+
+    SquareZl64Vector getShareReciprocal() {
+        return shareReciprocal;
+    }
+
+    SquareZl64Vector getShareArgmax() {
+        return shareArgmax;
+    }
+
+    @Override
+    public void run() {
+        try {
+            int l = shareX.getZl64().getL();
+            z2cParty.init(l * maxNum);
+            party.init(l, maxNum);
+            shareMul = party.mul(shareX, shareY);
+            shareMatMul = party.matMul(shareMatrixX, shareMatrixY, dimensions[0], dimensions[1], dimensions[2]);
+            shareSecretMatMul = party.matMul(
+                shareMatrixX, shareSecretMatrixY, dimensions[0], dimensions[1], dimensions[2]
+            );
+            shareSigmoid = party.sigmoid(shareX);
+            shareExp = party.exp(shareY);
+            shareReciprocal = party.reciprocal(shareX);
+            shareArgmax = party.argmax(shareMatrixX, dimensions[0], dimensions[1]);
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+        }
+    }
+}
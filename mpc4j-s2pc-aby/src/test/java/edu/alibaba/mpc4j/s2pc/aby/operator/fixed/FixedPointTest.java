@@ -0,0 +1,200 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.fixed;
+
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.structure.vector.Zl64Vector;
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl64.Zl64;
+import edu.alibaba.mpc4j.common.tool.galoisfield.zl64.Zl64Factory;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cConfig;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cParty;
+import edu.alibaba.mpc4j.s2pc.aby.basics.zl64.SquareZl64Vector;
+import edu.alibaba.mpc4j.s2pc.aby.operator.fixed.piecewise.PiecewiseFixedPointConfig;
+import org.apache.commons.lang3.time.StopWatch;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Fixed-point arithmetic test.
+ *
+ * @author Li Peng
+ * @date 2024/6/24
+ */
+@RunWith(Parameterized.class)
+public class FixedPointTest extends AbstractTwoPartyMemoryRpcPto {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FixedPointTest.class);
+    /**
+     * default num
+     */
+    private static final int DEFAULT_NUM = 1000;
+    /**
+     * default matrix dimensions (rows, inner, columns)
+     */
+    private static final int[] DEFAULT_DIMENSIONS = new int[]{20, 15, 10};
+    /**
+     * max num
+     */
+    private static final int MAX_NUM = 1 << 15;
+    /**
+     * l
+     */
+    private static final int L = 48;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // PIECEWISE
+        configurations.add(new Object[]{
+            FixedPointFactory.FixedPointType.PIECEWISE.name(),
+            new PiecewiseFixedPointConfig.Builder(SecurityModel.SEMI_HONEST, true).build()
+        });
+        // PIECEWISE (f = 12)
+        configurations.add(new Object[]{
+            FixedPointFactory.FixedPointType.PIECEWISE.name() + " (f = 12)",
+            new PiecewiseFixedPointConfig.Builder(SecurityModel.SEMI_HONEST, true).setF(12).build()
+        });
+
+        return configurations;
+    }
+
+    /**
+     * the config
+     */
+    private final FixedPointConfig config;
+    /**
+     * Zl64
+     */
+    private final Zl64 zl64;
+
+    public FixedPointTest(String name, FixedPointConfig config) {
+        super(name);
+        this.config = config;
+        zl64 = Zl64Factory.createInstance(EnvType.STANDARD, L);
+    }
+
+    @Test
+    public void testDefault() {
+        testPto(false);
+    }
+
+    @Test
+    public void testParallelDefault() {
+        testPto(true);
+    }
+
+    private void testPto(boolean parallel) {
+        int f = config.getF();
+        // x in [1/4, 8), y in [-8, 0), matrices in [-4, 4)
+        double[] x = IntStream.range(0, DEFAULT_NUM).mapToDouble(i -> 0.25 + SECURE_RANDOM.nextDouble() * 7.75).toArray();
+        double[] y = IntStream.range(0, DEFAULT_NUM).mapToDouble(i -> -8 * SECURE_RANDOM.nextDouble()).toArray();
+        int rows = DEFAULT_DIMENSIONS[0];
+        int inner = DEFAULT_DIMENSIONS[1];
+        int columns = DEFAULT_DIMENSIONS[2];
+        double[] matrixX = IntStream.range(0, rows * inner).mapToDouble(i -> 8 * SECURE_RANDOM.nextDouble() - 4).toArray();
+        double[] matrixY = IntStream.range(0, inner * columns).mapToDouble(i -> 8 * SECURE_RANDOM.nextDouble() - 4).toArray();
+        SquareZl64Vector[] shareXs = share(FixedPointUtils.encode(zl64, f, x));
+        SquareZl64Vector[] shareYs = share(FixedPointUtils.encode(zl64, f, y));
+        SquareZl64Vector[] shareMatrixXs = share(FixedPointUtils.encode(zl64, f, matrixX));
+        // Y is plain, e.g., public model weights
+        SquareZl64Vector plainMatrixY = SquareZl64Vector.create(zl64, FixedPointUtils.encode(zl64, f, matrixY), true);
+        SquareZl64Vector[] shareMatrixYs = share(FixedPointUtils.encode(zl64, f, matrixY));
+        // init z2c
+        Z2cConfig z2cConfig = Z2cFactory.createDefaultConfig(SecurityModel.SEMI_HONEST, true);
+        Z2cParty z2cSender = Z2cFactory.createSender(firstRpc, secondRpc.ownParty(), z2cConfig);
+        Z2cParty z2cReceiver = Z2cFactory.createReceiver(secondRpc, firstRpc.ownParty(), z2cConfig);
+        // init the protocol
+        FixedPointParty sender = FixedPointFactory.createSender(z2cSender, secondRpc.ownParty(), config);
+        FixedPointParty receiver = FixedPointFactory.createReceiver(z2cReceiver, firstRpc.ownParty(), config);
+        sender.setParallel(parallel);
+        receiver.setParallel(parallel);
+        try {
+            LOGGER.info("-----test {} start-----", sender.getPtoDesc().getPtoName());
+            FixedPointPartyThread senderThread = new FixedPointPartyThread(
+                sender, z2cSender, shareXs[0], shareYs[0], shareMatrixXs[0], plainMatrixY, shareMatrixYs[0],
+                DEFAULT_DIMENSIONS, MAX_NUM
+            );
+            FixedPointPartyThread receiverThread = new FixedPointPartyThread(
+                receiver, z2cReceiver, shareXs[1], shareYs[1], shareMatrixXs[1], plainMatrixY, shareMatrixYs[1],
+                DEFAULT_DIMENSIONS, MAX_NUM
+            );
+            StopWatch stopWatch = new StopWatch();
+            // execute the protocol
+            stopWatch.start();
+            senderThread.start();
+            receiverThread.start();
+            senderThread.join();
+            receiverThread.join();
+            stopWatch.stop();
+            long time = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            // verify
+            double precision = 4.0 / (1 << f);
+            double[] mul = reveal(senderThread.getShareMul(), receiverThread.getShareMul(), f);
+            for (int i = 0; i < DEFAULT_NUM; i++) {
+                Assert.assertEquals(x[i] * y[i], mul[i], 8 * precision);
+            }
+            double[] matMul = reveal(senderThread.getShareMatMul(), receiverThread.getShareMatMul(), f);
+            double[] secretMatMul = reveal(senderThread.getShareSecretMatMul(), receiverThread.getShareSecretMatMul(), f);
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    double expect = 0;
+                    for (int k = 0; k < inner; k++) {
+                        expect += matrixX[row * inner + k] * matrixY[k * columns + column];
+                    }
+                    Assert.assertEquals(expect, matMul[row * columns + column], 8 * inner * precision);
+                    Assert.assertEquals(expect, secretMatMul[row * columns + column], 8 * inner * precision);
+                }
+            }
+            double[] sigmoid = reveal(senderThread.getShareSigmoid(), receiverThread.getShareSigmoid(), f);
+            double[] exp = reveal(senderThread.getShareExp(), receiverThread.getShareExp(), f);
+            double[] reciprocal = reveal(senderThread.getShareReciprocal(), receiverThread.getShareReciprocal(), f);
+            for (int i = 0; i < DEFAULT_NUM; i++) {
+                Assert.assertEquals(1.0 / (1.0 + Math.exp(-x[i])), sigmoid[i], 0.002 + 32 * precision);
+                Assert.assertEquals(Math.exp(y[i]), exp[i], 0.01 + 32 * precision);
+                Assert.assertEquals(1.0, reciprocal[i] * x[i], 0.01 + 64 * precision);
+            }
+            long[] argmax = senderThread.getShareArgmax().getZl64Vector()
+                .add(receiverThread.getShareArgmax().getZl64Vector())
+                .getElements();
+            for (int row = 0; row < rows; row++) {
+                int expect = 0;
+                for (int column = 1; column < inner; column++) {
+                    if (matrixX[row * inner + column] > matrixX[row * inner + expect]) {
+                        expect = column;
+                    }
+                }
+                Assert.assertEquals(expect, argmax[row]);
+            }
+            printAndResetRpc(time);
+            LOGGER.info("-----test {} end-----", sender.getPtoDesc().getPtoName());
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        // destroy
+        new Thread(sender::destroy).start();
+        new Thread(receiver::destroy).start();
+    }
+
+    private SquareZl64Vector[] share(long[] elements) {
+        Zl64Vector vector = Zl64Vector.create(zl64, elements);
+        Zl64Vector vector0 = Zl64Vector.createRandom(zl64, elements.length, SECURE_RANDOM);
+        Zl64Vector vector1 = vector.sub(vector0);
+        return new SquareZl64Vector[]{SquareZl64Vector.create(vector0, false), SquareZl64Vector.create(vector1, false)};
+    }
+
+    private double[] reveal(SquareZl64Vector share0, SquareZl64Vector share1, int f) {
+        long[] elements = share0.getZl64Vector().add(share1.getZl64Vector()).getElements();
+        return FixedPointUtils.decode(zl64, f, elements);
+    }
+}
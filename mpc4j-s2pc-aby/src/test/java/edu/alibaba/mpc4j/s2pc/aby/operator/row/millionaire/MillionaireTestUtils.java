@@ -20,7 +20,7 @@ public class MillionaireTestUtils {
         // empty
     }
 
-    static byte[][] genSenderInputArray(int l, int num, SecureRandom secureRandom) {
+    public static byte[][] genSenderInputArray(int l, int num, SecureRandom secureRandom) {
         int byteL = CommonUtils.getByteLength(l);
         return IntStream.range(0, num)
                 .parallel()
@@ -28,7 +28,7 @@ public class MillionaireTestUtils {
                 .toArray(byte[][]::new);
     }
 
-    static byte[][] genReceiverInputArray(int l, byte[][] inputArray, SecureRandom secureRandom) {
+    public static byte[][] genReceiverInputArray(int l, byte[][] inputArray, SecureRandom secureRandom) {
         int byteL = CommonUtils.getByteLength(l);
         int num = inputArray.length;
         return IntStream.range(0, num)
@@ -0,0 +1,62 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
+
+import java.util.Arrays;
+
+/**
+ * private equality test party thread for groups with different bit lengths.
+ *
+ * @author Li Peng
+ * @date 2024/6/26
+ */
+class PeqtBatchPartyThread extends Thread {
+    /**
+     * the party
+     */
+    private final PeqtParty party;
+    /**
+     * ls
+     */
+    private final int[] ls;
+    /**
+     * inputs of each group
+     */
+    private final byte[][][] inputs;
+    /**
+     * invocation num
+     */
+    private final int invocationNum;
+    /**
+     * zi of each invocation
+     */
+    private final SquareZ2Vector[][] zis;
+
+    PeqtBatchPartyThread(PeqtParty party, int[] ls, byte[][][] inputs, int invocationNum) {
+        this.party = party;
+        this.ls = ls;
+        this.inputs = inputs;
+        this.invocationNum = invocationNum;
+        zis = new SquareZ2Vector[invocationNum][];
+    }
+
+    SquareZ2Vector[] getZis(int invocation) {
+        return zis[invocation];
+    }
+
+    @Override
+    public void run() {
+        try {
+            int maxL = Arrays.stream(ls).max().orElse(1);
+            int totalNum = Arrays.stream(inputs).mapToInt(groupInputs -> groupInputs.length).sum();
+            party.init(maxL, totalNum);
+            // invoke multiple times to reuse the same session
+            for (int invocation = 0; invocation < invocationNum; invocation++) {
+                zis[invocation] = party.peqt(ls, inputs);
+            }
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
 import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
 import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
 import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.PeqtFactory.PeqtType;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.batch.BatchPeqtConfig;
 import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.cgs22.Cgs22PeqtConfig;
 import edu.alibaba.mpc4j.s2pc.aby.operator.row.peqt.naive.NaivePeqtConfig;
 import org.apache.commons.lang3.time.StopWatch;
@@ -45,6 +46,14 @@ public class PeqtTest extends AbstractTwoPartyMemoryRpcPto {
      * block size in CGS22
      */
     private static final int CGS22_M = 5;
+    /**
+     * bit lengths of groups in the batch test
+     */
+    private static final int[] BATCH_LS = new int[]{1, 6, 9, 17, 32};
+    /**
+     * nums of groups in the batch test
+     */
+    private static final int[] BATCH_NUMS = new int[]{1, 7, DEFAULT_NUM, 9, 100};
 
     @Parameterized.Parameters(name = "{0}")
     public static Collection<Object[]> configurations() {
@@ -55,6 +64,16 @@ public class PeqtTest extends AbstractTwoPartyMemoryRpcPto {
             PeqtType.CGS22.name() + " (" + SecurityModel.SEMI_HONEST.name() + ")",
             new Cgs22PeqtConfig.Builder(SecurityModel.SEMI_HONEST, false).setM(CGS22_M).build()
         });
+        // BATCH
+        configurations.add(new Object[]{
+            PeqtType.BATCH.name() + " (" + SecurityModel.SEMI_HONEST.name() + ")",
+            new BatchPeqtConfig.Builder(SecurityModel.SEMI_HONEST, false).build()
+        });
+        // BATCH, radix-2 to radix-256
+        configurations.add(new Object[]{
+            PeqtType.BATCH.name() + " (" + SecurityModel.SEMI_HONEST.name() + ", m = [1, 8])",
+            new BatchPeqtConfig.Builder(SecurityModel.SEMI_HONEST, false).setM(1, 8).build()
+        });
         // NAIVE
         configurations.add(new Object[]{
             PeqtType.NAIVE.name() + " (" + SecurityModel.SEMI_HONEST.name() + ")",
@@ -134,6 +153,16 @@ public class PeqtTest extends AbstractTwoPartyMemoryRpcPto {
         testPto(DEFAULT_L, LARGE_NUM, true);
     }
 
+    @Test
+    public void testBatch() {
+        testBatchPto(false);
+    }
+
+    @Test
+    public void testParallelBatch() {
+        testBatchPto(true);
+    }
+
     private void testPto(int l, int num, boolean parallel) {
         // create inputs
         byte[][] xs = PeqtTestUtils.genSenderInputArray(l, num, SECURE_RANDOM);
@@ -185,4 +214,54 @@ public class PeqtTest extends AbstractTwoPartyMemoryRpcPto {
             }
         }
     }
+
+    private void testBatchPto(boolean parallel) {
+        int groupNum = BATCH_LS.length;
+        int invocationNum = 2;
+        // create inputs
+        byte[][][] xs = new byte[groupNum][][];
+        byte[][][] ys = new byte[groupNum][][];
+        for (int group = 0; group < groupNum; group++) {
+            xs[group] = PeqtTestUtils.genSenderInputArray(BATCH_LS[group], BATCH_NUMS[group], SECURE_RANDOM);
+            ys[group] = PeqtTestUtils.genReceiverInputArray(BATCH_LS[group], xs[group], SECURE_RANDOM);
+        }
+        // init the protocol
+        PeqtParty sender = PeqtFactory.createSender(firstRpc, secondRpc.ownParty(), config);
+        PeqtParty receiver = PeqtFactory.createReceiver(secondRpc, firstRpc.ownParty(), config);
+        sender.setParallel(parallel);
+        receiver.setParallel(parallel);
+        try {
+            LOGGER.info("-----test {} (batch) start-----", sender.getPtoDesc().getPtoName());
+            PeqtBatchPartyThread senderThread = new PeqtBatchPartyThread(sender, BATCH_LS, xs, invocationNum);
+            PeqtBatchPartyThread receiverThread = new PeqtBatchPartyThread(receiver, BATCH_LS, ys, invocationNum);
+            StopWatch stopWatch = new StopWatch();
+            // execute the protocol
+            stopWatch.start();
+            senderThread.start();
+            receiverThread.start();
+            senderThread.join();
+            receiverThread.join();
+            stopWatch.stop();
+            long time = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            // verify
+            for (int invocation = 0; invocation < invocationNum; invocation++) {
+                SquareZ2Vector[] z0s = senderThread.getZis(invocation);
+                SquareZ2Vector[] z1s = receiverThread.getZis(invocation);
+                Assert.assertEquals(groupNum, z0s.length);
+                Assert.assertEquals(groupNum, z1s.length);
+                for (int group = 0; group < groupNum; group++) {
+                    BitVector z = z0s[group].getBitVector().xor(z1s[group].getBitVector());
+                    assertOutput(BATCH_NUMS[group], xs[group], ys[group], z);
+                }
+            }
+            printAndResetRpc(time);
+            LOGGER.info("-----test {} (batch) end-----", sender.getPtoDesc().getPtoName());
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        // destroy
+        new Thread(sender::destroy).start();
+        new Thread(receiver::destroy).start();
+    }
 }
@@ -0,0 +1,205 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.shard;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
+import edu.alibaba.mpc4j.common.tool.utils.BigIntegerUtils;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cConfig;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.Z2cFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.millionaire.MillionaireConfig;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.millionaire.MillionaireFactory;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.millionaire.MillionaireParty;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.millionaire.MillionaireTestUtils;
+import org.apache.commons.lang3.time.StopWatch;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Shard executor test, using the millionaire protocol as the sharded operator.
+ *
+ * @author Li Peng
+ * @date 2024/6/28
+ */
+@RunWith(Parameterized.class)
+public class ShardExecutorTest extends AbstractTwoPartyMemoryRpcPto {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardExecutorTest.class);
+    /**
+     * default num
+     */
+    private static final int DEFAULT_NUM = 1000;
+    /**
+     * large num
+     */
+    private static final int LARGE_NUM = 1 << 16;
+    /**
+     * default l
+     */
+    private static final int DEFAULT_L = 32;
+    /**
+     * base task ID
+     */
+    private static final int BASE_TASK_ID = 1;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        for (int shardNum : new int[]{1, 2, 4}) {
+            configurations.add(new Object[]{"shardNum = " + shardNum, shardNum});
+        }
+
+        return configurations;
+    }
+
+    /**
+     * the number of shards
+     */
+    private final int shardNum;
+    /**
+     * millionaire config
+     */
+    private final MillionaireConfig config;
+
+    public ShardExecutorTest(String name, int shardNum) {
+        super(name);
+        this.shardNum = shardNum;
+        config = MillionaireFactory.createDefaultConfig(SecurityModel.SEMI_HONEST, false);
+    }
+
+    @Test
+    public void testShardOffsets() {
+        for (int num : new int[]{1, 2, 3, 7, DEFAULT_NUM}) {
+            int[] offsets = ShardExecutor.getShardOffsets(num, shardNum);
+            Assert.assertEquals(Math.min(num, shardNum) + 1, offsets.length);
+            Assert.assertEquals(0, offsets[0]);
+            Assert.assertEquals(num, offsets[offsets.length - 1]);
+            int minSize = IntStream.range(0, offsets.length - 1).map(i -> offsets[i + 1] - offsets[i]).min().orElse(0);
+            int maxSize = IntStream.range(0, offsets.length - 1).map(i -> offsets[i + 1] - offsets[i]).max().orElse(0);
+            Assert.assertTrue(minSize > 0);
+            Assert.assertTrue(maxSize - minSize <= 1);
+        }
+    }
+
+    @Test
+    public void test1Num() {
+        testPto(DEFAULT_L, 1, false);
+    }
+
+    @Test
+    public void test3Num() {
+        testPto(DEFAULT_L, 3, false);
+    }
+
+    @Test
+    public void test7Num() {
+        testPto(DEFAULT_L, 7, false);
+    }
+
+    @Test
+    public void testDefaultNum() {
+        testPto(DEFAULT_L, DEFAULT_NUM, false);
+    }
+
+    @Test
+    public void testParallelDefaultNum() {
+        testPto(DEFAULT_L, DEFAULT_NUM, true);
+    }
+
+    @Test
+    public void test9L() {
+        testPto(9, DEFAULT_NUM, false);
+    }
+
+    @Test
+    public void testLargeNum() {
+        testPto(DEFAULT_L, LARGE_NUM, false);
+    }
+
+    @Test
+    public void testParallelLargeNum() {
+        testPto(DEFAULT_L, LARGE_NUM, true);
+    }
+
+    private List<MillionaireParty> createSenders(Rpc senderRpc, Party receiverParty) {
+        Z2cConfig z2cConfig = Z2cFactory.createDefaultConfig(SecurityModel.SEMI_HONEST, false);
+        return IntStream.range(0, shardNum)
+            .mapToObj(shardIndex -> MillionaireFactory.createSender(
+                Z2cFactory.createSender(senderRpc, receiverParty, z2cConfig), receiverParty, config
+            ))
+            .collect(Collectors.toList());
+    }
+
+    private List<MillionaireParty> createReceivers(Rpc receiverRpc, Party senderParty) {
+        Z2cConfig z2cConfig = Z2cFactory.createDefaultConfig(SecurityModel.SEMI_HONEST, false);
+        return IntStream.range(0, shardNum)
+            .mapToObj(shardIndex -> MillionaireFactory.createReceiver(
+                Z2cFactory.createReceiver(receiverRpc, senderParty, z2cConfig), senderParty, config
+            ))
+            .collect(Collectors.toList());
+    }
+
+    private void testPto(int l, int num, boolean parallel) {
+        // create inputs
+        byte[][] xs = MillionaireTestUtils.genSenderInputArray(l, num, SECURE_RANDOM);
+        byte[][] ys = MillionaireTestUtils.genReceiverInputArray(l, xs, SECURE_RANDOM);
+        // init the executors
+        ShardExecutor<MillionaireParty> sender = new ShardExecutor<>(
+            createSenders(firstRpc, secondRpc.ownParty()), BASE_TASK_ID
+        );
+        ShardExecutor<MillionaireParty> receiver = new ShardExecutor<>(
+            createReceivers(secondRpc, firstRpc.ownParty()), BASE_TASK_ID
+        );
+        sender.setParallel(parallel);
+        receiver.setParallel(parallel);
+        try {
+            LOGGER.info("-----test {} ({} shards) start-----", sender.getParty(0).getPtoDesc().getPtoName(), shardNum);
+            ShardMillionairePartyThread senderThread = new ShardMillionairePartyThread(sender, l, xs);
+            ShardMillionairePartyThread receiverThread = new ShardMillionairePartyThread(receiver, l, ys);
+            StopWatch stopWatch = new StopWatch();
+            // execute the protocol
+            stopWatch.start();
+            senderThread.start();
+            receiverThread.start();
+            senderThread.join();
+            receiverThread.join();
+            stopWatch.stop();
+            long time = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            // verify
+            SquareZ2Vector z0 = senderThread.getZi();
+            SquareZ2Vector z1 = receiverThread.getZi();
+            BitVector z = z0.getBitVector().xor(z1.getBitVector());
+            assertOutput(num, xs, ys, z);
+            printAndResetRpc(time);
+            LOGGER.info("-----test {} ({} shards) end-----", sender.getParty(0).getPtoDesc().getPtoName(), shardNum);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        // destroy
+        new Thread(sender::destroy).start();
+        new Thread(receiver::destroy).start();
+    }
+
+    private void assertOutput(int num, byte[][] xs, byte[][] ys, BitVector z) {
+        Assert.assertEquals(num, z.bitNum());
+        for (int index = 0; index < num; index++) {
+            boolean result = BigIntegerUtils.byteArrayToNonNegBigInteger(xs[index])
+                .compareTo(BigIntegerUtils.byteArrayToNonNegBigInteger(ys[index])) < 0;
+            Assert.assertEquals(z.get(index), result);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package edu.alibaba.mpc4j.s2pc.aby.operator.shard;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.s2pc.aby.basics.z2.SquareZ2Vector;
+import edu.alibaba.mpc4j.s2pc.aby.operator.row.millionaire.MillionaireParty;
+
+import java.util.List;
+
+/**
+ * sharded millionaire party thread.
+ *
+ * @author Li Peng
+ * @date 2024/6/28
+ */
+class ShardMillionairePartyThread extends Thread {
+    /**
+     * shard executor
+     */
+    private final ShardExecutor<MillionaireParty> executor;
+    /**
+     * l
+     */
+    private final int l;
+    /**
+     * inputs
+     */
+    private final byte[][] inputs;
+    /**
+     * zi
+     */
+    private SquareZ2Vector zi;
+
+    ShardMillionairePartyThread(ShardExecutor<MillionaireParty> executor, int l, byte[][] inputs) {
+        this.executor = executor;
+        this.l = l;
+        this.inputs = inputs;
+    }
+
+    SquareZ2Vector getZi() {
+        return zi;
+    }
+
+    @Override
+    public void run() {
+        try {
+            executor.init(inputs.length, (party, shardMaxNum) -> party.init(l, shardMaxNum));
+            executor.getParty(0).getRpc().reset();
+            List<SquareZ2Vector> shardZis = executor.execute(
+                inputs.length, (party, from, to) -> party.lt(l, ShardExecutor.splitRows(inputs, from, to))
+            );
+            zi = ShardExecutor.merge(shardZis);
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package edu.alibaba.mpc4j.s2pc.opf.opprf;
+
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.crypto.prp.Prp;
+import edu.alibaba.mpc4j.common.tool.crypto.prp.PrpFactory;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+
+/**
+ * Batched PRF that maps OPRF outputs to d programmed l-bit values in OPPRF. For an OPRF output y, let s be y folded
+ * (XOR-ed) into κ bits, the PRF output is
+ * <p>
+ * (π(s ⊕ 0) ⊕ s ⊕ 0) || (π(s ⊕ 1) ⊕ s ⊕ 1) || ...,
+ * </p>
+ * truncated to d slots of ⌈l / 8⌉ bytes, each reduced to l bits, where π is a fixed-key PRP. The blocks of all inputs
+ * in one invocation are permuted by a single batched PRP call over a flat buffer.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public class OpprfBatchPrf {
+    /**
+     * number of bins in a chunk, for the party that has one input in each bin to evaluate PRFs in batch
+     */
+    public static final int CHUNK_BIN_NUM = 1 << 10;
+    /**
+     * fixed-key PRP π
+     */
+    private final Prp prp;
+    /**
+     * l
+     */
+    private final int l;
+    /**
+     * byte length of l
+     */
+    private final int byteL;
+    /**
+     * number of l-bit slots for each input
+     */
+    private final int d;
+    /**
+     * number of blocks for each input
+     */
+    private final int blockNum;
+    /**
+     * mask for the first byte of each slot
+     */
+    private final byte firstByteMask;
+
+    public OpprfBatchPrf(EnvType envType, int l, int d) {
+        MathPreconditions.checkPositive("l", l);
+        MathPreconditions.checkPositive("d", d);
+        prp = PrpFactory.createInstance(envType);
+        prp.setKey(BlockUtils.zeroBlock());
+        this.l = l;
+        byteL = CommonUtils.getByteLength(l);
+        this.d = d;
+        blockNum = CommonUtils.getUnitNum(byteL * d, CommonConstants.BLOCK_BYTE_LENGTH);
+        int resBitNum = l & 7;
+        firstByteMask = resBitNum == 0 ? (byte) 0xFF : (byte) ((1 << resBitNum) - 1);
+    }
+
+    /**
+     * Gets l.
+     *
+     * @return l.
+     */
+    public int getL() {
+        return l;
+    }
+
+    /**
+     * Gets d.
+     *
+     * @return d.
+     */
+    public int getD() {
+        return d;
+    }
+
+    /**
+     * Gets the byte length of each input's output, i.e., d · ⌈l / 8⌉.
+     *
+     * @return the byte length of each input's output.
+     */
+    public int getOutputByteLength() {
+        return byteL * d;
+    }
+
+    /**
+     * Evaluates the PRF on the inputs in batch.
+     *
+     * @param inputs inputs (OPRF outputs).
+     * @return outputs in a flat buffer, the b-th slot of the i-th input starts at (i · d + b) · ⌈l / 8⌉.
+     */
+    public byte[] getBytes(byte[][] inputs) {
+        int num = inputs.length;
+        int inputByteLength = blockNum * CommonConstants.BLOCK_BYTE_LENGTH;
+        byte[] plaintexts = new byte[num * inputByteLength];
+        for (int i = 0; i < num; i++) {
+            int offset = i * inputByteLength;
+            // fold the input into the first block, i.e., s ⊕ 0
+            byte[] input = inputs[i];
+            for (int j = 0; j < input.length; j++) {
+                plaintexts[offset + j % CommonConstants.BLOCK_BYTE_LENGTH] ^= input[j];
+            }
+            // s ⊕ c for the c-th block, where c is XOR-ed into the last 4 bytes
+            for (int c = 1; c < blockNum; c++) {
+                int blockOffset = offset + c * CommonConstants.BLOCK_BYTE_LENGTH;
+                System.arraycopy(plaintexts, offset, plaintexts, blockOffset, CommonConstants.BLOCK_BYTE_LENGTH);
+                int counterOffset = blockOffset + CommonConstants.BLOCK_BYTE_LENGTH - Integer.BYTES;
+                plaintexts[counterOffset] ^= (byte) (c >>> 24);
+                plaintexts[counterOffset + 1] ^= (byte) (c >>> 16);
+                plaintexts[counterOffset + 2] ^= (byte) (c >>> 8);
+                plaintexts[counterOffset + 3] ^= (byte) c;
+            }
+        }
+        // π(x) ⊕ x
+        byte[] outputs = prp.batchPrp(plaintexts);
+        BytesUtils.xori(outputs, plaintexts);
+        int outputByteLength = getOutputByteLength();
+        if (outputByteLength != inputByteLength) {
+            byte[] truncatedOutputs = new byte[num * outputByteLength];
+            for (int i = 0; i < num; i++) {
+                System.arraycopy(outputs, i * inputByteLength, truncatedOutputs, i * outputByteLength, outputByteLength);
+            }
+            outputs = truncatedOutputs;
+        }
+        // reduce each slot to l bits
+        for (int offset = 0; offset < outputs.length; offset += byteL) {
+            outputs[offset] &= firstByteMask;
+        }
+        return outputs;
+    }
+}
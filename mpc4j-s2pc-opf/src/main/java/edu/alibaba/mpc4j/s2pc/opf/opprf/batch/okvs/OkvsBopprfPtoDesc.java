@@ -34,11 +34,7 @@ class OkvsBopprfPtoDesc implements PtoDesc {
      */
     enum PtoStep {
         /**
-         * the sender sends OKVS keys
-         */
-        SENDER_SEND_OKVS_KEYS,
-        /**
-         * the sender sends OKVS
+         * the sender sends OKVS keys and OKVS
          */
         SENDER_SEND_OKVS,
     }
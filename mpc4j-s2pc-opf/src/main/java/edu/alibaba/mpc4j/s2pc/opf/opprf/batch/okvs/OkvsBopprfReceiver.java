@@ -2,13 +2,11 @@ package edu.alibaba.mpc4j.s2pc.opf.opprf.batch.okvs;
 
 import edu.alibaba.mpc4j.common.rpc.*;
 import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
-import edu.alibaba.mpc4j.common.tool.CommonConstants;
-import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
-import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
-import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2e.Gf2eDokvs;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2e.Gf2eDokvsFactory;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2e.Gf2eDokvsFactory.Gf2eDokvsType;
+import edu.alibaba.mpc4j.s2pc.opf.opprf.OpprfBatchPrf;
 import edu.alibaba.mpc4j.s2pc.opf.opprf.batch.AbstractBopprfReceiver;
 import edu.alibaba.mpc4j.s2pc.opf.opprf.batch.okvs.OkvsBopprfPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
@@ -71,13 +69,7 @@ public class OkvsBopprfReceiver extends AbstractBopprfReceiver {
         stopWatch.reset();
         logStepInfo(PtoState.PTO_STEP, 1, 2, oprfTime, "Receiver runs OPRF");
 
-        // receive OKVS keys
-        DataPacketHeader okvsKeysHeader = new DataPacketHeader(
-            encodeTaskId, ptoDesc.getPtoId(), PtoStep.SENDER_SEND_OKVS_KEYS.ordinal(), extraInfo,
-            otherParty().getPartyId(), ownParty().getPartyId()
-        );
-        List<byte[]> okvsKeysPayload = rpc.receive(okvsKeysHeader).getPayload();
-        // receive OKVS
+        // receive OKVS keys and OKVS
         DataPacketHeader okvsHeader = new DataPacketHeader(
             encodeTaskId, ptoDesc.getPtoId(), PtoStep.SENDER_SEND_OKVS.ordinal(), extraInfo,
             otherParty().getPartyId(), ownParty().getPartyId()
@@ -85,41 +77,51 @@ public class OkvsBopprfReceiver extends AbstractBopprfReceiver {
         List<byte[]> okvsPayload = rpc.receive(okvsHeader).getPayload();
 
         stopWatch.start();
-        byte[][] outputArray = handleOkvsPayload(oprfReceiverOutput, okvsKeysPayload, okvsPayload);
+        byte[][] outputArray = handleOkvsPayload(oprfReceiverOutput, okvsPayload);
         stopWatch.stop();
         long okvsTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long okvsBinTime = stopWatch.getNanoTime() / batchSize;
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 2, 2, okvsTime, "Receiver handles OKVS");
+        logStepInfo(PtoState.PTO_STEP, 2, 2, okvsTime, "Receiver handles OKVS (" + okvsBinTime + " ns per bin)");
 
         logPhaseInfo(PtoState.PTO_END);
         return outputArray;
     }
 
-    private byte[][] handleOkvsPayload(OprfReceiverOutput oprfReceiverOutput,
-                                       List<byte[]> okvsKeysPayload, List<byte[]> okvsPayload) throws MpcAbortException {
+    private byte[][] handleOkvsPayload(OprfReceiverOutput oprfReceiverOutput, List<byte[]> okvsPayload)
+        throws MpcAbortException {
+        // the first elements are OKVS keys, and the remaining elements are the OKVS storage
+        int okvsKeyNum = Gf2eDokvsFactory.getHashKeyNum(okvsType);
+        int okvsM = Gf2eDokvsFactory.getM(envType, okvsType, pointNum);
+        MpcAbortPreconditions.checkArgument(okvsPayload.size() == okvsKeyNum + okvsM);
         // parse keys
-        MpcAbortPreconditions.checkArgument(okvsKeysPayload.size() == Gf2eDokvsFactory.getHashKeyNum(okvsType));
-        byte[][] okvsKeys = okvsKeysPayload.toArray(new byte[0][]);
-        // The PRF maps (random) inputs to {0, 1}^l, we only need to set an empty key
-        Prf prf = PrfFactory.createInstance(envType, byteL);
-        prf.setKey(new byte[CommonConstants.BLOCK_BYTE_LENGTH]);
+        byte[][] okvsKeys = okvsPayload.subList(0, okvsKeyNum).toArray(new byte[0][]);
         // parse OKVS storage
-        MpcAbortPreconditions.checkArgument(okvsPayload.size() == Gf2eDokvsFactory.getM(envType, okvsType, pointNum));
-        byte[][] okvsStorage = okvsPayload.toArray(new byte[0][]);
-        // compute PRF output
+        byte[][] okvsStorage = okvsPayload.subList(okvsKeyNum, okvsKeyNum + okvsM).toArray(new byte[0][]);
         Gf2eDokvs<ByteBuffer> okvs = Gf2eDokvsFactory.createInstance(envType, okvsType, pointNum, l, okvsKeys);
-        IntStream batchIntStream = IntStream.range(0, batchSize);
-        batchIntStream = parallel ? batchIntStream.parallel() : batchIntStream;
-        return batchIntStream
-            .mapToObj(batchIndex -> {
-                byte[] input = inputArray[batchIndex];
-                byte[] programOutput = oprfReceiverOutput.getPrf(batchIndex);
-                programOutput = prf.getBytes(programOutput);
-                BytesUtils.reduceByteArray(programOutput, l);
-                byte[] okvsOutput = okvs.decode(okvsStorage, ByteBuffer.wrap(input));
-                BytesUtils.xori(programOutput, okvsOutput);
-                return programOutput;
-            })
-            .toArray(byte[][]::new);
+        // The PRF maps (random) inputs to {0, 1}^l
+        OpprfBatchPrf prf = new OpprfBatchPrf(envType, l, 1);
+        byte[][] outputArray = new byte[batchSize][];
+        // bins are handled in chunks, and PRFs for bins in each chunk are evaluated in batch
+        int chunkNum = CommonUtils.getUnitNum(batchSize, OpprfBatchPrf.CHUNK_BIN_NUM);
+        IntStream chunkIntStream = IntStream.range(0, chunkNum);
+        chunkIntStream = parallel ? chunkIntStream.parallel() : chunkIntStream;
+        chunkIntStream.forEach(chunkIndex -> {
+            int fromBatchIndex = chunkIndex * OpprfBatchPrf.CHUNK_BIN_NUM;
+            int toBatchIndex = Math.min(fromBatchIndex + OpprfBatchPrf.CHUNK_BIN_NUM, batchSize);
+            byte[][] chunkOprfs = IntStream.range(fromBatchIndex, toBatchIndex)
+                .mapToObj(oprfReceiverOutput::getPrf)
+                .toArray(byte[][]::new);
+            byte[] chunkPrfs = prf.getBytes(chunkOprfs);
+            for (int batchIndex = fromBatchIndex; batchIndex < toBatchIndex; batchIndex++) {
+                byte[] programOutput = okvs.decode(okvsStorage, ByteBuffer.wrap(inputArray[batchIndex]));
+                int prfOffset = (batchIndex - fromBatchIndex) * byteL;
+                for (int k = 0; k < byteL; k++) {
+                    programOutput[k] ^= chunkPrfs[prfOffset + k];
+                }
+                outputArray[batchIndex] = programOutput;
+            }
+        });
+        return outputArray;
     }
 }
@@ -6,14 +6,12 @@ import edu.alibaba.mpc4j.common.rpc.PtoState;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
 import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
 import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
-import edu.alibaba.mpc4j.common.tool.CommonConstants;
-import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
-import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
 import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2e.Gf2eDokvs;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2e.Gf2eDokvsFactory;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2e.Gf2eDokvsFactory.Gf2eDokvsType;
+import edu.alibaba.mpc4j.s2pc.opf.opprf.OpprfBatchPrf;
 import edu.alibaba.mpc4j.s2pc.opf.opprf.batch.AbstractBopprfSender;
 import edu.alibaba.mpc4j.s2pc.opf.opprf.batch.okvs.OkvsBopprfPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
@@ -21,12 +19,12 @@ import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfSender;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfSenderOutput;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -81,30 +79,25 @@ public class OkvsBopprfSender extends AbstractBopprfSender {
         logStepInfo(PtoState.PTO_STEP, 1, 3, oprfTime, "Sender runs OPRF");
 
         stopWatch.start();
-        // generate OKVS keys
         byte[][] okvsKeys = BlockUtils.randomBlocks(Gf2eDokvsFactory.getHashKeyNum(okvsType), secureRandom);
-        List<byte[]> okvsKeysPayload = Arrays.stream(okvsKeys).collect(Collectors.toList());
-        DataPacketHeader okvsKeysHeader = new DataPacketHeader(
-            encodeTaskId, ptoDesc.getPtoId(), PtoStep.SENDER_SEND_OKVS_KEYS.ordinal(), extraInfo,
-            ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        rpc.send(DataPacket.fromByteArrayList(okvsKeysHeader, okvsKeysPayload));
+        List<byte[]> okvsPayload = generateOkvsPayload(oprfSenderOutput, okvsKeys);
         stopWatch.stop();
-        long okvsKeysTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long okvsTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long okvsBinTime = stopWatch.getNanoTime() / batchSize;
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 2, 3, okvsKeysTime, "Sender sends OKVS keys");
+        logStepInfo(PtoState.PTO_STEP, 2, 3, okvsTime, "Sender generates OKVS (" + okvsBinTime + " ns per bin)");
 
         stopWatch.start();
-        List<byte[]> okvsPayload = generateOkvsPayload(oprfSenderOutput, okvsKeys);
+        // OKVS keys and the OKVS storage are sent in one message
         DataPacketHeader okvsHeader = new DataPacketHeader(
             encodeTaskId, ptoDesc.getPtoId(), PtoStep.SENDER_SEND_OKVS.ordinal(), extraInfo,
             ownParty().getPartyId(), otherParty().getPartyId()
         );
         rpc.send(DataPacket.fromByteArrayList(okvsHeader, okvsPayload));
         stopWatch.stop();
-        long okvsTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long sendTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 3, 3, okvsTime, "Sender sends OKVS");
+        logStepInfo(PtoState.PTO_STEP, 3, 3, sendTime, "Sender sends OKVS");
 
         logPhaseInfo(PtoState.PTO_END);
     }
@@ -114,27 +107,38 @@ public class OkvsBopprfSender extends AbstractBopprfSender {
         okvs.setParallelEncode(parallel);
         // construct key-value map
         Map<ByteBuffer, byte[]> keyValueMap = new ConcurrentHashMap<>(pointNum);
-        // The PRF maps (random) inputs to {0, 1}^l, we only need to set an empty key
-        Prf prf = PrfFactory.createInstance(envType, byteL);
-        prf.setKey(new byte[CommonConstants.BLOCK_BYTE_LENGTH]);
+        // The PRF maps (random) inputs to {0, 1}^l
+        OpprfBatchPrf prf = new OpprfBatchPrf(envType, l, 1);
         IntStream batchIntStream = IntStream.range(0, batchSize);
         batchIntStream = parallel ? batchIntStream.parallel() : batchIntStream;
+        // bins are handled in parallel, and PRFs for points in each bin are evaluated in batch
         batchIntStream.forEach(batchIndex -> {
             byte[][] inputArray = inputArrays[batchIndex];
             byte[][] targetArray = targetArrays[batchIndex];
             assert inputArray.length == targetArray.length;
             int num = inputArray.length;
+            if (num == 0) {
+                return;
+            }
+            byte[][] inputOprfs = Arrays.stream(inputArray)
+                .map(input -> oprfSenderOutput.getPrf(batchIndex, input))
+                .toArray(byte[][]::new);
+            byte[] inputPrfs = prf.getBytes(inputOprfs);
             for (int index = 0; index < num; index++) {
-                byte[] input = inputArray[index];
                 byte[] target = targetArray[index];
-                byte[] programOutput = oprfSenderOutput.getPrf(batchIndex, input);
-                programOutput = prf.getBytes(programOutput);
-                BytesUtils.reduceByteArray(programOutput, l);
-                BytesUtils.xori(programOutput, target);
-                keyValueMap.put(ByteBuffer.wrap(input), programOutput);
+                byte[] programOutput = new byte[byteL];
+                int prfOffset = index * byteL;
+                for (int k = 0; k < byteL; k++) {
+                    programOutput[k] = (byte) (inputPrfs[prfOffset + k] ^ target[k]);
+                }
+                keyValueMap.put(ByteBuffer.wrap(inputArray[index]), programOutput);
             }
         });
         byte[][] okvsStorage = okvs.encode(keyValueMap, false);
-        return Arrays.stream(okvsStorage).collect(Collectors.toList());
+        // OKVS keys, followed by the OKVS storage
+        List<byte[]> okvsPayload = new ArrayList<>(okvsKeys.length + okvsStorage.length);
+        okvsPayload.addAll(Arrays.asList(okvsKeys));
+        okvsPayload.addAll(Arrays.asList(okvsStorage));
+        return okvsPayload;
     }
 }
@@ -28,11 +28,7 @@ class Cgs22RbopprfPtoDesc implements PtoDesc {
      */
     enum PtoStep {
         /**
-         * the sender sends garbled table keys
-         */
-        SENDER_SEND_GARBLED_TABLE_KEYS,
-        /**
-         * the sender sends the Garbled Hash Table.
+         * the sender sends garbled table keys and the Garbled Hash Table.
          */
         SENDER_SEND_GARBLED_TABLE,
     }
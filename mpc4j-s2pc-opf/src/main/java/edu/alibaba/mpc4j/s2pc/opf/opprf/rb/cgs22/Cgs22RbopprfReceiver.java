@@ -2,19 +2,18 @@ package edu.alibaba.mpc4j.s2pc.opf.opprf.rb.cgs22;
 
 import edu.alibaba.mpc4j.common.rpc.*;
 import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
-import edu.alibaba.mpc4j.common.tool.CommonConstants;
 import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
 import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory.CuckooHashBinType;
-import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.s2pc.opf.opprf.OpprfBatchPrf;
 import edu.alibaba.mpc4j.s2pc.opf.opprf.rb.AbstractRbopprfReceiver;
 import edu.alibaba.mpc4j.s2pc.opf.opprf.rb.cgs22.Cgs22RbopprfPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfReceiver;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfReceiverOutput;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
@@ -38,10 +37,6 @@ public class Cgs22RbopprfReceiver extends AbstractRbopprfReceiver {
      * d
      */
     private final int d;
-    /**
-     * h_1, ... h_d
-     */
-    private Prf[] binHashes;
 
     public Cgs22RbopprfReceiver(Rpc receiverRpc, Party senderParty, Cgs22RbopprfConfig config) {
         super(Cgs22RbopprfPtoDesc.getInstance(), receiverRpc, senderParty, config);
@@ -77,23 +72,9 @@ public class Cgs22RbopprfReceiver extends AbstractRbopprfReceiver {
         stopWatch.stop();
         long oprfTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 1, 3, oprfTime, "Receiver runs OPRF");
-
-        // receive garbled hash table keys
-        DataPacketHeader garbledTableKeysHeader = new DataPacketHeader(
-            encodeTaskId, ptoDesc.getPtoId(), PtoStep.SENDER_SEND_GARBLED_TABLE_KEYS.ordinal(), extraInfo,
-            otherParty().getPartyId(), ownParty().getPartyId()
-        );
-        List<byte[]> garbledTableKeysPayload = rpc.receive(garbledTableKeysHeader).getPayload();
-
-        stopWatch.start();
-        handleGarbledTableKeys(garbledTableKeysPayload);
-        stopWatch.stop();
-        long garbledTableKeysTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-        stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 2, 3, garbledTableKeysTime, "Receiver handles GT keys");
+        logStepInfo(PtoState.PTO_STEP, 1, 2, oprfTime, "Receiver runs OPRF");
 
-        // receive Garbled Table
+        // receive garbled table keys and the garbled table
         DataPacketHeader garbledTableHeader = new DataPacketHeader(
             encodeTaskId, ptoDesc.getPtoId(), PtoStep.SENDER_SEND_GARBLED_TABLE.ordinal(), extraInfo,
             otherParty().getPartyId(), ownParty().getPartyId()
@@ -104,55 +85,61 @@ public class Cgs22RbopprfReceiver extends AbstractRbopprfReceiver {
         byte[][][] outputArray = handleGarbledTablePayload(oprfReceiverOutput, garbledTablePayload);
         stopWatch.stop();
         long garbledTableTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long garbledTableBinTime = stopWatch.getNanoTime() / batchSize;
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 2, 2, garbledTableTime, "Receiver handles GT");
+        logStepInfo(
+            PtoState.PTO_STEP, 2, 2, garbledTableTime, "Receiver handles GT (" + garbledTableBinTime + " ns per bin)"
+        );
 
         logPhaseInfo(PtoState.PTO_END);
         return outputArray;
     }
 
-    private void handleGarbledTableKeys(List<byte[]> garbledTableKeysPayload) throws MpcAbortException {
-        // parse garbled table keys
-        MpcAbortPreconditions.checkArgument(garbledTableKeysPayload.size() == d);
-        byte[][] garbledTableKeys = garbledTableKeysPayload.toArray(new byte[0][]);
-        binHashes = Arrays.stream(garbledTableKeys)
-            .map(key -> {
-                Prf prf = PrfFactory.createInstance(envType, Integer.BYTES);
-                prf.setKey(key);
-                return prf;
-            })
-            .toArray(Prf[]::new);
-    }
-
     private byte[][][] handleGarbledTablePayload(OprfReceiverOutput oprfReceiverOutput, List<byte[]> garbledTablePayload)
         throws MpcAbortException {
-        // The PRF maps (random) inputs to {0, 1}^l, we only need to set an empty key
-        Prf prf = PrfFactory.createInstance(envType, byteL * d);
-        prf.setKey(new byte[CommonConstants.BLOCK_BYTE_LENGTH]);
+        // The PRF maps (random) inputs to d slots in {0, 1}^l
+        OpprfBatchPrf prf = new OpprfBatchPrf(envType, l, d);
         int binNum = CuckooHashBinFactory.getBinNum(cuckooHashBinType, pointNum);
-        // Interpret hint as a garbled hash table GT.
-        MpcAbortPreconditions.checkArgument(garbledTablePayload.size() == binNum);
-        byte[][] garbledTable = garbledTablePayload.toArray(new byte[0][]);
-        IntStream batchIntStream = IntStream.range(0, batchSize);
-        batchIntStream = parallel ? batchIntStream.parallel() : batchIntStream;
-        return batchIntStream
-            .mapToObj(j -> {
+        // the first d elements are garbled table keys, and the last element is the flat garbled table
+        MpcAbortPreconditions.checkArgument(garbledTablePayload.size() == d + 1);
+        Prf[] binHashes = garbledTablePayload.subList(0, d).stream()
+            .map(key -> {
+                Prf binHash = PrfFactory.createInstance(envType, Integer.BYTES);
+                binHash.setKey(key);
+                return binHash;
+            })
+            .toArray(Prf[]::new);
+        // Interpret hint as a garbled hash table GT, GT[pos] starts at pos · byteL.
+        byte[] garbledTable = garbledTablePayload.get(d);
+        MpcAbortPreconditions.checkArgument(garbledTable.length == binNum * byteL);
+        byte[][][] outputArray = new byte[batchSize][d][byteL];
+        // bins are handled in chunks in parallel, and PRFs for bins in each chunk are evaluated in batch
+        int chunkNum = CommonUtils.getUnitNum(batchSize, OpprfBatchPrf.CHUNK_BIN_NUM);
+        IntStream chunkIntStream = IntStream.range(0, chunkNum);
+        chunkIntStream = parallel ? chunkIntStream.parallel() : chunkIntStream;
+        chunkIntStream.forEach(chunkIndex -> {
+            int fromBinIndex = chunkIndex * OpprfBatchPrf.CHUNK_BIN_NUM;
+            int toBinIndex = Math.min(fromBinIndex + OpprfBatchPrf.CHUNK_BIN_NUM, batchSize);
+            // Compute f_1 || f_2 || f_3 ← F(k, x), where f_b ∈ {0,1}^l for all b ∈ [d].
+            byte[][] inputOprfs = IntStream.range(fromBinIndex, toBinIndex)
+                .mapToObj(oprfReceiverOutput::getPrf)
+                .toArray(byte[][]::new);
+            byte[] inputPrfs = prf.getBytes(inputOprfs);
+            for (int j = fromBinIndex; j < toBinIndex; j++) {
                 byte[] input = inputArray[j];
-                byte[][] prfs = new byte[d][];
-                // Compute f_1 || f_2 || f_3 ← F(k, x), where f_b ∈ {0,1}^l for all b ∈ [3].
-                byte[] inputPrf = oprfReceiverOutput.getPrf(j);
-                inputPrf = prf.getBytes(inputPrf);
                 for (int b = 0; b < d; b++) {
                     // Compute pos_b ← h_b(x) for all b ∈ [d].
                     int posb = binHashes[b].getInteger(input, binNum);
                     // Return list W = [f_b ⊕ GT[pos_b]]_{b ∈ [d]}
-                    prfs[b] = new byte[byteL];
-                    System.arraycopy(inputPrf, byteL * b, prfs[b], 0, byteL);
-                    BytesUtils.reduceByteArray(prfs[b], l);
-                    BytesUtils.xori(prfs[b], garbledTable[posb]);
+                    int prfOffset = ((j - fromBinIndex) * d + b) * byteL;
+                    int garbledTableOffset = posb * byteL;
+                    byte[] output = outputArray[j][b];
+                    for (int k = 0; k < byteL; k++) {
+                        output[k] = (byte) (inputPrfs[prfOffset + k] ^ garbledTable[garbledTableOffset + k]);
+                    }
                 }
-                return prfs;
-            })
-            .toArray(byte[][][]::new);
+            }
+        });
+        return outputArray;
     }
 }
@@ -6,14 +6,12 @@ import edu.alibaba.mpc4j.common.rpc.PtoState;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
 import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
 import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
-import edu.alibaba.mpc4j.common.tool.CommonConstants;
-import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
-import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.HashBinEntry;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBin;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory.CuckooHashBinType;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.s2pc.opf.opprf.OpprfBatchPrf;
 import edu.alibaba.mpc4j.s2pc.opf.opprf.rb.AbstractRbopprfSender;
 import edu.alibaba.mpc4j.s2pc.opf.opprf.rb.cgs22.Cgs22RbopprfPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
@@ -22,6 +20,7 @@ import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfSenderOutput;
 
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -45,14 +44,6 @@ public class Cgs22RbopprfSender extends AbstractRbopprfSender {
      * d
      */
     private final int d;
-    /**
-     * the cuckoo hash table HT
-     */
-    private CuckooHashBin<byte[]> cuckooHashTable;
-    /**
-     * h_1, ... h_d
-     */
-    private Prf[] binHashes;
 
     public Cgs22RbopprfSender(Rpc senderRpc, Party receiverParty, Cgs22RbopprfConfig config) {
         super(Cgs22RbopprfPtoDesc.getInstance(), senderRpc, receiverParty, config);
@@ -88,102 +79,99 @@ public class Cgs22RbopprfSender extends AbstractRbopprfSender {
         stopWatch.stop();
         long oprfTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 1, 2, oprfTime, "Sender runs OPRF");
+        logStepInfo(PtoState.PTO_STEP, 1, 3, oprfTime, "Sender runs OPRF");
 
         stopWatch.start();
-        // generate garbled table keys
-        List<byte[]> garbledHashTableKeysPayload = generateGarbledTableKeyPayload();
-        DataPacketHeader garbledHashTableKeysHeader = new DataPacketHeader(
-            encodeTaskId, ptoDesc.getPtoId(), PtoStep.SENDER_SEND_GARBLED_TABLE_KEYS.ordinal(), extraInfo,
-            ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        rpc.send(DataPacket.fromByteArrayList(garbledHashTableKeysHeader, garbledHashTableKeysPayload));
+        List<byte[]> garbledTablePayload = generateGarbledTablePayload(oprfSenderOutput);
         stopWatch.stop();
-        long garbledHashTableKeysTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long garbledTableTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long garbledTableBinTime = stopWatch.getNanoTime() / batchSize;
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 2, 3, garbledHashTableKeysTime, "Sender sends GT keys");
+        logStepInfo(
+            PtoState.PTO_STEP, 2, 3, garbledTableTime, "Sender generates GT (" + garbledTableBinTime + " ns per bin)"
+        );
 
         stopWatch.start();
-        // generate garbled table
-        List<byte[]> garbledTablePayload = generateGarbledTablePayload(oprfSenderOutput);
+        // garbled table keys and the garbled table are sent in one message
         DataPacketHeader garbledTableHeader = new DataPacketHeader(
             encodeTaskId, ptoDesc.getPtoId(), PtoStep.SENDER_SEND_GARBLED_TABLE.ordinal(), extraInfo,
             ownParty().getPartyId(), otherParty().getPartyId()
         );
         rpc.send(DataPacket.fromByteArrayList(garbledTableHeader, garbledTablePayload));
         stopWatch.stop();
-        long garbledTableTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long sendTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 3, 3, garbledTableTime, "Sender sends GT");
+        logStepInfo(PtoState.PTO_STEP, 3, 3, sendTime, "Sender sends GT");
 
         logPhaseInfo(PtoState.PTO_END);
     }
 
-    private List<byte[]> generateGarbledTableKeyPayload() {
+    private List<byte[]> generateGarbledTablePayload(OprfSenderOutput oprfSenderOutput) {
         // set the target points
         List<byte[]> inputs = Arrays.stream(inputArrays)
             .flatMap(Arrays::stream)
             .collect(Collectors.toList());
-        cuckooHashTable = CuckooHashBinFactory.createEnforceNoStashCuckooHashBin(
+        CuckooHashBin<byte[]> cuckooHashTable = CuckooHashBinFactory.createEnforceNoStashCuckooHashBin(
             envType, cuckooHashBinType, pointNum, inputs, secureRandom
         );
-        // init bin hashes
-        byte[][] hashKeys = cuckooHashTable.getHashKeys();
-        binHashes = Arrays.stream(cuckooHashTable.getHashKeys())
-            .map(key -> {
-                Prf prf = PrfFactory.createInstance(envType, Integer.BYTES);
-                prf.setKey(key);
-                return prf;
-            })
-            .toArray(Prf[]::new);
-        return Arrays.stream(hashKeys).collect(Collectors.toList());
-    }
-
-    private List<byte[]> generateGarbledTablePayload(OprfSenderOutput oprfSenderOutput) {
+        byte[][] garbledTableKeys = cuckooHashTable.getHashKeys();
         int binNum = cuckooHashTable.binNum();
         // Let E be a mapping that maps elements to the index of the hash function that was eventually used to
-        // insert that element into HT, i.e., E(X_j(i)) = idx such that HT[h_{idx}(X_j(i))] = X_j(i).
-        Map<ByteBuffer, Integer> eMap = new HashMap<>(pointNum);
-        IntStream.range(0, binNum).forEach(binIndex -> {
+        // insert that element into HT, i.e., E(X_j(i)) = idx such that HT[h_{idx}(X_j(i))] = X_j(i). Here we directly
+        // record pos = h_{idx}(X_j(i)) so that we do not need to evaluate h_{idx} again, and read idx from HT[pos].
+        Map<ByteBuffer, Integer> posMap = new ConcurrentHashMap<>(pointNum);
+        IntStream binIndexStream = IntStream.range(0, binNum);
+        binIndexStream = parallel ? binIndexStream.parallel() : binIndexStream;
+        binIndexStream.forEach(binIndex -> {
             HashBinEntry<byte[]> binEntry = cuckooHashTable.getHashBinEntry(binIndex);
             if (binEntry != null) {
-                eMap.put(ByteBuffer.wrap(binEntry.getItem()), binEntry.getHashIndex());
+                posMap.put(ByteBuffer.wrap(binEntry.getItem()), binIndex);
             }
         });
-        cuckooHashTable = null;
-        byte[][] garbledTable = new byte[binNum][];
-        // The PRF maps (random) inputs to {0, 1}^l, we only need to set an empty key
-        Prf prf = PrfFactory.createInstance(envType, byteL * d);
-        prf.setKey(new byte[CommonConstants.BLOCK_BYTE_LENGTH]);
+        // GT is stored in a flat buffer, GT[pos] starts at pos · byteL
+        byte[] garbledTable = new byte[binNum * byteL];
+        boolean[] programmed = new boolean[binNum];
+        // The PRF maps (random) inputs to d slots in {0, 1}^l
+        OpprfBatchPrf prf = new OpprfBatchPrf(envType, l, d);
         IntStream batchIntStream = IntStream.range(0, batchSize);
         batchIntStream = parallel ? batchIntStream.parallel() : batchIntStream;
-        // for j ∈ [β] do
+        // for j ∈ [β] do, bins are handled in parallel, and PRFs for points in each bin are evaluated in batch
         batchIntStream.forEach(j -> {
             byte[][] inputArray = inputArrays[j];
             byte[][] targetArray = targetArrays[j];
+            if (inputArray.length == 0) {
+                return;
+            }
+            // Compute f_1 || f_2 || f_3 ← F(k_j, X_j(i)) for all i ∈ [|Xj|], where f_b ∈ {0,1}^l for all b ∈ [d].
+            byte[][] inputOprfs = Arrays.stream(inputArray)
+                .map(input -> oprfSenderOutput.getPrf(j, input))
+                .toArray(byte[][]::new);
+            byte[] inputPrfs = prf.getBytes(inputOprfs);
             // for i ∈ [|Xj|] do
             for (int i = 0; i < inputArray.length; i++) {
-                byte[] input = inputArray[i];
                 byte[] target = targetArray[i];
-                // Compute f_1 || f_2 || f_3 ← F(k_j, X_j(i)), where f_b ∈ {0,1}^l for all b ∈ [d].
-                byte[] inputPrf = oprfSenderOutput.getPrf(j, input);
-                inputPrf = prf.getBytes(inputPrf);
                 // For idx ← E(X_j(i)), and pos ← h_{idx}(X_j(i)), set GT[pos] ← f_{idx} ⊕ T_j(i).
-                int idx = eMap.get(ByteBuffer.wrap(input));
-                int pos = binHashes[idx].getInteger(input, binNum);
-                garbledTable[pos] = new byte[byteL];
-                System.arraycopy(inputPrf, idx * byteL, garbledTable[pos], 0, byteL);
-                BytesUtils.reduceByteArray(garbledTable[pos], l);
-                BytesUtils.xori(garbledTable[pos], target);
+                int pos = posMap.get(ByteBuffer.wrap(inputArray[i]));
+                int idx = cuckooHashTable.getHashBinEntry(pos).getHashIndex();
+                int garbledTableOffset = pos * byteL;
+                int prfOffset = (i * d + idx) * byteL;
+                for (int k = 0; k < byteL; k++) {
+                    garbledTable[garbledTableOffset + k] = (byte) (inputPrfs[prfOffset + k] ^ target[k]);
+                }
+                programmed[pos] = true;
             }
         });
-        binHashes = null;
         // For every empty bin i in GT, pick r_i ← {0,1}^l and set GT[i] ← r_i.
-        for (int i = 0; i < garbledTable.length; i++) {
-            if (garbledTable[i] == null) {
-                garbledTable[i] = BytesUtils.randomByteArray(byteL, l, secureRandom);
+        for (int i = 0; i < binNum; i++) {
+            if (!programmed[i]) {
+                byte[] random = BytesUtils.randomByteArray(byteL, l, secureRandom);
+                System.arraycopy(random, 0, garbledTable, i * byteL, byteL);
             }
         }
-        return Arrays.stream(garbledTable).collect(Collectors.toList());
+        // garbled table keys, followed by the flat garbled table
+        List<byte[]> garbledTablePayload = new ArrayList<>(d + 1);
+        garbledTablePayload.addAll(Arrays.asList(garbledTableKeys));
+        garbledTablePayload.add(garbledTable);
+        return garbledTablePayload;
     }
 }
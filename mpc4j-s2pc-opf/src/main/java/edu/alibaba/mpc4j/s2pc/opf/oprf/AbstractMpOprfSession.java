@@ -0,0 +1,161 @@
+package edu.alibaba.mpc4j.s2pc.opf.oprf;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.util.concurrent.*;
+
+/**
+ * abstract MP-OPRF session. The session tracks the max batch size and the number of invocations of the live session,
+ * and runs precomputation of the next invocation on a background thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+abstract class AbstractMpOprfSession {
+    /**
+     * session policy
+     */
+    protected final MpOprfSessionPolicy policy;
+    /**
+     * max batch size of the live session, 0 if the session is not initialized
+     */
+    private int sessionMaxBatchSize;
+    /**
+     * number of invocations in the live session
+     */
+    private int sessionOprfNum;
+    /**
+     * whether the live session is requested to be reset
+     */
+    private boolean resetRequested;
+    /**
+     * executor for precomputation, created on demand
+     */
+    private ExecutorService precomputeExecutor;
+    /**
+     * pending precomputation, null if there is no pending precomputation
+     */
+    private Future<Void> precomputeFuture;
+
+    protected AbstractMpOprfSession(MpOprfSessionPolicy policy) {
+        this.policy = policy;
+        sessionMaxBatchSize = 0;
+        sessionOprfNum = 0;
+        resetRequested = false;
+    }
+
+    /**
+     * Returns whether the live session needs to be reset before the next invocation.
+     *
+     * @return whether the live session needs to be reset.
+     */
+    protected boolean requireReset() {
+        return sessionMaxBatchSize > 0 && (resetRequested || sessionOprfNum >= policy.getMaxOprfNum());
+    }
+
+    /**
+     * Starts a new session after the MP-OPRF is initialized.
+     *
+     * @param maxBatchSize max batch size.
+     */
+    protected void startSession(int maxBatchSize) {
+        sessionMaxBatchSize = maxBatchSize;
+        sessionOprfNum = 0;
+        resetRequested = false;
+    }
+
+    /**
+     * Records an invocation, and schedules the precomputation of the next invocation if the policy asks for it and the
+     * next invocation does not reset the session.
+     *
+     * @param precomputeTask precomputation task, null if the MP-OPRF does not support precomputation.
+     */
+    protected void finishOprf(Callable<Void> precomputeTask) {
+        sessionOprfNum++;
+        if (precomputeTask != null && policy.isPrecompute() && !requireReset()) {
+            if (precomputeExecutor == null) {
+                precomputeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "mp-oprf-precompute");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            precomputeFuture = precomputeExecutor.submit(precomputeTask);
+        }
+    }
+
+    /**
+     * Waits for the pending precomputation.
+     *
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    protected void awaitPrecompute() throws MpcAbortException {
+        if (precomputeFuture == null) {
+            return;
+        }
+        try {
+            precomputeFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MpcAbortException("Interrupted while waiting for precomputation", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MpcAbortException) {
+                throw (MpcAbortException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        } finally {
+            precomputeFuture = null;
+        }
+    }
+
+    /**
+     * Returns whether the session is initialized.
+     *
+     * @return whether the session is initialized.
+     */
+    public boolean isInitialized() {
+        return sessionMaxBatchSize > 0;
+    }
+
+    /**
+     * Gets the max batch size of the live session.
+     *
+     * @return max batch size of the live session, 0 if the session is not initialized.
+     */
+    public int getSessionMaxBatchSize() {
+        return sessionMaxBatchSize;
+    }
+
+    /**
+     * Gets the number of invocations in the live session.
+     *
+     * @return number of invocations in the live session.
+     */
+    public int getSessionOprfNum() {
+        return sessionOprfNum;
+    }
+
+    /**
+     * Requests to reset the live session, so that the next invocation runs on a fresh MP-OPRF. Both parties must
+     * request at the same point.
+     */
+    public void reset() {
+        resetRequested = true;
+    }
+
+    /**
+     * Stops the precomputation thread. MP-OPRFs replaced by resets are destroyed by the session, while the current
+     * MP-OPRF is destroyed by its owner.
+     */
+    public void destroy() {
+        if (precomputeExecutor != null) {
+            precomputeExecutor.shutdownNow();
+            precomputeExecutor = null;
+        }
+        precomputeFuture = null;
+    }
+}
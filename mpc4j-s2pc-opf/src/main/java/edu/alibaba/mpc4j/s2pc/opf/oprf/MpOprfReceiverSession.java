@@ -0,0 +1,129 @@
+package edu.alibaba.mpc4j.s2pc.opf.oprf;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * MP-OPRF receiver session. The session runs many invocations, e.g., repeated PSI between the same two parties, on one
+ * initialized MP-OPRF receiver so that the base OT / VOLE states are set up once. When the session policy asks for a
+ * reset, the session destroys the MP-OPRF receiver and initializes a fresh one from the renewer, since a protocol can
+ * only be initialized once. If the MP-OPRF supports precomputation, the correlations of the next invocation can be
+ * computed in the background right after an invocation, while the caller processes the output. The sender must use
+ * {@link MpOprfSenderSession} with the same policy and the same sequence of calls.
+ * <p></p>
+ * A session created from an MP-OPRF config owns its MP-OPRF receiver as a root protocol, and can be shared by many
+ * protocol instances, e.g., set into many mp-OPRF-based PSI instances, so that it outlives each of them. The task ID
+ * and the parallel flag of the owned MP-OPRF receiver should be set via {@link #getMpOprfReceiver()} before the
+ * session is initialized, and are kept when the session is reset.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public class MpOprfReceiverSession extends AbstractMpOprfSession {
+    /**
+     * renewer that takes the destroyed MP-OPRF receiver and returns a fresh one
+     */
+    private final UnaryOperator<MpOprfReceiver> mpOprfReceiverRenewer;
+    /**
+     * current MP-OPRF receiver
+     */
+    private MpOprfReceiver mpOprfReceiver;
+    /**
+     * whether the session owns the MP-OPRF receiver
+     */
+    private final boolean ownMpOprfReceiver;
+
+    /**
+     * Creates a session.
+     *
+     * @param mpOprfReceiver        the MP-OPRF receiver, not initialized.
+     * @param mpOprfReceiverRenewer renewer that takes the destroyed MP-OPRF receiver and returns a fresh one with the same
+     *                              config and task ID.
+     * @param policy                session policy.
+     */
+    public MpOprfReceiverSession(MpOprfReceiver mpOprfReceiver, UnaryOperator<MpOprfReceiver> mpOprfReceiverRenewer,
+                                 MpOprfSessionPolicy policy) {
+        super(policy);
+        this.mpOprfReceiver = mpOprfReceiver;
+        this.mpOprfReceiverRenewer = mpOprfReceiverRenewer;
+        ownMpOprfReceiver = false;
+    }
+
+    /**
+     * Creates a session that owns its MP-OPRF receiver. The session can be shared by many protocol instances.
+     *
+     * @param receiverRpc receiver RPC.
+     * @param senderParty sender party.
+     * @param config      MP-OPRF config.
+     * @param policy      session policy.
+     */
+    public MpOprfReceiverSession(Rpc receiverRpc, Party senderParty, MpOprfConfig config, MpOprfSessionPolicy policy) {
+        super(policy);
+        mpOprfReceiver = OprfFactory.createMpOprfReceiver(receiverRpc, senderParty, config);
+        mpOprfReceiverRenewer = destroyedMpOprfReceiver -> {
+            MpOprfReceiver freshMpOprfReceiver = OprfFactory.createMpOprfReceiver(receiverRpc, senderParty, config);
+            freshMpOprfReceiver.setTaskId(destroyedMpOprfReceiver.getTaskId());
+            freshMpOprfReceiver.setParallel(destroyedMpOprfReceiver.getParallel());
+            return freshMpOprfReceiver;
+        };
+        ownMpOprfReceiver = true;
+    }
+
+    /**
+     * Inits the session.
+     *
+     * @param maxBatchSize max batch size.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public void init(int maxBatchSize) throws MpcAbortException {
+        mpOprfReceiver.init(maxBatchSize);
+        startSession(maxBatchSize);
+    }
+
+    /**
+     * Executes the MP-OPRF in the live session, resets the session before the invocation if required.
+     *
+     * @param inputs inputs.
+     * @return receiver output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public MpOprfReceiverOutput oprf(byte[][] inputs) throws MpcAbortException {
+        awaitPrecompute();
+        if (requireReset()) {
+            int maxBatchSize = getSessionMaxBatchSize();
+            mpOprfReceiver.destroy();
+            mpOprfReceiver = mpOprfReceiverRenewer.apply(mpOprfReceiver);
+            init(maxBatchSize);
+        }
+        MpOprfReceiverOutput receiverOutput = mpOprfReceiver.oprf(inputs);
+        if (mpOprfReceiver instanceof PrecomputeMpOprfReceiver precomputeMpOprfReceiver) {
+            finishOprf(() -> {
+                precomputeMpOprfReceiver.precompute();
+                return null;
+            });
+        } else {
+            finishOprf(null);
+        }
+        return receiverOutput;
+    }
+
+    /**
+     * Gets the current MP-OPRF receiver.
+     *
+     * @return the current MP-OPRF receiver.
+     */
+    public MpOprfReceiver getMpOprfReceiver() {
+        return mpOprfReceiver;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (ownMpOprfReceiver) {
+            mpOprfReceiver.destroy();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package edu.alibaba.mpc4j.s2pc.opf.oprf;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * MP-OPRF sender session. The session runs many invocations, e.g., repeated PSI between the same two parties, on one
+ * initialized MP-OPRF sender so that the base OT / VOLE states are set up once. When the session policy asks for a
+ * reset, the session destroys the MP-OPRF sender and initializes a fresh one from the renewer, since a protocol can
+ * only be initialized once. If the MP-OPRF supports precomputation, the correlations of the next invocation can be
+ * computed in the background right after an invocation, while the caller processes the output. The receiver must use
+ * {@link MpOprfReceiverSession} with the same policy and the same sequence of calls.
+ * <p></p>
+ * A session created from an MP-OPRF config owns its MP-OPRF sender as a root protocol, and can be shared by many
+ * protocol instances, e.g., set into many mp-OPRF-based PSI instances, so that it outlives each of them. The task ID
+ * and the parallel flag of the owned MP-OPRF sender should be set via {@link #getMpOprfSender()} before the session is
+ * initialized, and are kept when the session is reset.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public class MpOprfSenderSession extends AbstractMpOprfSession {
+    /**
+     * renewer that takes the destroyed MP-OPRF sender and returns a fresh one
+     */
+    private final UnaryOperator<MpOprfSender> mpOprfSenderRenewer;
+    /**
+     * current MP-OPRF sender
+     */
+    private MpOprfSender mpOprfSender;
+    /**
+     * whether the session owns the MP-OPRF sender
+     */
+    private final boolean ownMpOprfSender;
+
+    /**
+     * Creates a session.
+     *
+     * @param mpOprfSender        the MP-OPRF sender, not initialized.
+     * @param mpOprfSenderRenewer renewer that takes the destroyed MP-OPRF sender and returns a fresh one with the same
+     *                            config and task ID.
+     * @param policy              session policy.
+     */
+    public MpOprfSenderSession(MpOprfSender mpOprfSender, UnaryOperator<MpOprfSender> mpOprfSenderRenewer,
+                               MpOprfSessionPolicy policy) {
+        super(policy);
+        this.mpOprfSender = mpOprfSender;
+        this.mpOprfSenderRenewer = mpOprfSenderRenewer;
+        ownMpOprfSender = false;
+    }
+
+    /**
+     * Creates a session that owns its MP-OPRF sender. The session can be shared by many protocol instances.
+     *
+     * @param senderRpc     sender RPC.
+     * @param receiverParty receiver party.
+     * @param config        MP-OPRF config.
+     * @param policy        session policy.
+     */
+    public MpOprfSenderSession(Rpc senderRpc, Party receiverParty, MpOprfConfig config, MpOprfSessionPolicy policy) {
+        super(policy);
+        mpOprfSender = OprfFactory.createMpOprfSender(senderRpc, receiverParty, config);
+        mpOprfSenderRenewer = destroyedMpOprfSender -> {
+            MpOprfSender freshMpOprfSender = OprfFactory.createMpOprfSender(senderRpc, receiverParty, config);
+            freshMpOprfSender.setTaskId(destroyedMpOprfSender.getTaskId());
+            freshMpOprfSender.setParallel(destroyedMpOprfSender.getParallel());
+            return freshMpOprfSender;
+        };
+        ownMpOprfSender = true;
+    }
+
+    /**
+     * Inits the session.
+     *
+     * @param maxBatchSize max batch size.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public void init(int maxBatchSize) throws MpcAbortException {
+        mpOprfSender.init(maxBatchSize);
+        startSession(maxBatchSize);
+    }
+
+    /**
+     * Executes the MP-OPRF in the live session, resets the session before the invocation if required.
+     *
+     * @param batchSize batch size.
+     * @return sender output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public MpOprfSenderOutput oprf(int batchSize) throws MpcAbortException {
+        awaitPrecompute();
+        if (requireReset()) {
+            int maxBatchSize = getSessionMaxBatchSize();
+            mpOprfSender.destroy();
+            mpOprfSender = mpOprfSenderRenewer.apply(mpOprfSender);
+            init(maxBatchSize);
+        }
+        MpOprfSenderOutput senderOutput = mpOprfSender.oprf(batchSize);
+        if (mpOprfSender instanceof PrecomputeMpOprfSender precomputeMpOprfSender) {
+            finishOprf(() -> {
+                precomputeMpOprfSender.precompute();
+                return null;
+            });
+        } else {
+            finishOprf(null);
+        }
+        return senderOutput;
+    }
+
+    /**
+     * Gets the current MP-OPRF sender.
+     *
+     * @return the current MP-OPRF sender.
+     */
+    public MpOprfSender getMpOprfSender() {
+        return mpOprfSender;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (ownMpOprfSender) {
+            mpOprfSender.destroy();
+        }
+    }
+}
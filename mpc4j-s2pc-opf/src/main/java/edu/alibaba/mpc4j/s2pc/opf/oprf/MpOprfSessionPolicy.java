@@ -0,0 +1,69 @@
+package edu.alibaba.mpc4j.s2pc.opf.oprf;
+
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+
+/**
+ * MP-OPRF session policy. A session keeps the base OT / VOLE states of an MP-OPRF alive across invocations, and the
+ * policy decides when the session is reset, i.e., when a fresh MP-OPRF is initialized, and whether the correlations of
+ * the next invocation are precomputed. Both parties must use the same policy, since all decisions only depend on the
+ * policy and the number of invocations, which are known by both parties.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public class MpOprfSessionPolicy {
+    /**
+     * max number of invocations in a session, the session is reset before the next invocation if it is reached
+     */
+    private final int maxOprfNum;
+    /**
+     * whether to precompute correlations for the next invocation in the background
+     */
+    private final boolean precompute;
+
+    private MpOprfSessionPolicy(Builder builder) {
+        maxOprfNum = builder.maxOprfNum;
+        precompute = builder.precompute;
+    }
+
+    public int getMaxOprfNum() {
+        return maxOprfNum;
+    }
+
+    public boolean isPrecompute() {
+        return precompute;
+    }
+
+    public static class Builder implements org.apache.commons.lang3.builder.Builder<MpOprfSessionPolicy> {
+        /**
+         * max number of invocations in a session
+         */
+        private int maxOprfNum;
+        /**
+         * whether to precompute correlations
+         */
+        private boolean precompute;
+
+        public Builder() {
+            // by default, the session is never reset and does not precompute
+            maxOprfNum = Integer.MAX_VALUE;
+            precompute = false;
+        }
+
+        public Builder setMaxOprfNum(int maxOprfNum) {
+            MathPreconditions.checkPositive("maxOprfNum", maxOprfNum);
+            this.maxOprfNum = maxOprfNum;
+            return this;
+        }
+
+        public Builder setPrecompute(boolean precompute) {
+            this.precompute = precompute;
+            return this;
+        }
+
+        @Override
+        public MpOprfSessionPolicy build() {
+            return new MpOprfSessionPolicy(this);
+        }
+    }
+}
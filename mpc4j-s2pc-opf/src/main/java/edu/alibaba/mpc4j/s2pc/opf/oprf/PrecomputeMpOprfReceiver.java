@@ -0,0 +1,20 @@
+package edu.alibaba.mpc4j.s2pc.opf.oprf;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+/**
+ * MP-OPRF receiver that can precompute the input-independent correlations (e.g., VOLE) of the next invocation. The
+ * precomputed correlations are consumed by the next {@link #oprf(byte[][])} and discarded by re-initialization. The
+ * sender must invoke {@link PrecomputeMpOprfSender#precompute()} at the same point.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public interface PrecomputeMpOprfReceiver extends MpOprfReceiver {
+    /**
+     * Precomputes correlations for the next invocation.
+     *
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    void precompute() throws MpcAbortException;
+}
@@ -1,7 +1,9 @@
 package edu.alibaba.mpc4j.s2pc.opf.oprf.rs21;
 
+import com.google.common.base.Preconditions;
 import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
 import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
+import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvsFactory;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvsFactory.Gf2kDokvsType;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfConfig;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
@@ -24,11 +26,21 @@ public class Rs21MpOprfConfig extends AbstractMultiPartyPtoConfig implements MpO
      * GF2K-OKVS type
      */
     private final Gf2kDokvsType okvsType;
+    /**
+     * whether to pipeline OKVS encoding and transmission bin by bin. The receiver sends the masked storage of each bin
+     * as soon as it is encoded, and the sender handles each bin as soon as it arrives. Requires a cluster OKVS.
+     */
+    private final boolean pipeline;
 
     private Rs21MpOprfConfig(Builder builder) {
         super(SecurityModel.MALICIOUS, builder.ncVoleConfig);
+        Preconditions.checkArgument(
+            !builder.pipeline || Gf2kDokvsFactory.isCluster(builder.okvsType),
+            "pipeline requires cluster OKVS: %s", builder.okvsType
+        );
         ncVoleConfig = builder.ncVoleConfig;
         okvsType = builder.okvsType;
+        pipeline = builder.pipeline;
     }
 
     public Gf2kNcVoleConfig getNcVoleConfig() {
@@ -39,6 +51,10 @@ public class Rs21MpOprfConfig extends AbstractMultiPartyPtoConfig implements MpO
         return okvsType;
     }
 
+    public boolean isPipeline() {
+        return pipeline;
+    }
+
     @Override
     public OprfType getPtoType() {
         return OprfFactory.OprfType.RS21;
@@ -53,10 +69,15 @@ public class Rs21MpOprfConfig extends AbstractMultiPartyPtoConfig implements MpO
          * GF2K-OKVS type
          */
         private Gf2kDokvsType okvsType;
+        /**
+         * whether to pipeline OKVS encoding and transmission bin by bin
+         */
+        private boolean pipeline;
 
         public Builder(SecurityModel securityModel) {
             ncVoleConfig = Gf2kNcVoleFactory.createDefaultConfig(securityModel);
             okvsType = Gf2kDokvsType.H3_CLUSTER_FIELD_BLAZE_GCT;
+            pipeline = false;
         }
 
         public Builder setNcVoleConfig(Gf2kNcVoleConfig ncVoleConfig) {
@@ -69,6 +90,11 @@ public class Rs21MpOprfConfig extends AbstractMultiPartyPtoConfig implements MpO
             return this;
         }
 
+        public Builder setPipeline(boolean pipeline) {
+            this.pipeline = pipeline;
+            return this;
+        }
+
         @Override
         public Rs21MpOprfConfig build() {
             return new Rs21MpOprfConfig(this);
@@ -35,6 +35,10 @@ class Rs21MpOprfPtoDesc implements PtoDesc {
          * receiver sends OKVS, including key (r) and masked OKVS storage (P + A'), with w^r
          */
         RECEIVER_SEND_OKVS_WR,
+        /**
+         * receiver sends masked OKVS storage of a bin, only in the pipeline mode
+         */
+        RECEIVER_SEND_OKVS_BIN,
         /**
          * sender sends w^s
          */
@@ -10,11 +10,13 @@ import edu.alibaba.mpc4j.common.tool.galoisfield.gf2k.Gf2k;
 import edu.alibaba.mpc4j.common.tool.galoisfield.gf2k.Gf2kFactory;
 import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.ClusterGf2kDokvs;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvs;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvsFactory;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvsFactory.Gf2kDokvsType;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.AbstractMpOprfReceiver;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfReceiverOutput;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.PrecomputeMpOprfReceiver;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.rs21.Rs21MpOprfPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.pcg.vole.gf2k.Gf2kVoleSenderOutput;
 import edu.alibaba.mpc4j.s2pc.pcg.vole.gf2k.nc.Gf2kNcVoleFactory;
@@ -22,6 +24,8 @@ import edu.alibaba.mpc4j.s2pc.pcg.vole.gf2k.nc.Gf2kNcVoleSender;
 
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -33,7 +37,7 @@ import java.util.stream.Stream;
  * @author Weiran Liu
  * @date 2023/7/27
  */
-public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
+public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver implements PrecomputeMpOprfReceiver {
     /**
      * GF2K-NC-VOLE sender
      */
@@ -42,6 +46,10 @@ public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
      * OKVS type
      */
     private final Gf2kDokvsType okvsType;
+    /**
+     * whether to pipeline OKVS encoding and transmission bin by bin
+     */
+    private final boolean pipeline;
     /**
      * OKVS key num
      */
@@ -54,12 +62,17 @@ public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
      * H^F: {0,1}^* → {0,1}^λ
      */
     private final Prf hf;
+    /**
+     * precomputed GF2K-VOLE sender output, null if not precomputed
+     */
+    private Gf2kVoleSenderOutput precomputedVoleSenderOutput;
 
     public Rs21MpOprfReceiver(Rpc receiverRpc, Party senderParty, Rs21MpOprfConfig config) {
         super(Rs21MpOprfPtoDesc.getInstance(), receiverRpc, senderParty, config);
         gf2kNcVoleSender = Gf2kNcVoleFactory.createSender(receiverRpc, senderParty, config.getNcVoleConfig());
         addSubPto(gf2kNcVoleSender);
         okvsType = config.getOkvsType();
+        pipeline = config.isPipeline();
         okvsKeyNum = Gf2kDokvsFactory.getHashKeyNum(okvsType);
         gf2k = Gf2kFactory.createInstance(envType);
         hf = PrfFactory.createInstance(envType, gf2k.getByteL());
@@ -74,6 +87,7 @@ public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
         stopWatch.start();
         int maxM = Gf2kDokvsFactory.getM(envType, okvsType, maxBatchSize);
         gf2kNcVoleSender.init(maxM);
+        precomputedVoleSenderOutput = null;
         stopWatch.stop();
         long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -82,6 +96,22 @@ public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
         logPhaseInfo(PtoState.INIT_END);
     }
 
+    @Override
+    public void precompute() throws MpcAbortException {
+        checkInitialized();
+        logPhaseInfo(PtoState.PTO_BEGIN, "precompute");
+
+        stopWatch.start();
+        // VOLE does not depend on inputs, so that it can be executed before the next invocation
+        precomputedVoleSenderOutput = gf2kNcVoleSender.send();
+        stopWatch.stop();
+        long voleTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 1, voleTime, "Receiver precomputes VOLE");
+
+        logPhaseInfo(PtoState.PTO_END, "precompute");
+    }
+
     @Override
     public MpOprfReceiverOutput oprf(byte[][] inputs) throws MpcAbortException {
         setPtoInput(inputs);
@@ -101,7 +131,28 @@ public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
             envType, okvsType, batchSize, okvsKeys
         );
         gf2kOkvs.setParallelEncode(parallel);
-        byte[][] vectorA = gf2kOkvs.encode(keyValueMap, true);
+        // in the pipeline mode, bins are encoded in the background (if parallel) or on demand when sending
+        byte[][] vectorA;
+        List<Map<ByteBuffer, byte[]>> binKeyValueMaps;
+        List<CompletableFuture<byte[][]>> binVectorAFutures;
+        if (pipeline) {
+            ClusterGf2kDokvs<ByteBuffer> clusterOkvs = (ClusterGf2kDokvs<ByteBuffer>) gf2kOkvs;
+            vectorA = null;
+            binKeyValueMaps = splitBins(clusterOkvs, keyValueMap);
+            if (parallel) {
+                binVectorAFutures = IntStream.range(0, clusterOkvs.getBinNum())
+                    .mapToObj(binIndex -> CompletableFuture.supplyAsync(() ->
+                        clusterOkvs.encodeBin(binIndex, binKeyValueMaps.get(binIndex), true)
+                    ))
+                    .collect(Collectors.toList());
+            } else {
+                binVectorAFutures = null;
+            }
+        } else {
+            vectorA = gf2kOkvs.encode(keyValueMap, true);
+            binKeyValueMaps = null;
+            binVectorAFutures = null;
+        }
         stopWatch.stop();
         long okvsTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -117,7 +168,9 @@ public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
         stopWatch.start();
         // the Receiver sends (receiver, sid) to F_{vole} with dimension m and |F| ≈ 2^κ, where m is the size of OKVS
         int m = Gf2kDokvsFactory.getM(envType, okvsType, batchSize);
-        Gf2kVoleSenderOutput gf2kVoleSenderOutput = gf2kNcVoleSender.send();
+        Gf2kVoleSenderOutput gf2kVoleSenderOutput = precomputedVoleSenderOutput == null
+            ? gf2kNcVoleSender.send() : precomputedVoleSenderOutput;
+        precomputedVoleSenderOutput = null;
         gf2kVoleSenderOutput.reduce(m);
         stopWatch.stop();
         long voleTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -126,16 +179,33 @@ public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
 
         stopWatch.start();
         // The Receiver sends r, w^r, A := P + A' to the Sender
-        IntStream.range(0, m).forEach(mIndex -> gf2k.addi(vectorA[mIndex], gf2kVoleSenderOutput.getX(mIndex)));
         List<byte[]> okvsWrPayload = new LinkedList<>();
         okvsWrPayload.add(wr);
         IntStream.range(0, okvsKeyNum).forEach(okvsKeyIndex -> okvsWrPayload.add(okvsKeys[okvsKeyIndex]));
-        IntStream.range(0, m).forEach(mIndex -> okvsWrPayload.add(vectorA[mIndex]));
+        if (!pipeline) {
+            IntStream.range(0, m).forEach(mIndex -> gf2k.addi(vectorA[mIndex], gf2kVoleSenderOutput.getX(mIndex)));
+            IntStream.range(0, m).forEach(mIndex -> okvsWrPayload.add(vectorA[mIndex]));
+        }
         DataPacketHeader okvsWrHeader = new DataPacketHeader(
             encodeTaskId, getPtoDesc().getPtoId(), PtoStep.RECEIVER_SEND_OKVS_WR.ordinal(), extraInfo,
             ownParty().getPartyId(), otherParty().getPartyId()
         );
         rpc.send(DataPacket.fromByteArrayList(okvsWrHeader, okvsWrPayload));
+        if (pipeline) {
+            // A is sent bin by bin, each bin is sent as soon as it is encoded
+            ClusterGf2kDokvs<ByteBuffer> clusterOkvs = (ClusterGf2kDokvs<ByteBuffer>) gf2kOkvs;
+            int binM = clusterOkvs.getBinM();
+            for (int binIndex = 0; binIndex < clusterOkvs.getBinNum(); binIndex++) {
+                byte[][] binVectorA = parallel
+                    ? binVectorAFutures.get(binIndex).join()
+                    : clusterOkvs.encodeBin(binIndex, binKeyValueMaps.get(binIndex), true);
+                int offset = binIndex * binM;
+                IntStream.range(0, binM).forEach(binMIndex ->
+                    gf2k.addi(binVectorA[binMIndex], gf2kVoleSenderOutput.getX(offset + binMIndex))
+                );
+                sendOtherPartyPayload(PtoStep.RECEIVER_SEND_OKVS_BIN.ordinal(), Arrays.asList(binVectorA));
+            }
+        }
         stopWatch.stop();
         long vectorTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -180,4 +250,17 @@ public class Rs21MpOprfReceiver extends AbstractMpOprfReceiver {
         logPhaseInfo(PtoState.PTO_END);
         return receiverOutput;
     }
+
+    private List<Map<ByteBuffer, byte[]>> splitBins(ClusterGf2kDokvs<ByteBuffer> clusterOkvs,
+                                                    Map<ByteBuffer, byte[]> keyValueMap) {
+        List<Map<ByteBuffer, byte[]>> binKeyValueMaps = IntStream.range(0, clusterOkvs.getBinNum())
+            .mapToObj(binIndex -> new ConcurrentHashMap<ByteBuffer, byte[]>())
+            .collect(Collectors.toList());
+        Stream<Map.Entry<ByteBuffer, byte[]>> keyValueStream = keyValueMap.entrySet().stream();
+        keyValueStream = parallel ? keyValueStream.parallel() : keyValueStream;
+        keyValueStream.forEach(entry ->
+            binKeyValueMaps.get(clusterOkvs.binIndex(entry.getKey())).put(entry.getKey(), entry.getValue())
+        );
+        return binKeyValueMaps;
+    }
 }
@@ -8,15 +8,18 @@ import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
 import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
 import edu.alibaba.mpc4j.common.tool.galoisfield.gf2k.Gf2k;
 import edu.alibaba.mpc4j.common.tool.galoisfield.gf2k.Gf2kFactory;
+import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.ClusterGf2kDokvs;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvsFactory;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvsFactory.Gf2kDokvsType;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.AbstractMpOprfSender;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSenderOutput;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.PrecomputeMpOprfSender;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.rs21.Rs21MpOprfPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.pcg.vole.gf2k.Gf2kVoleReceiverOutput;
 import edu.alibaba.mpc4j.s2pc.pcg.vole.gf2k.nc.Gf2kNcVoleFactory;
 import edu.alibaba.mpc4j.s2pc.pcg.vole.gf2k.nc.Gf2kNcVoleReceiver;
 
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -28,7 +31,7 @@ import java.util.stream.IntStream;
  * @author Weiran Liu
  * @date 2023/7/27
  */
-public class Rs21MpOprfSender extends AbstractMpOprfSender {
+public class Rs21MpOprfSender extends AbstractMpOprfSender implements PrecomputeMpOprfSender {
     /**
      * GF2K-NC-VOLE receiver
      */
@@ -37,6 +40,10 @@ public class Rs21MpOprfSender extends AbstractMpOprfSender {
      * OKVS type
      */
     private final Gf2kDokvsType okvsType;
+    /**
+     * whether to pipeline OKVS encoding and transmission bin by bin
+     */
+    private final boolean pipeline;
     /**
      * OKVS key num
      */
@@ -53,12 +60,17 @@ public class Rs21MpOprfSender extends AbstractMpOprfSender {
      * Δ
      */
     private byte[] delta;
+    /**
+     * precomputed GF2K-VOLE receiver output, null if not precomputed
+     */
+    private Gf2kVoleReceiverOutput precomputedVoleReceiverOutput;
 
     public Rs21MpOprfSender(Rpc senderRpc, Party receiverParty, Rs21MpOprfConfig config) {
         super(Rs21MpOprfPtoDesc.getInstance(), senderRpc, receiverParty, config);
         gf2kNcVoleReceiver = Gf2kNcVoleFactory.createReceiver(senderRpc, receiverParty, config.getNcVoleConfig());
         addSubPto(gf2kNcVoleReceiver);
         okvsType = config.getOkvsType();
+        pipeline = config.isPipeline();
         okvsKeyNum = Gf2kDokvsFactory.getHashKeyNum(okvsType);
         gf2k = Gf2kFactory.createInstance(envType);
         hf = PrfFactory.createInstance(envType, gf2k.getByteL());
@@ -74,6 +86,8 @@ public class Rs21MpOprfSender extends AbstractMpOprfSender {
         delta = gf2k.createNonZeroRandom(secureRandom);
         int maxM = Gf2kDokvsFactory.getM(envType, okvsType, maxBatchSize);
         gf2kNcVoleReceiver.init(delta, maxM);
+        // precomputed VOLE is bound to the previous Δ
+        precomputedVoleReceiverOutput = null;
         stopWatch.stop();
         long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -82,6 +96,22 @@ public class Rs21MpOprfSender extends AbstractMpOprfSender {
         logPhaseInfo(PtoState.INIT_END);
     }
 
+    @Override
+    public void precompute() throws MpcAbortException {
+        checkInitialized();
+        logPhaseInfo(PtoState.PTO_BEGIN, "precompute");
+
+        stopWatch.start();
+        // VOLE does not depend on inputs, so that it can be executed before the next invocation
+        precomputedVoleReceiverOutput = gf2kNcVoleReceiver.receive();
+        stopWatch.stop();
+        long voleTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 1, voleTime, "Sender precomputes VOLE");
+
+        logPhaseInfo(PtoState.PTO_END, "precompute");
+    }
+
     @Override
     public MpOprfSenderOutput oprf(int batchSize) throws MpcAbortException {
         setPtoInput(batchSize);
@@ -105,7 +135,9 @@ public class Rs21MpOprfSender extends AbstractMpOprfSender {
         stopWatch.start();
         // The Sender sends (sender, sid) to F_{vole} with dimension m and |F| ≈ 2^κ, where m is the size of OKVS
         int m = Gf2kDokvsFactory.getM(envType, okvsType, batchSize);
-        Gf2kVoleReceiverOutput gf2kVoleReceiverOutput = gf2kNcVoleReceiver.receive();
+        Gf2kVoleReceiverOutput gf2kVoleReceiverOutput = precomputedVoleReceiverOutput == null
+            ? gf2kNcVoleReceiver.receive() : precomputedVoleReceiverOutput;
+        precomputedVoleReceiverOutput = null;
         gf2kVoleReceiverOutput.reduce(m);
         stopWatch.stop();
         long voleTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -120,18 +152,36 @@ public class Rs21MpOprfSender extends AbstractMpOprfSender {
         List<byte[]> okvsWrPayload = rpc.receive(okvsWrHeader).getPayload();
 
         stopWatch.start();
-        // w^r, OKVS keys (r), OKVS payload (A)
-        MpcAbortPreconditions.checkArgument(okvsWrPayload.size() == 1 + okvsKeyNum + m);
+        // w^r, OKVS keys (r), OKVS payload (A), where A is sent bin by bin in the pipeline mode
+        MpcAbortPreconditions.checkArgument(okvsWrPayload.size() == 1 + okvsKeyNum + (pipeline ? 0 : m));
         byte[] wr = okvsWrPayload.remove(0);
         byte[][] okvsKeys = IntStream.range(0, okvsKeyNum)
             .mapToObj(okvsKeyIndex -> okvsWrPayload.remove(0))
             .toArray(byte[][]::new);
-        byte[][] vectorA = okvsWrPayload.toArray(new byte[0][]);
         // the Sender defines K := B + A · ∆
         byte[][] vectorK = gf2kVoleReceiverOutput.getQ();
-        IntStream mIndexStream = IntStream.range(0, m);
-        mIndexStream = parallel ? mIndexStream.parallel() : mIndexStream;
-        mIndexStream.forEach(mIndex -> gf2k.addi(vectorK[mIndex], gf2k.mul(vectorA[mIndex], delta)));
+        if (pipeline) {
+            // handle each bin as soon as it arrives, while later bins are still being encoded / transmitted
+            ClusterGf2kDokvs<ByteBuffer> clusterOkvs = (ClusterGf2kDokvs<ByteBuffer>) Gf2kDokvsFactory
+                .<ByteBuffer>createInstance(envType, okvsType, batchSize, okvsKeys);
+            int binM = clusterOkvs.getBinM();
+            for (int binIndex = 0; binIndex < clusterOkvs.getBinNum(); binIndex++) {
+                List<byte[]> binVectorAPayload = receiveOtherPartyPayload(PtoStep.RECEIVER_SEND_OKVS_BIN.ordinal());
+                MpcAbortPreconditions.checkArgument(binVectorAPayload.size() == binM);
+                byte[][] binVectorA = binVectorAPayload.toArray(new byte[0][]);
+                int offset = binIndex * binM;
+                IntStream binMIndexStream = IntStream.range(0, binM);
+                binMIndexStream = parallel ? binMIndexStream.parallel() : binMIndexStream;
+                binMIndexStream.forEach(binMIndex ->
+                    gf2k.addi(vectorK[offset + binMIndex], gf2k.mul(binVectorA[binMIndex], delta))
+                );
+            }
+        } else {
+            byte[][] vectorA = okvsWrPayload.toArray(new byte[0][]);
+            IntStream mIndexStream = IntStream.range(0, m);
+            mIndexStream = parallel ? mIndexStream.parallel() : mIndexStream;
+            mIndexStream.forEach(mIndex -> gf2k.addi(vectorK[mIndex], gf2k.mul(vectorA[mIndex], delta)));
+        }
         // The Sender sends w^s to the Receiver
         List<byte[]> wsPayload = Collections.singletonList(ws);
         DataPacketHeader wsHeader = new DataPacketHeader(
@@ -29,7 +29,13 @@ public class Ra17ByteEccSqOprfKey implements SqOprfKey {
      */
     private final BigInteger alpha;
 
-    Ra17ByteEccSqOprfKey(EnvType envType, BigInteger alpha) {
+    /**
+     * Creates a key from α, e.g., a key restored from {@link #getAlpha()}.
+     *
+     * @param envType environment.
+     * @param alpha   α.
+     */
+    public Ra17ByteEccSqOprfKey(EnvType envType, BigInteger alpha) {
         byteFullEcc = ByteEccFactory.createFullInstance(envType);
         kdf = KdfFactory.createInstance(envType);
         this.alpha = alpha;
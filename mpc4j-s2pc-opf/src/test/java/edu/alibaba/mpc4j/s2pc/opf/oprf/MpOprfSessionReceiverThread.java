@@ -0,0 +1,60 @@
+package edu.alibaba.mpc4j.s2pc.opf.oprf;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+/**
+ * MP-OPRF session receiver thread. The receiver inits the session once and runs the MP-OPRF in each round.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+class MpOprfSessionReceiverThread extends Thread {
+    /**
+     * the receiver session
+     */
+    private final MpOprfReceiverSession receiverSession;
+    /**
+     * max batch size
+     */
+    private final int maxBatchSize;
+    /**
+     * inputs in each round
+     */
+    private final byte[][][] inputs;
+    /**
+     * the round before which the session is reset, -1 if the session is not explicitly reset
+     */
+    private final int resetRound;
+    /**
+     * the receiver outputs
+     */
+    private final MpOprfReceiverOutput[] receiverOutputs;
+
+    MpOprfSessionReceiverThread(MpOprfReceiverSession receiverSession, int maxBatchSize, byte[][][] inputs,
+                                int resetRound) {
+        this.receiverSession = receiverSession;
+        this.maxBatchSize = maxBatchSize;
+        this.inputs = inputs;
+        this.resetRound = resetRound;
+        receiverOutputs = new MpOprfReceiverOutput[inputs.length];
+    }
+
+    MpOprfReceiverOutput[] getReceiverOutputs() {
+        return receiverOutputs;
+    }
+
+    @Override
+    public void run() {
+        try {
+            receiverSession.init(maxBatchSize);
+            for (int round = 0; round < inputs.length; round++) {
+                if (round == resetRound) {
+                    receiverSession.reset();
+                }
+                receiverOutputs[round] = receiverSession.oprf(inputs[round]);
+            }
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+        }
+    }
+}
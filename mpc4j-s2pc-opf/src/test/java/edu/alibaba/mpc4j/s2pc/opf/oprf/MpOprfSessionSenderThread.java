@@ -0,0 +1,69 @@
+package edu.alibaba.mpc4j.s2pc.opf.oprf;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+/**
+ * MP-OPRF session sender thread. The sender inits the session once and runs the MP-OPRF in each round.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+class MpOprfSessionSenderThread extends Thread {
+    /**
+     * the sender session
+     */
+    private final MpOprfSenderSession senderSession;
+    /**
+     * max batch size
+     */
+    private final int maxBatchSize;
+    /**
+     * batch size in each round
+     */
+    private final int[] batchSizes;
+    /**
+     * the round before which the session is reset, -1 if the session is not explicitly reset
+     */
+    private final int resetRound;
+    /**
+     * the sender outputs
+     */
+    private final MpOprfSenderOutput[] senderOutputs;
+    /**
+     * the MP-OPRF sender used in each round
+     */
+    private final MpOprfSender[] senders;
+
+    MpOprfSessionSenderThread(MpOprfSenderSession senderSession, int maxBatchSize, int[] batchSizes, int resetRound) {
+        this.senderSession = senderSession;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = batchSizes;
+        this.resetRound = resetRound;
+        senderOutputs = new MpOprfSenderOutput[batchSizes.length];
+        senders = new MpOprfSender[batchSizes.length];
+    }
+
+    MpOprfSenderOutput[] getSenderOutputs() {
+        return senderOutputs;
+    }
+
+    MpOprfSender[] getSenders() {
+        return senders;
+    }
+
+    @Override
+    public void run() {
+        try {
+            senderSession.init(maxBatchSize);
+            for (int round = 0; round < batchSizes.length; round++) {
+                if (round == resetRound) {
+                    senderSession.reset();
+                }
+                senderOutputs[round] = senderSession.oprf(batchSizes[round]);
+                senders[round] = senderSession.getMpOprfSender();
+            }
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package edu.alibaba.mpc4j.s2pc.opf.oprf;
+
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory.OprfType;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.cm20.Cm20MpOprfConfig;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.rs21.Rs21MpOprfConfig;
+import org.apache.commons.lang3.time.StopWatch;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * MP-OPRF session test.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+@RunWith(Parameterized.class)
+public class MpOprfSessionTest extends AbstractTwoPartyMemoryRpcPto {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MpOprfSessionTest.class);
+    /**
+     * default max batch size
+     */
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    /**
+     * default round num
+     */
+    private static final int DEFAULT_ROUND_NUM = 5;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // RS21
+        configurations.add(new Object[]{
+            OprfType.RS21.name() + " (" + SecurityModel.MALICIOUS + ")",
+            new Rs21MpOprfConfig.Builder(SecurityModel.MALICIOUS).build(),
+        });
+        configurations.add(new Object[]{
+            OprfType.RS21.name() + " (" + SecurityModel.SEMI_HONEST + ")",
+            new Rs21MpOprfConfig.Builder(SecurityModel.SEMI_HONEST).build(),
+        });
+        // CM20
+        configurations.add(new Object[]{
+            OprfType.CM20.name(), new Cm20MpOprfConfig.Builder().build(),
+        });
+
+        return configurations;
+    }
+
+    /**
+     * the config
+     */
+    private final MpOprfConfig config;
+
+    public MpOprfSessionTest(String name, MpOprfConfig config) {
+        super(name);
+        this.config = config;
+    }
+
+    @Test
+    public void testDefault() {
+        MpOprfSessionPolicy policy = new MpOprfSessionPolicy.Builder().build();
+        MpOprfSender[] senders = testPto(policy, false, -1);
+        // the session is never reset by default
+        for (MpOprfSender sender : senders) {
+            Assert.assertSame(senders[0], sender);
+        }
+    }
+
+    @Test
+    public void testMaxOprfNum() {
+        MpOprfSessionPolicy policy = new MpOprfSessionPolicy.Builder()
+            .setMaxOprfNum(2)
+            .build();
+        MpOprfSender[] senders = testPto(policy, false, -1);
+        assertRenewal(senders, round -> round % 2 == 0);
+    }
+
+    @Test
+    public void testReset() {
+        MpOprfSessionPolicy policy = new MpOprfSessionPolicy.Builder().build();
+        int resetRound = DEFAULT_ROUND_NUM / 2;
+        MpOprfSender[] senders = testPto(policy, false, resetRound);
+        assertRenewal(senders, round -> round == 0 || round == resetRound);
+    }
+
+    @Test
+    public void testPrecompute() {
+        MpOprfSessionPolicy policy = new MpOprfSessionPolicy.Builder()
+            .setPrecompute(true)
+            .build();
+        testPto(policy, false, -1);
+    }
+
+    @Test
+    public void testParallelPrecompute() {
+        MpOprfSessionPolicy policy = new MpOprfSessionPolicy.Builder()
+            .setPrecompute(true)
+            .build();
+        testPto(policy, true, -1);
+    }
+
+    @Test
+    public void testPrecomputeMaxOprfNum() {
+        MpOprfSessionPolicy policy = new MpOprfSessionPolicy.Builder()
+            .setMaxOprfNum(2)
+            .setPrecompute(true)
+            .build();
+        MpOprfSender[] senders = testPto(policy, false, -1);
+        assertRenewal(senders, round -> round % 2 == 0);
+    }
+
+    @Test
+    public void testPrecomputeReset() {
+        // precomputed correlations are discarded by the reset
+        MpOprfSessionPolicy policy = new MpOprfSessionPolicy.Builder()
+            .setPrecompute(true)
+            .build();
+        int resetRound = DEFAULT_ROUND_NUM / 2;
+        MpOprfSender[] senders = testPto(policy, false, resetRound);
+        assertRenewal(senders, round -> round == 0 || round == resetRound);
+    }
+
+    private MpOprfSender[] testPto(MpOprfSessionPolicy policy, boolean parallel, int resetRound) {
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        MpOprfSender sender = OprfFactory.createMpOprfSender(firstRpc, secondRpc.ownParty(), config);
+        MpOprfReceiver receiver = OprfFactory.createMpOprfReceiver(secondRpc, firstRpc.ownParty(), config);
+        sender.setParallel(parallel);
+        receiver.setParallel(parallel);
+        sender.setTaskId(randomTaskId);
+        receiver.setTaskId(randomTaskId);
+        MpOprfSenderSession senderSession = new MpOprfSenderSession(sender, destroyedSender -> {
+            MpOprfSender freshSender = OprfFactory.createMpOprfSender(firstRpc, secondRpc.ownParty(), config);
+            freshSender.setParallel(parallel);
+            freshSender.setTaskId(randomTaskId);
+            return freshSender;
+        }, policy);
+        MpOprfReceiverSession receiverSession = new MpOprfReceiverSession(receiver, destroyedReceiver -> {
+            MpOprfReceiver freshReceiver = OprfFactory.createMpOprfReceiver(secondRpc, firstRpc.ownParty(), config);
+            freshReceiver.setParallel(parallel);
+            freshReceiver.setTaskId(randomTaskId);
+            return freshReceiver;
+        }, policy);
+        try {
+            LOGGER.info(
+                "-----test {} session, round_num = {}-----", sender.getPtoDesc().getPtoName(), DEFAULT_ROUND_NUM
+            );
+            // batch sizes vary among rounds
+            int[] batchSizes = IntStream.range(0, DEFAULT_ROUND_NUM)
+                .map(round -> DEFAULT_MAX_BATCH_SIZE - round * 100)
+                .toArray();
+            byte[][][] inputs = IntStream.range(0, DEFAULT_ROUND_NUM)
+                .mapToObj(round -> IntStream.range(0, batchSizes[round])
+                    .mapToObj(index -> {
+                        byte[] input = new byte[CommonConstants.BLOCK_BYTE_LENGTH];
+                        SECURE_RANDOM.nextBytes(input);
+                        return input;
+                    })
+                    .toArray(byte[][]::new))
+                .toArray(byte[][][]::new);
+            MpOprfSessionSenderThread senderThread = new MpOprfSessionSenderThread(
+                senderSession, DEFAULT_MAX_BATCH_SIZE, batchSizes, resetRound
+            );
+            MpOprfSessionReceiverThread receiverThread = new MpOprfSessionReceiverThread(
+                receiverSession, DEFAULT_MAX_BATCH_SIZE, inputs, resetRound
+            );
+            StopWatch stopWatch = new StopWatch();
+            // start
+            stopWatch.start();
+            senderThread.start();
+            receiverThread.start();
+            // stop
+            senderThread.join();
+            receiverThread.join();
+            stopWatch.stop();
+            long time = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            // verify
+            MpOprfSenderOutput[] senderOutputs = senderThread.getSenderOutputs();
+            MpOprfReceiverOutput[] receiverOutputs = receiverThread.getReceiverOutputs();
+            for (int round = 0; round < DEFAULT_ROUND_NUM; round++) {
+                assertOutput(batchSizes[round], senderOutputs[round], receiverOutputs[round]);
+            }
+            printAndResetRpc(time);
+            // destroy
+            senderSession.destroy();
+            receiverSession.destroy();
+            new Thread(senderSession.getMpOprfSender()::destroy).start();
+            new Thread(receiverSession.getMpOprfReceiver()::destroy).start();
+            return senderThread.getSenders();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void assertRenewal(MpOprfSender[] senders, IntPredicate renewed) {
+        Assert.assertNotNull(senders[0]);
+        for (int round = 1; round < senders.length; round++) {
+            if (renewed.test(round)) {
+                Assert.assertNotSame(senders[round - 1], senders[round]);
+            } else {
+                Assert.assertSame(senders[round - 1], senders[round]);
+            }
+        }
+    }
+
+    private void assertOutput(int n, MpOprfSenderOutput senderOutput, MpOprfReceiverOutput receiverOutput) {
+        Assert.assertNotNull(senderOutput);
+        Assert.assertNotNull(receiverOutput);
+        Assert.assertEquals(senderOutput.getPrfByteLength(), receiverOutput.getPrfByteLength());
+        Assert.assertEquals(n, senderOutput.getBatchSize());
+        Assert.assertEquals(n, receiverOutput.getBatchSize());
+        IntStream.range(0, n).forEach(index -> {
+            byte[] input = receiverOutput.getInput(index);
+            byte[] receiverPrf = receiverOutput.getPrf(index);
+            byte[] senderPrf = senderOutput.getPrf(input);
+            Assert.assertArrayEquals(senderPrf, receiverPrf);
+        });
+        // all PRFs should be distinct
+        long distinctCount = IntStream.range(0, n)
+            .mapToObj(receiverOutput::getPrf)
+            .map(ByteBuffer::wrap)
+            .distinct()
+            .count();
+        Assert.assertEquals(receiverOutput.getBatchSize(), distinctCount);
+    }
+}
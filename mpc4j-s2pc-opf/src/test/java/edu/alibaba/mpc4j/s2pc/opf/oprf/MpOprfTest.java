@@ -52,6 +52,10 @@ public class MpOprfTest extends AbstractTwoPartyMemoryRpcPto {
             OprfType.RS21.name() + " (" + SecurityModel.SEMI_HONEST + ")",
             new Rs21MpOprfConfig.Builder(SecurityModel.SEMI_HONEST).build(),
         });
+        configurations.add(new Object[]{
+            OprfType.RS21.name() + " (" + SecurityModel.SEMI_HONEST + ", pipeline)",
+            new Rs21MpOprfConfig.Builder(SecurityModel.SEMI_HONEST).setPipeline(true).build(),
+        });
         // CM20
         configurations.add(new Object[]{
             OprfType.CM20.name(), new Cm20MpOprfConfig.Builder().build(),
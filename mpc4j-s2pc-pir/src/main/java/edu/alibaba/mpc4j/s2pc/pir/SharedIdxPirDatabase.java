@@ -0,0 +1,24 @@
+package edu.alibaba.mpc4j.s2pc.pir;
+
+/**
+ * Index PIR database that is encoded once and shared by all sessions of a server. Implementations must be immutable
+ * after creation, so that sessions of different clients can read it concurrently without locks.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+public interface SharedIdxPirDatabase {
+    /**
+     * Gets the database size.
+     *
+     * @return database size.
+     */
+    int rows();
+
+    /**
+     * Gets the element bit length.
+     *
+     * @return element bit length.
+     */
+    int getL();
+}
@@ -0,0 +1,22 @@
+package edu.alibaba.mpc4j.s2pc.pir;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+/**
+ * Index PIR server that can be initialized with a shared encoded database. Initializing with a shared database only
+ * runs the client-specific part of the initialization (e.g., receiving keys or sending hints), so that one encoded
+ * database can serve many clients.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+public interface SharedIdxPirServer extends IdxPirServer {
+    /**
+     * Server initializes the protocol with a shared database.
+     *
+     * @param database    shared database.
+     * @param maxBatchNum max batch num.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    void init(SharedIdxPirDatabase database, int maxBatchNum) throws MpcAbortException;
+}
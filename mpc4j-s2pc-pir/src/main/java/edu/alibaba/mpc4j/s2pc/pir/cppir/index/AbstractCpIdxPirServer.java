@@ -6,6 +6,8 @@ import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
 import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyPto;
 import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
 import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
 
 /**
  * abstract client-specific preprocessing index PIR server.
@@ -44,6 +46,15 @@ public abstract class AbstractCpIdxPirServer extends AbstractTwoPartyPto impleme
         initState();
     }
 
+    protected void setInitInput(SharedIdxPirDatabase database, int maxBatchNum) {
+        n = database.rows();
+        l = database.getL();
+        byteL = CommonUtils.getByteLength(l);
+        MathPreconditions.checkPositive("max_batch_num", maxBatchNum);
+        this.maxBatchNum = maxBatchNum;
+        initState();
+    }
+
     protected void setPtoInput(int batchNum) {
         checkInitialized();
         MathPreconditions.checkPositiveInRangeClosed("batch_num", batchNum, maxBatchNum);
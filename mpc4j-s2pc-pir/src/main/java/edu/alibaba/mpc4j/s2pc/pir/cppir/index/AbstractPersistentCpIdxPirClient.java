@@ -0,0 +1,120 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.MpcAbortPreconditions;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * abstract client-specific preprocessing index PIR client supporting persistent hints. Persisted hints start with
+ * (n, l, log ID, version), followed by hints of the concrete scheme.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public abstract class AbstractPersistentCpIdxPirClient extends AbstractCpIdxPirClient
+    implements PersistentCpIdxPirClient {
+    /**
+     * ID of the database update log
+     */
+    protected byte[] logId;
+    /**
+     * database version of hints
+     */
+    protected long version;
+
+    protected AbstractPersistentCpIdxPirClient(PtoDesc ptoDesc, Rpc clientRpc, Party serverParty,
+                                               CpIdxPirConfig config) {
+        super(ptoDesc, clientRpc, serverParty, config);
+    }
+
+    /**
+     * Reads (n, l, log ID, version) of persisted hints and sets the init input.
+     *
+     * @param dataInputStream input stream of hints.
+     * @param maxBatchNum     max batch num.
+     * @throws IOException if hints cannot be read.
+     */
+    protected void setInitInput(DataInputStream dataInputStream, int maxBatchNum) throws IOException {
+        int n = dataInputStream.readInt();
+        int l = dataInputStream.readInt();
+        setInitInput(n, l, maxBatchNum);
+        logId = new byte[CommonConstants.BLOCK_BYTE_LENGTH];
+        dataInputStream.readFully(logId);
+        version = dataInputStream.readLong();
+    }
+
+    /**
+     * Writes (n, l, log ID, version) of hints.
+     *
+     * @param dataOutputStream output stream of hints.
+     * @throws IOException if hints cannot be written.
+     */
+    protected void writeHintVersion(DataOutputStream dataOutputStream) throws IOException {
+        dataOutputStream.writeInt(n);
+        dataOutputStream.writeInt(l);
+        dataOutputStream.write(logId);
+        dataOutputStream.writeLong(version);
+    }
+
+    /**
+     * Sends the version of hints and receives the version of the database.
+     *
+     * @param clientSendStep  step where the client sends the version of its hints.
+     * @param serverSendStep  step where the server sends the version of the database.
+     * @param persisted       whether the client has persisted hints.
+     * @param currentQueryNum current query num of persisted hints.
+     * @return the number of updates since the version of hints if hints can be synchronized, otherwise -1.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    protected int syncHintVersion(int clientSendStep, int serverSendStep, boolean persisted, int currentQueryNum)
+        throws MpcAbortException {
+        if (persisted) {
+            // (ID, version, n, l, current query num) of persisted hints
+            ByteBuffer hintVersionByteBuffer = ByteBuffer
+                .allocate(CommonConstants.BLOCK_BYTE_LENGTH + Long.BYTES + Integer.BYTES * 3)
+                .put(logId)
+                .putLong(version)
+                .putInt(n)
+                .putInt(l)
+                .putInt(currentQueryNum);
+            sendOtherPartyPayload(clientSendStep, Collections.singletonList(hintVersionByteBuffer.array()));
+        } else {
+            // we do not have hints
+            sendOtherPartyPayload(clientSendStep, new LinkedList<>());
+        }
+        long hintVersion = version;
+        List<byte[]> versionPayload = receiveOtherPartyPayload(serverSendStep);
+        MpcAbortPreconditions.checkArgument(versionPayload.size() == 1);
+        ByteBuffer versionByteBuffer = ByteBuffer.wrap(versionPayload.get(0));
+        MpcAbortPreconditions.checkArgument(
+            versionByteBuffer.remaining() == CommonConstants.BLOCK_BYTE_LENGTH + Long.BYTES + 1
+        );
+        logId = new byte[CommonConstants.BLOCK_BYTE_LENGTH];
+        versionByteBuffer.get(logId);
+        version = versionByteBuffer.getLong();
+        byte sync = versionByteBuffer.get();
+        MpcAbortPreconditions.checkArgument(sync == 0 || sync == 1);
+        MpcAbortPreconditions.checkArgument(persisted || sync == 0);
+        if (sync == 0) {
+            return -1;
+        }
+        MpcAbortPreconditions.checkArgument(version >= hintVersion && version - hintVersion <= Integer.MAX_VALUE);
+        return (int) (version - hintVersion);
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+}
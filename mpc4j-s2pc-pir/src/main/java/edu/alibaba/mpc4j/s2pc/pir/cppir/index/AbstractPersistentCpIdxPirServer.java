@@ -0,0 +1,92 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.MpcAbortPreconditions;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * abstract client-specific preprocessing index PIR server supporting persistent client hints.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public abstract class AbstractPersistentCpIdxPirServer extends AbstractCpIdxPirServer
+    implements PersistentCpIdxPirServer {
+    /**
+     * update log
+     */
+    protected CpIdxPirUpdateLog updateLog;
+    /**
+     * database version of client hints, valid only if client hints can be synchronized
+     */
+    protected long hintVersion;
+    /**
+     * current query num of client hints, valid only if client hints can be synchronized
+     */
+    protected int hintQueryNum;
+
+    protected AbstractPersistentCpIdxPirServer(PtoDesc ptoDesc, Rpc serverRpc, Party clientParty,
+                                               CpIdxPirConfig config) {
+        super(ptoDesc, serverRpc, clientParty, config);
+    }
+
+    @Override
+    public void init(NaiveDatabase database, int maxBatchNum) throws MpcAbortException {
+        init(database, new CpIdxPirUpdateLog(secureRandom), maxBatchNum);
+    }
+
+    @Override
+    public CpIdxPirUpdateLog getUpdateLog() {
+        return updateLog;
+    }
+
+    /**
+     * Receives the version of client hints and sends the version of the update log. The update log must be set.
+     *
+     * @param clientSendStep step where the client sends the version of its hints.
+     * @param serverSendStep step where the server sends the version of the update log.
+     * @param roundQueryNum  query num for each preprocessing round.
+     * @return true if client hints can be synchronized by updates since {@link #hintVersion}.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    protected boolean syncHintVersion(int clientSendStep, int serverSendStep, int roundQueryNum)
+        throws MpcAbortException {
+        List<byte[]> hintVersionPayload = receiveOtherPartyPayload(clientSendStep);
+        MpcAbortPreconditions.checkArgument(hintVersionPayload.size() <= 1);
+        long version = updateLog.getVersion();
+        boolean sync = false;
+        if (hintVersionPayload.size() == 1) {
+            // (ID, version, n, l, current query num) of persisted hints
+            ByteBuffer hintVersionByteBuffer = ByteBuffer.wrap(hintVersionPayload.get(0));
+            MpcAbortPreconditions.checkArgument(
+                hintVersionByteBuffer.remaining() == CommonConstants.BLOCK_BYTE_LENGTH + Long.BYTES + Integer.BYTES * 3
+            );
+            byte[] hintId = new byte[CommonConstants.BLOCK_BYTE_LENGTH];
+            hintVersionByteBuffer.get(hintId);
+            long clientHintVersion = hintVersionByteBuffer.getLong();
+            int hintN = hintVersionByteBuffer.getInt();
+            int hintL = hintVersionByteBuffer.getInt();
+            int clientHintQueryNum = hintVersionByteBuffer.getInt();
+            sync = updateLog.isId(hintId) && hintN == n && hintL == l && updateLog.canSync(clientHintVersion)
+                && clientHintQueryNum >= 0 && clientHintQueryNum <= roundQueryNum;
+            if (sync) {
+                hintVersion = clientHintVersion;
+                hintQueryNum = clientHintQueryNum;
+            }
+        }
+        ByteBuffer versionByteBuffer = ByteBuffer.allocate(CommonConstants.BLOCK_BYTE_LENGTH + Long.BYTES + 1)
+            .put(updateLog.getId())
+            .putLong(version)
+            .put(sync ? (byte) 1 : (byte) 0);
+        sendOtherPartyPayload(serverSendStep, Collections.singletonList(versionByteBuffer.array()));
+        return sync;
+    }
+}
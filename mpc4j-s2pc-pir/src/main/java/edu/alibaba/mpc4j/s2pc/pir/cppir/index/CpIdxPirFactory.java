@@ -3,6 +3,10 @@ package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
 import edu.alibaba.mpc4j.common.rpc.Party;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
 import edu.alibaba.mpc4j.common.rpc.pto.PtoFactory;
+import edu.alibaba.mpc4j.common.structure.database.Database;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirServer;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.frodo.FrodoCpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.frodo.FrodoCpIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.frodo.FrodoCpIdxPirServer;
@@ -20,6 +24,8 @@ import edu.alibaba.mpc4j.s2pc.pir.cppir.index.pai.PaiCpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.pai.PaiCpIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.pai.PaiCpIdxPirServer;
 
+import java.security.SecureRandom;
+
 /**
  * client-specific preprocessing index PIR factory.
  *
@@ -190,6 +196,9 @@ public class CpIdxPirFactory implements PtoFactory {
             case MIR -> {
                 return new MirCpIdxPirServer(serverRpc, clientParty, (MirCpIdxPirConfig) config);
             }
+            case SIMPLE -> {
+                return new SimpleCpIdxPirServer(serverRpc, clientParty, (SimpleCpIdxPirConfig) config);
+            }
             case PIANO_PLINKO -> {
                 return new PianoPlinkoCpIdxPirServer(serverRpc, clientParty, (PianoPlinkoCpIdxPirConfig) config);
             }
@@ -218,6 +227,73 @@ public class CpIdxPirFactory implements PtoFactory {
             case MIR -> {
                 return new MirCpIdxPirClient(clientRpc, serverParty, (MirCpIdxPirConfig) config);
             }
+            case SIMPLE -> {
+                return new SimpleCpIdxPirClient(clientRpc, serverParty, (SimpleCpIdxPirConfig) config);
+            }
+            case PIANO_PLINKO -> {
+                return new PianoPlinkoCpIdxPirClient(clientRpc, serverParty, (PianoPlinkoCpIdxPirConfig) config);
+            }
+            case MIR_PLINKO -> {
+                return new MirPlinkoCpIdxPirClient(clientRpc, serverParty, (MirPlinkoCpIdxPirConfig) config);
+            }
+            default ->
+                throw new IllegalArgumentException("Invalid " + CpIdxPirType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
+    /**
+     * create a server supporting persistent client hints.
+     *
+     * @param serverRpc   server RPC.
+     * @param clientParty client party.
+     * @param config      config.
+     * @return a server.
+     * @throws IllegalArgumentException if the type does not support persistent hints.
+     */
+    public static PersistentCpIdxPirServer createPersistentServer(Rpc serverRpc, Party clientParty, CpIdxPirConfig config) {
+        CpIdxPirType type = config.getPtoType();
+        switch (type) {
+            case PIANO -> {
+                return new PianoCpIdxPirServer(serverRpc, clientParty, (PianoCpIdxPirConfig) config);
+            }
+            case MIR -> {
+                return new MirCpIdxPirServer(serverRpc, clientParty, (MirCpIdxPirConfig) config);
+            }
+            case SIMPLE -> {
+                return new SimpleCpIdxPirServer(serverRpc, clientParty, (SimpleCpIdxPirConfig) config);
+            }
+            case PIANO_PLINKO -> {
+                return new PianoPlinkoCpIdxPirServer(serverRpc, clientParty, (PianoPlinkoCpIdxPirConfig) config);
+            }
+            case MIR_PLINKO -> {
+                return new MirPlinkoCpIdxPirServer(serverRpc, clientParty, (MirPlinkoCpIdxPirConfig) config);
+            }
+            default ->
+                throw new IllegalArgumentException("Invalid " + CpIdxPirType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
+    /**
+     * create a client supporting persistent hints.
+     *
+     * @param clientRpc   client RPC.
+     * @param serverParty server party.
+     * @param config      config.
+     * @return a client.
+     * @throws IllegalArgumentException if the type does not support persistent hints.
+     */
+    public static PersistentCpIdxPirClient createPersistentClient(Rpc clientRpc, Party serverParty, CpIdxPirConfig config) {
+        CpIdxPirType type = config.getPtoType();
+        switch (type) {
+            case PIANO -> {
+                return new PianoCpIdxPirClient(clientRpc, serverParty, (PianoCpIdxPirConfig) config);
+            }
+            case MIR -> {
+                return new MirCpIdxPirClient(clientRpc, serverParty, (MirCpIdxPirConfig) config);
+            }
+            case SIMPLE -> {
+                return new SimpleCpIdxPirClient(clientRpc, serverParty, (SimpleCpIdxPirConfig) config);
+            }
             case PIANO_PLINKO -> {
                 return new PianoPlinkoCpIdxPirClient(clientRpc, serverParty, (PianoPlinkoCpIdxPirConfig) config);
             }
@@ -229,6 +305,46 @@ public class CpIdxPirFactory implements PtoFactory {
         }
     }
 
+    /**
+     * create a shared database, which is encoded once and used by servers of all clients. The database can be any
+     * {@link Database}, e.g., a memory-mapped database that is read row by row without loading it into heap.
+     *
+     * @param config   config.
+     * @param database database.
+     * @param parallel parallel encoding.
+     * @return a shared database.
+     */
+    public static SharedIdxPirDatabase createSharedDatabase(CpIdxPirConfig config, Database database,
+                                                            boolean parallel) {
+        CpIdxPirType type = config.getPtoType();
+        switch (type) {
+            case SIMPLE -> {
+                return SimpleCpIdxPirDatabase.create((SimpleCpIdxPirConfig) config, database, new SecureRandom(), parallel);
+            }
+            default ->
+                throw new IllegalArgumentException("Invalid " + CpIdxPirType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
+    /**
+     * create a server that can be initialized with a shared database.
+     *
+     * @param serverRpc   server RPC.
+     * @param clientParty client party.
+     * @param config      config.
+     * @return a server.
+     */
+    public static SharedIdxPirServer createSharedServer(Rpc serverRpc, Party clientParty, CpIdxPirConfig config) {
+        CpIdxPirType type = config.getPtoType();
+        switch (type) {
+            case SIMPLE -> {
+                return new SimpleCpIdxPirServer(serverRpc, clientParty, (SimpleCpIdxPirConfig) config);
+            }
+            default ->
+                throw new IllegalArgumentException("Invalid " + CpIdxPirType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
     /**
      * create a default configure based on type
      *
@@ -0,0 +1,150 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
+
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Update log for client-specific preprocessing index PIR. The log records updates of a database as (x, δ), where δ is
+ * the XOR difference between the old entry and the new entry. The version of the database is the number of updates
+ * since the database was created, so that a client holding hints for version v only needs updates in [v, version).
+ * <p>
+ * The log is identified by a random ID. Hints generated for a database with a different ID are invalid.
+ * </p>
+ *
+ * @author Weiran Liu
+ * @date 2025/2/10
+ */
+public class CpIdxPirUpdateLog {
+    /**
+     * log ID
+     */
+    private final byte[] id;
+    /**
+     * the version of the first logged update
+     */
+    private long baseVersion;
+    /**
+     * updated indexes
+     */
+    private final TIntList xs;
+    /**
+     * XOR differences
+     */
+    private final List<byte[]> deltas;
+
+    /**
+     * Creates an empty log with a random ID.
+     *
+     * @param secureRandom random state.
+     */
+    public CpIdxPirUpdateLog(SecureRandom secureRandom) {
+        id = BlockUtils.randomBlock(secureRandom);
+        baseVersion = 0;
+        xs = new TIntArrayList();
+        deltas = new ArrayList<>();
+    }
+
+    /**
+     * Gets the log ID.
+     *
+     * @return log ID.
+     */
+    public byte[] getId() {
+        return BytesUtils.clone(id);
+    }
+
+    /**
+     * Checks if the given ID is the ID of this log.
+     *
+     * @param id ID.
+     * @return true if the given ID is the ID of this log.
+     */
+    public boolean isId(byte[] id) {
+        return Arrays.equals(this.id, id);
+    }
+
+    /**
+     * Gets the current version, i.e., the total number of updates.
+     *
+     * @return the current version.
+     */
+    public synchronized long getVersion() {
+        return baseVersion + xs.size();
+    }
+
+    /**
+     * Gets the oldest version that can be synchronized by the log.
+     *
+     * @return the oldest version that can be synchronized.
+     */
+    public synchronized long getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Appends an update.
+     *
+     * @param x     index.
+     * @param delta XOR difference.
+     */
+    public synchronized void append(int x, byte[] delta) {
+        MathPreconditions.checkNonNegative("x", x);
+        xs.add(x);
+        deltas.add(BytesUtils.clone(delta));
+    }
+
+    /**
+     * Checks if the log can synchronize the given version to the current version.
+     *
+     * @param version version.
+     * @return true if the log can synchronize the given version.
+     */
+    public synchronized boolean canSync(long version) {
+        return version >= baseVersion && version <= getVersion();
+    }
+
+    /**
+     * Gets updated indexes since the given version.
+     *
+     * @param version version.
+     * @return updated indexes since the given version.
+     */
+    public synchronized int[] getXs(long version) {
+        MathPreconditions.checkInRangeClosed("version", version, baseVersion, getVersion());
+        int from = (int) (version - baseVersion);
+        return xs.subList(from, xs.size()).toArray();
+    }
+
+    /**
+     * Gets XOR differences since the given version.
+     *
+     * @param version version.
+     * @return XOR differences since the given version.
+     */
+    public synchronized byte[][] getDeltas(long version) {
+        MathPreconditions.checkInRangeClosed("version", version, baseVersion, getVersion());
+        int from = (int) (version - baseVersion);
+        return deltas.subList(from, deltas.size()).toArray(byte[][]::new);
+    }
+
+    /**
+     * Drops updates before the given version. Clients with older hints must run the full preprocessing.
+     *
+     * @param version version.
+     */
+    public synchronized void truncate(long version) {
+        MathPreconditions.checkInRangeClosed("version", version, baseVersion, getVersion());
+        int num = (int) (version - baseVersion);
+        xs.remove(0, num);
+        deltas.subList(0, num).clear();
+        baseVersion = version;
+    }
+}
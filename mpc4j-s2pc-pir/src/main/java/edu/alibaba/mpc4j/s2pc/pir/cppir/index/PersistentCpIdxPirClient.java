@@ -0,0 +1,42 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Client-specific preprocessing index PIR client supporting persistent hints. The client can write its hints, together
+ * with the database version of the hints, and restores them in the next session. If the server can synchronize the
+ * version, the client only receives updates since that version instead of the whole database.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/10
+ */
+public interface PersistentCpIdxPirClient extends StreamCpIdxPirClient {
+    /**
+     * Client initializes the protocol with persisted hints.
+     *
+     * @param inputStream input stream of hints written by {@link #writeHints(OutputStream)}.
+     * @param maxBatchNum max batch num.
+     * @throws MpcAbortException the protocol failure aborts.
+     * @throws IOException       if hints cannot be read.
+     */
+    void init(InputStream inputStream, int maxBatchNum) throws MpcAbortException, IOException;
+
+    /**
+     * Writes hints.
+     *
+     * @param outputStream output stream.
+     * @throws IOException if hints cannot be written.
+     */
+    void writeHints(OutputStream outputStream) throws IOException;
+
+    /**
+     * Gets the database version of the hints.
+     *
+     * @return the database version of the hints.
+     */
+    long getVersion();
+}
@@ -0,0 +1,30 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+
+/**
+ * Client-specific preprocessing index PIR server supporting persistent client hints. The server keeps an update log,
+ * so that a client reconnecting with hints of an older version only receives updates since that version.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/10
+ */
+public interface PersistentCpIdxPirServer extends StreamCpIdxPirServer {
+    /**
+     * Server initializes the protocol.
+     *
+     * @param database    database, which must be the database of the current version of the update log.
+     * @param updateLog   update log.
+     * @param maxBatchNum max batch num.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    void init(NaiveDatabase database, CpIdxPirUpdateLog updateLog, int maxBatchNum) throws MpcAbortException;
+
+    /**
+     * Gets the update log, which can be reused when initializing the server for the next session.
+     *
+     * @return the update log.
+     */
+    CpIdxPirUpdateLog getUpdateLog();
+}
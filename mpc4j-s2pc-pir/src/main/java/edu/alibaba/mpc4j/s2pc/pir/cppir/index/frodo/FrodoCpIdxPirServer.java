@@ -2,7 +2,7 @@ package edu.alibaba.mpc4j.s2pc.pir.cppir.index.frodo;
 
 import edu.alibaba.mpc4j.common.rpc.*;
 import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
-import edu.alibaba.mpc4j.common.structure.matrix.IntMatrix;
+import edu.alibaba.mpc4j.common.structure.matrix.DenseIntMatrix;
 import edu.alibaba.mpc4j.common.structure.vector.IntVector;
 import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
 import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
@@ -23,9 +23,9 @@ import java.util.stream.IntStream;
  */
 public class FrodoCpIdxPirServer extends AbstractCpIdxPirServer implements HintCpIdxPirServer {
     /**
-     * database
+     * transposed database D^T ∈ Z_q^{ω×m}, so that answering is computing inner products of rows
      */
-    private IntMatrix db;
+    private DenseIntMatrix tdb;
 
     public FrodoCpIdxPirServer(Rpc serverRpc, Party clientParty, FrodoCpIdxPirConfig config) {
         super(FrodoCpIdxPirPtoDesc.getInstance(), serverRpc, clientParty, config);
@@ -49,19 +49,21 @@ public class FrodoCpIdxPirServer extends AbstractCpIdxPirServer implements HintC
         stopWatch.start();
         // server runs D ← parse(DB, ρ), where parse encodes the DB into a matrix D ∈ Z_q^{m×ω}, where ω = w/ρ.
         // here we set ρ = 8, so that ω = byteL
-        db = IntMatrix.createZeros(n, byteL);
+        tdb = DenseIntMatrix.createZeros(byteL, n);
+        tdb.setParallel(parallel);
         for (int i = 0; i < database.rows(); i++) {
             byte[] entry = database.getBytesData(i);
             assert entry.length == byteL;
             for (int j = 0; j < byteL; j++) {
-                db.set(i, j, entry[j] & 0xFF);
+                tdb.set(j, i, entry[j] & 0xFF);
             }
         }
         // server runs M ← A · D, recall that A ∈ Z_q^{n×m}
-        IntMatrix matrixA = IntMatrix.createRandom(FrodoCpIdxPirPtoDesc.N, n, seed);
-        IntMatrix matrixM = matrixA.mul(db);
+        DenseIntMatrix matrixA = DenseIntMatrix.createRandom(FrodoCpIdxPirPtoDesc.N, n, seed);
+        matrixA.setParallel(parallel);
+        DenseIntMatrix matrixM = matrixA.mulTranspose(tdb);
         List<byte[]> hintPayload = IntStream.range(0, FrodoCpIdxPirPtoDesc.N)
-            .mapToObj(i -> IntUtils.intArrayToByteArray(matrixM.getRow(i).getElements()))
+            .mapToObj(i -> IntUtils.intArrayToByteArray(matrixM.getRow(i)))
             .toList();
         sendOtherPartyPayload(PtoStep.SERVER_SEND_HINT.ordinal(), hintPayload);
         stopWatch.stop();
@@ -78,8 +80,15 @@ public class FrodoCpIdxPirServer extends AbstractCpIdxPirServer implements HintC
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
+        // the client sends all queries before receiving responses, so that we answer them in one batch
+        IntVector[] qus = new IntVector[batchNum];
         for (int i = 0; i < batchNum; i++) {
-            answer();
+            qus[i] = receiveQuery();
+        }
+        IntVector[] answers = tdb.rightMul(qus);
+        for (IntVector ans : answers) {
+            List<byte[]> responsePayload = Collections.singletonList(IntUtils.intArrayToByteArray(ans.getElements()));
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
         }
         stopWatch.stop();
         long responseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -91,14 +100,19 @@ public class FrodoCpIdxPirServer extends AbstractCpIdxPirServer implements HintC
 
     @Override
     public void answer() throws MpcAbortException {
+        IntVector qu = receiveQuery();
+        // generate response
+        IntVector ans = tdb.rightMul(qu);
+        List<byte[]> responsePayload = Collections.singletonList(IntUtils.intArrayToByteArray(ans.getElements()));
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
+    }
+
+    private IntVector receiveQuery() throws MpcAbortException {
         List<byte[]> clientQueryPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_QUERY.ordinal());
         MpcAbortPreconditions.checkArgument(clientQueryPayload.size() == 1);
         // parse qu
         IntVector qu = IntVector.create(IntUtils.byteArrayToIntArray(clientQueryPayload.get(0)));
         MpcAbortPreconditions.checkArgument(qu.getNum() == n);
-        // generate response
-        IntVector ans = db.leftMul(qu);
-        List<byte[]> responsePayload = Collections.singletonList(IntUtils.intArrayToByteArray(ans.getElements()));
-        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
+        return qu;
     }
 }
@@ -1,14 +1,14 @@
 package edu.alibaba.mpc4j.s2pc.pir.cppir.index.mir;
 
 import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
 import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
 import edu.alibaba.mpc4j.common.tool.bitvector.BitVectorFactory;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
 import edu.alibaba.mpc4j.common.tool.crypto.prp.FixedKeyPrp;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractCpIdxPirClient;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.StreamCpIdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractPersistentCpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.mir.MirCpIdxPirPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.mir.hint.*;
 import gnu.trove.list.TIntList;
@@ -19,8 +19,10 @@ import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 
+import java.io.*;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -32,7 +34,7 @@ import java.util.stream.Stream;
  * @author Weiran Liu
  * @date 2023/9/4
  */
-public class MirCpIdxPirClient extends AbstractCpIdxPirClient implements StreamCpIdxPirClient {
+public class MirCpIdxPirClient extends AbstractPersistentCpIdxPirClient {
     /**
      * fixed key PRP
      */
@@ -74,8 +76,6 @@ public class MirCpIdxPirClient extends AbstractCpIdxPirClient implements StreamC
      */
     private TIntObjectMap<byte[]> localCacheEntries;
 
-    public long preprocessingCompTime = 0;
-    public long preprocessingRecTime = 0;
     public long querySendTime = 0;
     public long queryReceiveTime = 0;
     public long queryPureReceiveTime = 0;
@@ -91,13 +91,7 @@ public class MirCpIdxPirClient extends AbstractCpIdxPirClient implements StreamC
         logPhaseInfo(PtoState.INIT_BEGIN);
 
         stopWatch.start();
-        chunkSize = MirCpIdxPirUtils.getChunkSize(n);
-        chunkNum = MirCpIdxPirUtils.getChunkNum(n);
-        assert chunkSize * chunkNum >= n
-            : "chunkSize * chunkNum must be greater than or equal to n (" + n + "): " + chunkSize * chunkNum;
-        roundQueryNum = MirCpIdxPirUtils.getRoundQueryNum(n);
-        m1 = MirCpIdxPirUtils.getM1(n);
-        m2 = MirCpIdxPirUtils.getM2(n);
+        setParams();
         stopWatch.stop();
         long paramTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -109,12 +103,150 @@ public class MirCpIdxPirClient extends AbstractCpIdxPirClient implements StreamC
             )
         );
 
+        // we do not have hints
+        int updateNum = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), false, 0
+        );
+        MpcAbortPreconditions.checkArgument(updateNum < 0);
         // preprocessing
         preprocessing();
 
         logPhaseInfo(PtoState.INIT_END);
     }
 
+    @Override
+    public void init(InputStream inputStream, int maxBatchNum) throws MpcAbortException, IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        setInitInput(dataInputStream, maxBatchNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        setParams();
+        readHints(dataInputStream);
+        stopWatch.stop();
+        long readTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 0, 1, readTime, "Client reads hints of version " + version);
+
+        int updateNum = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(),
+            true, currentQueryNum
+        );
+        if (updateNum < 0) {
+            // hints cannot be synchronized, run the full preprocessing
+            preprocessing();
+        } else if (updateNum > 0) {
+            // only receive updates since the version of hints
+            applyUpdates(updateNum);
+        }
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    private void setParams() {
+        chunkSize = MirCpIdxPirUtils.getChunkSize(n);
+        chunkNum = MirCpIdxPirUtils.getChunkNum(n);
+        assert chunkSize * chunkNum >= n
+            : "chunkSize * chunkNum must be greater than or equal to n (" + n + "): " + chunkSize * chunkNum;
+        roundQueryNum = MirCpIdxPirUtils.getRoundQueryNum(n);
+        m1 = MirCpIdxPirUtils.getM1(n);
+        m2 = MirCpIdxPirUtils.getM2(n);
+    }
+
+    @Override
+    public void writeHints(OutputStream outputStream) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        writeHintVersion(dataOutputStream);
+        dataOutputStream.writeInt(currentQueryNum);
+        // primary hints
+        for (MirPrimaryHint primaryHint : primaryHints) {
+            if (primaryHint instanceof MirProgrammedPrimaryHint programmedPrimaryHint) {
+                dataOutputStream.writeBoolean(true);
+                dataOutputStream.writeInt(programmedPrimaryHint.getProgrammedIndex());
+                dataOutputStream.writeBoolean(programmedPrimaryHint.isFlip());
+                dataOutputStream.writeBoolean(programmedPrimaryHint.isAmended());
+            } else {
+                dataOutputStream.writeBoolean(false);
+                dataOutputStream.writeInt(((MirDirectPrimaryHint) primaryHint).getExtraChunkId());
+            }
+            AbstractMirHint hint = (AbstractMirHint) primaryHint;
+            dataOutputStream.write(hint.getHintId());
+            dataOutputStream.writeInt(hint.getCutoff());
+            dataOutputStream.write(primaryHint.getParity());
+        }
+        // backup hints, some of them may have been consumed
+        dataOutputStream.writeInt(backupHints.size());
+        for (MirBackupHint backupHint : backupHints) {
+            dataOutputStream.write(backupHint.getHintId());
+            dataOutputStream.writeInt(backupHint.getCutoff());
+            dataOutputStream.write(backupHint.getLeftParity());
+            dataOutputStream.write(backupHint.getRightParity());
+        }
+        // local cache entries
+        dataOutputStream.writeInt(localCacheEntries.size());
+        for (int x : localCacheEntries.keys()) {
+            dataOutputStream.writeInt(x);
+            dataOutputStream.write(localCacheEntries.get(x));
+        }
+        dataOutputStream.flush();
+    }
+
+    private void readHints(DataInputStream dataInputStream) throws IOException {
+        currentQueryNum = dataInputStream.readInt();
+        MathPreconditions.checkInRangeClosed("currentQueryNum", currentQueryNum, 0, roundQueryNum);
+        int hintIdByteLength = CommonConstants.BLOCK_BYTE_LENGTH - Short.BYTES - Short.BYTES;
+        // primary hints
+        primaryHints = new MirPrimaryHint[m1];
+        for (int i = 0; i < m1; i++) {
+            boolean programmed = dataInputStream.readBoolean();
+            int x = -1;
+            boolean flip = false;
+            boolean amended = false;
+            int extraChunkId = -1;
+            if (programmed) {
+                x = dataInputStream.readInt();
+                flip = dataInputStream.readBoolean();
+                amended = dataInputStream.readBoolean();
+            } else {
+                extraChunkId = dataInputStream.readInt();
+            }
+            byte[] hintId = new byte[hintIdByteLength];
+            dataInputStream.readFully(hintId);
+            int cutoff = dataInputStream.readInt();
+            byte[] parity = new byte[byteL];
+            dataInputStream.readFully(parity);
+            primaryHints[i] = programmed
+                ? new MirProgrammedPrimaryHint(
+                    fixedKeyPrp, chunkSize, chunkNum, l, hintId, cutoff, x, flip, amended, parity
+                )
+                : new MirDirectPrimaryHint(fixedKeyPrp, chunkSize, chunkNum, l, hintId, cutoff, extraChunkId, parity);
+        }
+        // backup hints
+        int backupHintNum = MathPreconditions.checkInRangeClosed("backup hint num", dataInputStream.readInt(), 0, m2);
+        backupHints = new LinkedList<>();
+        for (int i = 0; i < backupHintNum; i++) {
+            byte[] hintId = new byte[hintIdByteLength];
+            dataInputStream.readFully(hintId);
+            int cutoff = dataInputStream.readInt();
+            byte[] leftParity = new byte[byteL];
+            dataInputStream.readFully(leftParity);
+            byte[] rightParity = new byte[byteL];
+            dataInputStream.readFully(rightParity);
+            backupHints.add(
+                new MirBackupHint(fixedKeyPrp, chunkSize, chunkNum, l, hintId, cutoff, leftParity, rightParity)
+            );
+        }
+        // local cache entries
+        int size = MathPreconditions.checkNonNegative("cache size", dataInputStream.readInt());
+        localCacheEntries = new TIntObjectHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            int x = dataInputStream.readInt();
+            byte[] entry = new byte[byteL];
+            dataInputStream.readFully(entry);
+            localCacheEntries.put(x, entry);
+        }
+    }
+
     private void preprocessing() throws MpcAbortException {
         stopWatch.start();
         // init primary hints and backup hints
@@ -135,12 +267,15 @@ public class MirCpIdxPirClient extends AbstractCpIdxPirClient implements StreamC
         logStepInfo(PtoState.INIT_STEP, 1, 2, allocateTime, "Client allocates hints");
 
         stopWatch.start();
-        // stream receiving the database
+        // LinkedList splits poorly for parallel streams, we iterate backup hints in an array during preprocessing
+        MirBackupHint[] backupHintArray = backupHints.toArray(MirBackupHint[]::new);
+        // stream receiving the database. In parallel mode, hints are updated for the current block while receiving the
+        // next block, so that the server can emit chunks without waiting for the client to finish updating hints.
+        CompletableFuture<Void> hintUpdateFuture = CompletableFuture.completedFuture(null);
         for (int blockChunkId = 0; blockChunkId < chunkNum; blockChunkId += MirHint.PRP_BLOCK_OFFSET_NUM) {
             // send response before receive, such that the server can directly send the next one
             sendOtherPartyPayload(PtoStep.CLIENT_SEND_STREAM_DATABASE_RESPONSE.ordinal(), new LinkedList<>());
             ArrayList<byte[][]> chunkDataArrays = new ArrayList<>(MirHint.PRP_BLOCK_OFFSET_NUM);
-            long time0 = System.currentTimeMillis();
             for (int chunkId = blockChunkId; chunkId < blockChunkId + MirHint.PRP_BLOCK_OFFSET_NUM && chunkId < chunkNum; chunkId++) {
                 // download DB[k * √N : (k + 1) * √N - 1] from the server
                 List<byte[]> streamRequestPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_STREAM_DATABASE_REQUEST.ordinal());
@@ -155,57 +290,18 @@ public class MirCpIdxPirClient extends AbstractCpIdxPirClient implements StreamC
                 }
                 chunkDataArrays.add(chunkDataArray);
             }
-            long time1 = System.currentTimeMillis();
-            int num = chunkDataArrays.size();
+            // hints of the previous block must be updated before updating hints of the current block
+            hintUpdateFuture.join();
             final int finalBlockChunkId = blockChunkId;
-            // update the parity for the primary hints (for j = 0, 1, 2, ..., M)
-            // hitMap is irrelevant to the scheme. We want to know if any indices are missed.
-            boolean[][] hitMaps = new boolean[num][chunkSize];
-            Stream<MirPrimaryHint> primaryHintStream = parallel ? Arrays.stream(primaryHints).parallel() : Arrays.stream(primaryHints);
-            primaryHintStream.forEach(primaryHint -> {
-                int[] offsets = primaryHint.expandPrpBlockOffsets(finalBlockChunkId);
-                boolean[] contains = primaryHint.containsChunks(finalBlockChunkId);
-                assert offsets.length == num;
-                assert contains.length == num;
-                for (int i = 0; i < num; i++) {
-                    if (contains[i]) {
-                        // if v_{j,k} < ˆv_j then P_j = P_j ⊕ x, here we also include the case for the extra index e_j
-                        hitMaps[i][offsets[i]] = true;
-                        primaryHint.xori(chunkDataArrays.get(i)[offsets[i]]);
-                    }
-                }
-            });
-            // if some indices are missed, we need to fetch the corresponding elements
-            for (int i = 0; i < num; i++) {
-                for (int j = 0; j < chunkSize; j++) {
-                    if (!hitMaps[i][j]) {
-                        localCacheEntries.put(j + chunkSize * (finalBlockChunkId + i), chunkDataArrays.get(i)[j]);
-                    }
-                }
+            if (parallel) {
+                hintUpdateFuture = CompletableFuture.runAsync(() ->
+                    updateHints(finalBlockChunkId, chunkDataArrays, backupHintArray)
+                );
+            } else {
+                updateHints(finalBlockChunkId, chunkDataArrays, backupHintArray);
             }
-            // update the parity for the backup hints (for j = M + 1, ..., 1.5M - 1)
-            Stream<MirBackupHint> backupHintStream = parallel ? backupHints.stream().parallel() : backupHints.stream();
-            backupHintStream.forEach(backupHint -> {
-                int[] offsets = backupHint.expandPrpBlockOffsets(finalBlockChunkId);
-                boolean[] contains = backupHint.containsChunks(finalBlockChunkId);
-                assert offsets.length == num;
-                for (int i = 0; i < num; i++) {
-                    if (contains[i]) {
-                        // if v_{j,k} < ˆv_j then P_j = P_j ⊕ x
-                        backupHint.xoriLeftParity(chunkDataArrays.get(i)[offsets[i]]);
-                    } else {
-                        // else P'_j = P'_j ⊕ x
-                        backupHint.xoriRightParity(chunkDataArrays.get(i)[offsets[i]]);
-                    }
-                }
-            });
-            long time2 = System.currentTimeMillis();
-            preprocessingCompTime += time1 - time0;
-            preprocessingRecTime += time2 - time1;
-            System.gc();
         }
-        System.out.println("pure preprocessingCompTime time: " + preprocessingCompTime + "ms");
-        System.out.println("pure preprocessingRecTime time: " + preprocessingRecTime + "ms");
+        hintUpdateFuture.join();
         // reset current query num
         currentQueryNum = 0;
         stopWatch.stop();
@@ -214,6 +310,51 @@ public class MirCpIdxPirClient extends AbstractCpIdxPirClient implements StreamC
         logStepInfo(PtoState.INIT_STEP, 1, 1, streamTime, "Client handles " + chunkNum + " chunk");
     }
 
+    private void updateHints(int blockChunkId, ArrayList<byte[][]> chunkDataArrays, MirBackupHint[] backupHintArray) {
+        int num = chunkDataArrays.size();
+        // update the parity for the primary hints (for j = 0, 1, 2, ..., M)
+        // hitMap is irrelevant to the scheme. We want to know if any indices are missed.
+        boolean[][] hitMaps = new boolean[num][chunkSize];
+        Stream<MirPrimaryHint> primaryHintStream = parallel ? Arrays.stream(primaryHints).parallel() : Arrays.stream(primaryHints);
+        primaryHintStream.forEach(primaryHint -> {
+            int[] offsets = primaryHint.expandPrpBlockOffsets(blockChunkId);
+            boolean[] contains = primaryHint.containsChunks(blockChunkId);
+            assert offsets.length == num;
+            assert contains.length == num;
+            for (int i = 0; i < num; i++) {
+                if (contains[i]) {
+                    // if v_{j,k} < ˆv_j then P_j = P_j ⊕ x, here we also include the case for the extra index e_j
+                    hitMaps[i][offsets[i]] = true;
+                    primaryHint.xori(chunkDataArrays.get(i)[offsets[i]]);
+                }
+            }
+        });
+        // if some indices are missed, we need to fetch the corresponding elements
+        for (int i = 0; i < num; i++) {
+            for (int j = 0; j < chunkSize; j++) {
+                if (!hitMaps[i][j]) {
+                    localCacheEntries.put(j + chunkSize * (blockChunkId + i), chunkDataArrays.get(i)[j]);
+                }
+            }
+        }
+        // update the parity for the backup hints (for j = M + 1, ..., 1.5M - 1)
+        Stream<MirBackupHint> backupHintStream = parallel ? Arrays.stream(backupHintArray).parallel() : Arrays.stream(backupHintArray);
+        backupHintStream.forEach(backupHint -> {
+            int[] offsets = backupHint.expandPrpBlockOffsets(blockChunkId);
+            boolean[] contains = backupHint.containsChunks(blockChunkId);
+            assert offsets.length == num;
+            for (int i = 0; i < num; i++) {
+                if (contains[i]) {
+                    // if v_{j,k} < ˆv_j then P_j = P_j ⊕ x
+                    backupHint.xoriLeftParity(chunkDataArrays.get(i)[offsets[i]]);
+                } else {
+                    // else P'_j = P'_j ⊕ x
+                    backupHint.xoriRightParity(chunkDataArrays.get(i)[offsets[i]]);
+                }
+            }
+        });
+    }
+
     @Override
     public byte[][] pir(int[] xs) throws MpcAbortException {
         setPtoInput(xs);
@@ -397,46 +538,90 @@ public class MirCpIdxPirClient extends AbstractCpIdxPirClient implements StreamC
         MathPreconditions.checkPositive("update_num", updateNum);
         logPhaseInfo(PtoState.PTO_BEGIN);
 
+        applyUpdates(updateNum);
+        version += updateNum;
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    private void applyUpdates(int updateNum) throws MpcAbortException {
+        // the server sends all updates without waiting for responses, so that we receive all of them first
+        TIntObjectMap<byte[]> deltas = new TIntObjectHashMap<>(updateNum);
         for (int round = 0; round < updateNum; round++) {
             List<byte[]> updatePayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal());
-
-            stopWatch.start();
             MpcAbortPreconditions.checkArgument(updatePayload.size() == 2);
-            // Parse (i, u) ← δ_ℓ
+            // Parse (i, u) ← δ_ℓ, updates on the same index are merged since each u is a XOR difference
             int i = IntUtils.byteArrayToInt(updatePayload.get(0));
+            MpcAbortPreconditions.checkArgument(i >= 0 && i < chunkSize * chunkNum);
             byte[] u = updatePayload.get(1);
-            int chunkId = i / chunkSize;
-            int chunkIndex = Math.abs(i % chunkSize);
-            // update primary hints
-            Stream<MirPrimaryHint> primaryHintStream = parallel ? Arrays.stream(primaryHints).parallel() : Arrays.stream(primaryHints);
-            primaryHintStream.forEach(primaryHint -> {
-                if (primaryHint.contains(i)) {
-                    primaryHint.xori(u);
+            MpcAbortPreconditions.checkArgument(BytesUtils.isFixedReduceByteArray(u, byteL, l));
+            if (deltas.containsKey(i)) {
+                BytesUtils.xori(deltas.get(i), u);
+            } else {
+                deltas.put(i, BytesUtils.clone(u));
+            }
+        }
+
+        stopWatch.start();
+        // group updated indexes by PRP blocks, so that each hint evaluates PRP once for each affected block
+        int[] is = deltas.keys();
+        Arrays.sort(is);
+        TIntObjectMap<TIntList> blockIndexes = new TIntObjectHashMap<>();
+        for (int i : is) {
+            int blockChunkId = i / chunkSize / MirHint.PRP_BLOCK_OFFSET_NUM * MirHint.PRP_BLOCK_OFFSET_NUM;
+            if (!blockIndexes.containsKey(blockChunkId)) {
+                blockIndexes.put(blockChunkId, new TIntArrayList());
+            }
+            blockIndexes.get(blockChunkId).add(i);
+        }
+        int[] blockChunkIds = blockIndexes.keys();
+        // update primary hints
+        Stream<MirPrimaryHint> primaryHintStream = parallel ? Arrays.stream(primaryHints).parallel() : Arrays.stream(primaryHints);
+        primaryHintStream.forEach(primaryHint -> {
+            for (int blockChunkId : blockChunkIds) {
+                int[] offsets = primaryHint.expandPrpBlockOffsets(blockChunkId);
+                boolean[] contains = primaryHint.containsChunks(blockChunkId);
+                TIntList indexes = blockIndexes.get(blockChunkId);
+                for (int j = 0; j < indexes.size(); j++) {
+                    int i = indexes.get(j);
+                    int blockIndex = i / chunkSize - blockChunkId;
+                    if (contains[blockIndex] && offsets[blockIndex] == Math.abs(i % chunkSize)) {
+                        primaryHint.xori(deltas.get(i));
+                    }
                 }
-            });
-            // update backup hints
-            Stream<MirBackupHint> backupHintStream = parallel ? backupHints.stream().parallel() : backupHints.stream();
-            backupHintStream.forEach(backupHint -> {
-                int offset = backupHint.expandOffset(chunkId);
-                if (offset == chunkIndex) {
-                    if (backupHint.containsChunkId(chunkId)) {
-                        backupHint.xoriLeftParity(u);
-                    } else {
-                        backupHint.xoriRightParity(u);
+            }
+        });
+        // update backup hints
+        MirBackupHint[] backupHintArray = backupHints.toArray(MirBackupHint[]::new);
+        Stream<MirBackupHint> backupHintStream = parallel ? Arrays.stream(backupHintArray).parallel() : Arrays.stream(backupHintArray);
+        backupHintStream.forEach(backupHint -> {
+            for (int blockChunkId : blockChunkIds) {
+                int[] offsets = backupHint.expandPrpBlockOffsets(blockChunkId);
+                boolean[] contains = backupHint.containsChunks(blockChunkId);
+                TIntList indexes = blockIndexes.get(blockChunkId);
+                for (int j = 0; j < indexes.size(); j++) {
+                    int i = indexes.get(j);
+                    int blockIndex = i / chunkSize - blockChunkId;
+                    if (offsets[blockIndex] == Math.abs(i % chunkSize)) {
+                        if (contains[blockIndex]) {
+                            backupHint.xoriLeftParity(deltas.get(i));
+                        } else {
+                            backupHint.xoriRightParity(deltas.get(i));
+                        }
                     }
                 }
-            });
-            // update cache entries
+            }
+        });
+        // update cache entries
+        for (int i : is) {
             if (localCacheEntries.containsKey(i)) {
                 byte[] entry = localCacheEntries.get(i);
-                BytesUtils.xori(entry, u);
+                BytesUtils.xori(entry, deltas.get(i));
             }
-            stopWatch.stop();
-            long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-            stopWatch.reset();
-            logStepInfo(PtoState.PTO_STEP, 1, 1, updateTime, "Client updates " + (round + 1) + "-th entry");
         }
-
-        logPhaseInfo(PtoState.PTO_END);
+        stopWatch.stop();
+        long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 1, updateTime, "Client updates " + is.length + " entries");
     }
 }
@@ -10,8 +10,8 @@ import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
 import edu.alibaba.mpc4j.common.structure.database.ZlDatabase;
 import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractCpIdxPirServer;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.StreamCpIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractPersistentCpIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirUpdateLog;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.mir.MirCpIdxPirPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.mir.hint.MirHint;
 import org.slf4j.Logger;
@@ -21,7 +21,9 @@ import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 /**
  * MIR client-specific preprocessing index PIR server.
@@ -29,7 +31,7 @@ import java.util.concurrent.TimeUnit;
  * @author Weiran Liu
  * @date 2023/8/31
  */
-public class MirCpIdxPirServer extends AbstractCpIdxPirServer implements StreamCpIdxPirServer {
+public class MirCpIdxPirServer extends AbstractPersistentCpIdxPirServer {
     private static final Logger LOGGER = LoggerFactory.getLogger(MirCpIdxPirServer.class);
     /**
      * chunk size
@@ -61,7 +63,7 @@ public class MirCpIdxPirServer extends AbstractCpIdxPirServer implements StreamC
     }
 
     @Override
-    public void init(NaiveDatabase database, int maxBatchNum) throws MpcAbortException {
+    public void init(NaiveDatabase database, CpIdxPirUpdateLog updateLog, int maxBatchNum) throws MpcAbortException {
         setInitInput(database, maxBatchNum);
         logPhaseInfo(PtoState.INIT_BEGIN);
 
@@ -71,14 +73,11 @@ public class MirCpIdxPirServer extends AbstractCpIdxPirServer implements StreamC
         assert chunkSize * chunkNum >= n
             : "chunkSize * chunkNum must be greater than or equal to n (" + n + "): " + chunkSize * chunkNum;
         byteChunkNum = CommonUtils.getByteLength(chunkNum);
-        // pad the database
+        // pad the database with zeros, so that persisted hints are still valid in the next session
         byte[][] paddingData = new byte[chunkSize * chunkNum][byteL];
         for (int x = 0; x < n; x++) {
             paddingData[x] = database.getBytesData(x);
         }
-        for (int x = n; x < chunkSize * chunkNum; x++) {
-            paddingData[x] = BytesUtils.randomByteArray(byteL, l, secureRandom);
-        }
         paddingDatabase = ZlDatabase.create(l, paddingData);
         roundQueryNum = MirCpIdxPirUtils.getRoundQueryNum(n);
         stopWatch.stop();
@@ -92,25 +91,48 @@ public class MirCpIdxPirServer extends AbstractCpIdxPirServer implements StreamC
             )
         );
 
-        // preprocessing
-        preprocessing();
+        this.updateLog = updateLog;
+        boolean sync = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), roundQueryNum
+        );
+        if (sync) {
+            // only send updates since the version of persisted hints
+            currentQueryNum = hintQueryNum;
+            stopWatch.start();
+            int[] xs = updateLog.getXs(hintVersion);
+            byte[][] deltas = updateLog.getDeltas(hintVersion);
+            for (int i = 0; i < xs.length; i++) {
+                sendUpdate(xs[i], deltas[i]);
+            }
+            stopWatch.stop();
+            long syncTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(
+                PtoState.INIT_STEP, 1, 1, syncTime,
+                "Server sends " + xs.length + " update(s) since version " + hintVersion
+            );
+        } else {
+            // preprocessing
+            preprocessing();
+        }
 
         logPhaseInfo(PtoState.INIT_END);
     }
 
     private void preprocessing() throws MpcAbortException {
         stopWatch.start();
-        // stream sending the database
+        // stream sending the database. Chunks of the next block are concatenated while sending the current block.
+        CompletableFuture<byte[][]> blockChunkFuture = CompletableFuture.supplyAsync(() -> getBlockChunks(0));
         for (int blockChunkId = 0; blockChunkId < chunkNum; blockChunkId += MirHint.PRP_BLOCK_OFFSET_NUM) {
             LOGGER.info("preprocessing {} / {}", blockChunkId + 1, chunkNum);
+            byte[][] blockChunks = blockChunkFuture.join();
+            int nextBlockChunkId = blockChunkId + MirHint.PRP_BLOCK_OFFSET_NUM;
+            if (nextBlockChunkId < chunkNum) {
+                blockChunkFuture = CompletableFuture.supplyAsync(() -> getBlockChunks(nextBlockChunkId));
+            }
             // send batched chunks
-            for (int chunkId = blockChunkId; chunkId < blockChunkId + MirHint.PRP_BLOCK_OFFSET_NUM && chunkId < chunkNum; chunkId++) {
-                // concatenate database into the whole byte buffer
-                ByteBuffer byteBuffer = ByteBuffer.allocate(byteL * chunkSize);
-                for (int offset = 0; offset < chunkSize; offset++) {
-                    byteBuffer.put(paddingDatabase.getBytesData(chunkId * chunkSize + offset));
-                }
-                List<byte[]> streamRequestPayload = Collections.singletonList(byteBuffer.array());
+            for (byte[] chunk : blockChunks) {
+                List<byte[]> streamRequestPayload = Collections.singletonList(chunk);
                 sendOtherPartyPayload(PtoStep.SERVER_SEND_STREAM_DATABASE_REQUEST.ordinal(), streamRequestPayload);
             }
             // receive response
@@ -125,6 +147,22 @@ public class MirCpIdxPirServer extends AbstractCpIdxPirServer implements StreamC
         logStepInfo(PtoState.INIT_STEP, 1, 1, streamTime, "Server handles " + chunkNum + " chunk(s)");
     }
 
+    private byte[][] getBlockChunks(int blockChunkId) {
+        int num = Math.min(MirHint.PRP_BLOCK_OFFSET_NUM, chunkNum - blockChunkId);
+        IntStream chunkIntStream = parallel ? IntStream.range(0, num).parallel() : IntStream.range(0, num);
+        return chunkIntStream
+            .mapToObj(i -> {
+                // concatenate database into the whole byte buffer
+                int chunkId = blockChunkId + i;
+                ByteBuffer byteBuffer = ByteBuffer.allocate(byteL * chunkSize);
+                for (int offset = 0; offset < chunkSize; offset++) {
+                    byteBuffer.put(paddingDatabase.getBytesData(chunkId * chunkSize + offset));
+                }
+                return byteBuffer.array();
+            })
+            .toArray(byte[][]::new);
+    }
+
     @Override
     public void pir(int batchNum) throws MpcAbortException {
         setPtoInput(batchNum);
@@ -216,11 +254,9 @@ public class MirCpIdxPirServer extends AbstractCpIdxPirServer implements StreamC
             BytesUtils.xori(delta, entry);
             // D[i] ← d
             paddingDatabase.setBytesData(x, entry);
+            updateLog.append(x, delta);
             // Return δ
-            List<byte[]> serverUpdatePayload = new LinkedList<>();
-            serverUpdatePayload.add(IntUtils.intToByteArray(x));
-            serverUpdatePayload.add(delta);
-            sendOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal(), serverUpdatePayload);
+            sendUpdate(x, delta);
             stopWatch.stop();
             long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
             stopWatch.reset();
@@ -229,4 +265,11 @@ public class MirCpIdxPirServer extends AbstractCpIdxPirServer implements StreamC
 
         logPhaseInfo(PtoState.PTO_END);
     }
+
+    private void sendUpdate(int x, byte[] delta) {
+        List<byte[]> serverUpdatePayload = new LinkedList<>();
+        serverUpdatePayload.add(IntUtils.intToByteArray(x));
+        serverUpdatePayload.add(delta);
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal(), serverUpdatePayload);
+    }
 }
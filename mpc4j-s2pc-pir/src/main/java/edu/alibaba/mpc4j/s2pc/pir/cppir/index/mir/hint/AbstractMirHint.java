@@ -56,6 +56,12 @@ public abstract class AbstractMirHint implements MirHint {
         hintId = new byte[CommonConstants.BLOCK_BYTE_LENGTH - Short.BYTES - Short.BYTES];
     }
 
+    protected AbstractMirHint(FixedKeyPrp fixedKeyPrp, int chunkSize, int chunkNum, int l, byte[] hintId) {
+        this(fixedKeyPrp, chunkSize, chunkNum, l);
+        MathPreconditions.checkEqual("hintId.length", "expect", hintId.length, this.hintId.length);
+        System.arraycopy(hintId, 0, this.hintId, 0, hintId.length);
+    }
+
     /**
      * Gets an integer value based on the hint ID and the chunk ID.
      *
@@ -225,6 +231,15 @@ public abstract class AbstractMirHint implements MirHint {
         return integers;
     }
 
+    /**
+     * Gets the hint ID.
+     *
+     * @return the hint ID.
+     */
+    public byte[] getHintId() {
+        return hintId;
+    }
+
     @Override
     public int getChunkSize() {
         return chunkSize;
@@ -250,5 +265,5 @@ public abstract class AbstractMirHint implements MirHint {
      *
      * @return the cutoff value ^v.
      */
-    protected abstract int getCutoff();
+    public abstract int getCutoff();
 }
@@ -83,8 +83,14 @@ public abstract class AbstractRandomCutoffMirHint extends AbstractMirHint {
         cutoff = tryCutoff;
     }
 
+    protected AbstractRandomCutoffMirHint(FixedKeyPrp fixedKeyPrp,
+                                          int chunkSize, int chunkNum, int l, byte[] hintId, int cutoff) {
+        super(fixedKeyPrp, chunkSize, chunkNum, l, hintId);
+        this.cutoff = cutoff;
+    }
+
     @Override
-    protected int getCutoff(){
+    public int getCutoff() {
         return cutoff;
     }
 }
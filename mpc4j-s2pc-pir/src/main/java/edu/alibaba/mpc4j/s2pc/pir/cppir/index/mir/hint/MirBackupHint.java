@@ -44,6 +44,27 @@ public class MirBackupHint extends AbstractRandomCutoffMirHint {
         vs = null;
     }
 
+    /**
+     * Creates a hint with the given hint ID, cutoff and parities.
+     *
+     * @param fixedKeyPrp fixed key PRP.
+     * @param chunkSize   chunk size.
+     * @param chunkNum    chunk num.
+     * @param l           parity bit length.
+     * @param hintId      hint ID.
+     * @param cutoff      the cutoff ^v.
+     * @param leftParity  parity for all v < ^v.
+     * @param rightParity parity for all v > ^v.
+     */
+    public MirBackupHint(FixedKeyPrp fixedKeyPrp, int chunkSize, int chunkNum, int l,
+                         byte[] hintId, int cutoff, byte[] leftParity, byte[] rightParity) {
+        super(fixedKeyPrp, chunkSize, chunkNum, l, hintId, cutoff);
+        Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(leftParity, byteL, l));
+        this.leftParity = BytesUtils.clone(leftParity);
+        Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(rightParity, byteL, l));
+        this.rightParity = BytesUtils.clone(rightParity);
+    }
+
     @Override
     public boolean containsChunkId(int chunkId) {
         int vl = getIntegerForMedian(chunkId);
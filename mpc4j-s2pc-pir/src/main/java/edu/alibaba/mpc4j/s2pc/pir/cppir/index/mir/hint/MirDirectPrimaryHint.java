@@ -58,6 +58,27 @@ public class MirDirectPrimaryHint extends AbstractRandomCutoffMirHint implements
         vs = null;
     }
 
+    /**
+     * Creates a hint with the given hint ID, cutoff and parity.
+     *
+     * @param fixedKeyPrp  fixed key PRP.
+     * @param chunkSize    chunk size.
+     * @param chunkNum     chunk num.
+     * @param l            parity bit length.
+     * @param hintId       hint ID.
+     * @param cutoff       the cutoff ^v.
+     * @param extraChunkId the extra one more chunk ID.
+     * @param parity       parity.
+     */
+    public MirDirectPrimaryHint(FixedKeyPrp fixedKeyPrp, int chunkSize, int chunkNum, int l,
+                                byte[] hintId, int cutoff, int extraChunkId, byte[] parity) {
+        super(fixedKeyPrp, chunkSize, chunkNum, l, hintId, cutoff);
+        MathPreconditions.checkNonNegativeInRange("extraChunkId", extraChunkId, chunkNum);
+        this.extraChunkId = extraChunkId;
+        Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(parity, byteL, l));
+        this.parity = BytesUtils.clone(parity);
+    }
+
     @Override
     public boolean containsChunkId(int chunkId) {
         // the straightforward case is that the extra index e_j equals i
@@ -117,6 +138,15 @@ public class MirDirectPrimaryHint extends AbstractRandomCutoffMirHint implements
     }
 
 
+    /**
+     * Gets the extra one more chunk ID.
+     *
+     * @return the extra one more chunk ID.
+     */
+    public int getExtraChunkId() {
+        return extraChunkId;
+    }
+
     @Override
     public byte[] getParity() {
         return parity;
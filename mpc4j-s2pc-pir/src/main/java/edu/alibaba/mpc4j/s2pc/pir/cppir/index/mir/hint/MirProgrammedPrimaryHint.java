@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.bitvector.BitVector;
 import edu.alibaba.mpc4j.common.tool.bitvector.BitVectorFactory;
+import edu.alibaba.mpc4j.common.tool.crypto.prp.FixedKeyPrp;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 
 /**
@@ -72,6 +73,34 @@ public class MirProgrammedPrimaryHint extends AbstractMirHint implements MirPrim
         amended = false;
     }
 
+    /**
+     * Creates a hint with the given hint ID, cutoff and parity.
+     *
+     * @param fixedKeyPrp fixed key PRP.
+     * @param chunkSize   chunk size.
+     * @param chunkNum    chunk num.
+     * @param l           parity bit length.
+     * @param hintId      hint ID.
+     * @param cutoff      the cutoff ^v.
+     * @param x           programmed x.
+     * @param flip        whether < is redefined to be "greater than".
+     * @param amended     whether the hint has been amended.
+     * @param parity      parity.
+     */
+    public MirProgrammedPrimaryHint(FixedKeyPrp fixedKeyPrp, int chunkSize, int chunkNum, int l,
+                                    byte[] hintId, int cutoff, int x, boolean flip, boolean amended, byte[] parity) {
+        super(fixedKeyPrp, chunkSize, chunkNum, l, hintId);
+        MathPreconditions.checkNonNegativeInRange("x", x, chunkSize * chunkNum);
+        this.cutoff = cutoff;
+        programmedIndex = x;
+        extraChunkId = x / chunkSize;
+        extraOffset = x % chunkSize;
+        this.flip = flip;
+        this.amended = amended;
+        Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(parity, byteL, l));
+        this.parity = BytesUtils.clone(parity);
+    }
+
     @Override
     public boolean containsChunkId(int chunkId) {
         // the straightforward case is that the extra index e_j equals i
@@ -147,6 +176,33 @@ public class MirProgrammedPrimaryHint extends AbstractMirHint implements MirPrim
         return offsets;
     }
 
+    /**
+     * Gets the programmed index.
+     *
+     * @return the programmed index.
+     */
+    public int getProgrammedIndex() {
+        return programmedIndex;
+    }
+
+    /**
+     * Returns whether < is redefined to be "greater than" for this hint.
+     *
+     * @return whether < is redefined to be "greater than".
+     */
+    public boolean isFlip() {
+        return flip;
+    }
+
+    /**
+     * Returns whether the hint has been amended.
+     *
+     * @return whether the hint has been amended.
+     */
+    public boolean isAmended() {
+        return amended;
+    }
+
     @Override
     public byte[] getParity() {
         return parity;
@@ -178,7 +234,7 @@ public class MirProgrammedPrimaryHint extends AbstractMirHint implements MirPrim
     }
 
     @Override
-    protected int getCutoff() {
+    public int getCutoff() {
         return cutoff;
     }
 }
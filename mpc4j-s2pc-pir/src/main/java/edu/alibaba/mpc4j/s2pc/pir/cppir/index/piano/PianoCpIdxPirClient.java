@@ -1,12 +1,12 @@
 package edu.alibaba.mpc4j.s2pc.pir.cppir.index.piano;
 
 import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
 import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
 import edu.alibaba.mpc4j.common.tool.crypto.prp.FixedKeyPrp;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractCpIdxPirClient;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.StreamCpIdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractPersistentCpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.piano.PianoCpIdxPirPtoDesc.PtoStep;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.piano.hint.*;
 import gnu.trove.list.TIntList;
@@ -16,8 +16,10 @@ import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 
+import java.io.*;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -29,7 +31,7 @@ import java.util.stream.Stream;
  * @author Weiran Liu
  * @date 2023/8/25
  */
-public class PianoCpIdxPirClient extends AbstractCpIdxPirClient implements StreamCpIdxPirClient {
+public class PianoCpIdxPirClient extends AbstractPersistentCpIdxPirClient {
     /**
      * fixed key PRP
      */
@@ -82,13 +84,7 @@ public class PianoCpIdxPirClient extends AbstractCpIdxPirClient implements Strea
         logPhaseInfo(PtoState.INIT_BEGIN);
 
         stopWatch.start();
-        chunkSize = PianoCpIdxPirUtils.getChunkSize(n);
-        chunkNum = PianoCpIdxPirUtils.getChunkNum(n);
-        assert chunkSize * chunkNum >= n
-            : "chunkSize * chunkNum must be greater than or equal to n (" + n + "): " + chunkSize * chunkNum;
-        roundQueryNum = PianoCpIdxPirUtils.getRoundQueryNum(n);
-        m1 = PianoCpIdxPirUtils.getM1(n);
-        m2PerGroup = PianoCpIdxPirUtils.getM2PerGroup(n);
+        setParams();
         stopWatch.stop();
         long paramTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -100,12 +96,134 @@ public class PianoCpIdxPirClient extends AbstractCpIdxPirClient implements Strea
             )
         );
 
+        // we do not have hints
+        int updateNum = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), false, 0
+        );
+        MpcAbortPreconditions.checkArgument(updateNum < 0);
         // preprocessing
         preprocessing();
 
         logPhaseInfo(PtoState.INIT_END);
     }
 
+    @Override
+    public void init(InputStream inputStream, int maxBatchNum) throws MpcAbortException, IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        setInitInput(dataInputStream, maxBatchNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        setParams();
+        readHints(dataInputStream);
+        stopWatch.stop();
+        long readTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 0, 1, readTime, "Client reads hints of version " + version);
+
+        int updateNum = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(),
+            true, currentQueryNum
+        );
+        if (updateNum < 0) {
+            // hints cannot be synchronized, run the full preprocessing
+            preprocessing();
+        } else if (updateNum > 0) {
+            // only receive updates since the version of hints
+            applyUpdates(updateNum);
+        }
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    private void setParams() {
+        chunkSize = PianoCpIdxPirUtils.getChunkSize(n);
+        chunkNum = PianoCpIdxPirUtils.getChunkNum(n);
+        assert chunkSize * chunkNum >= n
+            : "chunkSize * chunkNum must be greater than or equal to n (" + n + "): " + chunkSize * chunkNum;
+        roundQueryNum = PianoCpIdxPirUtils.getRoundQueryNum(n);
+        m1 = PianoCpIdxPirUtils.getM1(n);
+        m2PerGroup = PianoCpIdxPirUtils.getM2PerGroup(n);
+    }
+
+    @Override
+    public void writeHints(OutputStream outputStream) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        writeHintVersion(dataOutputStream);
+        dataOutputStream.writeInt(currentQueryNum);
+        // primary hints
+        for (PianoPrimaryHint primaryHint : primaryHints) {
+            if (primaryHint instanceof PianoProgrammedPrimaryHint programmedPrimaryHint) {
+                dataOutputStream.writeBoolean(true);
+                dataOutputStream.writeInt(programmedPrimaryHint.getProgrammedIndex());
+                dataOutputStream.writeBoolean(programmedPrimaryHint.isAmended());
+            } else {
+                dataOutputStream.writeBoolean(false);
+            }
+            AbstractPianoHint hint = (AbstractPianoHint) primaryHint;
+            dataOutputStream.write(hint.getHintId());
+            dataOutputStream.write(hint.getParity());
+        }
+        // backup hints, some of them may have been consumed
+        for (ArrayList<PianoBackupHint> backupHints : backupHintGroup) {
+            dataOutputStream.writeInt(backupHints.size());
+            for (PianoBackupHint backupHint : backupHints) {
+                dataOutputStream.write(backupHint.getHintId());
+                dataOutputStream.write(backupHint.getParity());
+            }
+        }
+        // local cache entries
+        dataOutputStream.writeInt(localCacheEntries.size());
+        for (int x : localCacheEntries.keys()) {
+            dataOutputStream.writeInt(x);
+            dataOutputStream.write(localCacheEntries.get(x));
+        }
+        dataOutputStream.flush();
+    }
+
+    private void readHints(DataInputStream dataInputStream) throws IOException {
+        currentQueryNum = dataInputStream.readInt();
+        MathPreconditions.checkInRangeClosed("currentQueryNum", currentQueryNum, 0, roundQueryNum);
+        int hintIdByteLength = CommonConstants.BLOCK_BYTE_LENGTH - Short.BYTES;
+        // primary hints
+        primaryHints = new PianoPrimaryHint[m1];
+        for (int i = 0; i < m1; i++) {
+            boolean programmed = dataInputStream.readBoolean();
+            int x = programmed ? dataInputStream.readInt() : -1;
+            boolean amended = programmed && dataInputStream.readBoolean();
+            byte[] hintId = new byte[hintIdByteLength];
+            dataInputStream.readFully(hintId);
+            byte[] parity = new byte[byteL];
+            dataInputStream.readFully(parity);
+            primaryHints[i] = programmed
+                ? new PianoProgrammedPrimaryHint(fixedKeyPrp, chunkSize, chunkNum, l, x, amended, hintId, parity)
+                : new PianoDirectPrimaryHint(fixedKeyPrp, chunkSize, chunkNum, l, hintId, parity);
+        }
+        // backup hints
+        backupHintGroup = new ArrayList<>(chunkNum);
+        for (int chunkId = 0; chunkId < chunkNum; chunkId++) {
+            int size = MathPreconditions.checkInRangeClosed("backup hint num", dataInputStream.readInt(), 0, m2PerGroup);
+            ArrayList<PianoBackupHint> backupHints = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                byte[] hintId = new byte[hintIdByteLength];
+                dataInputStream.readFully(hintId);
+                byte[] parity = new byte[byteL];
+                dataInputStream.readFully(parity);
+                backupHints.add(new PianoBackupHint(fixedKeyPrp, chunkSize, chunkNum, l, chunkId, hintId, parity));
+            }
+            backupHintGroup.add(backupHints);
+        }
+        // local cache entries
+        int size = MathPreconditions.checkNonNegative("cache size", dataInputStream.readInt());
+        localCacheEntries = new TIntObjectHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            int x = dataInputStream.readInt();
+            byte[] entry = new byte[byteL];
+            dataInputStream.readFully(entry);
+            localCacheEntries.put(x, entry);
+        }
+    }
+
     private void preprocessing() throws MpcAbortException {
         stopWatch.start();
         // init primary hints and backup hints data structure
@@ -128,7 +246,9 @@ public class PianoCpIdxPirClient extends AbstractCpIdxPirClient implements Strea
         logStepInfo(PtoState.INIT_STEP, 1, 2, allocateTime, "Client allocates hints");
 
         stopWatch.start();
-        // stream receiving the database
+        // stream receiving the database. In parallel mode, hints are updated for the current block while receiving the
+        // next block, so that the server can emit chunks without waiting for the client to finish updating hints.
+        CompletableFuture<Void> hintUpdateFuture = CompletableFuture.completedFuture(null);
         for (int blockChunkId = 0; blockChunkId < chunkNum; blockChunkId += PianoHint.PRP_BLOCK_OFFSET_NUM) {
             // send response before receive, such that the server can directly send the next one
             sendOtherPartyPayload(PtoStep.CLIENT_SEND_STREAM_DATABASE_RESPONSE.ordinal(), new LinkedList<>());
@@ -147,48 +267,16 @@ public class PianoCpIdxPirClient extends AbstractCpIdxPirClient implements Strea
                 }
                 chunkDataArrays.add(chunkDataArray);
             }
-
-            int num = chunkDataArrays.size();
-            final int finalChunkId = blockChunkId;
-            // update the parity for the primary hints
-            // hitMap is irrelevant to the scheme. We want to know if any indices are missed.
-            boolean[][] hitMaps = new boolean[num][chunkSize];
-            primaryHintIntStream = parallel ? IntStream.range(0, m1).parallel() : IntStream.range(0, m1);
-            primaryHintIntStream.forEach(primaryHintIndex -> {
-                PianoPrimaryHint primaryHint = primaryHints[primaryHintIndex];
-                int[] offsets = primaryHint.expandPrpBlockOffsets(finalChunkId);
-                assert offsets.length == num;
-                for (int i = 0; i < num; i++) {
-                    hitMaps[i][offsets[i]] = true;
-                    // XOR parity
-                    primaryHint.xori(chunkDataArrays.get(i)[offsets[i]]);
-                }
-            });
-            // if some indices are missed, we need to fetch the corresponding elements
-            for (int i = 0; i < num; i++) {
-                for (int j = 0; j < chunkSize; j++) {
-                    if (!hitMaps[i][j]) {
-                        localCacheEntries.put(j + chunkSize * (finalChunkId + i), chunkDataArrays.get(i)[j]);
-                    }
-                }
+            // hints of the previous block must be updated before updating hints of the current block
+            hintUpdateFuture.join();
+            final int finalBlockChunkId = blockChunkId;
+            if (parallel) {
+                hintUpdateFuture = CompletableFuture.runAsync(() -> updateHints(finalBlockChunkId, chunkDataArrays));
+            } else {
+                updateHints(finalBlockChunkId, chunkDataArrays);
             }
-            // update the parity for the backup hints
-            backupHintGroupIntStream = parallel ? IntStream.range(0, chunkNum).parallel() : IntStream.range(0, chunkNum);
-            backupHintGroupIntStream.forEach(backupHintGroupIndex -> {
-                ArrayList<PianoBackupHint> backupHints = backupHintGroup.get(backupHintGroupIndex);
-                for (PianoBackupHint backupHint : backupHints) {
-                    int[] offsets = backupHint.expandPrpBlockOffsets(finalChunkId);
-                    assert offsets.length == num;
-                    for (int i = 0; i < num; i++) {
-                        // we need to ignore the group for the chunk ID.
-                        if (backupHintGroupIndex != finalChunkId + i) {
-                            backupHint.xori(chunkDataArrays.get(i)[offsets[i]]);
-                        }
-                    }
-                }
-            });
-            System.gc();
         }
+        hintUpdateFuture.join();
 
         // reset current query num
         currentQueryNum = 0;
@@ -198,6 +286,47 @@ public class PianoCpIdxPirClient extends AbstractCpIdxPirClient implements Strea
         logStepInfo(PtoState.INIT_STEP, 1, 1, streamTime, "Client handles " + chunkNum + " chunk");
     }
 
+    private void updateHints(int blockChunkId, ArrayList<byte[][]> chunkDataArrays) {
+        int num = chunkDataArrays.size();
+        // update the parity for the primary hints
+        // hitMap is irrelevant to the scheme. We want to know if any indices are missed.
+        boolean[][] hitMaps = new boolean[num][chunkSize];
+        IntStream primaryHintIntStream = parallel ? IntStream.range(0, m1).parallel() : IntStream.range(0, m1);
+        primaryHintIntStream.forEach(primaryHintIndex -> {
+            PianoPrimaryHint primaryHint = primaryHints[primaryHintIndex];
+            int[] offsets = primaryHint.expandPrpBlockOffsets(blockChunkId);
+            assert offsets.length == num;
+            for (int i = 0; i < num; i++) {
+                hitMaps[i][offsets[i]] = true;
+                // XOR parity
+                primaryHint.xori(chunkDataArrays.get(i)[offsets[i]]);
+            }
+        });
+        // if some indices are missed, we need to fetch the corresponding elements
+        for (int i = 0; i < num; i++) {
+            for (int j = 0; j < chunkSize; j++) {
+                if (!hitMaps[i][j]) {
+                    localCacheEntries.put(j + chunkSize * (blockChunkId + i), chunkDataArrays.get(i)[j]);
+                }
+            }
+        }
+        // update the parity for the backup hints
+        IntStream backupHintGroupIntStream = parallel ? IntStream.range(0, chunkNum).parallel() : IntStream.range(0, chunkNum);
+        backupHintGroupIntStream.forEach(backupHintGroupIndex -> {
+            ArrayList<PianoBackupHint> backupHints = backupHintGroup.get(backupHintGroupIndex);
+            for (PianoBackupHint backupHint : backupHints) {
+                int[] offsets = backupHint.expandPrpBlockOffsets(blockChunkId);
+                assert offsets.length == num;
+                for (int i = 0; i < num; i++) {
+                    // we need to ignore the group for the chunk ID.
+                    if (backupHintGroupIndex != blockChunkId + i) {
+                        backupHint.xori(chunkDataArrays.get(i)[offsets[i]]);
+                    }
+                }
+            }
+        });
+    }
+
     @Override
     public byte[][] pir(int[] xs) throws MpcAbortException {
         setPtoInput(xs);
@@ -365,46 +494,74 @@ public class PianoCpIdxPirClient extends AbstractCpIdxPirClient implements Strea
         MathPreconditions.checkPositive("update_num", updateNum);
         logPhaseInfo(PtoState.PTO_BEGIN);
 
+        applyUpdates(updateNum);
+        version += updateNum;
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    private void applyUpdates(int updateNum) throws MpcAbortException {
+        // the server sends all updates without waiting for responses, so that we receive all of them first
+        TIntObjectMap<byte[]> deltas = new TIntObjectHashMap<>(updateNum);
         for (int round = 0; round < updateNum; round++) {
             List<byte[]> updatePayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal());
-
-            stopWatch.start();
             MpcAbortPreconditions.checkArgument(updatePayload.size() == 2);
-            // Parse (i, u) ← δ_ℓ
+            // Parse (i, u) ← δ_ℓ, updates on the same index are merged since each u is a XOR difference
             int i = IntUtils.byteArrayToInt(updatePayload.get(0));
+            MpcAbortPreconditions.checkArgument(i >= 0 && i < chunkSize * chunkNum);
             byte[] u = updatePayload.get(1);
-            int chunkId = i / chunkSize;
-            int chunkIndex = Math.abs(i % chunkSize);
-            // enumerate all primary hints and update when necessary
-            Stream<PianoPrimaryHint> primaryHintIntStream = parallel ? Arrays.stream(primaryHints).parallel() : Arrays.stream(primaryHints);
-            primaryHintIntStream.forEach(primaryHint -> {
-                if (primaryHint.expandOffset(chunkId) == chunkIndex) {
-                    primaryHint.xori(u);
-                }
-            });
-            // enumerate all backup hints and update when necessary
-            IntStream backupHintGroupIntStream = parallel ? IntStream.range(0, chunkNum).parallel() : IntStream.range(0, chunkNum);
-            backupHintGroupIntStream.forEach(backupHintGroupIndex -> {
-                // we need to ignore the group for the chunk ID.
-                if (backupHintGroupIndex != chunkId) {
-                    ArrayList<PianoBackupHint> backupHints = backupHintGroup.get(backupHintGroupIndex);
-                    for (PianoBackupHint backupHint : backupHints) {
-                        if (backupHint.expandOffset(chunkId) == chunkIndex) {
-                            backupHint.xori(u);
-                        }
-                    }
-                }
-            });
+            MpcAbortPreconditions.checkArgument(BytesUtils.isFixedReduceByteArray(u, byteL, l));
+            if (deltas.containsKey(i)) {
+                BytesUtils.xori(deltas.get(i), u);
+            } else {
+                deltas.put(i, BytesUtils.clone(u));
+            }
+        }
+
+        stopWatch.start();
+        // group updated indexes by PRP blocks, so that each hint evaluates PRP once for each affected block
+        int[] is = deltas.keys();
+        Arrays.sort(is);
+        TIntObjectMap<TIntList> blockIndexes = new TIntObjectHashMap<>();
+        for (int i : is) {
+            int blockChunkId = i / chunkSize / PianoHint.PRP_BLOCK_OFFSET_NUM * PianoHint.PRP_BLOCK_OFFSET_NUM;
+            if (!blockIndexes.containsKey(blockChunkId)) {
+                blockIndexes.put(blockChunkId, new TIntArrayList());
+            }
+            blockIndexes.get(blockChunkId).add(i);
+        }
+        int[] blockChunkIds = blockIndexes.keys();
+        // enumerate all primary hints and update when necessary
+        Stream<PianoPrimaryHint> primaryHintStream = parallel ? Arrays.stream(primaryHints).parallel() : Arrays.stream(primaryHints);
+        primaryHintStream.forEach(primaryHint -> updateHint(primaryHint, blockChunkIds, blockIndexes, deltas));
+        // enumerate all backup hints and update when necessary, the punctured chunk ID has offset -1 so it is ignored
+        Stream<ArrayList<PianoBackupHint>> backupHintGroupStream = parallel ? backupHintGroup.stream().parallel() : backupHintGroup.stream();
+        backupHintGroupStream.forEach(backupHints -> backupHints.forEach(backupHint ->
+            updateHint(backupHint, blockChunkIds, blockIndexes, deltas)
+        ));
+        for (int i : is) {
             if (localCacheEntries.containsKey(i)) {
                 byte[] entry = localCacheEntries.get(i);
-                BytesUtils.xori(entry, u);
+                BytesUtils.xori(entry, deltas.get(i));
             }
-            stopWatch.stop();
-            long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-            stopWatch.reset();
-            logStepInfo(PtoState.PTO_STEP, 1, 1, updateTime, "Client updates " + (round + 1) + "-th entry");
         }
+        stopWatch.stop();
+        long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 1, updateTime, "Client updates " + is.length + " entries");
+    }
 
-        logPhaseInfo(PtoState.PTO_END);
+    private void updateHint(PianoHint hint, int[] blockChunkIds, TIntObjectMap<TIntList> blockIndexes,
+                            TIntObjectMap<byte[]> deltas) {
+        for (int blockChunkId : blockChunkIds) {
+            int[] offsets = hint.expandPrpBlockOffsets(blockChunkId);
+            TIntList indexes = blockIndexes.get(blockChunkId);
+            for (int j = 0; j < indexes.size(); j++) {
+                int i = indexes.get(j);
+                if (offsets[i / chunkSize - blockChunkId] == Math.abs(i % chunkSize)) {
+                    hint.xori(deltas.get(i));
+                }
+            }
+        }
     }
 }
@@ -51,6 +51,14 @@ class PianoCpIdxPirPtoDesc implements PtoDesc {
          * server send update
          */
         SERVER_SEND_UPDATE,
+        /**
+         * client sends the version of persisted hints
+         */
+        CLIENT_SEND_HINT_VERSION,
+        /**
+         * server sends the version of the database
+         */
+        SERVER_SEND_HINT_VERSION,
     }
 
     /**
@@ -60,6 +60,14 @@ public abstract class AbstractPianoHint implements PianoHint {
         parity = new byte[byteL];
     }
 
+    protected AbstractPianoHint(FixedKeyPrp fixedKeyPrp, int chunkSize, int chunkNum, int l, byte[] hintId, byte[] parity) {
+        this(fixedKeyPrp, chunkSize, chunkNum, l);
+        MathPreconditions.checkEqual("hintId.length", "expect", hintId.length, this.hintId.length);
+        System.arraycopy(hintId, 0, this.hintId, 0, hintId.length);
+        Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(parity, byteL, l));
+        System.arraycopy(parity, 0, this.parity, 0, byteL);
+    }
+
     /**
      * Gets the integer based on the hint ID and the chunk ID.
      *
@@ -124,6 +132,15 @@ public abstract class AbstractPianoHint implements PianoHint {
         return offsets;
     }
 
+    /**
+     * Gets the hint ID.
+     *
+     * @return the hint ID.
+     */
+    public byte[] getHintId() {
+        return hintId;
+    }
+
     @Override
     public byte[] getParity() {
         return parity;
@@ -36,6 +36,24 @@ public class PianoBackupHint extends AbstractPianoHint {
         secureRandom.nextBytes(hintId);
     }
 
+    /**
+     * Creates a hint with the given hint ID and parity.
+     *
+     * @param fixedKeyPrp      fixed key PRP.
+     * @param chunkSize        chunk size.
+     * @param chunkNum         chunk num.
+     * @param l                parity bit length.
+     * @param puncturedChunkId punctured chunk ID.
+     * @param hintId           hint ID.
+     * @param parity           parity.
+     */
+    public PianoBackupHint(FixedKeyPrp fixedKeyPrp,
+                           int chunkSize, int chunkNum, int l, int puncturedChunkId, byte[] hintId, byte[] parity) {
+        super(fixedKeyPrp, chunkSize, chunkNum, l, hintId, parity);
+        MathPreconditions.checkNonNegativeInRange("puncturedChunkId", puncturedChunkId, chunkNum);
+        this.puncturedChunkId = puncturedChunkId;
+    }
+
     /**
      * Gets the punctured chunk index.
      *
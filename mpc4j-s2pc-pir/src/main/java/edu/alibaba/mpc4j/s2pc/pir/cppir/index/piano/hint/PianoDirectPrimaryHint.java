@@ -27,6 +27,21 @@ public class PianoDirectPrimaryHint extends AbstractPianoHint implements PianoPr
         secureRandom.nextBytes(hintId);
     }
 
+    /**
+     * Creates a hint with the given hint ID and parity.
+     *
+     * @param fixedKeyPrp fixed key PRP.
+     * @param chunkSize   chunk size.
+     * @param chunkNum    chunk num.
+     * @param l           parity bit length.
+     * @param hintId      hint ID.
+     * @param parity      parity.
+     */
+    public PianoDirectPrimaryHint(FixedKeyPrp fixedKeyPrp,
+                                  int chunkSize, int chunkNum, int l, byte[] hintId, byte[] parity) {
+        super(fixedKeyPrp, chunkSize, chunkNum, l, hintId, parity);
+    }
+
     @Override
     public int expandOffset(int chunkId) {
         MathPreconditions.checkNonNegativeInRange("chunk ID", chunkId, chunkNum);
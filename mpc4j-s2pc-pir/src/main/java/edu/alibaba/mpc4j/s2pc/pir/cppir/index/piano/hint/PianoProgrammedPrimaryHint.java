@@ -2,6 +2,7 @@ package edu.alibaba.mpc4j.s2pc.pir.cppir.index.piano.hint;
 
 import com.google.common.base.Preconditions;
 import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.crypto.prp.FixedKeyPrp;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 
 /**
@@ -51,6 +52,28 @@ public class PianoProgrammedPrimaryHint extends AbstractPianoHint implements Pia
         amended = false;
     }
 
+    /**
+     * Creates a hint with the given hint ID and parity.
+     *
+     * @param fixedKeyPrp fixed key PRP.
+     * @param chunkSize   chunk size.
+     * @param chunkNum    chunk num.
+     * @param l           parity bit length.
+     * @param x           programmed x.
+     * @param amended     whether the hint has been amended.
+     * @param hintId      hint ID.
+     * @param parity      parity.
+     */
+    public PianoProgrammedPrimaryHint(FixedKeyPrp fixedKeyPrp, int chunkSize, int chunkNum, int l,
+                                      int x, boolean amended, byte[] hintId, byte[] parity) {
+        super(fixedKeyPrp, chunkSize, chunkNum, l, hintId, parity);
+        MathPreconditions.checkNonNegativeInRange("x", x, chunkSize * chunkNum);
+        this.programmedIndex = x;
+        programmedChunkId = x / chunkSize;
+        programmedOffset = Math.abs(x % chunkSize);
+        this.amended = amended;
+    }
+
     @Override
     public int expandOffset(int chunkId) {
         MathPreconditions.checkNonNegativeInRange("chunk ID", chunkId, chunkNum);
@@ -78,6 +101,24 @@ public class PianoProgrammedPrimaryHint extends AbstractPianoHint implements Pia
         return offsets;
     }
 
+    /**
+     * Gets the programmed index.
+     *
+     * @return the programmed index.
+     */
+    public int getProgrammedIndex() {
+        return programmedIndex;
+    }
+
+    /**
+     * Returns whether the hint has been amended.
+     *
+     * @return whether the hint has been amended.
+     */
+    public boolean isAmended() {
+        return amended;
+    }
+
     @Override
     public int getAmendIndex() {
         if (amended) {
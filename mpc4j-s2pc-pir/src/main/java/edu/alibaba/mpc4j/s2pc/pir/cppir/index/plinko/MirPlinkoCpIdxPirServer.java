@@ -10,14 +10,15 @@ import edu.alibaba.mpc4j.common.tool.bitvector.BitVectorFactory;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
 import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractCpIdxPirServer;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.StreamCpIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractPersistentCpIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirUpdateLog;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.plinko.MirPlinkoCpIdxPirPtoDesc.PtoStep;
 
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -26,7 +27,7 @@ import java.util.concurrent.TimeUnit;
  * @author Weiran Liu
  * @date 2024/10/11
  */
-public class MirPlinkoCpIdxPirServer extends AbstractCpIdxPirServer implements StreamCpIdxPirServer {
+public class MirPlinkoCpIdxPirServer extends AbstractPersistentCpIdxPirServer {
     /**
      * specific Q
      */
@@ -62,8 +63,8 @@ public class MirPlinkoCpIdxPirServer extends AbstractCpIdxPirServer implements S
     }
 
     @Override
-    public void init(NaiveDatabase database, int matchBatchNum) throws MpcAbortException {
-        setInitInput(database, matchBatchNum);
+    public void init(NaiveDatabase database, CpIdxPirUpdateLog updateLog, int maxBatchNum) throws MpcAbortException {
+        setInitInput(database, maxBatchNum);
         logPhaseInfo(PtoState.INIT_BEGIN);
 
         stopWatch.start();
@@ -72,14 +73,11 @@ public class MirPlinkoCpIdxPirServer extends AbstractCpIdxPirServer implements S
         assert blockSize * blockNum >= n
             : "BlockSize * BlockNum must be greater than or equal to n (" + n + "): " + blockSize * blockNum;
         byteBlockNum = CommonUtils.getByteLength(blockNum);
-        // pad the database
+        // pad the database with zeros, so that persisted hints are still valid in the next session
         byte[][] paddingData = new byte[blockSize * blockNum][byteL];
         for (int x = 0; x < n; x++) {
             paddingData[x] = database.getBytesData(x);
         }
-        for (int x = n; x < blockSize * blockNum; x++) {
-            paddingData[x] = BytesUtils.randomByteArray(byteL, l, secureRandom);
-        }
         paddingDatabase = ZlDatabase.create(l, paddingData);
         int defaultQ = MirPlinkoCpIdxPirUtils.getRoundQueryNum(n);
         q = specificQ < 0 ? defaultQ : specificQ;
@@ -94,8 +92,30 @@ public class MirPlinkoCpIdxPirServer extends AbstractCpIdxPirServer implements S
             )
         );
 
-        // preprocessing
-        preprocessing();
+        this.updateLog = updateLog;
+        boolean sync = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), q
+        );
+        if (sync) {
+            // only send updates since the version of persisted hints
+            currentQueryNum = hintQueryNum;
+            stopWatch.start();
+            int[] xs = updateLog.getXs(hintVersion);
+            byte[][] deltas = updateLog.getDeltas(hintVersion);
+            for (int i = 0; i < xs.length; i++) {
+                sendUpdate(xs[i], deltas[i]);
+            }
+            stopWatch.stop();
+            long syncTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(
+                PtoState.INIT_STEP, 1, 1, syncTime,
+                "Server sends " + xs.length + " update(s) since version " + hintVersion
+            );
+        } else {
+            // preprocessing
+            preprocessing();
+        }
 
         logPhaseInfo(PtoState.INIT_END);
     }
@@ -103,13 +123,15 @@ public class MirPlinkoCpIdxPirServer extends AbstractCpIdxPirServer implements S
     private void preprocessing() throws MpcAbortException {
         stopWatch.start();
         // stream sending the database
+        // The next block is concatenated while sending the current block.
+        CompletableFuture<byte[]> blockFuture = CompletableFuture.supplyAsync(() -> getBlock(0));
         for (int blockId = 0; blockId < blockNum; blockId++) {
-            // concatenate database into the whole byte buffer
-            ByteBuffer byteBuffer = ByteBuffer.allocate(byteL * blockSize);
-            for (int offset = 0; offset < blockSize; offset++) {
-                byteBuffer.put(paddingDatabase.getBytesData(blockId * blockSize + offset));
+            byte[] block = blockFuture.join();
+            if (blockId + 1 < blockNum) {
+                int nextBlockId = blockId + 1;
+                blockFuture = CompletableFuture.supplyAsync(() -> getBlock(nextBlockId));
             }
-            List<byte[]> streamRequestPayload = Collections.singletonList(byteBuffer.array());
+            List<byte[]> streamRequestPayload = Collections.singletonList(block);
             sendOtherPartyPayload(PtoStep.SERVER_SEND_STREAM_DATABASE_REQUEST.ordinal(), streamRequestPayload);
             // receive response
             List<byte[]> streamResponsePayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_STREAM_DATABASE_RESPONSE.ordinal());
@@ -123,6 +145,15 @@ public class MirPlinkoCpIdxPirServer extends AbstractCpIdxPirServer implements S
         logStepInfo(PtoState.INIT_STEP, 1, 1, streamTime, "Server handles " + blockNum + " block(s)");
     }
 
+    private byte[] getBlock(int blockId) {
+        // concatenate database into the whole byte buffer
+        ByteBuffer byteBuffer = ByteBuffer.allocate(byteL * blockSize);
+        for (int offset = 0; offset < blockSize; offset++) {
+            byteBuffer.put(paddingDatabase.getBytesData(blockId * blockSize + offset));
+        }
+        return byteBuffer.array();
+    }
+
     @Override
     public void pir(int batchNum) throws MpcAbortException {
         setPtoInput(batchNum);
@@ -215,11 +246,9 @@ public class MirPlinkoCpIdxPirServer extends AbstractCpIdxPirServer implements S
             BytesUtils.xori(delta, entry);
             // D[i] ← d
             paddingDatabase.setBytesData(x, entry);
+            updateLog.append(x, delta);
             // Return δ
-            List<byte[]> serverUpdatePayload = new LinkedList<>();
-            serverUpdatePayload.add(IntUtils.intToByteArray(x));
-            serverUpdatePayload.add(delta);
-            sendOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal(), serverUpdatePayload);
+            sendUpdate(x, delta);
             stopWatch.stop();
             long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
             stopWatch.reset();
@@ -228,4 +257,11 @@ public class MirPlinkoCpIdxPirServer extends AbstractCpIdxPirServer implements S
 
         logPhaseInfo(PtoState.PTO_END);
     }
+
+    private void sendUpdate(int x, byte[] delta) {
+        List<byte[]> serverUpdatePayload = new LinkedList<>();
+        serverUpdatePayload.add(IntUtils.intToByteArray(x));
+        serverUpdatePayload.add(delta);
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal(), serverUpdatePayload);
+    }
 }
@@ -1,13 +1,13 @@
 package edu.alibaba.mpc4j.s2pc.pir.cppir.index.plinko;
 
 import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
 import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
 import edu.alibaba.mpc4j.crypto.algs.iprf.InversePrf;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractCpIdxPirClient;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.StreamCpIdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractPersistentCpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.plinko.PianoPlinkoCpIdxPirPtoDesc.PtoStep;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
@@ -18,8 +18,10 @@ import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 
+import java.io.*;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
@@ -29,7 +31,7 @@ import java.util.stream.IntStream;
  * @author Weiran Liu
  * @date 2024/10/9
  */
-public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements StreamCpIdxPirClient {
+public class PianoPlinkoCpIdxPirClient extends AbstractPersistentCpIdxPirClient {
     /**
      * specific Q
      */
@@ -85,6 +87,10 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
      * cache indexes, used to update promoted backup hints.
      */
     private TIntIntMap cacheHintIndexes;
+    /**
+     * inverse PRF keys, i.e., K[i]
+     */
+    private byte[][] inversePrfKeys;
     /**
      * inverse PRFs
      */
@@ -101,15 +107,8 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
         logPhaseInfo(PtoState.INIT_BEGIN);
 
         stopWatch.start();
-        blockSize = PianoPlinkoCpIdxPirUtils.getBlockSize(n);
-        blockNum = PianoPlinkoCpIdxPirUtils.getBlockNum(n);
-        assert blockSize * blockNum >= n
-            : "blockSize * blockNum must be greater than or equal to n (" + n + "): " + blockSize * blockNum;
+        setParams();
         int defaultQ = PianoPlinkoCpIdxPirUtils.getRoundQueryNum(n);
-        roundQueryNum = specificQ < 0 ? defaultQ : specificQ;
-        m1 = PianoPlinkoCpIdxPirUtils.getM1(n);
-        int m2 = specificQ < 0 ? PianoPlinkoCpIdxPirUtils.getDefaultM2(n) : PianoPlinkoCpIdxPirUtils.getSpecificM2(n, specificQ);
-        m = m1 + m2;
         stopWatch.stop();
         long paramTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -120,21 +119,149 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
                 n, blockSize, blockNum, blockSize * blockNum, defaultQ, specificQ, roundQueryNum
             )
         );
+        // we do not have hints
+        int updateNum = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), false, 0
+        );
+        MpcAbortPreconditions.checkArgument(updateNum < 0);
         // preprocessing
         preprocessing();
 
         logPhaseInfo(PtoState.INIT_END);
     }
 
-    private void preprocessing() throws MpcAbortException {
+    @Override
+    public void init(InputStream inputStream, int maxBatchNum) throws MpcAbortException, IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        setInitInput(dataInputStream, maxBatchNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
         stopWatch.start();
-        // For i = 1, ..., n/w: K[i] ← iF.Gen(1^λ)
+        setParams();
+        readHints(dataInputStream);
+        stopWatch.stop();
+        long readTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 0, 1, readTime, "Client reads hints of version " + version);
+
+        int updateNum = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(),
+            true, currentQueryNum
+        );
+        if (updateNum < 0) {
+            // hints cannot be synchronized, run the full preprocessing
+            preprocessing();
+        } else if (updateNum > 0) {
+            // only receive updates since the version of hints
+            applyUpdates(updateNum);
+        }
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    private void setParams() {
+        blockSize = PianoPlinkoCpIdxPirUtils.getBlockSize(n);
+        blockNum = PianoPlinkoCpIdxPirUtils.getBlockNum(n);
+        assert blockSize * blockNum >= n
+            : "blockSize * blockNum must be greater than or equal to n (" + n + "): " + blockSize * blockNum;
+        int defaultQ = PianoPlinkoCpIdxPirUtils.getRoundQueryNum(n);
+        roundQueryNum = specificQ < 0 ? defaultQ : specificQ;
+        m1 = PianoPlinkoCpIdxPirUtils.getM1(n);
+        int m2 = specificQ < 0 ? PianoPlinkoCpIdxPirUtils.getDefaultM2(n) : PianoPlinkoCpIdxPirUtils.getSpecificM2(n, specificQ);
+        m = m1 + m2;
+    }
+
+    private void initInversePrfs() {
         inversePrfs = new InversePrf[blockNum];
         for (int i = 0; i < blockNum; i++) {
             inversePrfs[i] = new InversePrf(envType);
-            byte[] ki = BlockUtils.randomBlock(secureRandom);
-            inversePrfs[i].init(m, blockSize, ki);
+            inversePrfs[i].init(m, blockSize, inversePrfKeys[i]);
         }
+    }
+
+    @Override
+    public void writeHints(OutputStream outputStream) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        writeHintVersion(dataOutputStream);
+        dataOutputStream.writeInt(currentQueryNum);
+        // inverse PRF keys
+        for (byte[] inversePrfKey : inversePrfKeys) {
+            dataOutputStream.write(inversePrfKey);
+        }
+        // hint tables, consumed hints are ⊥
+        for (int j = 0; j < m; j++) {
+            writeNullableParity(dataOutputStream, hs[j]);
+            writeNullableParity(dataOutputStream, ts[j]);
+            dataOutputStream.writeInt(his[j]);
+            dataOutputStream.writeBoolean(amends[j]);
+        }
+        // local cache entries, together with indexes of promoted backup hints
+        dataOutputStream.writeInt(localCacheEntries.size());
+        for (int x : localCacheEntries.keys()) {
+            dataOutputStream.writeInt(x);
+            dataOutputStream.write(localCacheEntries.get(x));
+            dataOutputStream.writeInt(cacheHintIndexes.containsKey(x) ? cacheHintIndexes.get(x) : -1);
+        }
+        dataOutputStream.flush();
+    }
+
+    private void writeNullableParity(DataOutputStream dataOutputStream, byte[] parity) throws IOException {
+        dataOutputStream.writeBoolean(parity != null);
+        if (parity != null) {
+            dataOutputStream.write(parity);
+        }
+    }
+
+    private void readHints(DataInputStream dataInputStream) throws IOException {
+        currentQueryNum = dataInputStream.readInt();
+        MathPreconditions.checkInRangeClosed("currentQueryNum", currentQueryNum, 0, roundQueryNum);
+        // inverse PRF keys
+        inversePrfKeys = new byte[blockNum][CommonConstants.BLOCK_BYTE_LENGTH];
+        for (int i = 0; i < blockNum; i++) {
+            dataInputStream.readFully(inversePrfKeys[i]);
+        }
+        initInversePrfs();
+        // hint tables
+        hs = new byte[m][];
+        ts = new byte[m][];
+        his = new int[m];
+        amends = new boolean[m];
+        for (int j = 0; j < m; j++) {
+            hs[j] = readNullableParity(dataInputStream);
+            ts[j] = readNullableParity(dataInputStream);
+            his[j] = MathPreconditions.checkInRange("his[j]", dataInputStream.readInt(), -1, blockSize * blockNum);
+            amends[j] = dataInputStream.readBoolean();
+        }
+        // local cache entries
+        int size = MathPreconditions.checkNonNegative("cache size", dataInputStream.readInt());
+        localCacheEntries = new TIntObjectHashMap<>(size);
+        cacheHintIndexes = new TIntIntHashMap();
+        for (int i = 0; i < size; i++) {
+            int x = dataInputStream.readInt();
+            byte[] entry = new byte[byteL];
+            dataInputStream.readFully(entry);
+            localCacheEntries.put(x, entry);
+            int j = MathPreconditions.checkInRange("cache hint index", dataInputStream.readInt(), -1, m);
+            if (j >= 0) {
+                cacheHintIndexes.put(x, j);
+            }
+        }
+    }
+
+    private byte[] readNullableParity(DataInputStream dataInputStream) throws IOException {
+        if (!dataInputStream.readBoolean()) {
+            return null;
+        }
+        byte[] parity = new byte[byteL];
+        dataInputStream.readFully(parity);
+        return parity;
+    }
+
+    private void preprocessing() throws MpcAbortException {
+        stopWatch.start();
+        // For i = 1, ..., n/w: K[i] ← iF.Gen(1^λ)
+        inversePrfKeys = BlockUtils.randomBlocks(blockNum, secureRandom);
+        initInversePrfs();
         // For i = 1, ..., λw: H[i] = 0^B
         hs = new byte[m][];
         for (int i = 0; i < m1; i++) {
@@ -158,7 +285,9 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
         logStepInfo(PtoState.INIT_STEP, 1, 2, allocateTime, "Client allocates hints");
 
         stopWatch.start();
-        // stream receiving the database
+        // stream receiving the database. In parallel mode, hints are updated for the current block while receiving
+        // the next block.
+        CompletableFuture<Void> hintUpdateFuture = CompletableFuture.completedFuture(null);
         for (int alpha = 0; alpha < blockNum; alpha++) {
             // receive stream request
             List<byte[]> streamRequestPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_STREAM_DATABASE_REQUEST.ordinal());
@@ -171,46 +300,18 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
             for (int j = 0; j < blockSize; j++) {
                 byteBuffer.get(blockEntries[j]);
             }
-            // hitMap is irrelevant to the scheme. We want to know if any indices are missed.
-            boolean[] hitMap = new boolean[blockSize];
-            // (α, β) ← (⌊i/w⌋, i mod w), here we handle β in a batch
+            // send response before handling the block, such that the server can directly send the next one
+            sendOtherPartyPayload(PtoStep.CLIENT_SEND_STREAM_DATABASE_RESPONSE.ordinal(), new LinkedList<>());
+            // hints must be updated block by block, since different blocks may touch the same hint
+            hintUpdateFuture.join();
             int finalAlpha = alpha;
-            IntStream betaIntStream = IntStream.range(0, blockSize);
-            betaIntStream = parallel ? betaIntStream.parallel() : betaIntStream;
-            int[][] jsArray = betaIntStream.mapToObj(beta -> inversePrfs[finalAlpha].inversePrf(beta)).toArray(int[][]::new);
-            for (int beta = 0; beta < blockSize; beta++) {
-                byte[] d = blockEntries[beta];
-                int[] js = jsArray[beta];
-                // this means the i-th entry is touched by at least one regular hint
-                for (int j : js) {
-                    if (j < m1) {
-                        hitMap[beta] = true;
-                        break;
-                    }
-                }
-                // For each j ∈ iF.F^{−1}(K[α], β):
-                for (int j : js) {
-                    assert j >= 0 && j < m;
-                    if (j < m1) {
-                        // If j < λw: H[j] ← H[j] ⊕ d. This is used to handle regular hints
-                        BytesUtils.xori(hs[j], d);
-                    } else {
-                        // Else if α != j mod (n/w): T[j] ← T[j] ⊕ d. This is used to handle backup hints
-                        if (alpha != Math.abs(j % blockNum)) {
-                            BytesUtils.xori(ts[j], d);
-                        }
-                    }
-                }
-            }
-            // if some indices are missed, we need to fetch the corresponding elements
-            for (int beta = 0; beta < blockSize; beta++) {
-                if (!hitMap[beta]) {
-                    localCacheEntries.put(beta + blockSize * alpha, blockEntries[beta]);
-                }
+            if (parallel) {
+                hintUpdateFuture = CompletableFuture.runAsync(() -> updateHints(finalAlpha, blockEntries));
+            } else {
+                updateHints(finalAlpha, blockEntries);
             }
-            // send response
-            sendOtherPartyPayload(PtoStep.CLIENT_SEND_STREAM_DATABASE_RESPONSE.ordinal(), new LinkedList<>());
         }
+        hintUpdateFuture.join();
         // reset current query num
         currentQueryNum = 0;
         stopWatch.stop();
@@ -222,6 +323,45 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
         );
     }
 
+    private void updateHints(int alpha, byte[][] blockEntries) {
+        // hitMap is irrelevant to the scheme. We want to know if any indices are missed.
+        boolean[] hitMap = new boolean[blockSize];
+        // (α, β) ← (⌊i/w⌋, i mod w), here we handle β in a batch
+        IntStream betaIntStream = IntStream.range(0, blockSize);
+        betaIntStream = parallel ? betaIntStream.parallel() : betaIntStream;
+        int[][] jsArray = betaIntStream.mapToObj(beta -> inversePrfs[alpha].inversePrf(beta)).toArray(int[][]::new);
+        for (int beta = 0; beta < blockSize; beta++) {
+            byte[] d = blockEntries[beta];
+            int[] js = jsArray[beta];
+            // this means the i-th entry is touched by at least one regular hint
+            for (int j : js) {
+                if (j < m1) {
+                    hitMap[beta] = true;
+                    break;
+                }
+            }
+            // For each j ∈ iF.F^{−1}(K[α], β):
+            for (int j : js) {
+                assert j >= 0 && j < m;
+                if (j < m1) {
+                    // If j < λw: H[j] ← H[j] ⊕ d. This is used to handle regular hints
+                    BytesUtils.xori(hs[j], d);
+                } else {
+                    // Else if α != j mod (n/w): T[j] ← T[j] ⊕ d. This is used to handle backup hints
+                    if (alpha != Math.abs(j % blockNum)) {
+                        BytesUtils.xori(ts[j], d);
+                    }
+                }
+            }
+        }
+        // if some indices are missed, we need to fetch the corresponding elements
+        for (int beta = 0; beta < blockSize; beta++) {
+            if (!hitMap[beta]) {
+                localCacheEntries.put(beta + blockSize * alpha, blockEntries[beta]);
+            }
+        }
+    }
+
     @Override
     public byte[][] pir(int[] xs) throws MpcAbortException {
         setPtoInput(xs);
@@ -444,6 +584,13 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
         MathPreconditions.checkPositive("update_num", updateNum);
         logPhaseInfo(PtoState.PTO_BEGIN);
 
+        applyUpdates(updateNum);
+        version += updateNum;
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    private void applyUpdates(int updateNum) throws MpcAbortException {
         for (int round = 0; round < updateNum; round++) {
             List<byte[]> updatePayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal());
 
@@ -488,7 +635,9 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
                 if (hs[j] != null) {
                     BytesUtils.xori(hs[j], u);
                 }
-                // Here we also need to update entry in cache.
+            }
+            // Here we also need to update entry in cache, including entries missed by all regular hints.
+            if (localCacheEntries.containsKey(i)) {
                 byte[] newEntry = BytesUtils.xor(localCacheEntries.get(i), u);
                 localCacheEntries.put(i, newEntry);
             }
@@ -497,7 +646,5 @@ public class PianoPlinkoCpIdxPirClient extends AbstractCpIdxPirClient implements
             stopWatch.reset();
             logStepInfo(PtoState.PTO_STEP, 1, 1, updateTime, "Client updates " + (round + 1) + "-th entry");
         }
-
-        logPhaseInfo(PtoState.PTO_END);
     }
 }
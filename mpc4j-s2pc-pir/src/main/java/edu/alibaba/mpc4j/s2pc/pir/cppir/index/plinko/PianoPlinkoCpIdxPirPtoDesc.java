@@ -47,6 +47,14 @@ class PianoPlinkoCpIdxPirPtoDesc implements PtoDesc {
          * server send update
          */
         SERVER_SEND_UPDATE,
+        /**
+         * client sends the version of persisted hints
+         */
+        CLIENT_SEND_HINT_VERSION,
+        /**
+         * server sends the version of the database
+         */
+        SERVER_SEND_HINT_VERSION,
     }
 
     /**
@@ -2,6 +2,7 @@ package edu.alibaba.mpc4j.s2pc.pir.cppir.index.simple;
 
 import edu.alibaba.mpc4j.common.rpc.*;
 import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.common.structure.matrix.DenseIntMatrix;
 import edu.alibaba.mpc4j.common.structure.matrix.IntMatrix;
 import edu.alibaba.mpc4j.common.structure.vector.IntVector;
 import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
@@ -41,17 +42,17 @@ public class DoubleCpIdxPirServer extends AbstractCpIdxPirServer implements Hint
      */
     private int columns;
     /**
-     * db ∈ Z_q^{ℓ × m}, we totally have [byteL] db, here ℓ is rows, m is columns, where we store the transposed db.
+     * db ∈ Z_q^{ℓ × m}, we totally have [byteL] db, here ℓ is rows, m is columns.
      */
-    private IntMatrix[] tdb;
+    private DenseIntMatrix[] dbs;
     /**
      * each hint_s ∈ Z_q^{n × ℓ}, we totally have [byteL]×[κ] hint_s, where κ = log(q) / log(p) = 32 / 8 = 4.
      */
-    private IntMatrix[][] transposeExtendHintS;
+    private DenseIntMatrix[][] hintS;
     /**
      * matrix A2
      */
-    private IntMatrix matrixA2;
+    private DenseIntMatrix matrixA2;
 
     public DoubleCpIdxPirServer(Rpc serverRpc, Party clientParty, DoubleCpIdxPirConfig config) {
         super(DoubleCpIdxPirPtoDesc.getInstance(), serverRpc, clientParty, config);
@@ -79,39 +80,44 @@ public class DoubleCpIdxPirServer extends AbstractCpIdxPirServer implements Hint
         int[] sizes = DoubleCpIdxPirPtoDesc.getMatrixSize(n);
         rows = sizes[0];
         columns = sizes[1];
-        tdb = new IntMatrix[byteL];
-        transposeExtendHintS = new IntMatrix[byteL][KAPPA];
+        dbs = new DenseIntMatrix[byteL];
+        hintS = new DenseIntMatrix[byteL][KAPPA];
         byte[][] byteArrayDatabase = database.getBytesData();
         // A1 ∈ Z_q^{m × n}, here we directly generated the transposed version
-        IntMatrix transposeMatrixA1 = IntMatrix.createRandom(dimension, columns, seedMatrixA1);
+        DenseIntMatrix transposeMatrixA1 = DenseIntMatrix.createRandom(dimension, columns, seedMatrixA1);
         // A2 ∈ Z_q^{ℓ × n}
-        matrixA2 = IntMatrix.createRandom(rows, dimension, seedMatrixA2);
+        matrixA2 = DenseIntMatrix.createRandom(rows, dimension, seedMatrixA2);
+        matrixA2.setParallel(parallel);
+        DenseIntMatrix transposeMatrixA2 = matrixA2.transpose();
         // each hint_c ∈ Z_q^{n × n}, we totally have [byteL]×[κ] hint_c
-        final IntMatrix[][] hintC = new IntMatrix[byteL][KAPPA];
+        final DenseIntMatrix[][] hintC = new DenseIntMatrix[byteL][KAPPA];
         IntStream byteIndexIntStream = parallel ? IntStream.range(0, byteL).parallel() : IntStream.range(0, byteL);
         byteIndexIntStream.forEach(byteIndex -> {
             // create database
-            IntMatrix db = IntMatrix.createZeros(rows, columns);
+            DenseIntMatrix db = DenseIntMatrix.createZeros(rows, columns);
+            db.setParallel(parallel);
             for (int dataIndex = 0; dataIndex < n; dataIndex++) {
                 int iRow = dataIndex % rows;
                 int iColumn = dataIndex / rows;
                 db.set(iRow, iColumn, (byteArrayDatabase[dataIndex][byteIndex] & 0xFF));
             }
-            tdb[byteIndex] = db.transpose();
-            // hint_s = Decomp(A_1^T * db^T).
-            IntMatrix[] hintS = IntMatrix.decomposeToByteVector(transposeMatrixA1.mul(tdb[byteIndex]));
+            dbs[byteIndex] = db;
+            // hint_s = Decomp(A_1^T · db^T) = Decomp((db · A_1)^T).
+            IntMatrix[] decomposedHintS = IntMatrix.decomposeToByteVector(
+                db.mulTranspose(transposeMatrixA1).transpose().toIntMatrix()
+            );
             for (int k = 0; k < KAPPA; k++) {
-                hintC[byteIndex][k] = hintS[k].mul(matrixA2);
-                IntMatrix extendHintS = hintS[k].concat(IntVector.createZeros(rows));
-                transposeExtendHintS[byteIndex][k] = extendHintS.transpose();
+                hintS[byteIndex][k] = DenseIntMatrix.create(decomposedHintS[k]);
+                hintS[byteIndex][k].setParallel(parallel);
+                hintC[byteIndex][k] = hintS[byteIndex][k].mulTranspose(transposeMatrixA2);
             }
         });
         List<byte[]> hintPayload = IntStream.range(0, byteL * KAPPA)
             .mapToObj(t -> {
-                IntMatrix hintMatrix = hintC[t / KAPPA][t % KAPPA];
+                DenseIntMatrix hintMatrix = hintC[t / KAPPA][t % KAPPA];
                 IntBuffer intBuffer = IntBuffer.allocate(dimension * dimension);
                 for (int i = 0; i < dimension; i++) {
-                    intBuffer.put(hintMatrix.getRow(i).getElements());
+                    intBuffer.put(hintMatrix.getRow(i));
                 }
                 return IntUtils.intArrayToByteArray(intBuffer.array());
             })
@@ -131,8 +137,14 @@ public class DoubleCpIdxPirServer extends AbstractCpIdxPirServer implements Hint
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
+        // the client sends all queries before receiving responses, so that we answer them in one batch
+        int[][][] qus = new int[batchNum][][];
         for (int i = 0; i < batchNum; i++) {
-            answer();
+            qus[i] = receiveQuery();
+        }
+        List<List<byte[]>> responsePayloads = generateResponses(qus);
+        for (List<byte[]> responsePayload : responsePayloads) {
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
         }
         stopWatch.stop();
         long responseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -144,45 +156,56 @@ public class DoubleCpIdxPirServer extends AbstractCpIdxPirServer implements Hint
 
     @Override
     public void answer() throws MpcAbortException {
+        int[][] qu = receiveQuery();
+        List<byte[]> responsePayload = generateResponses(new int[][][]{qu}).get(0);
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
+    }
+
+    private int[][] receiveQuery() throws MpcAbortException {
         List<byte[]> clientQueryPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_QUERY.ordinal());
         MpcAbortPreconditions.checkArgument(clientQueryPayload.size() == byteL);
-        int[][] qus = clientQueryPayload.stream()
+        int[][] qu = clientQueryPayload.stream()
             .map(IntUtils::byteArrayToIntArray)
             .toArray(int[][]::new);
         for (int byteIndex = 0; byteIndex < byteL; byteIndex++) {
-            MpcAbortPreconditions.checkArgument(qus[byteIndex].length == rows + columns);
+            MpcAbortPreconditions.checkArgument(qu[byteIndex].length == rows + columns);
         }
+        return qu;
+    }
+
+    private List<List<byte[]>> generateResponses(int[][][] qus) {
+        int num = qus.length;
+        byte[][][] responses = new byte[num][byteL][];
         IntStream byteIndexIntStream = parallel ? IntStream.range(0, byteL).parallel() : IntStream.range(0, byteL);
-        List<byte[]> responsePayload = byteIndexIntStream
-            .mapToObj(byteIndex -> {
-                // parse qu = (c_1, c_2)
-                int[] c1c2 = qus[byteIndex];
-                IntVector c1 = IntVector.create(Arrays.copyOfRange(c1c2, 0, columns));
-                IntVector c2 = IntVector.create(Arrays.copyOfRange(c1c2, columns, columns + rows));
+        byteIndexIntStream.forEach(byteIndex -> {
+            // parse qu = (c_1, c_2)
+            IntVector[] c1s = new IntVector[num];
+            IntVector[] c2s = new IntVector[num];
+            for (int i = 0; i < num; i++) {
+                int[] c1c2 = qus[i][byteIndex];
+                c1s[i] = IntVector.create(Arrays.copyOfRange(c1c2, 0, columns));
+                c2s[i] = IntVector.create(Arrays.copyOfRange(c1c2, columns, columns + rows));
+            }
+            // c_1^T · db^T = db · c_1, db is read once for all queries
+            IntVector[] dbc1s = dbs[byteIndex].rightMul(c1s);
+            for (int i = 0; i < num; i++) {
+                IntVector c2 = c2s[i];
                 // ans_1 ← Decomp(c_1^T · db^T) ∈ Z_q^{κ × ℓ}
-                IntVector[] ans1 = IntVector.decomposeToByteVector(tdb[byteIndex].leftMul(c1));
+                IntVector[] ans1 = IntVector.decomposeToByteVector(dbc1s[i]);
                 // h ← ans_1 · A_2 ∈ Z_q^{κ × n}
-                IntVector[] hs = Arrays.stream(ans1).map(matrixA2::leftMul).toArray(IntVector[]::new);
-                // [ans_h // ans_2] ← [hint_s // ans_1] · c_2 ∈ Z_q^{κ × (n+1)}
-                IntVector[] ansh2 = IntStream.range(0, KAPPA)
-                    .mapToObj(k -> {
-                        IntMatrix transposeHintS1 = transposeExtendHintS[byteIndex][k].copy();
-                        for (int t = 0; t < rows; t++) {
-                            transposeHintS1.set(t, dimension, ans1[k].getElement(t));
-                        }
-                        return transposeHintS1.leftMul(c2);
-                    })
-                    .toArray(IntVector[]::new);
+                IntVector[] hs = matrixA2.leftMul(ans1);
                 IntBuffer ansBuffer = IntBuffer.allocate(KAPPA * dimension + KAPPA * (dimension + 1));
                 for (int k = 0; k < KAPPA; k++) {
                     ansBuffer.put(hs[k].getElements());
                 }
+                // [ans_h // ans_2] ← [hint_s // ans_1] · c_2 ∈ Z_q^{κ × (n+1)}
                 for (int k = 0; k < KAPPA; k++) {
-                    ansBuffer.put(ansh2[k].getElements());
+                    ansBuffer.put(hintS[byteIndex][k].rightMul(c2).getElements());
+                    ansBuffer.put(ans1[k].innerMul(c2));
                 }
-                return IntUtils.intArrayToByteArray(ansBuffer.array());
-            })
-            .toList();
-        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
+                responses[i][byteIndex] = IntUtils.intArrayToByteArray(ansBuffer.array());
+            }
+        });
+        return Arrays.stream(responses).map(Arrays::asList).toList();
     }
 }
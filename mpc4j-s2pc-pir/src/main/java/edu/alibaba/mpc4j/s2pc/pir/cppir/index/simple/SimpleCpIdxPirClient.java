@@ -4,12 +4,15 @@ import edu.alibaba.mpc4j.common.rpc.*;
 import edu.alibaba.mpc4j.common.structure.matrix.IntMatrix;
 import edu.alibaba.mpc4j.common.structure.vector.IntVector;
 import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.GaussianLweParam;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractCpIdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractPersistentCpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.HintCpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.simple.SimpleCpIdxPirPtoDesc.PtoStep;
 
+import java.io.*;
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
@@ -22,7 +25,7 @@ import java.util.stream.IntStream;
  * @author Liqiang Peng
  * @date 2023/9/18
  */
-public class SimpleCpIdxPirClient extends AbstractCpIdxPirClient implements HintCpIdxPirClient {
+public class SimpleCpIdxPirClient extends AbstractPersistentCpIdxPirClient implements HintCpIdxPirClient {
     /**
      * LWE dimension
      */
@@ -51,6 +54,10 @@ public class SimpleCpIdxPirClient extends AbstractCpIdxPirClient implements Hint
      * number of elements in each row
      */
     private int rowElementNum;
+    /**
+     * seed for the random matrix A
+     */
+    private byte[] seed;
     /**
      * transpose matrix A
      */
@@ -81,6 +88,53 @@ public class SimpleCpIdxPirClient extends AbstractCpIdxPirClient implements Hint
         logPhaseInfo(PtoState.INIT_BEGIN);
 
         stopWatch.start();
+        setParams();
+        stopWatch.stop();
+        long paramTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 3, paramTime, "Client setups params");
+
+        // we do not have hints
+        int updateNum = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), false, 0
+        );
+        MpcAbortPreconditions.checkArgument(updateNum < 0);
+        receiveHints();
+        updateKeys();
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    @Override
+    public void init(InputStream inputStream, int maxBatchNum) throws MpcAbortException, IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        setInitInput(dataInputStream, maxBatchNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        setParams();
+        readHints(dataInputStream);
+        stopWatch.stop();
+        long readTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 3, readTime, "Client reads hints of version " + version);
+
+        int updateNum = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), true, 0
+        );
+        if (updateNum < 0) {
+            // hints cannot be synchronized, receive the seed and hints
+            receiveHints();
+        } else if (updateNum > 0) {
+            // only receive updates since the version of hints
+            applyUpdates(updateNum, false);
+        }
+        updateKeys();
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    private void setParams() {
         // we treat plaintext modulus as p = 2^8, so that the database can be seen as N rows and byteL columns.
         subByteL = Math.min(byteL, SimpleCpIdxPirPtoDesc.getMaxSubByteL(n));
         int[] sizes = SimpleCpIdxPirPtoDesc.getMatrixSize(n, byteL);
@@ -88,16 +142,14 @@ public class SimpleCpIdxPirClient extends AbstractCpIdxPirClient implements Hint
         rowElementNum = rows / subByteL;
         columns = sizes[1];
         partition = sizes[2];
-        stopWatch.stop();
-        long paramTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-        stopWatch.reset();
-        logStepInfo(PtoState.INIT_STEP, 1, 3, paramTime, "Client setups params");
+    }
 
+    private void receiveHints() throws MpcAbortException {
         List<byte[]> seedPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_SEED.ordinal());
 
         stopWatch.start();
         MpcAbortPreconditions.checkArgument(seedPayload.size() == 1);
-        byte[] seed = seedPayload.get(0);
+        seed = seedPayload.get(0);
         MpcAbortPreconditions.checkArgument(seed.length == CommonConstants.BLOCK_BYTE_LENGTH);
         IntMatrix matrixA = IntMatrix.createRandom(columns, dimension, seed);
         transposeMatrixA = matrixA.transpose();
@@ -123,10 +175,92 @@ public class SimpleCpIdxPirClient extends AbstractCpIdxPirClient implements Hint
         long hintTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
         logStepInfo(PtoState.INIT_STEP, 3, 3, hintTime, "Client stores hints");
+    }
 
-        updateKeys();
+    @Override
+    public void writeHints(OutputStream outputStream) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        writeHintVersion(dataOutputStream);
+        // seed for the random matrix A, and hints for each partition
+        dataOutputStream.write(seed);
+        for (int p = 0; p < partition; p++) {
+            for (int k = 0; k < dimension; k++) {
+                for (int r = 0; r < rows; r++) {
+                    dataOutputStream.writeInt(transposeHint[p].get(k, r));
+                }
+            }
+        }
+        dataOutputStream.flush();
+    }
 
-        logPhaseInfo(PtoState.INIT_END);
+    private void readHints(DataInputStream dataInputStream) throws IOException {
+        seed = new byte[CommonConstants.BLOCK_BYTE_LENGTH];
+        dataInputStream.readFully(seed);
+        IntMatrix matrixA = IntMatrix.createRandom(columns, dimension, seed);
+        transposeMatrixA = matrixA.transpose();
+        transposeHint = new IntMatrix[partition];
+        for (int p = 0; p < partition; p++) {
+            transposeHint[p] = IntMatrix.createZeros(dimension, rows);
+            for (int k = 0; k < dimension; k++) {
+                for (int r = 0; r < rows; r++) {
+                    transposeHint[p].set(k, r, dataInputStream.readInt());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void update(int updateNum) throws MpcAbortException {
+        MathPreconditions.checkPositive("update_num", updateNum);
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        applyUpdates(updateNum, true);
+        version += updateNum;
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    private void applyUpdates(int updateNum, boolean updateKeys) throws MpcAbortException {
+        for (int round = 0; round < updateNum; round++) {
+            List<byte[]> updatePayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal());
+
+            stopWatch.start();
+            MpcAbortPreconditions.checkArgument(updatePayload.size() == 3);
+            int x = IntUtils.byteArrayToInt(updatePayload.get(0));
+            MpcAbortPreconditions.checkArgument(x >= 0 && x < n);
+            byte[] delta = updatePayload.get(1);
+            byte[] entry = updatePayload.get(2);
+            MpcAbortPreconditions.checkArgument(delta.length == byteL && entry.length == byteL);
+            byte[] paddingOldEntry = BytesUtils.paddingByteArray(BytesUtils.xor(entry, delta), subByteL * partition);
+            byte[] paddingEntry = BytesUtils.paddingByteArray(entry, subByteL * partition);
+            int colIndex = x / rowElementNum;
+            int rowIndex = x % rowElementNum;
+            for (int p = 0; p < partition; p++) {
+                for (int elementIndex = 0; elementIndex < subByteL; elementIndex++) {
+                    // db[r][c] changes by d, so that hint = db · A changes by d · A[c] in row r
+                    int d = (paddingEntry[p * subByteL + elementIndex] & 0xFF)
+                        - (paddingOldEntry[p * subByteL + elementIndex] & 0xFF);
+                    if (d == 0) {
+                        continue;
+                    }
+                    int r = rowIndex * subByteL + elementIndex;
+                    for (int k = 0; k < dimension; k++) {
+                        int hint = transposeHint[p].get(k, r) + d * transposeMatrixA.get(k, colIndex);
+                        transposeHint[p].set(k, r, hint);
+                    }
+                    // s · hint changes by d · (A · s)[c] in position r
+                    if (updateKeys) {
+                        for (int b = 0; b < maxBatchNum; b++) {
+                            hss[b][p].addi(r, d * ass[b].getElement(colIndex));
+                        }
+                    }
+                }
+            }
+            stopWatch.stop();
+            long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(PtoState.PTO_STEP, 1, 1, updateTime, "Client updates " + (round + 1) + "-th entry");
+        }
     }
 
     @Override
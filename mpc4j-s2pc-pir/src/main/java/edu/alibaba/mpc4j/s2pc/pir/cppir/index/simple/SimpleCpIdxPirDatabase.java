@@ -0,0 +1,225 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index.simple;
+
+import edu.alibaba.mpc4j.common.structure.database.Database;
+import edu.alibaba.mpc4j.common.structure.matrix.DenseIntMatrix;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Simple client-specific preprocessing index PIR shared database. The random matrix A is public and can be reused by
+ * all clients (see Section 4.1 of the SimplePIR paper), so that the encoded database and the hint db · A are computed
+ * once and sent to every client.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+public class SimpleCpIdxPirDatabase implements SharedIdxPirDatabase {
+    /**
+     * database size
+     */
+    private final int n;
+    /**
+     * element bit length
+     */
+    private final int l;
+    /**
+     * element byte length
+     */
+    private final int byteL;
+    /**
+     * LWE dimension
+     */
+    private final int dimension;
+    /**
+     * byteL for each partition
+     */
+    private final int subByteL;
+    /**
+     * rows
+     */
+    private final int rows;
+    /**
+     * columns
+     */
+    private final int columns;
+    /**
+     * partition
+     */
+    private final int partition;
+    /**
+     * seed for the random matrix A
+     */
+    private final byte[] seed;
+    /**
+     * encoded database
+     */
+    private final DenseIntMatrix[] dbs;
+    /**
+     * hint payloads, one for each partition, lazily generated since clients with persisted hints do not need them
+     */
+    private List<List<byte[]>> hintPayloads;
+
+    /**
+     * Creates a shared database.
+     *
+     * @param config       config.
+     * @param database     database, rows are read one by one so that a memory-mapped database is not loaded into heap.
+     * @param secureRandom random state.
+     * @param parallel     parallel encoding and answering.
+     * @return a shared database.
+     */
+    public static SimpleCpIdxPirDatabase create(SimpleCpIdxPirConfig config, Database database,
+                                                SecureRandom secureRandom, boolean parallel) {
+        return new SimpleCpIdxPirDatabase(config, database, secureRandom, parallel);
+    }
+
+    private SimpleCpIdxPirDatabase(SimpleCpIdxPirConfig config, Database database,
+                                   SecureRandom secureRandom, boolean parallel) {
+        n = database.rows();
+        l = database.getL();
+        byteL = database.getByteL();
+        dimension = config.getGaussianLweParam().getDimension();
+        seed = BlockUtils.randomBlock(secureRandom);
+        subByteL = Math.min(byteL, SimpleCpIdxPirPtoDesc.getMaxSubByteL(n));
+        int[] sizes = SimpleCpIdxPirPtoDesc.getMatrixSize(n, byteL);
+        rows = sizes[0];
+        columns = sizes[1];
+        partition = sizes[2];
+        // create database
+        dbs = IntStream.range(0, partition)
+            .mapToObj(p -> {
+                DenseIntMatrix db = DenseIntMatrix.createZeros(rows, columns);
+                db.setParallel(parallel);
+                return db;
+            })
+            .toArray(DenseIntMatrix[]::new);
+        int i = 0;
+        int j = 0;
+        for (int dataIndex = 0; dataIndex < database.rows(); dataIndex++) {
+            byte[] element = database.getBytesData(dataIndex);
+            assert element.length == byteL;
+            byte[] paddingElement = BytesUtils.paddingByteArray(element, subByteL * partition);
+            // encode each row into partition databases
+            for (int entryIndex = 0; entryIndex < subByteL; entryIndex++) {
+                for (int p = 0; p < partition; p++) {
+                    dbs[p].set(i, j, (paddingElement[p * subByteL + entryIndex] & 0xFF));
+                }
+                i++;
+                // change column index
+                if (i == rows) {
+                    i = 0;
+                    j++;
+                }
+            }
+        }
+    }
+
+    private void generateHintPayloads() {
+        DenseIntMatrix transposeMatrixA = DenseIntMatrix.createRandom(columns, dimension, seed).transpose();
+        hintPayloads = Arrays.stream(dbs)
+            .map(db -> {
+                // hint = db · A
+                DenseIntMatrix hint = db.mulTranspose(transposeMatrixA);
+                return IntStream.range(0, rows)
+                    .mapToObj(rowIndex -> IntUtils.intArrayToByteArray(hint.getRow(rowIndex)))
+                    .collect(Collectors.toUnmodifiableList());
+            })
+            .toList();
+    }
+
+    @Override
+    public int rows() {
+        return n;
+    }
+
+    @Override
+    public int getL() {
+        return l;
+    }
+
+    /**
+     * Gets the columns.
+     *
+     * @return columns.
+     */
+    int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets the seed for the random matrix A.
+     *
+     * @return seed.
+     */
+    byte[] getSeed() {
+        return BytesUtils.clone(seed);
+    }
+
+    /**
+     * Gets the encoded database. The returned matrices must not be modified.
+     *
+     * @return encoded database.
+     */
+    DenseIntMatrix[] getDbs() {
+        return dbs;
+    }
+
+    /**
+     * Gets the hint payloads.
+     *
+     * @return hint payloads.
+     */
+    synchronized List<List<byte[]>> getHintPayloads() {
+        if (hintPayloads == null) {
+            generateHintPayloads();
+        }
+        return hintPayloads;
+    }
+
+    /**
+     * Gets the entry.
+     *
+     * @param x index.
+     * @return entry.
+     */
+    byte[] getEntry(int x) {
+        byte[] paddingElement = new byte[subByteL * partition];
+        int rowElementNum = rows / subByteL;
+        int j = x / rowElementNum;
+        int i = (x % rowElementNum) * subByteL;
+        for (int entryIndex = 0; entryIndex < subByteL; entryIndex++) {
+            for (int p = 0; p < partition; p++) {
+                paddingElement[p * subByteL + entryIndex] = (byte) dbs[p].get(i + entryIndex, j);
+            }
+        }
+        return Arrays.copyOfRange(paddingElement, subByteL * partition - byteL, subByteL * partition);
+    }
+
+    /**
+     * Sets the entry. Generated hints are dropped, so the database must not be shared when setting entries.
+     *
+     * @param x     index.
+     * @param entry entry.
+     */
+    synchronized void setEntry(int x, byte[] entry) {
+        assert entry.length == byteL;
+        byte[] paddingElement = BytesUtils.paddingByteArray(entry, subByteL * partition);
+        int rowElementNum = rows / subByteL;
+        int j = x / rowElementNum;
+        int i = (x % rowElementNum) * subByteL;
+        for (int entryIndex = 0; entryIndex < subByteL; entryIndex++) {
+            for (int p = 0; p < partition; p++) {
+                dbs[p].set(i + entryIndex, j, (paddingElement[p * subByteL + entryIndex] & 0xFF));
+            }
+        }
+        hintPayloads = null;
+    }
+}
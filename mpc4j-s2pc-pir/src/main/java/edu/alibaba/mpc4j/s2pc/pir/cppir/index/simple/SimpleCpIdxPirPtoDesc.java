@@ -47,6 +47,18 @@ public class SimpleCpIdxPirPtoDesc implements PtoDesc {
          * server send response
          */
         SERVER_SEND_RESPONSE,
+        /**
+         * client sends the version of persisted hints
+         */
+        CLIENT_SEND_HINT_VERSION,
+        /**
+         * server sends the version of the database
+         */
+        SERVER_SEND_HINT_VERSION,
+        /**
+         * server send update
+         */
+        SERVER_SEND_UPDATE,
     }
 
     /**
@@ -1,21 +1,25 @@
 package edu.alibaba.mpc4j.s2pc.pir.cppir.index.simple;
 
+import com.google.common.base.Preconditions;
 import edu.alibaba.mpc4j.common.rpc.*;
 import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
-import edu.alibaba.mpc4j.common.structure.matrix.IntMatrix;
+import edu.alibaba.mpc4j.common.structure.matrix.DenseIntMatrix;
 import edu.alibaba.mpc4j.common.structure.vector.IntVector;
-import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
 import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.GaussianLweParam;
-import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractCpIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.AbstractPersistentCpIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirUpdateLog;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.HintCpIdxPirServer;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.simple.SimpleCpIdxPirPtoDesc.PtoStep;
 
-import java.util.Collections;
-import java.util.List;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import java.util.*;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -24,100 +28,174 @@ import java.util.stream.IntStream;
  * @author Liqiang Peng
  * @date 2023/9/18
  */
-public class SimpleCpIdxPirServer extends AbstractCpIdxPirServer implements HintCpIdxPirServer {
+public class SimpleCpIdxPirServer extends AbstractPersistentCpIdxPirServer
+    implements HintCpIdxPirServer, SharedIdxPirServer {
     /**
-     * LWE dimension
+     * config
      */
-    private final int dimension;
+    private final SimpleCpIdxPirConfig config;
     /**
      * columns
      */
     private int columns;
     /**
-     * transpose database database
+     * encoded database
+     */
+    private SimpleCpIdxPirDatabase encodedDatabase;
+    /**
+     * if the encoded database is shared among servers, entries cannot be updated
      */
-    private IntMatrix[] tdbs;
+    private boolean shared;
+    /**
+     * database
+     */
+    private DenseIntMatrix[] dbs;
 
     public SimpleCpIdxPirServer(Rpc serverRpc, Party clientParty, SimpleCpIdxPirConfig config) {
         super(SimpleCpIdxPirPtoDesc.getInstance(), serverRpc, clientParty, config);
-        GaussianLweParam gaussianLweParam = config.getGaussianLweParam();
-        dimension = gaussianLweParam.getDimension();
+        this.config = config;
     }
 
     @Override
-    public void init(NaiveDatabase database, int matchBatchNum) throws MpcAbortException {
-        setInitInput(database, matchBatchNum);
+    public void init(NaiveDatabase database, CpIdxPirUpdateLog updateLog, int maxBatchNum) throws MpcAbortException {
+        setInitInput(database, maxBatchNum);
         logPhaseInfo(PtoState.INIT_BEGIN);
 
         stopWatch.start();
-        // server generates and sends the seed for the random matrix A.
-        byte[] seed = BlockUtils.randomBlock(secureRandom);
-        List<byte[]> seedPayload = Collections.singletonList(seed);
-        sendOtherPartyPayload(PtoStep.SERVER_SEND_SEED.ordinal(), seedPayload);
+        encodedDatabase = SimpleCpIdxPirDatabase.create(config, database, secureRandom, parallel);
+        shared = false;
+        columns = encodedDatabase.getColumns();
+        dbs = encodedDatabase.getDbs();
         stopWatch.stop();
-        long seedTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        long encodeTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
-        logStepInfo(PtoState.INIT_STEP, 1, 2, seedTime, "Server generates seed");
+        logStepInfo(PtoState.INIT_STEP, 1, 2, encodeTime, "Server encodes database");
 
-        stopWatch.start();
-        int subByteL = Math.min(byteL, SimpleCpIdxPirPtoDesc.getMaxSubByteL(n));
-        int[] sizes = SimpleCpIdxPirPtoDesc.getMatrixSize(n, byteL);
-        int rows = sizes[0];
-        columns = sizes[1];
-        int partition = sizes[2];
-        // create database
-        IntMatrix[] dbs = IntStream.range(0, partition)
-            .mapToObj(p -> IntMatrix.createZeros(rows, columns))
-            .toArray(IntMatrix[]::new);
-        int i = 0;
-        int j = 0;
-        for (int dataIndex = 0; dataIndex < database.rows(); dataIndex++) {
-            byte[] element = database.getBytesData(dataIndex);
-            assert element.length == byteL;
-            byte[] paddingElement = BytesUtils.paddingByteArray(element, subByteL * partition);
-            // encode each row into partition databases
-            for (int entryIndex = 0; entryIndex < subByteL; entryIndex++) {
-                for (int p = 0; p < partition; p++) {
-                    dbs[p].set(i, j, (paddingElement[p * subByteL + entryIndex] & 0xFF));
-                }
-                i++;
-                // change column index
-                if (i == rows) {
-                    i = 0;
-                    j++;
+        this.updateLog = updateLog;
+        boolean sync = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), 0
+        );
+        if (sync) {
+            // only send updates since the version of persisted hints
+            stopWatch.start();
+            int[] xs = updateLog.getXs(hintVersion);
+            byte[][] deltas = updateLog.getDeltas(hintVersion);
+            // recover the entry after each update by reverting updates from the current database
+            TIntObjectMap<byte[]> entries = new TIntObjectHashMap<>();
+            byte[][] newEntries = new byte[xs.length][];
+            for (int i = xs.length - 1; i >= 0; i--) {
+                if (!entries.containsKey(xs[i])) {
+                    entries.put(xs[i], encodedDatabase.getEntry(xs[i]));
                 }
+                newEntries[i] = entries.get(xs[i]);
+                entries.put(xs[i], BytesUtils.xor(newEntries[i], deltas[i]));
+            }
+            for (int i = 0; i < xs.length; i++) {
+                sendUpdate(xs[i], deltas[i], newEntries[i]);
             }
+            stopWatch.stop();
+            long syncTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(
+                PtoState.INIT_STEP, 2, 2, syncTime,
+                "Server sends " + xs.length + " update(s) since version " + hintVersion
+            );
+        } else {
+            stopWatch.start();
+            sendSeedAndHints();
+            stopWatch.stop();
+            long hintTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(PtoState.INIT_STEP, 2, 2, hintTime, "Server generates and sends seed and hints");
         }
-        // create hint
-        IntMatrix matrixA = IntMatrix.createRandom(columns, dimension, seed);
-        tdbs = new IntMatrix[partition];
-        IntStream intStream = parallel ? IntStream.range(0, partition).parallel() : IntStream.range(0, partition);
-        IntMatrix[] hint = intStream.mapToObj(p -> dbs[p].mul(matrixA)).toArray(IntMatrix[]::new);
-        // transpose database
-        IntStream.range(0, partition).forEach(p -> {
-            IntStream hintIntStream = parallel ? IntStream.range(0, rows).parallel() : IntStream.range(0, rows);
-            List<byte[]> hintPayload = hintIntStream
-                .mapToObj(rowIndex -> IntUtils.intArrayToByteArray(hint[p].getRow(rowIndex).getElements()))
-                .collect(Collectors.toList());
-            sendOtherPartyPayload(PtoStep.SERVER_SEND_HINT.ordinal(), hintPayload);
-            tdbs[p] = dbs[p].transpose();
-        });
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    @Override
+    public void init(SharedIdxPirDatabase database, int maxBatchNum) throws MpcAbortException {
+        MpcAbortPreconditions.checkArgument(database instanceof SimpleCpIdxPirDatabase);
+        setInitInput(database, maxBatchNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        encodedDatabase = (SimpleCpIdxPirDatabase) database;
+        shared = true;
+        columns = encodedDatabase.getColumns();
+        dbs = encodedDatabase.getDbs();
+        // the shared database has no update log, so that persisted hints can never be synchronized
+        updateLog = new CpIdxPirUpdateLog(secureRandom);
+        boolean sync = syncHintVersion(
+            PtoStep.CLIENT_SEND_HINT_VERSION.ordinal(), PtoStep.SERVER_SEND_HINT_VERSION.ordinal(), 0
+        );
+        assert !sync;
+
+        stopWatch.start();
+        sendSeedAndHints();
         stopWatch.stop();
         long hintTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
-        logStepInfo(PtoState.INIT_STEP, 2, 2, hintTime, "Server generates hints");
+        logStepInfo(PtoState.INIT_STEP, 1, 1, hintTime, "Server sends seed and hints");
 
         logPhaseInfo(PtoState.INIT_END);
     }
 
+    private void sendSeedAndHints() {
+        // server sends the seed for the random matrix A, and then hints for each partition.
+        List<byte[]> seedPayload = Collections.singletonList(encodedDatabase.getSeed());
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_SEED.ordinal(), seedPayload);
+        for (List<byte[]> hintPayload : encodedDatabase.getHintPayloads()) {
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_HINT.ordinal(), hintPayload);
+        }
+    }
+
+    @Override
+    public void update(int[] xs, byte[][] entries) {
+        Preconditions.checkState(!shared, "Cannot update entries of a shared database");
+        MathPreconditions.checkEqual("xs.length", "entries.length", xs.length, entries.length);
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        for (int round = 0; round < xs.length; round++) {
+            stopWatch.start();
+            int x = xs[round];
+            byte[] entry = entries[round];
+            MathPreconditions.checkNonNegativeInRange("x", x, n);
+            Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(entry, byteL, l));
+            byte[] delta = BytesUtils.xor(encodedDatabase.getEntry(x), entry);
+            encodedDatabase.setEntry(x, entry);
+            updateLog.append(x, delta);
+            sendUpdate(x, delta, entry);
+            stopWatch.stop();
+            long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(PtoState.PTO_STEP, 1, 1, updateTime, "Server updates " + (round + 1) + "-th entry");
+        }
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    private void sendUpdate(int x, byte[] delta, byte[] entry) {
+        // the client needs the new entry to compute differences of each byte, the old one is entry ⊕ delta
+        List<byte[]> serverUpdatePayload = new LinkedList<>();
+        serverUpdatePayload.add(IntUtils.intToByteArray(x));
+        serverUpdatePayload.add(delta);
+        serverUpdatePayload.add(BytesUtils.clone(entry));
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE.ordinal(), serverUpdatePayload);
+    }
+
     @Override
     public void pir(int batchNum) throws MpcAbortException {
         setPtoInput(batchNum);
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
+        // the client sends all queries before receiving responses, so that we answer them in one batch
+        IntVector[] qus = new IntVector[batchNum];
         for (int i = 0; i < batchNum; i++) {
-            answer();
+            qus[i] = receiveQuery();
+        }
+        List<List<byte[]>> responsePayloads = generateResponses(qus);
+        for (List<byte[]> responsePayload : responsePayloads) {
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
         }
         stopWatch.stop();
         long responseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -129,17 +207,29 @@ public class SimpleCpIdxPirServer extends AbstractCpIdxPirServer implements Hint
 
     @Override
     public void answer() throws MpcAbortException {
+        IntVector qu = receiveQuery();
+        List<byte[]> responsePayload = generateResponses(new IntVector[]{qu}).get(0);
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
+    }
+
+    private IntVector receiveQuery() throws MpcAbortException {
         List<byte[]> clientQueryPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_QUERY.ordinal());
         MpcAbortPreconditions.checkArgument(clientQueryPayload.size() == 1);
         // parse qu
         IntVector qu = IntVector.create(IntUtils.byteArrayToIntArray(clientQueryPayload.get(0)));
         MpcAbortPreconditions.checkArgument(qu.getNum() == columns);
-        // generate response
-        IntStream pIntStream = parallel ? IntStream.range(0, tdbs.length).parallel() : IntStream.range(0, tdbs.length);
-        List<byte[]> responsePayload = pIntStream
-            .mapToObj(p -> tdbs[p].leftMul(qu))
-            .map(ans -> IntUtils.intArrayToByteArray(ans.getElements()))
+        return qu;
+    }
+
+    private List<List<byte[]>> generateResponses(IntVector[] qus) {
+        // each partition is read once for all queries
+        IntVector[][] answers = Arrays.stream(dbs)
+            .map(db -> db.rightMul(qus))
+            .toArray(IntVector[][]::new);
+        return IntStream.range(0, qus.length)
+            .mapToObj(i -> Arrays.stream(answers)
+                .map(partitionAnswers -> IntUtils.intArrayToByteArray(partitionAnswers[i].getElements()))
+                .toList())
             .toList();
-        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
     }
 }
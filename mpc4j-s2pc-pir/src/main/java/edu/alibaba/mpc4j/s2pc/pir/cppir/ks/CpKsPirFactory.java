@@ -3,6 +3,8 @@ package edu.alibaba.mpc4j.s2pc.pir.cppir.ks;
 import edu.alibaba.mpc4j.common.rpc.Party;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
 import edu.alibaba.mpc4j.common.rpc.pto.PtoFactory;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirFactory.CpIdxPirType;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.alpr21.Alpr21CpKsPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.alpr21.Alpr21CpKsPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.alpr21.Alpr21CpKsPirServer;
@@ -131,4 +133,55 @@ public class CpKsPirFactory implements PtoFactory {
             default -> throw new IllegalArgumentException("Invalid " + CpKsPirType.class.getSimpleName() + ": " + type.name());
         }
     }
+
+    /**
+     * create an updatable server.
+     *
+     * @param serverRpc   server RPC.
+     * @param clientParty client party.
+     * @param config      config.
+     * @return an updatable server.
+     */
+    public static <T> StreamCpKsPirServer<T> createStreamServer(Rpc serverRpc, Party clientParty, CpKsPirConfig config) {
+        CpKsPirType type = config.getPtoType();
+        switch (type) {
+            case ALPR21 -> {
+                Alpr21CpKsPirConfig alpr21Config = (Alpr21CpKsPirConfig) config;
+                checkStreamCpIdxPirConfig(alpr21Config.getIndexCpPirConfig());
+                return new Alpr21CpKsPirServer<>(serverRpc, clientParty, alpr21Config);
+            }
+            default -> throw new IllegalArgumentException("Invalid " + CpKsPirType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
+    /**
+     * create an updatable client.
+     *
+     * @param clientRpc   client RPC.
+     * @param serverParty server party.
+     * @param config      config.
+     * @return an updatable client.
+     */
+    public static <T> StreamCpKsPirClient<T> createStreamClient(Rpc clientRpc, Party serverParty, CpKsPirConfig config) {
+        CpKsPirType type = config.getPtoType();
+        switch (type) {
+            case ALPR21 -> {
+                Alpr21CpKsPirConfig alpr21Config = (Alpr21CpKsPirConfig) config;
+                checkStreamCpIdxPirConfig(alpr21Config.getIndexCpPirConfig());
+                return new Alpr21CpKsPirClient<>(clientRpc, serverParty, alpr21Config);
+            }
+            default -> throw new IllegalArgumentException("Invalid " + CpKsPirType.class.getSimpleName() + ": " + type.name());
+        }
+    }
+
+    private static void checkStreamCpIdxPirConfig(CpIdxPirConfig cpIdxPirConfig) {
+        CpIdxPirType cpIdxPirType = cpIdxPirConfig.getPtoType();
+        switch (cpIdxPirType) {
+            case PIANO, MIR, PIANO_PLINKO, MIR_PLINKO -> {
+            }
+            default -> throw new IllegalArgumentException(
+                "Invalid " + CpIdxPirType.class.getSimpleName() + " for updates: " + cpIdxPirType.name()
+            );
+        }
+    }
 }
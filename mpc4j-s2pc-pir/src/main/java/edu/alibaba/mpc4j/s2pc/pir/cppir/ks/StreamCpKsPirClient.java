@@ -0,0 +1,18 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.ks;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+/**
+ * Updatable client-specific preprocessing keyword PIR client.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+public interface StreamCpKsPirClient<T> extends CpKsPirClient<T> {
+    /**
+     * Receives a batch of insertions, updates and deletions from the server.
+     *
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    void update() throws MpcAbortException;
+}
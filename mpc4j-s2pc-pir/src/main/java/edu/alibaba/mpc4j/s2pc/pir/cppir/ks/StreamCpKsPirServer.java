@@ -0,0 +1,51 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.ks;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Updatable client-specific preprocessing keyword PIR server. Each batch of insertions, deletions or updates only
+ * patches the affected positions of the underlying database, instead of re-initializing the whole protocol. The client
+ * must call {@link StreamCpKsPirClient#update()} once for each batch.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+public interface StreamCpKsPirServer<T> extends CpKsPirServer<T> {
+    /**
+     * Inserts key-value pairs. The keys must not be in the database.
+     *
+     * @param keyValueMap key-value map.
+     */
+    default void insert(Map<T, byte[]> keyValueMap) {
+        update(keyValueMap, Collections.emptyMap(), Collections.emptySet());
+    }
+
+    /**
+     * Deletes keys. The keys must be in the database.
+     *
+     * @param keys keys.
+     */
+    default void delete(Set<T> keys) {
+        update(Collections.emptyMap(), Collections.emptyMap(), keys);
+    }
+
+    /**
+     * Updates values of keys. The keys must be in the database.
+     *
+     * @param keyValueMap key-value map.
+     */
+    default void update(Map<T, byte[]> keyValueMap) {
+        update(Collections.emptyMap(), keyValueMap, Collections.emptySet());
+    }
+
+    /**
+     * Applies a batch of insertions, updates and deletions. Each key can appear in at most one of them.
+     *
+     * @param insertMap  key-value pairs to insert.
+     * @param updateMap  key-value pairs to update.
+     * @param deleteKeys keys to delete.
+     */
+    void update(Map<T, byte[]> insertMap, Map<T, byte[]> updateMap, Set<T> deleteKeys);
+}
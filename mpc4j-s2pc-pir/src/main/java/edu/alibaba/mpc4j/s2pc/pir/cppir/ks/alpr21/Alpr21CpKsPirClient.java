@@ -12,6 +12,7 @@ import edu.alibaba.mpc4j.common.tool.crypto.prg.PrgFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory.CuckooHashBinType;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
 import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
 import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfFactory;
 import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfReceiver;
@@ -19,7 +20,9 @@ import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfReceiverOutput;
 import edu.alibaba.mpc4j.s2pc.pir.PirUtils;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirFactory;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.StreamCpIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.AbstractCpKsPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.StreamCpKsPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.alpr21.Alpr21CpKsPirDesc.PtoStep;
 
 import java.nio.ByteBuffer;
@@ -33,7 +36,7 @@ import java.util.stream.IntStream;
  * @author Liqiang Peng
  * @date 2023/9/14
  */
-public class Alpr21CpKsPirClient<T> extends AbstractCpKsPirClient<T> {
+public class Alpr21CpKsPirClient<T> extends AbstractCpKsPirClient<T> implements StreamCpKsPirClient<T> {
     /**
      * single index client-specific preprocessing PIR client
      */
@@ -195,4 +198,27 @@ public class Alpr21CpKsPirClient<T> extends AbstractCpKsPirClient<T> {
             })
             .toArray(byte[][]::new);
     }
+
+    @Override
+    public void update() throws MpcAbortException {
+        checkInitialized();
+        MpcAbortPreconditions.checkArgument(cpIdxPirClient instanceof StreamCpIdxPirClient);
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        List<byte[]> updateNumPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE_NUM.ordinal());
+        MpcAbortPreconditions.checkArgument(updateNumPayload.size() == 1);
+        int updateNum = IntUtils.byteArrayToInt(updateNumPayload.get(0));
+        MpcAbortPreconditions.checkArgument(updateNum >= 0 && updateNum <= binNum);
+        // cuckoo hash keys are unchanged, only the updated bins are synchronized by the index PIR
+        stopWatch.start();
+        if (updateNum > 0) {
+            ((StreamCpIdxPirClient) cpIdxPirClient).update(updateNum);
+        }
+        stopWatch.stop();
+        long updateTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 1, updateTime, "Client updates " + updateNum + " cuckoo hash bins");
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
 }
@@ -40,6 +40,10 @@ class Alpr21CpKsPirDesc implements PtoDesc {
          * server send item response
          */
         SERVER_SEND_RESPONSE,
+        /**
+         * server send the number of updated bins
+         */
+        SERVER_SEND_UPDATE_NUM,
     }
 
     /**
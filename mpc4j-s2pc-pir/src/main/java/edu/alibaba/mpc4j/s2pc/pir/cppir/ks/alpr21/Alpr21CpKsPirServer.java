@@ -1,5 +1,6 @@
 package edu.alibaba.mpc4j.s2pc.pir.cppir.ks.alpr21;
 
+import com.google.common.base.Preconditions;
 import com.google.common.primitives.Bytes;
 import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
 import edu.alibaba.mpc4j.common.rpc.Party;
@@ -10,6 +11,8 @@ import edu.alibaba.mpc4j.common.tool.CommonConstants;
 import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.HashFactory;
+import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
+import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
 import edu.alibaba.mpc4j.common.tool.crypto.prg.Prg;
 import edu.alibaba.mpc4j.common.tool.crypto.prg.PrgFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.HashBinEntry;
@@ -17,6 +20,7 @@ import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBin;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory.CuckooHashBinType;
 import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
 import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
 import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfFactory;
 import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfKey;
@@ -24,8 +28,12 @@ import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfSender;
 import edu.alibaba.mpc4j.s2pc.pir.PirUtils;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirFactory;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.StreamCpIdxPirServer;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.AbstractCpKsPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.StreamCpKsPirServer;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.alpr21.Alpr21CpKsPirDesc.PtoStep;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 
 import java.nio.ByteBuffer;
 import java.util.*;
@@ -36,12 +44,17 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
- * ALPR21 client-specific preprocessing KSPIR server.
+ * ALPR21 client-specific preprocessing KSPIR server. If the underlying index PIR is updatable, the server supports
+ * updates by re-placing only the affected cuckoo hash bins and updating the corresponding index PIR entries.
  *
  * @author Liqiang Peng
  * @date 2023/9/14
  */
-public class Alpr21CpKsPirServer<T> extends AbstractCpKsPirServer<T> {
+public class Alpr21CpKsPirServer<T> extends AbstractCpKsPirServer<T> implements StreamCpKsPirServer<T> {
+    /**
+     * max total tries when inserting an item into the cuckoo hash bins
+     */
+    private static final int MAX_TOTAL_TRIES = 1 << 10;
     /**
      * single index client-specific preprocessing PIR server
      */
@@ -82,6 +95,26 @@ public class Alpr21CpKsPirServer<T> extends AbstractCpKsPirServer<T> {
      * hash keys
      */
     private byte[][] hashKeys;
+    /**
+     * cuckoo hash PRFs
+     */
+    private Prf[] prfs;
+    /**
+     * bin num
+     */
+    private int binNum;
+    /**
+     * keyword hash in each bin, null for empty bins
+     */
+    private ByteBuffer[] binItems;
+    /**
+     * hash index of the keyword hash in each bin
+     */
+    private int[] binHashIndexes;
+    /**
+     * keyword hash → value map
+     */
+    private Map<ByteBuffer, byte[]> hashValueMap;
 
     public Alpr21CpKsPirServer(Rpc serverRpc, Party clientParty, Alpr21CpKsPirConfig config) {
         super(Alpr21CpKsPirDesc.getInstance(), serverRpc, clientParty, config);
@@ -151,33 +184,60 @@ public class Alpr21CpKsPirServer<T> extends AbstractCpKsPirServer<T> {
             envType, cuckooHashBinType, n, hashValueMap.keySet(), secureRandom
         );
         hashKeys = cuckooHashBin.getHashKeys();
-        cuckooHashBin.insertPaddingItems(botHash);
-        int binNum = cuckooHashBin.binNum();
-        byte[][] cuckooHashBinItems = new byte[binNum][];
-        IntStream binIndexStream = parallel ? IntStream.range(0, binNum).parallel() : IntStream.range(0, binNum);
-        binIndexStream.forEach(binIndex -> {
+        prfs = Arrays.stream(hashKeys)
+            .map(key -> {
+                Prf prf = PrfFactory.createInstance(envType, Integer.BYTES);
+                prf.setKey(key);
+                return prf;
+            })
+            .toArray(Prf[]::new);
+        this.hashValueMap = new HashMap<>(hashValueMap);
+        binNum = cuckooHashBin.binNum();
+        // keep the placement of keyword hashes so that later updates only re-place the affected bins
+        binItems = new ByteBuffer[binNum];
+        binHashIndexes = new int[binNum];
+        for (int binIndex = 0; binIndex < binNum; binIndex++) {
             HashBinEntry<ByteBuffer> hashBinEntry = cuckooHashBin.getHashBinEntry(binIndex);
-            ByteBuffer keywordHash = hashBinEntry.getItem();
-            byte[] value = new byte[byteL];
-            if (hashBinEntry.getHashIndex() != HashBinEntry.DUMMY_ITEM_HASH_INDEX) {
-                value = hashValueMap.get(hashBinEntry.getItem());
-            } else {
-                secureRandom.nextBytes(value);
+            // bins without items are empty, which are encoded as ⊥
+            if (hashBinEntry != null) {
+                binItems[binIndex] = hashBinEntry.getItem();
+                binHashIndexes[binIndex] = hashBinEntry.getHashIndex();
             }
-            byte[] oprfKey = prg.extendToBytes(sqOprfKey.getPrf(keywordHash.array()));
-            // split the OPRF key into hash_key || encrypt_key
-            byte[] hashKey = new byte[hashByteLength];
-            byte[] encryptKey = new byte[hashByteLength + byteL];
-            ByteBuffer.wrap(oprfKey).get(hashKey).get(encryptKey);
-            // value = hash_key || value
-            byte[] concatHashValue = Bytes.concat(hashKey, value);
-            // encrypt using encrypt_key
-            BytesUtils.xori(concatHashValue, encryptKey);
-            cuckooHashBinItems[binIndex] = concatHashValue;
-        });
+        }
+        byte[][] cuckooHashBinItems = new byte[binNum][];
+        IntStream binIndexStream = parallel ? IntStream.range(0, binNum).parallel() : IntStream.range(0, binNum);
+        binIndexStream.forEach(binIndex -> cuckooHashBinItems[binIndex] = encodeBin(binIndex));
         return NaiveDatabase.create((hashByteLength + byteL) * Byte.SIZE, cuckooHashBinItems);
     }
 
+    /**
+     * Encodes the entry of a bin. Empty bins are encoded as ⊥ with a random value.
+     *
+     * @param binIndex bin index.
+     * @return encoded entry.
+     */
+    private byte[] encodeBin(int binIndex) {
+        ByteBuffer keywordHash = binItems[binIndex];
+        byte[] value;
+        if (keywordHash == null) {
+            keywordHash = botHash;
+            value = new byte[byteL];
+            secureRandom.nextBytes(value);
+        } else {
+            value = hashValueMap.get(keywordHash);
+        }
+        byte[] oprfKey = prg.extendToBytes(sqOprfKey.getPrf(keywordHash.array()));
+        // split the OPRF key into hash_key || encrypt_key
+        byte[] hashKey = new byte[hashByteLength];
+        byte[] encryptKey = new byte[hashByteLength + byteL];
+        ByteBuffer.wrap(oprfKey).get(hashKey).get(encryptKey);
+        // value = hash_key || value
+        byte[] concatHashValue = Bytes.concat(hashKey, value);
+        // encrypt using encrypt_key
+        BytesUtils.xori(concatHashValue, encryptKey);
+        return concatHashValue;
+    }
+
     @Override
     public void pir(int batchNum) throws MpcAbortException {
         setPtoInput(batchNum);
@@ -199,4 +259,148 @@ public class Alpr21CpKsPirServer<T> extends AbstractCpKsPirServer<T> {
 
         logPhaseInfo(PtoState.PTO_END);
     }
+
+    @Override
+    public void update(Map<T, byte[]> insertMap, Map<T, byte[]> updateMap, Set<T> deleteKeys) {
+        checkInitialized();
+        Preconditions.checkArgument(
+            cpIdxPirServer instanceof StreamCpIdxPirServer,
+            "%s does not support updates", cpIdxPirServer.getPtoDesc().getPtoName()
+        );
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        Map<ByteBuffer, byte[]> insertHashValueMap = computeHashValueMap(insertMap);
+        Map<ByteBuffer, byte[]> updateHashValueMap = computeHashValueMap(updateMap);
+        Map<ByteBuffer, byte[]> deleteHashValueMap = computeHashValueMap(
+            deleteKeys.stream().collect(Collectors.toMap(key -> key, key -> new byte[byteL]))
+        );
+        insertHashValueMap.keySet().forEach(keywordHash -> Preconditions.checkArgument(
+            !hashValueMap.containsKey(keywordHash) && !updateHashValueMap.containsKey(keywordHash)
+                && !deleteHashValueMap.containsKey(keywordHash),
+            "inserted keys must not be in the database, nor be updated or deleted"
+        ));
+        updateHashValueMap.keySet().forEach(keywordHash -> Preconditions.checkArgument(
+            hashValueMap.containsKey(keywordHash) && !deleteHashValueMap.containsKey(keywordHash),
+            "updated keys must be in the database, and must not be deleted"
+        ));
+        deleteHashValueMap.keySet().forEach(keywordHash -> Preconditions.checkArgument(
+            hashValueMap.containsKey(keywordHash), "deleted keys must be in the database"
+        ));
+        // the original content of each touched bin, used to roll back if an insertion fails
+        TIntObjectMap<HashBinEntry<ByteBuffer>> touchedBins = new TIntObjectHashMap<>();
+        Map<ByteBuffer, byte[]> originalValueMap = new HashMap<>();
+        // delete first, so that inserted keys can reuse the released bins
+        for (ByteBuffer keywordHash : deleteHashValueMap.keySet()) {
+            int binIndex = findBin(keywordHash);
+            touchBin(binIndex, touchedBins);
+            binItems[binIndex] = null;
+            originalValueMap.put(keywordHash, hashValueMap.remove(keywordHash));
+        }
+        for (Map.Entry<ByteBuffer, byte[]> entry : updateHashValueMap.entrySet()) {
+            touchBin(findBin(entry.getKey()), touchedBins);
+            originalValueMap.put(entry.getKey(), hashValueMap.put(entry.getKey(), entry.getValue()));
+        }
+        for (Map.Entry<ByteBuffer, byte[]> entry : insertHashValueMap.entrySet()) {
+            originalValueMap.put(entry.getKey(), hashValueMap.put(entry.getKey(), entry.getValue()));
+            if (!insertBin(entry.getKey(), touchedBins)) {
+                // roll back, so that the server can still answer queries on the database before this batch
+                touchedBins.forEachEntry((binIndex, hashBinEntry) -> {
+                    binItems[binIndex] = hashBinEntry == null ? null : hashBinEntry.getItem();
+                    binHashIndexes[binIndex] = hashBinEntry == null ? 0 : hashBinEntry.getHashIndex();
+                    return true;
+                });
+                originalValueMap.forEach((keywordHash, value) -> {
+                    if (value == null) {
+                        hashValueMap.remove(keywordHash);
+                    } else {
+                        hashValueMap.put(keywordHash, value);
+                    }
+                });
+                stopWatch.stop();
+                stopWatch.reset();
+                throw new IllegalStateException(String.format(
+                    "Failed to insert keys after %s tries, the server must be re-initialized", MAX_TOTAL_TRIES
+                ));
+            }
+        }
+        int[] xs = touchedBins.keys();
+        Arrays.sort(xs);
+        IntStream binIndexStream = parallel ? Arrays.stream(xs).parallel() : Arrays.stream(xs);
+        byte[][] entries = binIndexStream.mapToObj(this::encodeBin).toArray(byte[][]::new);
+        stopWatch.stop();
+        long cuckooHashTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, cuckooHashTime, "Server updates " + xs.length + " cuckoo hash bins");
+
+        stopWatch.start();
+        List<byte[]> updateNumPayload = Collections.singletonList(IntUtils.intToByteArray(xs.length));
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_UPDATE_NUM.ordinal(), updateNumPayload);
+        if (xs.length > 0) {
+            ((StreamCpIdxPirServer) cpIdxPirServer).update(xs, entries);
+        }
+        stopWatch.stop();
+        long updatePirTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 2, updatePirTime, "Server updates PIR");
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    private Map<ByteBuffer, byte[]> computeHashValueMap(Map<T, byte[]> keyValueMap) {
+        Stream<Map.Entry<T, byte[]>> keywordStream = parallel
+            ? keyValueMap.entrySet().stream().parallel() : keyValueMap.entrySet().stream();
+        return keywordStream
+            .collect(Collectors.toMap(
+                entry -> {
+                    byte[] keyword = ObjectUtils.objectToByteArray(entry.getKey());
+                    Preconditions.checkArgument(!ByteBuffer.wrap(keyword).equals(botByteBuffer), "k_i must not equal ⊥");
+                    ByteBuffer keywordHash = ByteBuffer.wrap(hash.digestToBytes(keyword));
+                    assert !keywordHash.equals(botHash);
+                    return keywordHash;
+                },
+                entry -> {
+                    Preconditions.checkArgument(BytesUtils.isFixedReduceByteArray(entry.getValue(), byteL, l));
+                    return BytesUtils.clone(entry.getValue());
+                })
+            );
+    }
+
+    private int findBin(ByteBuffer keywordHash) {
+        for (int hashIndex = 0; hashIndex < hashNum; hashIndex++) {
+            int binIndex = prfs[hashIndex].getInteger(keywordHash.array(), binNum);
+            if (keywordHash.equals(binItems[binIndex]) && binHashIndexes[binIndex] == hashIndex) {
+                return binIndex;
+            }
+        }
+        throw new IllegalStateException("keyword hash is not in cuckoo hash bins");
+    }
+
+    private void touchBin(int binIndex, TIntObjectMap<HashBinEntry<ByteBuffer>> touchedBins) {
+        if (!touchedBins.containsKey(binIndex)) {
+            // record the original content of the bin, null for empty bins
+            ByteBuffer binItem = binItems[binIndex];
+            touchedBins.put(binIndex, binItem == null ? null : HashBinEntry.fromRealItem(binHashIndexes[binIndex], binItem));
+        }
+    }
+
+    private boolean insertBin(ByteBuffer keywordHash, TIntObjectMap<HashBinEntry<ByteBuffer>> touchedBins) {
+        // same eviction strategy as the no-stash cuckoo hash bin: the evicted item moves to its next hash function
+        ByteBuffer item = keywordHash;
+        int hashIndex = 0;
+        for (int tries = 0; tries < MAX_TOTAL_TRIES; tries++) {
+            int binIndex = prfs[hashIndex].getInteger(item.array(), binNum);
+            touchBin(binIndex, touchedBins);
+            ByteBuffer evictItem = binItems[binIndex];
+            int evictHashIndex = binHashIndexes[binIndex];
+            binItems[binIndex] = item;
+            binHashIndexes[binIndex] = hashIndex;
+            if (evictItem == null) {
+                return true;
+            }
+            item = evictItem;
+            hashIndex = (evictHashIndex + 1) % hashNum;
+        }
+        return false;
+    }
 }
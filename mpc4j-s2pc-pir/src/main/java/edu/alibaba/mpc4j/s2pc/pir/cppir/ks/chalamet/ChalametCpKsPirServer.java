@@ -3,7 +3,7 @@ package edu.alibaba.mpc4j.s2pc.pir.cppir.ks.chalamet;
 import com.google.common.primitives.Bytes;
 import edu.alibaba.mpc4j.common.rpc.*;
 import edu.alibaba.mpc4j.common.structure.fusefilter.Arity3ByteFuseFilter;
-import edu.alibaba.mpc4j.common.structure.matrix.IntMatrix;
+import edu.alibaba.mpc4j.common.structure.matrix.DenseIntMatrix;
 import edu.alibaba.mpc4j.common.structure.vector.IntVector;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.HashFactory;
@@ -29,9 +29,9 @@ import static edu.alibaba.mpc4j.s2pc.pir.cppir.ks.chalamet.ChalametCpKsPirDesc.*
  */
 public class ChalametCpKsPirServer<T> extends AbstractCpKsPirServer<T> implements HintCpKsPirServer<T> {
     /**
-     * database
+     * transposed database, so that answering is computing inner products of rows
      */
-    private IntMatrix db;
+    private DenseIntMatrix tdb;
     /**
      * filter length
      */
@@ -70,12 +70,13 @@ public class ChalametCpKsPirServer<T> extends AbstractCpKsPirServer<T> implement
         byte[] matrixSeed = BlockUtils.randomBlock(secureRandom);
         sendOtherPartyPayload(PtoStep.SERVER_SEND_SEED.ordinal(), Collections.singletonList(matrixSeed));
         filterLength = fuseFilter.filterLength();
-        db = IntMatrix.createZeros(filterLength, byteL + DIGEST_BYTE_L);
+        tdb = DenseIntMatrix.createZeros(byteL + DIGEST_BYTE_L, filterLength);
+        tdb.setParallel(parallel);
         for (int i = 0; i < fuseFilter.storage().length; i++) {
             byte[] entry = fuseFilter.storage()[i];
             assert entry.length == byteL + DIGEST_BYTE_L;
             for (int j = 0; j < byteL + DIGEST_BYTE_L; j++) {
-                db.set(i, j, entry[j] & 0xFF);
+                tdb.set(j, i, entry[j] & 0xFF);
             }
         }
         // server runs M ← A · D, recall that A ∈ Z_q^{n×m}
@@ -87,16 +88,8 @@ public class ChalametCpKsPirServer<T> extends AbstractCpKsPirServer<T> implement
                 for (int j = 0; j < filterLength; j++) {
                     rowEntry[j] = intHash.hash(matrixSeed, i * filterLength + j);
                 }
-                IntVector row = IntVector.create(rowEntry);
-                IntVector col = IntVector.createZeros(db.getColumns());
-                for (int j = 0; j < db.getColumns(); j++) {
-                    int[] entry = new int[filterLength];
-                    for (int k = 0; k < filterLength; k++) {
-                        entry[k] = db.get(k, j);
-                    }
-                    col.setElement(j, row.innerMul(IntVector.create(entry)));
-                }
-                return col.getElements();
+                // the i-th row of M is A_i · D = D^T · A_i
+                return tdb.rightMul(IntVector.create(rowEntry)).getElements();
             })
             .map(IntUtils::intArrayToByteArray)
             .toList();
@@ -115,8 +108,15 @@ public class ChalametCpKsPirServer<T> extends AbstractCpKsPirServer<T> implement
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
+        // the client sends all queries before receiving responses, so that we answer them in one batch
+        IntVector[] qus = new IntVector[batchNum];
         for (int i = 0; i < batchNum; i++) {
-            answer();
+            qus[i] = receiveQuery();
+        }
+        IntVector[] answers = tdb.rightMul(qus);
+        for (IntVector ans : answers) {
+            List<byte[]> responsePayload = Collections.singletonList(IntUtils.intArrayToByteArray(ans.getElements()));
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
         }
         stopWatch.stop();
         long responseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -126,15 +126,12 @@ public class ChalametCpKsPirServer<T> extends AbstractCpKsPirServer<T> implement
         logPhaseInfo(PtoState.PTO_END);
     }
 
-    private void answer() throws MpcAbortException {
+    private IntVector receiveQuery() throws MpcAbortException {
         List<byte[]> clientQueryPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_QUERY.ordinal());
         MpcAbortPreconditions.checkArgument(clientQueryPayload.size() == 1);
         // parse qu
         IntVector qu = IntVector.create(IntUtils.byteArrayToIntArray(clientQueryPayload.get(0)));
         MpcAbortPreconditions.checkArgument(qu.getNum() == filterLength);
-        // generate response
-        IntVector ans = db.leftMul(qu);
-        List<byte[]> responsePayload = Collections.singletonList(IntUtils.intArrayToByteArray(ans.getElements()));
-        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
+        return qu;
     }
 }
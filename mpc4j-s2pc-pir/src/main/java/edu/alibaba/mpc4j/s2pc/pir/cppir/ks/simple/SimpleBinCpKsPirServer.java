@@ -2,7 +2,7 @@ package edu.alibaba.mpc4j.s2pc.pir.cppir.ks.simple;
 
 import com.google.common.primitives.Bytes;
 import edu.alibaba.mpc4j.common.rpc.*;
-import edu.alibaba.mpc4j.common.structure.matrix.IntMatrix;
+import edu.alibaba.mpc4j.common.structure.matrix.DenseIntMatrix;
 import edu.alibaba.mpc4j.common.structure.vector.IntVector;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.HashFactory;
@@ -36,9 +36,9 @@ public class SimpleBinCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
      */
     private final int dimension;
     /**
-     * transpose database database
+     * database
      */
-    private IntMatrix[] tdbs;
+    private DenseIntMatrix[] dbs;
     /**
      * rows
      */
@@ -96,9 +96,13 @@ public class SimpleBinCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
         // create database
         byte[] bot = new byte[partition];
         Arrays.fill(bot, (byte) 0xFF);
-        IntMatrix[] dbs = IntStream.range(0, partition)
-            .mapToObj(p -> IntMatrix.createZeros(rows, columns))
-            .toArray(IntMatrix[]::new);
+        dbs = IntStream.range(0, partition)
+            .mapToObj(p -> {
+                DenseIntMatrix db = DenseIntMatrix.createZeros(rows, columns);
+                db.setParallel(parallel);
+                return db;
+            })
+            .toArray(DenseIntMatrix[]::new);
         for (int i = 0; i < columns; i++) {
             Set<HashBinEntry<T>> binSet = hashBin.getBin(i);
             int j = 0;
@@ -117,17 +121,15 @@ public class SimpleBinCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
             }
         }
         // create hint
-        IntMatrix matrixA = IntMatrix.createRandom(columns, dimension, seed);
-        tdbs = new IntMatrix[partition];
-        IntStream intStream = parallel ? IntStream.range(0, partition).parallel() : IntStream.range(0, partition);
-        IntMatrix[] hint = intStream.mapToObj(p -> dbs[p].mul(matrixA)).toArray(IntMatrix[]::new);
-        // transpose database
+        DenseIntMatrix transposeMatrixA = DenseIntMatrix.createRandom(columns, dimension, seed).transpose();
+        // create hint
         IntStream.range(0, partition).forEach(p -> {
+            // hint = db · A
+            DenseIntMatrix hint = dbs[p].mulTranspose(transposeMatrixA);
             List<byte[]> hintPayload = IntStream.range(0, rows)
-                .mapToObj(rowIndex -> IntUtils.intArrayToByteArray(hint[p].getRow(rowIndex).getElements()))
+                .mapToObj(rowIndex -> IntUtils.intArrayToByteArray(hint.getRow(rowIndex)))
                 .collect(Collectors.toList());
             sendOtherPartyPayload(PtoStep.SERVER_SEND_HINT.ordinal(), hintPayload);
-            tdbs[p] = dbs[p].transpose();
         });
         stopWatch.stop();
         long hintTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -143,8 +145,21 @@ public class SimpleBinCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
+        // the client sends all queries before receiving responses, so that we answer them in one batch
+        IntVector[] qus = new IntVector[batchNum];
+        for (int i = 0; i < batchNum; i++) {
+            qus[i] = receiveQuery();
+        }
+        // each partition is read once for all queries
+        IntVector[][] answers = Arrays.stream(dbs)
+            .map(db -> db.rightMul(qus))
+            .toArray(IntVector[][]::new);
         for (int i = 0; i < batchNum; i++) {
-            answer();
+            int queryIndex = i;
+            List<byte[]> responsePayload = Arrays.stream(answers)
+                .map(partitionAnswers -> IntUtils.intArrayToByteArray(partitionAnswers[queryIndex].getElements()))
+                .toList();
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
         }
         stopWatch.stop();
         long responseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -154,18 +169,12 @@ public class SimpleBinCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
         logPhaseInfo(PtoState.PTO_END);
     }
 
-    private void answer() throws MpcAbortException {
+    private IntVector receiveQuery() throws MpcAbortException {
         List<byte[]> clientQueryPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_QUERY.ordinal());
         MpcAbortPreconditions.checkArgument(clientQueryPayload.size() == 1);
         // parse qu
         IntVector qu = IntVector.create(IntUtils.byteArrayToIntArray(clientQueryPayload.get(0)));
         MpcAbortPreconditions.checkArgument(qu.getNum() == columns);
-        // generate response
-        IntStream pIntStream = parallel ? IntStream.range(0, partition).parallel() : IntStream.range(0, partition);
-        List<byte[]> responsePayload = pIntStream
-            .mapToObj(p -> tdbs[p].leftMul(qu))
-            .map(ans -> IntUtils.intArrayToByteArray(ans.getElements()))
-            .toList();
-        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
+        return qu;
     }
 }
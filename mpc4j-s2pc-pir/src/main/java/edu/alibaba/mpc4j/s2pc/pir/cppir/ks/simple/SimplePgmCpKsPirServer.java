@@ -3,7 +3,7 @@ package edu.alibaba.mpc4j.s2pc.pir.cppir.ks.simple;
 import com.carrotsearch.hppc.LongArrayList;
 import com.google.common.primitives.Bytes;
 import edu.alibaba.mpc4j.common.rpc.*;
-import edu.alibaba.mpc4j.common.structure.matrix.IntMatrix;
+import edu.alibaba.mpc4j.common.structure.matrix.DenseIntMatrix;
 import edu.alibaba.mpc4j.common.structure.pgm.LongApproxPgmIndex;
 import edu.alibaba.mpc4j.common.structure.vector.IntVector;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
@@ -33,9 +33,9 @@ public class SimplePgmCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
      */
     private final int dimension;
     /**
-     * transpose database database
+     * database
      */
-    private IntMatrix[] tdbs;
+    private DenseIntMatrix[] dbs;
     /**
      * rows
      */
@@ -102,7 +102,7 @@ public class SimplePgmCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
         partition = sizes[2];
         sendOtherPartyPayload(PtoStep.SERVER_SEND_PGM_INFO.ordinal(), Collections.singletonList(pgmIndex.toByteArray()));
         // create database
-        IntMatrix[] dbs = genDbs(keyValueConcatMap, idxKeyMap, keys);
+        dbs = genDbs(keyValueConcatMap, idxKeyMap, keys);
         stopWatch.stop();
         long pgmIdxTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -113,18 +113,15 @@ public class SimplePgmCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
         byte[] seed = BlockUtils.randomBlock(secureRandom);
         List<byte[]> seedPayload = Collections.singletonList(seed);
         sendOtherPartyPayload(PtoStep.SERVER_SEND_SEED.ordinal(), seedPayload);
-        IntMatrix matrixA = IntMatrix.createRandom(columns, dimension, seed);
+        DenseIntMatrix transposeMatrixA = DenseIntMatrix.createRandom(columns, dimension, seed).transpose();
         // create hint
-        tdbs = new IntMatrix[partition];
-        IntStream intStream = parallel ? IntStream.range(0, partition).parallel() : IntStream.range(0, partition);
-        IntMatrix[] hint = intStream.mapToObj(p -> dbs[p].mul(matrixA)).toArray(IntMatrix[]::new);
-        // transpose database
         IntStream.range(0, partition).forEach(p -> {
+            // hint = db · A
+            DenseIntMatrix hint = dbs[p].mulTranspose(transposeMatrixA);
             List<byte[]> hintPayload = IntStream.range(0, rows)
-                .mapToObj(rowIndex -> IntUtils.intArrayToByteArray(hint[p].getRow(rowIndex).getElements()))
+                .mapToObj(rowIndex -> IntUtils.intArrayToByteArray(hint.getRow(rowIndex)))
                 .collect(Collectors.toList());
             sendOtherPartyPayload(PtoStep.SERVER_SEND_HINT.ordinal(), hintPayload);
-            tdbs[p] = dbs[p].transpose();
         });
         stopWatch.stop();
         long hintTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -140,8 +137,21 @@ public class SimplePgmCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
+        // the client sends all queries before receiving responses, so that we answer them in one batch
+        IntVector[] qus = new IntVector[batchNum];
         for (int i = 0; i < batchNum; i++) {
-            answer();
+            qus[i] = receiveQuery();
+        }
+        // each partition is read once for all queries
+        IntVector[][] answers = Arrays.stream(dbs)
+            .map(db -> db.rightMul(qus))
+            .toArray(IntVector[][]::new);
+        for (int i = 0; i < batchNum; i++) {
+            int queryIndex = i;
+            List<byte[]> responsePayload = Arrays.stream(answers)
+                .map(partitionAnswers -> IntUtils.intArrayToByteArray(partitionAnswers[queryIndex].getElements()))
+                .toList();
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
         }
         stopWatch.stop();
         long responseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -151,27 +161,25 @@ public class SimplePgmCpKsPirServer<T> extends AbstractCpKsPirServer<T> implemen
         logPhaseInfo(PtoState.PTO_END);
     }
 
-    private void answer() throws MpcAbortException {
+    private IntVector receiveQuery() throws MpcAbortException {
         List<byte[]> clientQueryPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_QUERY.ordinal());
         MpcAbortPreconditions.checkArgument(clientQueryPayload.size() == 1);
         // parse qu
         IntVector qu = IntVector.create(IntUtils.byteArrayToIntArray(clientQueryPayload.get(0)));
         MpcAbortPreconditions.checkArgument(qu.getNum() == columns);
-        // generate response
-        IntStream pIntStream = parallel ? IntStream.range(0, partition).parallel() : IntStream.range(0, partition);
-        List<byte[]> responsePayload = pIntStream
-            .mapToObj(p -> tdbs[p].leftMul(qu))
-            .map(ans -> IntUtils.intArrayToByteArray(ans.getElements()))
-            .toList();
-        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), responsePayload);
+        return qu;
     }
 
-    private IntMatrix[] genDbs(Map<T, byte[]> keyValueConcatMap, Map<Long, T> idxKeyMap, long[] keys) {
+    private DenseIntMatrix[] genDbs(Map<T, byte[]> keyValueConcatMap, Map<Long, T> idxKeyMap, long[] keys) {
         byte[] bot = new byte[partition];
         Arrays.fill(bot, (byte) 0xFF);
-        IntMatrix[] dbs = IntStream.range(0, partition)
-            .mapToObj(p -> IntMatrix.createZeros(rows, columns))
-            .toArray(IntMatrix[]::new);
+        DenseIntMatrix[] dbs = IntStream.range(0, partition)
+            .mapToObj(p -> {
+                DenseIntMatrix db = DenseIntMatrix.createZeros(rows, columns);
+                db.setParallel(parallel);
+                return db;
+            })
+            .toArray(DenseIntMatrix[]::new);
         for (int i = 0; i < n; i++) {
             T key = idxKeyMap.get(keys[i]);
             byte[] element = keyValueConcatMap.get(key);
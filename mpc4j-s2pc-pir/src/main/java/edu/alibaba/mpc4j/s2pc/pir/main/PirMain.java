@@ -6,6 +6,7 @@ import edu.alibaba.mpc4j.s2pc.pir.main.cppir.index.CpIdxPirMain;
 import edu.alibaba.mpc4j.s2pc.pir.main.cppir.keyword.SingleCpKsPirMain;
 import edu.alibaba.mpc4j.s2pc.pir.main.kspir.SingleKsPirMain;
 import edu.alibaba.mpc4j.s2pc.pir.main.kwpir.StdKwPirMain;
+import edu.alibaba.mpc4j.s2pc.pir.main.stdpir.index.StdIdxPirMain;
 
 import java.util.Properties;
 
@@ -31,6 +32,10 @@ public class PirMain {
                 CpIdxPirMain cpIdxPirMain = new CpIdxPirMain(properties, ownName);
                 cpIdxPirMain.runNetty();
                 break;
+            case StdIdxPirMain.PTO_TYPE_NAME:
+                StdIdxPirMain stdIdxPirMain = new StdIdxPirMain(properties, ownName);
+                stdIdxPirMain.runNetty();
+                break;
             case SingleCpKsPirMain.PTO_TYPE_NAME:
                 SingleCpKsPirMain singleCpKsPirMain = new SingleCpKsPirMain(properties, ownName);
                 singleCpKsPirMain.runNetty();
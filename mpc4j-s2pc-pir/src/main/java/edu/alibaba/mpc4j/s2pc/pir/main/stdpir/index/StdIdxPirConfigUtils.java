@@ -0,0 +1,108 @@
+package edu.alibaba.mpc4j.s2pc.pir.main.stdpir.index;
+
+import com.google.common.base.Preconditions;
+import edu.alibaba.mpc4j.common.rpc.main.MainPtoConfigUtils;
+import edu.alibaba.mpc4j.common.tool.utils.PropertiesUtils;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.PbcableStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirFactory.StdIdxPirType;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.cw.CwStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.fast.FastStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.mul.MulStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.onion.OnionStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.vectorized.VectorizedStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.xpir.XpirStdIdxPirConfig;
+
+import java.util.Properties;
+
+/**
+ * standard index PIR config utilities.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+class StdIdxPirConfigUtils {
+    /**
+     * bucket PIR name used in PBC, see StdIdxPirType
+     */
+    private static final String PBC_PTO_NAME_KEY = "pbc_std_idx_pir_pto_name";
+    /**
+     * measured fixed cost of answering a PBC bucket
+     */
+    private static final String PBC_BUCKET_COST_KEY = "pbc_bucket_cost";
+    /**
+     * measured cost of answering an entry in a PBC bucket
+     */
+    private static final String PBC_ENTRY_COST_KEY = "pbc_entry_cost";
+    /**
+     * private constructor.
+     */
+    private StdIdxPirConfigUtils() {
+        // empty
+    }
+
+    /**
+     * create config.
+     *
+     * @param properties properties.
+     * @return config.
+     */
+    public static StdIdxPirConfig createConfig(Properties properties) {
+        StdIdxPirType stdIdxPirType = MainPtoConfigUtils.readEnum(StdIdxPirType.class, properties, StdIdxPirMain.PTO_NAME_KEY);
+        return createConfig(stdIdxPirType, properties);
+    }
+
+    private static StdIdxPirConfig createConfig(StdIdxPirType stdIdxPirType, Properties properties) {
+        switch (stdIdxPirType) {
+            case XPIR -> {
+                return new XpirStdIdxPirConfig.Builder().build();
+            }
+            case SEAL -> {
+                return new SealStdIdxPirConfig.Builder().build();
+            }
+            case SEAL_JAVA -> {
+                return new SealJavaStdIdxPirConfig.Builder().build();
+            }
+            case ONION -> {
+                return new OnionStdIdxPirConfig.Builder().build();
+            }
+            case FAST -> {
+                return new FastStdIdxPirConfig.Builder().build();
+            }
+            case VECTOR -> {
+                return new VectorizedStdIdxPirConfig.Builder().build();
+            }
+            case MUL -> {
+                return new MulStdIdxPirConfig.Builder().build();
+            }
+            case CW -> {
+                return new CwStdIdxPirConfig.Builder().build();
+            }
+            case PBC -> {
+                return createPbcConfig(properties);
+            }
+            default -> throw new IllegalArgumentException("Invalid " + StdIdxPirType.class.getSimpleName() + ": " + stdIdxPirType.name());
+        }
+    }
+
+    private static PbcStdIdxPirConfig createPbcConfig(Properties properties) {
+        PbcStdIdxPirConfig.Builder builder = new PbcStdIdxPirConfig.Builder();
+        if (PropertiesUtils.containsKeyword(properties, PBC_PTO_NAME_KEY)) {
+            StdIdxPirType bucketType = MainPtoConfigUtils.readEnum(StdIdxPirType.class, properties, PBC_PTO_NAME_KEY);
+            StdIdxPirConfig bucketConfig = createConfig(bucketType, properties);
+            Preconditions.checkArgument(
+                bucketConfig instanceof PbcableStdIdxPirConfig,
+                "%s does not support PBC: %s", StdIdxPirType.class.getSimpleName(), bucketType.name()
+            );
+            builder.setPbcStdIdxPirConfig((PbcableStdIdxPirConfig) bucketConfig);
+        }
+        double bucketCost = PropertiesUtils.readDouble(properties, PBC_BUCKET_COST_KEY, 0);
+        if (bucketCost > 0) {
+            builder.setBucketCost(bucketCost, PropertiesUtils.readDouble(properties, PBC_ENTRY_COST_KEY, 0));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,341 @@
+package edu.alibaba.mpc4j.s2pc.pir.main.stdpir.index;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.main.AbstractMainTwoPartyPto;
+import edu.alibaba.mpc4j.common.rpc.main.MainPtoConfigUtils;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
+import edu.alibaba.mpc4j.common.tool.utils.PropertiesUtils;
+import edu.alibaba.mpc4j.s2pc.pir.PirUtils;
+import edu.alibaba.mpc4j.s2pc.pir.IdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.IdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirFactory;
+import org.bouncycastle.util.encoders.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * standard index PIR main. All queries in a run are answered in one batch. Running the same config with different
+ * protocol names, e.g., SEAL and SEAL_JAVA, compares the native and the Java implementations.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+public class StdIdxPirMain extends AbstractMainTwoPartyPto {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StdIdxPirMain.class);
+    /**
+     * protocol name
+     */
+    public static final String PTO_NAME_KEY = "std_idx_pir_pto_name";
+    /**
+     * type name
+     */
+    public static final String PTO_TYPE_NAME = "STD_IDX_PIR";
+    /**
+     * warmup entry bit length
+     */
+    private static final int WARMUP_ELEMENT_BIT_LENGTH = 16;
+    /**
+     * warmup server set size
+     */
+    private static final int WARMUP_SERVER_SET_SIZE = 1 << 10;
+    /**
+     * warmup query num
+     */
+    private static final int WARMUP_QUERY_NUM = 1 << 5;
+    /**
+     * entry bit length
+     */
+    private final int entryBitLength;
+    /**
+     * parallel
+     */
+    private final boolean parallel;
+    /**
+     * server set sizes
+     */
+    private final int[] serverSetSizes;
+    /**
+     * server set size num
+     */
+    private final int serverSetSizeNum;
+    /**
+     * query num
+     */
+    private final int queryNum;
+    /**
+     * config
+     */
+    private final StdIdxPirConfig config;
+
+    public StdIdxPirMain(Properties properties, String ownName) {
+        super(properties, ownName);
+        // read common config
+        LOGGER.info("{} read common config", ownRpc.ownParty().getPartyName());
+        entryBitLength = PropertiesUtils.readInt(properties, "entry_bit_length");
+        parallel = PropertiesUtils.readBoolean(properties, "parallel");
+        int[] serverLogSetSizes = PropertiesUtils.readLogIntArray(properties, "server_log_set_size");
+        serverSetSizes = Arrays.stream(serverLogSetSizes).map(logSetSize -> 1 << logSetSize).toArray();
+        serverSetSizeNum = serverLogSetSizes.length;
+        queryNum = PropertiesUtils.readInt(properties, "query_num");
+        // read PTO config
+        LOGGER.info("{} read PTO config", ownRpc.ownParty().getPartyName());
+        config = StdIdxPirConfigUtils.createConfig(properties);
+    }
+
+    @Override
+    public void runParty1(Rpc serverRpc, Party clientParty) throws IOException, MpcAbortException {
+        LOGGER.info("{} generate warm-up database file", serverRpc.ownParty().getPartyName());
+        PirUtils.generateBytesInputFiles(WARMUP_SERVER_SET_SIZE, WARMUP_ELEMENT_BIT_LENGTH);
+        LOGGER.info("{} generate database file", serverRpc.ownParty().getPartyName());
+        for (int i = 0; i < serverSetSizeNum; i++) {
+            PirUtils.generateBytesInputFiles(serverSetSizes[i], entryBitLength);
+        }
+        LOGGER.info("{} create result file", serverRpc.ownParty().getPartyName());
+        String filePath = MainPtoConfigUtils.getFileFolderName() + File.separator + PTO_TYPE_NAME
+            + "_" + config.getProType().name()
+            + "_" + appendString
+            + "_" + entryBitLength
+            + "_" + serverRpc.ownParty().getPartyId()
+            + "_" + ForkJoinPool.getCommonPoolParallelism()
+            + ".output";
+        FileWriter fileWriter = new FileWriter(filePath);
+        PrintWriter printWriter = new PrintWriter(fileWriter, true);
+        String tab = "Party ID\tServer Set Size\tQuery Num\tIs Parallel\tThread Num"
+            + "\tInit Time(ms)\tInit DataPacket Num\tInit Payload Bytes(B)\tInit Send Bytes(B)"
+            + "\tPto  Time(ms)\tPto  DataPacket Num\tPto  Payload Bytes(B)\tPto  Send Bytes(B)";
+        printWriter.println(tab);
+        LOGGER.info("{} ready for run", serverRpc.ownParty().getPartyName());
+        serverRpc.connect();
+        int taskId = 0;
+        warmupServer(serverRpc, clientParty, config, taskId);
+        taskId++;
+        for (int i = 0; i < serverSetSizeNum; i++) {
+            int serverSetSize = serverSetSizes[i];
+            NaiveDatabase database = readServerDatabase(serverSetSize, entryBitLength);
+            runServer(serverRpc, clientParty, config, taskId, parallel, database, queryNum, printWriter);
+            taskId++;
+        }
+        serverRpc.disconnect();
+        printWriter.close();
+        fileWriter.close();
+    }
+
+    private NaiveDatabase readServerDatabase(int n, int entryBitLength) throws IOException {
+        LOGGER.info("Server read database");
+        InputStreamReader inputStreamReader = new InputStreamReader(
+            new FileInputStream(PirUtils.getServerFileName(PirUtils.BYTES_SERVER_PREFIX, n, entryBitLength)),
+            CommonConstants.DEFAULT_CHARSET
+        );
+        BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
+        byte[][] entries = bufferedReader.lines()
+            .map(Hex::decode)
+            .toArray(byte[][]::new);
+        bufferedReader.close();
+        inputStreamReader.close();
+        return NaiveDatabase.create(entryBitLength, entries);
+    }
+
+    private void warmupServer(Rpc serverRpc, Party clientParty, StdIdxPirConfig config, int taskId)
+        throws IOException, MpcAbortException {
+        NaiveDatabase database = readServerDatabase(WARMUP_SERVER_SET_SIZE, WARMUP_ELEMENT_BIT_LENGTH);
+        LOGGER.info(
+            "{}: serverSetSize = {}, entryBitLength = {}, queryNum = {}, parallel = {}",
+            serverRpc.ownParty().getPartyName(), database.rows(), database.getL(), WARMUP_QUERY_NUM, false
+        );
+        IdxPirServer server = StdIdxPirFactory.createServer(serverRpc, clientParty, config);
+        server.setTaskId(taskId);
+        server.setParallel(false);
+        server.getRpc().synchronize();
+        LOGGER.info("(warmup) {} init", server.ownParty().getPartyName());
+        server.init(database, WARMUP_QUERY_NUM);
+        server.getRpc().synchronize();
+        LOGGER.info("(warmup) {} execute", server.ownParty().getPartyName());
+        server.pir(WARMUP_QUERY_NUM);
+        server.getRpc().synchronize();
+        server.getRpc().reset();
+        server.destroy();
+        LOGGER.info("(warmup) {} finish", server.ownParty().getPartyName());
+    }
+
+    private void runServer(Rpc serverRpc, Party clientParty, StdIdxPirConfig config, int taskId,
+                           boolean parallel, NaiveDatabase database, int queryNum, PrintWriter printWriter)
+        throws MpcAbortException {
+        LOGGER.info(
+            "{}: serverSetSize = {}, entryBitLength = {}, queryNum = {}, parallel = {}",
+            serverRpc.ownParty().getPartyName(), database.rows(), database.getL(), queryNum, parallel
+        );
+        IdxPirServer server = StdIdxPirFactory.createServer(serverRpc, clientParty, config);
+        server.setTaskId(taskId);
+        server.setParallel(parallel);
+        server.getRpc().synchronize();
+        server.getRpc().reset();
+        LOGGER.info("{} init", server.ownParty().getPartyName());
+        stopWatch.start();
+        server.init(database, queryNum);
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        long initDataPacketNum = server.getRpc().getSendDataPacketNum();
+        long initPayloadByteLength = server.getRpc().getPayloadByteLength();
+        long initSendByteLength = server.getRpc().getSendByteLength();
+        server.getRpc().synchronize();
+        server.getRpc().reset();
+        LOGGER.info("{} execute", server.ownParty().getPartyName());
+        stopWatch.start();
+        server.pir(queryNum);
+        stopWatch.stop();
+        long ptoTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        long ptoDataPacketNum = server.getRpc().getSendDataPacketNum();
+        long ptoPayloadByteLength = server.getRpc().getPayloadByteLength();
+        long ptoSendByteLength = server.getRpc().getSendByteLength();
+        String info = server.ownParty().getPartyId()
+            + "\t" + database.rows()
+            + "\t" + queryNum
+            + "\t" + server.getParallel()
+            + "\t" + ForkJoinPool.getCommonPoolParallelism()
+            + "\t" + initTime + "\t" + initDataPacketNum + "\t" + initPayloadByteLength + "\t" + initSendByteLength
+            + "\t" + ptoTime + "\t" + ptoDataPacketNum + "\t" + ptoPayloadByteLength + "\t" + ptoSendByteLength;
+        printWriter.println(info);
+        server.getRpc().synchronize();
+        server.getRpc().reset();
+        server.destroy();
+        LOGGER.info("{} finish", server.ownParty().getPartyName());
+    }
+
+    @Override
+    public void runParty2(Rpc clientRpc, Party serverParty) throws IOException, MpcAbortException {
+        LOGGER.info("{} generate warm-up index file", clientRpc.ownParty().getPartyName());
+        PirUtils.generateIndexInputFiles(WARMUP_SERVER_SET_SIZE, WARMUP_QUERY_NUM);
+        LOGGER.info("{} generate index file", clientRpc.ownParty().getPartyName());
+        for (int setSizeIndex = 0; setSizeIndex < serverSetSizeNum; setSizeIndex++) {
+            PirUtils.generateIndexInputFiles(serverSetSizes[setSizeIndex], queryNum);
+        }
+        LOGGER.info("{} create result file", clientRpc.ownParty().getPartyName());
+        String filePath = MainPtoConfigUtils.getFileFolderName() + File.separator + PTO_TYPE_NAME
+            + "_" + config.getProType().name()
+            + "_" + appendString
+            + "_" + entryBitLength
+            + "_" + clientRpc.ownParty().getPartyId()
+            + "_" + ForkJoinPool.getCommonPoolParallelism()
+            + ".output";
+        FileWriter fileWriter = new FileWriter(filePath);
+        PrintWriter printWriter = new PrintWriter(fileWriter, true);
+        String tab = "Party ID\tServer Set Size\tQuery Num\tIs Parallel\tThread Num"
+            + "\tInit Time(ms)\tInit DataPacket Num\tInit Payload Bytes(B)\tInit Send Bytes(B)"
+            + "\tPto  Time(ms)\tPto  DataPacket Num\tPto  Payload Bytes(B)\tPto  Send Bytes(B)";
+        printWriter.println(tab);
+        LOGGER.info("{} ready for run", clientRpc.ownParty().getPartyName());
+        clientRpc.connect();
+        int taskId = 0;
+        warmupClient(clientRpc, serverParty, config, taskId);
+        taskId++;
+        for (int setSizeIndex = 0; setSizeIndex < serverSetSizeNum; setSizeIndex++) {
+            int serverSetSize = serverSetSizes[setSizeIndex];
+            List<Integer> indexList = readClientRetrievalIndexList(queryNum, serverSetSize);
+            runClient(clientRpc, serverParty, config, taskId, indexList, serverSetSize, entryBitLength, parallel, printWriter);
+            taskId++;
+        }
+        clientRpc.disconnect();
+        printWriter.close();
+        fileWriter.close();
+    }
+
+    private List<Integer> readClientRetrievalIndexList(int retrievalSize, int elementSize) throws IOException {
+        LOGGER.info("Client read retrieval list");
+        InputStreamReader inputStreamReader = new InputStreamReader(
+            new FileInputStream(PirUtils.getClientFileName(PirUtils.BYTES_CLIENT_PREFIX, retrievalSize, elementSize)),
+            CommonConstants.DEFAULT_CHARSET
+        );
+        BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
+        List<Integer> indexList = bufferedReader.lines()
+            .map(Hex::decode)
+            .map(IntUtils::byteArrayToInt)
+            .collect(Collectors.toCollection(ArrayList::new));
+        bufferedReader.close();
+        inputStreamReader.close();
+        return indexList;
+    }
+
+    private void warmupClient(Rpc clientRpc, Party serverParty, StdIdxPirConfig config, int taskId)
+        throws IOException, MpcAbortException {
+        LOGGER.info(
+            "{}: serverSetSize = {}, entryBitLength = {}, queryNum = {}, parallel = {}",
+            clientRpc.ownParty().getPartyName(), WARMUP_SERVER_SET_SIZE, WARMUP_ELEMENT_BIT_LENGTH, WARMUP_QUERY_NUM,
+            false
+        );
+        List<Integer> indexList = readClientRetrievalIndexList(WARMUP_QUERY_NUM, WARMUP_SERVER_SET_SIZE);
+        IdxPirClient client = StdIdxPirFactory.createClient(clientRpc, serverParty, config);
+        client.setTaskId(taskId);
+        client.setParallel(false);
+        client.getRpc().synchronize();
+        LOGGER.info("(warmup) {} init", client.ownParty().getPartyName());
+        client.init(WARMUP_SERVER_SET_SIZE, WARMUP_ELEMENT_BIT_LENGTH, WARMUP_QUERY_NUM);
+        client.getRpc().synchronize();
+        LOGGER.info("(warmup) {} execute", client.ownParty().getPartyName());
+        client.pir(indexList.stream().mapToInt(Integer::intValue).toArray());
+        client.getRpc().synchronize();
+        client.getRpc().reset();
+        client.destroy();
+        LOGGER.info("(warmup) {} finish", client.ownParty().getPartyName());
+    }
+
+    private void runClient(Rpc clientRpc, Party serverParty, StdIdxPirConfig config, int taskId,
+                           List<Integer> indexList, int serverSetSize, int entryBitLength, boolean parallel,
+                           PrintWriter printWriter)
+        throws MpcAbortException {
+        int queryNum = indexList.size();
+        LOGGER.info(
+            "{}: serverSetSize = {}, entryBitLength = {}, queryNum = {}, parallel = {}",
+            clientRpc.ownParty().getPartyName(), serverSetSize, entryBitLength, queryNum, parallel
+        );
+        IdxPirClient client = StdIdxPirFactory.createClient(clientRpc, serverParty, config);
+        client.setTaskId(taskId);
+        client.setParallel(parallel);
+        client.getRpc().synchronize();
+        client.getRpc().reset();
+        LOGGER.info("{} init", client.ownParty().getPartyName());
+        stopWatch.start();
+        client.init(serverSetSize, entryBitLength, queryNum);
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        long initDataPacketNum = client.getRpc().getSendDataPacketNum();
+        long initPayloadByteLength = client.getRpc().getPayloadByteLength();
+        long initSendByteLength = client.getRpc().getSendByteLength();
+        client.getRpc().synchronize();
+        client.getRpc().reset();
+        LOGGER.info("{} execute", client.ownParty().getPartyName());
+        stopWatch.start();
+        client.pir(indexList.stream().mapToInt(Integer::intValue).toArray());
+        stopWatch.stop();
+        long ptoTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        long ptoDataPacketNum = client.getRpc().getSendDataPacketNum();
+        long ptoPayloadByteLength = client.getRpc().getPayloadByteLength();
+        long ptoSendByteLength = client.getRpc().getSendByteLength();
+        String info = client.ownParty().getPartyId()
+            + "\t" + serverSetSize
+            + "\t" + queryNum
+            + "\t" + client.getParallel()
+            + "\t" + ForkJoinPool.getCommonPoolParallelism()
+            + "\t" + initTime + "\t" + initDataPacketNum + "\t" + initPayloadByteLength + "\t" + initSendByteLength
+            + "\t" + ptoTime + "\t" + ptoDataPacketNum + "\t" + ptoPayloadByteLength + "\t" + ptoSendByteLength;
+        printWriter.println(info);
+        client.getRpc().synchronize();
+        client.getRpc().reset();
+        client.destroy();
+        LOGGER.info("{} finish", client.ownParty().getPartyName());
+    }
+}
@@ -0,0 +1,179 @@
+package edu.alibaba.mpc4j.s2pc.pir.runtime;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirServer;
+import org.apache.commons.lang3.time.StopWatch;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index PIR server runtime. The runtime holds one shared database and serves many clients, each in its own session.
+ * A session creates a lightweight server on the shared RPC that references the shared database, so that the database
+ * is encoded only once no matter how many clients are served.
+ * <p>
+ * Sessions are separated by client parties, i.e., the server RPC must contain all client parties, and each client
+ * party can have at most one active session. Each session runs on its own thread. At most maxSessionNum sessions can
+ * be active at the same time, and submitting more sessions is rejected so that the caller can apply its own
+ * back-pressure.
+ * </p>
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+public class IdxPirServerRuntime {
+    /**
+     * shared server RPC
+     */
+    private final Rpc serverRpc;
+    /**
+     * shared database
+     */
+    private final SharedIdxPirDatabase database;
+    /**
+     * server creator
+     */
+    private final SharedIdxPirServerCreator serverCreator;
+    /**
+     * max session num
+     */
+    private final int maxSessionNum;
+    /**
+     * thread pool, one thread per active session
+     */
+    private final ExecutorService executorService;
+    /**
+     * IDs of client parties with active sessions
+     */
+    private final Set<Integer> activeClientIds;
+    /**
+     * parallel computing in sessions
+     */
+    private boolean parallel;
+
+    /**
+     * Creates a runtime.
+     *
+     * @param serverRpc     server RPC, which must contain all client parties.
+     * @param database      shared database.
+     * @param serverCreator server creator.
+     * @param maxSessionNum max number of active sessions.
+     */
+    public IdxPirServerRuntime(Rpc serverRpc, SharedIdxPirDatabase database, SharedIdxPirServerCreator serverCreator,
+                               int maxSessionNum) {
+        MathPreconditions.checkPositive("max_session_num", maxSessionNum);
+        this.serverRpc = serverRpc;
+        this.database = database;
+        this.serverCreator = serverCreator;
+        this.maxSessionNum = maxSessionNum;
+        executorService = Executors.newFixedThreadPool(maxSessionNum);
+        activeClientIds = new HashSet<>();
+        parallel = false;
+    }
+
+    /**
+     * Sets parallel computing in sessions.
+     *
+     * @param parallel parallel computing.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Gets the max number of active sessions.
+     *
+     * @return the max number of active sessions.
+     */
+    public int getMaxSessionNum() {
+        return maxSessionNum;
+    }
+
+    /**
+     * Gets the number of active sessions.
+     *
+     * @return the number of active sessions.
+     */
+    public synchronized int getActiveSessionNum() {
+        return activeClientIds.size();
+    }
+
+    /**
+     * Submits a session. The session initializes a server with the shared database, and then answers roundNum
+     * rounds of batchNum queries.
+     *
+     * @param clientParty client party.
+     * @param batchNum    batch num in each round.
+     * @param roundNum    round num.
+     * @return the future of the session metrics, which fails with the protocol failure if the session aborts.
+     * @throws IllegalStateException if the number of active sessions reaches the limit, or the runtime is shut down.
+     */
+    public synchronized Future<IdxPirSessionMetrics> submit(Party clientParty, int batchNum, int roundNum) {
+        MathPreconditions.checkPositive("batch_num", batchNum);
+        MathPreconditions.checkPositive("round_num", roundNum);
+        if (executorService.isShutdown()) {
+            throw new IllegalStateException("The runtime has been shut down");
+        }
+        if (!serverRpc.getPartySet().contains(clientParty) || clientParty.equals(serverRpc.ownParty())) {
+            throw new IllegalArgumentException("Invalid client party: " + clientParty);
+        }
+        if (activeClientIds.contains(clientParty.getPartyId())) {
+            throw new IllegalArgumentException(clientParty + " already has an active session");
+        }
+        if (activeClientIds.size() >= maxSessionNum) {
+            throw new IllegalStateException("Active session num reaches max_session_num = " + maxSessionNum);
+        }
+        activeClientIds.add(clientParty.getPartyId());
+        return executorService.submit(() -> {
+            try {
+                return runSession(clientParty, batchNum, roundNum);
+            } finally {
+                synchronized (this) {
+                    activeClientIds.remove(clientParty.getPartyId());
+                }
+            }
+        });
+    }
+
+    private IdxPirSessionMetrics runSession(Party clientParty, int batchNum, int roundNum) throws Exception {
+        SessionRpc sessionRpc = new SessionRpc(serverRpc);
+        SharedIdxPirServer server = serverCreator.create(sessionRpc, clientParty);
+        server.setParallel(parallel);
+        StopWatch stopWatch = new StopWatch();
+        try {
+            stopWatch.start();
+            server.init(database, batchNum);
+            stopWatch.stop();
+            long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+
+            stopWatch.start();
+            for (int round = 0; round < roundNum; round++) {
+                server.pir(batchNum);
+            }
+            stopWatch.stop();
+            long ptoTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            return new IdxPirSessionMetrics(
+                clientParty, batchNum, roundNum, initTime, ptoTime,
+                sessionRpc.getSendByteLength(), sessionRpc.getSendDataPacketNum(), sessionRpc.getReceivePayloadByteLength()
+            );
+        } finally {
+            server.destroy();
+        }
+    }
+
+    /**
+     * Shuts down the runtime. Active sessions run to completion, and no new sessions are accepted.
+     */
+    public void shutdown() {
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,97 @@
+package edu.alibaba.mpc4j.s2pc.pir.runtime;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+
+/**
+ * Metrics of an index PIR server session.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+public class IdxPirSessionMetrics {
+    /**
+     * client party
+     */
+    private final Party clientParty;
+    /**
+     * batch num in each round
+     */
+    private final int batchNum;
+    /**
+     * round num
+     */
+    private final int roundNum;
+    /**
+     * init time in milliseconds
+     */
+    private final long initTime;
+    /**
+     * PIR time in milliseconds, summed over all rounds
+     */
+    private final long ptoTime;
+    /**
+     * send payload byte length
+     */
+    private final long sendByteLength;
+    /**
+     * send data packet num
+     */
+    private final long sendDataPacketNum;
+    /**
+     * receive payload byte length
+     */
+    private final long receiveByteLength;
+
+    IdxPirSessionMetrics(Party clientParty, int batchNum, int roundNum, long initTime, long ptoTime,
+                         long sendByteLength, long sendDataPacketNum, long receiveByteLength) {
+        this.clientParty = clientParty;
+        this.batchNum = batchNum;
+        this.roundNum = roundNum;
+        this.initTime = initTime;
+        this.ptoTime = ptoTime;
+        this.sendByteLength = sendByteLength;
+        this.sendDataPacketNum = sendDataPacketNum;
+        this.receiveByteLength = receiveByteLength;
+    }
+
+    public Party getClientParty() {
+        return clientParty;
+    }
+
+    public int getBatchNum() {
+        return batchNum;
+    }
+
+    public int getRoundNum() {
+        return roundNum;
+    }
+
+    public long getInitTime() {
+        return initTime;
+    }
+
+    public long getPtoTime() {
+        return ptoTime;
+    }
+
+    public long getSendByteLength() {
+        return sendByteLength;
+    }
+
+    public long getSendDataPacketNum() {
+        return sendDataPacketNum;
+    }
+
+    public long getReceiveByteLength() {
+        return receiveByteLength;
+    }
+
+    @Override
+    public String toString() {
+        return clientParty.getPartyName()
+            + ": batch_num = " + batchNum + ", round_num = " + roundNum
+            + ", init_time = " + initTime + "ms, pto_time = " + ptoTime + "ms"
+            + ", send = " + sendByteLength + "B (" + sendDataPacketNum + " packets)"
+            + ", receive = " + receiveByteLength + "B";
+    }
+}
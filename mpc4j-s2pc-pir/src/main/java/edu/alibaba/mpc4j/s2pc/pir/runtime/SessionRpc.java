@@ -0,0 +1,126 @@
+package edu.alibaba.mpc4j.s2pc.pir.runtime;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
+
+import java.util.Set;
+
+/**
+ * RPC of a server session. All sessions share the RPC of the server and are separated by client parties, while each
+ * session counts its own communication. Connection management and synchronization affect all sessions, so that they
+ * are not supported in a session.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+class SessionRpc implements Rpc {
+    /**
+     * shared server RPC
+     */
+    private final Rpc rpc;
+    /**
+     * send payload byte length
+     */
+    private long payloadByteLength;
+    /**
+     * send data packet num
+     */
+    private long dataPacketNum;
+    /**
+     * receive payload byte length
+     */
+    private long receivePayloadByteLength;
+
+    SessionRpc(Rpc rpc) {
+        this.rpc = rpc;
+    }
+
+    @Override
+    public Party ownParty() {
+        return rpc.ownParty();
+    }
+
+    @Override
+    public Set<Party> getPartySet() {
+        return rpc.getPartySet();
+    }
+
+    @Override
+    public Party getParty(int partyId) {
+        return rpc.getParty(partyId);
+    }
+
+    @Override
+    public void connect() {
+        throw new UnsupportedOperationException("A session cannot connect the shared RPC");
+    }
+
+    @Override
+    public void send(DataPacket dataPacket) {
+        payloadByteLength += dataPacket.getPayload().stream().mapToLong(data -> data.length).sum();
+        dataPacketNum++;
+        rpc.send(dataPacket);
+    }
+
+    @Override
+    public DataPacket receive(DataPacketHeader header) {
+        DataPacket dataPacket = rpc.receive(header);
+        if (dataPacket != null) {
+            receivePayloadByteLength += dataPacket.getPayload().stream().mapToLong(data -> data.length).sum();
+        }
+        return dataPacket;
+    }
+
+    @Override
+    public DataPacket receiveAny(int ptoId) {
+        throw new UnsupportedOperationException("A session cannot receive packets of other sessions");
+    }
+
+    @Override
+    public long getPayloadByteLength() {
+        return payloadByteLength;
+    }
+
+    /**
+     * Gets the payload byte length of the session, i.e., packet headers are not counted.
+     *
+     * @return the payload byte length.
+     */
+    @Override
+    public long getSendByteLength() {
+        return payloadByteLength;
+    }
+
+    @Override
+    public long getSendDataPacketNum() {
+        return dataPacketNum;
+    }
+
+    /**
+     * Gets the received payload byte length of the session.
+     *
+     * @return the received payload byte length.
+     */
+    long getReceivePayloadByteLength() {
+        return receivePayloadByteLength;
+    }
+
+    @Override
+    public void synchronize() {
+        throw new UnsupportedOperationException("A session cannot synchronize the shared RPC");
+    }
+
+    @Override
+    public void reset() {
+        payloadByteLength = 0;
+        dataPacketNum = 0;
+        receivePayloadByteLength = 0;
+    }
+
+    @Override
+    public void disconnect() {
+        throw new UnsupportedOperationException("A session cannot disconnect the shared RPC");
+    }
+}
@@ -0,0 +1,24 @@
+package edu.alibaba.mpc4j.s2pc.pir.runtime;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirServer;
+
+/**
+ * Creator of index PIR servers of sessions, e.g., {@code (rpc, party) -> CpIdxPirFactory.createSharedServer(rpc,
+ * party, config)}.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+@FunctionalInterface
+public interface SharedIdxPirServerCreator {
+    /**
+     * Creates a server for a session.
+     *
+     * @param serverRpc   server RPC of the session.
+     * @param clientParty client party.
+     * @return a server.
+     */
+    SharedIdxPirServer create(Rpc serverRpc, Party clientParty);
+}
@@ -3,8 +3,11 @@ package edu.alibaba.mpc4j.s2pc.pir.stdpir.index;
 import edu.alibaba.mpc4j.common.rpc.Party;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
 import edu.alibaba.mpc4j.common.rpc.pto.PtoFactory;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
 import edu.alibaba.mpc4j.s2pc.pir.IdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.IdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirServer;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.cw.CwStdIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.cw.CwStdIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.cw.CwStdIdxPirServer;
@@ -20,8 +23,13 @@ import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.onion.OnionStdIdxPirServer;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirDatabase;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirServer;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealStdIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealStdIdxPirDatabase;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealStdIdxPirServer;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.vectorized.VectorizedStdIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.vectorized.VectorizedStdIdxPirConfig;
@@ -56,6 +64,10 @@ public class StdIdxPirFactory implements PtoFactory {
          * Seal PIR
          */
         SEAL,
+        /**
+         * Seal PIR based on the Java port of SEAL
+         */
+        SEAL_JAVA,
         /**
          * Onion PIR
          */
@@ -99,6 +111,9 @@ public class StdIdxPirFactory implements PtoFactory {
             case SEAL -> {
                 return new SealStdIdxPirServer(serverRpc, clientParty, (SealStdIdxPirConfig) config);
             }
+            case SEAL_JAVA -> {
+                return new SealJavaStdIdxPirServer(serverRpc, clientParty, (SealJavaStdIdxPirConfig) config);
+            }
             case MUL -> {
                 return new MulStdIdxPirServer(serverRpc, clientParty, (MulStdIdxPirConfig) config);
             }
@@ -123,6 +138,55 @@ public class StdIdxPirFactory implements PtoFactory {
         }
     }
 
+    /**
+     * create a shared database, which is encoded once and used by servers of all clients.
+     *
+     * @param config   config.
+     * @param database database.
+     * @param parallel parallel encoding.
+     * @return a shared database.
+     */
+    public static SharedIdxPirDatabase createSharedDatabase(StdIdxPirConfig config, NaiveDatabase database,
+                                                            boolean parallel) {
+        StdIdxPirType type = config.getProType();
+        switch (type) {
+            case SEAL -> {
+                return SealStdIdxPirDatabase.create(((SealStdIdxPirConfig) config).getStdIdxPirParams(), database, parallel);
+            }
+            case SEAL_JAVA -> {
+                return SealJavaStdIdxPirDatabase.create(
+                    ((SealJavaStdIdxPirConfig) config).getStdIdxPirParams(), database, parallel
+                );
+            }
+            default -> throw new IllegalArgumentException(
+                "Invalid " + StdIdxPirType.class.getSimpleName() + ": " + type.name()
+            );
+        }
+    }
+
+    /**
+     * create a server that can be initialized with a shared database.
+     *
+     * @param serverRpc   server rpc.
+     * @param clientParty client party.
+     * @param config      config.
+     * @return a server.
+     */
+    public static SharedIdxPirServer createSharedServer(Rpc serverRpc, Party clientParty, StdIdxPirConfig config) {
+        StdIdxPirType type = config.getProType();
+        switch (type) {
+            case SEAL -> {
+                return new SealStdIdxPirServer(serverRpc, clientParty, (SealStdIdxPirConfig) config);
+            }
+            case SEAL_JAVA -> {
+                return new SealJavaStdIdxPirServer(serverRpc, clientParty, (SealJavaStdIdxPirConfig) config);
+            }
+            default -> throw new IllegalArgumentException(
+                "Invalid " + StdIdxPirType.class.getSimpleName() + ": " + type.name()
+            );
+        }
+    }
+
     /**
      * create single index PIR client.
      *
@@ -140,6 +204,9 @@ public class StdIdxPirFactory implements PtoFactory {
             case SEAL -> {
                 return new SealStdIdxPirClient(clientRpc, serverParty, (SealStdIdxPirConfig) config);
             }
+            case SEAL_JAVA -> {
+                return new SealJavaStdIdxPirClient(clientRpc, serverParty, (SealJavaStdIdxPirConfig) config);
+            }
             case MUL -> {
                 return new MulStdIdxPirClient(clientRpc, serverParty, (MulStdIdxPirConfig) config);
             }
@@ -181,6 +248,9 @@ public class StdIdxPirFactory implements PtoFactory {
             case SEAL -> {
                 return new SealStdIdxPirServer(serverRpc, clientParty, (SealStdIdxPirConfig) config);
             }
+            case SEAL_JAVA -> {
+                return new SealJavaStdIdxPirServer(serverRpc, clientParty, (SealJavaStdIdxPirConfig) config);
+            }
             case MUL -> {
                 return new MulStdIdxPirServer(serverRpc, clientParty, (MulStdIdxPirConfig) config);
             }
@@ -216,6 +286,9 @@ public class StdIdxPirFactory implements PtoFactory {
             case SEAL -> {
                 return new SealStdIdxPirClient(clientRpc, serverParty, (SealStdIdxPirConfig) config);
             }
+            case SEAL_JAVA -> {
+                return new SealJavaStdIdxPirClient(clientRpc, serverParty, (SealJavaStdIdxPirConfig) config);
+            }
             case MUL -> {
                 return new MulStdIdxPirClient(clientRpc, serverParty, (MulStdIdxPirConfig) config);
             }
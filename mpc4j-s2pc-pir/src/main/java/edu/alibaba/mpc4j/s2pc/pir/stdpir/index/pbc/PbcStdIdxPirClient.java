@@ -25,16 +25,21 @@ import static edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirPtoDesc.Pt
 import static edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirPtoDesc.getInstance;
 
 /**
- * cuckoo hash batch Index PIR client.
+ * cuckoo hash batch Index PIR client. Buckets are independent, so that they are initialized and decoded in parallel if
+ * parallel computing is enabled.
  *
  * @author Liqiang Peng
  * @date 2023/3/7
  */
 public class PbcStdIdxPirClient extends AbstractStdIdxPirClient implements IdxPirClient {
+    /**
+     * config
+     */
+    private final PbcStdIdxPirConfig config;
     /**
      * cuckoo hash bin type
      */
-    private final IntCuckooHashBinType cuckooHashBinType;
+    private IntCuckooHashBinType cuckooHashBinType;
     /**
      * hash keys
      */
@@ -62,7 +67,7 @@ public class PbcStdIdxPirClient extends AbstractStdIdxPirClient implements IdxPi
 
     public PbcStdIdxPirClient(Rpc clientRpc, Party serverParty, PbcStdIdxPirConfig config) {
         super(getInstance(), clientRpc, serverParty, config);
-        cuckooHashBinType = config.getCuckooHashBinType();
+        this.config = config;
         pbcableStdIdxPirConfig = config.getPbcStdIdxPirConfig();
     }
 
@@ -74,6 +79,7 @@ public class PbcStdIdxPirClient extends AbstractStdIdxPirClient implements IdxPi
         stopWatch.start();
         Pair<List<byte[]>, List<byte[]>> keyPair = keyGen();
         sendOtherPartyPayload(PtoStep.CLIENT_SEND_PUBLIC_KEYS.ordinal(), keyPair.getRight());
+        cuckooHashBinType = config.getCuckooHashBinType(n, maxBatchNum);
         List<byte[]> hashKeysPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_CUCKOO_HASH_KEYS.ordinal());
         MpcAbortPreconditions.checkArgument(hashKeysPayload.size() == getHashNum(cuckooHashBinType));
         // client generate simple hash bin
@@ -101,8 +107,9 @@ public class PbcStdIdxPirClient extends AbstractStdIdxPirClient implements IdxPi
         for (int i = 0; i < binNum; i++) {
             client[i] = StdIdxPirFactory.createPbcableClient(getRpc(), otherParty(), pbcableStdIdxPirConfig);
             addSubPto(client[i]);
-            client[i].init(keyPair.getLeft(), maxBinSize, l, 1);
         }
+        IntStream binIndexStream = parallel ? IntStream.range(0, binNum).parallel() : IntStream.range(0, binNum);
+        PbcStdIdxPirUtils.forEachBin(binNum, binIndexStream, i -> client[i].init(keyPair.getLeft(), maxBinSize, l, 1));
         stopWatch.stop();
         long initIndexPirTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -137,7 +144,9 @@ public class PbcStdIdxPirClient extends AbstractStdIdxPirClient implements IdxPi
 
         stopWatch.start();
         byte[][] entries = new byte[batchNum][];
-        for (int i = 0; i < binNum; i++) {
+        // each retrieval index is placed in exactly one bucket, so that buckets write disjoint entries
+        IntStream binIndexStream = parallel ? IntStream.range(0, binNum).parallel() : IntStream.range(0, binNum);
+        PbcStdIdxPirUtils.forEachBin(binNum, binIndexStream, i -> {
             if (binIndexList.get(i) != -1) {
                 byte[] entry = client[i].recover(binIndexList.get(i));
                 for (int j = 0; j < batchNum; j++) {
@@ -148,7 +157,7 @@ public class PbcStdIdxPirClient extends AbstractStdIdxPirClient implements IdxPi
             } else {
                 client[i].dummyRecover();
             }
-        }
+        });
         stopWatch.stop();
         long decodeResponseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
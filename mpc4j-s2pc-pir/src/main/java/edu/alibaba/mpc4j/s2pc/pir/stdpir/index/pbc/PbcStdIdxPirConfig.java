@@ -2,6 +2,8 @@ package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc;
 
 import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
 import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.hashbin.primitive.cuckoo.IntCuckooHashBinFactory;
 import edu.alibaba.mpc4j.common.tool.hashbin.primitive.cuckoo.IntCuckooHashBinFactory.IntCuckooHashBinType;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.PbcableStdIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirConfig;
@@ -9,7 +11,9 @@ import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirFactory;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealStdIdxPirConfig;
 
 /**
- * probabilistic batch code (PBC) batch index PIR config.
+ * probabilistic batch code (PBC) batch index PIR config. If the per-bucket cost and the per-entry cost of the bucket
+ * PIR are set, the cuckoo hash type (and thus the bucket num) is selected adaptively for each database, minimizing
+ * the estimated server cost binNum * bucketCost + hashNum * n * entryCost.
  *
  * @author Liqiang Peng
  * @date 2023/3/7
@@ -23,11 +27,21 @@ public class PbcStdIdxPirConfig extends AbstractMultiPartyPtoConfig implements S
      * cuckoo hash type
      */
     private final IntCuckooHashBinType cuckooHashBinType;
+    /**
+     * measured fixed cost of answering a bucket, 0 if the cuckoo hash type is fixed
+     */
+    private final double bucketCost;
+    /**
+     * measured cost of answering an entry in a bucket
+     */
+    private final double entryCost;
 
     public PbcStdIdxPirConfig(Builder builder) {
         super(SecurityModel.MALICIOUS, builder.pbcableStdIdxPirConfig);
         pbcableStdIdxPirConfig = builder.pbcableStdIdxPirConfig;
         cuckooHashBinType = builder.cuckooHashBinType;
+        bucketCost = builder.bucketCost;
+        entryCost = builder.entryCost;
     }
 
     public PbcableStdIdxPirConfig getPbcStdIdxPirConfig() {
@@ -38,6 +52,33 @@ public class PbcStdIdxPirConfig extends AbstractMultiPartyPtoConfig implements S
         return cuckooHashBinType;
     }
 
+    /**
+     * Gets the cuckoo hash type for the given database size and max batch num. Both parties get the same type since
+     * the selection only depends on the config, n and the max batch num.
+     *
+     * @param n           database size.
+     * @param maxBatchNum max batch num.
+     * @return cuckoo hash type.
+     */
+    public IntCuckooHashBinType getCuckooHashBinType(int n, int maxBatchNum) {
+        if (bucketCost == 0) {
+            return cuckooHashBinType;
+        }
+        // more hash functions lead to fewer buckets, but each entry is placed in more buckets
+        IntCuckooHashBinType selectedType = cuckooHashBinType;
+        double selectedCost = Double.MAX_VALUE;
+        for (IntCuckooHashBinType type : IntCuckooHashBinType.values()) {
+            int binNum = IntCuckooHashBinFactory.getBinNum(type, maxBatchNum);
+            int hashNum = IntCuckooHashBinFactory.getHashNum(type);
+            double cost = binNum * bucketCost + (double) hashNum * n * entryCost;
+            if (cost < selectedCost) {
+                selectedType = type;
+                selectedCost = cost;
+            }
+        }
+        return selectedType;
+    }
+
     @Override
     public StdIdxPirFactory.StdIdxPirType getProType() {
         return StdIdxPirFactory.StdIdxPirType.PBC;
@@ -52,10 +93,21 @@ public class PbcStdIdxPirConfig extends AbstractMultiPartyPtoConfig implements S
          * cuckoo hash
          */
         private IntCuckooHashBinType cuckooHashBinType;
+        /**
+         * measured fixed cost of answering a bucket
+         */
+        private double bucketCost;
+        /**
+         * measured cost of answering an entry in a bucket
+         */
+        private double entryCost;
 
         public Builder() {
-            pbcableStdIdxPirConfig = new SealStdIdxPirConfig.Builder().build();
+            // the default SEAL PIR config is created in build(), so that other bucket PIRs do not load native libraries
+            pbcableStdIdxPirConfig = null;
             cuckooHashBinType = IntCuckooHashBinType.NO_STASH_NAIVE;
+            bucketCost = 0;
+            entryCost = 0;
         }
 
         public Builder setPbcStdIdxPirConfig(PbcableStdIdxPirConfig pbcableStdIdxPirConfig) {
@@ -68,8 +120,28 @@ public class PbcStdIdxPirConfig extends AbstractMultiPartyPtoConfig implements S
             return this;
         }
 
+        /**
+         * Sets the measured costs of the bucket PIR, so that the cuckoo hash type is selected adaptively. The costs
+         * can be measured by running the bucket PIR on databases of two different sizes, where the fixed part is the
+         * bucket cost and the slope is the entry cost. Both parties must use the same costs.
+         *
+         * @param bucketCost fixed cost of answering a bucket.
+         * @param entryCost  cost of answering an entry in a bucket.
+         * @return the builder.
+         */
+        public Builder setBucketCost(double bucketCost, double entryCost) {
+            MathPreconditions.checkPositive("bucket_cost", bucketCost);
+            MathPreconditions.checkNonNegative("entry_cost", entryCost);
+            this.bucketCost = bucketCost;
+            this.entryCost = entryCost;
+            return this;
+        }
+
         @Override
         public PbcStdIdxPirConfig build() {
+            if (pbcableStdIdxPirConfig == null) {
+                pbcableStdIdxPirConfig = new SealStdIdxPirConfig.Builder().build();
+            }
             return new PbcStdIdxPirConfig(this);
         }
     }
@@ -27,16 +27,22 @@ import static edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirPtoDesc.Pt
 import static edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirPtoDesc.getInstance;
 
 /**
- * probabilistic batch code (PBC) batch index PIR server.
+ * probabilistic batch code (PBC) batch index PIR server. Bucket databases are encoded once in init and reused for all
+ * batches. Buckets are independent, so that they are initialized and answered in parallel if parallel computing is
+ * enabled.
  *
  * @author Liqiang Peng
  * @date 2023/3/7
  */
 public class PbcStdIdxPirServer extends AbstractStdIdxPirServer implements IdxPirServer {
+    /**
+     * config
+     */
+    private final PbcStdIdxPirConfig config;
     /**
      * cuckoo hash bin type
      */
-    private final IntCuckooHashBinType cuckooHashBinType;
+    private IntCuckooHashBinType cuckooHashBinType;
     /**
      * PBC index PIR server
      */
@@ -52,7 +58,7 @@ public class PbcStdIdxPirServer extends AbstractStdIdxPirServer implements IdxPi
 
     public PbcStdIdxPirServer(Rpc serverRpc, Party clientParty, PbcStdIdxPirConfig config) {
         super(getInstance(), serverRpc, clientParty, config);
-        cuckooHashBinType = config.getCuckooHashBinType();
+        this.config = config;
         pbcableStdIdxPirConfig = config.getPbcStdIdxPirConfig();
     }
 
@@ -65,6 +71,7 @@ public class PbcStdIdxPirServer extends AbstractStdIdxPirServer implements IdxPi
 
         stopWatch.start();
         List<byte[]> serverKeys = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_PUBLIC_KEYS.ordinal());
+        cuckooHashBinType = config.getCuckooHashBinType(n, maxBatchNum);
         int hashNum = IntCuckooHashBinFactory.getHashNum(cuckooHashBinType);
         binNum = IntCuckooHashBinFactory.getBinNum(cuckooHashBinType, maxBatchNum);
         byte[][] hashKeys = BlockUtils.randomBlocks(hashNum, secureRandom);
@@ -78,17 +85,19 @@ public class PbcStdIdxPirServer extends AbstractStdIdxPirServer implements IdxPi
         logStepInfo(PtoState.INIT_STEP, 1, 2, hashTime);
 
         stopWatch.start();
-        // init single index PIR server
+        // init single index PIR server, sub-protocols must be added in order
         server = new PbcableStdIdxPirServer[binNum];
         for (int i = 0; i < binNum; i++) {
             server[i] = StdIdxPirFactory.createPbcableServer(getRpc(), otherParty(), pbcableStdIdxPirConfig);
             addSubPto(server[i]);
-            server[i].init(serverKeys, binDatabase[i], 1);
         }
+        // each bucket encodes its own database
+        IntStream binIndexStream = parallel ? IntStream.range(0, binNum).parallel() : IntStream.range(0, binNum);
+        PbcStdIdxPirUtils.forEachBin(binNum, binIndexStream, i -> server[i].init(serverKeys, binDatabase[i], 1));
         stopWatch.stop();
         long initIndexPirTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
-        logStepInfo(PtoState.INIT_STEP, 2, 2, initIndexPirTime);
+        logStepInfo(PtoState.INIT_STEP, 2, 2, initIndexPirTime, "Server inits " + binNum + " buckets");
 
         initState();
         logPhaseInfo(PtoState.INIT_END);
@@ -100,13 +109,16 @@ public class PbcStdIdxPirServer extends AbstractStdIdxPirServer implements IdxPi
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
-        for (int i = 0; i < binNum; i++) {
-            server[i].answer();
-        }
+        // the client sends queries for all buckets before receiving responses, so that buckets can be answered in any order
+        IntStream binIndexStream = parallel ? IntStream.range(0, binNum).parallel() : IntStream.range(0, binNum);
+        PbcStdIdxPirUtils.forEachBin(binNum, binIndexStream, i -> server[i].answer());
         stopWatch.stop();
         long genResponseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 1, 1, genResponseTime, "Server generates response");
+        logStepInfo(
+            PtoState.PTO_STEP, 1, 1, genResponseTime,
+            String.format("Server generates response (%.2fms per bucket)", (double) genResponseTime / binNum)
+        );
 
         logPhaseInfo(PtoState.PTO_END);
     }
@@ -0,0 +1,57 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.util.stream.IntStream;
+
+/**
+ * PBC standard index PIR utilities.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+class PbcStdIdxPirUtils {
+    /**
+     * private constructor.
+     */
+    private PbcStdIdxPirUtils() {
+        // empty
+    }
+
+    /**
+     * bucket operation.
+     */
+    interface BinOperation {
+        /**
+         * Runs the operation on a bucket.
+         *
+         * @param binIndex bin index.
+         * @throws MpcAbortException the protocol failure aborts.
+         */
+        void run(int binIndex) throws MpcAbortException;
+    }
+
+    /**
+     * Runs the operation on each bucket, and throws the first failure after all buckets are handled.
+     *
+     * @param binNum         number of bins.
+     * @param binIndexStream bin index stream.
+     * @param operation      operation.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    static void forEachBin(int binNum, IntStream binIndexStream, BinOperation operation) throws MpcAbortException {
+        MpcAbortException[] exceptions = new MpcAbortException[binNum];
+        binIndexStream.forEach(binIndex -> {
+            try {
+                operation.run(binIndex);
+            } catch (MpcAbortException e) {
+                exceptions[binIndex] = e;
+            }
+        });
+        for (MpcAbortException exception : exceptions) {
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+}
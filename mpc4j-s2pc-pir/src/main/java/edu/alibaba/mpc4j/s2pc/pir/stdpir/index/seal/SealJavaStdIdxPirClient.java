@@ -0,0 +1,265 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal;
+
+import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.tool.utils.BigIntegerUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+import edu.alibaba.mpc4j.crypto.fhe.seal.*;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.SealContext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.zq.UintArithmeticSmallMod;
+import edu.alibaba.mpc4j.s2pc.pir.PirUtils;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.AbstractStdIdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.PbcableStdIdxPirClient;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirPtoDesc.PtoStep;
+import static edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirPtoDesc.getInstance;
+
+/**
+ * SEAL PIR client based on the Java port of SEAL.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+public class SealJavaStdIdxPirClient extends AbstractStdIdxPirClient implements PbcableStdIdxPirClient {
+    /**
+     * SEAL PIR params
+     */
+    private final SealJavaStdIdxPirParams params;
+    /**
+     * SEAL context
+     */
+    private final SealContext context;
+    /**
+     * partition size
+     */
+    protected int partitionSize;
+    /**
+     * partition bit-length
+     */
+    protected int partitionBitLength;
+    /**
+     * partition byte length
+     */
+    protected int partitionByteLength;
+    /**
+     * element size per BFV plaintext
+     */
+    private int elementSizeOfPlaintext;
+    /**
+     * dimension size
+     */
+    private int[] dimensionSize;
+    /**
+     * secret key
+     */
+    private SecretKey secretKey;
+    /**
+     * encryptor
+     */
+    private Encryptor encryptor;
+
+    public SealJavaStdIdxPirClient(Rpc clientRpc, Party serverParty, SealJavaStdIdxPirConfig config) {
+        super(getInstance(), clientRpc, serverParty, config);
+        params = config.getStdIdxPirParams();
+        context = params.getContext();
+    }
+
+    @Override
+    public void init(int n, int l, int maxBatchNum) throws MpcAbortException {
+        Pair<List<byte[]>, List<byte[]>> keyPair = keyGen();
+        sendOtherPartyPayload(PtoStep.CLIENT_SEND_PUBLIC_KEYS.ordinal(), keyPair.getRight());
+        init(keyPair.getLeft(), n, l, maxBatchNum);
+    }
+
+    @Override
+    public void init(List<byte[]> clientKeys, int n, int l, int maxBatchNum) throws MpcAbortException {
+        if (clientKeys == null) {
+            init(n, l, maxBatchNum);
+        } else {
+            setInitInput(n, l, maxBatchNum);
+            logPhaseInfo(PtoState.INIT_BEGIN);
+
+            stopWatch.start();
+            MpcAbortPreconditions.checkArgument(clientKeys.size() == 1);
+            secretKey = new SecretKey();
+            try {
+                secretKey.load(context, clientKeys.get(0));
+            } catch (IOException e) {
+                throw new MpcAbortException("Failed to load secret key", e);
+            }
+            encryptor = new Encryptor(context, secretKey);
+            int maxPartitionBitLength = params.getPolyModulusDegree() * params.getPlainModulusBitLength();
+            partitionBitLength = Math.min(maxPartitionBitLength, l);
+            partitionByteLength = CommonUtils.getByteLength(partitionBitLength);
+            partitionSize = CommonUtils.getUnitNum(l, partitionBitLength);
+            elementSizeOfPlaintext = PirUtils.elementSizeOfPlaintext(
+                partitionByteLength, params.getPolyModulusDegree(), params.getPlainModulusBitLength()
+            );
+            int plaintextSize = CommonUtils.getUnitNum(n, elementSizeOfPlaintext);
+            dimensionSize = PirUtils.computeDimensionLength(plaintextSize, params.getDimension());
+            for (int j : dimensionSize) {
+                MpcAbortPreconditions.checkArgument(j <= params.getPolyModulusDegree());
+            }
+            stopWatch.stop();
+            long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(PtoState.INIT_STEP, 1, 1, initTime);
+
+            logPhaseInfo(PtoState.INIT_END);
+        }
+    }
+
+    @Override
+    public byte[][] pir(int[] xs) throws MpcAbortException {
+        setPtoInput(xs);
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        for (int i = 0; i < batchNum; i++) {
+            query(xs[i]);
+        }
+        stopWatch.stop();
+        long genQueryTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, genQueryTime, "Client generates query");
+
+        stopWatch.start();
+        byte[][] entries = new byte[batchNum][];
+        for (int i = 0; i < batchNum; i++) {
+            entries[i] = recover(xs[i]);
+        }
+        stopWatch.stop();
+        long responseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 2, responseTime, "Client handles reply");
+
+        logPhaseInfo(PtoState.PTO_END);
+        return entries;
+    }
+
+    @Override
+    public Pair<List<byte[]>, List<byte[]>> keyGen() {
+        KeyGenerator keyGenerator = new KeyGenerator(context);
+        int[] galoisElts = SealJavaStdIdxPirUtils.galoisElements(params.getPolyModulusDegree());
+        List<byte[]> clientKeys = new ArrayList<>();
+        // client sends Galois keys
+        List<byte[]> serverKeys = new ArrayList<>();
+        try {
+            clientKeys.add(keyGenerator.secretKey().save());
+            serverKeys.add(keyGenerator.createGaloisKeys(galoisElts).save());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Pair.of(clientKeys, serverKeys);
+    }
+
+    @Override
+    public void query(int x) {
+        int indexOfPlaintext = x / elementSizeOfPlaintext;
+        // compute indices for each dimension
+        int[] indices = PirUtils.decomposeIndex(indexOfPlaintext, dimensionSize);
+        long plainModulus = context.firstContextData().parms().plainModulus().value();
+        List<byte[]> queryPayload = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            // the server expands the query into 2^ceil(log(n_i)) ciphertexts, each of which is scaled by 2^ceil(log(n_i))
+            long[] inverse = new long[1];
+            boolean success = UintArithmeticSmallMod.tryInvertUintMod(
+                1L << LongUtils.ceilLog2(dimensionSize[i]), plainModulus, inverse
+            );
+            assert success;
+            Plaintext plaintext = new Plaintext(params.getPolyModulusDegree());
+            plaintext.set(indices[i], inverse[0]);
+            try {
+                queryPayload.add(encryptor.encryptSymmetric(plaintext).save());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        sendOtherPartyPayload(PtoStep.CLIENT_SEND_QUERY.ordinal(), queryPayload);
+    }
+
+    @Override
+    public byte[] recover(int x) throws MpcAbortException {
+        List<byte[]> responsePayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal());
+        int partitionResponseSize = IntStream.range(0, params.getDimension() - 1)
+            .map(i -> params.getExpansionRatio())
+            .reduce(1, (a, b) -> a * b);
+        MpcAbortPreconditions.checkArgument(responsePayload.size() == partitionResponseSize * partitionSize);
+        Ciphertext[] response = new Ciphertext[responsePayload.size()];
+        try {
+            for (int i = 0; i < responsePayload.size(); i++) {
+                response[i] = new Ciphertext();
+                response[i].load(context, responsePayload.get(i));
+            }
+        } catch (IOException e) {
+            throw new MpcAbortException("Failed to load response", e);
+        }
+        BigInteger[] partitionEntries = new BigInteger[partitionSize];
+        IntStream intStream = parallel ? IntStream.range(0, partitionSize).parallel() : IntStream.range(0, partitionSize);
+        intStream.forEach(partitionIndex -> {
+            Ciphertext[] partitionResponse = new Ciphertext[partitionResponseSize];
+            System.arraycopy(response, partitionIndex * partitionResponseSize, partitionResponse, 0, partitionResponseSize);
+            long[] coeffs = decryptReply(partitionResponse);
+            byte[] bytes = PirUtils.convertCoeffsToBytes(coeffs, params.getPlainModulusBitLength());
+            int offset = x % elementSizeOfPlaintext;
+            byte[] partitionBytes = new byte[partitionByteLength];
+            System.arraycopy(bytes, offset * partitionByteLength, partitionBytes, 0, partitionByteLength);
+            partitionEntries[partitionIndex] = BigIntegerUtils.byteArrayToNonNegBigInteger(partitionBytes);
+        });
+        BigInteger entry = BigInteger.ZERO;
+        for (BigInteger partitionEntry : partitionEntries) {
+            entry = entry.shiftLeft(partitionBitLength).or(partitionEntry);
+        }
+        return BigIntegerUtils.nonNegBigIntegerToByteArray(entry, byteL);
+    }
+
+    /**
+     * Decrypts the reply of a database partition. Each recursion decrypts the ciphertexts and composes the decrypted
+     * plaintexts into ciphertexts of the previous dimension.
+     *
+     * @param reply reply of a database partition.
+     * @return coefficients of the decrypted plaintext.
+     */
+    private long[] decryptReply(Ciphertext[] reply) {
+        // decryptor caches the powers of the secret key, so that each thread uses its own decryptor
+        Decryptor decryptor = new Decryptor(context, secretKey);
+        int expansionRatio = params.getExpansionRatio();
+        int ciphertextSize = reply[0].size();
+        Ciphertext[] temp = reply;
+        for (int i = 0; i < params.getDimension() - 1; i++) {
+            Plaintext[] plaintexts = new Plaintext[temp.length];
+            for (int j = 0; j < temp.length; j++) {
+                plaintexts[j] = new Plaintext();
+                decryptor.decrypt(temp[j], plaintexts[j]);
+            }
+            Ciphertext[] composed = new Ciphertext[temp.length / expansionRatio];
+            for (int j = 0; j < composed.length; j++) {
+                composed[j] = SealJavaStdIdxPirUtils.composeToCiphertext(
+                    context, plaintexts, j * expansionRatio, ciphertextSize
+                );
+            }
+            temp = composed;
+        }
+        assert temp.length == 1;
+        Plaintext plaintext = new Plaintext();
+        decryptor.decrypt(temp[0], plaintext);
+        return IntStream.range(0, plaintext.coeffCount()).mapToLong(plaintext::get).toArray();
+    }
+
+    @Override
+    public void dummyRecover() throws MpcAbortException {
+        List<byte[]> responsePayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal());
+        int partitionResponseSize = IntStream.range(0, params.getDimension() - 1)
+            .map(i -> params.getExpansionRatio())
+            .reduce(1, (a, b) -> a * b);
+        MpcAbortPreconditions.checkArgument(responsePayload.size() == partitionResponseSize * partitionSize);
+    }
+}
@@ -0,0 +1,55 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal;
+
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.PbcableStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirFactory;
+
+/**
+ * SEAL PIR config based on the Java port of SEAL.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+public class SealJavaStdIdxPirConfig extends AbstractMultiPartyPtoConfig implements PbcableStdIdxPirConfig {
+    /**
+     * SEAL PIR params
+     */
+    private final SealJavaStdIdxPirParams params;
+
+    public SealJavaStdIdxPirConfig(Builder builder) {
+        super(SecurityModel.MALICIOUS);
+        this.params = builder.params;
+    }
+
+    @Override
+    public StdIdxPirFactory.StdIdxPirType getProType() {
+        return StdIdxPirFactory.StdIdxPirType.SEAL_JAVA;
+    }
+
+    @Override
+    public SealJavaStdIdxPirParams getStdIdxPirParams() {
+        return params;
+    }
+
+    public static class Builder implements org.apache.commons.lang3.builder.Builder<SealJavaStdIdxPirConfig> {
+        /**
+         * SEAL PIR params
+         */
+        private SealJavaStdIdxPirParams params;
+
+        public Builder() {
+            params = SealJavaStdIdxPirParams.DEFAULT_PARAMS;
+        }
+
+        public Builder setParams(SealJavaStdIdxPirParams params) {
+            this.params = params;
+            return this;
+        }
+
+        @Override
+        public SealJavaStdIdxPirConfig build() {
+            return new SealJavaStdIdxPirConfig(this);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal;
+
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.EncryptionParameters;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.SchemeType;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.SealContext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.modulus.CoeffModulus;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirParams;
+
+import java.io.IOException;
+
+/**
+ * SEAL PIR params based on the Java port of SEAL. The encryption parameters are the same as the native SEAL PIR, i.e.,
+ * BFV with the default coefficient modulus and plain modulus 2^plainModulusBitLength + 1.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+public class SealJavaStdIdxPirParams implements StdIdxPirParams {
+    /**
+     * plain modulus size
+     */
+    private final int plainModulusBitLength;
+    /**
+     * poly modulus degree
+     */
+    private final int polyModulusDegree;
+    /**
+     * dimension
+     */
+    private final int dimension;
+    /**
+     * SEAL context, which is immutable and can be shared by all parties
+     */
+    private final SealContext context;
+    /**
+     * SEAL encryption params
+     */
+    private final byte[] encryptionParams;
+    /**
+     * expansion ratio
+     */
+    private final int expansionRatio;
+
+    public SealJavaStdIdxPirParams(int polyModulusDegree, int plainModulusBitLength, int dimension) {
+        this.polyModulusDegree = polyModulusDegree;
+        this.plainModulusBitLength = plainModulusBitLength;
+        this.dimension = dimension;
+        EncryptionParameters parms = new EncryptionParameters(SchemeType.BFV);
+        parms.setPolyModulusDegree(polyModulusDegree);
+        parms.setPlainModulus((1L << plainModulusBitLength) + 1);
+        parms.setCoeffModulus(CoeffModulus.bfvDefault(polyModulusDegree));
+        context = new SealContext(parms);
+        assert context.isParametersSet() : "SEAL parameters not valid.";
+        assert context.usingKeySwitching() : "SEAL parameters do not support key switching.";
+        try {
+            encryptionParams = parms.save();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        // each ciphertext contains 2 polynomials
+        expansionRatio = SealJavaStdIdxPirUtils.computeExpansionRatio(context.lastContextData().parms()) << 1;
+    }
+
+    /**
+     * default params
+     */
+    public static SealJavaStdIdxPirParams DEFAULT_PARAMS = new SealJavaStdIdxPirParams(4096, 20, 2);
+
+    @Override
+    public int getPlainModulusBitLength() {
+        return plainModulusBitLength;
+    }
+
+    @Override
+    public int getPolyModulusDegree() {
+        return polyModulusDegree;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public byte[] getEncryptionParams() {
+        return encryptionParams;
+    }
+
+    /**
+     * Gets the SEAL context.
+     *
+     * @return SEAL context.
+     */
+    public SealContext getContext() {
+        return context;
+    }
+
+    /**
+     * return expansion ratio.
+     *
+     * @return expansion ratio.
+     */
+    public int getExpansionRatio() {
+        return expansionRatio;
+    }
+
+    @Override
+    public String toString() {
+        return
+            "SEAL (Java) encryption parameters : " + "\n" +
+            " - degree of polynomial modulus : " + polyModulusDegree + "\n" +
+            " - size of plaintext modulus : " + plainModulusBitLength + "\n" +
+            " - dimension : " + dimension;
+    }
+}
@@ -0,0 +1,75 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal;
+
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDescManager;
+
+/**
+ * SEAL PIR protocol description. The protocol comes from the following paper:
+ * <p>
+ * Sebastian Angel, Hao Chen, Kim Laine, and Srinath Setty. PIR with compressed queries and amortized query processing.
+ * In 2018 IEEE Symposium on Security and Privacy. 2018, 962–979
+ * </p>
+ * The implementation is based on <a href="https://github.com/microsoft/SealPIR">...</a>, and all homomorphic
+ * operations are done by the Java port of SEAL so that no native library is required.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+public class SealJavaStdIdxPirPtoDesc implements PtoDesc {
+    /**
+     * protocol ID
+     */
+    private static final int PTO_ID = Math.abs((int) 5913514239172842394L);
+    /**
+     * protocol name
+     */
+    private static final String PTO_NAME = "SEAL_PIR_JAVA";
+
+    /**
+     * the protocol step
+     */
+    enum PtoStep {
+        /**
+         * client sends Galois keys
+         */
+        CLIENT_SEND_PUBLIC_KEYS,
+        /**
+         * client send query
+         */
+        CLIENT_SEND_QUERY,
+        /**
+         * server send response
+         */
+        SERVER_SEND_RESPONSE,
+    }
+
+    /**
+     * the singleton mode
+     */
+    private static final SealJavaStdIdxPirPtoDesc INSTANCE = new SealJavaStdIdxPirPtoDesc();
+
+    /**
+     * private constructor.
+     */
+    private SealJavaStdIdxPirPtoDesc() {
+        // empty
+    }
+
+    public static PtoDesc getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        PtoDescManager.registerPtoDesc(getInstance());
+    }
+
+    @Override
+    public int getPtoId() {
+        return PTO_ID;
+    }
+
+    @Override
+    public String getPtoName() {
+        return PTO_NAME;
+    }
+}
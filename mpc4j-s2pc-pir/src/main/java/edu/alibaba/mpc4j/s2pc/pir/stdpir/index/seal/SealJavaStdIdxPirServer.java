@@ -0,0 +1,243 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal;
+
+import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.crypto.fhe.seal.Ciphertext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.Evaluator;
+import edu.alibaba.mpc4j.crypto.fhe.seal.GaloisKeys;
+import edu.alibaba.mpc4j.crypto.fhe.seal.Plaintext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.SealContext;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.AbstractStdIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.PbcableStdIdxPirServer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirPtoDesc.PtoStep;
+import static edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirPtoDesc.getInstance;
+
+/**
+ * SEAL PIR server based on the Java port of SEAL. The dot products in each dimension are independent, and are computed
+ * in parallel if parallel computing is enabled.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+public class SealJavaStdIdxPirServer extends AbstractStdIdxPirServer implements PbcableStdIdxPirServer, SharedIdxPirServer {
+    /**
+     * SEAL PIR params
+     */
+    private final SealJavaStdIdxPirParams params;
+    /**
+     * SEAL context
+     */
+    private final SealContext context;
+    /**
+     * evaluator
+     */
+    private final Evaluator evaluator;
+    /**
+     * Galois elements
+     */
+    private final int[] galoisElts;
+    /**
+     * Galois Keys
+     */
+    private GaloisKeys galoisKeys;
+    /**
+     * dimension size
+     */
+    private int[] dimensionSize;
+    /**
+     * BFV plaintext in NTT form
+     */
+    private List<Plaintext[]> encodedDatabase;
+
+    public SealJavaStdIdxPirServer(Rpc serverRpc, Party clientParty, SealJavaStdIdxPirConfig config) {
+        super(getInstance(), serverRpc, clientParty, config);
+        params = config.getStdIdxPirParams();
+        context = params.getContext();
+        evaluator = new Evaluator(context);
+        galoisElts = SealJavaStdIdxPirUtils.galoisElements(params.getPolyModulusDegree());
+    }
+
+    @Override
+    public void init(NaiveDatabase database, int maxBatchNum) throws MpcAbortException {
+        List<byte[]> serverKeysPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_PUBLIC_KEYS.ordinal());
+        init(serverKeysPayload, database, maxBatchNum);
+    }
+
+    @Override
+    public void init(List<byte[]> serverKeys, NaiveDatabase database, int maxBatchNum) throws MpcAbortException {
+        if (serverKeys == null) {
+            init(database, maxBatchNum);
+        } else {
+            setInitInput(database, maxBatchNum);
+            logPhaseInfo(PtoState.INIT_BEGIN);
+
+            stopWatch.start();
+            setGaloisKeys(serverKeys);
+            // encode database
+            setSharedDatabase(SealJavaStdIdxPirDatabase.create(params, database, parallel));
+            stopWatch.stop();
+            long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            logStepInfo(PtoState.INIT_STEP, 1, 1, initTime);
+
+            logPhaseInfo(PtoState.INIT_END);
+        }
+    }
+
+    @Override
+    public void init(SharedIdxPirDatabase database, int maxBatchNum) throws MpcAbortException {
+        MpcAbortPreconditions.checkArgument(database instanceof SealJavaStdIdxPirDatabase);
+        SealJavaStdIdxPirDatabase sealDatabase = (SealJavaStdIdxPirDatabase) database;
+        SealJavaStdIdxPirParams databaseParams = sealDatabase.getParams();
+        MpcAbortPreconditions.checkArgument(databaseParams.getDimension() == params.getDimension());
+        MpcAbortPreconditions.checkArgument(
+            Arrays.equals(databaseParams.getEncryptionParams(), params.getEncryptionParams())
+        );
+        setInitInput(database, maxBatchNum);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        List<byte[]> serverKeysPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_PUBLIC_KEYS.ordinal());
+        setGaloisKeys(serverKeysPayload);
+        setSharedDatabase(sealDatabase);
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 1, initTime, "Server receives keys");
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    private void setGaloisKeys(List<byte[]> serverKeys) throws MpcAbortException {
+        MpcAbortPreconditions.checkArgument(serverKeys.size() == 1);
+        galoisKeys = new GaloisKeys();
+        try {
+            galoisKeys.load(context, serverKeys.get(0));
+        } catch (IOException e) {
+            throw new MpcAbortException("Failed to load Galois keys", e);
+        }
+    }
+
+    private void setSharedDatabase(SealJavaStdIdxPirDatabase sharedDatabase) {
+        dimensionSize = sharedDatabase.getDimensionSize();
+        encodedDatabase = sharedDatabase.getEncodedDatabase();
+    }
+
+    @Override
+    public void pir(int batchNum) throws MpcAbortException {
+        setPtoInput(batchNum);
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        for (int i = 0; i < batchNum; i++) {
+            answer();
+        }
+        stopWatch.stop();
+        long genResponseTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 1, genResponseTime, "Server generates reply");
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    @Override
+    public void answer() throws MpcAbortException {
+        List<byte[]> queryPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_QUERY.ordinal());
+        MpcAbortPreconditions.checkArgument(queryPayload.size() == params.getDimension());
+        Ciphertext[] query = new Ciphertext[queryPayload.size()];
+        try {
+            for (int i = 0; i < queryPayload.size(); i++) {
+                query[i] = new Ciphertext();
+                query[i].load(context, queryPayload.get(i));
+            }
+        } catch (IOException e) {
+            throw new MpcAbortException("Failed to load query", e);
+        }
+        IntStream intStream = parallel
+            ? IntStream.range(0, encodedDatabase.size()).parallel()
+            : IntStream.range(0, encodedDatabase.size());
+        List<byte[]> serverResponsePayload = intStream
+            .mapToObj(i -> generateReply(query, encodedDatabase.get(i)))
+            .flatMap(Arrays::stream)
+            .map(SealJavaStdIdxPirServer::saveCiphertext)
+            .collect(Collectors.toCollection(ArrayList::new));
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_RESPONSE.ordinal(), serverResponsePayload);
+    }
+
+    /**
+     * Generates the reply for a database partition.
+     *
+     * @param query    query ciphertexts, one for each dimension.
+     * @param database database partition, i.e., BFV plaintexts in NTT form.
+     * @return reply ciphertexts.
+     */
+    private Ciphertext[] generateReply(Ciphertext[] query, Plaintext[] database) {
+        Plaintext[] cur = database;
+        int product = Arrays.stream(dimensionSize).reduce(1, (a, b) -> a * b);
+        for (int i = 0; i < dimensionSize.length; i++) {
+            int ni = dimensionSize[i];
+            Ciphertext[] expandedQuery = SealJavaStdIdxPirUtils.expandQuery(
+                context, evaluator, galoisKeys, galoisElts, query[i], ni
+            );
+            for (Ciphertext ciphertext : expandedQuery) {
+                evaluator.transformToNttInplace(ciphertext);
+            }
+            // the database is preprocessed in NTT form, only intermediate plaintexts are transformed
+            if (i > 0) {
+                for (Plaintext plaintext : cur) {
+                    evaluator.transformToNttInplace(plaintext, context.firstParmsId());
+                }
+            }
+            product /= ni;
+            int finalProduct = product;
+            Plaintext[] finalCur = cur;
+            IntStream intStream = parallel ? IntStream.range(0, product).parallel() : IntStream.range(0, product);
+            Ciphertext[] intermediateCtxts = intStream
+                .mapToObj(k -> {
+                    Ciphertext intermediateCtxt = new Ciphertext();
+                    evaluator.multiplyPlain(expandedQuery[0], finalCur[k], intermediateCtxt);
+                    Ciphertext temp = new Ciphertext();
+                    for (int j = 1; j < ni; j++) {
+                        evaluator.multiplyPlain(expandedQuery[j], finalCur[k + j * finalProduct], temp);
+                        evaluator.addInplace(intermediateCtxt, temp);
+                    }
+                    evaluator.transformFromNttInplace(intermediateCtxt);
+                    return intermediateCtxt;
+                })
+                .toArray(Ciphertext[]::new);
+            if (i == dimensionSize.length - 1) {
+                return intermediateCtxts;
+            }
+            // decompose intermediate ciphertexts into plaintexts for the next dimension
+            cur = Arrays.stream(intermediateCtxts)
+                .flatMap(intermediateCtxt -> {
+                    evaluator.modSwitchToInplace(intermediateCtxt, context.lastParmsId());
+                    return Arrays.stream(SealJavaStdIdxPirUtils.decomposeToPlaintexts(
+                        context.lastContextData().parms(), intermediateCtxt
+                    ));
+                })
+                .toArray(Plaintext[]::new);
+            product = cur.length;
+        }
+        throw new IllegalStateException("dimension must be positive: " + dimensionSize.length);
+    }
+
+    private static byte[] saveCiphertext(Ciphertext ciphertext) {
+        try {
+            return ciphertext.save();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
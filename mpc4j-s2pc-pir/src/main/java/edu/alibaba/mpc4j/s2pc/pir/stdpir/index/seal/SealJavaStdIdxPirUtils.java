@@ -0,0 +1,240 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal;
+
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+import edu.alibaba.mpc4j.crypto.fhe.seal.Ciphertext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.Evaluator;
+import edu.alibaba.mpc4j.crypto.fhe.seal.GaloisKeys;
+import edu.alibaba.mpc4j.crypto.fhe.seal.Plaintext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.EncryptionParameters;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.SealContext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.iterator.CoeffIterator;
+import edu.alibaba.mpc4j.crypto.fhe.seal.modulus.Modulus;
+import edu.alibaba.mpc4j.crypto.fhe.seal.rq.PolyArithmeticSmallMod;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * SEAL PIR utilities based on the Java port of SEAL. These are ports of the corresponding functions in the native
+ * SEAL PIR implementation, so that the Java and the native implementations produce the same results.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+class SealJavaStdIdxPirUtils {
+    /**
+     * private constructor.
+     */
+    private SealJavaStdIdxPirUtils() {
+        // empty
+    }
+
+    /**
+     * Gets the number of plaintext bits per coefficient, i.e., floor(log2(t)).
+     *
+     * @param parms encryption params.
+     * @return the number of plaintext bits per coefficient.
+     */
+    private static int ptBitsPerCoeff(EncryptionParameters parms) {
+        return Long.SIZE - 1 - Long.numberOfLeadingZeros(parms.plainModulus().value());
+    }
+
+    /**
+     * Gets the number of plaintexts used to represent a coefficient modulo the given modulus.
+     *
+     * @param modulus        coefficient modulus.
+     * @param ptBitsPerCoeff the number of plaintext bits per coefficient.
+     * @return the number of plaintexts.
+     */
+    private static int localExpansionRatio(Modulus modulus, int ptBitsPerCoeff) {
+        double coeffBitSize = Math.log(modulus.value()) / Math.log(2);
+        return (int) Math.ceil(coeffBitSize / ptBitsPerCoeff);
+    }
+
+    /**
+     * Computes the number of plaintexts used to represent a polynomial.
+     *
+     * @param parms encryption params.
+     * @return expansion ratio.
+     */
+    static int computeExpansionRatio(EncryptionParameters parms) {
+        int ptBitsPerCoeff = ptBitsPerCoeff(parms);
+        return Arrays.stream(parms.coeffModulus())
+            .mapToInt(modulus -> localExpansionRatio(modulus, ptBitsPerCoeff))
+            .sum();
+    }
+
+    /**
+     * Generates Galois elements used in query expansion, i.e., (N + 2^i) / 2^i for i = 0, ..., log(N) - 1.
+     *
+     * @param polyModulusDegree poly modulus degree.
+     * @return Galois elements.
+     */
+    static int[] galoisElements(int polyModulusDegree) {
+        int logN = LongUtils.ceilLog2(polyModulusDegree);
+        return IntStream.range(0, logN)
+            .map(i -> (polyModulusDegree + (1 << i)) / (1 << i))
+            .toArray();
+    }
+
+    /**
+     * Decomposes a ciphertext into plaintexts, each coefficient of which contains floor(log2(t)) bits of the
+     * corresponding ciphertext coefficient.
+     *
+     * @param parms encryption params of the ciphertext.
+     * @param ct    ciphertext.
+     * @return plaintexts.
+     */
+    static Plaintext[] decomposeToPlaintexts(EncryptionParameters parms, Ciphertext ct) {
+        int ptBitsPerCoeff = ptBitsPerCoeff(parms);
+        int coeffCount = parms.polyModulusDegree();
+        Modulus[] coeffModulus = parms.coeffModulus();
+        long ptBitmask = (1L << ptBitsPerCoeff) - 1;
+        Plaintext[] result = new Plaintext[computeExpansionRatio(parms) * ct.size()];
+        long[] ctData = ct.data();
+        int ptIndex = 0;
+        for (int polyIndex = 0; polyIndex < ct.size(); polyIndex++) {
+            int polyOffset = ct.getPolyOffset(polyIndex);
+            for (int coeffModIndex = 0; coeffModIndex < coeffModulus.length; coeffModIndex++) {
+                int localExpansionRatio = localExpansionRatio(coeffModulus[coeffModIndex], ptBitsPerCoeff);
+                int offset = polyOffset + coeffModIndex * coeffCount;
+                int shift = 0;
+                for (int i = 0; i < localExpansionRatio; i++) {
+                    long[] coeffs = new long[coeffCount];
+                    for (int c = 0; c < coeffCount; c++) {
+                        coeffs[c] = (ctData[offset + c] >>> shift) & ptBitmask;
+                    }
+                    result[ptIndex++] = new Plaintext(coeffs);
+                    shift += ptBitsPerCoeff;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Composes plaintexts into a ciphertext, which is the inverse of {@link #decomposeToPlaintexts}.
+     *
+     * @param context     SEAL context.
+     * @param pts         plaintexts.
+     * @param ptOffset    the index of the first plaintext used in the composition.
+     * @param ctPolyCount the number of polynomials in the ciphertext.
+     * @return the composed ciphertext with the last parms ID.
+     */
+    static Ciphertext composeToCiphertext(SealContext context, Plaintext[] pts, int ptOffset, int ctPolyCount) {
+        EncryptionParameters parms = context.lastContextData().parms();
+        int ptBitsPerCoeff = ptBitsPerCoeff(parms);
+        int coeffCount = parms.polyModulusDegree();
+        Modulus[] coeffModulus = parms.coeffModulus();
+        Ciphertext ct = new Ciphertext(context, context.lastParmsId());
+        ct.resize(context, context.lastParmsId(), ctPolyCount);
+        long[] ctData = ct.data();
+        int ptIndex = ptOffset;
+        for (int polyIndex = 0; polyIndex < ctPolyCount; polyIndex++) {
+            int polyOffset = ct.getPolyOffset(polyIndex);
+            for (int coeffModIndex = 0; coeffModIndex < coeffModulus.length; coeffModIndex++) {
+                int localExpansionRatio = localExpansionRatio(coeffModulus[coeffModIndex], ptBitsPerCoeff);
+                int offset = polyOffset + coeffModIndex * coeffCount;
+                int shift = 0;
+                for (int i = 0; i < localExpansionRatio; i++) {
+                    Plaintext pt = pts[ptIndex++];
+                    for (int c = 0; c < pt.coeffCount(); c++) {
+                        if (shift == 0) {
+                            ctData[offset + c] = pt.get(c);
+                        } else {
+                            ctData[offset + c] += pt.get(c) << shift;
+                        }
+                    }
+                    shift += ptBitsPerCoeff;
+                }
+            }
+        }
+        return ct;
+    }
+
+    /**
+     * Multiplies a ciphertext with X^index, i.e., negacyclic shifts all polynomials of the ciphertext.
+     *
+     * @param context   SEAL context.
+     * @param encrypted ciphertext in the first parms ID.
+     * @param index     the exponent.
+     * @return the result ciphertext.
+     */
+    private static Ciphertext multiplyPowerOfX(SealContext context, Ciphertext encrypted, int index) {
+        EncryptionParameters parms = context.firstContextData().parms();
+        Modulus[] coeffModulus = parms.coeffModulus();
+        int coeffCount = parms.polyModulusDegree();
+        Ciphertext destination = new Ciphertext();
+        destination.copyFrom(encrypted);
+        for (int i = 0; i < encrypted.size(); i++) {
+            int polyOffset = encrypted.getPolyOffset(i);
+            for (int j = 0; j < coeffModulus.length; j++) {
+                PolyArithmeticSmallMod.negacyclicShiftPolyCoeffMod(
+                    CoeffIterator.wrap(encrypted.data(), polyOffset + j * coeffCount, coeffCount),
+                    coeffCount, index, coeffModulus[j],
+                    CoeffIterator.wrap(destination.data(), polyOffset + j * coeffCount, coeffCount)
+                );
+            }
+        }
+        return destination;
+    }
+
+    /**
+     * Expands a query ciphertext into m ciphertexts, the j-th of which encrypts the j-th coefficient of the query.
+     *
+     * @param context     SEAL context.
+     * @param evaluator   evaluator.
+     * @param galoisKeys  Galois keys.
+     * @param galoisElts  Galois elements.
+     * @param encrypted   query ciphertext.
+     * @param m           the number of expanded ciphertexts.
+     * @return expanded ciphertexts.
+     */
+    static Ciphertext[] expandQuery(SealContext context, Evaluator evaluator, GaloisKeys galoisKeys, int[] galoisElts,
+                                    Ciphertext encrypted, int m) {
+        int n = context.firstContextData().parms().polyModulusDegree();
+        // Assume that m is a power of 2. If not, round it to the next power of 2.
+        int logm = LongUtils.ceilLog2(m);
+        assert logm <= LongUtils.ceilLog2(n) : "m > n is not allowed";
+        if (logm == 0) {
+            // the query ciphertext may be shared, return a copy so that callers can modify the result
+            Ciphertext copy = new Ciphertext();
+            copy.copyFrom(encrypted);
+            return new Ciphertext[]{copy};
+        }
+        Ciphertext[] temp = new Ciphertext[]{encrypted};
+        for (int i = 0; i < logm - 1; i++) {
+            temp = expandStep(context, evaluator, galoisKeys, galoisElts[i], temp, n, i, temp.length);
+        }
+        // Last step of the loop, corner case where the remaining ciphertexts are multiplied by 2.
+        int expandNum = m - (1 << (logm - 1));
+        Ciphertext[] newTemp = expandStep(context, evaluator, galoisKeys, galoisElts[logm - 1], temp, n, logm - 1, expandNum);
+        Plaintext two = new Plaintext("2");
+        for (int a = expandNum; a < temp.length; a++) {
+            newTemp[a] = new Ciphertext();
+            evaluator.multiplyPlain(temp[a], two, newTemp[a]);
+        }
+        return Arrays.copyOf(newTemp, m);
+    }
+
+    /**
+     * One step of query expansion, which expands the first expandNum ciphertexts into 2 * expandNum ciphertexts.
+     */
+    private static Ciphertext[] expandStep(SealContext context, Evaluator evaluator, GaloisKeys galoisKeys,
+                                           int galoisElt, Ciphertext[] temp, int n, int i, int expandNum) {
+        Ciphertext[] newTemp = new Ciphertext[temp.length << 1];
+        int indexRaw = (n << 1) - (1 << i);
+        int index = (int) (((long) indexRaw * galoisElt) % (n << 1));
+        for (int a = 0; a < expandNum; a++) {
+            Ciphertext rotated = new Ciphertext();
+            evaluator.applyGalois(temp[a], galoisElt, galoisKeys, rotated);
+            newTemp[a] = new Ciphertext();
+            evaluator.add(temp[a], rotated, newTemp[a]);
+            Ciphertext shifted = multiplyPowerOfX(context, temp[a], indexRaw);
+            Ciphertext rotatedShifted = multiplyPowerOfX(context, rotated, index);
+            newTemp[a + temp.length] = new Ciphertext();
+            evaluator.add(shifted, rotatedShifted, newTemp[a + temp.length]);
+        }
+        return newTemp;
+    }
+}
@@ -0,0 +1,183 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal;
+
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.common.structure.database.ZlDatabase;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.s2pc.pir.PirUtils;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * SEAL PIR shared database, i.e., BFV plaintexts in NTT form. The encoding only depends on the encryption parameters,
+ * so that it can be shared by all clients, while each client only sends its own Galois keys.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+public class SealStdIdxPirDatabase implements SharedIdxPirDatabase {
+    /**
+     * SEAL PIR params
+     */
+    private final SealStdIdxPirParams params;
+    /**
+     * database size
+     */
+    private final int n;
+    /**
+     * element bit length
+     */
+    private final int l;
+    /**
+     * partition byte length
+     */
+    private final int partitionByteLength;
+    /**
+     * element size per BFV plaintext
+     */
+    private final int elementSizeOfPlaintext;
+    /**
+     * BFV plaintext size
+     */
+    private final int plaintextSize;
+    /**
+     * dimension size
+     */
+    private final int[] dimensionSize;
+    /**
+     * BFV plaintext in NTT form
+     */
+    private final List<byte[][]> encodedDatabase;
+
+    /**
+     * Creates a shared database.
+     *
+     * @param params   SEAL PIR params.
+     * @param database database.
+     * @param parallel parallel encoding.
+     * @return a shared database.
+     */
+    public static SealStdIdxPirDatabase create(SealStdIdxPirParams params, NaiveDatabase database, boolean parallel) {
+        return new SealStdIdxPirDatabase(params, database, parallel);
+    }
+
+    private SealStdIdxPirDatabase(SealStdIdxPirParams params, NaiveDatabase database, boolean parallel) {
+        this.params = params;
+        n = database.rows();
+        l = database.getL();
+        int maxPartitionBitLength = params.getPolyModulusDegree() * params.getPlainModulusBitLength();
+        int partitionBitLength = Math.min(maxPartitionBitLength, database.getL());
+        partitionByteLength = CommonUtils.getByteLength(partitionBitLength);
+        ZlDatabase[] databases = database.partitionZl(partitionBitLength);
+        int partitionSize = databases.length;
+        elementSizeOfPlaintext = PirUtils.elementSizeOfPlaintext(
+            partitionByteLength, params.getPolyModulusDegree(), params.getPlainModulusBitLength()
+        );
+        plaintextSize = CommonUtils.getUnitNum(database.rows(), elementSizeOfPlaintext);
+        dimensionSize = PirUtils.computeDimensionLength(plaintextSize, params.getDimension());
+        for (int j : dimensionSize) {
+            MathPreconditions.checkLessOrEqual("dimension_size", j, params.getPolyModulusDegree());
+        }
+        // encode database
+        IntStream intStream = parallel ? IntStream.range(0, partitionSize).parallel() : IntStream.range(0, partitionSize);
+        encodedDatabase = intStream
+            .mapToObj(partitionIndex -> preprocessDatabase(databases, partitionIndex))
+            .toList();
+    }
+
+    /**
+     * database preprocess.
+     *
+     * @param partitionIndex partition index.
+     * @return BFV plaintexts in NTT form.
+     */
+    private byte[][] preprocessDatabase(ZlDatabase[] databases, int partitionIndex) {
+        byte[] combinedBytes = new byte[databases[partitionIndex].rows() * partitionByteLength];
+        IntStream.range(0, databases[partitionIndex].rows()).forEach(rowIndex -> {
+            byte[] element = databases[partitionIndex].getBytesData(rowIndex);
+            System.arraycopy(element, 0, combinedBytes, rowIndex * partitionByteLength, partitionByteLength);
+        });
+        // number of FV plaintexts needed to create the d-dimensional matrix
+        int prod = Arrays.stream(dimensionSize).reduce(1, (a, b) -> a * b);
+        assert (plaintextSize <= prod);
+        List<long[]> coeffsList = new ArrayList<>();
+        int byteSizeOfPlaintext = elementSizeOfPlaintext * partitionByteLength;
+        int totalByteSize = databases[partitionIndex].rows() * partitionByteLength;
+        int usedCoeffSize = elementSizeOfPlaintext *
+            CommonUtils.getUnitNum(Byte.SIZE * partitionByteLength, params.getPlainModulusBitLength());
+        assert (usedCoeffSize <= params.getPolyModulusDegree())
+            : "coefficient num must be less than or equal to polynomial degree";
+        int offset = 0;
+        for (int i = 0; i < plaintextSize; i++) {
+            int processByteSize;
+            if (totalByteSize <= offset) {
+                break;
+            } else if (totalByteSize < offset + byteSizeOfPlaintext) {
+                processByteSize = totalByteSize - offset;
+            } else {
+                processByteSize = byteSizeOfPlaintext;
+            }
+            assert (processByteSize % partitionByteLength == 0);
+            // Get the coefficients of the elements that will be packed in plaintext i
+            long[] coeffs = PirUtils.convertBytesToCoeffs(
+                params.getPlainModulusBitLength(), offset, processByteSize, combinedBytes
+            );
+            assert (coeffs.length <= usedCoeffSize);
+            offset += processByteSize;
+            long[] paddingCoeffsArray = new long[params.getPolyModulusDegree()];
+            System.arraycopy(coeffs, 0, paddingCoeffsArray, 0, coeffs.length);
+            // Pad the rest with 1s
+            IntStream.range(coeffs.length, params.getPolyModulusDegree()).forEach(j -> paddingCoeffsArray[j] = 1L);
+            coeffsList.add(paddingCoeffsArray);
+        }
+        // Add padding plaintext to make database a matrix
+        int currentPlaintextSize = coeffsList.size();
+        assert (currentPlaintextSize <= plaintextSize);
+        IntStream.range(0, (prod - currentPlaintextSize))
+            .mapToObj(i -> IntStream.range(0, params.getPolyModulusDegree()).mapToLong(i1 -> 1L).toArray())
+            .forEach(coeffsList::add);
+        return SealStdIdxPirNativeUtils.nttTransform(params.getEncryptionParams(), coeffsList)
+            .toArray(new byte[0][]);
+    }
+
+    @Override
+    public int rows() {
+        return n;
+    }
+
+    @Override
+    public int getL() {
+        return l;
+    }
+
+    /**
+     * Gets the SEAL PIR params used to encode the database.
+     *
+     * @return SEAL PIR params.
+     */
+    SealStdIdxPirParams getParams() {
+        return params;
+    }
+
+    /**
+     * Gets the dimension size.
+     *
+     * @return dimension size.
+     */
+    int[] getDimensionSize() {
+        return dimensionSize;
+    }
+
+    /**
+     * Gets BFV plaintexts in NTT form. The returned plaintexts must not be modified.
+     *
+     * @return BFV plaintexts in NTT form.
+     */
+    List<byte[][]> getEncodedDatabase() {
+        return encodedDatabase;
+    }
+}
@@ -0,0 +1,104 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * persistent client-specific preprocessing index PIR client thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/10
+ */
+class PersistentCpIdxPirClientThread extends Thread {
+    /**
+     * client
+     */
+    private final PersistentCpIdxPirClient client;
+    /**
+     * database size
+     */
+    private final int n;
+    /**
+     * value bit length
+     */
+    private final int l;
+    /**
+     * persisted hints, null if the client does not have hints
+     */
+    private final byte[] hints;
+    /**
+     * update num
+     */
+    private final int updateNum;
+    /**
+     * xs
+     */
+    private final int[] xs;
+    /**
+     * entries
+     */
+    private byte[][] entries;
+    /**
+     * hints after the session
+     */
+    private byte[] newHints;
+    /**
+     * success
+     */
+    private boolean success;
+
+    PersistentCpIdxPirClientThread(PersistentCpIdxPirClient client, int n, int l, byte[] hints, int updateNum, int[] xs) {
+        this.client = client;
+        this.n = n;
+        this.l = l;
+        this.hints = hints;
+        this.updateNum = updateNum;
+        this.xs = xs;
+        success = false;
+    }
+
+    boolean getSuccess() {
+        return success;
+    }
+
+    byte[][] getEntries() {
+        return entries;
+    }
+
+    byte[] getNewHints() {
+        return newHints;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (hints == null) {
+                client.init(n, l, xs.length);
+            } else {
+                client.init(new ByteArrayInputStream(hints), xs.length);
+            }
+            client.getRpc().synchronize();
+            client.getRpc().reset();
+
+            // update database
+            if (updateNum > 0) {
+                client.update(updateNum);
+            }
+            // query
+            entries = client.pir(xs);
+            client.getRpc().synchronize();
+            client.getRpc().reset();
+            // persist hints
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            client.writeHints(outputStream);
+            newHints = outputStream.toByteArray();
+            success = true;
+        } catch (MpcAbortException | IOException e) {
+            e.printStackTrace();
+            success = false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+
+/**
+ * persistent client-specific preprocessing index PIR server thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/10
+ */
+class PersistentCpIdxPirServerThread extends Thread {
+    /**
+     * server
+     */
+    private final PersistentCpIdxPirServer server;
+    /**
+     * database
+     */
+    private final NaiveDatabase database;
+    /**
+     * update log
+     */
+    private final CpIdxPirUpdateLog updateLog;
+    /**
+     * update indexes
+     */
+    private final int[] updateIndexes;
+    /**
+     * update entries
+     */
+    private final byte[][] updateEntries;
+    /**
+     * query num
+     */
+    private final int queryNum;
+    /**
+     * offline communication in bytes
+     */
+    private long offlineByteLength;
+    /**
+     * success
+     */
+    private boolean success;
+
+    PersistentCpIdxPirServerThread(PersistentCpIdxPirServer server, NaiveDatabase database, CpIdxPirUpdateLog updateLog,
+                                   int[] updateIndexes, byte[][] updateEntries, int queryNum) {
+        this.server = server;
+        this.database = database;
+        this.updateLog = updateLog;
+        assert updateIndexes.length == updateEntries.length;
+        this.updateIndexes = updateIndexes;
+        this.updateEntries = updateEntries;
+        this.queryNum = queryNum;
+        success = false;
+    }
+
+    boolean getSuccess() {
+        return success;
+    }
+
+    long getOfflineByteLength() {
+        return offlineByteLength;
+    }
+
+    @Override
+    public void run() {
+        try {
+            server.init(database, updateLog, queryNum);
+            offlineByteLength = server.getRpc().getSendByteLength();
+            server.getRpc().synchronize();
+            server.getRpc().reset();
+
+            // update the database
+            if (updateIndexes.length > 0) {
+                server.update(updateIndexes, updateEntries);
+            }
+            // query
+            server.pir(queryNum);
+            server.getRpc().synchronize();
+            server.getRpc().reset();
+            success = true;
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+            success = false;
+        }
+    }
+}
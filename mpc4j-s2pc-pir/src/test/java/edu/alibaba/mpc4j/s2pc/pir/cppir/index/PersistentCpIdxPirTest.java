@@ -0,0 +1,205 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.index;
+
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirFactory.CpIdxPirType;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.mir.MirCpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.piano.PianoCpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.plinko.MirPlinkoCpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.plinko.PianoPlinkoCpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.simple.SimpleCpIdxPirConfig;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * persistent client-specific preprocessing index PIR test.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/10
+ */
+@RunWith(Parameterized.class)
+public class PersistentCpIdxPirTest extends AbstractTwoPartyMemoryRpcPto {
+    /**
+     * default element bit length
+     */
+    private static final int DEFAULT_L = 16;
+    /**
+     * default database size
+     */
+    private static final int DEFAULT_N = (1 << 14) - 3;
+    /**
+     * default query num
+     */
+    private static final int DEFAULT_QUERY_NUM = 15;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // MIR
+        configurations.add(new Object[]{
+            CpIdxPirType.MIR.name(), new MirCpIdxPirConfig.Builder().build(),
+        });
+        // PIANO
+        configurations.add(new Object[]{
+            CpIdxPirType.PIANO.name(), new PianoCpIdxPirConfig.Builder().build(),
+        });
+        // MIR_PLINKO
+        configurations.add(new Object[]{
+            CpIdxPirType.MIR_PLINKO.name(), new MirPlinkoCpIdxPirConfig.Builder().build(),
+        });
+        // PIANO_PLINKO
+        configurations.add(new Object[]{
+            CpIdxPirType.PIANO_PLINKO.name(), new PianoPlinkoCpIdxPirConfig.Builder().build(),
+        });
+        // SIMPLE
+        configurations.add(new Object[]{
+            CpIdxPirType.SIMPLE.name(), new SimpleCpIdxPirConfig.Builder().build(),
+        });
+
+        return configurations;
+    }
+
+    /**
+     * config
+     */
+    private final CpIdxPirConfig config;
+
+    public PersistentCpIdxPirTest(String name, CpIdxPirConfig config) {
+        super(name);
+        this.config = config;
+    }
+
+    @Test
+    public void testSpecificN() {
+        testPto(11, DEFAULT_L, 1, false);
+    }
+
+    @Test
+    public void testSpecificValue() {
+        testPto(DEFAULT_N, 11, DEFAULT_QUERY_NUM, false);
+    }
+
+    @Test
+    public void testDefault() {
+        testPto(DEFAULT_N, DEFAULT_L, DEFAULT_QUERY_NUM, false);
+    }
+
+    @Test
+    public void testParallelDefault() {
+        testPto(DEFAULT_N, DEFAULT_L, DEFAULT_QUERY_NUM, true);
+    }
+
+    @Test
+    public void testLargeQueryNum() {
+        int n = 1 << 8;
+        int q = CpIdxPirFactory.supportRoundQueryNum(config.getPtoType(), n);
+        if (q == Integer.MAX_VALUE) {
+            q = (int) Math.sqrt(n);
+        }
+        testPto(n, DEFAULT_L, q + 1, false);
+    }
+
+    private void testPto(int n, int l, int queryNum, boolean parallel) {
+        int updateNum = (int) Math.ceil(Math.sqrt(n));
+        int byteL = CommonUtils.getByteLength(l);
+        NaiveDatabase database = NaiveDatabase.create(l, BytesUtils.randomByteArrayVector(n, byteL, l, SECURE_RANDOM));
+        CpIdxPirUpdateLog updateLog = new CpIdxPirUpdateLog(SECURE_RANDOM);
+        // the first session, the client runs preprocessing and receives online updates
+        int[] updateIndexes = randomIndexes(n, updateNum);
+        byte[][] updateEntries = BytesUtils.randomByteArrayVector(updateNum, byteL, l, SECURE_RANDOM);
+        SessionResult first = runSession(database, updateLog, null, updateIndexes, updateEntries, queryNum, parallel);
+        for (int i = 0; i < updateNum; i++) {
+            database.setBytesData(updateIndexes[i], updateEntries[i]);
+        }
+        verify(database, first);
+        Assert.assertEquals(updateNum, updateLog.getVersion());
+        // the database is updated when the client is offline
+        int[] offlineIndexes = randomIndexes(n, updateNum);
+        for (int i = 0; i < updateNum; i++) {
+            byte[] entry = BytesUtils.randomByteArray(byteL, l, SECURE_RANDOM);
+            updateLog.append(offlineIndexes[i], BytesUtils.xor(database.getBytesData(offlineIndexes[i]), entry));
+            database.setBytesData(offlineIndexes[i], entry);
+        }
+        // the second session, the client restores hints and only receives updates
+        SessionResult second = runSession(
+            database, updateLog, first.hints(), new int[0], new byte[0][], queryNum, parallel
+        );
+        verify(database, second);
+        // the third session, the server has a new update log, the client must run preprocessing again
+        SessionResult third = runSession(
+            database, new CpIdxPirUpdateLog(SECURE_RANDOM), second.hints(), new int[0], new byte[0][], queryNum, parallel
+        );
+        verify(database, third);
+        // synchronizing O(√n) updates is cheaper than streaming the whole database, except for tiny databases
+        if (n >= DEFAULT_N) {
+            Assert.assertTrue(second.offlineByteLength() < third.offlineByteLength());
+        }
+    }
+
+    private int[] randomIndexes(int n, int num) {
+        return IntStream.range(0, num).map(i -> SECURE_RANDOM.nextInt(n)).toArray();
+    }
+
+    private SessionResult runSession(NaiveDatabase database, CpIdxPirUpdateLog updateLog, byte[] hints,
+                                     int[] updateIndexes, byte[][] updateEntries, int queryNum, boolean parallel) {
+        int n = database.rows();
+        PersistentCpIdxPirServer server = CpIdxPirFactory.createPersistentServer(firstRpc, secondRpc.ownParty(), config);
+        PersistentCpIdxPirClient client = CpIdxPirFactory.createPersistentClient(secondRpc, firstRpc.ownParty(), config);
+        server.setParallel(parallel);
+        client.setParallel(parallel);
+        int[] xs = IntStream.range(0, queryNum)
+            .map(i -> i % 2 == 0 && updateIndexes.length > 0
+                ? updateIndexes[SECURE_RANDOM.nextInt(updateIndexes.length)]
+                : SECURE_RANDOM.nextInt(n))
+            .toArray();
+        PersistentCpIdxPirServerThread serverThread = new PersistentCpIdxPirServerThread(
+            server, database, updateLog, updateIndexes, updateEntries, queryNum
+        );
+        PersistentCpIdxPirClientThread clientThread = new PersistentCpIdxPirClientThread(
+            client, n, database.getL(), hints, updateIndexes.length, xs
+        );
+        try {
+            serverThread.start();
+            clientThread.start();
+            serverThread.join();
+            clientThread.join();
+            Assert.assertTrue(serverThread.getSuccess());
+            Assert.assertTrue(clientThread.getSuccess());
+            Assert.assertEquals(updateLog.getVersion(), client.getVersion());
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+            return new SessionResult(
+                xs, clientThread.getEntries(), clientThread.getNewHints(), serverThread.getOfflineByteLength()
+            );
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void verify(NaiveDatabase database, SessionResult result) {
+        for (int i = 0; i < result.xs().length; i++) {
+            byte[] expect = database.getBytesData(result.xs()[i]);
+            Assert.assertArrayEquals("The " + i + "-th result is not correct", expect, result.entries()[i]);
+        }
+    }
+
+    /**
+     * session result.
+     *
+     * @param xs                queried indexes.
+     * @param entries           queried entries.
+     * @param hints             client hints after the session.
+     * @param offlineByteLength server offline communication in bytes.
+     */
+    private record SessionResult(int[] xs, byte[][] entries, byte[] hints, long offlineByteLength) {
+    }
+}
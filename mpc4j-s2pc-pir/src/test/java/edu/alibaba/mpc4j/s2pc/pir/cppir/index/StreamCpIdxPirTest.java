@@ -9,6 +9,7 @@ import edu.alibaba.mpc4j.s2pc.pir.cppir.index.mir.MirCpIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.piano.PianoCpIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.plinko.MirPlinkoCpIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.cppir.index.plinko.PianoPlinkoCpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.simple.SimpleCpIdxPirConfig;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -51,6 +52,10 @@ public class StreamCpIdxPirTest extends AbstractTwoPartyMemoryRpcPto {
         configurations.add(new Object[]{
             CpIdxPirType.PIANO.name(), new PianoCpIdxPirConfig.Builder().build(),
         });
+        // SIMPLE
+        configurations.add(new Object[]{
+            CpIdxPirType.SIMPLE.name(), new SimpleCpIdxPirConfig.Builder().build(),
+        });
         // MIR_PLINKO
         configurations.add(new Object[]{
             CpIdxPirType.MIR_PLINKO.name() + "(default Q)",
@@ -0,0 +1,107 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.ks;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * stream client-specific preprocessing KSPIR client thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+class StreamCpKsPirClientThread extends Thread {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamCpKsPirClientThread.class);
+    /**
+     * client
+     */
+    private final StreamCpKsPirClient<String> client;
+    /**
+     * database size
+     */
+    private final int n;
+    /**
+     * value bit length
+     */
+    private final int l;
+    /**
+     * update batch num
+     */
+    private final int updateBatchNum;
+    /**
+     * query num
+     */
+    private final int queryNum;
+    /**
+     * retrieval keys
+     */
+    private final ArrayList<String> keys;
+    /**
+     * retrieval result
+     */
+    private final Map<String, byte[]> retrievalResult;
+    /**
+     * success
+     */
+    private boolean success;
+
+    StreamCpKsPirClientThread(StreamCpKsPirClient<String> client, int n, int l, int updateBatchNum,
+                              ArrayList<String> keys) {
+        this.client = client;
+        this.n = n;
+        this.l = l;
+        this.updateBatchNum = updateBatchNum;
+        this.keys = keys;
+        this.queryNum = keys.size();
+        retrievalResult = new HashMap<>(queryNum);
+    }
+
+    boolean getSuccess() {
+        return success;
+    }
+
+    Map<String, byte[]> getRetrievalResult() {
+        return retrievalResult;
+    }
+
+    @Override
+    public void run() {
+        try {
+            client.init(n, l, queryNum);
+            LOGGER.info(
+                "Client: The Offline Communication costs {}MB", client.getRpc().getSendByteLength() * 1.0 / (1 << 20)
+            );
+            client.getRpc().synchronize();
+            client.getRpc().reset();
+
+            for (int i = 0; i < updateBatchNum; i++) {
+                client.update();
+            }
+            LOGGER.info(
+                "Client: The Update Communication costs {}MB", client.getRpc().getSendByteLength() * 1.0 / (1 << 20)
+            );
+            client.getRpc().synchronize();
+            client.getRpc().reset();
+
+            byte[][] entries = client.pir(keys);
+            for (int i = 0; i < queryNum; i++) {
+                if (!(entries[i] == null)) {
+                    retrievalResult.put(keys.get(i), entries[i]);
+                }
+            }
+            LOGGER.info(
+                "Client: The Online Communication costs {}MB", client.getRpc().getSendByteLength() * 1.0 / (1 << 20)
+            );
+            client.getRpc().synchronize();
+            client.getRpc().reset();
+            success = true;
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+            success = false;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.ks;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * stream client-specific preprocessing KSPIR server thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+class StreamCpKsPirServerThread extends Thread {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamCpKsPirServerThread.class);
+    /**
+     * server
+     */
+    private final StreamCpKsPirServer<String> server;
+    /**
+     * key-value map
+     */
+    private final Map<String, byte[]> keyValueMap;
+    /**
+     * value bit length
+     */
+    private final int l;
+    /**
+     * deleted keys
+     */
+    private final Set<String> deleteKeys;
+    /**
+     * inserted key-value map
+     */
+    private final Map<String, byte[]> insertMap;
+    /**
+     * updated key-value map
+     */
+    private final Map<String, byte[]> updateMap;
+    /**
+     * query num
+     */
+    private final int queryNum;
+    /**
+     * success
+     */
+    private boolean success;
+
+    StreamCpKsPirServerThread(StreamCpKsPirServer<String> server, Map<String, byte[]> keyValueMap, int l,
+                              Set<String> deleteKeys, Map<String, byte[]> insertMap, Map<String, byte[]> updateMap,
+                              int queryNum) {
+        this.server = server;
+        this.keyValueMap = keyValueMap;
+        this.l = l;
+        this.deleteKeys = deleteKeys;
+        this.insertMap = insertMap;
+        this.updateMap = updateMap;
+        this.queryNum = queryNum;
+        success = false;
+    }
+
+    boolean getSuccess() {
+        return success;
+    }
+
+    @Override
+    public void run() {
+        try {
+            server.init(keyValueMap, l, queryNum);
+            LOGGER.info(
+                "Server: The Offline Communication costs {}MB", server.getRpc().getSendByteLength() * 1.0 / (1 << 20)
+            );
+            server.getRpc().synchronize();
+            server.getRpc().reset();
+
+            // update the database in three batches
+            server.delete(deleteKeys);
+            server.insert(insertMap);
+            server.update(updateMap);
+            LOGGER.info(
+                "Server: The Update Communication costs {}MB", server.getRpc().getSendByteLength() * 1.0 / (1 << 20)
+            );
+            server.getRpc().synchronize();
+            server.getRpc().reset();
+
+            server.pir(queryNum);
+            LOGGER.info(
+                "Server: The Online Communication costs {}MB", server.getRpc().getSendByteLength() * 1.0 / (1 << 20)
+            );
+            server.getRpc().synchronize();
+            server.getRpc().reset();
+            success = true;
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+            success = false;
+        }
+    }
+}
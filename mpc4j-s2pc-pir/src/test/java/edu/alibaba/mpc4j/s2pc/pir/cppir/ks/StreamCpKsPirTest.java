@@ -0,0 +1,183 @@
+package edu.alibaba.mpc4j.s2pc.pir.cppir.ks;
+
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirFactory.CpIdxPirType;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.mir.MirCpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.piano.PianoCpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.CpKsPirFactory.CpKsPirType;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.ks.alpr21.Alpr21CpKsPirConfig;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * stream client-specific preprocessing KSPIR test.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+@RunWith(Parameterized.class)
+public class StreamCpKsPirTest extends AbstractTwoPartyMemoryRpcPto {
+    /**
+     * default l
+     */
+    private static final int DEFAULT_L = Long.SIZE;
+    /**
+     * default database size
+     */
+    private static final int DEFAULT_N = (1 << 12) - 3;
+    /**
+     * update batch num, i.e., delete, insert and update
+     */
+    private static final int UPDATE_BATCH_NUM = 3;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // ALPR21 + MIR
+        configurations.add(new Object[]{
+            CpKsPirType.ALPR21.name() + "(" + CpIdxPirType.MIR + ")",
+            new Alpr21CpKsPirConfig.Builder()
+                .setCpIdxPirConfig(new MirCpIdxPirConfig.Builder().build())
+                .build()
+        });
+        // ALPR21 + PIANO
+        configurations.add(new Object[]{
+            CpKsPirType.ALPR21.name() + "(" + CpIdxPirType.PIANO + ")",
+            new Alpr21CpKsPirConfig.Builder()
+                .setCpIdxPirConfig(new PianoCpIdxPirConfig.Builder().build())
+                .build()
+        });
+
+        return configurations;
+    }
+
+    /**
+     * config
+     */
+    private final CpKsPirConfig config;
+
+    public StreamCpKsPirTest(String name, CpKsPirConfig config) {
+        super(name);
+        this.config = config;
+    }
+
+    @Test
+    public void test1n() {
+        testPto(1, DEFAULT_L, false);
+    }
+
+    @Test
+    public void test2n() {
+        testPto(2, DEFAULT_L, false);
+    }
+
+    @Test
+    public void testSpecificN() {
+        testPto(11, DEFAULT_L, false);
+    }
+
+    @Test
+    public void testSpecificValue() {
+        testPto(DEFAULT_N, 11, false);
+    }
+
+    @Test
+    public void testDefault() {
+        testPto(DEFAULT_N, DEFAULT_L, false);
+    }
+
+    @Test
+    public void testParallelDefault() {
+        testPto(DEFAULT_N, DEFAULT_L, true);
+    }
+
+    @Test
+    public void testLarge() {
+        testPto(1 << 16, DEFAULT_L, false);
+    }
+
+    @Test
+    public void testParallelLarge() {
+        testPto(1 << 16, DEFAULT_L, true);
+    }
+
+    private void testPto(int n, int l, boolean parallel) {
+        int byteL = CommonUtils.getByteLength(l);
+        Map<String, byte[]> keywordValueMap = IntStream.range(0, n)
+            .boxed()
+            .collect(Collectors.toMap(
+                String::valueOf,
+                index -> BytesUtils.randomByteArray(byteL, l, SECURE_RANDOM)
+            ));
+        // delete and update disjoint keys, and insert as many keys as deleted so that the load is unchanged
+        int changeNum = Math.min(n / 2, (int) Math.ceil(Math.sqrt(n)));
+        Set<String> deleteKeys = IntStream.range(0, changeNum)
+            .mapToObj(String::valueOf)
+            .collect(Collectors.toSet());
+        Map<String, byte[]> updateMap = IntStream.range(changeNum, 2 * changeNum)
+            .boxed()
+            .collect(Collectors.toMap(
+                String::valueOf,
+                index -> BytesUtils.randomByteArray(byteL, l, SECURE_RANDOM)
+            ));
+        Map<String, byte[]> insertMap = IntStream.range(0, changeNum)
+            .boxed()
+            .collect(Collectors.toMap(
+                index -> "insert_" + index,
+                index -> BytesUtils.randomByteArray(byteL, l, SECURE_RANDOM)
+            ));
+        Map<String, byte[]> expectMap = new HashMap<>(keywordValueMap);
+        deleteKeys.forEach(expectMap::remove);
+        expectMap.putAll(insertMap);
+        expectMap.putAll(updateMap);
+        // query deleted, inserted, updated, unchanged and non-existing keys
+        ArrayList<String> queryList = new ArrayList<>();
+        queryList.addAll(deleteKeys);
+        queryList.addAll(insertMap.keySet());
+        queryList.addAll(updateMap.keySet());
+        queryList.add(String.valueOf(n - 1));
+        queryList.add("dummy");
+        StreamCpKsPirServer<String> server = CpKsPirFactory.createStreamServer(firstRpc, secondRpc.ownParty(), config);
+        StreamCpKsPirClient<String> client = CpKsPirFactory.createStreamClient(secondRpc, firstRpc.ownParty(), config);
+        server.setParallel(parallel);
+        client.setParallel(parallel);
+        StreamCpKsPirServerThread serverThread = new StreamCpKsPirServerThread(
+            server, keywordValueMap, l, deleteKeys, insertMap, updateMap, queryList.size()
+        );
+        StreamCpKsPirClientThread clientThread = new StreamCpKsPirClientThread(
+            client, n, l, UPDATE_BATCH_NUM, queryList
+        );
+        try {
+            serverThread.start();
+            clientThread.start();
+            serverThread.join();
+            clientThread.join();
+            // verify result
+            Assert.assertTrue(serverThread.getSuccess());
+            Assert.assertTrue(clientThread.getSuccess());
+            Map<String, byte[]> retrievalResult = clientThread.getRetrievalResult();
+            for (String x : queryList) {
+                if (expectMap.containsKey(x)) {
+                    Assert.assertArrayEquals(expectMap.get(x), retrievalResult.get(x));
+                } else {
+                    Assert.assertNull(retrievalResult.get(x));
+                }
+            }
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+            System.gc();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package edu.alibaba.mpc4j.s2pc.pir.main;
+
+import edu.alibaba.mpc4j.common.rpc.main.MainPtoConfigUtils;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.tool.utils.PropertiesUtils;
+import edu.alibaba.mpc4j.s2pc.pir.main.stdpir.index.StdIdxPirMain;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirFactory.StdIdxPirType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * standard index PIR main tests.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+@RunWith(Parameterized.class)
+public class StdIdxPirMainTest extends AbstractTwoPartyMemoryRpcPto {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        configurations.add(new Object[]{"INVALID", false});
+        // native SEAL PIR and SEAL PIR based on the Java port of SEAL
+        configurations.add(new Object[]{StdIdxPirType.SEAL.name(), true});
+        configurations.add(new Object[]{StdIdxPirType.SEAL_JAVA.name(), true});
+
+        return configurations;
+    }
+
+    /**
+     * type name
+     */
+    private final String typeName;
+    /**
+     * correct
+     */
+    private final boolean correct;
+
+    public StdIdxPirMainTest(String typeName, boolean correct) {
+        super(typeName);
+        this.typeName = typeName;
+        this.correct = correct;
+    }
+
+    @Test
+    public void testMain() throws InterruptedException {
+        String path = "conf_std_idx_pir_example.conf";
+        String configPath = Objects.requireNonNull(getClass().getClassLoader().getResource(path)).getPath();
+        Properties properties = PropertiesUtils.loadProperties(configPath);
+        Assert.assertEquals(properties.get(MainPtoConfigUtils.PTO_TYPE_KEY), StdIdxPirMain.PTO_TYPE_NAME);
+        Assert.assertEquals(properties.get(StdIdxPirMain.PTO_NAME_KEY), "");
+        properties.setProperty(StdIdxPirMain.PTO_NAME_KEY, typeName);
+        if (correct) {
+            runMain(properties);
+        } else {
+            Assert.assertThrows(IllegalArgumentException.class, () -> runMain(properties));
+        }
+    }
+
+    private void runMain(Properties properties) throws InterruptedException {
+        StdIdxPirMain serverMain = new StdIdxPirMain(properties, "server");
+        StdIdxPirMain clientMain = new StdIdxPirMain(properties, "client");
+        runMain(serverMain, clientMain);
+    }
+}
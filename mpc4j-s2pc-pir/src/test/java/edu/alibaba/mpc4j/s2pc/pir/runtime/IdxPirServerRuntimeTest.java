@@ -0,0 +1,314 @@
+package edu.alibaba.mpc4j.s2pc.pir.runtime;
+
+import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.Rpc;
+import edu.alibaba.mpc4j.common.rpc.RpcManager;
+import edu.alibaba.mpc4j.common.rpc.impl.memory.MemoryRpcManager;
+import edu.alibaba.mpc4j.common.structure.database.Database;
+import edu.alibaba.mpc4j.common.structure.database.MmapDatabase;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.common.tool.utils.BytesUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.s2pc.pir.IdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.SharedIdxPirDatabase;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirFactory;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.CpIdxPirFactory.CpIdxPirType;
+import edu.alibaba.mpc4j.s2pc.pir.cppir.index.simple.SimpleCpIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirFactory;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirFactory.StdIdxPirType;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirConfig;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * index PIR server runtime test.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/12
+ */
+@RunWith(Parameterized.class)
+public class IdxPirServerRuntimeTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdxPirServerRuntimeTest.class);
+    /**
+     * random state
+     */
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    /**
+     * default l
+     */
+    private static final int DEFAULT_L = 16;
+    /**
+     * default n
+     */
+    private static final int DEFAULT_N = (1 << 12) - 1;
+    /**
+     * default batch num
+     */
+    private static final int DEFAULT_BATCH_NUM = 3;
+    /**
+     * default round num
+     */
+    private static final int DEFAULT_ROUND_NUM = 2;
+    /**
+     * default client num
+     */
+    private static final int DEFAULT_CLIENT_NUM = 4;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // SIMPLE
+        SimpleCpIdxPirConfig simpleConfig = new SimpleCpIdxPirConfig.Builder().build();
+        configurations.add(new Object[]{
+            CpIdxPirType.SIMPLE.name(),
+            (DatabaseCreator) (database, parallel) -> CpIdxPirFactory.createSharedDatabase(simpleConfig, database, parallel),
+            (SharedIdxPirServerCreator) (rpc, party) -> CpIdxPirFactory.createSharedServer(rpc, party, simpleConfig),
+            (ClientCreator) (rpc, party) -> CpIdxPirFactory.createClient(rpc, party, simpleConfig),
+        });
+
+        // SEAL PIR (Java)
+        SealJavaStdIdxPirConfig sealJavaConfig = new SealJavaStdIdxPirConfig.Builder().build();
+        configurations.add(new Object[]{
+            StdIdxPirType.SEAL_JAVA.name(),
+            (DatabaseCreator) (database, parallel) -> StdIdxPirFactory.createSharedDatabase(
+                sealJavaConfig, toNaiveDatabase(database), parallel
+            ),
+            (SharedIdxPirServerCreator) (rpc, party) -> StdIdxPirFactory.createSharedServer(rpc, party, sealJavaConfig),
+            (ClientCreator) (rpc, party) -> StdIdxPirFactory.createClient(rpc, party, sealJavaConfig),
+        });
+
+//        // SEAL PIR
+//        SealStdIdxPirConfig sealConfig = new SealStdIdxPirConfig.Builder().build();
+//        configurations.add(new Object[]{
+//            StdIdxPirType.SEAL.name(),
+//            (DatabaseCreator) (database, parallel) -> StdIdxPirFactory.createSharedDatabase(sealConfig, database, parallel),
+//            (SharedIdxPirServerCreator) (rpc, party) -> StdIdxPirFactory.createSharedServer(rpc, party, sealConfig),
+//            (ClientCreator) (rpc, party) -> StdIdxPirFactory.createClient(rpc, party, sealConfig),
+//        });
+
+        return configurations;
+    }
+
+    /**
+     * shared database creator
+     */
+    private interface DatabaseCreator extends BiFunction<Database, Boolean, SharedIdxPirDatabase> {
+    }
+
+    /**
+     * Converts the database to a naive database, for schemes that only support naive databases.
+     *
+     * @param database database.
+     * @return a naive database.
+     */
+    private static NaiveDatabase toNaiveDatabase(Database database) {
+        return database instanceof NaiveDatabase naiveDatabase
+            ? naiveDatabase
+            : NaiveDatabase.create(database.getL(), database.getBytesData());
+    }
+
+    /**
+     * client creator
+     */
+    private interface ClientCreator extends BiFunction<Rpc, Party, IdxPirClient> {
+    }
+
+    /**
+     * shared database creator
+     */
+    private final DatabaseCreator databaseCreator;
+    /**
+     * server creator
+     */
+    private final SharedIdxPirServerCreator serverCreator;
+    /**
+     * client creator
+     */
+    private final ClientCreator clientCreator;
+
+    public IdxPirServerRuntimeTest(String name, DatabaseCreator databaseCreator,
+                                   SharedIdxPirServerCreator serverCreator, ClientCreator clientCreator) {
+        this.databaseCreator = databaseCreator;
+        this.serverCreator = serverCreator;
+        this.clientCreator = clientCreator;
+    }
+
+    @Test
+    public void testOneClient() throws Exception {
+        testPto(1, 1, DEFAULT_BATCH_NUM, DEFAULT_ROUND_NUM, false);
+    }
+
+    @Test
+    public void testManyClients() throws Exception {
+        testPto(DEFAULT_CLIENT_NUM, DEFAULT_CLIENT_NUM, DEFAULT_BATCH_NUM, DEFAULT_ROUND_NUM, false);
+    }
+
+    @Test
+    public void testParallelManyClients() throws Exception {
+        testPto(DEFAULT_CLIENT_NUM, DEFAULT_CLIENT_NUM, DEFAULT_BATCH_NUM, DEFAULT_ROUND_NUM, true);
+    }
+
+    @Test
+    public void testRepeatedSessions() throws Exception {
+        testPto(2, 4, 1, 1, false);
+    }
+
+    @Test
+    public void testMmapDatabase() throws Exception {
+        try (MmapDatabase database = MmapDatabase.createRandom(DEFAULT_L, DEFAULT_N, SECURE_RANDOM)) {
+            testPto(database, DEFAULT_CLIENT_NUM, DEFAULT_CLIENT_NUM, DEFAULT_BATCH_NUM, DEFAULT_ROUND_NUM, true);
+        }
+    }
+
+    @Test
+    public void testSessionLimit() throws Exception {
+        RpcManager rpcManager = new MemoryRpcManager(3);
+        IntStream.range(0, 3).forEach(partyId -> rpcManager.getRpc(partyId).connect());
+        Rpc serverRpc = rpcManager.getRpc(0);
+        NaiveDatabase database = NaiveDatabase.createRandom(DEFAULT_L, DEFAULT_N, SECURE_RANDOM);
+        IdxPirServerRuntime runtime = new IdxPirServerRuntime(
+            serverRpc, databaseCreator.apply(database, false), serverCreator, 1
+        );
+        Party firstParty = rpcManager.getRpc(1).ownParty();
+        Party secondParty = rpcManager.getRpc(2).ownParty();
+        Future<IdxPirSessionMetrics> future = runtime.submit(firstParty, 1, 1);
+        Assert.assertEquals(1, runtime.getActiveSessionNum());
+        // the client party already has an active session
+        Assert.assertThrows(IllegalArgumentException.class, () -> runtime.submit(firstParty, 1, 1));
+        // the number of active sessions reaches the limit
+        Assert.assertThrows(IllegalStateException.class, () -> runtime.submit(secondParty, 1, 1));
+        // finish the session, then the next session can be submitted
+        ClientThread clientThread = new ClientThread(rpcManager.getRpc(1), serverRpc.ownParty(), database, 1, 1);
+        clientThread.start();
+        clientThread.join();
+        Assert.assertTrue(clientThread.getSuccess());
+        future.get();
+        Assert.assertEquals(0, runtime.getActiveSessionNum());
+        Future<IdxPirSessionMetrics> nextFuture = runtime.submit(secondParty, 1, 1);
+        clientThread = new ClientThread(rpcManager.getRpc(2), serverRpc.ownParty(), database, 1, 1);
+        clientThread.start();
+        clientThread.join();
+        Assert.assertTrue(clientThread.getSuccess());
+        nextFuture.get();
+        runtime.shutdown();
+        Assert.assertThrows(IllegalStateException.class, () -> runtime.submit(secondParty, 1, 1));
+        IntStream.range(0, 3).forEach(partyId -> rpcManager.getRpc(partyId).disconnect());
+    }
+
+    private void testPto(int clientNum, int sessionNum, int batchNum, int roundNum, boolean parallel)
+        throws InterruptedException, ExecutionException {
+        NaiveDatabase database = NaiveDatabase.createRandom(DEFAULT_L, DEFAULT_N, SECURE_RANDOM);
+        testPto(database, clientNum, sessionNum, batchNum, roundNum, parallel);
+    }
+
+    private void testPto(Database database, int clientNum, int sessionNum, int batchNum, int roundNum, boolean parallel)
+        throws InterruptedException, ExecutionException {
+        RpcManager rpcManager = new MemoryRpcManager(clientNum + 1);
+        IntStream.range(0, clientNum + 1).forEach(partyId -> rpcManager.getRpc(partyId).connect());
+        Rpc serverRpc = rpcManager.getRpc(0);
+        // encode the database once for all sessions
+        SharedIdxPirDatabase sharedDatabase = databaseCreator.apply(database, parallel);
+        IdxPirServerRuntime runtime = new IdxPirServerRuntime(serverRpc, sharedDatabase, serverCreator, clientNum);
+        runtime.setParallel(parallel);
+        // each client runs sessions one by one, sessions of different clients run concurrently
+        int sessionPerClient = CommonUtils.getUnitNum(sessionNum, clientNum);
+        for (int session = 0; session < sessionPerClient; session++) {
+            List<Future<IdxPirSessionMetrics>> futures = new ArrayList<>(clientNum);
+            ClientThread[] clientThreads = new ClientThread[clientNum];
+            for (int clientIndex = 0; clientIndex < clientNum; clientIndex++) {
+                Rpc clientRpc = rpcManager.getRpc(clientIndex + 1);
+                futures.add(runtime.submit(clientRpc.ownParty(), batchNum, roundNum));
+                clientThreads[clientIndex] = new ClientThread(clientRpc, serverRpc.ownParty(), database, batchNum, roundNum);
+                clientThreads[clientIndex].start();
+            }
+            for (int clientIndex = 0; clientIndex < clientNum; clientIndex++) {
+                clientThreads[clientIndex].join();
+                Assert.assertTrue(clientThreads[clientIndex].getSuccess());
+                IdxPirSessionMetrics metrics = futures.get(clientIndex).get();
+                Assert.assertEquals(batchNum, metrics.getBatchNum());
+                Assert.assertEquals(roundNum, metrics.getRoundNum());
+                Assert.assertTrue(metrics.getSendByteLength() > 0);
+                Assert.assertTrue(metrics.getReceiveByteLength() > 0);
+                LOGGER.info("{}", metrics);
+            }
+        }
+        Assert.assertEquals(0, runtime.getActiveSessionNum());
+        runtime.shutdown();
+        IntStream.range(0, clientNum + 1).forEach(partyId -> rpcManager.getRpc(partyId).disconnect());
+    }
+
+    private class ClientThread extends Thread {
+        /**
+         * client RPC
+         */
+        private final Rpc clientRpc;
+        /**
+         * server party
+         */
+        private final Party serverParty;
+        /**
+         * database
+         */
+        private final Database database;
+        /**
+         * batch num
+         */
+        private final int batchNum;
+        /**
+         * round num
+         */
+        private final int roundNum;
+        /**
+         * success
+         */
+        private boolean success;
+
+        ClientThread(Rpc clientRpc, Party serverParty, Database database, int batchNum, int roundNum) {
+            this.clientRpc = clientRpc;
+            this.serverParty = serverParty;
+            this.database = database;
+            this.batchNum = batchNum;
+            this.roundNum = roundNum;
+            success = false;
+        }
+
+        boolean getSuccess() {
+            return success;
+        }
+
+        @Override
+        public void run() {
+            IdxPirClient client = clientCreator.apply(clientRpc, serverParty);
+            try {
+                client.init(database.rows(), database.getL(), batchNum);
+                boolean correct = true;
+                for (int round = 0; round < roundNum; round++) {
+                    int[] xs = IntStream.range(0, batchNum).map(i -> SECURE_RANDOM.nextInt(database.rows())).toArray();
+                    byte[][] entries = client.pir(xs);
+                    for (int i = 0; i < batchNum; i++) {
+                        correct &= BytesUtils.equals(database.getBytesData(xs[i]), entries[i]);
+                    }
+                }
+                success = correct;
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                client.destroy();
+            }
+        }
+    }
+}
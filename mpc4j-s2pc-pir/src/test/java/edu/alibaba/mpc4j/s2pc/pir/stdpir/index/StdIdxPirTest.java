@@ -71,6 +71,11 @@ public class StdIdxPirTest extends AbstractTwoPartyMemoryRpcPto {
 //            StdIdxPirType.SEAL.name(), new SealStdIdxPirConfig.Builder().build()
 //        });
 //
+//        // SEAL PIR (Java)
+//        configurations.add(new Object[]{
+//            StdIdxPirType.SEAL_JAVA.name(), new SealJavaStdIdxPirConfig.Builder().build()
+//        });
+//
 //        // Mul PIR
 //        configurations.add(new Object[]{
 //            StdIdxPirType.MUL.name(), new MulStdIdxPirConfig.Builder().build()
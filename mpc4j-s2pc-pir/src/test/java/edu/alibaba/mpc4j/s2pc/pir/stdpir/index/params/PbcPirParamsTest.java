@@ -14,6 +14,7 @@ import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.onion.OnionStdIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirClient;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.pbc.PbcStdIdxPirServer;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealStdIdxPirConfig;
 import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.xpir.XpirStdIdxPirConfig;
 import org.junit.Assert;
@@ -45,6 +46,10 @@ public class PbcPirParamsTest extends AbstractTwoPartyMemoryRpcPto {
      * small element bit length
      */
     private static final int SMALL_ELEMENT_BIT_LENGTH = CommonConstants.STATS_BIT_LENGTH;
+    /**
+     * batch num
+     */
+    private static final int BATCH_NUM = 8;
 
     @Parameterized.Parameters(name = "{0}")
     public static Collection<Object[]> configurations() {
@@ -64,6 +69,19 @@ public class PbcPirParamsTest extends AbstractTwoPartyMemoryRpcPto {
                 .build()
         });
 
+        configurations.add(new Object[]{
+            StdIdxPirFactory.StdIdxPirType.PBC.name() + " " + StdIdxPirType.SEAL_JAVA,
+            new PbcStdIdxPirConfig.Builder()
+                .setPbcStdIdxPirConfig(new SealJavaStdIdxPirConfig.Builder().build())
+                .build()
+        });
+        configurations.add(new Object[]{
+            StdIdxPirFactory.StdIdxPirType.PBC.name() + " " + StdIdxPirType.SEAL_JAVA + " (adaptive)",
+            new PbcStdIdxPirConfig.Builder()
+                .setPbcStdIdxPirConfig(new SealJavaStdIdxPirConfig.Builder().build())
+                .setBucketCost(1.0, 0.01)
+                .build()
+        });
         configurations.add(new Object[]{
             StdIdxPirFactory.StdIdxPirType.PBC.name() + " " + StdIdxPirType.XPIR,
             new PbcStdIdxPirConfig.Builder()
@@ -135,14 +153,28 @@ public class PbcPirParamsTest extends AbstractTwoPartyMemoryRpcPto {
         testPto(SMALL_ELEMENT_BIT_LENGTH, true);
     }
 
+    @Test
+    public void testBatchPbcPir() {
+        testPto(DEFAULT_ELEMENT_BIT_LENGTH, BATCH_NUM, true, false);
+    }
+
+    @Test
+    public void testParallelBatchPbcPir() {
+        testPto(DEFAULT_ELEMENT_BIT_LENGTH, BATCH_NUM, true, true);
+    }
+
     public void testPto(int l, boolean parallel) {
+        testPto(l, 1, false, parallel);
+    }
+
+    public void testPto(int l, int batchNum, boolean batch, boolean parallel) {
         NaiveDatabase database = NaiveDatabase.createRandom(l, n, secureRandom);
         PbcStdIdxPirServer server = new PbcStdIdxPirServer(firstRpc, secondRpc.ownParty(), config);
         PbcStdIdxPirClient client = new PbcStdIdxPirClient(secondRpc, firstRpc.ownParty(), config);
         server.setParallel(parallel);
         client.setParallel(parallel);
-        StdIdxPirServerThread serverThread = new StdIdxPirServerThread(server, database, 1, false);
-        StdIdxPirClientThread clientThread = new StdIdxPirClientThread(client, n, l, 1, false);
+        StdIdxPirServerThread serverThread = new StdIdxPirServerThread(server, database, batchNum, batch);
+        StdIdxPirClientThread clientThread = new StdIdxPirClientThread(client, n, l, batchNum, batch);
         try {
             serverThread.start();
             clientThread.start();
@@ -151,10 +183,11 @@ public class PbcPirParamsTest extends AbstractTwoPartyMemoryRpcPto {
             // verify result
             Assert.assertTrue(serverThread.getSuccess());
             Assert.assertTrue(clientThread.getSuccess());
-            int x = clientThread.getXs()[0];
-            byte[] expect = database.getBytesData(x);
-            byte[] actual = clientThread.getEntries()[0];
-            Assert.assertArrayEquals(expect, actual);
+            int[] xs = clientThread.getXs();
+            byte[][] entries = clientThread.getEntries();
+            for (int i = 0; i < batchNum; i++) {
+                Assert.assertArrayEquals(database.getBytesData(xs[i]), entries[i]);
+            }
             // destroy
             new Thread(server::destroy).start();
             new Thread(client::destroy).start();
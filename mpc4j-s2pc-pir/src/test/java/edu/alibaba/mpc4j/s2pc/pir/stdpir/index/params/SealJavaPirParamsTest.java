@@ -0,0 +1,133 @@
+package edu.alibaba.mpc4j.s2pc.pir.stdpir.index.params;
+
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.structure.database.NaiveDatabase;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirClientThread;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirFactory;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.StdIdxPirServerThread;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirClient;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirConfig;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirParams;
+import edu.alibaba.mpc4j.s2pc.pir.stdpir.index.seal.SealJavaStdIdxPirServer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * SEAL PIR (Java) params test.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/14
+ */
+@RunWith(Parameterized.class)
+public class SealJavaPirParamsTest extends AbstractTwoPartyMemoryRpcPto {
+    /**
+     * default element bit length
+     */
+    private static final int DEFAULT_ELEMENT_BIT_LENGTH = CommonConstants.BLOCK_BIT_LENGTH;
+    /**
+     * large element bit length
+     */
+    private static final int LARGE_ELEMENT_BIT_LENGTH = 20000;
+    /**
+     * small element bit length
+     */
+    private static final int SMALL_ELEMENT_BIT_LENGTH = CommonConstants.STATS_BIT_LENGTH;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // SEAL PIR (1-dimension)
+        configurations.add(new Object[]{
+            StdIdxPirFactory.StdIdxPirType.SEAL_JAVA.name() + " (1-dimension)",
+            new SealJavaStdIdxPirConfig.Builder().setParams(new SealJavaStdIdxPirParams(4096, 20, 1)).build()
+        });
+        // SEAL PIR (2-dimension)
+        configurations.add(new Object[]{
+            StdIdxPirFactory.StdIdxPirType.SEAL_JAVA.name() + " (2-dimension)",
+            new SealJavaStdIdxPirConfig.Builder().setParams(new SealJavaStdIdxPirParams(4096, 20, 2)).build()
+        });
+        // the SEAL context of the Java port with N = 8192 takes more than 1GB memory
+//        configurations.add(new Object[]{
+//            StdIdxPirFactory.StdIdxPirType.SEAL_JAVA.name() + " (2-dimension)",
+//            new SealJavaStdIdxPirConfig.Builder().setParams(new SealJavaStdIdxPirParams(8192, 20, 2)).build()
+//        });
+
+        return configurations;
+    }
+
+    /**
+     * config
+     */
+    private final SealJavaStdIdxPirConfig config;
+    /**
+     * database size
+     */
+    private final int n;
+    /**
+     * random state
+     */
+    private final SecureRandom secureRandom;
+
+    public SealJavaPirParamsTest(String name, SealJavaStdIdxPirConfig config) {
+        super(name);
+        this.config = config;
+        n = 1 << 12;
+        secureRandom = new SecureRandom();
+    }
+
+    @Test
+    public void testSealJavaPir() {
+        testPto(DEFAULT_ELEMENT_BIT_LENGTH, false);
+    }
+
+    @Test
+    public void testParallelSealJavaPir() {
+        testPto(DEFAULT_ELEMENT_BIT_LENGTH, true);
+    }
+
+    @Test
+    public void testLargeElementSealJavaPir() {
+        testPto(LARGE_ELEMENT_BIT_LENGTH, true);
+    }
+
+    @Test
+    public void testSmallElementSealJavaPir() {
+        testPto(SMALL_ELEMENT_BIT_LENGTH, true);
+    }
+
+    public void testPto(int l, boolean parallel) {
+        NaiveDatabase database = NaiveDatabase.createRandom(l, n, secureRandom);
+        SealJavaStdIdxPirServer server = new SealJavaStdIdxPirServer(firstRpc, secondRpc.ownParty(), config);
+        SealJavaStdIdxPirClient client = new SealJavaStdIdxPirClient(secondRpc, firstRpc.ownParty(), config);
+        server.setParallel(parallel);
+        client.setParallel(parallel);
+        StdIdxPirServerThread serverThread = new StdIdxPirServerThread(server, database, 1, false);
+        StdIdxPirClientThread clientThread = new StdIdxPirClientThread(client, n, l, 1, false);
+        try {
+            serverThread.start();
+            clientThread.start();
+            serverThread.join();
+            clientThread.join();
+            // verify result
+            Assert.assertTrue(serverThread.getSuccess());
+            Assert.assertTrue(clientThread.getSuccess());
+            int x = clientThread.getXs()[0];
+            byte[] expect = database.getBytesData(x);
+            byte[] actual = clientThread.getEntries()[0];
+            Assert.assertArrayEquals(expect, actual);
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
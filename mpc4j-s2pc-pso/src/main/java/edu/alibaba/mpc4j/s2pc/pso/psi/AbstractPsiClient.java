@@ -62,4 +62,19 @@ public abstract class AbstractPsiClient<T> extends AbstractTwoPartyPto implement
         this.serverElementSize = serverElementSize;
         extraInfo++;
     }
+
+    protected void setPtoInput(byte[] clientElements, int elementByteLength, int serverElementSize) {
+        checkInitialized();
+        MathPreconditions.checkPositive("elementByteLength", elementByteLength);
+        MathPreconditions.checkEqual(
+            "clientElements.length % elementByteLength", "0", clientElements.length % elementByteLength, 0
+        );
+        clientElementSize = clientElements.length / elementByteLength;
+        MathPreconditions.checkPositiveInRangeClosed("clientElementSize", clientElementSize, maxClientElementSize);
+        clientElementArrayList = null;
+        PsiUtils.checkDistinctElements(clientElements, elementByteLength);
+        MathPreconditions.checkPositiveInRangeClosed("serverElementSize", serverElementSize, maxServerElementSize);
+        this.serverElementSize = serverElementSize;
+        extraInfo++;
+    }
 }
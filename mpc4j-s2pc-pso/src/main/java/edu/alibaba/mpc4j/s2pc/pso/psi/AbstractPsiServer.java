@@ -62,4 +62,19 @@ public abstract class AbstractPsiServer<T> extends AbstractTwoPartyPto implement
         this.clientElementSize = clientElementSize;
         extraInfo++;
     }
+
+    protected void setPtoInput(byte[] serverElements, int elementByteLength, int clientElementSize) {
+        checkInitialized();
+        MathPreconditions.checkPositive("elementByteLength", elementByteLength);
+        MathPreconditions.checkEqual(
+            "serverElements.length % elementByteLength", "0", serverElements.length % elementByteLength, 0
+        );
+        serverElementSize = serverElements.length / elementByteLength;
+        MathPreconditions.checkPositiveInRangeClosed("serverElementSize", serverElementSize, maxServerElementSize);
+        serverElementArrayList = null;
+        PsiUtils.checkDistinctElements(serverElements, elementByteLength);
+        MathPreconditions.checkPositiveInRangeClosed("clientElementSize", clientElementSize, maxClientElementSize);
+        this.clientElementSize = clientElementSize;
+        extraInfo++;
+    }
 }
@@ -0,0 +1,44 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+
+/**
+ * PSI client that supports fixed-width elements stored in a flat array. Compared with {@link PsiClient}, elements are
+ * not wrapped into objects and put into a set, and the intersection is also output as a flat array. Elements must be
+ * distinct, which is checked before the protocol runs. The element i is the same as the element
+ * {@code ByteBuffer.wrap(element_i)} in the set-based API, and a long element is the same as its {@code Long} object.
+ * <p></p>
+ * The flat array removes the set and the object conversions, but not every per-element allocation: mp-OPRF receivers
+ * take inputs as separate byte arrays, since the hash, PRF and OKVS primitives under them do, so each element is copied
+ * once before the mp-OPRF runs.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/18
+ */
+public interface FixedWidthPsiClient<T> extends PsiClient<T> {
+    /**
+     * Runs the protocol with fixed-width elements.
+     *
+     * @param clientElements    client elements, the i-th element is stored in
+     *                          clientElements[i * elementByteLength, (i + 1) * elementByteLength).
+     * @param elementByteLength element byte length.
+     * @param serverElementSize the size of elements of server.
+     * @return set intersection, stored in the same order as in the client elements.
+     * @throws MpcAbortException If protocol aborts.
+     */
+    byte[] psi(byte[] clientElements, int elementByteLength, int serverElementSize) throws MpcAbortException;
+
+    /**
+     * Runs the protocol with long elements.
+     *
+     * @param clientElements    client elements.
+     * @param serverElementSize the size of elements of server.
+     * @return set intersection, stored in the same order as in the client elements.
+     * @throws MpcAbortException If protocol aborts.
+     */
+    default long[] psi(long[] clientElements, int serverElementSize) throws MpcAbortException {
+        byte[] intersection = psi(LongUtils.longArrayToByteArray(clientElements), Long.BYTES, serverElementSize);
+        return LongUtils.byteArrayToLongArray(intersection);
+    }
+}
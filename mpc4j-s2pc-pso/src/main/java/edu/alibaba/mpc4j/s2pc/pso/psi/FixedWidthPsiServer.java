@@ -0,0 +1,42 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+
+/**
+ * PSI server that supports fixed-width elements stored in a flat array. Compared with {@link PsiServer}, elements are
+ * not wrapped into objects and put into a set. Elements must be distinct, which is checked before the protocol runs.
+ * The element i is the same as the element {@code ByteBuffer.wrap(element_i)} in the set-based API, and a long element
+ * is the same as its {@code Long} object.
+ * <p></p>
+ * The flat array removes the set and the object conversions, but not every per-element allocation: the hash, PRF and
+ * OKVS primitives under mp-OPRFs take each input as a separate byte array, so each element is copied once when its PRF
+ * is computed, and filters other than fingerprint filters take each hashed PRF as a separate byte array. Fingerprint
+ * filters store PRFs in flat arrays.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/18
+ */
+public interface FixedWidthPsiServer<T> extends PsiServer<T> {
+    /**
+     * Runs the protocol with fixed-width elements.
+     *
+     * @param serverElements    server elements, the i-th element is stored in
+     *                          serverElements[i * elementByteLength, (i + 1) * elementByteLength).
+     * @param elementByteLength element byte length.
+     * @param clientElementSize the size of elements of client.
+     * @throws MpcAbortException If protocol aborts.
+     */
+    void psi(byte[] serverElements, int elementByteLength, int clientElementSize) throws MpcAbortException;
+
+    /**
+     * Runs the protocol with long elements.
+     *
+     * @param serverElements    server elements.
+     * @param clientElementSize the size of elements of client.
+     * @throws MpcAbortException If protocol aborts.
+     */
+    default void psi(long[] serverElements, int clientElementSize) throws MpcAbortException {
+        psi(LongUtils.longArrayToByteArray(serverElements), Long.BYTES, clientElementSize);
+    }
+}
@@ -1,10 +1,14 @@
 package edu.alibaba.mpc4j.s2pc.pso.psi;
 
+import edu.alibaba.mpc4j.common.structure.filter.FingerprintFilter;
 import edu.alibaba.mpc4j.common.tool.CommonConstants;
 import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
 import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
 
+import java.nio.ByteBuffer;
+import java.util.*;
+
 /**
  * PSI utilities.
  *
@@ -52,4 +56,104 @@ public class PsiUtils {
          */
         return CommonConstants.STATS_BYTE_LENGTH + CommonUtils.getByteLength(64 + LongUtils.ceilLog2(clientElementSize));
     }
+
+    /**
+     * Sets the 128-bit fingerprint of the PRF output into the flattened fingerprints, used for fingerprint filters. The
+     * PRF output may be represented with leading zero bits, so that we take the last 16 bytes. The fingerprint must be
+     * at least as long as the PEQT output, see {@link #checkFingerprintByteLength(int)}.
+     *
+     * @param prf          PRF output.
+     * @param fingerprints flattened fingerprints.
+     * @param index        index of the fingerprint.
+     */
+    public static void setPrfFingerprint(byte[] prf, long[] fingerprints, int index) {
+        MathPreconditions.checkGreaterOrEqual("prf.length", prf.length, FingerprintFilter.FINGERPRINT_BYTE_LENGTH);
+        ByteBuffer prfByteBuffer = ByteBuffer.wrap(prf);
+        int offset = prf.length - FingerprintFilter.FINGERPRINT_BYTE_LENGTH;
+        fingerprints[index * FingerprintFilter.FINGERPRINT_LONG_NUM] = prfByteBuffer.getLong(offset);
+        fingerprints[index * FingerprintFilter.FINGERPRINT_LONG_NUM + 1] = prfByteBuffer.getLong(offset + Long.BYTES);
+    }
+
+    /**
+     * Checks that fingerprint filters keep the statistical correctness, i.e., the PEQT output, whose length is set so
+     * that all server-client pairs have false matches with probability at most 2^{-σ}, fits in a fingerprint.
+     *
+     * @param peqtByteLength PEQT byte length.
+     * @throws IllegalArgumentException if the PEQT output is longer than a fingerprint.
+     */
+    public static void checkFingerprintByteLength(int peqtByteLength) {
+        MathPreconditions.checkLessOrEqual(
+            "PEQT byte length", peqtByteLength, FingerprintFilter.FINGERPRINT_BYTE_LENGTH
+        );
+    }
+
+    /**
+     * Checks that fixed-width elements stored in a flat array are distinct. Each element is first mapped to a 64-bit
+     * hash, so that no per-element object is created, and elements are only compared byte by byte when their hashes
+     * collide.
+     *
+     * @param elements          elements, the i-th element is stored in elements[i * elementByteLength, (i + 1) *
+     *                          elementByteLength).
+     * @param elementByteLength element byte length.
+     * @throws IllegalArgumentException if elements are not distinct.
+     */
+    public static void checkDistinctElements(byte[] elements, int elementByteLength) {
+        int elementSize = elements.length / elementByteLength;
+        long[] hashes = new long[elementSize];
+        for (int index = 0; index < elementSize; index++) {
+            hashes[index] = hashElement(elements, index * elementByteLength, elementByteLength);
+        }
+        long[] sortedHashes = Arrays.copyOf(hashes, elementSize);
+        Arrays.sort(sortedHashes);
+        Set<Long> collidedHashSet = new HashSet<>();
+        for (int index = 1; index < elementSize; index++) {
+            if (sortedHashes[index] == sortedHashes[index - 1]) {
+                collidedHashSet.add(sortedHashes[index]);
+            }
+        }
+        if (collidedHashSet.isEmpty()) {
+            return;
+        }
+        // only elements with collided hashes need byte-by-byte comparisons
+        Map<Long, List<Integer>> collidedIndexMap = new HashMap<>(collidedHashSet.size());
+        for (int index = 0; index < elementSize; index++) {
+            if (collidedHashSet.contains(hashes[index])) {
+                List<Integer> collidedIndexes = collidedIndexMap.computeIfAbsent(hashes[index], k -> new ArrayList<>());
+                int from = index * elementByteLength;
+                for (int collidedIndex : collidedIndexes) {
+                    int collidedFrom = collidedIndex * elementByteLength;
+                    if (Arrays.equals(
+                        elements, from, from + elementByteLength,
+                        elements, collidedFrom, collidedFrom + elementByteLength
+                    )) {
+                        throw new IllegalArgumentException(
+                            "Elements must be distinct: element " + collidedIndex + " equals element " + index
+                        );
+                    }
+                }
+                collidedIndexes.add(index);
+            }
+        }
+    }
+
+    /**
+     * Hashes an element stored in a flat array into 64 bits, with the 64-bit finalizer of MurmurHash3.
+     *
+     * @param elements          elements.
+     * @param from              start index of the element.
+     * @param elementByteLength element byte length.
+     * @return 64-bit hash.
+     */
+    private static long hashElement(byte[] elements, int from, int elementByteLength) {
+        long hash = elementByteLength;
+        for (int i = from; i < from + elementByteLength; i++) {
+            hash = hash * 0x9E3779B97F4A7C15L + elements[i];
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
 }
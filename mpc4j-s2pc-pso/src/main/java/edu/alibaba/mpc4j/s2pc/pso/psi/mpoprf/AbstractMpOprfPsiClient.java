@@ -1,7 +1,10 @@
 package edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf;
 
+import com.google.common.base.Preconditions;
 import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.MpcAbortPreconditions;
 import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.PartyState;
 import edu.alibaba.mpc4j.common.rpc.PtoState;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
 import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
@@ -10,33 +13,55 @@ import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.HashFactory;
 import edu.alibaba.mpc4j.common.structure.filter.Filter;
+import edu.alibaba.mpc4j.common.structure.filter.FingerprintFilter;
 import edu.alibaba.mpc4j.common.structure.filter.FilterFactory;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfConfig;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfReceiver;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfReceiverOutput;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfReceiverSession;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
 import edu.alibaba.mpc4j.s2pc.pso.psi.AbstractPsiClient;
+import edu.alibaba.mpc4j.s2pc.pso.psi.FixedWidthPsiClient;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
- * abstract mp-OPRF PSI client.
+ * abstract mp-OPRF PSI client. Fixed-width elements are directly fed into the mp-OPRF without being converted from
+ * objects, and the intersection is directly copied from the input. The mp-OPRF runs in a session, so that repeated PSI
+ * with the same server reuses the base OT / VOLE states, see
+ * {@link edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy}.
  *
  * @author Weiran Liu
  * @date 2023/9/10
  */
-public abstract class AbstractMpOprfPsiClient<T> extends AbstractPsiClient<T> {
+public abstract class AbstractMpOprfPsiClient<T> extends AbstractPsiClient<T> implements FixedWidthPsiClient<T> {
     /**
-     * mp-OPRF receiver
+     * mp-OPRF config
      */
-    private final MpOprfReceiver mpOprfReceiver;
+    private final MpOprfConfig mpOprfConfig;
+    /**
+     * session policy
+     */
+    private final MpOprfSessionPolicy sessionPolicy;
+    /**
+     * mp-OPRF receiver session
+     */
+    private MpOprfReceiverSession mpOprfReceiverSession;
+    /**
+     * whether the mp-OPRF receiver session is shared with other instances
+     */
+    private boolean sharedSession;
     /**
      * PEQT hash
      */
@@ -45,21 +70,62 @@ public abstract class AbstractMpOprfPsiClient<T> extends AbstractPsiClient<T> {
      * SecurityModel
      */
     private final SecurityModel securityModel;
+    /**
+     * whether the server uses a fingerprint filter
+     */
+    private final boolean fingerprintFilter;
 
     public AbstractMpOprfPsiClient(PtoDesc ptoDesc, Rpc clientRpc, Party serverParty, MpOprfPsiConfig config) {
         super(ptoDesc, clientRpc, serverParty, config);
         securityModel = config.getSecurityModel();
-        mpOprfReceiver = OprfFactory.createMpOprfReceiver(clientRpc, serverParty, config.getMpOprfConfig());
-        addSubPto(mpOprfReceiver);
+        fingerprintFilter = FilterFactory.isFingerprintFilter(config.getFilterType());
+        mpOprfConfig = config.getMpOprfConfig();
+        sessionPolicy = config.getSessionPolicy();
+    }
+
+    /**
+     * Sets an mp-OPRF receiver session shared with other instances, so that the session outlives this instance. The
+     * session must be created from the same mp-OPRF config, and is initialized by the first instance that is
+     * initialized. Destroying this instance does not destroy the shared session. This must be called before init.
+     *
+     * @param mpOprfReceiverSession the shared mp-OPRF receiver session.
+     */
+    public void setMpOprfReceiverSession(MpOprfReceiverSession mpOprfReceiverSession) {
+        Preconditions.checkState(
+            partyState == PartyState.NON_INITIALIZED, "Party state must not be %s", partyState
+        );
+        this.mpOprfReceiverSession = mpOprfReceiverSession;
+        sharedSession = true;
     }
 
     @Override
     public void init(int maxClientElementSize, int maxServerElementSize) throws MpcAbortException {
+        if (!sharedSession) {
+            // sub-protocols must be added before the state is set to be initialized
+            Rpc clientRpc = getRpc();
+            Party serverParty = otherParty();
+            MpOprfReceiver mpOprfReceiver = OprfFactory.createMpOprfReceiver(clientRpc, serverParty, mpOprfConfig);
+            addSubPto(mpOprfReceiver);
+            // a protocol can only be initialized once, a session reset replaces the sub-protocol with a fresh one
+            mpOprfReceiverSession = new MpOprfReceiverSession(mpOprfReceiver, destroyedMpOprfReceiver -> {
+                MpOprfReceiver freshMpOprfReceiver = OprfFactory.createMpOprfReceiver(
+                    clientRpc, serverParty, mpOprfConfig
+                );
+                replaceSubPto(destroyedMpOprfReceiver, freshMpOprfReceiver);
+                return freshMpOprfReceiver;
+            }, sessionPolicy);
+        }
         setInitInput(maxClientElementSize, maxServerElementSize);
         logPhaseInfo(PtoState.INIT_BEGIN);
 
         stopWatch.start();
-        mpOprfReceiver.init(maxClientElementSize);
+        if (mpOprfReceiverSession.isInitialized()) {
+            MathPreconditions.checkLessOrEqual(
+                "maxClientElementSize", maxClientElementSize, mpOprfReceiverSession.getSessionMaxBatchSize()
+            );
+        } else {
+            mpOprfReceiverSession.init(maxClientElementSize);
+        }
         stopWatch.stop();
         long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -71,6 +137,41 @@ public abstract class AbstractMpOprfPsiClient<T> extends AbstractPsiClient<T> {
     @Override
     public Set<T> psi(Set<T> clientElementSet, int serverSetSize) throws MpcAbortException {
         setPtoInput(clientElementSet, serverSetSize);
+        boolean[] contains = psi(index -> ObjectUtils.objectToByteArray(clientElementArrayList.get(index)));
+        return IntStream.range(0, clientElementSize)
+            .filter(index -> contains[index])
+            .mapToObj(clientElementArrayList::get)
+            .collect(Collectors.toSet());
+    }
+
+    @Override
+    public byte[] psi(byte[] clientElements, int elementByteLength, int serverElementSize) throws MpcAbortException {
+        setPtoInput(clientElements, elementByteLength, serverElementSize);
+        // the mp-OPRF takes each input as a separate byte array, so each element is still copied once at this boundary
+        boolean[] contains = psi(
+            index -> Arrays.copyOfRange(clientElements, index * elementByteLength, (index + 1) * elementByteLength)
+        );
+        int intersectionSize = (int) IntStream.range(0, clientElementSize).filter(index -> contains[index]).count();
+        byte[] intersection = new byte[intersectionSize * elementByteLength];
+        int offset = 0;
+        for (int index = 0; index < clientElementSize; index++) {
+            if (contains[index]) {
+                System.arraycopy(clientElements, index * elementByteLength, intersection, offset, elementByteLength);
+                offset += elementByteLength;
+            }
+        }
+        return intersection;
+    }
+
+    /**
+     * Runs the protocol. For flat byte-array inputs, this avoids the Set and ObjectUtils conversions, but each element
+     * is still copied into its own byte array, since the mp-OPRF API only takes separate byte arrays as inputs.
+     *
+     * @param clientElementFunction function that gets the byte array of the client element with the given index.
+     * @return whether each client element is in the intersection.
+     * @throws MpcAbortException If protocol aborts.
+     */
+    private boolean[] psi(IntFunction<byte[]> clientElementFunction) throws MpcAbortException {
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
@@ -86,9 +187,12 @@ public abstract class AbstractMpOprfPsiClient<T> extends AbstractPsiClient<T> {
             default:
                 throw new IllegalArgumentException("Invalid " + SecurityModel.class.getSimpleName() + ": " + securityModel);
         }
+        if (fingerprintFilter) {
+            PsiUtils.checkFingerprintByteLength(peqtByteLength);
+        }
         peqtHash = HashFactory.createInstance(envType, peqtByteLength);
-        byte[][] clientElementByteArrays = clientElementArrayList.stream()
-            .map(ObjectUtils::objectToByteArray)
+        byte[][] clientElementByteArrays = IntStream.range(0, clientElementSize)
+            .mapToObj(clientElementFunction)
             .toArray(byte[][]::new);
         stopWatch.stop();
         long prepareInputTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -96,12 +200,23 @@ public abstract class AbstractMpOprfPsiClient<T> extends AbstractPsiClient<T> {
         logStepInfo(PtoState.PTO_STEP, 1, 3, prepareInputTime, "Client prepares tools and inputs");
 
         stopWatch.start();
-        MpOprfReceiverOutput mpOprfReceiverOutput = mpOprfReceiver.oprf(clientElementByteArrays);
+        MpOprfReceiverOutput mpOprfReceiverOutput = mpOprfReceiverSession.oprf(clientElementByteArrays);
         IntStream clientElementIndexIntStream = IntStream.range(0, clientElementSize);
         clientElementIndexIntStream = parallel ? clientElementIndexIntStream.parallel() : clientElementIndexIntStream;
-        ArrayList<byte[]> clientOprfArrayList = clientElementIndexIntStream
-            .mapToObj(index -> peqtHash.digestToBytes(mpOprfReceiverOutput.getPrf(index)))
-            .collect(Collectors.toCollection(ArrayList::new));
+        // fingerprint filters directly take 128 bits of PRFs, other filters take hashed PRFs
+        long[] clientPrfFingerprints = null;
+        ArrayList<byte[]> clientOprfArrayList = null;
+        if (fingerprintFilter) {
+            long[] fingerprints = new long[clientElementSize * FingerprintFilter.FINGERPRINT_LONG_NUM];
+            clientElementIndexIntStream.forEach(index ->
+                PsiUtils.setPrfFingerprint(mpOprfReceiverOutput.getPrf(index), fingerprints, index)
+            );
+            clientPrfFingerprints = fingerprints;
+        } else {
+            clientOprfArrayList = clientElementIndexIntStream
+                .mapToObj(index -> peqtHash.digestToBytes(mpOprfReceiverOutput.getPrf(index)))
+                .collect(Collectors.toCollection(ArrayList::new));
+        }
         stopWatch.stop();
         long oprfTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -115,20 +230,30 @@ public abstract class AbstractMpOprfPsiClient<T> extends AbstractPsiClient<T> {
 
         stopWatch.start();
         Filter<byte[]> serverPrfFilter = FilterFactory.loadFilter(envType, serverPrfFilterPayload);
-        Set<T> intersection = IntStream.range(0, clientElementSize)
-            .mapToObj(elementIndex -> {
-                T element = clientElementArrayList.get(elementIndex);
-                byte[] elementPrf = clientOprfArrayList.get(elementIndex);
-                return serverPrfFilter.mightContain(elementPrf) ? element : null;
-            })
-            .filter(Objects::nonNull)
-            .collect(Collectors.toSet());
+        MpcAbortPreconditions.checkArgument(fingerprintFilter == (serverPrfFilter instanceof FingerprintFilter));
+        boolean[] contains;
+        if (fingerprintFilter) {
+            contains = ((FingerprintFilter<byte[]>) serverPrfFilter).mightContain(clientPrfFingerprints, parallel);
+        } else {
+            contains = new boolean[clientElementSize];
+            for (int elementIndex = 0; elementIndex < clientElementSize; elementIndex++) {
+                contains[elementIndex] = serverPrfFilter.mightContain(clientOprfArrayList.get(elementIndex));
+            }
+        }
         stopWatch.stop();
         long intersectionTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
         logStepInfo(PtoState.PTO_STEP, 3, 3, intersectionTime, "Client computes the intersection");
 
         logPhaseInfo(PtoState.PTO_END);
-        return intersection;
+        return contains;
+    }
+
+    @Override
+    public void destroy() {
+        if (mpOprfReceiverSession != null && !sharedSession) {
+            mpOprfReceiverSession.destroy();
+        }
+        super.destroy();
     }
 }
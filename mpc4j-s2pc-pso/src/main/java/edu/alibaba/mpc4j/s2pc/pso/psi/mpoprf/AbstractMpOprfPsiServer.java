@@ -1,7 +1,9 @@
 package edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf;
 
+import com.google.common.base.Preconditions;
 import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
 import edu.alibaba.mpc4j.common.rpc.Party;
+import edu.alibaba.mpc4j.common.rpc.PartyState;
 import edu.alibaba.mpc4j.common.rpc.PtoState;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
 import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
@@ -11,33 +13,55 @@ import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.HashFactory;
 import edu.alibaba.mpc4j.common.structure.filter.Filter;
+import edu.alibaba.mpc4j.common.structure.filter.FingerprintFilter;
 import edu.alibaba.mpc4j.common.structure.filter.FilterFactory;
 import edu.alibaba.mpc4j.common.structure.filter.FilterFactory.FilterType;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfConfig;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSender;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSenderSession;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSenderOutput;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
 import edu.alibaba.mpc4j.s2pc.pso.psi.AbstractPsiServer;
+import edu.alibaba.mpc4j.s2pc.pso.psi.FixedWidthPsiServer;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiUtils;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 /**
- * abstract mp-OPRF-based PSI server.
+ * abstract mp-OPRF-based PSI server. Fixed-width elements are directly fed into the mp-OPRF without being converted
+ * from objects. The mp-OPRF runs in a session, so that repeated PSI with the same client reuses the base OT / VOLE
+ * states, see {@link edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy}.
  *
  * @author Weiran Liu
  * @date 2023/9/10
  */
-public abstract class AbstractMpOprfPsiServer<T> extends AbstractPsiServer<T> {
+public abstract class AbstractMpOprfPsiServer<T> extends AbstractPsiServer<T> implements FixedWidthPsiServer<T> {
     /**
-     * mp-OPRF sender
+     * mp-OPRF config
      */
-    private final MpOprfSender mpOprfSender;
+    private final MpOprfConfig mpOprfConfig;
+    /**
+     * session policy
+     */
+    private final MpOprfSessionPolicy sessionPolicy;
+    /**
+     * mp-OPRF sender session
+     */
+    private MpOprfSenderSession mpOprfSenderSession;
+    /**
+     * whether the mp-OPRF sender session is shared with other instances
+     */
+    private boolean sharedSession;
     /**
      * filter type
      */
@@ -54,18 +78,52 @@ public abstract class AbstractMpOprfPsiServer<T> extends AbstractPsiServer<T> {
     public AbstractMpOprfPsiServer(PtoDesc ptoDesc, Rpc serverRpc, Party clientParty, MpOprfPsiConfig config) {
         super(ptoDesc, serverRpc, clientParty, config);
         securityModel = config.getSecurityModel();
-        mpOprfSender = OprfFactory.createMpOprfSender(serverRpc, clientParty, config.getMpOprfConfig());
-        addSubPto(mpOprfSender);
+        mpOprfConfig = config.getMpOprfConfig();
+        sessionPolicy = config.getSessionPolicy();
         filterType = config.getFilterType();
     }
 
+    /**
+     * Sets an mp-OPRF sender session shared with other instances, so that the session outlives this instance. The
+     * session must be created from the same mp-OPRF config, and is initialized by the first instance that is
+     * initialized. Destroying this instance does not destroy the shared session. This must be called before init.
+     *
+     * @param mpOprfSenderSession the shared mp-OPRF sender session.
+     */
+    public void setMpOprfSenderSession(MpOprfSenderSession mpOprfSenderSession) {
+        Preconditions.checkState(
+            partyState == PartyState.NON_INITIALIZED, "Party state must not be %s", partyState
+        );
+        this.mpOprfSenderSession = mpOprfSenderSession;
+        sharedSession = true;
+    }
+
     @Override
     public void init(int maxServerElementSize, int maxClientElementSize) throws MpcAbortException {
+        if (!sharedSession) {
+            // sub-protocols must be added before the state is set to be initialized
+            Rpc serverRpc = getRpc();
+            Party clientParty = otherParty();
+            MpOprfSender mpOprfSender = OprfFactory.createMpOprfSender(serverRpc, clientParty, mpOprfConfig);
+            addSubPto(mpOprfSender);
+            // a protocol can only be initialized once, a session reset replaces the sub-protocol with a fresh one
+            mpOprfSenderSession = new MpOprfSenderSession(mpOprfSender, destroyedMpOprfSender -> {
+                MpOprfSender freshMpOprfSender = OprfFactory.createMpOprfSender(serverRpc, clientParty, mpOprfConfig);
+                replaceSubPto(destroyedMpOprfSender, freshMpOprfSender);
+                return freshMpOprfSender;
+            }, sessionPolicy);
+        }
         setInitInput(maxServerElementSize, maxClientElementSize);
         logPhaseInfo(PtoState.INIT_BEGIN);
 
         stopWatch.start();
-        mpOprfSender.init(maxClientElementSize);
+        if (mpOprfSenderSession.isInitialized()) {
+            MathPreconditions.checkLessOrEqual(
+                "maxClientElementSize", maxClientElementSize, mpOprfSenderSession.getSessionMaxBatchSize()
+            );
+        } else {
+            mpOprfSenderSession.init(maxClientElementSize);
+        }
         stopWatch.stop();
         long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -77,6 +135,24 @@ public abstract class AbstractMpOprfPsiServer<T> extends AbstractPsiServer<T> {
     @Override
     public void psi(Set<T> serverElementSet, int clientElementSize) throws MpcAbortException {
         setPtoInput(serverElementSet, clientElementSize);
+        psi(index -> ObjectUtils.objectToByteArray(serverElementArrayList.get(index)));
+    }
+
+    @Override
+    public void psi(byte[] serverElements, int elementByteLength, int clientElementSize) throws MpcAbortException {
+        setPtoInput(serverElements, elementByteLength, clientElementSize);
+        // the mp-OPRF takes each input as a separate byte array, so each element is still copied once at this boundary
+        psi(index -> Arrays.copyOfRange(serverElements, index * elementByteLength, (index + 1) * elementByteLength));
+    }
+
+    /**
+     * Runs the protocol. For flat byte-array inputs, this avoids the Set and ObjectUtils conversions, but each element
+     * is still copied into its own byte array, since the mp-OPRF API only takes separate byte arrays as inputs.
+     *
+     * @param serverElementFunction function that gets the byte array of the server element with the given index.
+     * @throws MpcAbortException If protocol aborts.
+     */
+    private void psi(IntFunction<byte[]> serverElementFunction) throws MpcAbortException {
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
@@ -92,6 +168,9 @@ public abstract class AbstractMpOprfPsiServer<T> extends AbstractPsiServer<T> {
             default:
                 throw new IllegalArgumentException("Invalid " + SecurityModel.class.getSimpleName() + ": " + securityModel);
         }
+        if (FilterFactory.isFingerprintFilter(filterType)) {
+            PsiUtils.checkFingerprintByteLength(peqtByteLength);
+        }
         peqtHash = HashFactory.createInstance(envType, peqtByteLength);
         stopWatch.stop();
         long prepareInputTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -99,26 +178,46 @@ public abstract class AbstractMpOprfPsiServer<T> extends AbstractPsiServer<T> {
         logStepInfo(PtoState.PTO_STEP, 1, 3, prepareInputTime, "Server prepares tools");
 
         stopWatch.start();
-        MpOprfSenderOutput mpOprfSenderOutput = mpOprfSender.oprf(clientElementSize);
+        MpOprfSenderOutput mpOprfSenderOutput = mpOprfSenderSession.oprf(clientElementSize);
         stopWatch.stop();
         long oprfTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
         logStepInfo(PtoState.PTO_STEP, 2, 3, oprfTime, "Server runs mp-OPRFs");
 
         stopWatch.start();
-        Stream<T> serverElementStream = serverElementArrayList.stream();
-        serverElementStream = parallel ? serverElementStream.parallel() : serverElementStream;
-        List<byte[]> serverPrfs = serverElementStream
-            .map(element -> {
-                byte[] elementByteArray = ObjectUtils.objectToByteArray(element);
-                byte[] prf = mpOprfSenderOutput.getPrf(elementByteArray);
-                return peqtHash.digestToBytes(prf);
-            })
-            .collect(Collectors.toList());
-        Collections.shuffle(serverPrfs, secureRandom);
-        // construct the filter
+        IntStream serverElementIndexStream = IntStream.range(0, serverElementSize);
+        serverElementIndexStream = parallel ? serverElementIndexStream.parallel() : serverElementIndexStream;
         Filter<byte[]> serverPrfFilter = FilterFactory.createFilter(envType, filterType, serverElementSize, secureRandom);
-        serverPrfs.forEach(serverPrfFilter::put);
+        if (serverPrfFilter instanceof FingerprintFilter<byte[]> serverPrfFingerprintFilter) {
+            // fingerprint filters directly take 128 bits of PRFs and support concurrent insertions
+            long[] serverPrfFingerprints = new long[serverElementSize * FingerprintFilter.FINGERPRINT_LONG_NUM];
+            serverElementIndexStream.forEach(index -> PsiUtils.setPrfFingerprint(
+                mpOprfSenderOutput.getPrf(serverElementFunction.apply(index)), serverPrfFingerprints, index
+            ));
+            // the layout of the filter may depend on the insertion order, shuffle before insertion
+            for (int i = serverElementSize - 1; i > 0; i--) {
+                int j = secureRandom.nextInt(i + 1);
+                for (int k = 0; k < FingerprintFilter.FINGERPRINT_LONG_NUM; k++) {
+                    int iOffset = i * FingerprintFilter.FINGERPRINT_LONG_NUM + k;
+                    int jOffset = j * FingerprintFilter.FINGERPRINT_LONG_NUM + k;
+                    long temp = serverPrfFingerprints[iOffset];
+                    serverPrfFingerprints[iOffset] = serverPrfFingerprints[jOffset];
+                    serverPrfFingerprints[jOffset] = temp;
+                }
+            }
+            serverPrfFingerprintFilter.putFingerprints(serverPrfFingerprints, parallel);
+        } else {
+            List<byte[]> serverPrfs = serverElementIndexStream
+                .mapToObj(index -> {
+                    byte[] elementByteArray = serverElementFunction.apply(index);
+                    byte[] prf = mpOprfSenderOutput.getPrf(elementByteArray);
+                    return peqtHash.digestToBytes(prf);
+                })
+                .collect(Collectors.toList());
+            Collections.shuffle(serverPrfs, secureRandom);
+            // construct the filter
+            serverPrfs.forEach(serverPrfFilter::put);
+        }
         List<byte[]> serverPrfFilterPayload = serverPrfFilter.save();
         DataPacketHeader serverPrfFilterHeader = new DataPacketHeader(
             encodeTaskId, getPtoDesc().getPtoId(), MpOprfPsiPtoStep.SERVER_SEND_PRFS.ordinal(),
@@ -132,4 +231,12 @@ public abstract class AbstractMpOprfPsiServer<T> extends AbstractPsiServer<T> {
 
         logPhaseInfo(PtoState.PTO_END);
     }
+
+    @Override
+    public void destroy() {
+        if (mpOprfSenderSession != null && !sharedSession) {
+            mpOprfSenderSession.destroy();
+        }
+        super.destroy();
+    }
 }
@@ -1,6 +1,7 @@
 package edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf;
 
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfConfig;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy;
 import edu.alibaba.mpc4j.s2pc.pso.psi.FilterPsiConfig;
 
 /**
@@ -16,4 +17,11 @@ public interface MpOprfPsiConfig extends FilterPsiConfig {
      * @return mp-OPRF config.
      */
     MpOprfConfig getMpOprfConfig();
+
+    /**
+     * Gets mp-OPRF session policy.
+     *
+     * @return mp-OPRF session policy.
+     */
+    MpOprfSessionPolicy getSessionPolicy();
 }
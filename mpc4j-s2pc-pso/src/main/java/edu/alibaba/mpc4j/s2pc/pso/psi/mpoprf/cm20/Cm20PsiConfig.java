@@ -4,6 +4,7 @@ import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
 import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
 import edu.alibaba.mpc4j.common.structure.filter.FilterFactory.FilterType;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfConfig;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.cm20.Cm20MpOprfConfig;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiFactory.PsiType;
 import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.MpOprfPsiConfig;
@@ -23,11 +24,16 @@ public class Cm20PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
      * filter type
      */
     private final FilterType filterType;
+    /**
+     * MP-OPRF session policy
+     */
+    private final MpOprfSessionPolicy sessionPolicy;
 
     private Cm20PsiConfig(Cm20PsiConfig.Builder builder) {
         super(SecurityModel.SEMI_HONEST, builder.mpOprfConfig);
         mpOprfConfig = builder.mpOprfConfig;
         filterType = builder.filterType;
+        sessionPolicy = builder.sessionPolicy;
     }
 
     @Override
@@ -45,6 +51,11 @@ public class Cm20PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
         return filterType;
     }
 
+    @Override
+    public MpOprfSessionPolicy getSessionPolicy() {
+        return sessionPolicy;
+    }
+
     public static class Builder implements org.apache.commons.lang3.builder.Builder<Cm20PsiConfig> {
         /**
          * MP-OPRF config
@@ -54,10 +65,15 @@ public class Cm20PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
          * filter type
          */
         private FilterType filterType;
+        /**
+         * MP-OPRF session policy
+         */
+        private MpOprfSessionPolicy sessionPolicy;
 
         public Builder() {
             mpOprfConfig = new Cm20MpOprfConfig.Builder().build();
             filterType = FilterType.SET_FILTER;
+            sessionPolicy = new MpOprfSessionPolicy.Builder().build();
         }
 
         public Builder setFilterType(FilterType filterType) {
@@ -65,6 +81,11 @@ public class Cm20PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
             return this;
         }
 
+        public Builder setSessionPolicy(MpOprfSessionPolicy sessionPolicy) {
+            this.sessionPolicy = sessionPolicy;
+            return this;
+        }
+
         @Override
         public Cm20PsiConfig build() {
             return new Cm20PsiConfig(this);
@@ -5,6 +5,7 @@ import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
 import edu.alibaba.mpc4j.common.structure.filter.FilterFactory.FilterType;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvsFactory.Gf2kDokvsType;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfConfig;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.rs21.Rs21MpOprfConfig;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiFactory.PsiType;
 import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.MpOprfPsiConfig;
@@ -24,11 +25,16 @@ public class Rr22PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
      * filter type
      */
     private final FilterType filterType;
+    /**
+     * MP-OPRF session policy
+     */
+    private final MpOprfSessionPolicy sessionPolicy;
 
     private Rr22PsiConfig(Builder builder) {
         super(SecurityModel.MALICIOUS, builder.mpOprfConfig);
         mpOprfConfig = builder.mpOprfConfig;
         filterType = builder.filterType;
+        sessionPolicy = builder.sessionPolicy;
     }
 
     @Override
@@ -46,25 +52,38 @@ public class Rr22PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
         return filterType;
     }
 
+    @Override
+    public MpOprfSessionPolicy getSessionPolicy() {
+        return sessionPolicy;
+    }
+
     public static class Builder implements org.apache.commons.lang3.builder.Builder<Rr22PsiConfig> {
+        /**
+         * MP-OPRF config builder
+         */
+        private final Rs21MpOprfConfig.Builder mpOprfConfigBuilder;
         /**
          * MP-OPRF config
          */
-        private final MpOprfConfig mpOprfConfig;
+        private MpOprfConfig mpOprfConfig;
         /**
          * filter type
          */
         private FilterType filterType;
+        /**
+         * MP-OPRF session policy
+         */
+        private MpOprfSessionPolicy sessionPolicy;
 
         public Builder(SecurityModel securityModel) {
             this(securityModel, Gf2kDokvsType.H3_CLUSTER_FIELD_BLAZE_GCT);
         }
 
         public Builder(SecurityModel securityModel, Gf2kDokvsType okvsType) {
-            mpOprfConfig = new Rs21MpOprfConfig.Builder(securityModel)
-                .setOkvsType(okvsType)
-                .build();
+            mpOprfConfigBuilder = new Rs21MpOprfConfig.Builder(securityModel)
+                .setOkvsType(okvsType);
             filterType = FilterType.SET_FILTER;
+            sessionPolicy = new MpOprfSessionPolicy.Builder().build();
         }
 
         public Builder setFilterType(FilterType filterType) {
@@ -72,8 +91,19 @@ public class Rr22PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
             return this;
         }
 
+        public Builder setSessionPolicy(MpOprfSessionPolicy sessionPolicy) {
+            this.sessionPolicy = sessionPolicy;
+            return this;
+        }
+
+        public Builder setPipeline(boolean pipeline) {
+            mpOprfConfigBuilder.setPipeline(pipeline);
+            return this;
+        }
+
         @Override
         public Rr22PsiConfig build() {
+            mpOprfConfig = mpOprfConfigBuilder.build();
             return new Rr22PsiConfig(this);
         }
     }
@@ -5,6 +5,7 @@ import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
 import edu.alibaba.mpc4j.common.structure.filter.FilterFactory.FilterType;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2k.Gf2kDokvsFactory.Gf2kDokvsType;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfConfig;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.rs21.Rs21MpOprfConfig;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiFactory.PsiType;
 import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.MpOprfPsiConfig;
@@ -24,11 +25,16 @@ public class Rs21PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
      * filter type
      */
     private final FilterType filterType;
+    /**
+     * MP-OPRF session policy
+     */
+    private final MpOprfSessionPolicy sessionPolicy;
 
     private Rs21PsiConfig(Builder builder) {
         super(SecurityModel.MALICIOUS, builder.mpOprfConfig);
         mpOprfConfig = builder.mpOprfConfig;
         filterType = builder.filterType;
+        sessionPolicy = builder.sessionPolicy;
     }
 
     @Override
@@ -46,6 +52,11 @@ public class Rs21PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
         return filterType;
     }
 
+    @Override
+    public MpOprfSessionPolicy getSessionPolicy() {
+        return sessionPolicy;
+    }
+
     public static class Builder implements org.apache.commons.lang3.builder.Builder<Rs21PsiConfig> {
         /**
          * MP-OPRF config
@@ -55,12 +66,17 @@ public class Rs21PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
          * filter type
          */
         private FilterType filterType;
+        /**
+         * MP-OPRF session policy
+         */
+        private MpOprfSessionPolicy sessionPolicy;
 
         public Builder(SecurityModel securityModel) {
             mpOprfConfig = new Rs21MpOprfConfig.Builder(securityModel)
                 .setOkvsType(Gf2kDokvsType.H2_BINARY_SINGLETON_GCT)
                 .build();
             filterType = FilterType.SET_FILTER;
+            sessionPolicy = new MpOprfSessionPolicy.Builder().build();
         }
 
         public Builder setFilterType(FilterType filterType) {
@@ -68,6 +84,11 @@ public class Rs21PsiConfig extends AbstractMultiPartyPtoConfig implements MpOprf
             return this;
         }
 
+        public Builder setSessionPolicy(MpOprfSessionPolicy sessionPolicy) {
+            this.sessionPolicy = sessionPolicy;
+            return this;
+        }
+
         @Override
         public Rs21PsiConfig build() {
             return new Rs21PsiConfig(this);
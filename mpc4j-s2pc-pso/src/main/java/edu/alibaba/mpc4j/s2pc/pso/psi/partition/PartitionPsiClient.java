@@ -0,0 +1,215 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi.partition;
+
+import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyPto;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
+import edu.alibaba.mpc4j.s2pc.pso.psi.PsiClient;
+import edu.alibaba.mpc4j.s2pc.pso.psi.PsiFactory;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static edu.alibaba.mpc4j.s2pc.pso.psi.partition.PartitionPsiPtoDesc.CLIENT_DUMMY_DOMAIN;
+import static edu.alibaba.mpc4j.s2pc.pso.psi.partition.PartitionPsiPtoDesc.PtoStep;
+import static edu.alibaba.mpc4j.s2pc.pso.psi.partition.PartitionPsiPtoDesc.getInstance;
+
+/**
+ * partition PSI client. The client reads elements from a file, hash-partitions elements into bucket files, runs the
+ * PSI protocol bucket by bucket, and writes the intersection of each bucket into the output file once the bucket is
+ * done, so that neither the input set nor the intersection is fully in memory. Buckets are padded to the max bucket
+ * size, so that every bucket costs the same.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+public class PartitionPsiClient extends AbstractTwoPartyPto {
+    /**
+     * bucket num
+     */
+    private final int bucketNum;
+    /**
+     * directory for bucket files
+     */
+    private final String bucketDirectory;
+    /**
+     * PSI clients, one for each concurrent bucket
+     */
+    private final List<PsiClient<ByteBuffer>> psiClients;
+    /**
+     * partitioner
+     */
+    private PsiPartitioner partitioner;
+    /**
+     * max client bucket size
+     */
+    private int maxClientBucketSize;
+    /**
+     * max server bucket size
+     */
+    private int maxServerBucketSize;
+
+    public PartitionPsiClient(Rpc clientRpc, Party serverParty, PartitionPsiConfig config) {
+        super(getInstance(), clientRpc, serverParty, config);
+        bucketNum = config.getBucketNum();
+        bucketDirectory = config.getBucketDirectory();
+        int concurrentBucketNum = Math.min(config.getConcurrentBucketNum(), bucketNum);
+        psiClients = new ArrayList<>(concurrentBucketNum);
+        for (int i = 0; i < concurrentBucketNum; i++) {
+            PsiClient<ByteBuffer> psiClient = PsiFactory.createClient(clientRpc, serverParty, config.getPsiConfig());
+            addSubPto(psiClient);
+            psiClients.add(psiClient);
+        }
+    }
+
+    /**
+     * Inits the protocol.
+     *
+     * @param maxClientElementSize max client element size.
+     * @param maxServerElementSize max server element size.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public void init(int maxClientElementSize, int maxServerElementSize) throws MpcAbortException {
+        MathPreconditions.checkPositive("maxClientElementSize", maxClientElementSize);
+        MathPreconditions.checkPositive("maxServerElementSize", maxServerElementSize);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        List<byte[]> partitionKeyPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_PARTITION_KEY.ordinal());
+        MpcAbortPreconditions.checkArgument(partitionKeyPayload.size() == 1);
+        MpcAbortPreconditions.checkArgument(partitionKeyPayload.get(0).length == CommonConstants.BLOCK_BYTE_LENGTH);
+        partitioner = new PsiPartitioner(envType, partitionKeyPayload.get(0), bucketNum);
+        maxClientBucketSize = PsiPartitioner.maxBucketSize(maxClientElementSize, bucketNum);
+        maxServerBucketSize = PsiPartitioner.maxBucketSize(maxServerElementSize, bucketNum);
+        stopWatch.stop();
+        long keyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 2, keyTime, "Client receives partition key");
+
+        stopWatch.start();
+        try {
+            PsiPartitioner.runWorkers(
+                psiClients.size(), i -> psiClients.get(i).init(maxClientBucketSize, maxServerBucketSize)
+            );
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 2, 2, initTime, "Client inits " + psiClients.size() + " PSI instances");
+
+        initState();
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    /**
+     * Executes the protocol. Elements in the file must be distinct and have the same byte length. With more than one
+     * bucket, each bucket is padded to the max bucket size with dummy elements and every bucket is run, so that the
+     * server learns nothing about the bucket sizes.
+     *
+     * @param clientElementFile client element file, one hex-encoded element per line.
+     * @param elementByteLength element byte length.
+     * @param intersectionFile  output file of the intersection, one hex-encoded element per line.
+     * @return intersection size.
+     * @throws MpcAbortException the protocol failure aborts.
+     * @throws IOException       if an I/O error occurs.
+     */
+    public long psi(String clientElementFile, int elementByteLength, String intersectionFile)
+        throws MpcAbortException, IOException {
+        checkInitialized();
+        MathPreconditions.checkPositive("elementByteLength", elementByteLength);
+        if (bucketNum > 1) {
+            // buckets are padded with dummy elements, which requires room for a counter
+            MathPreconditions.checkGreaterOrEqual("elementByteLength", elementByteLength, Integer.BYTES);
+        }
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        int[] clientBucketSizes;
+        int clientBucketSize;
+        int serverBucketSize;
+        try {
+            // element byte lengths are checked while partitioning, before anything is sent
+            clientBucketSizes = partitioner.partition(
+                clientElementFile, bucketDirectory, "partition_psi_client_", elementByteLength
+            );
+            // with more than one bucket, only the max bucket size (or -1 if a bucket overflows) is sent
+            clientBucketSize = PsiPartitioner.paddedBucketSize(clientBucketSizes, maxClientBucketSize);
+            List<byte[]> serverBucketSizePayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_BUCKET_SIZE.ordinal());
+            sendOtherPartyPayload(
+                PtoStep.CLIENT_SEND_BUCKET_SIZE.ordinal(),
+                Collections.singletonList(IntUtils.intToByteArray(clientBucketSize))
+            );
+            MpcAbortPreconditions.checkArgument(serverBucketSizePayload.size() == 1);
+            MpcAbortPreconditions.checkArgument(serverBucketSizePayload.get(0).length == Integer.BYTES);
+            serverBucketSize = IntUtils.byteArrayToInt(serverBucketSizePayload.get(0));
+            // both parties check both bucket sizes, so that both parties abort if any bucket overflows
+            MpcAbortPreconditions.checkArgument(clientBucketSize >= 0);
+            MpcAbortPreconditions.checkArgument(
+                partitioner.isValidPaddedBucketSize(serverBucketSize, maxServerBucketSize)
+            );
+        } catch (MpcAbortException | IOException | IllegalArgumentException e) {
+            partitioner.clean();
+            throw e;
+        }
+        stopWatch.stop();
+        long partitionTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, partitionTime, "Client partitions elements into buckets");
+
+        stopWatch.start();
+        int concurrentBucketNum = psiClients.size();
+        AtomicLong intersectionSize = new AtomicLong();
+        Path intersectionPath = Paths.get(intersectionFile);
+        try (BufferedWriter writer = Files.newBufferedWriter(intersectionPath, CommonConstants.DEFAULT_CHARSET)) {
+            PsiPartitioner.runWorkers(concurrentBucketNum, i -> {
+                for (int bucketIndex = i; bucketIndex < bucketNum; bucketIndex += concurrentBucketNum) {
+                    Set<ByteBuffer> clientBucket = partitioner.readBucket(bucketIndex, clientBucketSizes[bucketIndex]);
+                    byte[][] dummyElements = bucketNum > 1
+                        ? partitioner.dummyElements(
+                            bucketIndex, elementByteLength, CLIENT_DUMMY_DOMAIN, clientBucketSize - clientBucket.size()
+                        )
+                        : new byte[0][];
+                    for (byte[] dummyElement : dummyElements) {
+                        clientBucket.add(ByteBuffer.wrap(dummyElement));
+                    }
+                    // padded buckets are never empty, only the single bucket is skipped if either party has no element
+                    if (clientBucketSize > 0 && serverBucketSize > 0) {
+                        // dummy elements of the two parties are in different domains, so they are never in the output
+                        Set<ByteBuffer> intersection = psiClients.get(i).psi(clientBucket, serverBucketSize);
+                        synchronized (writer) {
+                            for (ByteBuffer element : intersection) {
+                                writer.write(Hex.toHexString(element.array()));
+                                writer.newLine();
+                            }
+                        }
+                        intersectionSize.addAndGet(intersection.size());
+                    }
+                    partitioner.deleteBucket(bucketIndex);
+                }
+            });
+        } finally {
+            partitioner.clean();
+        }
+        stopWatch.stop();
+        long psiTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 2, psiTime, "Client runs PSI in " + bucketNum + " buckets");
+
+        logPhaseInfo(PtoState.PTO_END);
+        return intersectionSize.get();
+    }
+}
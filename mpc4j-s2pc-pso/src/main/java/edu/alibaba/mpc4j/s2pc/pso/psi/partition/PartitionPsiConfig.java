@@ -0,0 +1,122 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi.partition;
+
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.s2pc.pso.psi.PsiConfig;
+
+/**
+ * partition PSI config.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+public class PartitionPsiConfig extends AbstractMultiPartyPtoConfig {
+    /**
+     * PSI config used in each bucket
+     */
+    private final PsiConfig psiConfig;
+    /**
+     * bucket num
+     */
+    private final int bucketNum;
+    /**
+     * number of buckets processed concurrently
+     */
+    private final int concurrentBucketNum;
+    /**
+     * directory for bucket files, null if using the system temporary directory
+     */
+    private final String bucketDirectory;
+
+    private PartitionPsiConfig(Builder builder) {
+        super(builder.psiConfig.getSecurityModel(), builder.psiConfig);
+        psiConfig = builder.psiConfig;
+        bucketNum = builder.bucketNum;
+        concurrentBucketNum = builder.concurrentBucketNum;
+        bucketDirectory = builder.bucketDirectory;
+    }
+
+    public PsiConfig getPsiConfig() {
+        return psiConfig;
+    }
+
+    public int getBucketNum() {
+        return bucketNum;
+    }
+
+    public int getConcurrentBucketNum() {
+        return concurrentBucketNum;
+    }
+
+    public String getBucketDirectory() {
+        return bucketDirectory;
+    }
+
+    public static class Builder implements org.apache.commons.lang3.builder.Builder<PartitionPsiConfig> {
+        /**
+         * PSI config used in each bucket
+         */
+        private final PsiConfig psiConfig;
+        /**
+         * bucket num
+         */
+        private int bucketNum;
+        /**
+         * number of buckets processed concurrently
+         */
+        private int concurrentBucketNum;
+        /**
+         * directory for bucket files
+         */
+        private String bucketDirectory;
+
+        public Builder(PsiConfig psiConfig) {
+            this.psiConfig = psiConfig;
+            bucketNum = 1 << 8;
+            concurrentBucketNum = 1;
+            bucketDirectory = null;
+        }
+
+        /**
+         * Sets the bucket num. Both parties must use the same bucket num. The memory used by a bucket is about
+         * 1 / bucketNum of the memory used by running the PSI protocol on the whole set.
+         *
+         * @param bucketNum bucket num.
+         * @return the builder.
+         */
+        public Builder setBucketNum(int bucketNum) {
+            MathPreconditions.checkPositive("bucket_num", bucketNum);
+            this.bucketNum = bucketNum;
+            return this;
+        }
+
+        /**
+         * Sets the number of buckets processed concurrently. Both parties must use the same number. Each concurrent
+         * bucket runs its own PSI instance, so that the memory usage grows linearly with the number.
+         *
+         * @param concurrentBucketNum number of buckets processed concurrently.
+         * @return the builder.
+         */
+        public Builder setConcurrentBucketNum(int concurrentBucketNum) {
+            MathPreconditions.checkPositive("concurrent_bucket_num", concurrentBucketNum);
+            this.concurrentBucketNum = concurrentBucketNum;
+            return this;
+        }
+
+        /**
+         * Sets the directory for bucket files.
+         *
+         * @param bucketDirectory directory for bucket files.
+         * @return the builder.
+         */
+        public Builder setBucketDirectory(String bucketDirectory) {
+            this.bucketDirectory = bucketDirectory;
+            return this;
+        }
+
+        @Override
+        public PartitionPsiConfig build() {
+            return new PartitionPsiConfig(this);
+        }
+    }
+}
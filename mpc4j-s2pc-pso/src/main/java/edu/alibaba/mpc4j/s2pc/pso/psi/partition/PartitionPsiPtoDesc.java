@@ -0,0 +1,81 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi.partition;
+
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDescManager;
+
+/**
+ * partition PSI protocol description. Both parties hash-partition their elements into buckets on disk with a public
+ * partition key, and run a PSI protocol in each bucket. With more than one bucket, both parties pad each bucket to the
+ * max bucket size with dummy elements and run every bucket, so that the bucket sizes are not revealed. The server and
+ * the client take dummy elements from different domains, so that dummy elements never match.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+class PartitionPsiPtoDesc implements PtoDesc {
+    /**
+     * protocol ID
+     */
+    private static final int PTO_ID = Math.abs((int) 4217369850147622311L);
+    /**
+     * protocol name
+     */
+    private static final String PTO_NAME = "PARTITION_PSI";
+
+    /**
+     * domain of server dummy elements
+     */
+    static final int SERVER_DUMMY_DOMAIN = 0;
+    /**
+     * domain of client dummy elements
+     */
+    static final int CLIENT_DUMMY_DOMAIN = 1;
+
+    /**
+     * protocol step
+     */
+    enum PtoStep {
+        /**
+         * server sends the partition key
+         */
+        SERVER_SEND_PARTITION_KEY,
+        /**
+         * server sends the bucket size
+         */
+        SERVER_SEND_BUCKET_SIZE,
+        /**
+         * client sends the bucket size
+         */
+        CLIENT_SEND_BUCKET_SIZE,
+    }
+
+    /**
+     * singleton mode
+     */
+    private static final PartitionPsiPtoDesc INSTANCE = new PartitionPsiPtoDesc();
+
+    /**
+     * private constructor.
+     */
+    private PartitionPsiPtoDesc() {
+        // empty
+    }
+
+    public static PtoDesc getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        PtoDescManager.registerPtoDesc(getInstance());
+    }
+
+    @Override
+    public int getPtoId() {
+        return PTO_ID;
+    }
+
+    @Override
+    public String getPtoName() {
+        return PTO_NAME;
+    }
+}
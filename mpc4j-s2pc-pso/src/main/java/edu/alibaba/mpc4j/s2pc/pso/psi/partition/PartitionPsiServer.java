@@ -0,0 +1,194 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi.partition;
+
+import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyPto;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
+import edu.alibaba.mpc4j.s2pc.pso.psi.PsiFactory;
+import edu.alibaba.mpc4j.s2pc.pso.psi.PsiServer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static edu.alibaba.mpc4j.s2pc.pso.psi.partition.PartitionPsiPtoDesc.PtoStep;
+import static edu.alibaba.mpc4j.s2pc.pso.psi.partition.PartitionPsiPtoDesc.SERVER_DUMMY_DOMAIN;
+import static edu.alibaba.mpc4j.s2pc.pso.psi.partition.PartitionPsiPtoDesc.getInstance;
+
+/**
+ * partition PSI server. The server reads elements from a file, hash-partitions elements into bucket files, and runs
+ * the PSI protocol bucket by bucket, so that only one bucket is in memory for each concurrent PSI instance. Each PSI
+ * instance is initialized once and reused for all buckets assigned to it. Concurrent PSI instances are sub-protocols
+ * with independent task IDs. Buckets are padded to the max bucket size, so that every bucket costs the same.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+public class PartitionPsiServer extends AbstractTwoPartyPto {
+    /**
+     * bucket num
+     */
+    private final int bucketNum;
+    /**
+     * directory for bucket files
+     */
+    private final String bucketDirectory;
+    /**
+     * PSI servers, one for each concurrent bucket
+     */
+    private final List<PsiServer<ByteBuffer>> psiServers;
+    /**
+     * partitioner
+     */
+    private PsiPartitioner partitioner;
+    /**
+     * max server bucket size
+     */
+    private int maxServerBucketSize;
+    /**
+     * max client bucket size
+     */
+    private int maxClientBucketSize;
+
+    public PartitionPsiServer(Rpc serverRpc, Party clientParty, PartitionPsiConfig config) {
+        super(getInstance(), serverRpc, clientParty, config);
+        bucketNum = config.getBucketNum();
+        bucketDirectory = config.getBucketDirectory();
+        int concurrentBucketNum = Math.min(config.getConcurrentBucketNum(), bucketNum);
+        psiServers = new ArrayList<>(concurrentBucketNum);
+        for (int i = 0; i < concurrentBucketNum; i++) {
+            PsiServer<ByteBuffer> psiServer = PsiFactory.createServer(serverRpc, clientParty, config.getPsiConfig());
+            addSubPto(psiServer);
+            psiServers.add(psiServer);
+        }
+    }
+
+    /**
+     * Inits the protocol.
+     *
+     * @param maxServerElementSize max server element size.
+     * @param maxClientElementSize max client element size.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public void init(int maxServerElementSize, int maxClientElementSize) throws MpcAbortException {
+        MathPreconditions.checkPositive("maxServerElementSize", maxServerElementSize);
+        MathPreconditions.checkPositive("maxClientElementSize", maxClientElementSize);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        byte[] partitionKey = BlockUtils.randomBlock(secureRandom);
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_PARTITION_KEY.ordinal(), Collections.singletonList(partitionKey));
+        partitioner = new PsiPartitioner(envType, partitionKey, bucketNum);
+        maxServerBucketSize = PsiPartitioner.maxBucketSize(maxServerElementSize, bucketNum);
+        maxClientBucketSize = PsiPartitioner.maxBucketSize(maxClientElementSize, bucketNum);
+        stopWatch.stop();
+        long keyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 2, keyTime, "Server sends partition key");
+
+        stopWatch.start();
+        try {
+            PsiPartitioner.runWorkers(
+                psiServers.size(), i -> psiServers.get(i).init(maxServerBucketSize, maxClientBucketSize)
+            );
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 2, 2, initTime, "Server inits " + psiServers.size() + " PSI instances");
+
+        initState();
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    /**
+     * Executes the protocol. Elements in the file must be distinct and have the same byte length. With more than one
+     * bucket, each bucket is padded to the max bucket size with dummy elements and every bucket is run, so that the
+     * client learns nothing about the bucket sizes.
+     *
+     * @param serverElementFile server element file, one hex-encoded element per line.
+     * @param elementByteLength element byte length.
+     * @throws MpcAbortException the protocol failure aborts.
+     * @throws IOException       if an I/O error occurs.
+     */
+    public void psi(String serverElementFile, int elementByteLength) throws MpcAbortException, IOException {
+        checkInitialized();
+        MathPreconditions.checkPositive("elementByteLength", elementByteLength);
+        if (bucketNum > 1) {
+            // buckets are padded with dummy elements, which requires room for a counter
+            MathPreconditions.checkGreaterOrEqual("elementByteLength", elementByteLength, Integer.BYTES);
+        }
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        int[] serverBucketSizes;
+        int serverBucketSize;
+        int clientBucketSize;
+        try {
+            // element byte lengths are checked while partitioning, before anything is sent
+            serverBucketSizes = partitioner.partition(
+                serverElementFile, bucketDirectory, "partition_psi_server_", elementByteLength
+            );
+            // with more than one bucket, only the max bucket size (or -1 if a bucket overflows) is sent
+            serverBucketSize = PsiPartitioner.paddedBucketSize(serverBucketSizes, maxServerBucketSize);
+            sendOtherPartyPayload(
+                PtoStep.SERVER_SEND_BUCKET_SIZE.ordinal(),
+                Collections.singletonList(IntUtils.intToByteArray(serverBucketSize))
+            );
+            List<byte[]> clientBucketSizePayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_BUCKET_SIZE.ordinal());
+            MpcAbortPreconditions.checkArgument(clientBucketSizePayload.size() == 1);
+            MpcAbortPreconditions.checkArgument(clientBucketSizePayload.get(0).length == Integer.BYTES);
+            clientBucketSize = IntUtils.byteArrayToInt(clientBucketSizePayload.get(0));
+            // both parties check both bucket sizes, so that both parties abort if any bucket overflows
+            MpcAbortPreconditions.checkArgument(serverBucketSize >= 0);
+            MpcAbortPreconditions.checkArgument(
+                partitioner.isValidPaddedBucketSize(clientBucketSize, maxClientBucketSize)
+            );
+        } catch (MpcAbortException | IOException | IllegalArgumentException e) {
+            partitioner.clean();
+            throw e;
+        }
+        stopWatch.stop();
+        long partitionTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, partitionTime, "Server partitions elements into buckets");
+
+        stopWatch.start();
+        int concurrentBucketNum = psiServers.size();
+        try {
+            PsiPartitioner.runWorkers(concurrentBucketNum, i -> {
+                for (int bucketIndex = i; bucketIndex < bucketNum; bucketIndex += concurrentBucketNum) {
+                    Set<ByteBuffer> serverBucket = partitioner.readBucket(bucketIndex, serverBucketSizes[bucketIndex]);
+                    byte[][] dummyElements = bucketNum > 1
+                        ? partitioner.dummyElements(
+                            bucketIndex, elementByteLength, SERVER_DUMMY_DOMAIN, serverBucketSize - serverBucket.size()
+                        )
+                        : new byte[0][];
+                    for (byte[] dummyElement : dummyElements) {
+                        serverBucket.add(ByteBuffer.wrap(dummyElement));
+                    }
+                    // padded buckets are never empty, only the single bucket is skipped if either party has no element
+                    if (serverBucketSize > 0 && clientBucketSize > 0) {
+                        psiServers.get(i).psi(serverBucket, clientBucketSize);
+                    }
+                    partitioner.deleteBucket(bucketIndex);
+                }
+            });
+        } finally {
+            partitioner.clean();
+        }
+        stopWatch.stop();
+        long psiTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 2, psiTime, "Server runs PSI in " + bucketNum + " buckets");
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+}
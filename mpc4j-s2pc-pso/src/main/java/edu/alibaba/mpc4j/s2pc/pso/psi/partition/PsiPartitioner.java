@@ -0,0 +1,325 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi.partition;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
+import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
+import edu.alibaba.mpc4j.common.tool.hashbin.MaxBinSizeUtils;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PSI partitioner. Elements are stored in files, one hex-encoded element per line. The partitioner hash-partitions
+ * elements into bucket files with a keyed PRF, so that equal elements of both parties fall into the same bucket, and
+ * reads buckets one at a time so that the memory usage is bounded by the bucket size. The partitioner is shared by
+ * out-of-core protocols that run a set operation bucket by bucket, e.g., partition PSI and partition PSU.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+public class PsiPartitioner {
+    /**
+     * bucket num
+     */
+    private final int bucketNum;
+    /**
+     * partition PRF
+     */
+    private final Prf prf;
+    /**
+     * bucket directory
+     */
+    private Path bucketDirectory;
+
+    public PsiPartitioner(EnvType envType, byte[] partitionKey, int bucketNum) {
+        this.bucketNum = bucketNum;
+        prf = PrfFactory.createInstance(envType, Integer.BYTES);
+        prf.setKey(partitionKey);
+    }
+
+    /**
+     * Gets the max bucket size when partitioning at most n elements into buckets.
+     *
+     * @param n         max number of elements.
+     * @param bucketNum bucket num.
+     * @return max bucket size.
+     */
+    public static int maxBucketSize(int n, int bucketNum) {
+        return MaxBinSizeUtils.expectMaxBinSize(n, bucketNum);
+    }
+
+    /**
+     * Gets the bucket size that a party sends to the other party, i.e., the size of each bucket after padding. With
+     * more than one bucket, each bucket is padded to the max bucket size, so that the bucket size reveals nothing. With
+     * one bucket, the bucket size is the set size, which is revealed by the PSI anyway.
+     *
+     * @param bucketSizes   number of elements in each bucket.
+     * @param maxBucketSize max bucket size.
+     * @return the bucket size after padding, or -1 if a bucket overflows.
+     */
+    public static int paddedBucketSize(int[] bucketSizes, int maxBucketSize) {
+        for (int bucketSize : bucketSizes) {
+            if (bucketSize > maxBucketSize) {
+                return -1;
+            }
+        }
+        return bucketSizes.length > 1 ? maxBucketSize : bucketSizes[0];
+    }
+
+    /**
+     * Checks the bucket size received from the other party, see {@link #paddedBucketSize(int[], int)}.
+     *
+     * @param bucketSize    the bucket size after padding.
+     * @param maxBucketSize max bucket size.
+     * @return whether the bucket size is valid.
+     */
+    public boolean isValidPaddedBucketSize(int bucketSize, int maxBucketSize) {
+        return bucketNum > 1 ? bucketSize == maxBucketSize : bucketSize >= 0 && bucketSize <= maxBucketSize;
+    }
+
+    /**
+     * Partitions elements in the file into bucket files.
+     *
+     * @param elementFile     element file.
+     * @param parentDirectory parent directory of bucket files, null if using the system temporary directory.
+     * @param prefix          prefix of the bucket directory.
+     * @return number of elements in each bucket.
+     * @throws IOException if an I/O error occurs.
+     */
+    public int[] partition(String elementFile, String parentDirectory, String prefix) throws IOException {
+        return partition(elementFile, parentDirectory, prefix, 0);
+    }
+
+    /**
+     * Partitions elements in the file into bucket files, and checks that each element has the given byte length. The
+     * check is done while partitioning, so that an invalid input is rejected before a protocol sends anything about
+     * the buckets to the other party.
+     *
+     * @param elementFile       element file.
+     * @param parentDirectory   parent directory of bucket files, null if using the system temporary directory.
+     * @param prefix            prefix of the bucket directory.
+     * @param elementByteLength element byte length, 0 if element byte lengths are not checked.
+     * @return number of elements in each bucket.
+     * @throws IOException              if an I/O error occurs.
+     * @throws IllegalArgumentException if an element does not have the given byte length.
+     */
+    public int[] partition(String elementFile, String parentDirectory, String prefix, int elementByteLength)
+        throws IOException {
+        MathPreconditions.checkNonNegative("elementByteLength", elementByteLength);
+        bucketDirectory = parentDirectory == null
+            ? Files.createTempDirectory(prefix)
+            : Files.createTempDirectory(Paths.get(parentDirectory), prefix);
+        int[] bucketSizes = new int[bucketNum];
+        BufferedWriter[] writers = new BufferedWriter[bucketNum];
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(elementFile), CommonConstants.DEFAULT_CHARSET)) {
+            for (int bucketIndex = 0; bucketIndex < bucketNum; bucketIndex++) {
+                Path bucketFile = getBucketFile(bucketIndex);
+                writers[bucketIndex] = Files.newBufferedWriter(bucketFile, CommonConstants.DEFAULT_CHARSET);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                byte[] element = Hex.decode(line);
+                if (elementByteLength > 0) {
+                    MathPreconditions.checkEqual(
+                        "element byte length", "elementByteLength", element.length, elementByteLength
+                    );
+                }
+                int bucketIndex = prf.getInteger(element, bucketNum);
+                writers[bucketIndex].write(line);
+                writers[bucketIndex].newLine();
+                bucketSizes[bucketIndex]++;
+            }
+        } finally {
+            for (BufferedWriter writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+        return bucketSizes;
+    }
+
+    /**
+     * Reads elements in the bucket.
+     *
+     * @param bucketIndex bucket index.
+     * @param bucketSize  bucket size.
+     * @return elements in the bucket.
+     * @throws IOException if an I/O error occurs.
+     */
+    public Set<ByteBuffer> readBucket(int bucketIndex, int bucketSize) throws IOException {
+        Set<ByteBuffer> elementSet = new HashSet<>(bucketSize);
+        Path bucketFile = getBucketFile(bucketIndex);
+        try (BufferedReader reader = Files.newBufferedReader(bucketFile, CommonConstants.DEFAULT_CHARSET)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                elementSet.add(ByteBuffer.wrap(Hex.decode(line)));
+            }
+        }
+        if (elementSet.size() != bucketSize) {
+            throw new IllegalArgumentException("Elements must be distinct, find duplicates in bucket " + bucketIndex);
+        }
+        return elementSet;
+    }
+
+    /**
+     * Gets a dummy element that is never in the given bucket, found by scanning counters until one is partitioned into
+     * another bucket. Both parties get the same dummy element, so that a protocol can pad a bucket with it and remove
+     * it from the output without ambiguity. It requires at least 2 buckets.
+     *
+     * @param bucketIndex       bucket index.
+     * @param elementByteLength element byte length.
+     * @return a dummy element that is not in the bucket.
+     */
+    public byte[] dummyElement(int bucketIndex, int elementByteLength) {
+        MathPreconditions.checkGreater("bucketNum", bucketNum, 1);
+        MathPreconditions.checkGreaterOrEqual("elementByteLength", elementByteLength, Integer.BYTES);
+        for (int counter = 0; ; counter++) {
+            byte[] element = new byte[elementByteLength];
+            ByteBuffer.wrap(element).putInt(elementByteLength - Integer.BYTES, counter);
+            if (prf.getInteger(element, bucketNum) != bucketIndex) {
+                return element;
+            }
+        }
+    }
+
+    /**
+     * Gets distinct dummy elements that are never in the given bucket, found by scanning counters in the given domain
+     * until enough of them are partitioned into other buckets. Dummy elements in different domains are distinct, so
+     * that two parties padding a bucket with dummy elements in different domains never match each other's dummy
+     * elements. It requires at least 2 buckets.
+     *
+     * @param bucketIndex       bucket index.
+     * @param elementByteLength element byte length.
+     * @param domain            domain of dummy elements, either 0 or 1.
+     * @param num               number of dummy elements.
+     * @return dummy elements that are not in the bucket.
+     */
+    public byte[][] dummyElements(int bucketIndex, int elementByteLength, int domain, int num) {
+        MathPreconditions.checkGreater("bucketNum", bucketNum, 1);
+        MathPreconditions.checkGreaterOrEqual("elementByteLength", elementByteLength, Integer.BYTES);
+        MathPreconditions.checkNonNegativeInRange("domain", domain, 2);
+        MathPreconditions.checkNonNegative("num", num);
+        byte[][] elements = new byte[num][];
+        int index = 0;
+        // counters in domain d are d, d + 2, d + 4, ..., so that dummy elements in different domains are distinct
+        for (int counter = domain; index < num; counter += 2) {
+            byte[] element = new byte[elementByteLength];
+            ByteBuffer.wrap(element).putInt(elementByteLength - Integer.BYTES, counter);
+            if (prf.getInteger(element, bucketNum) != bucketIndex) {
+                elements[index] = element;
+                index++;
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Deletes the bucket file.
+     *
+     * @param bucketIndex bucket index.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void deleteBucket(int bucketIndex) throws IOException {
+        Files.deleteIfExists(getBucketFile(bucketIndex));
+    }
+
+    /**
+     * Deletes all bucket files and the bucket directory.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void clean() throws IOException {
+        if (bucketDirectory != null) {
+            for (int bucketIndex = 0; bucketIndex < bucketNum; bucketIndex++) {
+                deleteBucket(bucketIndex);
+            }
+            Files.deleteIfExists(bucketDirectory);
+            bucketDirectory = null;
+        }
+    }
+
+    private Path getBucketFile(int bucketIndex) {
+        return bucketDirectory.resolve(bucketIndex + ".bucket");
+    }
+
+    /**
+     * worker that processes a part of buckets.
+     */
+    public interface BucketWorker {
+        /**
+         * Processes buckets assigned to the worker.
+         *
+         * @param workerIndex worker index.
+         * @throws MpcAbortException the protocol failure aborts.
+         * @throws IOException       if an I/O error occurs.
+         */
+        void run(int workerIndex) throws MpcAbortException, IOException;
+    }
+
+    /**
+     * Runs workers. If there are more than one worker, each worker runs on its own thread.
+     *
+     * @param workerNum worker num.
+     * @param worker    worker.
+     * @throws MpcAbortException the protocol failure aborts.
+     * @throws IOException       if an I/O error occurs.
+     */
+    public static void runWorkers(int workerNum, BucketWorker worker) throws MpcAbortException, IOException {
+        if (workerNum == 1) {
+            worker.run(0);
+            return;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(workerNum);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(workerNum);
+            for (int workerIndex = 0; workerIndex < workerNum; workerIndex++) {
+                int finalWorkerIndex = workerIndex;
+                futures.add(executorService.submit(() -> {
+                    worker.run(finalWorkerIndex);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MpcAbortException) {
+                throw (MpcAbortException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package edu.alibaba.mpc4j.s2pc.pso.psica.cgt12;
 
 import edu.alibaba.mpc4j.common.rpc.*;
-import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
-import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
 import edu.alibaba.mpc4j.common.tool.crypto.ecc.Ecc;
 import edu.alibaba.mpc4j.common.tool.crypto.ecc.EccFactory;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
@@ -11,14 +9,14 @@ import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psica.AbstractPsiCaClient;
 import edu.alibaba.mpc4j.s2pc.pso.psica.cgt12.Cgt12EccPsiCaPtoDesc.PtoStep;
+import org.bouncycastle.math.ec.ECPoint;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -36,6 +34,10 @@ public class Cgt12EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
      * compress encode
      */
     private final boolean compressEncode;
+    /**
+     * chunk size
+     */
+    private final int chunkSize;
     /**
      * hash for private equality test
      */
@@ -49,6 +51,7 @@ public class Cgt12EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
         super(Cgt12EccPsiCaPtoDesc.getInstance(), clientRpc, serverParty, config);
         ecc = EccFactory.createInstance(envType);
         compressEncode = config.getCompressEncode();
+        chunkSize = config.getChunkSize();
     }
 
     @Override
@@ -75,35 +78,23 @@ public class Cgt12EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
         stopWatch.start();
         int peqtByteLength = PsiUtils.getSemiHonestPeqtByteLength(serverElementSize, clientElementSize);
         peqtHash = HashFactory.createInstance(envType, peqtByteLength);
-        // client calculates H(y)^β, which not been randomly permuted.
-        List<byte[]> hyBetaPayload = generateHyBetaPayload();
-        DataPacketHeader hyBetaHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.CLIENT_SEND_HY_BETA.ordinal(), extraInfo,
-            ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        rpc.send(DataPacket.fromByteArrayList(hyBetaHeader, hyBetaPayload));
+        // client calculates H(y)^β, which not been randomly permuted, and sends them to server chunk by chunk.
+        sendHyBetaPayloads();
         stopWatch.stop();
         long hyBetaTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
         logStepInfo(PtoState.PTO_STEP, 1, 2, hyBetaTime);
 
-        // client receives H(x)^α. Note that this value is hashed.
-        DataPacketHeader hxAlphaPeqtHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_HASH_HX_ALPHA.ordinal(), extraInfo,
-            otherParty().getPartyId(), ownParty().getPartyId()
-        );
-        List<byte[]> hxAlphaPeqtPayload = rpc.receive(hxAlphaPeqtHeader).getPayload();
-
         stopWatch.start();
+        // client receives H(x)^α chunk by chunk. Note that this value is hashed.
+        Set<ByteBuffer> hxAlphaPeqtSet = receiveHxAlphaPeqtPayloads();
         // client receives H(y)^βα
-        DataPacketHeader hyBetaAlphaHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_HY_BETA_ALPHA.ordinal(), extraInfo,
-            otherParty().getPartyId(), ownParty().getPartyId()
-        );
-        List<byte[]> hyBetaAlphaPayload = rpc.receive(hyBetaAlphaHeader).getPayload();
+        List<byte[]> hyBetaAlphaPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_HY_BETA_ALPHA.ordinal());
         // (H(y)^{βα})^{β^{-1}}
         Set<ByteBuffer> peqtSet = handleHyBetaAlphaPayload(hyBetaAlphaPayload);
-        int cardinality = calculateInteractionCardinality(hxAlphaPeqtPayload, peqtSet);
+        // calculate intersection
+        peqtSet.retainAll(hxAlphaPeqtSet);
+        int cardinality = peqtSet.size();
         stopWatch.stop();
         long peqtTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -113,16 +104,33 @@ public class Cgt12EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
         return cardinality;
     }
 
-    private List<byte[]> generateHyBetaPayload() {
-        Stream<T> clientElementStream = clientElementArrayList.stream();
-        clientElementStream = parallel ? clientElementStream.parallel() : clientElementStream;
+    private void sendHyBetaPayloads() {
         // Note that no random permutation is required here
-        return clientElementStream
-            .map(ObjectUtils::objectToByteArray)
-            .map(ecc::hashToCurve)
-            .map(p -> ecc.multiply(p, beta))
-            .map(p -> ecc.encode(p, compressEncode))
-            .collect(Collectors.toList());
+        for (int offset = 0; offset < clientElementSize; offset += chunkSize) {
+            int chunkNum = Math.min(chunkSize, clientElementSize - offset);
+            IntStream chunkIndexStream = IntStream.range(offset, offset + chunkNum);
+            chunkIndexStream = parallel ? chunkIndexStream.parallel() : chunkIndexStream;
+            ECPoint[] hyBetas = chunkIndexStream
+                .mapToObj(index -> ObjectUtils.objectToByteArray(clientElementArrayList.get(index)))
+                .map(ecc::hashToCurve)
+                .map(p -> ecc.multiply(p, beta))
+                .toArray(ECPoint[]::new);
+            List<byte[]> hyBetaPayload = Arrays.asList(ecc.encode(hyBetas, compressEncode));
+            sendOtherPartyPayload(PtoStep.CLIENT_SEND_HY_BETA.ordinal(), hyBetaPayload);
+        }
+    }
+
+    private Set<ByteBuffer> receiveHxAlphaPeqtPayloads() throws MpcAbortException {
+        Set<ByteBuffer> hxAlphaPeqtSet = new HashSet<>(serverElementSize);
+        for (int offset = 0; offset < serverElementSize; offset += chunkSize) {
+            int chunkNum = Math.min(chunkSize, serverElementSize - offset);
+            List<byte[]> hxAlphaPeqtPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_HASH_HX_ALPHA.ordinal());
+            MpcAbortPreconditions.checkArgument(hxAlphaPeqtPayload.size() == chunkNum);
+            hxAlphaPeqtPayload.stream()
+                .map(ByteBuffer::wrap)
+                .forEach(hxAlphaPeqtSet::add);
+        }
+        return hxAlphaPeqtSet;
     }
 
     private Set<ByteBuffer> handleHyBetaAlphaPayload(List<byte[]> hyBetaAlphaPayload) throws MpcAbortException {
@@ -130,24 +138,15 @@ public class Cgt12EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
         Stream<byte[]> hxAlphaStream = hyBetaAlphaPayload.stream();
         hxAlphaStream = parallel ? hxAlphaStream.parallel() : hxAlphaStream;
         BigInteger betaInv = beta.modInverse(ecc.getN());
-        return hxAlphaStream
+        ECPoint[] hys = hxAlphaStream
             .map(ecc::decode)
             .map(p -> ecc.multiply(p, betaInv))
-            .map(p -> ecc.encode(p, false))
+            .toArray(ECPoint[]::new);
+        Stream<byte[]> hyStream = Arrays.stream(ecc.encode(hys, false));
+        hyStream = parallel ? hyStream.parallel() : hyStream;
+        return hyStream
             .map(p -> peqtHash.digestToBytes(p))
             .map(ByteBuffer::wrap)
             .collect(Collectors.toSet());
     }
-
-    private int calculateInteractionCardinality(List<byte[]> hxAlphaPeqtPayload, Set<ByteBuffer> peqtSet)
-		throws MpcAbortException {
-        MpcAbortPreconditions.checkArgument(hxAlphaPeqtPayload.size() == serverElementSize);
-        Set<ByteBuffer> hxAlphaPeqtSet = hxAlphaPeqtPayload.stream()
-            .map(ByteBuffer::wrap)
-            .collect(Collectors.toCollection(HashSet::new));
-        // calculate intersection
-        peqtSet.retainAll(hxAlphaPeqtSet);
-        return peqtSet.size();
-    }
-
-}
\ No newline at end of file
+}
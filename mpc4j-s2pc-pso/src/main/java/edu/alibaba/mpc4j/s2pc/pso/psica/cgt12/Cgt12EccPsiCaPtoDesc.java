@@ -29,11 +29,11 @@ class Cgt12EccPsiCaPtoDesc implements PtoDesc {
      */
     enum PtoStep {
         /**
-         * server sends H(H(X)^α)
+         * server sends H(H(X)^α), chunk by chunk
          */
         SERVER_SEND_HASH_HX_ALPHA,
         /**
-         * client sends H(Y)^β
+         * client sends H(Y)^β, chunk by chunk
          */
         CLIENT_SEND_HY_BETA,
         /**
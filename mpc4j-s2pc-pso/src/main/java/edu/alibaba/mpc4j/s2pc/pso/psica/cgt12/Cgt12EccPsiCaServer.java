@@ -1,8 +1,6 @@
 package edu.alibaba.mpc4j.s2pc.pso.psica.cgt12;
 
 import edu.alibaba.mpc4j.common.rpc.*;
-import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
-import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
 import edu.alibaba.mpc4j.common.tool.crypto.ecc.Ecc;
 import edu.alibaba.mpc4j.common.tool.crypto.ecc.EccFactory;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
@@ -11,13 +9,13 @@ import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psica.AbstractPsiCaServer;
 import edu.alibaba.mpc4j.s2pc.pso.psica.cgt12.Cgt12EccPsiCaPtoDesc.PtoStep;
+import org.bouncycastle.math.ec.ECPoint;
 
 import java.math.BigInteger;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -35,6 +33,10 @@ public class Cgt12EccPsiCaServer<T> extends AbstractPsiCaServer<T> {
      * compress code
      */
     private final boolean compressEncode;
+    /**
+     * chunk size
+     */
+    private final int chunkSize;
     /**
      * hash for private equality test
      */
@@ -48,6 +50,7 @@ public class Cgt12EccPsiCaServer<T> extends AbstractPsiCaServer<T> {
         super(Cgt12EccPsiCaPtoDesc.getInstance(), serverRpc, clientParty, config);
         ecc = EccFactory.createInstance(envType);
         compressEncode = config.getCompressEncode();
+        chunkSize = config.getChunkSize();
     }
 
     @Override
@@ -74,34 +77,19 @@ public class Cgt12EccPsiCaServer<T> extends AbstractPsiCaServer<T> {
         stopWatch.start();
         int peqtByteLength = PsiUtils.getSemiHonestPeqtByteLength(serverElementSize, clientElementSize);
         peqtHash = HashFactory.createInstance(envType, peqtByteLength);
-        // server calculates H(x)^α, randomly permutes, sends to client.
+        // server randomly permutes x, calculates H(H(x)^α) and sends them to client chunk by chunk.
         // Note that hash needs to be performed on the once-encrypted value
-        List<byte[]> hxAlphaPeqtPayload = generateHxAlphaPeqtPayload();
-        DataPacketHeader hxAlphaPeqtHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_HASH_HX_ALPHA.ordinal(), extraInfo,
-            ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        rpc.send(DataPacket.fromByteArrayList(hxAlphaPeqtHeader, hxAlphaPeqtPayload));
+        sendHxAlphaPeqtPayloads();
         stopWatch.stop();
         long hxAlphaTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
         logStepInfo(PtoState.PTO_STEP, 1, 2, hxAlphaTime);
 
-        // Server receives H(y)^β, which not been randomly permuted.
-        DataPacketHeader randomlyPermutedHyBetaHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.CLIENT_SEND_HY_BETA.ordinal(), extraInfo,
-            otherParty().getPartyId(), ownParty().getPartyId()
-        );
-        List<byte[]> randomlyPermutedHyBetaPayload = rpc.receive(randomlyPermutedHyBetaHeader).getPayload();
-
         stopWatch.start();
-        // Server calculate H(y)^βα and randomly permute it. Note that Peqt Hash is not performed here
-        List<byte[]> randomlyPermutedHyBetaAlphaPayload = handleRandomlyPermutedHyBetaPayload(randomlyPermutedHyBetaPayload);
-        DataPacketHeader randomlyPermutedHyBetaAlphaHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), Cgt12EccPsiCaPtoDesc.PtoStep.SERVER_SEND_HY_BETA_ALPHA.ordinal(), extraInfo,
-            ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        rpc.send(DataPacket.fromByteArrayList(randomlyPermutedHyBetaAlphaHeader, randomlyPermutedHyBetaAlphaPayload));
+        // Server receives H(y)^β chunk by chunk, which not been randomly permuted, calculates H(y)^βα and randomly
+        // permutes it. Note that Peqt Hash is not performed here
+        List<byte[]> randomlyPermutedHyBetaAlphaPayload = handleHyBetaPayloads();
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_HY_BETA_ALPHA.ordinal(), randomlyPermutedHyBetaAlphaPayload);
         stopWatch.stop();
         long hyBetaAlphaTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -110,32 +98,43 @@ public class Cgt12EccPsiCaServer<T> extends AbstractPsiCaServer<T> {
         logPhaseInfo(PtoState.PTO_END);
     }
 
-    private List<byte[]> generateHxAlphaPeqtPayload() {
-        // randomly permute the plaintext array
+    private void sendHxAlphaPeqtPayloads() {
+        // randomly permute the plaintext array, so that H(H(x)^α) can be sent before all of them are computed
         Collections.shuffle(serverElementArrayList, secureRandom);
-        Stream<T> serverElementStream = serverElementArrayList.stream();
-        serverElementStream = parallel ? serverElementStream.parallel() : serverElementStream;
-
-        // Note that hash needs to be performed on the once-encrypted value, refer to Figure 1. in CGT12 paper
-        return serverElementStream
-            .map(ObjectUtils::objectToByteArray)
-            .map(ecc::hashToCurve)
-            .map(p -> ecc.multiply(p, alpha))
-            .map(p -> ecc.encode(p, false))
-            .map(p -> peqtHash.digestToBytes(p))
-            .collect(Collectors.toList());
+        for (int offset = 0; offset < serverElementSize; offset += chunkSize) {
+            int chunkNum = Math.min(chunkSize, serverElementSize - offset);
+            IntStream chunkIndexStream = IntStream.range(offset, offset + chunkNum);
+            chunkIndexStream = parallel ? chunkIndexStream.parallel() : chunkIndexStream;
+            ECPoint[] hxAlphas = chunkIndexStream
+                .mapToObj(index -> ObjectUtils.objectToByteArray(serverElementArrayList.get(index)))
+                .map(ecc::hashToCurve)
+                .map(p -> ecc.multiply(p, alpha))
+                .toArray(ECPoint[]::new);
+            // Note that hash needs to be performed on the once-encrypted value, refer to Figure 1. in CGT12 paper
+            Stream<byte[]> hxAlphaStream = Arrays.stream(ecc.encode(hxAlphas, false));
+            hxAlphaStream = parallel ? hxAlphaStream.parallel() : hxAlphaStream;
+            List<byte[]> hxAlphaPeqtPayload = hxAlphaStream
+                .map(p -> peqtHash.digestToBytes(p))
+                .collect(Collectors.toList());
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_HASH_HX_ALPHA.ordinal(), hxAlphaPeqtPayload);
+        }
     }
 
-    private List<byte[]> handleRandomlyPermutedHyBetaPayload(List<byte[]> hyBetaPayload) throws MpcAbortException {
-        MpcAbortPreconditions.checkArgument(hyBetaPayload.size() == clientElementSize);
-        Stream<byte[]> hyBetaStream = hyBetaPayload.stream();
-        hyBetaStream = parallel ? hyBetaStream.parallel() : hyBetaStream;
-        // Note that hash is not performed here, refer to Figure 1. in CGT12
-        List<byte[]> result = hyBetaStream
-            .map(ecc::decode)
-            .map(p -> ecc.multiply(p, alpha))
-            .map(p -> ecc.encode(p, compressEncode))
-            .collect(Collectors.toList());
+    private List<byte[]> handleHyBetaPayloads() throws MpcAbortException {
+        List<byte[]> result = new ArrayList<>(clientElementSize);
+        for (int offset = 0; offset < clientElementSize; offset += chunkSize) {
+            int chunkNum = Math.min(chunkSize, clientElementSize - offset);
+            List<byte[]> hyBetaPayload = receiveOtherPartyPayload(PtoStep.CLIENT_SEND_HY_BETA.ordinal());
+            MpcAbortPreconditions.checkArgument(hyBetaPayload.size() == chunkNum);
+            Stream<byte[]> hyBetaStream = hyBetaPayload.stream();
+            hyBetaStream = parallel ? hyBetaStream.parallel() : hyBetaStream;
+            // Note that hash is not performed here, refer to Figure 1. in CGT12
+            ECPoint[] hyBetaAlphas = hyBetaStream
+                .map(ecc::decode)
+                .map(p -> ecc.multiply(p, alpha))
+                .toArray(ECPoint[]::new);
+            result.addAll(Arrays.asList(ecc.encode(hyBetaAlphas, compressEncode)));
+        }
         // randomly permute
         Collections.shuffle(result, secureRandom);
         return result;
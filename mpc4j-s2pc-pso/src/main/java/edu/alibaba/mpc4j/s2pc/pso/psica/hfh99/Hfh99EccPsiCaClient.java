@@ -1,8 +1,6 @@
 package edu.alibaba.mpc4j.s2pc.pso.psica.hfh99;
 
 import edu.alibaba.mpc4j.common.rpc.*;
-import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
-import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
 import edu.alibaba.mpc4j.common.tool.crypto.ecc.Ecc;
 import edu.alibaba.mpc4j.common.tool.crypto.ecc.EccFactory;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
@@ -11,12 +9,14 @@ import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psica.AbstractPsiCaClient;
 import edu.alibaba.mpc4j.s2pc.pso.psica.hfh99.Hfh99EccPsiCaPtoDesc.PtoStep;
+import org.bouncycastle.math.ec.ECPoint;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -34,6 +34,10 @@ public class Hfh99EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
      * compress encode
      */
     private final boolean compressEncode;
+    /**
+     * chunk size
+     */
+    private final int chunkSize;
     /**
      * hash for private equality test
      */
@@ -47,6 +51,7 @@ public class Hfh99EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
         super(Hfh99EccPsiCaPtoDesc.getInstance(), clientRpc, serverParty, config);
         ecc = EccFactory.createInstance(envType);
         compressEncode = config.getCompressEncode();
+        chunkSize = config.getChunkSize();
     }
 
     @Override
@@ -73,39 +78,25 @@ public class Hfh99EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
         stopWatch.start();
         int peqtByteLength = PsiUtils.getSemiHonestPeqtByteLength(serverElementSize, clientElementSize);
         peqtHash = HashFactory.createInstance(envType, peqtByteLength);
-        // client calculates H(y)^β, randomly permutes, sends to server
-        List<byte[]> randomlyPermuteHyBetaPayload = generateRandomlyPermuteHyBetaPayload();
-        DataPacketHeader hyBetaHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.CLIENT_SEND_RANDOMLY_PERMUTED_HY_BETA.ordinal(), extraInfo,
-            ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        rpc.send(DataPacket.fromByteArrayList(hyBetaHeader, randomlyPermuteHyBetaPayload));
+        // client randomly permutes y, calculates H(y)^β and sends them to server chunk by chunk.
+        sendRandomlyPermutedHyBetaPayloads();
         stopWatch.stop();
         long hyBetaTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
         logStepInfo(PtoState.PTO_STEP, 1, 3, hyBetaTime);
 
-        // client receives H(x)^α, which has been randomly permuted.
-        DataPacketHeader randomlyPermutedHxAlphaHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_RANDOMLY_PERMUTED_HX_ALPHA.ordinal(), extraInfo,
-            otherParty().getPartyId(), ownParty().getPartyId()
-        );
-        List<byte[]> randomlyPermuteHxAlphaPayload = rpc.receive(randomlyPermutedHxAlphaHeader).getPayload();
-
         stopWatch.start();
-        // client calculates H(H(x)^αβ)
-        Set<ByteBuffer> peqtSet = handleHxAlphaPayload(randomlyPermuteHxAlphaPayload);
+        // client receives H(x)^α chunk by chunk, and calculates H(H(x)^αβ)
+        Set<ByteBuffer> peqtSet = handleRandomlyPermutedHxAlphaPayloads();
         stopWatch.stop();
         long peqtTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
         logStepInfo(PtoState.PTO_STEP, 2, 3, peqtTime);
 
         // client receives H(H(y)^βα), which has been randomly permuted.
-        DataPacketHeader randomlyPermutedPeqtHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_RANDOMLY_PERMUTED_HY_BETA_ALPHA.ordinal(), extraInfo,
-            otherParty().getPartyId(), ownParty().getPartyId()
+        List<byte[]> randomlyPermutedPeqtPayload = receiveOtherPartyPayload(
+            PtoStep.SERVER_SEND_RANDOMLY_PERMUTED_HY_BETA_ALPHA.ordinal()
         );
-        List<byte[]> randomlyPermutedPeqtPayload = rpc.receive(randomlyPermutedPeqtHeader).getPayload();
 
         stopWatch.start();
         // client computes the cardinality
@@ -119,32 +110,45 @@ public class Hfh99EccPsiCaClient<T> extends AbstractPsiCaClient<T> {
         return cardinality;
     }
 
-    private List<byte[]> generateRandomlyPermuteHyBetaPayload() {
-        Stream<T> clientElementStream = clientElementArrayList.stream();
-        clientElementStream = parallel ? clientElementStream.parallel() : clientElementStream;
-        List<byte[]> result = clientElementStream
-            .map(ObjectUtils::objectToByteArray)
-            .map(ecc::hashToCurve)
-            .map(p -> ecc.multiply(p, beta))
-            .map(p -> ecc.encode(p, compressEncode))
-            .collect(Collectors.toList());
-        // randomly permute
-        Collections.shuffle(result, secureRandom);
-
-        return result;
+    private void sendRandomlyPermutedHyBetaPayloads() {
+        // randomly permute the plaintext array, so that H(y)^β can be sent before all of them are computed
+        Collections.shuffle(clientElementArrayList, secureRandom);
+        for (int offset = 0; offset < clientElementSize; offset += chunkSize) {
+            int chunkNum = Math.min(chunkSize, clientElementSize - offset);
+            IntStream chunkIndexStream = IntStream.range(offset, offset + chunkNum);
+            chunkIndexStream = parallel ? chunkIndexStream.parallel() : chunkIndexStream;
+            ECPoint[] hyBetas = chunkIndexStream
+                .mapToObj(index -> ObjectUtils.objectToByteArray(clientElementArrayList.get(index)))
+                .map(ecc::hashToCurve)
+                .map(p -> ecc.multiply(p, beta))
+                .toArray(ECPoint[]::new);
+            List<byte[]> hyBetaPayload = Arrays.asList(ecc.encode(hyBetas, compressEncode));
+            sendOtherPartyPayload(PtoStep.CLIENT_SEND_RANDOMLY_PERMUTED_HY_BETA.ordinal(), hyBetaPayload);
+        }
     }
 
-    private Set<ByteBuffer> handleHxAlphaPayload(List<byte[]> hxAlphaPayload) throws MpcAbortException {
-        MpcAbortPreconditions.checkArgument(hxAlphaPayload.size() == serverElementSize);
-        Stream<byte[]> hxAlphaStream = hxAlphaPayload.stream();
-        hxAlphaStream = parallel ? hxAlphaStream.parallel() : hxAlphaStream;
-        return hxAlphaStream
-            .map(ecc::decode)
-            .map(p -> ecc.multiply(p, beta))
-            .map(p -> ecc.encode(p, false))
-            .map(p -> peqtHash.digestToBytes(p))
-            .map(ByteBuffer::wrap)
-            .collect(Collectors.toSet());
+    private Set<ByteBuffer> handleRandomlyPermutedHxAlphaPayloads() throws MpcAbortException {
+        Set<ByteBuffer> peqtSet = new HashSet<>(serverElementSize);
+        for (int offset = 0; offset < serverElementSize; offset += chunkSize) {
+            int chunkNum = Math.min(chunkSize, serverElementSize - offset);
+            List<byte[]> hxAlphaPayload = receiveOtherPartyPayload(
+                PtoStep.SERVER_SEND_RANDOMLY_PERMUTED_HX_ALPHA.ordinal()
+            );
+            MpcAbortPreconditions.checkArgument(hxAlphaPayload.size() == chunkNum);
+            Stream<byte[]> hxAlphaStream = hxAlphaPayload.stream();
+            hxAlphaStream = parallel ? hxAlphaStream.parallel() : hxAlphaStream;
+            ECPoint[] hxAlphaBetas = hxAlphaStream
+                .map(ecc::decode)
+                .map(p -> ecc.multiply(p, beta))
+                .toArray(ECPoint[]::new);
+            Stream<byte[]> hxAlphaBetaStream = Arrays.stream(ecc.encode(hxAlphaBetas, false));
+            hxAlphaBetaStream = parallel ? hxAlphaBetaStream.parallel() : hxAlphaBetaStream;
+            hxAlphaBetaStream
+                .map(p -> peqtHash.digestToBytes(p))
+                .map(ByteBuffer::wrap)
+                .forEachOrdered(peqtSet::add);
+        }
+        return peqtSet;
     }
 
     private int handleRandomlyPermutedPeqtPayload(List<byte[]> randomlyPermutedPeqtPayload, Set<ByteBuffer> peqtSet)
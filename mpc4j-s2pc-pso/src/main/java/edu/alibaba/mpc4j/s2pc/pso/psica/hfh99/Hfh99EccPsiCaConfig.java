@@ -2,6 +2,7 @@ package edu.alibaba.mpc4j.s2pc.pso.psica.hfh99;
 
 import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
 import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.mpc4j.s2pc.pso.psica.PsiCaConfig;
 import edu.alibaba.mpc4j.s2pc.pso.psica.PsiCaFactory;
 
@@ -12,14 +13,23 @@ import edu.alibaba.mpc4j.s2pc.pso.psica.PsiCaFactory;
  * @date 2023/4/23
  */
 public class Hfh99EccPsiCaConfig extends AbstractMultiPartyPtoConfig implements PsiCaConfig {
+    /**
+     * default chunk size
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 12;
     /**
      * compress encode
      */
     private final boolean compressEncode;
+    /**
+     * number of elements in each chunk of the streamed exponentiation results
+     */
+    private final int chunkSize;
 
     private Hfh99EccPsiCaConfig(Builder builder) {
         super(SecurityModel.SEMI_HONEST);
         this.compressEncode = builder.compressEncode;
+        chunkSize = builder.chunkSize;
     }
 
     @Override
@@ -31,14 +41,23 @@ public class Hfh99EccPsiCaConfig extends AbstractMultiPartyPtoConfig implements
         return compressEncode;
     }
 
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
     public static class Builder implements org.apache.commons.lang3.builder.Builder<Hfh99EccPsiCaConfig> {
         /**
          * compress encode
          */
         private boolean compressEncode;
+        /**
+         * number of elements in each chunk
+         */
+        private int chunkSize;
 
         public Builder() {
             compressEncode = true;
+            chunkSize = DEFAULT_CHUNK_SIZE;
         }
 
         public Builder setCompressEncode(boolean compressEncode) {
@@ -46,6 +65,12 @@ public class Hfh99EccPsiCaConfig extends AbstractMultiPartyPtoConfig implements
             return this;
         }
 
+        public Builder setChunkSize(int chunkSize) {
+            MathPreconditions.checkPositive("chunkSize", chunkSize);
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
         @Override
         public Hfh99EccPsiCaConfig build() {
             return new Hfh99EccPsiCaConfig(this);
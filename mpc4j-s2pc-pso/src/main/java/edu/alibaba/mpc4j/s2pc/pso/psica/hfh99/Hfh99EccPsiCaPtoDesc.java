@@ -28,11 +28,11 @@ class Hfh99EccPsiCaPtoDesc implements PtoDesc {
      */
     enum PtoStep {
         /**
-         * server sends randomly permuted H(X)^α
+         * server sends randomly permuted H(X)^α, chunk by chunk
          */
         SERVER_SEND_RANDOMLY_PERMUTED_HX_ALPHA,
         /**
-         * client sends randomly permuted H(Y)^β
+         * client sends randomly permuted H(Y)^β, chunk by chunk
          */
         CLIENT_SEND_RANDOMLY_PERMUTED_HY_BETA,
         /**
@@ -1,8 +1,6 @@
 package edu.alibaba.mpc4j.s2pc.pso.psica.hfh99;
 
 import edu.alibaba.mpc4j.common.rpc.*;
-import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
-import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
 import edu.alibaba.mpc4j.common.tool.crypto.ecc.Ecc;
 import edu.alibaba.mpc4j.common.tool.crypto.ecc.EccFactory;
 import edu.alibaba.mpc4j.common.tool.crypto.hash.Hash;
@@ -11,13 +9,12 @@ import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psica.AbstractPsiCaServer;
 import edu.alibaba.mpc4j.s2pc.pso.psica.hfh99.Hfh99EccPsiCaPtoDesc.PtoStep;
+import org.bouncycastle.math.ec.ECPoint;
 
 import java.math.BigInteger;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -35,6 +32,10 @@ public class Hfh99EccPsiCaServer<T> extends AbstractPsiCaServer<T> {
      * compress encode
      */
     private final boolean compressEncode;
+    /**
+     * chunk size
+     */
+    private final int chunkSize;
     /**
      * hash for private equality test
      */
@@ -48,6 +49,7 @@ public class Hfh99EccPsiCaServer<T> extends AbstractPsiCaServer<T> {
         super(Hfh99EccPsiCaPtoDesc.getInstance(), serverRpc, clientParty, config);
         ecc = EccFactory.createInstance(envType);
         compressEncode = config.getCompressEncode();
+        chunkSize = config.getChunkSize();
     }
 
     @Override
@@ -74,33 +76,17 @@ public class Hfh99EccPsiCaServer<T> extends AbstractPsiCaServer<T> {
         stopWatch.start();
         int peqtByteLength = PsiUtils.getSemiHonestPeqtByteLength(serverElementSize, clientElementSize);
         peqtHash = HashFactory.createInstance(envType, peqtByteLength);
-        // server calculates H(x)^α, randomly permutes, sends to client.
-        List<byte[]> randomlyPermutedHxAlphaPayload = generateRandomlyPermuteHxAlphaPayload();
-        DataPacketHeader randomlyPermutedHxAlphaHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_RANDOMLY_PERMUTED_HX_ALPHA.ordinal(), extraInfo,
-            ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        rpc.send(DataPacket.fromByteArrayList(randomlyPermutedHxAlphaHeader, randomlyPermutedHxAlphaPayload));
+        // server randomly permutes x, calculates H(x)^α and sends them to client chunk by chunk.
+        sendRandomlyPermutedHxAlphaPayloads();
         stopWatch.stop();
         long hxAlphaTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
         logStepInfo(PtoState.PTO_STEP, 1, 2, hxAlphaTime);
 
-        // server receiver H(y)^β , which has been randomly permuted.
-        DataPacketHeader randomlyPermutedHyBetaHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.CLIENT_SEND_RANDOMLY_PERMUTED_HY_BETA.ordinal(), extraInfo,
-            otherParty().getPartyId(), ownParty().getPartyId()
-        );
-        List<byte[]> randomlyPermutedHyBetaPayload = rpc.receive(randomlyPermutedHyBetaHeader).getPayload();
-
         stopWatch.start();
-        // server calculates H(y)^βα, randomly permutes, sends to client.
-        List<byte[]> randomlyPermutedPeqtPayload = handleRandomlyPermutedHyBetaPayload(randomlyPermutedHyBetaPayload);
-        DataPacketHeader randomlyPermutedPeqtHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_RANDOMLY_PERMUTED_HY_BETA_ALPHA.ordinal(), extraInfo,
-            ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        rpc.send(DataPacket.fromByteArrayList(randomlyPermutedPeqtHeader, randomlyPermutedPeqtPayload));
+        // server receives H(y)^β chunk by chunk, calculates H(H(y)^βα), randomly permutes, sends to client.
+        List<byte[]> randomlyPermutedPeqtPayload = handleRandomlyPermutedHyBetaPayloads();
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_RANDOMLY_PERMUTED_HY_BETA_ALPHA.ordinal(), randomlyPermutedPeqtPayload);
         stopWatch.stop();
         long peqtTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -109,34 +95,45 @@ public class Hfh99EccPsiCaServer<T> extends AbstractPsiCaServer<T> {
         logPhaseInfo(PtoState.PTO_END);
     }
 
-    private List<byte[]> generateRandomlyPermuteHxAlphaPayload() {
-        Stream<T> serverElementStream = serverElementArrayList.stream();
-        serverElementStream = parallel ? serverElementStream.parallel() : serverElementStream;
-
-        List<byte[]> result = serverElementStream
-            .map(ObjectUtils::objectToByteArray)
-            .map(ecc::hashToCurve)
-            .map(p -> ecc.multiply(p, alpha))
-            .map(p -> ecc.encode(p, compressEncode))
-            .collect(Collectors.toList());
-        // randomly permute
-        Collections.shuffle(result, secureRandom);
-        return result;
+    private void sendRandomlyPermutedHxAlphaPayloads() {
+        // randomly permute the plaintext array, so that H(x)^α can be sent before all of them are computed
+        Collections.shuffle(serverElementArrayList, secureRandom);
+        for (int offset = 0; offset < serverElementSize; offset += chunkSize) {
+            int chunkNum = Math.min(chunkSize, serverElementSize - offset);
+            IntStream chunkIndexStream = IntStream.range(offset, offset + chunkNum);
+            chunkIndexStream = parallel ? chunkIndexStream.parallel() : chunkIndexStream;
+            ECPoint[] hxAlphas = chunkIndexStream
+                .mapToObj(index -> ObjectUtils.objectToByteArray(serverElementArrayList.get(index)))
+                .map(ecc::hashToCurve)
+                .map(p -> ecc.multiply(p, alpha))
+                .toArray(ECPoint[]::new);
+            List<byte[]> hxAlphaPayload = Arrays.asList(ecc.encode(hxAlphas, compressEncode));
+            sendOtherPartyPayload(PtoStep.SERVER_SEND_RANDOMLY_PERMUTED_HX_ALPHA.ordinal(), hxAlphaPayload);
+        }
     }
 
-    private List<byte[]> handleRandomlyPermutedHyBetaPayload(List<byte[]> hyBetaPayload) throws MpcAbortException {
-        MpcAbortPreconditions.checkArgument(hyBetaPayload.size() == clientElementSize);
-        Stream<byte[]> hyBetaStream = hyBetaPayload.stream();
-        hyBetaStream = parallel ? hyBetaStream.parallel() : hyBetaStream;
-
-        List<byte[]> result = hyBetaStream
-            .map(ecc::decode)
-            .map(p -> ecc.multiply(p, alpha))
-            .map(p -> ecc.encode(p, false))
-            .map(p -> peqtHash.digestToBytes(p))
-            .collect(Collectors.toList());
-        // randomly permute
+    private List<byte[]> handleRandomlyPermutedHyBetaPayloads() throws MpcAbortException {
+        List<byte[]> result = new ArrayList<>(clientElementSize);
+        for (int offset = 0; offset < clientElementSize; offset += chunkSize) {
+            int chunkNum = Math.min(chunkSize, clientElementSize - offset);
+            List<byte[]> hyBetaPayload = receiveOtherPartyPayload(
+                PtoStep.CLIENT_SEND_RANDOMLY_PERMUTED_HY_BETA.ordinal()
+            );
+            MpcAbortPreconditions.checkArgument(hyBetaPayload.size() == chunkNum);
+            Stream<byte[]> hyBetaStream = hyBetaPayload.stream();
+            hyBetaStream = parallel ? hyBetaStream.parallel() : hyBetaStream;
+            ECPoint[] hyBetaAlphas = hyBetaStream
+                .map(ecc::decode)
+                .map(p -> ecc.multiply(p, alpha))
+                .toArray(ECPoint[]::new);
+            Stream<byte[]> hyBetaAlphaStream = Arrays.stream(ecc.encode(hyBetaAlphas, false));
+            hyBetaAlphaStream = parallel ? hyBetaAlphaStream.parallel() : hyBetaAlphaStream;
+            hyBetaAlphaStream
+                .map(p -> peqtHash.digestToBytes(p))
+                .forEachOrdered(result::add);
+        }
+        // randomly permute, only hash values are permuted
         Collections.shuffle(result, secureRandom);
         return result;
     }
-}
\ No newline at end of file
+}
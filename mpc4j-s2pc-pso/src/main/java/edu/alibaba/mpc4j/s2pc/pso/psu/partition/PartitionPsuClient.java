@@ -0,0 +1,266 @@
+package edu.alibaba.mpc4j.s2pc.pso.psu.partition;
+
+import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyPto;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
+import edu.alibaba.mpc4j.s2pc.pso.psi.partition.PsiPartitioner;
+import edu.alibaba.mpc4j.s2pc.pso.psu.PsuClient;
+import edu.alibaba.mpc4j.s2pc.pso.psu.PsuFactory;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static edu.alibaba.mpc4j.s2pc.pso.psu.partition.PartitionPsuPtoDesc.PtoStep;
+import static edu.alibaba.mpc4j.s2pc.pso.psu.partition.PartitionPsuPtoDesc.getInstance;
+
+/**
+ * partition PSU client. The client reads elements from a file, hash-partitions elements into bucket files, runs the
+ * PSU protocol bucket by bucket, and gives the union of each bucket to a sink once the bucket is done, so that neither
+ * the input set nor the union is fully in memory.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public class PartitionPsuClient extends AbstractTwoPartyPto {
+    /**
+     * bucket num
+     */
+    private final int bucketNum;
+    /**
+     * directory for bucket files
+     */
+    private final String bucketDirectory;
+    /**
+     * PSU clients, one for each concurrent bucket
+     */
+    private final List<PsuClient> psuClients;
+    /**
+     * partitioner
+     */
+    private PsiPartitioner partitioner;
+    /**
+     * max client bucket size
+     */
+    private int maxClientBucketSize;
+    /**
+     * max server bucket size
+     */
+    private int maxServerBucketSize;
+
+    public PartitionPsuClient(Rpc clientRpc, Party serverParty, PartitionPsuConfig config) {
+        super(getInstance(), clientRpc, serverParty, config);
+        bucketNum = config.getBucketNum();
+        bucketDirectory = config.getBucketDirectory();
+        int concurrentBucketNum = Math.min(config.getConcurrentBucketNum(), bucketNum);
+        psuClients = new ArrayList<>(concurrentBucketNum);
+        for (int i = 0; i < concurrentBucketNum; i++) {
+            PsuClient psuClient = PsuFactory.createClient(clientRpc, serverParty, config.getPsuConfig());
+            addSubPto(psuClient);
+            psuClients.add(psuClient);
+        }
+    }
+
+    /**
+     * Inits the protocol.
+     *
+     * @param maxClientElementSize max client element size.
+     * @param maxServerElementSize max server element size.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public void init(int maxClientElementSize, int maxServerElementSize) throws MpcAbortException {
+        MathPreconditions.checkPositive("maxClientElementSize", maxClientElementSize);
+        MathPreconditions.checkPositive("maxServerElementSize", maxServerElementSize);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        List<byte[]> partitionKeyPayload = receiveOtherPartyPayload(PtoStep.SERVER_SEND_PARTITION_KEY.ordinal());
+        MpcAbortPreconditions.checkArgument(partitionKeyPayload.size() == 1);
+        MpcAbortPreconditions.checkArgument(partitionKeyPayload.get(0).length == CommonConstants.BLOCK_BYTE_LENGTH);
+        partitioner = new PsiPartitioner(envType, partitionKeyPayload.get(0), bucketNum);
+        // PSU requires at least 2 elements for each party, singleton buckets are padded with a dummy element
+        maxClientBucketSize = Math.max(2, PsiPartitioner.maxBucketSize(maxClientElementSize, bucketNum));
+        maxServerBucketSize = Math.max(2, PsiPartitioner.maxBucketSize(maxServerElementSize, bucketNum));
+        stopWatch.stop();
+        long keyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 2, keyTime, "Client receives partition key");
+
+        stopWatch.start();
+        try {
+            PsiPartitioner.runWorkers(
+                psuClients.size(), i -> psuClients.get(i).init(maxClientBucketSize, maxServerBucketSize)
+            );
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 2, 2, initTime, "Client inits " + psuClients.size() + " PSU instances");
+
+        initState();
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    /**
+     * Executes the protocol and writes the union into the output file. Elements in the file must be distinct.
+     *
+     * @param clientElementFile client element file, one hex-encoded element per line.
+     * @param elementByteLength element byte length.
+     * @param unionFile         output file of the union, one hex-encoded element per line.
+     * @return union size.
+     * @throws MpcAbortException the protocol failure aborts.
+     * @throws IOException       if an I/O error occurs.
+     */
+    public long psu(String clientElementFile, int elementByteLength, String unionFile)
+        throws MpcAbortException, IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(unionFile), CommonConstants.DEFAULT_CHARSET)) {
+            return psu(clientElementFile, elementByteLength, (bucketIndex, union) -> {
+                for (ByteBuffer element : union) {
+                    writer.write(Hex.toHexString(element.array()));
+                    writer.newLine();
+                }
+            });
+        }
+    }
+
+    /**
+     * Executes the protocol. Elements in the file must be distinct. The union of each bucket is given to the sink
+     * once the bucket is done.
+     *
+     * @param clientElementFile client element file, one hex-encoded element per line.
+     * @param elementByteLength element byte length.
+     * @param sink              union sink.
+     * @return union size.
+     * @throws MpcAbortException the protocol failure aborts.
+     * @throws IOException       if an I/O error occurs.
+     */
+    public long psu(String clientElementFile, int elementByteLength, PsuUnionSink sink)
+        throws MpcAbortException, IOException {
+        checkInitialized();
+        MathPreconditions.checkPositive("elementByteLength", elementByteLength);
+        if (bucketNum > 1) {
+            // singleton buckets are padded with dummy elements, which requires room for a counter
+            MathPreconditions.checkGreaterOrEqual("elementByteLength", elementByteLength, Integer.BYTES);
+        }
+        extraInfo++;
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        int[] clientBucketSizes;
+        int[] serverBucketSizes;
+        try {
+            // element byte lengths are checked while partitioning, before bucket sizes are sent
+            clientBucketSizes = partitioner.partition(
+                clientElementFile, bucketDirectory, "partition_psu_client_", elementByteLength
+            );
+            List<byte[]> serverBucketSizesPayload = receiveOtherPartyPayload(
+                PtoStep.SERVER_SEND_BUCKET_SIZES.ordinal()
+            );
+            byte[] clientBucketSizesBytes = IntUtils.intArrayToByteArray(clientBucketSizes);
+            sendOtherPartyPayload(
+                PtoStep.CLIENT_SEND_BUCKET_SIZES.ordinal(), Collections.singletonList(clientBucketSizesBytes)
+            );
+            MpcAbortPreconditions.checkArgument(serverBucketSizesPayload.size() == 1);
+            MpcAbortPreconditions.checkArgument(serverBucketSizesPayload.get(0).length == bucketNum * Integer.BYTES);
+            serverBucketSizes = IntUtils.byteArrayToIntArray(serverBucketSizesPayload.get(0));
+            // both parties check both bucket sizes, so that both parties abort if any bucket overflows
+            for (int bucketIndex = 0; bucketIndex < bucketNum; bucketIndex++) {
+                MpcAbortPreconditions.checkArgument(clientBucketSizes[bucketIndex] <= maxClientBucketSize);
+                MpcAbortPreconditions.checkArgument(
+                    serverBucketSizes[bucketIndex] >= 0 && serverBucketSizes[bucketIndex] <= maxServerBucketSize
+                );
+            }
+        } catch (MpcAbortException | IOException | IllegalArgumentException e) {
+            partitioner.clean();
+            throw e;
+        }
+        stopWatch.stop();
+        long partitionTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, partitionTime, "Client partitions elements into buckets");
+
+        stopWatch.start();
+        int concurrentBucketNum = psuClients.size();
+        AtomicLong unionSize = new AtomicLong();
+        try {
+            PsiPartitioner.runWorkers(concurrentBucketNum, i -> {
+                for (int bucketIndex = i; bucketIndex < bucketNum; bucketIndex += concurrentBucketNum) {
+                    int clientBucketSize = clientBucketSizes[bucketIndex];
+                    int serverBucketSize = serverBucketSizes[bucketIndex];
+                    Set<ByteBuffer> union;
+                    if (clientBucketSize > 0) {
+                        Set<ByteBuffer> clientBucket = partitioner.readBucket(bucketIndex, clientBucketSize);
+                        if (serverBucketSize > 0) {
+                            // the dummy element is never in the bucket, so that it is removed from the union exactly
+                            ByteBuffer dummyElement = bucketNum > 1 && (clientBucketSize == 1 || serverBucketSize == 1)
+                                ? ByteBuffer.wrap(partitioner.dummyElement(bucketIndex, elementByteLength))
+                                : null;
+                            if (clientBucketSize == 1 && dummyElement != null) {
+                                clientBucket.add(dummyElement);
+                            }
+                            if (serverBucketSize == 1 && dummyElement != null) {
+                                serverBucketSize = 2;
+                            }
+                            union = psuClients.get(i).psu(clientBucket, serverBucketSize, elementByteLength).getUnion();
+                            if (dummyElement != null) {
+                                union = new HashSet<>(union);
+                                union.remove(dummyElement);
+                            }
+                        } else {
+                            // if the server has no element, the union is the client bucket
+                            union = clientBucket;
+                        }
+                    } else if (serverBucketSize > 0) {
+                        union = receiveBucket(bucketIndex, serverBucketSize, elementByteLength);
+                    } else {
+                        union = Collections.emptySet();
+                    }
+                    if (!union.isEmpty()) {
+                        synchronized (sink) {
+                            sink.accept(bucketIndex, union);
+                        }
+                        unionSize.addAndGet(union.size());
+                    }
+                    partitioner.deleteBucket(bucketIndex);
+                }
+            });
+        } finally {
+            partitioner.clean();
+        }
+        stopWatch.stop();
+        long psuTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 2, psuTime, "Client runs PSU in " + bucketNum + " buckets");
+
+        logPhaseInfo(PtoState.PTO_END);
+        return unionSize.get();
+    }
+
+    private Set<ByteBuffer> receiveBucket(int bucketIndex, int serverBucketSize, int elementByteLength)
+        throws MpcAbortException {
+        DataPacketHeader bucketHeader = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_BUCKET_ELEMENTS.ordinal(),
+            extraInfo * bucketNum + bucketIndex, otherParty().getPartyId(), ownParty().getPartyId()
+        );
+        List<byte[]> bucketPayload = rpc.receive(bucketHeader).getPayload();
+        MpcAbortPreconditions.checkArgument(bucketPayload.size() == serverBucketSize);
+        Set<ByteBuffer> bucket = new HashSet<>(serverBucketSize);
+        for (byte[] element : bucketPayload) {
+            MpcAbortPreconditions.checkArgument(element.length == elementByteLength);
+            bucket.add(ByteBuffer.wrap(element));
+        }
+        MpcAbortPreconditions.checkArgument(bucket.size() == serverBucketSize);
+        return bucket;
+    }
+}
@@ -0,0 +1,82 @@
+package edu.alibaba.mpc4j.s2pc.pso.psu.partition;
+
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDesc;
+import edu.alibaba.mpc4j.common.rpc.desc.PtoDescManager;
+
+/**
+ * partition PSU protocol description. Both parties hash-partition their elements into buckets on disk with a public
+ * partition key, and run a PSU protocol in each bucket. Since equal elements fall into the same bucket, the union is
+ * the disjoint union of the bucket unions, so that the client can output the union bucket by bucket.
+ * <p>
+ * Batching leaks more than running PSU on the whole sets: both parties learn the bucket sizes of the other party,
+ * i.e., how the other set distributes under a random hash, and the client learns which bucket each union element
+ * comes from. If the client has no element in a bucket, the server sends the bucket in the clear, since all of them
+ * are in the union anyway; this reveals to the server that the client bucket is empty, which the bucket sizes already
+ * reveal. Since PSU requires at least 2 elements for each party, a singleton bucket is padded with a public dummy
+ * element that is partitioned into another bucket, so that the client removes it from the union without ambiguity.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+class PartitionPsuPtoDesc implements PtoDesc {
+    /**
+     * protocol ID
+     */
+    private static final int PTO_ID = Math.abs((int) 6381472950184736523L);
+    /**
+     * protocol name
+     */
+    private static final String PTO_NAME = "PARTITION_PSU";
+
+    /**
+     * protocol step
+     */
+    enum PtoStep {
+        /**
+         * server sends the partition key
+         */
+        SERVER_SEND_PARTITION_KEY,
+        /**
+         * server sends bucket sizes
+         */
+        SERVER_SEND_BUCKET_SIZES,
+        /**
+         * client sends bucket sizes
+         */
+        CLIENT_SEND_BUCKET_SIZES,
+        /**
+         * server sends elements in a bucket where the client has no element
+         */
+        SERVER_SEND_BUCKET_ELEMENTS,
+    }
+
+    /**
+     * singleton mode
+     */
+    private static final PartitionPsuPtoDesc INSTANCE = new PartitionPsuPtoDesc();
+
+    /**
+     * private constructor.
+     */
+    private PartitionPsuPtoDesc() {
+        // empty
+    }
+
+    public static PtoDesc getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        PtoDescManager.registerPtoDesc(getInstance());
+    }
+
+    @Override
+    public int getPtoId() {
+        return PTO_ID;
+    }
+
+    @Override
+    public String getPtoName() {
+        return PTO_NAME;
+    }
+}
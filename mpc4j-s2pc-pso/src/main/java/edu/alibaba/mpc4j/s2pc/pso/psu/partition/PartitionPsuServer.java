@@ -0,0 +1,214 @@
+package edu.alibaba.mpc4j.s2pc.pso.psu.partition;
+
+import edu.alibaba.mpc4j.common.rpc.*;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyPto;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacket;
+import edu.alibaba.mpc4j.common.rpc.utils.DataPacketHeader;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.utils.IntUtils;
+import edu.alibaba.mpc4j.s2pc.pso.psi.partition.PsiPartitioner;
+import edu.alibaba.mpc4j.s2pc.pso.psu.PsuFactory;
+import edu.alibaba.mpc4j.s2pc.pso.psu.PsuServer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static edu.alibaba.mpc4j.s2pc.pso.psu.partition.PartitionPsuPtoDesc.PtoStep;
+import static edu.alibaba.mpc4j.s2pc.pso.psu.partition.PartitionPsuPtoDesc.getInstance;
+
+/**
+ * partition PSU server. The server reads elements from a file, hash-partitions elements into bucket files, and runs
+ * the PSU protocol bucket by bucket, so that only one bucket is in memory for each concurrent PSU instance. Each PSU
+ * instance (with its OPRF / OKVS / OSN sub-protocols) is initialized once and reused for all buckets assigned to it.
+ * Concurrent PSU instances are sub-protocols with independent task IDs.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public class PartitionPsuServer extends AbstractTwoPartyPto {
+    /**
+     * bucket num
+     */
+    private final int bucketNum;
+    /**
+     * directory for bucket files
+     */
+    private final String bucketDirectory;
+    /**
+     * PSU servers, one for each concurrent bucket
+     */
+    private final List<PsuServer> psuServers;
+    /**
+     * partitioner
+     */
+    private PsiPartitioner partitioner;
+    /**
+     * max server bucket size
+     */
+    private int maxServerBucketSize;
+    /**
+     * max client bucket size
+     */
+    private int maxClientBucketSize;
+
+    public PartitionPsuServer(Rpc serverRpc, Party clientParty, PartitionPsuConfig config) {
+        super(getInstance(), serverRpc, clientParty, config);
+        bucketNum = config.getBucketNum();
+        bucketDirectory = config.getBucketDirectory();
+        int concurrentBucketNum = Math.min(config.getConcurrentBucketNum(), bucketNum);
+        psuServers = new ArrayList<>(concurrentBucketNum);
+        for (int i = 0; i < concurrentBucketNum; i++) {
+            PsuServer psuServer = PsuFactory.createServer(serverRpc, clientParty, config.getPsuConfig());
+            addSubPto(psuServer);
+            psuServers.add(psuServer);
+        }
+    }
+
+    /**
+     * Inits the protocol.
+     *
+     * @param maxServerElementSize max server element size.
+     * @param maxClientElementSize max client element size.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    public void init(int maxServerElementSize, int maxClientElementSize) throws MpcAbortException {
+        MathPreconditions.checkPositive("maxServerElementSize", maxServerElementSize);
+        MathPreconditions.checkPositive("maxClientElementSize", maxClientElementSize);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        byte[] partitionKey = BlockUtils.randomBlock(secureRandom);
+        sendOtherPartyPayload(PtoStep.SERVER_SEND_PARTITION_KEY.ordinal(), Collections.singletonList(partitionKey));
+        partitioner = new PsiPartitioner(envType, partitionKey, bucketNum);
+        // PSU requires at least 2 elements for each party, singleton buckets are padded with a dummy element
+        maxServerBucketSize = Math.max(2, PsiPartitioner.maxBucketSize(maxServerElementSize, bucketNum));
+        maxClientBucketSize = Math.max(2, PsiPartitioner.maxBucketSize(maxClientElementSize, bucketNum));
+        stopWatch.stop();
+        long keyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 2, keyTime, "Server sends partition key");
+
+        stopWatch.start();
+        try {
+            PsiPartitioner.runWorkers(
+                psuServers.size(), i -> psuServers.get(i).init(maxServerBucketSize, maxClientBucketSize)
+            );
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 2, 2, initTime, "Server inits " + psuServers.size() + " PSU instances");
+
+        initState();
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    /**
+     * Executes the protocol. Elements in the file must be distinct.
+     *
+     * @param serverElementFile server element file, one hex-encoded element per line.
+     * @param elementByteLength element byte length.
+     * @throws MpcAbortException the protocol failure aborts.
+     * @throws IOException       if an I/O error occurs.
+     */
+    public void psu(String serverElementFile, int elementByteLength) throws MpcAbortException, IOException {
+        checkInitialized();
+        MathPreconditions.checkPositive("elementByteLength", elementByteLength);
+        if (bucketNum > 1) {
+            // singleton buckets are padded with dummy elements, which requires room for a counter
+            MathPreconditions.checkGreaterOrEqual("elementByteLength", elementByteLength, Integer.BYTES);
+        }
+        extraInfo++;
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        int[] serverBucketSizes;
+        int[] clientBucketSizes;
+        try {
+            // element byte lengths are checked while partitioning, before bucket sizes are sent
+            serverBucketSizes = partitioner.partition(
+                serverElementFile, bucketDirectory, "partition_psu_server_", elementByteLength
+            );
+            byte[] serverBucketSizesBytes = IntUtils.intArrayToByteArray(serverBucketSizes);
+            sendOtherPartyPayload(
+                PtoStep.SERVER_SEND_BUCKET_SIZES.ordinal(), Collections.singletonList(serverBucketSizesBytes)
+            );
+            List<byte[]> clientBucketSizesPayload = receiveOtherPartyPayload(
+                PtoStep.CLIENT_SEND_BUCKET_SIZES.ordinal()
+            );
+            MpcAbortPreconditions.checkArgument(clientBucketSizesPayload.size() == 1);
+            MpcAbortPreconditions.checkArgument(clientBucketSizesPayload.get(0).length == bucketNum * Integer.BYTES);
+            clientBucketSizes = IntUtils.byteArrayToIntArray(clientBucketSizesPayload.get(0));
+            // both parties check both bucket sizes, so that both parties abort if any bucket overflows
+            for (int bucketIndex = 0; bucketIndex < bucketNum; bucketIndex++) {
+                MpcAbortPreconditions.checkArgument(serverBucketSizes[bucketIndex] <= maxServerBucketSize);
+                MpcAbortPreconditions.checkArgument(
+                    clientBucketSizes[bucketIndex] >= 0 && clientBucketSizes[bucketIndex] <= maxClientBucketSize
+                );
+            }
+        } catch (MpcAbortException | IOException | IllegalArgumentException e) {
+            partitioner.clean();
+            throw e;
+        }
+        stopWatch.stop();
+        long partitionTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, partitionTime, "Server partitions elements into buckets");
+
+        stopWatch.start();
+        int concurrentBucketNum = psuServers.size();
+        try {
+            PsiPartitioner.runWorkers(concurrentBucketNum, i -> {
+                for (int bucketIndex = i; bucketIndex < bucketNum; bucketIndex += concurrentBucketNum) {
+                    int serverBucketSize = serverBucketSizes[bucketIndex];
+                    int clientBucketSize = clientBucketSizes[bucketIndex];
+                    // if the server has no element, the union is the client bucket
+                    if (serverBucketSize > 0) {
+                        Set<ByteBuffer> serverBucket = partitioner.readBucket(bucketIndex, serverBucketSize);
+                        if (clientBucketSize > 0) {
+                            // PSU requires at least 2 elements for each party, pad singleton buckets with a dummy
+                            if (serverBucketSize == 1 && bucketNum > 1) {
+                                byte[] dummyElement = partitioner.dummyElement(bucketIndex, elementByteLength);
+                                serverBucket.add(ByteBuffer.wrap(dummyElement));
+                            }
+                            if (clientBucketSize == 1 && bucketNum > 1) {
+                                clientBucketSize = 2;
+                            }
+                            psuServers.get(i).psu(serverBucket, clientBucketSize, elementByteLength);
+                        } else {
+                            // all server elements are in the union, send them in the clear
+                            List<byte[]> bucketPayload = new ArrayList<>(serverBucketSize);
+                            for (ByteBuffer element : serverBucket) {
+                                bucketPayload.add(element.array());
+                            }
+                            sendBucketPayload(bucketIndex, bucketPayload);
+                        }
+                    }
+                    partitioner.deleteBucket(bucketIndex);
+                }
+            });
+        } finally {
+            partitioner.clean();
+        }
+        stopWatch.stop();
+        long psuTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 2, psuTime, "Server runs PSU in " + bucketNum + " buckets");
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    private void sendBucketPayload(int bucketIndex, List<byte[]> bucketPayload) {
+        // buckets are sent from distinct workers, so that each bucket has its own extra info
+        DataPacketHeader bucketHeader = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_BUCKET_ELEMENTS.ordinal(),
+            extraInfo * bucketNum + bucketIndex, ownParty().getPartyId(), otherParty().getPartyId()
+        );
+        rpc.send(DataPacket.fromByteArrayList(bucketHeader, bucketPayload));
+    }
+}
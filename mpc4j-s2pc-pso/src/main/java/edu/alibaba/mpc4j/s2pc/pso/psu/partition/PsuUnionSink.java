@@ -0,0 +1,25 @@
+package edu.alibaba.mpc4j.s2pc.pso.psu.partition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+/**
+ * sink of the partition PSU union. The union of each bucket is given to the sink once the bucket is done. Unions of
+ * distinct buckets are disjoint. With concurrent buckets, the sink may be called from distinct threads, but never
+ * concurrently.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+@FunctionalInterface
+public interface PsuUnionSink {
+    /**
+     * Accepts the union of a bucket.
+     *
+     * @param bucketIndex bucket index.
+     * @param union       union of the bucket.
+     * @throws IOException if an I/O error occurs.
+     */
+    void accept(int bucketIndex, Set<ByteBuffer> union) throws IOException;
+}
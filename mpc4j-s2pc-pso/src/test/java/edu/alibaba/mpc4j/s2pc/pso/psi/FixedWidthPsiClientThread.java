@@ -0,0 +1,83 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * fixed-width PSI client thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/18
+ */
+class FixedWidthPsiClientThread extends Thread {
+    /**
+     * PSI client
+     */
+    private final FixedWidthPsiClient<ByteBuffer> client;
+    /**
+     * client elements, null if using long elements
+     */
+    private final byte[] clientElements;
+    /**
+     * client long elements, null if using byte elements
+     */
+    private final long[] clientLongElements;
+    /**
+     * element byte length
+     */
+    private final int elementByteLength;
+    /**
+     * server element size
+     */
+    private final int serverElementSize;
+    /**
+     * intersection
+     */
+    private byte[] intersection;
+    /**
+     * long intersection
+     */
+    private long[] longIntersection;
+
+    FixedWidthPsiClientThread(FixedWidthPsiClient<ByteBuffer> client, byte[] clientElements, int elementByteLength,
+                              int serverElementSize) {
+        this.client = client;
+        this.clientElements = clientElements;
+        clientLongElements = null;
+        this.elementByteLength = elementByteLength;
+        this.serverElementSize = serverElementSize;
+    }
+
+    FixedWidthPsiClientThread(FixedWidthPsiClient<ByteBuffer> client, long[] clientLongElements, int serverElementSize) {
+        this.client = client;
+        clientElements = null;
+        this.clientLongElements = clientLongElements;
+        elementByteLength = Long.BYTES;
+        this.serverElementSize = serverElementSize;
+    }
+
+    byte[] getIntersection() {
+        return intersection;
+    }
+
+    long[] getLongIntersection() {
+        return longIntersection;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (clientElements != null) {
+                client.init(clientElements.length / elementByteLength, serverElementSize);
+                intersection = client.psi(clientElements, elementByteLength, serverElementSize);
+            } else {
+                assert clientLongElements != null;
+                client.init(clientLongElements.length, serverElementSize);
+                longIntersection = client.psi(clientLongElements, serverElementSize);
+            }
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * fixed-width PSI server thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/18
+ */
+class FixedWidthPsiServerThread extends Thread {
+    /**
+     * PSI server
+     */
+    private final FixedWidthPsiServer<ByteBuffer> server;
+    /**
+     * server elements, null if using long elements
+     */
+    private final byte[] serverElements;
+    /**
+     * server long elements, null if using byte elements
+     */
+    private final long[] serverLongElements;
+    /**
+     * element byte length
+     */
+    private final int elementByteLength;
+    /**
+     * client element size
+     */
+    private final int clientElementSize;
+
+    FixedWidthPsiServerThread(FixedWidthPsiServer<ByteBuffer> server, byte[] serverElements, int elementByteLength,
+                              int clientElementSize) {
+        this.server = server;
+        this.serverElements = serverElements;
+        serverLongElements = null;
+        this.elementByteLength = elementByteLength;
+        this.clientElementSize = clientElementSize;
+    }
+
+    FixedWidthPsiServerThread(FixedWidthPsiServer<ByteBuffer> server, long[] serverLongElements, int clientElementSize) {
+        this.server = server;
+        serverElements = null;
+        this.serverLongElements = serverLongElements;
+        elementByteLength = Long.BYTES;
+        this.clientElementSize = clientElementSize;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (serverElements != null) {
+                server.init(serverElements.length / elementByteLength, clientElementSize);
+                server.psi(serverElements, elementByteLength, clientElementSize);
+            } else {
+                assert serverLongElements != null;
+                server.init(serverLongElements.length, clientElementSize);
+                server.psi(serverLongElements, clientElementSize);
+            }
+        } catch (MpcAbortException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi;
+
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.utils.LongUtils;
+import edu.alibaba.mpc4j.s2pc.pso.PsoUtils;
+import edu.alibaba.mpc4j.s2pc.pso.psi.PsiFactory.PsiType;
+import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.cm20.Cm20PsiConfig;
+import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.rr22.Rr22PsiConfig;
+import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.rs21.Rs21PsiConfig;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * fixed-width PSI tests.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/18
+ */
+@RunWith(Parameterized.class)
+public class FixedWidthPsiTest extends AbstractTwoPartyMemoryRpcPto {
+    /**
+     * default size
+     */
+    private static final int DEFAULT_SIZE = 99;
+    /**
+     * large size
+     */
+    private static final int LARGE_SIZE = 1 << 14;
+    /**
+     * element byte length
+     */
+    private static final int ELEMENT_BYTE_LENGTH = CommonConstants.BLOCK_BYTE_LENGTH;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // RR22
+        configurations.add(new Object[]{
+            PsiType.RR22.name(), new Rr22PsiConfig.Builder(SecurityModel.SEMI_HONEST).build(),
+        });
+        // RS21
+        configurations.add(new Object[]{
+            PsiType.RS21.name(), new Rs21PsiConfig.Builder(SecurityModel.SEMI_HONEST).build(),
+        });
+        // CM20
+        configurations.add(new Object[]{
+            PsiType.CM20.name(), new Cm20PsiConfig.Builder().build(),
+        });
+
+        return configurations;
+    }
+
+    /**
+     * config
+     */
+    private final PsiConfig config;
+
+    public FixedWidthPsiTest(String name, PsiConfig config) {
+        super(name);
+        this.config = config;
+    }
+
+    @Test
+    public void test1() {
+        testPto(1, 1, false);
+    }
+
+    @Test
+    public void testDefault() {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, false);
+    }
+
+    @Test
+    public void testParallelDefault() {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, true);
+    }
+
+    @Test
+    public void testLarge() {
+        testPto(LARGE_SIZE, LARGE_SIZE, false);
+    }
+
+    @Test
+    public void testLong() {
+        testLongPto(DEFAULT_SIZE, DEFAULT_SIZE, false);
+    }
+
+    @Test
+    public void testParallelLong() {
+        testLongPto(DEFAULT_SIZE, DEFAULT_SIZE, true);
+    }
+
+    @Test
+    public void testDistinctElements() {
+        ArrayList<Set<ByteBuffer>> sets = PsoUtils.generateBytesSets(DEFAULT_SIZE, DEFAULT_SIZE, ELEMENT_BYTE_LENGTH);
+        byte[] elements = flatten(sets.get(0));
+        PsiUtils.checkDistinctElements(elements, ELEMENT_BYTE_LENGTH);
+        // duplicate the first element into the last one
+        System.arraycopy(elements, 0, elements, (DEFAULT_SIZE - 1) * ELEMENT_BYTE_LENGTH, ELEMENT_BYTE_LENGTH);
+        Assert.assertThrows(
+            IllegalArgumentException.class, () -> PsiUtils.checkDistinctElements(elements, ELEMENT_BYTE_LENGTH)
+        );
+        long[] longElements = new long[]{1L, 2L, 3L, 1L};
+        Assert.assertThrows(
+            IllegalArgumentException.class,
+            () -> PsiUtils.checkDistinctElements(LongUtils.longArrayToByteArray(longElements), Long.BYTES)
+        );
+    }
+
+    private void testPto(int serverSetSize, int clientSetSize, boolean parallel) {
+        FixedWidthPsiServer<ByteBuffer> server = createServer(parallel);
+        FixedWidthPsiClient<ByteBuffer> client = createClient(parallel);
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        server.setTaskId(randomTaskId);
+        client.setTaskId(randomTaskId);
+        try {
+            ArrayList<Set<ByteBuffer>> sets = PsoUtils.generateBytesSets(serverSetSize, clientSetSize, ELEMENT_BYTE_LENGTH);
+            Set<ByteBuffer> serverSet = sets.get(0);
+            Set<ByteBuffer> clientSet = sets.get(1);
+            byte[] serverElements = flatten(serverSet);
+            byte[] clientElements = flatten(clientSet);
+            FixedWidthPsiServerThread serverThread = new FixedWidthPsiServerThread(
+                server, serverElements, ELEMENT_BYTE_LENGTH, clientSetSize
+            );
+            FixedWidthPsiClientThread clientThread = new FixedWidthPsiClientThread(
+                client, clientElements, ELEMENT_BYTE_LENGTH, serverSetSize
+            );
+            serverThread.start();
+            clientThread.start();
+            serverThread.join();
+            clientThread.join();
+            // verify
+            Set<ByteBuffer> expectIntersectionSet = new HashSet<>(serverSet);
+            expectIntersectionSet.retainAll(clientSet);
+            byte[] intersection = clientThread.getIntersection();
+            Assert.assertEquals(expectIntersectionSet.size() * ELEMENT_BYTE_LENGTH, intersection.length);
+            Set<ByteBuffer> actualIntersectionSet = IntStream.range(0, expectIntersectionSet.size())
+                .mapToObj(i -> Arrays.copyOfRange(intersection, i * ELEMENT_BYTE_LENGTH, (i + 1) * ELEMENT_BYTE_LENGTH))
+                .map(ByteBuffer::wrap)
+                .collect(Collectors.toSet());
+            Assert.assertEquals(expectIntersectionSet, actualIntersectionSet);
+            printAndResetRpc(0);
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void testLongPto(int serverSetSize, int clientSetSize, boolean parallel) {
+        FixedWidthPsiServer<ByteBuffer> server = createServer(parallel);
+        FixedWidthPsiClient<ByteBuffer> client = createClient(parallel);
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        server.setTaskId(randomTaskId);
+        client.setTaskId(randomTaskId);
+        try {
+            // server elements are [0, serverSetSize), client elements are [serverSetSize / 2, serverSetSize / 2 + clientSetSize)
+            long[] serverElements = IntStream.range(0, serverSetSize).mapToLong(i -> i).toArray();
+            long[] clientElements = IntStream.range(0, clientSetSize).mapToLong(i -> i + serverSetSize / 2).toArray();
+            FixedWidthPsiServerThread serverThread = new FixedWidthPsiServerThread(server, serverElements, clientSetSize);
+            FixedWidthPsiClientThread clientThread = new FixedWidthPsiClientThread(client, clientElements, serverSetSize);
+            serverThread.start();
+            clientThread.start();
+            serverThread.join();
+            clientThread.join();
+            // verify, the intersection is in the same order as the client elements
+            long[] expectIntersection = Arrays.stream(clientElements).filter(x -> x < serverSetSize).toArray();
+            Assert.assertArrayEquals(expectIntersection, clientThread.getLongIntersection());
+            printAndResetRpc(0);
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private FixedWidthPsiServer<ByteBuffer> createServer(boolean parallel) {
+        PsiServer<ByteBuffer> server = PsiFactory.createServer(firstRpc, secondRpc.ownParty(), config);
+        Assert.assertTrue(server instanceof FixedWidthPsiServer);
+        server.setParallel(parallel);
+        return (FixedWidthPsiServer<ByteBuffer>) server;
+    }
+
+    private FixedWidthPsiClient<ByteBuffer> createClient(boolean parallel) {
+        PsiClient<ByteBuffer> client = PsiFactory.createClient(secondRpc, firstRpc.ownParty(), config);
+        Assert.assertTrue(client instanceof FixedWidthPsiClient);
+        client.setParallel(parallel);
+        return (FixedWidthPsiClient<ByteBuffer>) client;
+    }
+
+    private static byte[] flatten(Set<ByteBuffer> elementSet) {
+        byte[] elements = new byte[elementSet.size() * ELEMENT_BYTE_LENGTH];
+        int offset = 0;
+        for (ByteBuffer element : elementSet) {
+            System.arraycopy(element.array(), 0, elements, offset, ELEMENT_BYTE_LENGTH);
+            offset += ELEMENT_BYTE_LENGTH;
+        }
+        return elements;
+    }
+}
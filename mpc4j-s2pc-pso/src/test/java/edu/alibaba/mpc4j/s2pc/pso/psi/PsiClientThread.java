@@ -3,6 +3,9 @@ package edu.alibaba.mpc4j.s2pc.pso.psi;
 import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -17,33 +20,45 @@ class PsiClientThread extends Thread {
      */
     private final PsiClient<ByteBuffer> client;
     /**
-     * client element set
+     * client element sets, one for each PSI execution
      */
-    private final Set<ByteBuffer> clientElementSet;
+    private final List<Set<ByteBuffer>> clientElementSets;
     /**
      * server element size
      */
     private final int serverElementSize;
     /**
-     * intersection obtained by the client
+     * intersections obtained by the client
      */
-    private Set<ByteBuffer> intersectionSet;
+    private final List<Set<ByteBuffer>> intersectionSets;
 
     PsiClientThread(PsiClient<ByteBuffer> client, Set<ByteBuffer> clientElementSet, int serverElementSize) {
+        this(client, Collections.singletonList(clientElementSet), serverElementSize);
+    }
+
+    PsiClientThread(PsiClient<ByteBuffer> client, List<Set<ByteBuffer>> clientElementSets, int serverElementSize) {
         this.client = client;
-        this.clientElementSet = clientElementSet;
+        this.clientElementSets = clientElementSets;
         this.serverElementSize = serverElementSize;
+        intersectionSets = new ArrayList<>(clientElementSets.size());
     }
 
     Set<ByteBuffer> getIntersectionSet() {
-        return intersectionSet;
+        return intersectionSets.get(0);
+    }
+
+    List<Set<ByteBuffer>> getIntersectionSets() {
+        return intersectionSets;
     }
 
     @Override
     public void run() {
         try {
-            client.init(clientElementSet.size(), serverElementSize);
-            intersectionSet = client.psi(clientElementSet, serverElementSize);
+            int maxClientElementSize = clientElementSets.stream().mapToInt(Set::size).max().orElse(1);
+            client.init(maxClientElementSize, serverElementSize);
+            for (Set<ByteBuffer> clientElementSet : clientElementSets) {
+                intersectionSets.add(client.psi(clientElementSet, serverElementSize));
+            }
         } catch (MpcAbortException e) {
             e.printStackTrace();
         }
@@ -3,6 +3,8 @@ package edu.alibaba.mpc4j.s2pc.pso.psi;
 import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
 
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -17,25 +19,32 @@ class PsiServerThread extends Thread {
      */
     private final PsiServer<ByteBuffer> server;
     /**
-     * server element set
+     * server element sets, one for each PSI execution
      */
-    private final Set<ByteBuffer> serverElementSet;
+    private final List<Set<ByteBuffer>> serverElementSets;
     /**
      * client element size
      */
     private final int clientElementSize;
 
     PsiServerThread(PsiServer<ByteBuffer> server, Set<ByteBuffer> serverElementSet, int clientElementSize) {
+        this(server, Collections.singletonList(serverElementSet), clientElementSize);
+    }
+
+    PsiServerThread(PsiServer<ByteBuffer> server, List<Set<ByteBuffer>> serverElementSets, int clientElementSize) {
         this.server = server;
-        this.serverElementSet = serverElementSet;
+        this.serverElementSets = serverElementSets;
         this.clientElementSize = clientElementSize;
     }
 
     @Override
     public void run() {
         try {
-            server.init(serverElementSet.size(), clientElementSize);
-            server.psi(serverElementSet, clientElementSize);
+            int maxServerElementSize = serverElementSets.stream().mapToInt(Set::size).max().orElse(1);
+            server.init(maxServerElementSize, clientElementSize);
+            for (Set<ByteBuffer> serverElementSet : serverElementSets) {
+                server.psi(serverElementSet, clientElementSize);
+            }
         } catch (MpcAbortException e) {
             e.printStackTrace();
         }
@@ -2,6 +2,7 @@ package edu.alibaba.mpc4j.s2pc.pso.psi;
 
 import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
 import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.structure.filter.FilterFactory.FilterType;
 import edu.alibaba.mpc4j.common.tool.CommonConstants;
 import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory.CuckooHashBinType;
 import edu.alibaba.mpc4j.common.structure.okve.dokvs.gf2e.Gf2eDokvsFactory.Gf2eDokvsType;
@@ -10,6 +11,12 @@ import edu.alibaba.mpc4j.s2pc.pso.PsoUtils;
 import edu.alibaba.mpc4j.s2pc.pso.psi.PsiFactory.PsiType;
 import edu.alibaba.mpc4j.s2pc.pso.psi.cuckoo.oos17.Oos17PsiConfig;
 import edu.alibaba.mpc4j.s2pc.pso.psi.cuckoo.psz14.Psz14PsiConfig;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfReceiverSession;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSenderSession;
+import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSessionPolicy;
+import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.AbstractMpOprfPsiClient;
+import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.AbstractMpOprfPsiServer;
+import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.MpOprfPsiConfig;
 import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.cm20.Cm20PsiConfig;
 import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.rr22.Rr22PsiConfig;
 import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.rs21.Rs21PsiConfig;
@@ -40,6 +47,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -64,6 +72,17 @@ public class PsiTest extends AbstractTwoPartyMemoryRpcPto {
      * large size
      */
     private static final int LARGE_SIZE = 1 << 14;
+    /**
+     * number of repeated PSI executions
+     */
+    private static final int REPEAT_NUM = 5;
+    /**
+     * session policy that precomputes and resets the mp-OPRF session after every 2 invocations
+     */
+    private static final MpOprfSessionPolicy SESSION_POLICY = new MpOprfSessionPolicy.Builder()
+        .setPrecompute(true)
+        .setMaxOprfNum(2)
+        .build();
 
     @Parameterized.Parameters(name = "{0}")
     public static Collection<Object[]> configurations() {
@@ -78,6 +97,10 @@ public class PsiTest extends AbstractTwoPartyMemoryRpcPto {
             PsiType.RR22.name() + "(" + SecurityModel.SEMI_HONEST + ", " + Gf2kDokvsType.H3_CLUSTER_BINARY_BLAZE_GCT + ")",
             new Rr22PsiConfig.Builder(SecurityModel.SEMI_HONEST, Gf2kDokvsType.H3_CLUSTER_BINARY_BLAZE_GCT).build(),
         });
+        configurations.add(new Object[]{
+            PsiType.RR22.name() + "(" + SecurityModel.SEMI_HONEST + ", pipeline)",
+            new Rr22PsiConfig.Builder(SecurityModel.SEMI_HONEST).setPipeline(true).build(),
+        });
         configurations.add(new Object[]{
             PsiType.RR22.name() + "(" + SecurityModel.MALICIOUS + ")",
             new Rr22PsiConfig.Builder(SecurityModel.MALICIOUS).build(),
@@ -86,6 +109,28 @@ public class PsiTest extends AbstractTwoPartyMemoryRpcPto {
             PsiType.RR22.name() + "(" + SecurityModel.MALICIOUS + ", " + Gf2kDokvsType.H3_CLUSTER_BINARY_BLAZE_GCT + ")",
             new Rr22PsiConfig.Builder(SecurityModel.MALICIOUS, Gf2kDokvsType.H3_CLUSTER_BINARY_BLAZE_GCT).build(),
         });
+        configurations.add(new Object[]{
+            PsiType.RR22.name() + "(" + SecurityModel.SEMI_HONEST + ", " + FilterType.BLOCKED_BLOOM_FILTER + ")",
+            new Rr22PsiConfig.Builder(SecurityModel.SEMI_HONEST)
+                .setFilterType(FilterType.BLOCKED_BLOOM_FILTER)
+                .build(),
+        });
+        configurations.add(new Object[]{
+            PsiType.RR22.name() + "(" + SecurityModel.SEMI_HONEST + ", " + FilterType.BUCKETIZED_CUCKOO_FILTER + ")",
+            new Rr22PsiConfig.Builder(SecurityModel.SEMI_HONEST)
+                .setFilterType(FilterType.BUCKETIZED_CUCKOO_FILTER)
+                .build(),
+        });
+        configurations.add(new Object[]{
+            PsiType.RR22.name() + "(" + SecurityModel.MALICIOUS + ", " + FilterType.BLOCKED_BLOOM_FILTER + ")",
+            new Rr22PsiConfig.Builder(SecurityModel.MALICIOUS)
+                .setFilterType(FilterType.BLOCKED_BLOOM_FILTER)
+                .build(),
+        });
+        configurations.add(new Object[]{
+            PsiType.RR22.name() + "(" + SecurityModel.SEMI_HONEST + ", session)",
+            new Rr22PsiConfig.Builder(SecurityModel.SEMI_HONEST).setSessionPolicy(SESSION_POLICY).build(),
+        });
         // RS21
         configurations.add(new Object[]{
             PsiType.RS21.name() + "(" + SecurityModel.SEMI_HONEST + ")",
@@ -95,6 +140,14 @@ public class PsiTest extends AbstractTwoPartyMemoryRpcPto {
             PsiType.RS21.name() + "(" + SecurityModel.MALICIOUS + ")",
             new Rs21PsiConfig.Builder(SecurityModel.MALICIOUS).build(),
         });
+        configurations.add(new Object[]{
+            PsiType.RS21.name() + "(" + SecurityModel.SEMI_HONEST + ", session)",
+            new Rs21PsiConfig.Builder(SecurityModel.SEMI_HONEST).setSessionPolicy(SESSION_POLICY).build(),
+        });
+        configurations.add(new Object[]{
+            PsiType.RS21.name() + "(" + SecurityModel.MALICIOUS + ", session)",
+            new Rs21PsiConfig.Builder(SecurityModel.MALICIOUS).setSessionPolicy(SESSION_POLICY).build(),
+        });
         // OOS17
         configurations.add(new Object[]{
             PsiType.OOS17.name(), new Oos17PsiConfig.Builder().build(),
@@ -264,6 +317,26 @@ public class PsiTest extends AbstractTwoPartyMemoryRpcPto {
         testPto(LARGE_SIZE, LARGE_SIZE, true);
     }
 
+    @Test
+    public void testRepeat() {
+        testRepeatPto(DEFAULT_SIZE, DEFAULT_SIZE, false);
+    }
+
+    @Test
+    public void testParallelRepeat() {
+        testRepeatPto(DEFAULT_SIZE, DEFAULT_SIZE, true);
+    }
+
+    @Test
+    public void testSharedSession() {
+        testSharedSessionPto(DEFAULT_SIZE, DEFAULT_SIZE, false);
+    }
+
+    @Test
+    public void testParallelSharedSession() {
+        testSharedSessionPto(DEFAULT_SIZE, DEFAULT_SIZE, true);
+    }
+
     private void testPto(int serverSetSize, int clientSetSize, boolean parallel) {
         PsiServer<ByteBuffer> server = PsiFactory.createServer(firstRpc, secondRpc.ownParty(), config);
         PsiClient<ByteBuffer> client = PsiFactory.createClient(secondRpc, firstRpc.ownParty(), config);
@@ -304,6 +377,122 @@ public class PsiTest extends AbstractTwoPartyMemoryRpcPto {
         }
     }
 
+    private void testRepeatPto(int serverSetSize, int clientSetSize, boolean parallel) {
+        PsiServer<ByteBuffer> server = PsiFactory.createServer(firstRpc, secondRpc.ownParty(), config);
+        PsiClient<ByteBuffer> client = PsiFactory.createClient(secondRpc, firstRpc.ownParty(), config);
+        server.setParallel(parallel);
+        client.setParallel(parallel);
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        server.setTaskId(randomTaskId);
+        client.setTaskId(randomTaskId);
+        try {
+            LOGGER.info("-----test {} (repeat = {})，server_size = {}，client_size = {}-----",
+                server.getPtoDesc().getPtoName(), REPEAT_NUM, serverSetSize, clientSetSize
+            );
+            // generate sets
+            List<Set<ByteBuffer>> serverSets = new ArrayList<>(REPEAT_NUM);
+            List<Set<ByteBuffer>> clientSets = new ArrayList<>(REPEAT_NUM);
+            for (int i = 0; i < REPEAT_NUM; i++) {
+                ArrayList<Set<ByteBuffer>> sets
+                    = PsoUtils.generateBytesSets(serverSetSize, clientSetSize, ELEMENT_BYTE_LENGTH);
+                serverSets.add(sets.get(0));
+                clientSets.add(sets.get(1));
+            }
+            PsiServerThread serverThread = new PsiServerThread(server, serverSets, clientSetSize);
+            PsiClientThread clientThread = new PsiClientThread(client, clientSets, serverSetSize);
+            StopWatch stopWatch = new StopWatch();
+            // start
+            stopWatch.start();
+            serverThread.start();
+            clientThread.start();
+            // stop
+            serverThread.join();
+            clientThread.join();
+            stopWatch.stop();
+            long time = stopWatch.getTime(TimeUnit.MILLISECONDS);
+            stopWatch.reset();
+            // verify
+            List<Set<ByteBuffer>> intersectionSets = clientThread.getIntersectionSets();
+            Assert.assertEquals(REPEAT_NUM, intersectionSets.size());
+            for (int i = 0; i < REPEAT_NUM; i++) {
+                assertOutput(serverSets.get(i), clientSets.get(i), intersectionSets.get(i));
+            }
+            printAndResetRpc(time);
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void testSharedSessionPto(int serverSetSize, int clientSetSize, boolean parallel) {
+        // only mp-OPRF-based PSI supports shared sessions
+        if (!(config instanceof MpOprfPsiConfig mpOprfPsiConfig)) {
+            return;
+        }
+        MpOprfSenderSession senderSession = new MpOprfSenderSession(
+            firstRpc, secondRpc.ownParty(), mpOprfPsiConfig.getMpOprfConfig(), mpOprfPsiConfig.getSessionPolicy()
+        );
+        MpOprfReceiverSession receiverSession = new MpOprfReceiverSession(
+            secondRpc, firstRpc.ownParty(), mpOprfPsiConfig.getMpOprfConfig(), mpOprfPsiConfig.getSessionPolicy()
+        );
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        senderSession.getMpOprfSender().setTaskId(randomTaskId);
+        receiverSession.getMpOprfReceiver().setTaskId(randomTaskId);
+        senderSession.getMpOprfSender().setParallel(parallel);
+        receiverSession.getMpOprfReceiver().setParallel(parallel);
+        try {
+            LOGGER.info("-----test {} (shared session, repeat = {})，server_size = {}，client_size = {}-----",
+                config.getPtoType(), REPEAT_NUM, serverSetSize, clientSetSize
+            );
+            long time = 0;
+            for (int i = 0; i < REPEAT_NUM; i++) {
+                // each PSI is a new instance that runs on the shared session
+                PsiServer<ByteBuffer> server = PsiFactory.createServer(firstRpc, secondRpc.ownParty(), config);
+                PsiClient<ByteBuffer> client = PsiFactory.createClient(secondRpc, firstRpc.ownParty(), config);
+                ((AbstractMpOprfPsiServer<ByteBuffer>) server).setMpOprfSenderSession(senderSession);
+                ((AbstractMpOprfPsiClient<ByteBuffer>) client).setMpOprfReceiverSession(receiverSession);
+                server.setParallel(parallel);
+                client.setParallel(parallel);
+                server.setTaskId(randomTaskId);
+                client.setTaskId(randomTaskId);
+                ArrayList<Set<ByteBuffer>> sets
+                    = PsoUtils.generateBytesSets(serverSetSize, clientSetSize, ELEMENT_BYTE_LENGTH);
+                Set<ByteBuffer> serverSet = sets.get(0);
+                Set<ByteBuffer> clientSet = sets.get(1);
+                PsiServerThread serverThread = new PsiServerThread(server, serverSet, clientSet.size());
+                PsiClientThread clientThread = new PsiClientThread(client, clientSet, serverSet.size());
+                StopWatch stopWatch = new StopWatch();
+                // start
+                stopWatch.start();
+                serverThread.start();
+                clientThread.start();
+                // stop
+                serverThread.join();
+                clientThread.join();
+                stopWatch.stop();
+                time += stopWatch.getTime(TimeUnit.MILLISECONDS);
+                stopWatch.reset();
+                // verify
+                assertOutput(serverSet, clientSet, clientThread.getIntersectionSet());
+                // destroying PSI instances does not destroy the shared session
+                server.destroy();
+                client.destroy();
+            }
+            // the session is reset after every maxOprfNum invocations
+            int maxOprfNum = mpOprfPsiConfig.getSessionPolicy().getMaxOprfNum();
+            Assert.assertEquals((REPEAT_NUM - 1) % maxOprfNum + 1, senderSession.getSessionOprfNum());
+            Assert.assertEquals((REPEAT_NUM - 1) % maxOprfNum + 1, receiverSession.getSessionOprfNum());
+            printAndResetRpc(time);
+            // destroy
+            new Thread(senderSession::destroy).start();
+            new Thread(receiverSession::destroy).start();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
     private void assertOutput(Set<ByteBuffer> serverSet, Set<ByteBuffer> clientSet, Set<ByteBuffer> outputIntersectionSet) {
         Set<ByteBuffer> expectIntersectionSet = new HashSet<>(serverSet);
         expectIntersectionSet.retainAll(clientSet);
@@ -0,0 +1,67 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi.partition;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.IOException;
+
+/**
+ * partition PSI client thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+class PartitionPsiClientThread extends Thread {
+    /**
+     * partition PSI client
+     */
+    private final PartitionPsiClient client;
+    /**
+     * client element file
+     */
+    private final String clientElementFile;
+    /**
+     * intersection file
+     */
+    private final String intersectionFile;
+    /**
+     * element byte length
+     */
+    private final int elementByteLength;
+    /**
+     * client element size
+     */
+    private final int clientElementSize;
+    /**
+     * server element size
+     */
+    private final int serverElementSize;
+    /**
+     * intersection size
+     */
+    private long intersectionSize;
+
+    PartitionPsiClientThread(PartitionPsiClient client, String clientElementFile, int elementByteLength,
+                             String intersectionFile, int clientElementSize, int serverElementSize) {
+        this.client = client;
+        this.clientElementFile = clientElementFile;
+        this.elementByteLength = elementByteLength;
+        this.intersectionFile = intersectionFile;
+        this.clientElementSize = clientElementSize;
+        this.serverElementSize = serverElementSize;
+        intersectionSize = -1;
+    }
+
+    long getIntersectionSize() {
+        return intersectionSize;
+    }
+
+    @Override
+    public void run() {
+        try {
+            client.init(clientElementSize, serverElementSize);
+            intersectionSize = client.psi(clientElementFile, elementByteLength, intersectionFile);
+        } catch (MpcAbortException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi.partition;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.IOException;
+
+/**
+ * partition PSI server thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+class PartitionPsiServerThread extends Thread {
+    /**
+     * partition PSI server
+     */
+    private final PartitionPsiServer server;
+    /**
+     * server element file
+     */
+    private final String serverElementFile;
+    /**
+     * element byte length
+     */
+    private final int elementByteLength;
+    /**
+     * server element size
+     */
+    private final int serverElementSize;
+    /**
+     * client element size
+     */
+    private final int clientElementSize;
+
+    PartitionPsiServerThread(PartitionPsiServer server, String serverElementFile, int elementByteLength,
+                             int serverElementSize, int clientElementSize) {
+        this.server = server;
+        this.serverElementFile = serverElementFile;
+        this.elementByteLength = elementByteLength;
+        this.serverElementSize = serverElementSize;
+        this.clientElementSize = clientElementSize;
+    }
+
+    @Override
+    public void run() {
+        try {
+            server.init(serverElementSize, clientElementSize);
+            server.psi(serverElementFile, elementByteLength);
+        } catch (MpcAbortException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package edu.alibaba.mpc4j.s2pc.pso.psi.partition;
+
+import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.s2pc.pso.PsoUtils;
+import edu.alibaba.mpc4j.s2pc.pso.psi.PsiConfig;
+import edu.alibaba.mpc4j.s2pc.pso.psi.PsiFactory.PsiType;
+import edu.alibaba.mpc4j.s2pc.pso.psi.cuckoo.kkrt16.Kkrt16PsiConfig;
+import edu.alibaba.mpc4j.s2pc.pso.psi.mpoprf.rr22.Rr22PsiConfig;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * partition PSI test.
+ *
+ * @author Weiran Liu
+ * @date 2025/2/17
+ */
+@RunWith(Parameterized.class)
+public class PartitionPsiTest extends AbstractTwoPartyMemoryRpcPto {
+    /**
+     * default size
+     */
+    private static final int DEFAULT_SIZE = 1 << 10;
+    /**
+     * large size
+     */
+    private static final int LARGE_SIZE = 1 << 14;
+    /**
+     * element byte length
+     */
+    private static final int ELEMENT_BYTE_LENGTH = CommonConstants.BLOCK_BYTE_LENGTH;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // RR22
+        configurations.add(new Object[]{
+            PsiType.RR22.name(), new Rr22PsiConfig.Builder(SecurityModel.SEMI_HONEST).build(),
+        });
+        // KKRT16
+        configurations.add(new Object[]{
+            PsiType.KKRT16.name(), new Kkrt16PsiConfig.Builder().build(),
+        });
+
+        return configurations;
+    }
+
+    /**
+     * PSI config
+     */
+    private final PsiConfig psiConfig;
+
+    public PartitionPsiTest(String name, PsiConfig psiConfig) {
+        super(name);
+        this.psiConfig = psiConfig;
+    }
+
+    @Test
+    public void test1Bucket() throws IOException {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, 1, 1, false);
+    }
+
+    @Test
+    public void testSmallSize() throws IOException {
+        testPto(10, 10, 16, 1, false);
+    }
+
+    @Test
+    public void testDefault() throws IOException {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, 16, 1, false);
+    }
+
+    @Test
+    public void testUnbalanced() throws IOException {
+        testPto(DEFAULT_SIZE, 10, 16, 1, false);
+    }
+
+    @Test
+    public void testConcurrent() throws IOException {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, 16, 4, false);
+    }
+
+    @Test
+    public void testParallelConcurrent() throws IOException {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, 16, 4, true);
+    }
+
+    @Test
+    public void testLarge() throws IOException {
+        testPto(LARGE_SIZE, LARGE_SIZE, 64, 2, false);
+    }
+
+    @Test
+    public void testPadding() throws IOException {
+        // buckets are padded, so that the communication pattern does not depend on the bucket sizes
+        long[] fullPacketNums = testPto(DEFAULT_SIZE, DEFAULT_SIZE, DEFAULT_SIZE, DEFAULT_SIZE, 16, 1, false);
+        long[] smallPacketNums = testPto(10, 10, DEFAULT_SIZE, DEFAULT_SIZE, 16, 1, false);
+        Assert.assertArrayEquals(fullPacketNums, smallPacketNums);
+    }
+
+    private void testPto(int serverSetSize, int clientSetSize, int bucketNum, int concurrentBucketNum, boolean parallel)
+        throws IOException {
+        testPto(serverSetSize, clientSetSize, serverSetSize, clientSetSize, bucketNum, concurrentBucketNum, parallel);
+    }
+
+    private long[] testPto(int serverSetSize, int clientSetSize, int maxServerSetSize, int maxClientSetSize,
+                           int bucketNum, int concurrentBucketNum, boolean parallel) throws IOException {
+        PartitionPsiConfig config = new PartitionPsiConfig.Builder(psiConfig)
+            .setBucketNum(bucketNum)
+            .setConcurrentBucketNum(concurrentBucketNum)
+            .build();
+        PartitionPsiServer server = new PartitionPsiServer(firstRpc, secondRpc.ownParty(), config);
+        PartitionPsiClient client = new PartitionPsiClient(secondRpc, firstRpc.ownParty(), config);
+        server.setParallel(parallel);
+        client.setParallel(parallel);
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        server.setTaskId(randomTaskId);
+        client.setTaskId(randomTaskId);
+        Path directory = Files.createTempDirectory("partition_psi_test_");
+        try {
+            ArrayList<Set<ByteBuffer>> sets = PsoUtils.generateBytesSets(serverSetSize, clientSetSize, ELEMENT_BYTE_LENGTH);
+            Set<ByteBuffer> serverSet = sets.get(0);
+            Set<ByteBuffer> clientSet = sets.get(1);
+            String serverElementFile = writeElementFile(directory, "server", serverSet);
+            String clientElementFile = writeElementFile(directory, "client", clientSet);
+            String intersectionFile = directory.resolve("intersection").toString();
+            long serverSendDataPacketNum = firstRpc.getSendDataPacketNum();
+            long clientSendDataPacketNum = secondRpc.getSendDataPacketNum();
+            PartitionPsiServerThread serverThread = new PartitionPsiServerThread(
+                server, serverElementFile, ELEMENT_BYTE_LENGTH, maxServerSetSize, maxClientSetSize
+            );
+            PartitionPsiClientThread clientThread = new PartitionPsiClientThread(
+                client, clientElementFile, ELEMENT_BYTE_LENGTH, intersectionFile, maxClientSetSize, maxServerSetSize
+            );
+            serverThread.start();
+            clientThread.start();
+            serverThread.join();
+            clientThread.join();
+            // verify
+            Set<ByteBuffer> expectIntersectionSet = new HashSet<>(serverSet);
+            expectIntersectionSet.retainAll(clientSet);
+            Set<ByteBuffer> actualIntersectionSet = Files.readAllLines(new File(intersectionFile).toPath()).stream()
+                .map(Hex::decode)
+                .map(ByteBuffer::wrap)
+                .collect(Collectors.toSet());
+            Assert.assertEquals(expectIntersectionSet.size(), clientThread.getIntersectionSize());
+            Assert.assertEquals(expectIntersectionSet, actualIntersectionSet);
+            serverSendDataPacketNum = firstRpc.getSendDataPacketNum() - serverSendDataPacketNum;
+            clientSendDataPacketNum = secondRpc.getSendDataPacketNum() - clientSendDataPacketNum;
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+            return new long[]{serverSendDataPacketNum, clientSendDataPacketNum};
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            for (File file : Objects.requireNonNull(directory.toFile().listFiles())) {
+                Assert.assertTrue(file.delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private String writeElementFile(Path directory, String name, Set<ByteBuffer> elementSet) throws IOException {
+        Path file = directory.resolve(name);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, CommonConstants.DEFAULT_CHARSET)) {
+            for (ByteBuffer element : elementSet) {
+                writer.write(Hex.toHexString(element.array()));
+                writer.newLine();
+            }
+        }
+        return file.toString();
+    }
+}
@@ -42,6 +42,10 @@ public class PsiCaTest extends AbstractTwoPartyMemoryRpcPto {
      * large size
      */
     private static final int LARGE_SIZE = 1 << 14;
+    /**
+     * small chunk size, so that exponentiation results are streamed in many chunks
+     */
+    private static final int SMALL_CHUNK_SIZE = 7;
 
     @Parameterized.Parameters(name = "{0}")
     public static Collection<Object[]> configurations() {
@@ -57,6 +61,11 @@ public class PsiCaTest extends AbstractTwoPartyMemoryRpcPto {
             PsiCaFactory.PsiCaType.HFH99_ECC.name() + " (uncompress)",
             new Hfh99EccPsiCaConfig.Builder().setCompressEncode(false).build(),
         });
+        // HFH99_ECC (small chunk)
+        configurations.add(new Object[]{
+            PsiCaFactory.PsiCaType.HFH99_ECC.name() + " (small chunk)",
+            new Hfh99EccPsiCaConfig.Builder().setChunkSize(SMALL_CHUNK_SIZE).build(),
+        });
         // CGT12_ECC (compress)
         configurations.add(new Object[]{
             PsiCaFactory.PsiCaType.CGT12_ECC.name() + " (compress)",
@@ -67,6 +76,11 @@ public class PsiCaTest extends AbstractTwoPartyMemoryRpcPto {
             PsiCaFactory.PsiCaType.CGT12_ECC.name() + " (uncompress)",
             new Cgt12EccPsiCaConfig.Builder().setCompressEncode(false).build(),
         });
+        // CGT12_ECC (small chunk)
+        configurations.add(new Object[]{
+            PsiCaFactory.PsiCaType.CGT12_ECC.name() + " (small chunk)",
+            new Cgt12EccPsiCaConfig.Builder().setChunkSize(SMALL_CHUNK_SIZE).build(),
+        });
         // client-payload circuit PSI (direct)
         configurations.add(new Object[]{
             PsiCaFactory.PsiCaType.CCPSI.name() + " (direct)",
@@ -0,0 +1,78 @@
+package edu.alibaba.mpc4j.s2pc.pso.psu.partition;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * partition PSU client thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+class PartitionPsuClientThread extends Thread {
+    /**
+     * partition PSU client
+     */
+    private final PartitionPsuClient client;
+    /**
+     * client element file
+     */
+    private final String clientElementFile;
+    /**
+     * client element size
+     */
+    private final int clientElementSize;
+    /**
+     * server element size
+     */
+    private final int serverElementSize;
+    /**
+     * element byte length
+     */
+    private final int elementByteLength;
+    /**
+     * union of each bucket
+     */
+    private final Map<Integer, Set<ByteBuffer>> bucketUnions;
+    /**
+     * union size
+     */
+    private long unionSize;
+
+    PartitionPsuClientThread(PartitionPsuClient client, String clientElementFile,
+                             int clientElementSize, int serverElementSize, int elementByteLength) {
+        this.client = client;
+        this.clientElementFile = clientElementFile;
+        this.clientElementSize = clientElementSize;
+        this.serverElementSize = serverElementSize;
+        this.elementByteLength = elementByteLength;
+        bucketUnions = new HashMap<>();
+        unionSize = -1;
+    }
+
+    Map<Integer, Set<ByteBuffer>> getBucketUnions() {
+        return bucketUnions;
+    }
+
+    long getUnionSize() {
+        return unionSize;
+    }
+
+    @Override
+    public void run() {
+        try {
+            client.init(clientElementSize, serverElementSize);
+            unionSize = client.psu(clientElementFile, elementByteLength, (bucketIndex, union) -> {
+                // each bucket is given to the sink once
+                if (bucketUnions.put(bucketIndex, union) != null) {
+                    throw new IllegalStateException("bucket " + bucketIndex + " is given twice");
+                }
+            });
+        } catch (MpcAbortException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
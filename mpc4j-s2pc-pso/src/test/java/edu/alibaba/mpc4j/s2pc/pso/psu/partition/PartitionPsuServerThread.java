@@ -0,0 +1,53 @@
+package edu.alibaba.mpc4j.s2pc.pso.psu.partition;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.IOException;
+
+/**
+ * partition PSU server thread.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+class PartitionPsuServerThread extends Thread {
+    /**
+     * partition PSU server
+     */
+    private final PartitionPsuServer server;
+    /**
+     * server element file
+     */
+    private final String serverElementFile;
+    /**
+     * server element size
+     */
+    private final int serverElementSize;
+    /**
+     * client element size
+     */
+    private final int clientElementSize;
+    /**
+     * element byte length
+     */
+    private final int elementByteLength;
+
+    PartitionPsuServerThread(PartitionPsuServer server, String serverElementFile,
+                             int serverElementSize, int clientElementSize, int elementByteLength) {
+        this.server = server;
+        this.serverElementFile = serverElementFile;
+        this.serverElementSize = serverElementSize;
+        this.clientElementSize = clientElementSize;
+        this.elementByteLength = elementByteLength;
+    }
+
+    @Override
+    public void run() {
+        try {
+            server.init(serverElementSize, clientElementSize);
+            server.psu(serverElementFile, elementByteLength);
+        } catch (MpcAbortException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package edu.alibaba.mpc4j.s2pc.pso.psu.partition;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.s2pc.pso.PsoUtils;
+import edu.alibaba.mpc4j.s2pc.pso.psu.PsuConfig;
+import edu.alibaba.mpc4j.s2pc.pso.psu.PsuFactory.PsuType;
+import edu.alibaba.mpc4j.s2pc.pso.psu.gmr21.Gmr21PsuConfig;
+import edu.alibaba.mpc4j.s2pc.pso.psu.jsz22.Jsz22SfcPsuConfig;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * partition PSU test.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+@RunWith(Parameterized.class)
+public class PartitionPsuTest extends AbstractTwoPartyMemoryRpcPto {
+    /**
+     * default size
+     */
+    private static final int DEFAULT_SIZE = 1 << 10;
+    /**
+     * large size
+     */
+    private static final int LARGE_SIZE = 1 << 14;
+    /**
+     * element byte length
+     */
+    private static final int ELEMENT_BYTE_LENGTH = CommonConstants.BLOCK_BYTE_LENGTH;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // JSZ22_SFC (direct)
+        configurations.add(new Object[]{
+            PsuType.JSZ22_SFC.name() + " (direct)", new Jsz22SfcPsuConfig.Builder(false).build(),
+        });
+        // GMR21 (direct)
+        configurations.add(new Object[]{
+            PsuType.GMR21.name() + " (direct)", new Gmr21PsuConfig.Builder(false).build(),
+        });
+
+        return configurations;
+    }
+
+    /**
+     * PSU config
+     */
+    private final PsuConfig psuConfig;
+
+    public PartitionPsuTest(String name, PsuConfig psuConfig) {
+        super(name);
+        this.psuConfig = psuConfig;
+    }
+
+    @Test
+    public void test1Bucket() throws IOException {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, 1, 1, false);
+    }
+
+    @Test
+    public void testSmallSize() throws IOException {
+        testPto(10, 10, 16, 1, false);
+    }
+
+    @Test
+    public void testDefault() throws IOException {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, 16, 1, false);
+    }
+
+    @Test
+    public void testSmallClient() throws IOException {
+        testPto(DEFAULT_SIZE, 10, 16, 1, false);
+    }
+
+    @Test
+    public void testSmallServer() throws IOException {
+        testPto(10, DEFAULT_SIZE, 16, 1, false);
+    }
+
+    @Test
+    public void testConcurrent() throws IOException {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, 16, 4, false);
+    }
+
+    @Test
+    public void testParallelConcurrent() throws IOException {
+        testPto(DEFAULT_SIZE, DEFAULT_SIZE, 16, 4, true);
+    }
+
+    @Test
+    public void testLarge() throws IOException {
+        testPto(LARGE_SIZE, LARGE_SIZE, 64, 2, false);
+    }
+
+    @Test
+    public void testInvalidElementByteLength() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("partition_psu_test_");
+        PartitionPsuConfig config = new PartitionPsuConfig.Builder(psuConfig)
+            .setBucketNum(4)
+            .setBucketDirectory(directory.toString())
+            .build();
+        PartitionPsuServer server = new PartitionPsuServer(firstRpc, secondRpc.ownParty(), config);
+        PartitionPsuClient client = new PartitionPsuClient(secondRpc, firstRpc.ownParty(), config);
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        server.setTaskId(randomTaskId);
+        client.setTaskId(randomTaskId);
+        try {
+            Thread serverInitThread = new Thread(() -> {
+                try {
+                    server.init(DEFAULT_SIZE, DEFAULT_SIZE);
+                } catch (MpcAbortException e) {
+                    e.printStackTrace();
+                }
+            });
+            Thread clientInitThread = new Thread(() -> {
+                try {
+                    client.init(DEFAULT_SIZE, DEFAULT_SIZE);
+                } catch (MpcAbortException e) {
+                    e.printStackTrace();
+                }
+            });
+            serverInitThread.start();
+            clientInitThread.start();
+            serverInitThread.join();
+            clientInitThread.join();
+            // each party has an element with an invalid byte length
+            ArrayList<Set<ByteBuffer>> sets = PsoUtils.generateBytesSets(DEFAULT_SIZE, DEFAULT_SIZE, ELEMENT_BYTE_LENGTH);
+            Set<ByteBuffer> serverSet = new HashSet<>(sets.get(0));
+            serverSet.add(ByteBuffer.wrap(new byte[ELEMENT_BYTE_LENGTH - 1]));
+            Set<ByteBuffer> clientSet = new HashSet<>(sets.get(1));
+            clientSet.add(ByteBuffer.wrap(new byte[ELEMENT_BYTE_LENGTH + 1]));
+            String serverElementFile = writeElementFile(directory, "server", serverSet);
+            String clientElementFile = writeElementFile(directory, "client", clientSet);
+            // both parties reject the input before sending anything about the buckets
+            long serverSendDataPacketNum = firstRpc.getSendDataPacketNum();
+            Assert.assertThrows(
+                IllegalArgumentException.class, () -> server.psu(serverElementFile, ELEMENT_BYTE_LENGTH)
+            );
+            Assert.assertEquals(serverSendDataPacketNum, firstRpc.getSendDataPacketNum());
+            long clientSendDataPacketNum = secondRpc.getSendDataPacketNum();
+            Assert.assertThrows(
+                IllegalArgumentException.class,
+                () -> client.psu(clientElementFile, ELEMENT_BYTE_LENGTH, (bucketIndex, union) -> {})
+            );
+            Assert.assertEquals(clientSendDataPacketNum, secondRpc.getSendDataPacketNum());
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+        } finally {
+            // bucket directories are cleaned, so that only element files are left
+            for (File file : Objects.requireNonNull(directory.toFile().listFiles())) {
+                Assert.assertTrue(file.delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private void testPto(int serverSetSize, int clientSetSize, int bucketNum, int concurrentBucketNum, boolean parallel)
+        throws IOException {
+        PartitionPsuConfig config = new PartitionPsuConfig.Builder(psuConfig)
+            .setBucketNum(bucketNum)
+            .setConcurrentBucketNum(concurrentBucketNum)
+            .build();
+        PartitionPsuServer server = new PartitionPsuServer(firstRpc, secondRpc.ownParty(), config);
+        PartitionPsuClient client = new PartitionPsuClient(secondRpc, firstRpc.ownParty(), config);
+        server.setParallel(parallel);
+        client.setParallel(parallel);
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        server.setTaskId(randomTaskId);
+        client.setTaskId(randomTaskId);
+        Path directory = Files.createTempDirectory("partition_psu_test_");
+        try {
+            ArrayList<Set<ByteBuffer>> sets = PsoUtils.generateBytesSets(serverSetSize, clientSetSize, ELEMENT_BYTE_LENGTH);
+            Set<ByteBuffer> serverSet = sets.get(0);
+            Set<ByteBuffer> clientSet = sets.get(1);
+            String serverElementFile = writeElementFile(directory, "server", serverSet);
+            String clientElementFile = writeElementFile(directory, "client", clientSet);
+            PartitionPsuServerThread serverThread = new PartitionPsuServerThread(
+                server, serverElementFile, serverSetSize, clientSetSize, ELEMENT_BYTE_LENGTH
+            );
+            PartitionPsuClientThread clientThread = new PartitionPsuClientThread(
+                client, clientElementFile, clientSetSize, serverSetSize, ELEMENT_BYTE_LENGTH
+            );
+            serverThread.start();
+            clientThread.start();
+            serverThread.join();
+            clientThread.join();
+            // verify
+            Set<ByteBuffer> expectUnionSet = new HashSet<>(serverSet);
+            expectUnionSet.addAll(clientSet);
+            Set<ByteBuffer> actualUnionSet = new HashSet<>();
+            long bucketUnionSize = 0;
+            for (Set<ByteBuffer> bucketUnion : clientThread.getBucketUnions().values()) {
+                actualUnionSet.addAll(bucketUnion);
+                bucketUnionSize += bucketUnion.size();
+            }
+            // bucket unions are disjoint
+            Assert.assertEquals(actualUnionSet.size(), bucketUnionSize);
+            Assert.assertEquals(expectUnionSet.size(), clientThread.getUnionSize());
+            Assert.assertEquals(expectUnionSet, actualUnionSet);
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            for (File file : Objects.requireNonNull(directory.toFile().listFiles())) {
+                Assert.assertTrue(file.delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private String writeElementFile(Path directory, String name, Set<ByteBuffer> elementSet) throws IOException {
+        Path file = directory.resolve(name);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, CommonConstants.DEFAULT_CHARSET)) {
+            for (ByteBuffer element : elementSet) {
+                writer.write(Hex.toHexString(element.array()));
+                writer.newLine();
+            }
+        }
+        return file.toString();
+    }
+}
@@ -75,4 +75,11 @@ public abstract class AbstractUpsiServer<T> extends AbstractTwoPartyPto implemen
         );
         extraInfo++;
     }
+
+    protected void setPtoInput(int clientElementSize) {
+        checkInitialized();
+        MathPreconditions.checkPositiveInRangeClosed("clientElementSize", clientElementSize, maxClientElementSize);
+        this.clientElementSize = clientElementSize;
+        extraInfo++;
+    }
 }
\ No newline at end of file
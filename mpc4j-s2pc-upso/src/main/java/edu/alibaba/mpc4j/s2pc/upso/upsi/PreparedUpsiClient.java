@@ -0,0 +1,20 @@
+package edu.alibaba.mpc4j.s2pc.upso.upsi;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+/**
+ * UPSI client that queries a server holding a prepared database. After {@link #initPrepared(UpsiParams)}, the client
+ * runs {@link #psi(java.util.Set)} with the hash keys chosen by the server.
+ *
+ * @author Liqiang Peng
+ * @date 2025/3/3
+ */
+public interface PreparedUpsiClient<T> extends UpsiClient<T> {
+    /**
+     * Client initializes the protocol against a server holding a prepared database.
+     *
+     * @param upsiParams UPSI params of the prepared database.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    void initPrepared(UpsiParams upsiParams) throws MpcAbortException;
+}
@@ -0,0 +1,51 @@
+package edu.alibaba.mpc4j.s2pc.upso.upsi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * UPSI server database that is hashed and encoded once and reused by many client queries. Insertions and deletions
+ * only re-encode the affected part of the database. Implementations are not thread-safe: updates must not run
+ * concurrently with queries.
+ *
+ * @author Liqiang Peng
+ * @date 2025/3/3
+ */
+public interface PreparedUpsiDatabase<T> {
+    /**
+     * Gets the UPSI params.
+     *
+     * @return UPSI params.
+     */
+    UpsiParams getParams();
+
+    /**
+     * Gets the number of server elements.
+     *
+     * @return the number of server elements.
+     */
+    int size();
+
+    /**
+     * Inserts elements. The elements must not be in the database.
+     *
+     * @param elementSet elements to insert.
+     */
+    void insert(Set<T> elementSet);
+
+    /**
+     * Deletes elements. The elements must be in the database.
+     *
+     * @param elementSet elements to delete.
+     */
+    void delete(Set<T> elementSet);
+
+    /**
+     * Writes the database, so that it can be restored without re-encoding.
+     *
+     * @param outputStream output stream.
+     * @throws IOException if I/O operations failed.
+     */
+    void write(OutputStream outputStream) throws IOException;
+}
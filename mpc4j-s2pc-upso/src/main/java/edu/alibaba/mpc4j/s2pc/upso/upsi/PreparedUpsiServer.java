@@ -0,0 +1,32 @@
+package edu.alibaba.mpc4j.s2pc.upso.upsi;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.IOException;
+
+/**
+ * UPSI server that answers queries against a prepared database. The OPRF key and the hash keys are fixed by the
+ * database, so that each query only runs the OPRF and the homomorphic evaluation.
+ *
+ * @author Liqiang Peng
+ * @date 2025/3/3
+ */
+public interface PreparedUpsiServer<T> extends UpsiServer<T> {
+    /**
+     * Server initializes the protocol with a prepared database.
+     *
+     * @param database             prepared database.
+     * @param maxClientElementSize max client element size.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    void init(PreparedUpsiDatabase<T> database, int maxClientElementSize) throws MpcAbortException;
+
+    /**
+     * Server executes the protocol with the prepared database.
+     *
+     * @param clientElementSize client element size.
+     * @throws MpcAbortException the protocol failure aborts.
+     * @throws IOException if I/O operations failed.
+     */
+    void psi(int clientElementSize) throws MpcAbortException, IOException;
+}
@@ -1,6 +1,7 @@
 package edu.alibaba.mpc4j.s2pc.upso.upsi.cmg21;
 
 import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.MpcAbortPreconditions;
 import edu.alibaba.mpc4j.common.rpc.Party;
 import edu.alibaba.mpc4j.common.rpc.PtoState;
 import edu.alibaba.mpc4j.common.rpc.Rpc;
@@ -20,8 +21,12 @@ import edu.alibaba.mpc4j.crypto.fhe.seal.serialization.SealSerializable;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfReceiver;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfReceiverOutput;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfFactory;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfReceiver;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfReceiverOutput;
 import edu.alibaba.mpc4j.s2pc.upso.UpsoUtils;
 import edu.alibaba.mpc4j.s2pc.upso.upsi.AbstractUpsiClient;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.PreparedUpsiClient;
 import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiParams;
 
 import java.io.IOException;
@@ -41,12 +46,20 @@ import static edu.alibaba.mpc4j.s2pc.upso.upsi.cmg21.Cmg21JavaUpsiPtoDesc.getIns
  * @author Liqiang Peng
  * @date 2024/2/26
  */
-public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> {
+public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> implements PreparedUpsiClient<T> {
 
     /**
      * MP-OPRF receiver
      */
     private final MpOprfReceiver mpOprfReceiver;
+    /**
+     * single-query OPRF receiver, used when the server holds a prepared database
+     */
+    private final SqOprfReceiver sqOprfReceiver;
+    /**
+     * hash keys of the prepared database, null if the server does not hold a prepared database
+     */
+    private byte[][] serverHashKeys;
     /**
      * UPSI params
      */
@@ -88,6 +101,8 @@ public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> {
         super(getInstance(), clientRpc, serverParty, config);
         mpOprfReceiver = OprfFactory.createMpOprfReceiver(clientRpc, serverParty, config.getMpOprfConfig());
         addSubPto(mpOprfReceiver);
+        sqOprfReceiver = SqOprfFactory.createReceiver(clientRpc, serverParty, config.getSqOprfConfig());
+        addSubPto(sqOprfReceiver);
     }
 
     @Override
@@ -98,7 +113,9 @@ public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> {
         stopWatch.start();
         assert (upsiParams instanceof Cmg21UpsiParams);
         this.upsiParams = (Cmg21UpsiParams) upsiParams;
+        serverHashKeys = null;
         mpOprfReceiver.init(this.upsiParams.maxClientElementSize());
+        sqOprfReceiver.init(this.upsiParams.maxClientElementSize());
         zp64 = Zp64Factory.createInstance(envType, this.upsiParams.getPlainModulus());
         stopWatch.stop();
         long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -115,7 +132,9 @@ public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> {
 
         stopWatch.start();
         upsiParams = Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_5535;
+        serverHashKeys = null;
         mpOprfReceiver.init(upsiParams.maxClientElementSize());
+        sqOprfReceiver.init(upsiParams.maxClientElementSize());
         zp64 = Zp64Factory.createInstance(envType, this.upsiParams.getPlainModulus());
         stopWatch.stop();
         long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -125,14 +144,51 @@ public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> {
         logPhaseInfo(PtoState.INIT_END);
     }
 
+    @Override
+    public void initPrepared(UpsiParams upsiParams) throws MpcAbortException {
+        setInitInput(upsiParams.maxClientElementSize());
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        assert (upsiParams instanceof Cmg21UpsiParams);
+        this.upsiParams = (Cmg21UpsiParams) upsiParams;
+        // MP-OPRF is not used with a prepared database, but all sub-protocols must be initialized
+        mpOprfReceiver.init(this.upsiParams.maxClientElementSize());
+        sqOprfReceiver.init(this.upsiParams.maxClientElementSize());
+        zp64 = Zp64Factory.createInstance(envType, this.upsiParams.getPlainModulus());
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 2, initTime);
+
+        DataPacketHeader hashKeyHeader = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_CUCKOO_HASH_KEYS.ordinal(), extraInfo,
+            otherParty().getPartyId(), rpc.ownParty().getPartyId()
+        );
+        List<byte[]> hashKeyPayload = rpc.receive(hashKeyHeader).getPayload();
+
+        stopWatch.start();
+        MpcAbortPreconditions.checkArgument(
+            hashKeyPayload.size() == this.upsiParams.getCuckooHashNum(),
+            "the size of hash keys should be {}", this.upsiParams.getCuckooHashNum()
+        );
+        serverHashKeys = hashKeyPayload.toArray(new byte[0][]);
+        stopWatch.stop();
+        long hashKeyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 2, 2, hashKeyTime, "Client receives hash keys");
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
     @Override
     public Set<T> psi(Set<T> clientElementSet) throws MpcAbortException, IOException {
         setPtoInput(clientElementSet);
         logPhaseInfo(PtoState.PTO_BEGIN);
 
         stopWatch.start();
-        // MP-OPRF
-        List<ByteBuffer> oprfOutputs = oprf(clientElementList);
+        // MP-OPRF, or single-query OPRF if the server holds a prepared database
+        List<ByteBuffer> oprfOutputs = serverHashKeys == null ? oprf(clientElementList) : sqOprf(clientElementList);
         Map<ByteBuffer, ByteBuffer> oprfMap = IntStream.range(0, clientElementSize)
             .boxed()
             .collect(Collectors.toMap(oprfOutputs::get, i -> clientElementList.get(i), (a, b) -> b));
@@ -142,14 +198,21 @@ public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> {
         logStepInfo(PtoState.PTO_STEP, 1, 5, oprfTime, "OPRF");
 
         stopWatch.start();
-        // generate cuckoo hash bin
-        byte[][] hashKeys = generateCuckooHashBin(oprfOutputs);
-        DataPacketHeader hashKeyHeader = new DataPacketHeader(
-            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.CLIENT_SEND_CUCKOO_HASH_KEYS.ordinal(), extraInfo,
-            rpc.ownParty().getPartyId(), otherParty().getPartyId()
-        );
-        List<byte[]> hashKeyPayload = Arrays.stream(hashKeys).collect(Collectors.toList());
-        rpc.send(DataPacket.fromByteArrayList(hashKeyHeader, hashKeyPayload));
+        if (serverHashKeys == null) {
+            // generate cuckoo hash bin
+            byte[][] hashKeys = generateCuckooHashBin(oprfOutputs);
+            DataPacketHeader hashKeyHeader = new DataPacketHeader(
+                encodeTaskId, getPtoDesc().getPtoId(), PtoStep.CLIENT_SEND_CUCKOO_HASH_KEYS.ordinal(), extraInfo,
+                rpc.ownParty().getPartyId(), otherParty().getPartyId()
+            );
+            List<byte[]> hashKeyPayload = Arrays.stream(hashKeys).collect(Collectors.toList());
+            rpc.send(DataPacket.fromByteArrayList(hashKeyHeader, hashKeyPayload));
+        } else {
+            // the hash keys are fixed by the prepared database, the failure probability is bounded by the params
+            MpcAbortPreconditions.checkArgument(
+                tryCuckooHashBin(oprfOutputs, serverHashKeys), "failed to insert elements with the server hash keys"
+            );
+        }
         stopWatch.stop();
         long cuckooHashKeyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
         stopWatch.reset();
@@ -256,20 +319,34 @@ public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> {
      * @return hash keys.
      */
     private byte[][] generateCuckooHashBin(List<ByteBuffer> items) {
-        boolean success = false;
         byte[][] hashKeys;
         do {
             hashKeys = BlockUtils.randomBlocks(upsiParams.getCuckooHashNum(), secureRandom);
-            cuckooHashBin = CuckooHashBinFactory.createCuckooHashBin(
-                envType, upsiParams.getCuckooHashBinType(), clientElementSize, upsiParams.getBinNum(), hashKeys
-            );
+        } while (!tryCuckooHashBin(items, hashKeys));
+        return hashKeys;
+    }
+
+    /**
+     * client tries to generate no stash cuckoo hash bin with the given hash keys.
+     *
+     * @param items    item list.
+     * @param hashKeys hash keys.
+     * @return whether the items are inserted without stash.
+     */
+    private boolean tryCuckooHashBin(List<ByteBuffer> items, byte[][] hashKeys) {
+        cuckooHashBin = CuckooHashBinFactory.createCuckooHashBin(
+            envType, upsiParams.getCuckooHashBinType(), clientElementSize, upsiParams.getBinNum(), hashKeys
+        );
+        try {
             cuckooHashBin.insertItems(items);
-            if (cuckooHashBin.itemNumInStash() == 0) {
-                success = true;
-            }
-        } while (!success);
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        if (cuckooHashBin.itemNumInStash() != 0) {
+            return false;
+        }
         cuckooHashBin.insertPaddingItems(botElementByteBuffer);
-        return hashKeys;
+        return true;
     }
 
     /**
@@ -291,6 +368,23 @@ public class Cmg21JavaUpsiClient<T> extends AbstractUpsiClient<T> {
             .collect(Collectors.toCollection(ArrayList::new));
     }
 
+    /**
+     * client executes single-query OPRF protocol with the key of the prepared database.
+     *
+     * @param clientElementArrayList client element array list.
+     * @return single-query OPRF output.
+     * @throws MpcAbortException the protocol failure aborts.
+     */
+    private List<ByteBuffer> sqOprf(List<ByteBuffer> clientElementArrayList) throws MpcAbortException {
+        byte[][] sqOprfReceiverInputs = clientElementArrayList.stream()
+            .map(ByteBuffer::array)
+            .toArray(byte[][]::new);
+        SqOprfReceiverOutput sqOprfReceiverOutput = sqOprfReceiver.oprf(sqOprfReceiverInputs);
+        return IntStream.range(0, clientElementArrayList.size())
+            .mapToObj(i -> ByteBuffer.wrap(sqOprfReceiverOutput.getPrf(i)))
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
     /**
      * recover intersection set.
      *
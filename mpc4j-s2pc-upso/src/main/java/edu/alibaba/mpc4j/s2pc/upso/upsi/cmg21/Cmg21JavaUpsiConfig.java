@@ -4,6 +4,8 @@ import edu.alibaba.mpc4j.common.rpc.desc.SecurityModel;
 import edu.alibaba.mpc4j.common.rpc.pto.AbstractMultiPartyPtoConfig;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfConfig;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfConfig;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfFactory;
 import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiConfig;
 import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiFactory.UpsiType;
 
@@ -18,10 +20,15 @@ public class Cmg21JavaUpsiConfig extends AbstractMultiPartyPtoConfig implements
      * MP-OPRF
      */
     private final MpOprfConfig mpOprfConfig;
+    /**
+     * single-query OPRF, used when the server holds a prepared database
+     */
+    private final SqOprfConfig sqOprfConfig;
 
     public Cmg21JavaUpsiConfig(Builder builder) {
-        super(SecurityModel.MALICIOUS, builder.mpOprfConfig);
+        super(SecurityModel.MALICIOUS, builder.mpOprfConfig, builder.sqOprfConfig);
         mpOprfConfig = builder.mpOprfConfig;
+        sqOprfConfig = builder.sqOprfConfig;
     }
 
     @Override
@@ -33,14 +40,24 @@ public class Cmg21JavaUpsiConfig extends AbstractMultiPartyPtoConfig implements
         return mpOprfConfig;
     }
 
+    public SqOprfConfig getSqOprfConfig() {
+        return sqOprfConfig;
+    }
+
     public static class Builder implements org.apache.commons.lang3.builder.Builder<Cmg21JavaUpsiConfig> {
         /**
          * MP-OPRF
          */
         private MpOprfConfig mpOprfConfig;
+        /**
+         * single-query OPRF
+         */
+        private final SqOprfConfig sqOprfConfig;
 
         public Builder() {
             mpOprfConfig = OprfFactory.createMpOprfDefaultConfig(SecurityModel.SEMI_HONEST);
+            // the prepared database uses the RA17 byte ECC key, see Cmg21JavaUpsiDatabase
+            sqOprfConfig = SqOprfFactory.createDefaultConfig(SecurityModel.SEMI_HONEST);
         }
 
         public Builder setMpOprfConfig(MpOprfConfig mpOprfConfig) {
@@ -0,0 +1,586 @@
+package edu.alibaba.mpc4j.s2pc.upso.upsi.cmg21;
+
+import com.google.common.base.Preconditions;
+import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.EnvType;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.mpc4j.common.tool.crypto.ecc.ByteEccFactory;
+import edu.alibaba.mpc4j.common.tool.crypto.prf.Prf;
+import edu.alibaba.mpc4j.common.tool.crypto.prf.PrfFactory;
+import edu.alibaba.mpc4j.common.tool.hashbin.object.HashBinEntry;
+import edu.alibaba.mpc4j.common.tool.hashbin.object.cuckoo.CuckooHashBinFactory.CuckooHashBinType;
+import edu.alibaba.mpc4j.common.tool.polynomial.zp64.Zp64Poly;
+import edu.alibaba.mpc4j.common.tool.polynomial.zp64.Zp64PolyFactory;
+import edu.alibaba.mpc4j.common.tool.utils.BigIntegerUtils;
+import edu.alibaba.mpc4j.common.tool.utils.BlockUtils;
+import edu.alibaba.mpc4j.common.tool.utils.CommonUtils;
+import edu.alibaba.mpc4j.common.tool.utils.ObjectUtils;
+import edu.alibaba.mpc4j.crypto.fhe.seal.BatchEncoder;
+import edu.alibaba.mpc4j.crypto.fhe.seal.Evaluator;
+import edu.alibaba.mpc4j.crypto.fhe.seal.Plaintext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.EncryptionParameters;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.ParmsId;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.SchemeType;
+import edu.alibaba.mpc4j.crypto.fhe.seal.context.SealContext;
+import edu.alibaba.mpc4j.crypto.fhe.seal.modulus.CoeffModulus;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.ra17.Ra17ByteEccSqOprfKey;
+import edu.alibaba.mpc4j.s2pc.upso.UpsoUtils;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.PreparedUpsiDatabase;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * CMG21J prepared server database. The server elements are mapped by a fixed single-query OPRF key, hashed into bins
+ * by fixed hash keys, and each partition of each bin is interpolated into a polynomial whose roots are the encoded
+ * elements. The coefficients are batch-encoded into BFV plaintexts in NTT form, so that a query only does the
+ * homomorphic evaluation.
+ * <p>
+ * Each partition has a fixed capacity of maxPartitionSizePerBin roots (empty roots are padded by 1). An insertion
+ * appends the element to its bins and a deletion moves the last element of each bin into the hole, so that an update
+ * only re-interpolates the touched partitions of the touched bins and re-encodes the plaintexts containing them. A
+ * new partition is appended when a bin exceeds the capacity. Partitions are not removed by deletions.
+ * </p>
+ *
+ * @author Liqiang Peng
+ * @date 2025/3/3
+ */
+public class Cmg21JavaUpsiDatabase<T> implements PreparedUpsiDatabase<T> {
+    /**
+     * padding root
+     */
+    private static final long PADDING_ROOT = 1L;
+    /**
+     * parallel encoding
+     */
+    private final boolean parallel;
+    /**
+     * UPSI params
+     */
+    private final Cmg21UpsiParams params;
+    /**
+     * single-query OPRF key
+     */
+    private final Ra17ByteEccSqOprfKey sqOprfKey;
+    /**
+     * hash keys
+     */
+    private final byte[][] hashKeys;
+    /**
+     * hashes
+     */
+    private final Prf[] hashes;
+    /**
+     * ⊥
+     */
+    private final ByteBuffer botElementByteBuffer;
+    /**
+     * encryption params
+     */
+    private final EncryptionParameters encryptionParams;
+    /**
+     * SEAL context
+     */
+    private final SealContext context;
+    /**
+     * batch encoder
+     */
+    private final BatchEncoder encoder;
+    /**
+     * evaluator
+     */
+    private final Evaluator evaluator;
+    /**
+     * zp64 poly
+     */
+    private final Zp64Poly zp64Poly;
+    /**
+     * OPRF outputs of the elements in each bin
+     */
+    private final ArrayList<ArrayList<ByteBuffer>> bins;
+    /**
+     * coefficients, indexed by [ciphertext index][partition index]
+     */
+    private final ArrayList<ArrayList<long[][]>> coeffs;
+    /**
+     * BFV plaintexts of the coefficients, indexed by [ciphertext index][partition index]
+     */
+    private final ArrayList<ArrayList<Plaintext[]>> encodedDatabase;
+    /**
+     * partition num
+     */
+    private int partitionNum;
+    /**
+     * element size
+     */
+    private int size;
+
+    /**
+     * Creates a prepared database with a fresh OPRF key and fresh hash keys.
+     *
+     * @param envType    environment.
+     * @param params     UPSI params.
+     * @param elementSet server element set.
+     * @param parallel   parallel encoding.
+     * @return a prepared database.
+     */
+    public static <X> Cmg21JavaUpsiDatabase<X> create(EnvType envType, Cmg21UpsiParams params, Set<X> elementSet,
+                                                      boolean parallel) {
+        MathPreconditions.checkPositive("serverElementSize", elementSet.size());
+        SecureRandom secureRandom = new SecureRandom();
+        Ra17ByteEccSqOprfKey sqOprfKey = new Ra17ByteEccSqOprfKey(
+            envType, ByteEccFactory.createFullInstance(envType).randomZn(secureRandom)
+        );
+        byte[][] hashKeys = BlockUtils.randomBlocks(params.getCuckooHashNum(), secureRandom);
+        Cmg21JavaUpsiDatabase<X> database = new Cmg21JavaUpsiDatabase<>(envType, params, sqOprfKey, hashKeys, parallel);
+        database.insert(elementSet);
+        return database;
+    }
+
+    /**
+     * Reads a prepared database written by {@link #write(OutputStream)}. Only the BFV plaintexts are recomputed.
+     *
+     * @param envType     environment.
+     * @param inputStream input stream.
+     * @param parallel    parallel encoding.
+     * @return a prepared database.
+     * @throws IOException if I/O operations failed.
+     */
+    public static <X> Cmg21JavaUpsiDatabase<X> read(EnvType envType, InputStream inputStream, boolean parallel)
+        throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        // params
+        CuckooHashBinType cuckooHashBinType = CuckooHashBinType.valueOf(dataInputStream.readUTF());
+        int binNum = dataInputStream.readInt();
+        int maxPartitionSizePerBin = dataInputStream.readInt();
+        int itemEncodedSlotSize = dataInputStream.readInt();
+        int psLowDegree = dataInputStream.readInt();
+        int[] queryPowers = readIntArray(dataInputStream);
+        long plainModulus = dataInputStream.readLong();
+        int polyModulusDegree = dataInputStream.readInt();
+        int[] coeffModulusBits = readIntArray(dataInputStream);
+        int expectServerSize = dataInputStream.readInt();
+        int maxClientSize = dataInputStream.readInt();
+        Cmg21UpsiParams params = Cmg21UpsiParams.uncheckCreate(
+            cuckooHashBinType, binNum, maxPartitionSizePerBin, itemEncodedSlotSize, psLowDegree, queryPowers,
+            plainModulus, polyModulusDegree, coeffModulusBits, expectServerSize, maxClientSize
+        );
+        // keys
+        byte[] alphaBytes = new byte[dataInputStream.readInt()];
+        dataInputStream.readFully(alphaBytes);
+        Ra17ByteEccSqOprfKey sqOprfKey = new Ra17ByteEccSqOprfKey(
+            envType, BigIntegerUtils.byteArrayToBigInteger(alphaBytes)
+        );
+        byte[][] hashKeys = new byte[dataInputStream.readInt()][CommonConstants.BLOCK_BYTE_LENGTH];
+        for (byte[] hashKey : hashKeys) {
+            dataInputStream.readFully(hashKey);
+        }
+        Cmg21JavaUpsiDatabase<X> database = new Cmg21JavaUpsiDatabase<>(envType, params, sqOprfKey, hashKeys, parallel);
+        // bins
+        database.size = dataInputStream.readInt();
+        int prfByteLength = dataInputStream.readInt();
+        for (ArrayList<ByteBuffer> bin : database.bins) {
+            int binSize = dataInputStream.readInt();
+            bin.ensureCapacity(binSize);
+            for (int i = 0; i < binSize; i++) {
+                byte[] prf = new byte[prfByteLength];
+                dataInputStream.readFully(prf);
+                bin.add(ByteBuffer.wrap(prf));
+            }
+        }
+        // coefficients
+        database.partitionNum = dataInputStream.readInt();
+        int columnNum = params.getItemPerCiphertext() * itemEncodedSlotSize;
+        for (int i = 0; i < params.getCiphertextNum(); i++) {
+            for (int partition = 0; partition < database.partitionNum; partition++) {
+                long[][] block = new long[maxPartitionSizePerBin + 1][polyModulusDegree];
+                for (long[] row : block) {
+                    for (int l = 0; l < columnNum; l++) {
+                        row[l] = dataInputStream.readLong();
+                    }
+                }
+                database.coeffs.get(i).add(block);
+                database.encodedDatabase.get(i).add(null);
+            }
+        }
+        database.encodeBlocks(IntStream.range(0, params.getCiphertextNum() * database.partitionNum)
+            .boxed()
+            .collect(Collectors.toList()));
+        return database;
+    }
+
+    private static int[] readIntArray(DataInputStream dataInputStream) throws IOException {
+        int[] array = new int[dataInputStream.readInt()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = dataInputStream.readInt();
+        }
+        return array;
+    }
+
+    private static void writeIntArray(DataOutputStream dataOutputStream, int[] array) throws IOException {
+        dataOutputStream.writeInt(array.length);
+        for (int value : array) {
+            dataOutputStream.writeInt(value);
+        }
+    }
+
+    private Cmg21JavaUpsiDatabase(EnvType envType, Cmg21UpsiParams params, Ra17ByteEccSqOprfKey sqOprfKey,
+                                  byte[][] hashKeys, boolean parallel) {
+        MathPreconditions.checkEqual("hashKeys.length", "cuckooHashNum", hashKeys.length, params.getCuckooHashNum());
+        this.params = params;
+        this.sqOprfKey = sqOprfKey;
+        this.hashKeys = hashKeys;
+        this.parallel = parallel;
+        hashes = Arrays.stream(hashKeys)
+            .map(key -> {
+                Prf prf = PrfFactory.createInstance(envType, Integer.BYTES);
+                prf.setKey(key);
+                return prf;
+            })
+            .toArray(Prf[]::new);
+        byte[] botElementByteArray = new byte[CommonConstants.STATS_BYTE_LENGTH];
+        Arrays.fill(botElementByteArray, (byte) 0xFF);
+        botElementByteBuffer = ByteBuffer.wrap(botElementByteArray);
+        // the client generates the same encryption params, see Cmg21JavaUpsiClient
+        encryptionParams = new EncryptionParameters(SchemeType.BFV);
+        encryptionParams.setPolyModulusDegree(params.getPolyModulusDegree());
+        encryptionParams.setPlainModulus(params.getPlainModulus());
+        encryptionParams.setCoeffModulus(
+            CoeffModulus.create(params.getPolyModulusDegree(), params.getCoeffModulusBits())
+        );
+        context = new SealContext(encryptionParams);
+        encoder = new BatchEncoder(context);
+        evaluator = new Evaluator(context);
+        zp64Poly = Zp64PolyFactory.createInstance(envType, params.getPlainModulus());
+        bins = IntStream.range(0, params.getBinNum())
+            .mapToObj(binIndex -> new ArrayList<ByteBuffer>())
+            .collect(Collectors.toCollection(ArrayList::new));
+        coeffs = IntStream.range(0, params.getCiphertextNum())
+            .mapToObj(i -> new ArrayList<long[][]>())
+            .collect(Collectors.toCollection(ArrayList::new));
+        encodedDatabase = IntStream.range(0, params.getCiphertextNum())
+            .mapToObj(i -> new ArrayList<Plaintext[]>())
+            .collect(Collectors.toCollection(ArrayList::new));
+        partitionNum = 0;
+        size = 0;
+    }
+
+    @Override
+    public Cmg21UpsiParams getParams() {
+        return params;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void insert(Set<T> elementSet) {
+        List<ByteBuffer> prfs = computePrfs(elementSet);
+        for (ByteBuffer prf : prfs) {
+            Preconditions.checkArgument(!contains(prf), "The database already contains the element");
+        }
+        Set<Long> dirtyColumns = new HashSet<>();
+        for (ByteBuffer prf : prfs) {
+            for (int hashIndex = 0; hashIndex < hashes.length; hashIndex++) {
+                int binIndex = binIndex(hashIndex, prf);
+                ArrayList<ByteBuffer> bin = bins.get(binIndex);
+                bin.add(prf);
+                dirtyColumns.add(columnKey(binIndex, (bin.size() - 1) / params.getMaxPartitionSizePerBin()));
+            }
+        }
+        size += prfs.size();
+        refresh(dirtyColumns);
+    }
+
+    @Override
+    public void delete(Set<T> elementSet) {
+        List<ByteBuffer> prfs = computePrfs(elementSet);
+        for (ByteBuffer prf : prfs) {
+            Preconditions.checkArgument(contains(prf), "The database does not contain the element");
+        }
+        Set<Long> dirtyColumns = new HashSet<>();
+        for (ByteBuffer prf : prfs) {
+            for (int hashIndex = 0; hashIndex < hashes.length; hashIndex++) {
+                int binIndex = binIndex(hashIndex, prf);
+                ArrayList<ByteBuffer> bin = bins.get(binIndex);
+                // move the last element into the hole, so that at most two partitions are touched
+                int position = bin.indexOf(prf);
+                int lastPosition = bin.size() - 1;
+                bin.set(position, bin.get(lastPosition));
+                bin.remove(lastPosition);
+                dirtyColumns.add(columnKey(binIndex, position / params.getMaxPartitionSizePerBin()));
+                dirtyColumns.add(columnKey(binIndex, lastPosition / params.getMaxPartitionSizePerBin()));
+            }
+        }
+        size -= prfs.size();
+        refresh(dirtyColumns);
+    }
+
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        // params
+        dataOutputStream.writeUTF(params.getCuckooHashBinType().name());
+        dataOutputStream.writeInt(params.getBinNum());
+        dataOutputStream.writeInt(params.getMaxPartitionSizePerBin());
+        dataOutputStream.writeInt(params.getItemEncodedSlotSize());
+        dataOutputStream.writeInt(params.getPsLowDegree());
+        writeIntArray(dataOutputStream, params.getQueryPowers());
+        dataOutputStream.writeLong(params.getPlainModulus());
+        dataOutputStream.writeInt(params.getPolyModulusDegree());
+        writeIntArray(dataOutputStream, params.getCoeffModulusBits());
+        dataOutputStream.writeInt(params.expectServerSize());
+        dataOutputStream.writeInt(params.maxClientElementSize());
+        // keys
+        byte[] alphaBytes = BigIntegerUtils.bigIntegerToByteArray(sqOprfKey.getAlpha());
+        dataOutputStream.writeInt(alphaBytes.length);
+        dataOutputStream.write(alphaBytes);
+        dataOutputStream.writeInt(hashKeys.length);
+        for (byte[] hashKey : hashKeys) {
+            dataOutputStream.write(hashKey);
+        }
+        // bins
+        dataOutputStream.writeInt(size);
+        dataOutputStream.writeInt(sqOprfKey.getPrfByteLength());
+        for (ArrayList<ByteBuffer> bin : bins) {
+            dataOutputStream.writeInt(bin.size());
+            for (ByteBuffer prf : bin) {
+                dataOutputStream.write(prf.array());
+            }
+        }
+        // coefficients, the slots beyond the bins are always 0
+        dataOutputStream.writeInt(partitionNum);
+        int columnNum = params.getItemPerCiphertext() * params.getItemEncodedSlotSize();
+        for (int i = 0; i < params.getCiphertextNum(); i++) {
+            for (int partition = 0; partition < partitionNum; partition++) {
+                for (long[] row : coeffs.get(i).get(partition)) {
+                    for (int l = 0; l < columnNum; l++) {
+                        dataOutputStream.writeLong(row[l]);
+                    }
+                }
+            }
+        }
+        dataOutputStream.flush();
+    }
+
+    /**
+     * Gets the single-query OPRF key.
+     *
+     * @return single-query OPRF key.
+     */
+    public Ra17ByteEccSqOprfKey getSqOprfKey() {
+        return sqOprfKey;
+    }
+
+    /**
+     * Gets the hash keys.
+     *
+     * @return hash keys.
+     */
+    public byte[][] getHashKeys() {
+        return hashKeys;
+    }
+
+    /**
+     * Gets the encryption params that the client must use.
+     *
+     * @return encryption params.
+     */
+    public EncryptionParameters getEncryptionParams() {
+        return encryptionParams;
+    }
+
+    /**
+     * Gets the SEAL context of the BFV plaintexts.
+     *
+     * @return SEAL context.
+     */
+    public SealContext getContext() {
+        return context;
+    }
+
+    /**
+     * Gets the partition num.
+     *
+     * @return partition num.
+     */
+    public int getPartitionNum() {
+        return partitionNum;
+    }
+
+    /**
+     * Gets the BFV plaintexts of a partition.
+     *
+     * @param ciphertextIndex ciphertext index.
+     * @param partitionIndex  partition index.
+     * @return BFV plaintexts.
+     */
+    public Plaintext[] getEncodedPartition(int ciphertextIndex, int partitionIndex) {
+        return encodedDatabase.get(ciphertextIndex).get(partitionIndex);
+    }
+
+    /**
+     * Gets the coefficients of a partition.
+     *
+     * @param ciphertextIndex ciphertext index.
+     * @param partitionIndex  partition index.
+     * @return coefficients.
+     */
+    long[][] getPartitionCoeffs(int ciphertextIndex, int partitionIndex) {
+        return coeffs.get(ciphertextIndex).get(partitionIndex);
+    }
+
+    /**
+     * Encodes coefficients into BFV plaintexts. The plaintexts that are multiplied with ciphertexts in NTT form are
+     * transformed into the NTT form.
+     *
+     * @param params    UPSI params.
+     * @param context   SEAL context.
+     * @param encoder   batch encoder.
+     * @param evaluator evaluator.
+     * @param coeffs    coefficients.
+     * @return BFV plaintexts.
+     */
+    static Plaintext[] encodeCoeffs(Cmg21UpsiParams params, SealContext context, BatchEncoder encoder,
+                                    Evaluator evaluator, long[][] coeffs) {
+        Plaintext[] plaintexts = new Plaintext[coeffs.length];
+        if (params.getPsLowDegree() > 0) {
+            ParmsId lowPowersParmsId = UpsoUtils.getParmsIdForChainIdx(context, 2);
+            int psHighDegree = params.getPsLowDegree() + 1;
+            for (int i = 0; i < coeffs.length; i++) {
+                plaintexts[i] = new Plaintext();
+                encoder.encode(coeffs[i], plaintexts[i]);
+                if (i % psHighDegree != 0) {
+                    evaluator.transformToNttInplace(plaintexts[i], lowPowersParmsId);
+                }
+            }
+        } else {
+            ParmsId parmsId = UpsoUtils.getParmsIdForChainIdx(context, 1);
+            for (int i = 0; i < coeffs.length; i++) {
+                plaintexts[i] = new Plaintext();
+                encoder.encode(coeffs[i], plaintexts[i]);
+                if (i > 0) {
+                    evaluator.transformToNttInplace(plaintexts[i], parmsId);
+                }
+            }
+        }
+        return plaintexts;
+    }
+
+    private List<ByteBuffer> computePrfs(Set<T> elementSet) {
+        Stream<T> elementStream = parallel ? elementSet.stream().parallel() : elementSet.stream();
+        return elementStream
+            .map(ObjectUtils::objectToByteArray)
+            .peek(element -> Preconditions.checkArgument(
+                !ByteBuffer.wrap(element).equals(botElementByteBuffer), "xi must not equal ⊥"
+            ))
+            .map(element -> ByteBuffer.wrap(sqOprfKey.getPrf(element)))
+            .collect(Collectors.toList());
+    }
+
+    private int binIndex(int hashIndex, ByteBuffer prf) {
+        return hashes[hashIndex].getInteger(prf.array(), params.getBinNum());
+    }
+
+    private boolean contains(ByteBuffer prf) {
+        return bins.get(binIndex(0, prf)).contains(prf);
+    }
+
+    private long columnKey(int binIndex, int partitionIndex) {
+        return (long) partitionIndex * params.getBinNum() + binIndex;
+    }
+
+    /**
+     * Appends partitions if some bin exceeds the capacity, then re-interpolates the dirty columns of the existing
+     * partitions and all columns of the new partitions, and re-encodes the touched partitions.
+     *
+     * @param dirtyColumns dirty columns, see {@link #columnKey(int, int)}.
+     */
+    private void refresh(Set<Long> dirtyColumns) {
+        int maxPartitionSizePerBin = params.getMaxPartitionSizePerBin();
+        int maxBinSize = bins.stream().mapToInt(ArrayList::size).max().orElse(0);
+        int newPartitionNum = Math.max(partitionNum, CommonUtils.getUnitNum(maxBinSize, maxPartitionSizePerBin));
+        List<long[]> columns = dirtyColumns.stream()
+            .filter(key -> key / params.getBinNum() < partitionNum)
+            .map(key -> new long[]{key % params.getBinNum(), key / params.getBinNum()})
+            .collect(Collectors.toCollection(ArrayList::new));
+        for (int partition = partitionNum; partition < newPartitionNum; partition++) {
+            for (int i = 0; i < params.getCiphertextNum(); i++) {
+                coeffs.get(i).add(new long[maxPartitionSizePerBin + 1][params.getPolyModulusDegree()]);
+                encodedDatabase.get(i).add(null);
+            }
+            for (int binIndex = 0; binIndex < params.getBinNum(); binIndex++) {
+                columns.add(new long[]{binIndex, partition});
+            }
+        }
+        partitionNum = newPartitionNum;
+        // different columns are written into different slots, so they can be interpolated in parallel
+        Stream<long[]> columnStream = parallel ? columns.stream().parallel() : columns.stream();
+        columnStream.forEach(column -> interpolate((int) column[0], (int) column[1]));
+        List<Integer> blocks = columns.stream()
+            .map(column -> (int) column[0] / params.getItemPerCiphertext() * partitionNum + (int) column[1])
+            .distinct()
+            .collect(Collectors.toList());
+        encodeBlocks(blocks);
+    }
+
+    /**
+     * Interpolates the polynomials of a partition of a bin, one for each encoded slot.
+     *
+     * @param binIndex       bin index.
+     * @param partitionIndex partition index.
+     */
+    private void interpolate(int binIndex, int partitionIndex) {
+        int maxPartitionSizePerBin = params.getMaxPartitionSizePerBin();
+        int itemEncodedSlotSize = params.getItemEncodedSlotSize();
+        ArrayList<ByteBuffer> bin = bins.get(binIndex);
+        long[][] roots = new long[itemEncodedSlotSize][maxPartitionSizePerBin];
+        int partitionStart = partitionIndex * maxPartitionSizePerBin;
+        for (int j = 0; j < maxPartitionSizePerBin; j++) {
+            int position = partitionStart + j;
+            if (position < bin.size()) {
+                long[] item = UpsoUtils.getHashBinEntryEncodedArray(
+                    HashBinEntry.fromRealItem(0, bin.get(position)), false, itemEncodedSlotSize,
+                    params.getPlainModulus()
+                );
+                for (int k = 0; k < itemEncodedSlotSize; k++) {
+                    roots[k][j] = item[k];
+                }
+            } else {
+                for (int k = 0; k < itemEncodedSlotSize; k++) {
+                    roots[k][j] = PADDING_ROOT;
+                }
+            }
+        }
+        long[][] block = coeffs.get(binIndex / params.getItemPerCiphertext()).get(partitionIndex);
+        int columnOffset = (binIndex % params.getItemPerCiphertext()) * itemEncodedSlotSize;
+        for (int k = 0; k < itemEncodedSlotSize; k++) {
+            long[] coeff = zp64Poly.rootInterpolate(maxPartitionSizePerBin, roots[k], 0L);
+            for (int d = 0; d <= maxPartitionSizePerBin; d++) {
+                block[d][columnOffset + k] = coeff[d];
+            }
+        }
+    }
+
+    /**
+     * Encodes partitions into BFV plaintexts.
+     *
+     * @param blocks partitions, each of which is indexed by ciphertext index * partition num + partition index.
+     */
+    private void encodeBlocks(List<Integer> blocks) {
+        Stream<Integer> blockStream = parallel ? blocks.stream().parallel() : blocks.stream();
+        blockStream.forEach(block -> {
+            int i = block / partitionNum;
+            int partition = block % partitionNum;
+            Plaintext[] plaintexts = encodeCoeffs(params, context, encoder, evaluator, coeffs.get(i).get(partition));
+            encodedDatabase.get(i).set(partition, plaintexts);
+        });
+    }
+}
@@ -44,6 +44,10 @@ public class Cmg21JavaUpsiPtoDesc implements PtoDesc {
          * server sends response
          */
         SERVER_SEND_RESPONSE,
+        /**
+         * server sends cuckoo hash keys of the prepared database
+         */
+        SERVER_SEND_CUCKOO_HASH_KEYS,
     }
 
     /**
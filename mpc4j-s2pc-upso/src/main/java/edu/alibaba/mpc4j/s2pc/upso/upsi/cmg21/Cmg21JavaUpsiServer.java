@@ -16,8 +16,13 @@ import edu.alibaba.mpc4j.crypto.fhe.seal.context.SealContext;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSender;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.MpOprfSenderOutput;
 import edu.alibaba.mpc4j.s2pc.opf.oprf.OprfFactory;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfFactory;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfFactory.SqOprfType;
+import edu.alibaba.mpc4j.s2pc.opf.sqoprf.SqOprfSender;
 import edu.alibaba.mpc4j.s2pc.upso.UpsoUtils;
 import edu.alibaba.mpc4j.s2pc.upso.upsi.AbstractUpsiServer;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.PreparedUpsiDatabase;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.PreparedUpsiServer;
 import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiParams;
 import edu.alibaba.mpc4j.s2pc.upso.upsi.cmg21.Cmg21JavaUpsiPtoDesc.PtoStep;
 
@@ -25,21 +30,35 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
- * CMG21J UPSI server.
+ * CMG21J UPSI server. The server can also answer queries against a prepared database, see
+ * {@link Cmg21JavaUpsiDatabase}.
  *
  * @author Liqiang Peng
  * @date 2024/2/23
  */
-public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
+public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> implements PreparedUpsiServer<T> {
 
     /**
      * MP-OPRF sender
      */
     private final MpOprfSender mpOprfSender;
+    /**
+     * single-query OPRF sender, used with the prepared database
+     */
+    private final SqOprfSender sqOprfSender;
+    /**
+     * single-query OPRF type
+     */
+    private final SqOprfType sqOprfType;
+    /**
+     * prepared database
+     */
+    private Cmg21JavaUpsiDatabase<T> database;
     /**
      * UPSI params
      */
@@ -69,6 +88,9 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
         super(Cmg21JavaUpsiPtoDesc.getInstance(), serverRpc, clientParty, config);
         mpOprfSender = OprfFactory.createMpOprfSender(serverRpc, clientParty, config.getMpOprfConfig());
         addSubPto(mpOprfSender);
+        sqOprfSender = SqOprfFactory.createSender(serverRpc, clientParty, config.getSqOprfConfig());
+        addSubPto(sqOprfSender);
+        sqOprfType = config.getSqOprfConfig().getPtoType();
     }
 
     @Override
@@ -79,7 +101,9 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
         stopWatch.start();
         assert (upsiParams instanceof Cmg21UpsiParams);
         this.upsiParams = (Cmg21UpsiParams) upsiParams;
+        database = null;
         mpOprfSender.init(this.upsiParams.maxClientElementSize());
+        sqOprfSender.init(this.upsiParams.maxClientElementSize(), sqOprfSender.keyGen());
         zp64Poly = Zp64PolyFactory.createInstance(envType, this.upsiParams.getPlainModulus());
         stopWatch.stop();
         long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -96,7 +120,9 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
 
         stopWatch.start();
         upsiParams = Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_5535;
+        database = null;
         mpOprfSender.init(upsiParams.maxClientElementSize());
+        sqOprfSender.init(upsiParams.maxClientElementSize(), sqOprfSender.keyGen());
         zp64Poly = Zp64PolyFactory.createInstance(envType, this.upsiParams.getPlainModulus());
         stopWatch.stop();
         long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
@@ -106,8 +132,92 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
         logPhaseInfo(PtoState.INIT_END);
     }
 
+    @Override
+    public void init(PreparedUpsiDatabase<T> database, int maxClientElementSize) throws MpcAbortException {
+        MpcAbortPreconditions.checkArgument(database instanceof Cmg21JavaUpsiDatabase);
+        // the prepared database holds an RA17 byte ECC key
+        MpcAbortPreconditions.checkArgument(sqOprfType == SqOprfType.RA17_BYTE_ECC);
+        setInitInput(maxClientElementSize);
+        logPhaseInfo(PtoState.INIT_BEGIN);
+
+        stopWatch.start();
+        this.database = (Cmg21JavaUpsiDatabase<T>) database;
+        upsiParams = this.database.getParams();
+        MpcAbortPreconditions.checkArgument(maxClientElementSize <= upsiParams.maxClientElementSize());
+        // MP-OPRF is not used with a prepared database, but all sub-protocols must be initialized
+        mpOprfSender.init(maxClientElementSize);
+        sqOprfSender.init(maxClientElementSize, this.database.getSqOprfKey());
+        context = this.database.getContext();
+        encoder = new BatchEncoder(context);
+        evaluator = new Evaluator(context);
+        List<byte[]> hashKeyPayload = Arrays.stream(this.database.getHashKeys()).collect(Collectors.toList());
+        DataPacketHeader hashKeyHeader = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_CUCKOO_HASH_KEYS.ordinal(), extraInfo,
+            rpc.ownParty().getPartyId(), otherParty().getPartyId()
+        );
+        rpc.send(DataPacket.fromByteArrayList(hashKeyHeader, hashKeyPayload));
+        stopWatch.stop();
+        long initTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.INIT_STEP, 1, 1, initTime, "Server sends hash keys");
+
+        logPhaseInfo(PtoState.INIT_END);
+    }
+
+    @Override
+    public void psi(int clientElementSize) throws MpcAbortException, IOException {
+        MpcAbortPreconditions.checkArgument(database != null, "the server is not initialized with a prepared database");
+        setPtoInput(clientElementSize);
+        logPhaseInfo(PtoState.PTO_BEGIN);
+
+        stopWatch.start();
+        // single-query OPRF with the key of the prepared database
+        sqOprfSender.oprf(clientElementSize);
+        stopWatch.stop();
+        long oprfTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 1, 2, oprfTime, "OPRF");
+
+        // receive encryption parameter and relinearization keys
+        DataPacketHeader encryptionParamsHeader = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.CLIENT_SEND_ENCRYPTION_PARAMS.ordinal(), extraInfo,
+            otherParty().getPartyId(), rpc.ownParty().getPartyId()
+        );
+        List<byte[]> encryptionParamsPayload = rpc.receive(encryptionParamsHeader).getPayload();
+        MpcAbortPreconditions.checkArgument(
+            encryptionParamsPayload.size() == 2, "the size of encryption parameters should be 2"
+        );
+        EncryptionParameters encryptionParams = new EncryptionParameters(SchemeType.BFV);
+        encryptionParams.load(null, encryptionParamsPayload.get(0));
+        // the plaintexts of the prepared database are encoded under the same encryption params
+        MpcAbortPreconditions.checkArgument(
+            encryptionParams.equals(database.getEncryptionParams()), "the encryption params are incorrect"
+        );
+        relinKeys = new RelinKeys();
+        relinKeys.load(context, encryptionParamsPayload.get(1));
+        // receive client query
+        DataPacketHeader queryHeader = new DataPacketHeader(
+            encodeTaskId, getPtoDesc().getPtoId(), PtoStep.CLIENT_SEND_QUERY.ordinal(), extraInfo,
+            otherParty().getPartyId(), rpc.ownParty().getPartyId()
+        );
+        List<byte[]> queryPayload = rpc.receive(queryHeader).getPayload();
+
+        stopWatch.start();
+        List<Ciphertext[]> responsePayload = computeResponse(
+            database::getEncodedPartition, queryPayload, database.getPartitionNum()
+        );
+        sendResponse(responsePayload);
+        stopWatch.stop();
+        long replyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 2, 2, replyTime, "Server generates reply");
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
     @Override
     public void psi(Set<T> serverElementSet, int clientElementSize) throws MpcAbortException, IOException {
+        MpcAbortPreconditions.checkArgument(database == null, "the server is initialized with a prepared database");
         setPtoInput(serverElementSet, clientElementSize);
         logPhaseInfo(PtoState.PTO_BEGIN);
 
@@ -168,7 +278,29 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
         logStepInfo(PtoState.PTO_STEP, 2, 3, encodedTime, "Server encodes database");
 
         stopWatch.start();
-        List<Ciphertext[]> responsePayload = computeResponse(encodeDatabase, queryPayload, binSize);
+        int partitionCount = CommonUtils.getUnitNum(binSize, upsiParams.getMaxPartitionSizePerBin());
+        List<Ciphertext[]> responsePayload = computeResponse(
+            (i, j) -> Cmg21JavaUpsiDatabase.encodeCoeffs(
+                upsiParams, context, encoder, evaluator, encodeDatabase.get(i * partitionCount + j)
+            ),
+            queryPayload, partitionCount
+        );
+        sendResponse(responsePayload);
+        stopWatch.stop();
+        long replyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
+        stopWatch.reset();
+        logStepInfo(PtoState.PTO_STEP, 3, 3, replyTime, "Server generates reply");
+
+        logPhaseInfo(PtoState.PTO_END);
+    }
+
+    /**
+     * server sends response.
+     *
+     * @param responsePayload response.
+     * @throws IOException if I/O operations failed.
+     */
+    private void sendResponse(List<Ciphertext[]> responsePayload) throws IOException {
         DataPacketHeader responseHeader = new DataPacketHeader(
             encodeTaskId, getPtoDesc().getPtoId(), PtoStep.SERVER_SEND_RESPONSE.ordinal(), extraInfo,
             rpc.ownParty().getPartyId(), otherParty().getPartyId()
@@ -180,12 +312,6 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
             }
         }
         rpc.send(DataPacket.fromByteArrayList(responseHeader, response));
-        stopWatch.stop();
-        long replyTime = stopWatch.getTime(TimeUnit.MILLISECONDS);
-        stopWatch.reset();
-        logStepInfo(PtoState.PTO_STEP, 3, 3, replyTime, "Server generates reply");
-
-        logPhaseInfo(PtoState.PTO_END);
     }
 
     /**
@@ -231,16 +357,16 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
     /**
      * server generate response.
      *
-     * @param database         database.
-     * @param queryPayload        query list.
-     * @param binSize          bin size.
+     * @param database       database, i.e., the BFV plaintexts of the (ciphertext index, partition index)-th partition.
+     * @param queryPayload   query list.
+     * @param partitionCount partition count.
      * @return server response.
      * @throws MpcAbortException the protocol failure aborts.
      * @throws IOException if I/O operations failed.
      */
-    private List<Ciphertext[]> computeResponse(List<long[][]> database, List<byte[]> queryPayload, int binSize)
+    private List<Ciphertext[]> computeResponse(BiFunction<Integer, Integer, Plaintext[]> database,
+                                               List<byte[]> queryPayload, int partitionCount)
         throws MpcAbortException, IOException {
-        int partitionCount = CommonUtils.getUnitNum(binSize, upsiParams.getMaxPartitionSizePerBin());
         MpcAbortPreconditions.checkArgument(
             queryPayload.size() == upsiParams.getCiphertextNum() * upsiParams.getQueryPowers().length,
             "The size of query is incorrect"
@@ -269,23 +395,20 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
                 }
             )
             .toList();
-        if (upsiParams.getPsLowDegree() > 0) {
-            return IntStream.range(0, upsiParams.getCiphertextNum())
-                .mapToObj(i ->
-                    (parallel ? IntStream.range(0, partitionCount).parallel() : IntStream.range(0, partitionCount))
-                        .mapToObj(j -> optComputeMatches(queryPowers.get(i), database.get(i * partitionCount + j)))
-                        .toArray(Ciphertext[]::new))
-                .collect(Collectors.toList());
-        } else if (upsiParams.getPsLowDegree() == 0) {
-            return IntStream.range(0, upsiParams.getCiphertextNum())
-                .mapToObj(i ->
-                    (parallel ? IntStream.range(0, partitionCount).parallel() : IntStream.range(0, partitionCount))
-                        .mapToObj(j -> naiveComputeMatches(queryPowers.get(i), database.get(i * partitionCount + j)))
-                        .toArray(Ciphertext[]::new))
-                .collect(Collectors.toList());
-        } else {
-            throw new MpcAbortException("ps_low_degree is incorrect");
-        }
+        MpcAbortPreconditions.checkArgument(upsiParams.getPsLowDegree() >= 0, "ps_low_degree is incorrect");
+        // (ciphertext index, partition index) pairs are independent, so that we schedule them together. This keeps
+        // all cores busy even if there are only a few ciphertexts, i.e., the client set is small.
+        Ciphertext[][] response = new Ciphertext[upsiParams.getCiphertextNum()][partitionCount];
+        IntStream matchIntStream = IntStream.range(0, upsiParams.getCiphertextNum() * partitionCount);
+        matchIntStream = parallel ? matchIntStream.parallel() : matchIntStream;
+        matchIntStream.forEach(index -> {
+            int i = index / partitionCount;
+            int j = index % partitionCount;
+            response[i][j] = upsiParams.getPsLowDegree() > 0
+                ? optComputeMatches(queryPowers.get(i), database.apply(i, j))
+                : naiveComputeMatches(queryPowers.get(i), database.apply(i, j));
+        });
+        return Arrays.asList(response);
     }
 
     /**
@@ -304,154 +427,134 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
         Ciphertext[] encryptedPowers = IntStream.range(0, targetPowerSize)
             .mapToObj(i -> new Ciphertext(context))
             .toArray(Ciphertext[]::new);
-        if (upsiParams.getPsLowDegree() > 0) {
-            // Paterson-Stockmeyer algorithm
-            int psHighDegree = upsiParams.getPsLowDegree() + 1;
-            for (int i = 0; i < query.size(); i++) {
-                if (upsiParams.getQueryPowers()[i] <= upsiParams.getPsLowDegree()) {
-                    encryptedPowers[upsiParams.getQueryPowers()[i] - 1].copyFrom(query.get(i));
-                } else {
-                    encryptedPowers[upsiParams.getPsLowDegree() + (upsiParams.getQueryPowers()[i] / psHighDegree) - 1].copyFrom(query.get(i));
-                }
+        int psLowDegree = upsiParams.getPsLowDegree();
+        // with Paterson-Stockmeyer, the parents of the high powers are indexed from ps_low_degree
+        int[][] parents = new int[targetPowerSize][];
+        for (int i = 0; i < targetPowerSize; i++) {
+            if (parentPowers[i][1] != 0) {
+                int offset = (psLowDegree > 0 && i >= psLowDegree) ? psLowDegree : 0;
+                parents[i] = new int[]{parentPowers[i][0] - 1 + offset, parentPowers[i][1] - 1 + offset};
             }
-            for (int i = 0; i < upsiParams.getPsLowDegree(); i++) {
-                if (parentPowers[i][1] != 0) {
-                    if (parentPowers[i][0] - 1 == parentPowers[i][1] - 1) {
-                        evaluator.square(encryptedPowers[parentPowers[i][0] - 1], encryptedPowers[i]);
-                    } else {
-                        evaluator.multiply(encryptedPowers[parentPowers[i][0] - 1],
-                            encryptedPowers[parentPowers[i][1] - 1], encryptedPowers[i]);
-                    }
-                    evaluator.relinearizeInplace(encryptedPowers[i], relinKeys);
-                }
+        }
+        for (int i = 0; i < query.size(); i++) {
+            int queryPower = upsiParams.getQueryPowers()[i];
+            if (psLowDegree == 0 || queryPower <= psLowDegree) {
+                encryptedPowers[queryPower - 1].copyFrom(query.get(i));
+            } else {
+                encryptedPowers[psLowDegree + (queryPower / (psLowDegree + 1)) - 1].copyFrom(query.get(i));
             }
-            for (int i = upsiParams.getPsLowDegree(); i < targetPowerSize; i++) {
-                if (parentPowers[i][1] != 0) {
-                    if (parentPowers[i][0] - 1 == parentPowers[i][1] - 1) {
-                        evaluator.square(
-                            encryptedPowers[parentPowers[i][0] - 1 + upsiParams.getPsLowDegree()], encryptedPowers[i]
-                        );
-                    } else {
-                        evaluator.multiply(encryptedPowers[parentPowers[i][0] - 1 + upsiParams.getPsLowDegree()],
-                            encryptedPowers[parentPowers[i][1] - 1 + upsiParams.getPsLowDegree()], encryptedPowers[i]);
-                    }
-                    evaluator.relinearizeInplace(encryptedPowers[i], relinKeys);
+        }
+        // powers in the same level of the power DAG only depend on powers in lower levels
+        for (int[] level : computePowerLevels(parents)) {
+            IntStream levelIntStream = Arrays.stream(level);
+            levelIntStream = parallel ? levelIntStream.parallel() : levelIntStream;
+            levelIntStream.forEach(i -> {
+                if (parents[i][0] == parents[i][1]) {
+                    evaluator.square(encryptedPowers[parents[i][0]], encryptedPowers[i]);
+                } else {
+                    evaluator.multiply(encryptedPowers[parents[i][0]], encryptedPowers[parents[i][1]], encryptedPowers[i]);
                 }
-            }
-            for (int i = 0; i < upsiParams.getPsLowDegree(); i++) {
+                evaluator.relinearizeInplace(encryptedPowers[i], relinKeys);
+            });
+        }
+        IntStream powerIntStream = IntStream.range(0, targetPowerSize);
+        powerIntStream = parallel ? powerIntStream.parallel() : powerIntStream;
+        powerIntStream.forEach(i -> {
+            if (psLowDegree > 0 && i >= psLowDegree) {
+                // High powers are only modulus switched
+                evaluator.modSwitchToInplace(encryptedPowers[i], highPowersParmsId);
+            } else if (psLowDegree > 0) {
                 // Low powers must be at a higher level than high powers
                 evaluator.modSwitchToInplace(encryptedPowers[i], lowPowersParmsId);
                 // Low powers must be in NTT form
                 evaluator.transformToNttInplace(encryptedPowers[i]);
-            }
-            for (int i = upsiParams.getPsLowDegree(); i < targetPowerSize; i++) {
-                // High powers are only modulus switched
-                evaluator.modSwitchToInplace(encryptedPowers[i], highPowersParmsId);
-            }
-        } else {
-            // naive algorithm
-            for (int i = 0; i < query.size(); i++) {
-                encryptedPowers[upsiParams.getQueryPowers()[i] - 1].copyFrom(query.get(i));
-            }
-            for (int i = 0; i < targetPowerSize; i++) {
-                if (parentPowers[i][1] != 0) {
-                    if (parentPowers[i][0] - 1 == parentPowers[i][1] - 1) {
-                        evaluator.square(encryptedPowers[parentPowers[i][0] - 1], encryptedPowers[i]);
-                    } else {
-                        evaluator.multiply(encryptedPowers[parentPowers[i][0] - 1],
-                            encryptedPowers[parentPowers[i][1] - 1], encryptedPowers[i]);
-                    }
-                    evaluator.relinearizeInplace(encryptedPowers[i], relinKeys);
-                }
-            }
-            for (Ciphertext encryptedPower : encryptedPowers) {
+            } else {
                 // Only one ciphertext-plaintext multiplication is needed after this
-                evaluator.modSwitchToInplace(encryptedPower, highPowersParmsId);
+                evaluator.modSwitchToInplace(encryptedPowers[i], highPowersParmsId);
                 // All powers must be in NTT form
-                evaluator.transformToNttInplace(encryptedPower);
+                evaluator.transformToNttInplace(encryptedPowers[i]);
             }
-        }
+        });
         return encryptedPowers;
     }
 
     /**
-     * optimal compute matches.
+     * splits the powers into levels of the power DAG. Powers given by the client are not in any level, and each other
+     * power is in the level next to the highest level of its parents.
      *
-     * @param powers powers in form of ciphertext.
-     * @param coeffs coeffs in form of plaintext.
-     * @return result.
+     * @param parents parents of each power, null if the power is given by the client.
+     * @return levels of the power DAG.
      */
-    private Ciphertext optComputeMatches(Ciphertext[] powers, long[][] coeffs) {
-        ParmsId lowPowersParmsId = UpsoUtils.getParmsIdForChainIdx(context, 2);
-        int psHighDegree = upsiParams.getPsLowDegree() + 1;
-        Plaintext[] plaintexts = new Plaintext[coeffs.length];
-        for (int i = 0; i < coeffs.length; i++) {
-            plaintexts[i] = new Plaintext();
-            encoder.encode(coeffs[i], plaintexts[i]);
-            if (i % psHighDegree != 0) {
-                evaluator.transformToNttInplace(plaintexts[i], lowPowersParmsId);
+    private static int[][] computePowerLevels(int[][] parents) {
+        int[] depths = new int[parents.length];
+        int maxDepth = 0;
+        // parents are always computed before their children
+        for (int i = 0; i < parents.length; i++) {
+            if (parents[i] != null) {
+                assert parents[i][0] < i && parents[i][1] < i;
+                depths[i] = Math.max(depths[parents[i][0]], depths[parents[i][1]]) + 1;
+                maxDepth = Math.max(maxDepth, depths[i]);
             }
         }
+        return IntStream.rangeClosed(1, maxDepth)
+            .mapToObj(depth -> IntStream.range(0, parents.length).filter(i -> depths[i] == depth).toArray())
+            .toArray(int[][]::new);
+    }
+
+    /**
+     * optimal compute matches.
+     *
+     * @param powers     powers in form of ciphertext.
+     * @param plaintexts coeffs in form of plaintext.
+     * @return result.
+     */
+    private Ciphertext optComputeMatches(Ciphertext[] powers, Plaintext[] plaintexts) {
+        int psLowDegree = upsiParams.getPsLowDegree();
+        int psHighDegree = psLowDegree + 1;
         ParmsId parmsId = UpsoUtils.getParmsIdForChainIdx(context, 1);
-        int degree = coeffs.length - 1;
-        Ciphertext evaluated = new Ciphertext(), cipherTemp = new Ciphertext(), tempIn = new Ciphertext();
+        int degree = plaintexts.length - 1;
+        Ciphertext evaluated = new Ciphertext();
         evaluated.resize(context, parmsId, 3);
         evaluated.setNttForm(false);
         int psHighDegreePowers = degree / psHighDegree;
-        // Calculate polynomial for i=1,...,ps_high_degree_powers-1
-        for (int i = 1; i < psHighDegreePowers; i++) {
-            // Evaluate inner polynomial. The free term is left out and added later on.
-            // The evaluation result is stored in temp_in.
-            for (int j = 1; j < psHighDegree; j++) {
-                evaluator.multiplyPlain(powers[j - 1], plaintexts[j + i * psHighDegree], cipherTemp);
-                if (j == 1) {
-                    tempIn.copyFrom(cipherTemp);
-                } else {
-                    evaluator.addInplace(tempIn, cipherTemp);
-                }
-            }
-            // Transform inner polynomial to coefficient form
-            evaluator.transformFromNttInplace(tempIn);
-            evaluator.modSwitchToInplace(tempIn, parmsId);
-            // The high powers are already in coefficient form
-            evaluator.multiplyInplace(tempIn, powers[i - 1 + upsiParams.getPsLowDegree()]);
-            evaluator.addInplace(evaluated, tempIn);
-        }
-        // Calculate polynomial for i=ps_high_degree_powers.
-        // Done separately because here the degree of the inner poly is degree % ps_high_degree.
-        // Once again, the free term will only be added later on.
-        if (degree % psHighDegree > 0 && psHighDegreePowers > 0) {
-            for (int i = 1; i <= degree % psHighDegree; i++) {
-                evaluator.multiplyPlain(powers[i - 1], plaintexts[psHighDegree * psHighDegreePowers + i], cipherTemp);
-                if (i == 1) {
-                    tempIn.copyFrom(cipherTemp);
-                } else {
-                    evaluator.addInplace(tempIn, cipherTemp);
-                }
-            }
-            // Transform inner polynomial to coefficient form
-            evaluator.transformFromNttInplace(tempIn);
-            evaluator.modSwitchToInplace(tempIn, parmsId);
-            // The high powers are already in coefficient form
-            evaluator.multiplyInplace(tempIn, powers[psHighDegreePowers - 1 + upsiParams.getPsLowDegree()]);
-            evaluator.addInplace(evaluated, tempIn);
+        // Calculate polynomial for i=1,...,ps_high_degree_powers. The inner polynomials are independent, and the
+        // inner polynomial for i=ps_high_degree_powers has degree degree % ps_high_degree.
+        int innerNum = degree % psHighDegree > 0 ? psHighDegreePowers : psHighDegreePowers - 1;
+        IntStream innerIntStream = IntStream.rangeClosed(1, innerNum);
+        innerIntStream = parallel ? innerIntStream.parallel() : innerIntStream;
+        Ciphertext[] innerProducts = innerIntStream
+            .mapToObj(i -> {
+                int innerDegree = i < psHighDegreePowers ? psLowDegree : degree % psHighDegree;
+                // Evaluate inner polynomial. The free term is left out and added later on.
+                Ciphertext tempIn = innerProduct(powers, plaintexts, i * psHighDegree, innerDegree);
+                // Transform inner polynomial to coefficient form
+                evaluator.transformFromNttInplace(tempIn);
+                evaluator.modSwitchToInplace(tempIn, parmsId);
+                // The high powers are already in coefficient form
+                evaluator.multiplyInplace(tempIn, powers[i - 1 + psLowDegree]);
+                return tempIn;
+            })
+            .toArray(Ciphertext[]::new);
+        for (Ciphertext innerProduct : innerProducts) {
+            evaluator.addInplace(evaluated, innerProduct);
         }
         // Relinearize sum of ciphertext-ciphertext products
         if (!evaluated.isTransparent()) {
             evaluator.relinearizeInplace(evaluated, relinKeys);
         }
-        // Calculate inner polynomial for i=0.
-        // Done separately since there is no multiplication with a power of high-degree
-        int length = psHighDegreePowers == 0 ? degree : upsiParams.getPsLowDegree();
-        for (int j = 1; j <= length; j++) {
-            evaluator.multiplyPlain(powers[j - 1], plaintexts[j], cipherTemp);
-            evaluator.transformFromNttInplace(cipherTemp);
-            evaluator.modSwitchToInplace(cipherTemp, parmsId);
-            evaluator.addInplace(evaluated, cipherTemp);
+        // Calculate inner polynomial for i=0. Done separately since there is no multiplication with a power of
+        // high-degree. The products are summed in NTT form, so that only one inverse NTT is needed.
+        int length = psHighDegreePowers == 0 ? degree : psLowDegree;
+        if (length > 0) {
+            Ciphertext tempIn = innerProduct(powers, plaintexts, 0, length);
+            evaluator.transformFromNttInplace(tempIn);
+            evaluator.modSwitchToInplace(tempIn, parmsId);
+            evaluator.addInplace(evaluated, tempIn);
         }
         // Add the constant coefficients of the inner polynomials multiplied by the respective powers of high-degree
+        Ciphertext cipherTemp = new Ciphertext();
         for (int i = 1; i < psHighDegreePowers + 1; i++) {
-            evaluator.multiplyPlain(powers[i - 1 + upsiParams.getPsLowDegree()], plaintexts[psHighDegree * i], cipherTemp);
+            evaluator.multiplyPlain(powers[i - 1 + psLowDegree], plaintexts[psHighDegree * i], cipherTemp);
             evaluator.modSwitchToInplace(cipherTemp, parmsId);
             evaluator.addInplace(evaluated, cipherTemp);
         }
@@ -463,25 +566,40 @@ public class Cmg21JavaUpsiServer<T> extends AbstractUpsiServer<T> {
         return evaluated;
     }
 
+    /**
+     * computes the inner product of the low powers and the coefficients, i.e., Σ_{j = 1}^{d} x^j · c_{offset + j}.
+     * The low powers and the coefficients are in NTT form, and so is the result.
+     *
+     * @param powers      powers in form of ciphertext.
+     * @param plaintexts  coeffs in form of plaintext.
+     * @param offset      offset of the coefficients.
+     * @param innerDegree inner degree d.
+     * @return inner product in NTT form.
+     */
+    private Ciphertext innerProduct(Ciphertext[] powers, Plaintext[] plaintexts, int offset, int innerDegree) {
+        Ciphertext tempIn = new Ciphertext(), cipherTemp = new Ciphertext();
+        for (int j = 1; j <= innerDegree; j++) {
+            evaluator.multiplyPlain(powers[j - 1], plaintexts[offset + j], cipherTemp);
+            if (j == 1) {
+                tempIn.copyFrom(cipherTemp);
+            } else {
+                evaluator.addInplace(tempIn, cipherTemp);
+            }
+        }
+        return tempIn;
+    }
+
     /**
      * naive compute matches.
      *
-     * @param powers powers in form of ciphertext.
-     * @param coeffs coeffs in form of plaintext.
+     * @param powers     powers in form of ciphertext.
+     * @param plaintexts coeffs in form of plaintext.
      * @return result.
      */
-    private Ciphertext naiveComputeMatches(Ciphertext[] powers, long[][] coeffs) {
+    private Ciphertext naiveComputeMatches(Ciphertext[] powers, Plaintext[] plaintexts) {
         // encrypted query powers
         ParmsId parmsId = UpsoUtils.getParmsIdForChainIdx(context, 1);
-        Plaintext[] plaintexts = new Plaintext[coeffs.length];
-        for (int i = 0; i < coeffs.length; i++) {
-            plaintexts[i] = new Plaintext();
-            encoder.encode(coeffs[i], plaintexts[i]);
-            if (i > 0) {
-                evaluator.transformToNttInplace(plaintexts[i], parmsId);
-            }
-        }
-        int degree = coeffs.length - 1;
+        int degree = plaintexts.length - 1;
         Ciphertext evaluated = new Ciphertext(), cipherTemp = new Ciphertext(), tempIn = new Ciphertext();
         evaluated.resize(context, parmsId, 3);
         evaluated.setNttForm(false);
@@ -0,0 +1,57 @@
+package edu.alibaba.mpc4j.s2pc.upso.upsi.cmg21;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CMG21 Java prepared UPSI client thread.
+ *
+ * @author Liqiang Peng
+ * @date 2025/3/3
+ */
+class Cmg21JavaPreparedUpsiClientThread<T> extends Thread {
+    /**
+     * CMG21 Java UPSI client
+     */
+    private final Cmg21JavaUpsiClient<T> client;
+    /**
+     * UPSI params
+     */
+    private final Cmg21UpsiParams upsiParams;
+    /**
+     * client element sets, one for each query
+     */
+    private final List<Set<T>> clientElementSets;
+    /**
+     * intersection sets
+     */
+    private final List<Set<T>> intersectionSets;
+
+    Cmg21JavaPreparedUpsiClientThread(Cmg21JavaUpsiClient<T> client, Cmg21UpsiParams upsiParams,
+                                      List<Set<T>> clientElementSets) {
+        this.client = client;
+        this.upsiParams = upsiParams;
+        this.clientElementSets = clientElementSets;
+        intersectionSets = new ArrayList<>(clientElementSets.size());
+    }
+
+    List<Set<T>> getIntersectionSets() {
+        return intersectionSets;
+    }
+
+    @Override
+    public void run() {
+        try {
+            client.initPrepared(upsiParams);
+            for (Set<T> clientElementSet : clientElementSets) {
+                intersectionSets.add(client.psi(clientElementSet));
+            }
+        } catch (MpcAbortException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package edu.alibaba.mpc4j.s2pc.upso.upsi.cmg21;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+
+import java.io.IOException;
+
+/**
+ * CMG21 Java prepared UPSI server thread.
+ *
+ * @author Liqiang Peng
+ * @date 2025/3/3
+ */
+class Cmg21JavaPreparedUpsiServerThread<T> extends Thread {
+    /**
+     * CMG21 Java UPSI server
+     */
+    private final Cmg21JavaUpsiServer<T> server;
+    /**
+     * prepared database
+     */
+    private final Cmg21JavaUpsiDatabase<T> database;
+    /**
+     * max client element size
+     */
+    private final int maxClientElementSize;
+    /**
+     * client element sizes, one for each query
+     */
+    private final int[] clientElementSizes;
+
+    Cmg21JavaPreparedUpsiServerThread(Cmg21JavaUpsiServer<T> server, Cmg21JavaUpsiDatabase<T> database,
+                                      int maxClientElementSize, int[] clientElementSizes) {
+        this.server = server;
+        this.database = database;
+        this.maxClientElementSize = maxClientElementSize;
+        this.clientElementSizes = clientElementSizes;
+    }
+
+    @Override
+    public void run() {
+        try {
+            server.init(database, maxClientElementSize);
+            for (int clientElementSize : clientElementSizes) {
+                server.psi(clientElementSize);
+            }
+        } catch (MpcAbortException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package edu.alibaba.mpc4j.s2pc.upso.upsi.cmg21;
+
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.s2pc.pso.PsoUtils;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * CMG21 Java UPSI test with a prepared server database.
+ *
+ * @author Liqiang Peng
+ * @date 2025/3/3
+ */
+@RunWith(Parameterized.class)
+public class Cmg21JavaPreparedUpsiTest extends AbstractTwoPartyMemoryRpcPto {
+    /**
+     * server element size
+     */
+    private static final int SERVER_ELEMENT_SIZE = 1 << 10;
+    /**
+     * query num
+     */
+    private static final int QUERY_NUM = 3;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // CMG21_JAVA
+        configurations.add(new Object[]{
+            UpsiFactory.UpsiType.CMG21_JAVA.name(), new Cmg21JavaUpsiConfig.Builder().build()
+        });
+
+        return configurations;
+    }
+
+    /**
+     * CMG21 Java UPSI config
+     */
+    private final Cmg21JavaUpsiConfig config;
+
+    public Cmg21JavaPreparedUpsiTest(String name, Cmg21JavaUpsiConfig config) {
+        super(name);
+        this.config = config;
+    }
+
+    @Test
+    public void test2K1() {
+        testQueries(Cmg21UpsiParams.SERVER_2K_CLIENT_MAX_1, false);
+    }
+
+    @Test
+    public void test1M1024Cmp() {
+        testQueries(Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_1K_CMP, false);
+    }
+
+    @Test
+    public void test1M1024CmpParallel() {
+        testQueries(Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_1K_CMP, true);
+    }
+
+    @Test
+    public void test1M1024Com() {
+        testQueries(Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_1K_COM, false);
+    }
+
+    @Test
+    public void test1M1024ComParallel() {
+        testQueries(Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_1K_COM, true);
+    }
+
+    @Test
+    public void testUpdate() {
+        Cmg21UpsiParams upsiParams = Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_1K_CMP;
+        List<Set<String>> sets = generateSets(upsiParams);
+        Set<String> serverElementSet = new HashSet<>(sets.get(0));
+        Cmg21JavaUpsiDatabase<String> database = Cmg21JavaUpsiDatabase.create(
+            config.getEnvType(), upsiParams, serverElementSet, true
+        );
+        // delete half of the intersection, insert client elements that are not in the server set
+        List<Set<String>> clientElementSets = sets.subList(1, sets.size());
+        Set<String> intersection = new HashSet<>(clientElementSets.get(0));
+        intersection.retainAll(serverElementSet);
+        Set<String> deleteSet = intersection.stream().limit(intersection.size() / 2).collect(Collectors.toSet());
+        Set<String> insertSet = clientElementSets.get(0).stream()
+            .filter(element -> !serverElementSet.contains(element))
+            .limit(upsiParams.maxClientElementSize() / 4)
+            .collect(Collectors.toSet());
+        database.delete(deleteSet);
+        database.insert(insertSet);
+        serverElementSet.removeAll(deleteSet);
+        serverElementSet.addAll(insertSet);
+        Assert.assertEquals(serverElementSet.size(), database.size());
+        testQueries(database, serverElementSet, clientElementSets, true);
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        Cmg21UpsiParams upsiParams = Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_1K_CMP;
+        List<Set<String>> sets = generateSets(upsiParams);
+        Set<String> serverElementSet = sets.get(0);
+        Cmg21JavaUpsiDatabase<String> database = Cmg21JavaUpsiDatabase.create(
+            config.getEnvType(), upsiParams, serverElementSet, true
+        );
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        database.write(outputStream);
+        Cmg21JavaUpsiDatabase<String> readDatabase = Cmg21JavaUpsiDatabase.read(
+            config.getEnvType(), new ByteArrayInputStream(outputStream.toByteArray()), true
+        );
+        Assert.assertEquals(database.size(), readDatabase.size());
+        testQueries(readDatabase, serverElementSet, sets.subList(1, sets.size()), true);
+    }
+
+    private List<Set<String>> generateSets(Cmg21UpsiParams upsiParams) {
+        int serverSize = Math.min(SERVER_ELEMENT_SIZE, upsiParams.expectServerSize());
+        int[] sizes = new int[QUERY_NUM + 1];
+        sizes[0] = serverSize;
+        Arrays.fill(sizes, 1, sizes.length, upsiParams.maxClientElementSize());
+        return PsoUtils.generateStringSets("ID", sizes);
+    }
+
+    private void testQueries(Cmg21UpsiParams upsiParams, boolean parallel) {
+        List<Set<String>> sets = generateSets(upsiParams);
+        Set<String> serverElementSet = sets.get(0);
+        Cmg21JavaUpsiDatabase<String> database = Cmg21JavaUpsiDatabase.create(
+            config.getEnvType(), upsiParams, serverElementSet, parallel
+        );
+        testQueries(database, serverElementSet, sets.subList(1, sets.size()), parallel);
+    }
+
+    private void testQueries(Cmg21JavaUpsiDatabase<String> database, Set<String> serverElementSet,
+                             List<Set<String>> clientElementSets, boolean parallel) {
+        Cmg21UpsiParams upsiParams = database.getParams();
+        // create instances
+        Cmg21JavaUpsiServer<String> server = new Cmg21JavaUpsiServer<>(firstRpc, secondRpc.ownParty(), config);
+        Cmg21JavaUpsiClient<String> client = new Cmg21JavaUpsiClient<>(secondRpc, firstRpc.ownParty(), config);
+        int randomTaskId = Math.abs(new SecureRandom().nextInt());
+        server.setTaskId(randomTaskId);
+        client.setTaskId(randomTaskId);
+        server.setParallel(parallel);
+        client.setParallel(parallel);
+        try {
+            int[] clientElementSizes = clientElementSets.stream().mapToInt(Set::size).toArray();
+            Cmg21JavaPreparedUpsiServerThread<String> serverThread = new Cmg21JavaPreparedUpsiServerThread<>(
+                server, database, upsiParams.maxClientElementSize(), clientElementSizes
+            );
+            Cmg21JavaPreparedUpsiClientThread<String> clientThread = new Cmg21JavaPreparedUpsiClientThread<>(
+                client, upsiParams, clientElementSets
+            );
+            STOP_WATCH.start();
+            // start
+            serverThread.start();
+            clientThread.start();
+            // stop
+            serverThread.join();
+            clientThread.join();
+            STOP_WATCH.stop();
+            long time = STOP_WATCH.getTime(TimeUnit.MILLISECONDS);
+            STOP_WATCH.reset();
+            // verify
+            List<Set<String>> psiResults = clientThread.getIntersectionSets();
+            Assert.assertEquals(clientElementSets.size(), psiResults.size());
+            for (int i = 0; i < clientElementSets.size(); i++) {
+                Set<String> expect = new HashSet<>(clientElementSets.get(i));
+                expect.retainAll(serverElementSet);
+                Assert.assertEquals(expect, psiResults.get(i));
+            }
+            printAndResetRpc(time);
+            // destroy
+            new Thread(server::destroy).start();
+            new Thread(client::destroy).start();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package edu.alibaba.mpc4j.s2pc.upso.upsi.cmg21;
+
+import edu.alibaba.mpc4j.common.rpc.MpcAbortException;
+import edu.alibaba.mpc4j.common.rpc.pto.AbstractTwoPartyMemoryRpcPto;
+import edu.alibaba.mpc4j.s2pc.pso.PsoUtils;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiClient;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiConfig;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiFactory;
+import edu.alibaba.mpc4j.s2pc.upso.upsi.UpsiServer;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CMG21 UPSI efficiency test, comparing the Java server against the native server. Small client sets are the
+ * interesting case, since there are only a few ciphertexts and the server must parallelize inside each ciphertext.
+ *
+ * @author Liqiang Peng
+ * @date 2025/3/3
+ */
+@Ignore
+@RunWith(Parameterized.class)
+public class Cmg21UpsiEfficiencyTest extends AbstractTwoPartyMemoryRpcPto {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Cmg21UpsiEfficiencyTest.class);
+    /**
+     * server element size
+     */
+    private static final int SERVER_ELEMENT_SIZE = 1 << 20;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // CMG21
+        configurations.add(new Object[]{
+            UpsiFactory.UpsiType.CMG21.name(), new Cmg21UpsiConfig.Builder().build()
+        });
+        // CMG21 + JAVA
+        configurations.add(new Object[]{
+            UpsiFactory.UpsiType.CMG21_JAVA.name(), new Cmg21JavaUpsiConfig.Builder().build()
+        });
+
+        return configurations;
+    }
+
+    /**
+     * name
+     */
+    private final String name;
+    /**
+     * UPSI config
+     */
+    private final UpsiConfig config;
+
+    public Cmg21UpsiEfficiencyTest(String name, UpsiConfig config) {
+        super(name);
+        this.name = name;
+        this.config = config;
+    }
+
+    @Test
+    public void testEfficiency() {
+        LOGGER.info("{}\t{}\t{}\t{}\t{}", "name", "max_client_size", "ps_low_degree", "parallel", "time(ms)");
+        for (Cmg21UpsiParams upsiParams : new Cmg21UpsiParams[]{
+            Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_256,
+            Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_1K_CMP,
+            Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_1K_COM,
+            Cmg21UpsiParams.SERVER_1M_CLIENT_MAX_4K_COM,
+        }) {
+            testEfficiency(upsiParams, false);
+            testEfficiency(upsiParams, true);
+        }
+    }
+
+    private void testEfficiency(Cmg21UpsiParams upsiParams, boolean parallel) {
+        int serverSize = Math.min(SERVER_ELEMENT_SIZE, upsiParams.expectServerSize());
+        int clientSize = upsiParams.maxClientElementSize();
+        List<Set<String>> sets = PsoUtils.generateStringSets("ID", serverSize, clientSize);
+        Set<String> serverElementSet = sets.get(0);
+        Set<String> clientElementSet = sets.get(1);
+        UpsiServer<String> server = UpsiFactory.createServer(firstRpc, secondRpc.ownParty(), config);
+        UpsiClient<String> client = UpsiFactory.createClient(secondRpc, firstRpc.ownParty(), config);
+        int randomTaskId = Math.abs(SECURE_RANDOM.nextInt());
+        server.setTaskId(randomTaskId);
+        client.setTaskId(randomTaskId);
+        server.setParallel(parallel);
+        client.setParallel(parallel);
+        Set<String> intersectionSet = new HashSet<>();
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.init(upsiParams);
+                server.psi(serverElementSet, clientElementSet.size());
+            } catch (MpcAbortException | IOException e) {
+                e.printStackTrace();
+            }
+        });
+        Thread clientThread = new Thread(() -> {
+            try {
+                client.init(upsiParams);
+                intersectionSet.addAll(client.psi(clientElementSet));
+            } catch (MpcAbortException | IOException e) {
+                e.printStackTrace();
+            }
+        });
+        try {
+            STOP_WATCH.start();
+            serverThread.start();
+            clientThread.start();
+            serverThread.join();
+            clientThread.join();
+            STOP_WATCH.stop();
+            long time = STOP_WATCH.getTime(TimeUnit.MILLISECONDS);
+            STOP_WATCH.reset();
+            sets.get(0).retainAll(sets.get(1));
+            Assert.assertEquals(sets.get(0), intersectionSet);
+            LOGGER.info(
+                "{}\t{}\t{}\t{}\t{}",
+                name, upsiParams.maxClientElementSize(), upsiParams.getPsLowDegree(), parallel, time
+            );
+            printAndResetRpc(time);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        new Thread(server::destroy).start();
+        new Thread(client::destroy).start();
+    }
+}
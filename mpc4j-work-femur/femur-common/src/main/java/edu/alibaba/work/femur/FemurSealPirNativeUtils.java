@@ -79,6 +79,25 @@ public class FemurSealPirNativeUtils {
     public static native List<byte[]> generateReply(byte[] encryptionParams, byte[] galoisKey, List<byte[]> queryList,
                                                     byte[][] database, int[] nvec);
 
+    /**
+     * generate responses for a batch of queries on overlapping database ranges. The database is the union of all query
+     * ranges and is deserialized only once. The range of the i-th query starts at offsets[i] in the union and has
+     * prod(nvecs[i]) plaintexts. Each plaintext of the union is streamed through all queries whose ranges contain it
+     * in the first dimension. A query that fails (e.g., it cannot be deserialized or expanded) gets a null response,
+     * and does not fail other queries in the batch.
+     *
+     * @param encryptionParams encryption params.
+     * @param galoisKeyList    Galois keys of each query.
+     * @param queryLists       query ciphertexts of each query, each must be an ArrayList.
+     * @param database         union database.
+     * @param offsets          offset of each query range in the union database.
+     * @param nvecs            dimension size of each query.
+     * @return response ciphertexts of each query, null for a failed query.
+     */
+    public static native List<List<byte[]>> generateReplyBatch(byte[] encryptionParams, List<byte[]> galoisKeyList,
+                                                               List<List<byte[]>> queryLists, byte[][] database,
+                                                               int[] offsets, int[][] nvecs);
+
     /**
      * decode response.
      *
@@ -3,6 +3,7 @@ package edu.alibaba.work.femur.demo;
 import gnu.trove.map.TLongObjectMap;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -58,6 +59,25 @@ public interface FemurDemoPirServer {
      */
     Pair<FemurStatus, List<byte[]>> response(List<byte[]> queryPayload);
 
+    /**
+     * Server responses a batch of queries. Servers can override it to share one pass over the database among queries.
+     * A malformed query gets {@link FemurStatus#QUERY_INVALID} and does not fail other queries in the batch.
+     *
+     * @param queryPayloads query payloads.
+     * @return (code, response payload) for each query, in the same order.
+     */
+    default List<Pair<FemurStatus, List<byte[]>>> batchResponse(List<List<byte[]>> queryPayloads) {
+        return queryPayloads.stream()
+            .map(queryPayload -> {
+                try {
+                    return response(queryPayload);
+                } catch (RuntimeException e) {
+                    return Pair.<FemurStatus, List<byte[]>>of(FemurStatus.QUERY_INVALID, new LinkedList<>());
+                }
+            })
+            .toList();
+    }
+
     /**
      * Server close.
      */
@@ -27,4 +27,8 @@ public enum FemurStatus {
      * Hint version mismatch
      */
     HINT_V_MISMATCH,
+    /**
+     * Query is invalid
+     */
+    QUERY_INVALID,
 }
@@ -100,7 +100,7 @@ public class NaiveFemurDemoMemoryPirClient extends AbstractFemurDemoPirClient {
     public Pair<FemurStatus, byte[]> retrieve(Pair<FemurStatus, List<byte[]>> response) {
         FemurStatus femurStatus = response.getKey();
         switch (femurStatus) {
-            case HINT_V_MISMATCH, CLIENT_NOT_REGS -> {
+            case HINT_V_MISMATCH, CLIENT_NOT_REGS, QUERY_INVALID -> {
                 return Pair.of(femurStatus, null);
             }
             case SERVER_SUCC_RES -> {
@@ -2,6 +2,7 @@ package edu.alibaba.work.femur.demo.seal;
 
 
 import edu.alibaba.mpc4j.common.tool.CommonConstants;
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
 import edu.alibaba.work.femur.FemurSealPirParams;
 import edu.alibaba.work.femur.demo.FemurDemoPirConfig;
 import edu.alibaba.work.femur.demo.FemurDemoPirType;
@@ -13,6 +14,10 @@ import edu.alibaba.work.femur.demo.FemurDemoPirType;
  * @date 2024/9/19
  */
 public class SealFemurDemoMemoryPirConfig implements FemurDemoPirConfig {
+    /**
+     * default max batch size
+     */
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
     /**
      * SEAL PIR params
      */
@@ -25,11 +30,21 @@ public class SealFemurDemoMemoryPirConfig implements FemurDemoPirConfig {
      * epsilon range used to build this index
      */
     private final int pgmIndexLeafEpsilon;
+    /**
+     * max batch latency in milliseconds, 0 means queries are not batched
+     */
+    private final long maxBatchLatency;
+    /**
+     * max batch size
+     */
+    private final int maxBatchSize;
 
     public SealFemurDemoMemoryPirConfig(Builder builder) {
         this.params = builder.params;
         this.dp = builder.dp;
         this.pgmIndexLeafEpsilon = builder.pgmIndexLeafEpsilon;
+        this.maxBatchLatency = builder.maxBatchLatency;
+        this.maxBatchSize = builder.maxBatchSize;
     }
 
     @Override
@@ -64,6 +79,24 @@ public class SealFemurDemoMemoryPirConfig implements FemurDemoPirConfig {
         return pgmIndexLeafEpsilon;
     }
 
+    /**
+     * Returns max batch latency in milliseconds. Queries arriving within this window are answered in one batch.
+     *
+     * @return max batch latency in milliseconds, 0 means queries are not batched.
+     */
+    public long getMaxBatchLatency() {
+        return maxBatchLatency;
+    }
+
+    /**
+     * Returns max number of queries in one batch.
+     *
+     * @return max batch size.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
     public static class Builder implements org.apache.commons.lang3.builder.Builder<SealFemurDemoMemoryPirConfig> {
         /**
          * SEAL PIR params
@@ -77,11 +110,21 @@ public class SealFemurDemoMemoryPirConfig implements FemurDemoPirConfig {
          * epsilon range used to build this index
          */
         private int pgmIndexLeafEpsilon;
+        /**
+         * max batch latency in milliseconds
+         */
+        private long maxBatchLatency;
+        /**
+         * max batch size
+         */
+        private int maxBatchSize;
 
         public Builder() {
             params = FemurSealPirParams.DEFAULT_PARAMS;
             dp = false;
             pgmIndexLeafEpsilon = CommonConstants.PGM_INDEX_LEAF_EPSILON;
+            maxBatchLatency = 0;
+            maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
         }
 
         public Builder setParams(FemurSealPirParams params) {
@@ -99,6 +142,14 @@ public class SealFemurDemoMemoryPirConfig implements FemurDemoPirConfig {
             return this;
         }
 
+        public Builder setBatch(long maxBatchLatency, int maxBatchSize) {
+            MathPreconditions.checkNonNegative("maxBatchLatency", maxBatchLatency);
+            MathPreconditions.checkPositive("maxBatchSize", maxBatchSize);
+            this.maxBatchLatency = maxBatchLatency;
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
         @Override
         public SealFemurDemoMemoryPirConfig build() {
             return new SealFemurDemoMemoryPirConfig(this);
@@ -17,12 +17,19 @@ import gnu.trove.map.TLongObjectMap;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.*;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.IntStream;
 
 /**
  * SEAL Femur demo PIR server.
+ * <p>
+ * The server keeps the database as immutable snapshots. Each snapshot pins the PGM-index pair together with the
+ * encoded plaintexts of that version. Queries read the current snapshot without locks, and never copy plaintexts.
+ * Updates are copy-on-write per plaintext: an update creates new plaintexts only for the pages containing the key,
+ * shares all other pages with the previous snapshot, and atomically publishes the new snapshot. Updates are serialized
+ * with each other by the update lock.
+ * </p>
  *
  * @author Liqiang Peng
  * @date 2024/9/19
@@ -46,9 +53,9 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
      */
     private int elementSizeOfPlaintext;
     /**
-     * BFV plaintext in NTT form, which should be stored in Redis
+     * current database snapshot
      */
-    private List<byte[][]> encodedDatabase;
+    private volatile Snapshot snapshot;
     /**
      * version
      */
@@ -62,9 +69,9 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
      */
     private Map<String, byte[]> clients;
     /**
-     * write lock
+     * update lock, only serializes database updates. Queries do not need it.
      */
-    private final WriteLock writeLock;
+    private final ReentrantLock updateLock;
     /**
      * epsilon range used to build this index
      */
@@ -82,15 +89,14 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
         super(config);
         params = config.getParams();
         version = 0L;
-        ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-        writeLock = readWriteLock.writeLock();
+        updateLock = new ReentrantLock();
         pgmIndexLeafEpsilon = config.getPgmIndexLeafEpsilon();
     }
 
     @Override
     public void init(int n, int l) {
         setInitInput(n, l);
-        clients = new HashMap<>();
+        clients = new ConcurrentHashMap<>();
         // number of coefficients that can store one element
         partitionNum = 0;
         int partitionL;
@@ -136,15 +142,19 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
             }
             partitionDatabase.add(temp);
         }
-        List<byte[][]> newEncodedDatabase = IntStream.range(0, partitionNum)
+        byte[][][] newEncodedDatabase = IntStream.range(0, partitionNum)
             .mapToObj(i -> preprocessDatabase(partitionDatabase.get(i)))
-            .toList();
+            .toArray(byte[][][]::new);
         LongApproxPgmIndex pgmIndex = builder.build();
-        writeLock.lock();
-        pgmIndexPair = Pair.of(Long.toUnsignedString(version), pgmIndex);
-        encodedDatabase = newEncodedDatabase;
-        version++;
-        writeLock.unlock();
+        updateLock.lock();
+        try {
+            Pair<String, LongApproxPgmIndex> newPgmIndexPair = Pair.of(Long.toUnsignedString(version), pgmIndex);
+            snapshot = new Snapshot(newPgmIndexPair, newEncodedDatabase);
+            pgmIndexPair = newPgmIndexPair;
+            version++;
+        } finally {
+            updateLock.unlock();
+        }
     }
 
     @Override
@@ -169,13 +179,15 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
         MathPreconditions.checkEqual("queryPayload.size()", "1", queryPayload.size(), queryPayloadSize + 4);
         String clientId = new String(queryPayload.get(0), CommonConstants.DEFAULT_CHARSET);
         // client does not register
-        writeLock.lock();
-        if (!clients.containsKey(clientId)) {
-            writeLock.unlock();
+        byte[] galoisKeys = clients.get(clientId);
+        if (galoisKeys == null) {
             return Pair.of(FemurStatus.CLIENT_NOT_REGS, new LinkedList<>());
         }
-        byte[] galoisKeys = clients.get(clientId);
-        writeLock.unlock();
+        // pin the current snapshot, concurrent updates publish new snapshots and never modify this one
+        Snapshot currentSnapshot = snapshot;
+        if (currentSnapshot == null) {
+            return Pair.of(FemurStatus.SERVER_NOT_KVDB, new LinkedList<>());
+        }
         String version = new String(queryPayload.get(1), CommonConstants.DEFAULT_CHARSET);
         int leftRange = IntUtils.byteArrayToInt(queryPayload.get(queryPayloadSize + 2));
         int rangePlaintextSize = IntUtils.byteArrayToInt(queryPayload.get(queryPayloadSize + 3));
@@ -183,23 +195,12 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
         int prod = Arrays.stream(rangeDimensionSize).reduce(1, (a, b) -> a * b);
         byte[][] rangeEncodeDatabase = new byte[prod][];
         // PGM-index version mismatch
-        if (!version.equals(pgmIndexPair.getKey())) {
+        if (!version.equals(currentSnapshot.pgmIndexPair.getKey())) {
             return Pair.of(FemurStatus.HINT_V_MISMATCH, new LinkedList<>());
         } else {
             List<byte[]> responsePayload = new ArrayList<>();
             for (int i = 0; i < partitionNum; i++) {
-                int finalI = i;
-                writeLock.lock();
-                IntStream.range(0, prod)
-                    .forEach(j -> {
-                        int idx = (leftRange + j) % plaintextSize;
-                        if (idx < 0) {
-                            idx = idx + plaintextSize;
-                        }
-                        rangeEncodeDatabase[j] = Arrays.copyOf(encodedDatabase.get(finalI)[idx],
-                            encodedDatabase.get(finalI)[idx].length);
-                    });
-                writeLock.unlock();
+                fillRangeEncodedDatabase(currentSnapshot.encodedDatabase[i], leftRange, rangeEncodeDatabase);
                 responsePayload.addAll(FemurSealPirNativeUtils.generateReply(
                     params.getEncryptionParams(),
                     galoisKeys,
@@ -212,36 +213,218 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
         }
     }
 
+    @Override
+    public List<Pair<FemurStatus, List<byte[]>>> batchResponse(List<List<byte[]>> queryPayloads) {
+        int queryNum = queryPayloads.size();
+        @SuppressWarnings("unchecked")
+        Pair<FemurStatus, List<byte[]>>[] responses = new Pair[queryNum];
+        // all queries in the batch read the same snapshot
+        Snapshot currentSnapshot = snapshot;
+        byte[][] galoisKeysArray = new byte[queryNum][];
+        int[] leftRanges = new int[queryNum];
+        int[][] rangeDimensionSizes = new int[queryNum][];
+        int[] prods = new int[queryNum];
+        TIntList validQueryIndexes = new TIntArrayList(queryNum);
+        for (int queryIndex = 0; queryIndex < queryNum; queryIndex++) {
+            List<byte[]> queryPayload = queryPayloads.get(queryIndex);
+            // an invalid query only fails itself, it must not fail other queries in the batch
+            if (!isValidQuery(queryPayload)) {
+                responses[queryIndex] = Pair.of(FemurStatus.QUERY_INVALID, new LinkedList<>());
+                continue;
+            }
+            String clientId = new String(queryPayload.get(0), CommonConstants.DEFAULT_CHARSET);
+            String version = new String(queryPayload.get(1), CommonConstants.DEFAULT_CHARSET);
+            galoisKeysArray[queryIndex] = clients.get(clientId);
+            if (galoisKeysArray[queryIndex] == null) {
+                responses[queryIndex] = Pair.of(FemurStatus.CLIENT_NOT_REGS, new LinkedList<>());
+            } else if (currentSnapshot == null) {
+                responses[queryIndex] = Pair.of(FemurStatus.SERVER_NOT_KVDB, new LinkedList<>());
+            } else if (!version.equals(currentSnapshot.pgmIndexPair.getKey())) {
+                responses[queryIndex] = Pair.of(FemurStatus.HINT_V_MISMATCH, new LinkedList<>());
+            } else {
+                // the range of a query is [leftRange, leftRange + prod) modulo the plaintext size
+                leftRanges[queryIndex] = Math.floorMod(
+                    IntUtils.byteArrayToInt(queryPayload.get(queryPayloadSize + 2)), plaintextSize
+                );
+                int rangePlaintextSize = IntUtils.byteArrayToInt(queryPayload.get(queryPayloadSize + 3));
+                rangeDimensionSizes[queryIndex] = FemurSealPirNativeUtils.computeDimensionLength(
+                    rangePlaintextSize, params.getDimension()
+                );
+                prods[queryIndex] = Arrays.stream(rangeDimensionSizes[queryIndex]).reduce(1, (a, b) -> a * b);
+                validQueryIndexes.add(queryIndex);
+            }
+        }
+        // clients choose ranges around their own keys, so ranges of different clients overlap but rarely coincide.
+        // We sort queries by left range and merge queries with overlapping ranges into one cluster, each cluster
+        // reads the union of its ranges once, and each query reads its own range at its offset in the union.
+        int[] sortedQueryIndexes = Arrays.stream(validQueryIndexes.toArray())
+            .boxed()
+            .sorted(Comparator.comparingInt(queryIndex -> leftRanges[queryIndex]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        List<TIntList> clusters = new ArrayList<>();
+        long clusterRightRange = Long.MIN_VALUE;
+        for (int queryIndex : sortedQueryIndexes) {
+            if (clusters.isEmpty() || leftRanges[queryIndex] >= clusterRightRange) {
+                clusters.add(new TIntArrayList());
+                clusterRightRange = leftRanges[queryIndex];
+            }
+            clusters.get(clusters.size() - 1).add(queryIndex);
+            clusterRightRange = Math.max(clusterRightRange, (long) leftRanges[queryIndex] + prods[queryIndex]);
+        }
+        // clusters are independent, each cluster makes one pass over its union range for all queries in the cluster
+        clusters.parallelStream().forEach(cluster -> {
+            int clusterSize = cluster.size();
+            int clusterLeftRange = leftRanges[cluster.get(0)];
+            int clusterLength = 0;
+            int[] offsets = new int[clusterSize];
+            int[][] nvecs = new int[clusterSize][];
+            List<byte[]> galoisKeysList = new ArrayList<>(clusterSize);
+            List<List<byte[]>> queryLists = new ArrayList<>(clusterSize);
+            List<List<byte[]>> responsePayloads = new ArrayList<>(clusterSize);
+            for (int j = 0; j < clusterSize; j++) {
+                int queryIndex = cluster.get(j);
+                offsets[j] = leftRanges[queryIndex] - clusterLeftRange;
+                nvecs[j] = rangeDimensionSizes[queryIndex];
+                clusterLength = Math.max(clusterLength, offsets[j] + prods[queryIndex]);
+                galoisKeysList.add(galoisKeysArray[queryIndex]);
+                queryLists.add(new ArrayList<>(queryPayloads.get(queryIndex).subList(2, queryPayloadSize + 2)));
+                responsePayloads.add(new ArrayList<>());
+            }
+            boolean[] invalid = new boolean[clusterSize];
+            try {
+                byte[][] unionEncodeDatabase = new byte[clusterLength][];
+                for (int i = 0; i < partitionNum; i++) {
+                    fillRangeEncodedDatabase(currentSnapshot.encodedDatabase[i], clusterLeftRange, unionEncodeDatabase);
+                    List<List<byte[]>> partitionResponsePayloads = FemurSealPirNativeUtils.generateReplyBatch(
+                        params.getEncryptionParams(), galoisKeysList, queryLists, unionEncodeDatabase, offsets, nvecs
+                    );
+                    for (int j = 0; j < clusterSize; j++) {
+                        // the native code returns null for a query that it fails to handle
+                        List<byte[]> partitionResponsePayload = partitionResponsePayloads.get(j);
+                        if (partitionResponsePayload == null) {
+                            invalid[j] = true;
+                        } else if (!invalid[j]) {
+                            responsePayloads.get(j).addAll(partitionResponsePayload);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                // the whole cluster fails, answer queries in the cluster one by one so that only bad queries fail
+                for (int j = 0; j < clusterSize; j++) {
+                    int queryIndex = cluster.get(j);
+                    List<byte[]> responsePayload = responsePayloads.get(j);
+                    responsePayload.clear();
+                    byte[][] rangeEncodeDatabase = new byte[prods[queryIndex]][];
+                    try {
+                        for (int i = 0; i < partitionNum; i++) {
+                            fillRangeEncodedDatabase(currentSnapshot.encodedDatabase[i], leftRanges[queryIndex], rangeEncodeDatabase);
+                            responsePayload.addAll(FemurSealPirNativeUtils.generateReply(
+                                params.getEncryptionParams(),
+                                galoisKeysList.get(j),
+                                queryLists.get(j),
+                                rangeEncodeDatabase,
+                                nvecs[j]
+                            ));
+                        }
+                        invalid[j] = false;
+                    } catch (Exception queryException) {
+                        invalid[j] = true;
+                    }
+                }
+            }
+            for (int j = 0; j < clusterSize; j++) {
+                responses[cluster.get(j)] = invalid[j]
+                    ? Pair.of(FemurStatus.QUERY_INVALID, new LinkedList<>())
+                    : Pair.of(FemurStatus.SERVER_SUCC_RES, responsePayloads.get(j));
+            }
+        });
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Checks if the query payload is well-formed, i.e., it has the expected number of elements, each query ciphertext
+     * is not empty, and the range plaintext size leads to dimensions that each query ciphertext can expand to.
+     *
+     * @param queryPayload query payload.
+     * @return true if the query payload is well-formed.
+     */
+    private boolean isValidQuery(List<byte[]> queryPayload) {
+        if (queryPayload == null || queryPayload.size() != queryPayloadSize + 4) {
+            return false;
+        }
+        for (byte[] element : queryPayload) {
+            if (element == null) {
+                return false;
+            }
+        }
+        for (int i = 2; i < queryPayloadSize + 2; i++) {
+            if (queryPayload.get(i).length == 0) {
+                return false;
+            }
+        }
+        if (queryPayload.get(queryPayloadSize + 2).length != Integer.BYTES
+            || queryPayload.get(queryPayloadSize + 3).length != Integer.BYTES) {
+            return false;
+        }
+        int rangePlaintextSize = IntUtils.byteArrayToInt(queryPayload.get(queryPayloadSize + 3));
+        if (rangePlaintextSize <= 0 || rangePlaintextSize > plaintextSize) {
+            return false;
+        }
+        // each dimension has one query ciphertext, which expands to at most N ciphertexts
+        int[] rangeDimensionSize = FemurSealPirNativeUtils.computeDimensionLength(rangePlaintextSize, params.getDimension());
+        return Arrays.stream(rangeDimensionSize).allMatch(size -> size <= params.getPolyModulusDegree());
+    }
+
+    private void fillRangeEncodedDatabase(byte[][] partitionEncodedDatabase, int leftRange, byte[][] rangeEncodeDatabase) {
+        // plaintexts in a snapshot are immutable, and the native code copies them, so we do not copy here
+        for (int j = 0; j < rangeEncodeDatabase.length; j++) {
+            int idx = (leftRange + j) % plaintextSize;
+            if (idx < 0) {
+                idx = idx + plaintextSize;
+            }
+            rangeEncodeDatabase[j] = partitionEncodedDatabase[idx];
+        }
+    }
+
     @Override
     public void reset() {
-        writeLock.lock();
-        innerReset();
-        version = 0;
-        encodedDatabase = null;
-        if (clients != null) {
-            clients.clear();
-            clients = null;
+        updateLock.lock();
+        try {
+            innerReset();
+            version = 0;
+            snapshot = null;
+            if (clients != null) {
+                clients.clear();
+                clients = null;
+            }
+        } finally {
+            updateLock.unlock();
         }
-        writeLock.unlock();
     }
 
     @Override
     public boolean updateValue(long key, byte[] value) {
-        byte[] ele = new byte[partitionNum * partitionByteL];
-        byte[] keyBytes = LongUtils.longToByteArray(key);
-        assert keyBytes.length == Long.BYTES;
         assert value.length == byteL;
-        System.arraycopy(keyBytes, 0, ele, 0, Long.BYTES);
-        System.arraycopy(value, 0, ele, 8, byteL);
-        byte[][] partitionEle = new byte[partitionNum][partitionByteL];
-        IntStream.range(0, partitionNum)
-            .forEach(i -> System.arraycopy(ele, i * partitionByteL, partitionEle[i], 0, partitionByteL));
-        TIntList idxList = getIdxList(key);
+        updateLock.lock();
+        try {
+            return innerUpdateValue(key, value);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private boolean innerUpdateValue(long key, byte[] value) {
+        Snapshot currentSnapshot = snapshot;
+        if (currentSnapshot == null) {
+            return false;
+        }
+        TIntList idxList = getIdxList(currentSnapshot.pgmIndexPair.getValue(), key);
         if (!idxList.isEmpty()) {
             List<byte[][]> nttPlaintexts = IntStream.range(0, partitionNum)
                 .mapToObj(i ->
                     IntStream.range(0, idxList.size())
-                        .mapToObj(j -> encodedDatabase.get(i)[idxList.get(j)])
+                        .mapToObj(j -> currentSnapshot.encodedDatabase[i][idxList.get(j)])
                         .toArray(byte[][]::new))
                 .toList();
             List<long[][]> coeffsArr = IntStream.range(0, partitionNum)
@@ -302,20 +485,26 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
             }
             // do NTT for updated plaintexts
             List<byte[]> plaintexts = FemurSealPirNativeUtils.transformToNtt(params.getEncryptionParams(), coeffsList);
-            // update database
+            // copy-on-write: only replace updated plaintexts, other plaintexts are shared with the current snapshot
+            byte[][][] newEncodedDatabase = new byte[partitionNum][][];
+            for (int j = 0; j < partitionNum; j++) {
+                newEncodedDatabase[j] = currentSnapshot.encodedDatabase[j].clone();
+            }
             for (int i = 0; i < updateIdx.size(); i++) {
                 for (int j = 0; j < partitionNum; j++) {
-                    encodedDatabase.get(j)[updateIdx.get(i)] = plaintexts.get(i * partitionNum + j);
+                    newEncodedDatabase[j][updateIdx.get(i)] = plaintexts.get(i * partitionNum + j);
                 }
             }
+            // the PGM-index does not change when updating values, so the new snapshot keeps the same version
+            snapshot = new Snapshot(currentSnapshot.pgmIndexPair, newEncodedDatabase);
             return true;
         }
         return false;
     }
 
-    private TIntList getIdxList(long key) {
+    private TIntList getIdxList(LongApproxPgmIndex pgmIndex, long key) {
         TIntList idxList = new TIntArrayList();
-        int[] range = pgmIndexPair.getValue().approximateIndexRangeOf(key);
+        int[] range = pgmIndex.approximateIndexRangeOf(key);
         if (range[0] >= 0) {
             int leftBound = range[1] / elementSizeOfPlaintext;
             int rightBound = range[2] / elementSizeOfPlaintext;
@@ -396,4 +585,23 @@ public class SealFemurDemoMemoryPirServer extends AbstractFemurDemoPirServer {
             .forEach(coeffsList::add);
         return FemurSealPirNativeUtils.transformToNtt(params.getEncryptionParams(), coeffsList).toArray(new byte[0][]);
     }
-}
\ No newline at end of file
+
+    /**
+     * Immutable database snapshot.
+     */
+    private static class Snapshot {
+        /**
+         * PGM-index pair of this snapshot
+         */
+        private final Pair<String, LongApproxPgmIndex> pgmIndexPair;
+        /**
+         * BFV plaintexts in NTT form for each partition, which must not be modified after publishing
+         */
+        private final byte[][][] encodedDatabase;
+
+        private Snapshot(Pair<String, LongApproxPgmIndex> pgmIndexPair, byte[][][] encodedDatabase) {
+            this.pgmIndexPair = pgmIndexPair;
+            this.encodedDatabase = encodedDatabase;
+        }
+    }
+}
@@ -18,8 +18,10 @@ import org.junit.runners.Parameterized;
 
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Femur demo PIR test.
@@ -179,6 +181,113 @@ public class FemurDemoPirTest {
         server.reset();
     }
 
+    @Test
+    public void testBatchResponse() {
+        int n = 1 << 14;
+        int l = Long.SIZE;
+        double epsilon = 0.01;
+        TLongObjectMap<byte[]> keyValueDatabase = generateKeyValueDatabase(n, l, secureRandom);
+        FemurDemoPirServer server = FemurDemoPirFactory.createServer(config);
+        // init and set database
+        server.init(n, l);
+        server.setDatabase(keyValueDatabase);
+        Pair<FemurStatus, List<byte[]>> hintResponse = server.getHint();
+        Assert.assertEquals(hintResponse.getLeft(), FemurStatus.SERVER_SUCC_RES);
+        // each query is issued by a different client, the last query is not in the key-value database
+        int queryNum = DEFAULT_QUERY_NUM + 1;
+        long[] keys = keyValueDatabase.keys();
+        long[] queryKeys = new long[queryNum];
+        for (int i = 0; i < DEFAULT_QUERY_NUM; i++) {
+            queryKeys[i] = keys[secureRandom.nextInt(n)];
+        }
+        queryKeys[DEFAULT_QUERY_NUM] = secureRandom.nextLong();
+        while (keyValueDatabase.containsKey(queryKeys[DEFAULT_QUERY_NUM])) {
+            queryKeys[DEFAULT_QUERY_NUM] = secureRandom.nextLong();
+        }
+        FemurDemoPirClient[] clients = new FemurDemoPirClient[queryNum];
+        List<List<byte[]>> queryPayloads = new ArrayList<>();
+        for (int i = 0; i < queryNum; i++) {
+            clients[i] = FemurDemoPirFactory.createClient(config);
+            Pair<FemurStatus, List<byte[]>> registerResponse = server.register(clients[i].register("Client " + i));
+            Assert.assertEquals(registerResponse.getLeft(), FemurStatus.SERVER_SUCC_RES);
+            clients[i].setDatabaseParams(registerResponse.getRight());
+            clients[i].setHint(hintResponse.getRight());
+            queryPayloads.add(clients[i].query(queryKeys[i], DEFAULT_T, epsilon));
+        }
+        // the same query twice, so that at least two queries read the same range
+        queryPayloads.add(queryPayloads.get(0));
+        List<Pair<FemurStatus, List<byte[]>>> responsePayloads = server.batchResponse(queryPayloads);
+        Assert.assertEquals(queryNum + 1, responsePayloads.size());
+        for (int i = 0; i < queryNum; i++) {
+            Pair<FemurStatus, byte[]> answer = clients[i].retrieve(responsePayloads.get(i));
+            Assert.assertEquals(answer.getKey(), FemurStatus.SERVER_SUCC_RES);
+            if (i < DEFAULT_QUERY_NUM) {
+                Assert.assertArrayEquals(answer.getValue(), keyValueDatabase.get(queryKeys[i]));
+            } else {
+                Assert.assertNull(answer.getValue());
+            }
+        }
+        // retrieving resets the client state, query the same key again to retrieve the repeated response
+        clients[0].query(queryKeys[0], DEFAULT_T, epsilon);
+        Pair<FemurStatus, byte[]> answer = clients[0].retrieve(responsePayloads.get(queryNum));
+        Assert.assertEquals(answer.getKey(), FemurStatus.SERVER_SUCC_RES);
+        Assert.assertArrayEquals(answer.getValue(), keyValueDatabase.get(queryKeys[0]));
+        server.reset();
+    }
+
+    @Test
+    public void testBatchResponseInvalidQuery() {
+        int n = 1 << 14;
+        int l = Long.SIZE;
+        double epsilon = 0.01;
+        TLongObjectMap<byte[]> keyValueDatabase = generateKeyValueDatabase(n, l, secureRandom);
+        FemurDemoPirServer server = FemurDemoPirFactory.createServer(config);
+        server.init(n, l);
+        server.setDatabase(keyValueDatabase);
+        Pair<FemurStatus, List<byte[]>> hintResponse = server.getHint();
+        Assert.assertEquals(hintResponse.getLeft(), FemurStatus.SERVER_SUCC_RES);
+        // clients query neighboring keys, so that their ranges overlap but do not coincide
+        long[] keys = keyValueDatabase.keys();
+        Arrays.sort(keys);
+        int startIndex = secureRandom.nextInt(n - DEFAULT_QUERY_NUM * DEFAULT_T);
+        long[] queryKeys = IntStream.range(0, DEFAULT_QUERY_NUM)
+            .mapToLong(i -> keys[startIndex + i * DEFAULT_T / 2])
+            .toArray();
+        FemurDemoPirClient[] clients = new FemurDemoPirClient[DEFAULT_QUERY_NUM];
+        List<List<byte[]>> queryPayloads = new ArrayList<>();
+        for (int i = 0; i < DEFAULT_QUERY_NUM; i++) {
+            clients[i] = FemurDemoPirFactory.createClient(config);
+            Pair<FemurStatus, List<byte[]>> registerResponse = server.register(clients[i].register("Client " + i));
+            Assert.assertEquals(registerResponse.getLeft(), FemurStatus.SERVER_SUCC_RES);
+            clients[i].setDatabaseParams(registerResponse.getRight());
+            clients[i].setHint(hintResponse.getRight());
+            queryPayloads.add(clients[i].query(queryKeys[i], DEFAULT_T, epsilon));
+        }
+        // malformed queries between valid queries, one misses the last element, one has an extra element
+        List<byte[]> truncatedPayload = new ArrayList<>(queryPayloads.get(0).subList(0, queryPayloads.get(0).size() - 1));
+        List<byte[]> extendedPayload = new ArrayList<>(queryPayloads.get(1));
+        extendedPayload.add(new byte[0]);
+        List<List<byte[]>> batchPayloads = new ArrayList<>();
+        batchPayloads.add(queryPayloads.get(0));
+        batchPayloads.add(truncatedPayload);
+        batchPayloads.add(queryPayloads.get(1));
+        batchPayloads.add(extendedPayload);
+        batchPayloads.addAll(queryPayloads.subList(2, DEFAULT_QUERY_NUM));
+        List<Pair<FemurStatus, List<byte[]>>> responsePayloads = server.batchResponse(batchPayloads);
+        Assert.assertEquals(batchPayloads.size(), responsePayloads.size());
+        Assert.assertEquals(FemurStatus.QUERY_INVALID, responsePayloads.get(1).getLeft());
+        Assert.assertEquals(FemurStatus.QUERY_INVALID, responsePayloads.get(3).getLeft());
+        int[] validResponseIndexes = IntStream.concat(IntStream.of(0, 2), IntStream.range(4, batchPayloads.size())).toArray();
+        for (int i = 0; i < DEFAULT_QUERY_NUM; i++) {
+            Pair<FemurStatus, List<byte[]>> responsePayload = responsePayloads.get(validResponseIndexes[i]);
+            Assert.assertEquals(FemurStatus.SERVER_SUCC_RES, responsePayload.getLeft());
+            Pair<FemurStatus, byte[]> answer = clients[i].retrieve(responsePayload);
+            Assert.assertEquals(answer.getKey(), FemurStatus.SERVER_SUCC_RES);
+            Assert.assertArrayEquals(answer.getValue(), keyValueDatabase.get(queryKeys[i]));
+        }
+        server.reset();
+    }
+
     @Test
     public void testUpdateValue() {
         testUpdateValue(1 << 10, Long.SIZE, 0.01);
@@ -228,6 +228,208 @@ jobject JNICALL Java_edu_alibaba_work_femur_FemurSealPirNativeUtils_generateRepl
     return nullptr;
 }
 
+[[maybe_unused]] JNIEXPORT
+jobject JNICALL Java_edu_alibaba_work_femur_FemurSealPirNativeUtils_generateReplyBatch(
+        JNIEnv *env, jclass, jbyteArray parms_bytes, jobject galois_keys_list, jobject queries_list,
+        jobjectArray plaintexts_list, jintArray offsets_array, jobjectArray nvecs_array) {
+    EncryptionParameters parms = deserialize_encryption_parms(env, parms_bytes);
+    SEALContext context(parms);
+    Evaluator evaluator(context);
+    jclass list_jcs = env->FindClass("java/util/ArrayList");
+    jmethodID list_init = env->GetMethodID(list_jcs, "<init>", "()V");
+    jmethodID list_get = env->GetMethodID(list_jcs, "get", "(I)Ljava/lang/Object;");
+    jmethodID list_size = env->GetMethodID(list_jcs, "size", "()I");
+    jmethodID list_add = env->GetMethodID(list_jcs, "add", "(Ljava/lang/Object;)Z");
+    // the union of all query ranges is deserialized only once for all queries
+    vector<Plaintext> database = deserialize_plaintexts_array(env, plaintexts_list, context);
+    uint32_t coeff_count = parms.poly_modulus_degree();
+    uint32_t expansion_ratio = compute_expansion_ratio(parms);
+    // deserialize ranges, Galois keys and queries of all clients, a query that fails is marked invalid and gets a null
+    // reply, so that it does not fail other queries in the batch
+    uint32_t query_num = env->CallIntMethod(queries_list, list_size);
+    jint *offsets_ptr = env->GetIntArrayElements(offsets_array, JNI_FALSE);
+    vector<uint32_t> offsets(offsets_ptr, offsets_ptr + query_num);
+    env->ReleaseIntArrayElements(offsets_array, offsets_ptr, 0);
+    vector<vector<uint32_t>> nvecs(query_num);
+    vector<uint32_t> products(query_num, 1);
+    vector<GaloisKeys*> galois_keys(query_num, nullptr);
+    vector<vector<vector<Ciphertext>>> query(query_num);
+    vector<bool> valid(query_num, true);
+    for (uint32_t q = 0; q < query_num; q++) {
+        auto nvec_array = (jintArray) env->GetObjectArrayElement(nvecs_array, q);
+        jint *ptr = env->GetIntArrayElements(nvec_array, JNI_FALSE);
+        uint32_t d = env->GetArrayLength(nvec_array);
+        nvecs[q].assign(ptr, ptr + d);
+        env->ReleaseIntArrayElements(nvec_array, ptr, 0);
+        env->DeleteLocalRef(nvec_array);
+        query[q].resize(d);
+        uint32_t expected_query_size = 0;
+        for (uint32_t i = 0; i < d; i++) {
+            expected_query_size += (nvecs[q][i] + coeff_count - 1) / coeff_count;
+            products[q] *= nvecs[q][i];
+        }
+        if (offsets[q] + products[q] > database.size()) {
+            valid[q] = false;
+            continue;
+        }
+        auto galois_keys_bytes = (jbyteArray) env->CallObjectMethod(galois_keys_list, list_get, q);
+        jobject ciphertexts_list = env->CallObjectMethod(queries_list, list_get, q);
+        try {
+            galois_keys[q] = deserialize_galois_keys(env, galois_keys_bytes, context);
+            vector<Ciphertext> query_list = deserialize_ciphertexts(env, ciphertexts_list, context);
+            if (query_list.size() != expected_query_size) {
+                valid[q] = false;
+            } else {
+                uint32_t index = 0;
+                for (uint32_t i = 0; i < d; i++) {
+                    uint32_t num_ptxts = ceil((nvecs[q][i] + 0.0) / coeff_count);
+                    for (uint32_t j = 0; j < num_ptxts; j++) {
+                        query[q][i].push_back(query_list[index++]);
+                    }
+                }
+            }
+        } catch (const std::exception &) {
+            valid[q] = false;
+        }
+        if (env->ExceptionCheck()) {
+            env->ExceptionClear();
+            valid[q] = false;
+        }
+        env->DeleteLocalRef(galois_keys_bytes);
+        env->DeleteLocalRef(ciphertexts_list);
+    }
+    auto free_galois_keys = [&]() {
+        for (auto & keys : galois_keys) {
+            delete keys;
+            keys = nullptr;
+        }
+    };
+    // expand the query of the q-th client in the i-th dimension, in NTT form
+    auto expand_dimension = [&](uint32_t q, uint32_t i, vector<Ciphertext> &expanded_query) {
+        const vector<uint32_t> &nvec = nvecs[q];
+        try {
+            for (uint32_t j = 0; j < query[q][i].size(); j++) {
+                uint64_t total = coeff_count;
+                if (j == query[q][i].size() - 1) {
+                    total = nvec[i] % coeff_count;
+                    if (total == 0) {
+                        total = coeff_count;
+                    }
+                }
+                vector<Ciphertext> expanded_query_part = expand_query(parms, query[q][i][j], *galois_keys[q], total);
+                expanded_query.insert(
+                        expanded_query.end(),
+                        std::make_move_iterator(expanded_query_part.begin()),
+                        std::make_move_iterator(expanded_query_part.end()));
+                expanded_query_part.clear();
+            }
+            if (expanded_query.size() != nvec[i]) {
+                return false;
+            }
+            for (auto & jj : expanded_query) {
+                evaluator.transform_to_ntt_inplace(jj);
+            }
+        } catch (const std::exception &) {
+            return false;
+        }
+        return true;
+    };
+    // first dimension, stream each plaintext of the union through all queries whose ranges contain it. The t-th
+    // plaintext in the range of a query is database[k + j * product] with product = prod(nvec) / nvec[0], and t grows
+    // with the union index, so that j = 0 always comes before j > 0 for each k.
+    vector<vector<Ciphertext>> expanded_queries(query_num);
+    vector<vector<Ciphertext>> intermediate_ctxts(query_num);
+    vector<uint32_t> first_products(query_num, 0);
+    for (uint32_t q = 0; q < query_num; q++) {
+        if (valid[q] && !expand_dimension(q, 0, expanded_queries[q])) {
+            valid[q] = false;
+        }
+        if (valid[q]) {
+            first_products[q] = products[q] / nvecs[q][0];
+            intermediate_ctxts[q].resize(first_products[q]);
+        }
+    }
+    Ciphertext temp;
+    for (uint32_t u = 0; u < database.size(); u++) {
+        const Plaintext &plaintext = database[u];
+        for (uint32_t q = 0; q < query_num; q++) {
+            if (!valid[q] || u < offsets[q] || u >= offsets[q] + products[q]) {
+                continue;
+            }
+            uint32_t t = u - offsets[q];
+            uint32_t j = t / first_products[q];
+            uint32_t k = t % first_products[q];
+            if (j == 0) {
+                evaluator.multiply_plain(expanded_queries[q][0], plaintext, intermediate_ctxts[q][k]);
+            } else {
+                evaluator.multiply_plain(expanded_queries[q][j], plaintext, temp);
+                evaluator.add_inplace(intermediate_ctxts[q][k], temp);
+            }
+        }
+    }
+    expanded_queries.clear();
+    database.clear();
+    // remaining dimensions only depend on each query
+    jobject replies_list = env->NewObject(list_jcs, list_init, "");
+    for (uint32_t q = 0; q < query_num; q++) {
+        if (!valid[q]) {
+            env->CallBooleanMethod(replies_list, list_add, nullptr);
+            continue;
+        }
+        const vector<uint32_t> &nvec = nvecs[q];
+        vector<Ciphertext> &cur_ctxts = intermediate_ctxts[q];
+        uint32_t cur_product = first_products[q];
+        for (auto & intermediate_ctxt : cur_ctxts) {
+            evaluator.transform_from_ntt_inplace(intermediate_ctxt);
+        }
+        for (uint32_t i = 1; i < nvec.size(); i++) {
+            vector<Plaintext> intermediate_plain;
+            intermediate_plain.reserve(expansion_ratio * cur_product);
+            for (uint32_t rr = 0; rr < cur_product; rr++) {
+                evaluator.mod_switch_to_inplace(cur_ctxts[rr], context.last_parms_id());
+                vector<Plaintext> plains = decompose_to_plaintexts(context.last_context_data()->parms(), cur_ctxts[rr]);
+                for (auto & plain : plains) {
+                    intermediate_plain.emplace_back(plain);
+                }
+            }
+            cur_product = intermediate_plain.size();
+            vector<Ciphertext> expanded_query;
+            if (!expand_dimension(q, i, expanded_query)) {
+                valid[q] = false;
+                break;
+            }
+            for (auto & jj : intermediate_plain) {
+                evaluator.transform_to_ntt_inplace(jj, context.first_parms_id());
+            }
+            cur_product /= nvec[i];
+            vector<Ciphertext> next_ctxts(cur_product);
+            for (uint32_t k = 0; k < cur_product; k++) {
+                evaluator.multiply_plain(expanded_query[0], intermediate_plain[k], next_ctxts[k]);
+                for (uint32_t j = 1; j < nvec[i]; j++) {
+                    evaluator.multiply_plain(expanded_query[j], intermediate_plain[k + j * cur_product], temp);
+                    evaluator.add_inplace(next_ctxts[k], temp);
+                }
+            }
+            for (auto & next_ctxt : next_ctxts) {
+                evaluator.transform_from_ntt_inplace(next_ctxt);
+            }
+            cur_ctxts = std::move(next_ctxts);
+        }
+        if (!valid[q]) {
+            env->CallBooleanMethod(replies_list, list_add, nullptr);
+            cur_ctxts.clear();
+            continue;
+        }
+        jobject reply_list = serialize_ciphertexts(env, cur_ctxts);
+        env->CallBooleanMethod(replies_list, list_add, reply_list);
+        env->DeleteLocalRef(reply_list);
+        cur_ctxts.clear();
+    }
+    free_galois_keys();
+    env->DeleteLocalRef(list_jcs);
+    return replies_list;
+}
+
 [[maybe_unused]] JNIEXPORT
 jlongArray JNICALL Java_edu_alibaba_work_femur_FemurSealPirNativeUtils_decryptReply(
         JNIEnv *env, jclass, jbyteArray parms_bytes, jbyteArray sk_bytes, jobject response_list, jint d) {
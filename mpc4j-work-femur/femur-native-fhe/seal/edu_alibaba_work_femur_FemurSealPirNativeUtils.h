@@ -55,6 +55,14 @@ JNIEXPORT jobject JNICALL Java_edu_alibaba_work_femur_FemurSealPirNativeUtils_ge
 JNIEXPORT jobject JNICALL Java_edu_alibaba_work_femur_FemurSealPirNativeUtils_generateReply
   (JNIEnv *, jclass, jbyteArray, jbyteArray, jobject, jobjectArray, jintArray);
 
+/*
+ * Class:     edu_alibaba_work_femur_FemurSealPirNativeUtils
+ * Method:    generateReplyBatch
+ * Signature: ([BLjava/util/List;Ljava/util/List;[[B[I[[I)Ljava/util/List;
+ */
+JNIEXPORT jobject JNICALL Java_edu_alibaba_work_femur_FemurSealPirNativeUtils_generateReplyBatch
+  (JNIEnv *, jclass, jbyteArray, jobject, jobject, jobjectArray, jintArray, jobjectArray);
+
 /*
  * Class:     edu_alibaba_work_femur_FemurSealPirNativeUtils
  * Method:    decryptReply
@@ -35,6 +35,8 @@ public class FemurPirConfigUtils {
         int redisPort = properties.getProperty("redis_port") == null ? 6379 : PropertiesUtils.readInt(properties, "redis_port");
         String redisHost = properties.getProperty("redis_host") == null ? "127.0.0.1" : PropertiesUtils.readString(properties, "redis_host");
         int timeout = properties.getProperty("time_out") == null ? Protocol.DEFAULT_TIMEOUT : PropertiesUtils.readInt(properties, "time_out");
+        int maxBatchLatency = properties.getProperty("max_batch_latency") == null ? 0 : PropertiesUtils.readInt(properties, "max_batch_latency");
+        int maxBatchSize = properties.getProperty("max_batch_size") == null ? 64 : PropertiesUtils.readInt(properties, "max_batch_size");
         return switch (femurPirType) {
             case SEAL_REDIS -> new SealFemurDemoRedisPirConfig.Builder()
                 .setParams(new FemurSealPirParams(4096, 20, 2))
@@ -51,6 +53,7 @@ public class FemurPirConfigUtils {
                 .setParams(new FemurSealPirParams(4096, 20, 2))
                 .setDp(dp)
                 .setPgmIndexLeafEpsilon(pgmIndexLeafEpsilon)
+                .setBatch(maxBatchLatency, maxBatchSize)
                 .build();
             case NAIVE_MEMORY -> new NaiveFemurDemoMemoryPirConfig.Builder()
                 .setDp(dp)
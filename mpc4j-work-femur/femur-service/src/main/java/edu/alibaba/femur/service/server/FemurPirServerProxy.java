@@ -9,6 +9,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -68,9 +69,25 @@ public class FemurPirServerProxy extends FemurServicePirServerImplBase {
      * query time
      */
     private long queryTime;
+    /**
+     * query batcher, null if queries are not batched
+     */
+    private final FemurQueryBatcher queryBatcher;
 
     public FemurPirServerProxy(FemurDemoPirServer demoPirServer) {
+        this(demoPirServer, 0, 1);
+    }
+
+    /**
+     * Creates a proxy that batches queries arriving within the max batch latency.
+     *
+     * @param demoPirServer   demo PIR server.
+     * @param maxBatchLatency max batch latency in milliseconds, 0 means queries are not batched.
+     * @param maxBatchSize    max batch size.
+     */
+    public FemurPirServerProxy(FemurDemoPirServer demoPirServer, long maxBatchLatency, int maxBatchSize) {
         this.demoPirServer = demoPirServer;
+        queryBatcher = maxBatchLatency > 0 ? new FemurQueryBatcher(demoPirServer, maxBatchLatency, maxBatchSize) : null;
         LOGGER.info("TYPE\tSTATUS\tREQ_SIZE(B)\tRES_SIZE(B)\tTIME(ms)");
         registerRequestSize = 0;
         registerResponseSize = 0;
@@ -160,7 +177,29 @@ public class FemurPirServerProxy extends FemurServicePirServerImplBase {
             .stream()
             .map(ByteString::toByteArray)
             .toList();
-        Pair<FemurStatus, List<byte[]>> queryResponse = demoPirServer.response(queryRequestPayload);
+        if (queryBatcher == null) {
+            Pair<FemurStatus, List<byte[]>> queryResponse;
+            try {
+                queryResponse = demoPirServer.response(queryRequestPayload);
+            } catch (RuntimeException e) {
+                // same as batched queries, a malformed query gets QUERY_INVALID
+                queryResponse = Pair.of(FemurStatus.QUERY_INVALID, new LinkedList<>());
+            }
+            completeQuery(request, queryResponse, responseObserver, stopWatch);
+        } else {
+            // the response is sent when the batch containing this query is answered
+            queryBatcher.submit(queryRequestPayload).whenComplete((queryResponse, throwable) -> {
+                if (throwable != null) {
+                    responseObserver.onError(throwable);
+                } else {
+                    completeQuery(request, queryResponse, responseObserver, stopWatch);
+                }
+            });
+        }
+    }
+
+    private void completeQuery(QueryRequest request, Pair<FemurStatus, List<byte[]>> queryResponse,
+                               io.grpc.stub.StreamObserver<QueryResponse> responseObserver, StopWatch stopWatch) {
         if (queryResponse.getLeft().equals(FemurStatus.HINT_V_MISMATCH)) {
             Pair<FemurStatus, List<byte[]>> hintResponse = demoPirServer.getHint();
             if (hintResponse.getLeft().equals(FemurStatus.SERVER_SUCC_RES)) {
@@ -184,9 +223,11 @@ public class FemurPirServerProxy extends FemurServicePirServerImplBase {
         int responseSize = response.getSerializedSize();
         long time = stopWatch.getTime(TIME_UNIT);
         printLogger("  QUERY", queryResponse.getLeft().toString(), requestSize, responseSize, time);
-        queryRequestSize += requestSize;
-        queryResponseSize += responseSize;
-        queryTime += time;
+        synchronized (this) {
+            queryRequestSize += requestSize;
+            queryResponseSize += responseSize;
+            queryTime += time;
+        }
     }
 
     private void printLogger(String type, String status, int requestSize, int responseSize, long time) {
@@ -229,6 +270,42 @@ public class FemurPirServerProxy extends FemurServicePirServerImplBase {
         return queryTime;
     }
 
+    /**
+     * Gets the number of answered query batches, 0 if queries are not batched.
+     *
+     * @return the number of answered query batches.
+     */
+    public long getQueryBatchNum() {
+        return queryBatcher == null ? 0 : queryBatcher.getBatchNum();
+    }
+
+    /**
+     * Gets the number of queries answered in batches, 0 if queries are not batched.
+     *
+     * @return the number of queries answered in batches.
+     */
+    public long getQueryBatchQueryNum() {
+        return queryBatcher == null ? 0 : queryBatcher.getBatchQueryNum();
+    }
+
+    /**
+     * Gets the total time for answering query batches, 0 if queries are not batched.
+     *
+     * @return the total time for answering query batches.
+     */
+    public long getQueryBatchTime() {
+        return queryBatcher == null ? 0 : queryBatcher.getBatchTime();
+    }
+
+    /**
+     * Stops batching queries.
+     */
+    public void shutdown() {
+        if (queryBatcher != null) {
+            queryBatcher.shutdown();
+        }
+    }
+
     public void reset() {
         registerRequestSize = 0;
         registerResponseSize = 0;
@@ -239,5 +316,8 @@ public class FemurPirServerProxy extends FemurServicePirServerImplBase {
         queryRequestSize = 0;
         queryResponseSize = 0;
         queryTime = 0;
+        if (queryBatcher != null) {
+            queryBatcher.reset();
+        }
     }
 }
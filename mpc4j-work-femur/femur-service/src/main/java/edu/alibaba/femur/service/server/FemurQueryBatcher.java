@@ -0,0 +1,219 @@
+package edu.alibaba.femur.service.server;
+
+import edu.alibaba.mpc4j.common.tool.MathPreconditions;
+import edu.alibaba.work.femur.demo.FemurDemoPirServer;
+import edu.alibaba.work.femur.demo.FemurStatus;
+import org.apache.commons.lang3.time.StopWatch;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Femur query batcher. Queries arriving within a short window are collected into one batch and answered by
+ * {@link FemurDemoPirServer#batchResponse(List)}, so that the server can make one pass over the database for queries
+ * reading the same range.
+ * <p>
+ * A dispatcher thread waits for the first query, then collects queries until the max batch latency elapses or the
+ * batch is full. Batches are answered by a worker pool, so that the next batch is collected while the current batch is
+ * being answered.
+ * </p>
+ *
+ * @author Liqiang Peng
+ * @date 2025/1/15
+ */
+public class FemurQueryBatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FemurQueryBatcher.class);
+    /**
+     * demo PIR server
+     */
+    private final FemurDemoPirServer demoPirServer;
+    /**
+     * max batch latency in milliseconds
+     */
+    private final long maxBatchLatency;
+    /**
+     * max batch size
+     */
+    private final int maxBatchSize;
+    /**
+     * pending queries
+     */
+    private final BlockingQueue<PendingQuery> pendingQueries;
+    /**
+     * dispatcher
+     */
+    private final ExecutorService dispatcher;
+    /**
+     * workers
+     */
+    private final ExecutorService workers;
+    /**
+     * number of answered batches
+     */
+    private final AtomicLong batchNum;
+    /**
+     * number of answered queries
+     */
+    private final AtomicLong batchQueryNum;
+    /**
+     * total time for answering batches
+     */
+    private final AtomicLong batchTime;
+    /**
+     * whether the batcher is shut down
+     */
+    private volatile boolean shutdown;
+
+    public FemurQueryBatcher(FemurDemoPirServer demoPirServer, long maxBatchLatency, int maxBatchSize) {
+        this.demoPirServer = demoPirServer;
+        this.maxBatchLatency = MathPreconditions.checkPositive("maxBatchLatency", maxBatchLatency);
+        this.maxBatchSize = MathPreconditions.checkPositive("maxBatchSize", maxBatchSize);
+        pendingQueries = new LinkedBlockingQueue<>();
+        batchNum = new AtomicLong();
+        batchQueryNum = new AtomicLong();
+        batchTime = new AtomicLong();
+        workers = Executors.newFixedThreadPool(ForkJoinPool.getCommonPoolParallelism());
+        dispatcher = Executors.newSingleThreadExecutor();
+        dispatcher.submit(this::dispatch);
+    }
+
+    /**
+     * Submits a query.
+     *
+     * @param queryPayload query payload.
+     * @return future of (code, response payload), failed if the batcher is shut down.
+     */
+    public CompletableFuture<Pair<FemurStatus, List<byte[]>>> submit(List<byte[]> queryPayload) {
+        CompletableFuture<Pair<FemurStatus, List<byte[]>>> future = new CompletableFuture<>();
+        if (shutdown) {
+            future.completeExceptionally(
+                new IllegalStateException(FemurQueryBatcher.class.getSimpleName() + " is shut down")
+            );
+            return future;
+        }
+        pendingQueries.add(new PendingQuery(queryPayload, future));
+        // shutdown may happen after the check, fail queries that the dispatcher will never collect
+        if (shutdown) {
+            failPendingQueries();
+        }
+        return future;
+    }
+
+    private void dispatch() {
+        List<PendingQuery> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                // wait for the first query, then collect queries within the window
+                batch.add(pendingQueries.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchLatency);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingQuery pendingQuery = pendingQueries.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (pendingQuery == null) {
+                        break;
+                    }
+                    batch.add(pendingQuery);
+                }
+                List<PendingQuery> readyBatch = batch;
+                workers.submit(() -> answer(readyBatch));
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Workers are shut down, stop dispatching queries");
+        }
+        // queries that are collected but not answered fail
+        IllegalStateException e = new IllegalStateException(FemurQueryBatcher.class.getSimpleName() + " is shut down");
+        batch.forEach(pendingQuery -> pendingQuery.future().completeExceptionally(e));
+    }
+
+    private void answer(List<PendingQuery> batch) {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        try {
+            List<List<byte[]>> queryPayloads = batch.stream().map(PendingQuery::queryPayload).toList();
+            List<Pair<FemurStatus, List<byte[]>>> responses = demoPirServer.batchResponse(queryPayloads);
+            stopWatch.stop();
+            batchNum.incrementAndGet();
+            batchQueryNum.addAndGet(batch.size());
+            batchTime.addAndGet(stopWatch.getTime(TimeUnit.MILLISECONDS));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(responses.get(i));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Error answering a batch of {} queries", batch.size(), e);
+            batch.forEach(pendingQuery -> pendingQuery.future().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Gets the number of answered batches.
+     *
+     * @return the number of answered batches.
+     */
+    public long getBatchNum() {
+        return batchNum.get();
+    }
+
+    /**
+     * Gets the number of queries answered in batches.
+     *
+     * @return the number of queries answered in batches.
+     */
+    public long getBatchQueryNum() {
+        return batchQueryNum.get();
+    }
+
+    /**
+     * Gets the total time (ms) for answering batches.
+     *
+     * @return the total time for answering batches.
+     */
+    public long getBatchTime() {
+        return batchTime.get();
+    }
+
+    /**
+     * Resets batch metrics.
+     */
+    public void reset() {
+        batchNum.set(0);
+        batchQueryNum.set(0);
+        batchTime.set(0);
+    }
+
+    /**
+     * Stops collecting queries. Collected batches are still answered, and queries not collected yet fail.
+     */
+    public void shutdown() {
+        shutdown = true;
+        dispatcher.shutdownNow();
+        workers.shutdown();
+        failPendingQueries();
+    }
+
+    private void failPendingQueries() {
+        List<PendingQuery> remainingQueries = new ArrayList<>();
+        pendingQueries.drainTo(remainingQueries);
+        IllegalStateException e = new IllegalStateException(FemurQueryBatcher.class.getSimpleName() + " is shut down");
+        remainingQueries.forEach(pendingQuery -> pendingQuery.future().completeExceptionally(e));
+    }
+
+    /**
+     * pending query.
+     *
+     * @param queryPayload query payload.
+     * @param future       future of the response.
+     */
+    private record PendingQuery(List<byte[]> queryPayload, CompletableFuture<Pair<FemurStatus, List<byte[]>>> future) {
+    }
+}
@@ -68,7 +68,9 @@ public class FemurSealMemoryPirServerBoot implements FemurPirServerBoot {
                 try {
                     // server
                     demoPirServer = new SealFemurDemoMemoryPirServer(config);
-                    serverProxy = new FemurPirServerProxy(demoPirServer);
+                    serverProxy = new FemurPirServerProxy(
+                        demoPirServer, config.getMaxBatchLatency(), config.getMaxBatchSize()
+                    );
                     grpcServer = ServerBuilder.forPort(port)
                         .executor(Executors.newFixedThreadPool(ForkJoinPool.getCommonPoolParallelism()))
                         .addService(serverProxy)
@@ -97,6 +99,7 @@ public class FemurSealMemoryPirServerBoot implements FemurPirServerBoot {
 
     @Override
     public void stop() {
+        serverProxy.shutdown();
         demoPirServer.reset();
         executor.shutdown();
     }
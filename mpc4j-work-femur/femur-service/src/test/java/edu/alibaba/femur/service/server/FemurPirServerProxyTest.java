@@ -0,0 +1,251 @@
+package edu.alibaba.femur.service.server;
+
+import com.google.common.base.Preconditions;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
+import edu.alibaba.work.femur.demo.FemurDemoPirClient;
+import edu.alibaba.work.femur.demo.FemurDemoPirConfig;
+import edu.alibaba.work.femur.demo.FemurDemoPirFactory;
+import edu.alibaba.work.femur.demo.FemurDemoPirServer;
+import edu.alibaba.work.femur.demo.FemurStatus;
+import edu.alibaba.work.femur.demo.naive.NaiveFemurDemoMemoryPirConfig;
+import edu.alibaba.work.femur.service.api.FemurServicePirServerOuterClass;
+import gnu.trove.map.TLongObjectMap;
+import io.grpc.stub.StreamObserver;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static edu.alibaba.work.femur.service.api.FemurServicePirServerOuterClass.*;
+
+/**
+ * Femur PIR server proxy test. The test calls the proxy directly, without starting a gRPC server.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+@RunWith(Parameterized.class)
+public class FemurPirServerProxyTest {
+    /**
+     * database size
+     */
+    private static final int N = 1 << 10;
+    /**
+     * entry bit length
+     */
+    private static final int L = Long.SIZE;
+    /**
+     * default query num
+     */
+    private static final int DEFAULT_QUERY_NUM = 4;
+    /**
+     * default t
+     */
+    private static final int DEFAULT_T = 1 << 8;
+    /**
+     * epsilon
+     */
+    private static final double EPSILON = 0.01;
+    /**
+     * timeout in seconds for waiting a response
+     */
+    private static final long TIMEOUT = 10;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> configurations() {
+        Collection<Object[]> configurations = new ArrayList<>();
+
+        // queries are not batched
+        configurations.add(new Object[]{"no batch", 0L, 1});
+        // queries are batched
+        configurations.add(new Object[]{"batch", 10L, DEFAULT_QUERY_NUM});
+
+        return configurations;
+    }
+
+    /**
+     * max batch latency
+     */
+    private final long maxBatchLatency;
+    /**
+     * max batch size
+     */
+    private final int maxBatchSize;
+    /**
+     * config
+     */
+    private final FemurDemoPirConfig config;
+    /**
+     * random state
+     */
+    private final SecureRandom secureRandom;
+    /**
+     * key-value database
+     */
+    private TLongObjectMap<byte[]> keyValueDatabase;
+    /**
+     * demo PIR server
+     */
+    private FemurDemoPirServer server;
+    /**
+     * proxy
+     */
+    private FemurPirServerProxy proxy;
+
+    public FemurPirServerProxyTest(String name, long maxBatchLatency, int maxBatchSize) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(name));
+        this.maxBatchLatency = maxBatchLatency;
+        this.maxBatchSize = maxBatchSize;
+        config = new NaiveFemurDemoMemoryPirConfig.Builder().build();
+        secureRandom = new SecureRandom();
+    }
+
+    @Before
+    public void setUp() {
+        keyValueDatabase = NaiveRedisServiceTest.generateKeyValueDatabase(N, L, secureRandom);
+        server = FemurDemoPirFactory.createServer(config);
+        server.init(N, L);
+        server.setDatabase(keyValueDatabase);
+        proxy = new FemurPirServerProxy(server, maxBatchLatency, maxBatchSize);
+    }
+
+    @After
+    public void tearDown() {
+        proxy.shutdown();
+        server.reset();
+    }
+
+    @Test
+    public void testQuery() throws Exception {
+        long[] keys = keyValueDatabase.keys();
+        long[] queryKeys = new long[DEFAULT_QUERY_NUM];
+        FemurDemoPirClient[] clients = new FemurDemoPirClient[DEFAULT_QUERY_NUM];
+        List<CompletableFuture<QueryResponse>> futures = new ArrayList<>(DEFAULT_QUERY_NUM);
+        for (int i = 0; i < DEFAULT_QUERY_NUM; i++) {
+            clients[i] = createClient("Client " + i);
+            queryKeys[i] = keys[secureRandom.nextInt(N)];
+            futures.add(query(clients[i].query(queryKeys[i], DEFAULT_T, EPSILON)));
+        }
+        for (int i = 0; i < DEFAULT_QUERY_NUM; i++) {
+            QueryResponse response = futures.get(i).get(TIMEOUT, TimeUnit.SECONDS);
+            Assert.assertEquals(FemurServicePirServerOuterClass.FemurStatus.SERVER_SUCC_RES, response.getCode());
+            Pair<FemurStatus, byte[]> answer = clients[i].retrieve(Pair.of(
+                FemurStatus.SERVER_SUCC_RES, toByteArrays(response.getQueryResponsePayloadList())
+            ));
+            Assert.assertEquals(FemurStatus.SERVER_SUCC_RES, answer.getLeft());
+            Assert.assertArrayEquals(keyValueDatabase.get(queryKeys[i]), answer.getRight());
+        }
+        Assert.assertTrue(proxy.getQueryRequestSize() > 0);
+        Assert.assertTrue(proxy.getQueryResponseSize() > 0);
+        if (maxBatchLatency > 0) {
+            Assert.assertEquals(DEFAULT_QUERY_NUM, proxy.getQueryBatchQueryNum());
+        } else {
+            Assert.assertEquals(0, proxy.getQueryBatchNum());
+        }
+    }
+
+    @Test
+    public void testInvalidQuery() throws Exception {
+        // the invalid query only fails itself, the valid query in the same batch succeeds
+        FemurDemoPirClient client = createClient("Alice");
+        long[] keys = keyValueDatabase.keys();
+        long queryKey = keys[secureRandom.nextInt(N)];
+        List<byte[]> queryPayload = client.query(queryKey, DEFAULT_T, EPSILON);
+        List<byte[]> invalidQueryPayload = new ArrayList<>(queryPayload.subList(0, queryPayload.size() - 1));
+        CompletableFuture<QueryResponse> invalidFuture = query(invalidQueryPayload);
+        CompletableFuture<QueryResponse> validFuture = query(queryPayload);
+        Assert.assertEquals(
+            FemurServicePirServerOuterClass.FemurStatus.QUERY_INVALID,
+            invalidFuture.get(TIMEOUT, TimeUnit.SECONDS).getCode()
+        );
+        QueryResponse response = validFuture.get(TIMEOUT, TimeUnit.SECONDS);
+        Assert.assertEquals(FemurServicePirServerOuterClass.FemurStatus.SERVER_SUCC_RES, response.getCode());
+        Pair<FemurStatus, byte[]> answer = client.retrieve(Pair.of(
+            FemurStatus.SERVER_SUCC_RES, toByteArrays(response.getQueryResponsePayloadList())
+        ));
+        Assert.assertArrayEquals(keyValueDatabase.get(queryKey), answer.getRight());
+    }
+
+    @Test
+    public void testUnregisteredClient() throws Exception {
+        FemurDemoPirClient client = createClient("Alice");
+        long[] keys = keyValueDatabase.keys();
+        List<byte[]> queryPayload = client.query(keys[secureRandom.nextInt(N)], DEFAULT_T, EPSILON);
+        server.reset();
+        server.init(N, L);
+        server.setDatabase(keyValueDatabase);
+        QueryResponse response = query(queryPayload).get(TIMEOUT, TimeUnit.SECONDS);
+        Assert.assertEquals(FemurServicePirServerOuterClass.FemurStatus.CLIENT_NOT_REGS, response.getCode());
+    }
+
+    private FemurDemoPirClient createClient(String clientId) throws Exception {
+        FemurDemoPirClient client = FemurDemoPirFactory.createClient(config);
+        RegisterRequest registerRequest = RegisterRequest.newBuilder()
+            .addAllRegisterRequestPayload(toByteStrings(client.register(clientId)))
+            .build();
+        CompletableFuture<RegisterResponse> registerFuture = new CompletableFuture<>();
+        proxy.register(registerRequest, new FutureObserver<>(registerFuture));
+        RegisterResponse registerResponse = registerFuture.get(TIMEOUT, TimeUnit.SECONDS);
+        Assert.assertEquals(FemurServicePirServerOuterClass.FemurStatus.SERVER_SUCC_RES, registerResponse.getCode());
+        client.setDatabaseParams(toByteArrays(registerResponse.getRegisterResponsePayloadList()));
+        CompletableFuture<HintResponse> hintFuture = new CompletableFuture<>();
+        proxy.getHint(Empty.getDefaultInstance(), new FutureObserver<>(hintFuture));
+        HintResponse hintResponse = hintFuture.get(TIMEOUT, TimeUnit.SECONDS);
+        Assert.assertEquals(FemurServicePirServerOuterClass.FemurStatus.SERVER_SUCC_RES, hintResponse.getCode());
+        client.setHint(toByteArrays(hintResponse.getHintsResponsePayloadList()));
+        return client;
+    }
+
+    private CompletableFuture<QueryResponse> query(List<byte[]> queryPayload) {
+        QueryRequest queryRequest = QueryRequest.newBuilder()
+            .addAllQueryRequestPayload(toByteStrings(queryPayload))
+            .build();
+        CompletableFuture<QueryResponse> future = new CompletableFuture<>();
+        proxy.query(queryRequest, new FutureObserver<>(future));
+        return future;
+    }
+
+    private static List<ByteString> toByteStrings(List<byte[]> payload) {
+        return payload.stream().map(ByteString::copyFrom).toList();
+    }
+
+    private static List<byte[]> toByteArrays(List<ByteString> payload) {
+        return payload.stream().map(ByteString::toByteArray).toList();
+    }
+
+    /**
+     * stream observer that completes a future with the single response.
+     *
+     * @param future future.
+     * @param <T>    response type.
+     */
+    private record FutureObserver<T>(CompletableFuture<T> future) implements StreamObserver<T> {
+
+        @Override
+        public void onNext(T value) {
+            future.complete(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            future.completeExceptionally(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            // the response is completed in onNext
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package edu.alibaba.femur.service.server;
+
+import edu.alibaba.work.femur.demo.*;
+import edu.alibaba.work.femur.demo.naive.NaiveFemurDemoMemoryPirConfig;
+import gnu.trove.map.TLongObjectMap;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Femur query batcher test.
+ *
+ * @author Weiran Liu
+ * @date 2025/3/3
+ */
+public class FemurQueryBatcherTest {
+    /**
+     * database size
+     */
+    private static final int N = 1 << 10;
+    /**
+     * entry bit length
+     */
+    private static final int L = Long.SIZE;
+    /**
+     * default t
+     */
+    private static final int DEFAULT_T = 1 << 8;
+    /**
+     * epsilon
+     */
+    private static final double EPSILON = 0.01;
+    /**
+     * timeout in seconds for waiting a response
+     */
+    private static final long TIMEOUT = 10;
+    /**
+     * config
+     */
+    private final FemurDemoPirConfig config;
+    /**
+     * random state
+     */
+    private final SecureRandom secureRandom;
+    /**
+     * key-value database
+     */
+    private TLongObjectMap<byte[]> keyValueDatabase;
+    /**
+     * server
+     */
+    private FemurDemoPirServer server;
+    /**
+     * hint
+     */
+    private List<byte[]> hint;
+
+    public FemurQueryBatcherTest() {
+        config = new NaiveFemurDemoMemoryPirConfig.Builder().build();
+        secureRandom = new SecureRandom();
+    }
+
+    @Before
+    public void setUp() {
+        keyValueDatabase = NaiveRedisServiceTest.generateKeyValueDatabase(N, L, secureRandom);
+        server = FemurDemoPirFactory.createServer(config);
+        server.init(N, L);
+        server.setDatabase(keyValueDatabase);
+        Pair<FemurStatus, List<byte[]>> hintResponse = server.getHint();
+        Assert.assertEquals(FemurStatus.SERVER_SUCC_RES, hintResponse.getLeft());
+        hint = hintResponse.getRight();
+    }
+
+    @After
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        int queryNum = 8;
+        // a long latency so that all queries are collected into one batch
+        FemurQueryBatcher queryBatcher = new FemurQueryBatcher(server, 1000, queryNum);
+        testQueries(queryBatcher, queryNum);
+        Assert.assertEquals(1, queryBatcher.getBatchNum());
+        Assert.assertEquals(queryNum, queryBatcher.getBatchQueryNum());
+        queryBatcher.reset();
+        Assert.assertEquals(0, queryBatcher.getBatchNum());
+        Assert.assertEquals(0, queryBatcher.getBatchQueryNum());
+        Assert.assertEquals(0, queryBatcher.getBatchTime());
+        queryBatcher.shutdown();
+    }
+
+    @Test
+    public void testMaxBatchSize() throws Exception {
+        int queryNum = 8;
+        int maxBatchSize = 2;
+        // a long latency so that each batch is dispatched only when it is full
+        FemurQueryBatcher queryBatcher = new FemurQueryBatcher(server, 10000, maxBatchSize);
+        testQueries(queryBatcher, queryNum);
+        Assert.assertEquals(queryNum / maxBatchSize, queryBatcher.getBatchNum());
+        Assert.assertEquals(queryNum, queryBatcher.getBatchQueryNum());
+        queryBatcher.shutdown();
+    }
+
+    @Test
+    public void testMaxBatchLatency() throws Exception {
+        // a short latency so that a single query is answered without waiting for other queries
+        FemurQueryBatcher queryBatcher = new FemurQueryBatcher(server, 1, 1 << 10);
+        testQueries(queryBatcher, 1);
+        Assert.assertEquals(1, queryBatcher.getBatchNum());
+        queryBatcher.shutdown();
+    }
+
+    private void testQueries(FemurQueryBatcher queryBatcher, int queryNum)
+        throws ExecutionException, InterruptedException, TimeoutException {
+        long[] keys = keyValueDatabase.keys();
+        long[] queryKeys = new long[queryNum];
+        FemurDemoPirClient[] clients = new FemurDemoPirClient[queryNum];
+        List<CompletableFuture<Pair<FemurStatus, List<byte[]>>>> futures = new ArrayList<>(queryNum);
+        for (int i = 0; i < queryNum; i++) {
+            clients[i] = createClient("Client " + i);
+            queryKeys[i] = keys[secureRandom.nextInt(N)];
+            futures.add(queryBatcher.submit(clients[i].query(queryKeys[i], DEFAULT_T, EPSILON)));
+        }
+        for (int i = 0; i < queryNum; i++) {
+            Pair<FemurStatus, List<byte[]>> response = futures.get(i).get(TIMEOUT, TimeUnit.SECONDS);
+            Assert.assertEquals(FemurStatus.SERVER_SUCC_RES, response.getLeft());
+            Pair<FemurStatus, byte[]> answer = clients[i].retrieve(response);
+            Assert.assertEquals(FemurStatus.SERVER_SUCC_RES, answer.getLeft());
+            Assert.assertArrayEquals(keyValueDatabase.get(queryKeys[i]), answer.getRight());
+        }
+    }
+
+    @Test
+    public void testInvalidQuery() throws Exception {
+        FemurQueryBatcher queryBatcher = new FemurQueryBatcher(server, 1000, 3);
+        long[] keys = keyValueDatabase.keys();
+        long queryKey = keys[secureRandom.nextInt(N)];
+        FemurDemoPirClient client = createClient("Alice");
+        List<byte[]> queryPayload = client.query(queryKey, DEFAULT_T, EPSILON);
+        List<byte[]> invalidQueryPayload = new ArrayList<>(queryPayload.subList(0, queryPayload.size() - 1));
+        // the invalid query is in the same batch as valid queries, and only fails itself
+        CompletableFuture<Pair<FemurStatus, List<byte[]>>> invalidFuture = queryBatcher.submit(invalidQueryPayload);
+        CompletableFuture<Pair<FemurStatus, List<byte[]>>> validFuture = queryBatcher.submit(queryPayload);
+        CompletableFuture<Pair<FemurStatus, List<byte[]>>> anotherInvalidFuture = queryBatcher.submit(new ArrayList<>());
+        Assert.assertEquals(FemurStatus.QUERY_INVALID, invalidFuture.get(TIMEOUT, TimeUnit.SECONDS).getLeft());
+        Assert.assertEquals(FemurStatus.QUERY_INVALID, anotherInvalidFuture.get(TIMEOUT, TimeUnit.SECONDS).getLeft());
+        Pair<FemurStatus, List<byte[]>> response = validFuture.get(TIMEOUT, TimeUnit.SECONDS);
+        Assert.assertEquals(FemurStatus.SERVER_SUCC_RES, response.getLeft());
+        Pair<FemurStatus, byte[]> answer = client.retrieve(response);
+        Assert.assertArrayEquals(keyValueDatabase.get(queryKey), answer.getRight());
+        Assert.assertEquals(1, queryBatcher.getBatchNum());
+        queryBatcher.shutdown();
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        // a long latency so that the query is still pending when the batcher is shut down
+        FemurQueryBatcher queryBatcher = new FemurQueryBatcher(server, 10000, 1 << 10);
+        long[] keys = keyValueDatabase.keys();
+        FemurDemoPirClient client = createClient("Alice");
+        List<byte[]> queryPayload = client.query(keys[secureRandom.nextInt(N)], DEFAULT_T, EPSILON);
+        CompletableFuture<Pair<FemurStatus, List<byte[]>>> pendingFuture = queryBatcher.submit(queryPayload);
+        queryBatcher.shutdown();
+        assertShutdown(pendingFuture);
+        // queries submitted after shutdown fail
+        assertShutdown(queryBatcher.submit(queryPayload));
+        Assert.assertEquals(0, queryBatcher.getBatchNum());
+    }
+
+    private void assertShutdown(CompletableFuture<Pair<FemurStatus, List<byte[]>>> future)
+        throws InterruptedException, TimeoutException {
+        try {
+            future.get(TIMEOUT, TimeUnit.SECONDS);
+            Assert.fail("the query should fail after shutdown");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private FemurDemoPirClient createClient(String clientId) {
+        FemurDemoPirClient client = FemurDemoPirFactory.createClient(config);
+        Pair<FemurStatus, List<byte[]>> registerResponse = server.register(client.register(clientId));
+        Assert.assertEquals(FemurStatus.SERVER_SUCC_RES, registerResponse.getLeft());
+        client.setDatabaseParams(registerResponse.getRight());
+        client.setHint(hint);
+        return client;
+    }
+}